@@ -9,6 +9,7 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -17,6 +18,7 @@ import sy.sezar.clinicx.clinic.dto.StaffDto;
 import sy.sezar.clinicx.clinic.dto.StaffSearchCriteria;
 import sy.sezar.clinicx.clinic.dto.StaffUpdateRequest;
 import sy.sezar.clinicx.clinic.model.enums.StaffRole;
+import sy.sezar.clinicx.core.pagination.CountMode;
 
 import java.util.UUID;
 
@@ -47,7 +49,9 @@ public interface StaffControllerApi {
         }
     )
     @ApiResponse(responseCode = "200", description = "Staff members retrieved")
-    ResponseEntity<Page<StaffDto>> getAllStaff(
+    ResponseEntity<Slice<StaffDto>> getAllStaff(
+            @Parameter(description = "How the total is reported: EXACT, ESTIMATED, or NONE for a slice without a total")
+            @RequestParam(defaultValue = "EXACT") CountMode count,
             @Parameter(hidden = true) @PageableDefault(sort = "fullName") Pageable pageable);
 
     @GetMapping("/active")
@@ -90,9 +94,11 @@ public interface StaffControllerApi {
         }
     )
     @ApiResponse(responseCode = "200", description = "Staff members retrieved")
-    ResponseEntity<Page<StaffDto>> searchStaff(
+    ResponseEntity<Slice<StaffDto>> searchStaff(
             @Parameter(name = "searchTerm", description = "Search term for filtering staff members")
             @RequestParam(required = false) String searchTerm,
+            @Parameter(description = "How the total is reported: EXACT, ESTIMATED, or NONE for a slice without a total")
+            @RequestParam(defaultValue = "EXACT") CountMode count,
             @Parameter(hidden = true) @PageableDefault(sort = "fullName") Pageable pageable);
 
     @PostMapping("/search/advanced")
@@ -106,8 +112,10 @@ public interface StaffControllerApi {
         }
     )
     @ApiResponse(responseCode = "200", description = "Staff members retrieved")
-    ResponseEntity<Page<StaffDto>> advancedSearchStaff(
+    ResponseEntity<Slice<StaffDto>> advancedSearchStaff(
             @Valid @RequestBody StaffSearchCriteria criteria,
+            @Parameter(description = "How the total is reported: EXACT, ESTIMATED, or NONE for a slice without a total")
+            @RequestParam(defaultValue = "EXACT") CountMode count,
             @Parameter(hidden = true) @PageableDefault(sort = "fullName") Pageable pageable);
 
     @PostMapping
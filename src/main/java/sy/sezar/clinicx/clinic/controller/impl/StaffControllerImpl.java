@@ -4,6 +4,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
@@ -14,6 +15,7 @@ import sy.sezar.clinicx.clinic.dto.StaffSearchCriteria;
 import sy.sezar.clinicx.clinic.dto.StaffUpdateRequest;
 import sy.sezar.clinicx.clinic.model.enums.StaffRole;
 import sy.sezar.clinicx.clinic.service.StaffService;
+import sy.sezar.clinicx.core.pagination.CountMode;
 
 import java.util.UUID;
 
@@ -39,11 +41,11 @@ public class StaffControllerImpl implements StaffControllerApi {
     }
 
     @Override
-    public ResponseEntity<Page<StaffDto>> getAllStaff(Pageable pageable) {
+    public ResponseEntity<Slice<StaffDto>> getAllStaff(CountMode count, Pageable pageable) {
         log.info("Retrieving all staff members with pagination: {}", pageable);
 
         try {
-            Page<StaffDto> staff = staffService.findAllStaff(pageable);
+            Slice<StaffDto> staff = staffService.findAllStaff(pageable, count);
             log.info("Successfully retrieved {} staff members - Status: 200 OK", staff.getNumberOfElements());
             return ResponseEntity.ok(staff);
         } catch (Exception e) {
@@ -82,11 +84,11 @@ public class StaffControllerImpl implements StaffControllerApi {
     }
 
     @Override
-    public ResponseEntity<Page<StaffDto>> searchStaff(String searchTerm, Pageable pageable) {
+    public ResponseEntity<Slice<StaffDto>> searchStaff(String searchTerm, CountMode count, Pageable pageable) {
         log.info("Searching staff members with term: '{}' and pagination: {}", searchTerm, pageable);
 
         try {
-            Page<StaffDto> staff = staffService.searchStaff(searchTerm, pageable);
+            Slice<StaffDto> staff = staffService.searchStaff(searchTerm, pageable, count);
             log.info("Successfully found {} staff members for search term '{}' - Status: 200 OK",
                     staff.getNumberOfElements(), searchTerm);
             return ResponseEntity.ok(staff);
@@ -97,11 +99,12 @@ public class StaffControllerImpl implements StaffControllerApi {
     }
 
     @Override
-    public ResponseEntity<Page<StaffDto>> advancedSearchStaff(StaffSearchCriteria criteria, Pageable pageable) {
+    public ResponseEntity<Slice<StaffDto>> advancedSearchStaff(StaffSearchCriteria criteria, CountMode count,
+                                                               Pageable pageable) {
         log.info("Advanced search for staff members with criteria: {}", criteria);
 
         try {
-            Page<StaffDto> staff = staffService.searchStaff(criteria, pageable);
+            Slice<StaffDto> staff = staffService.searchStaff(criteria, pageable, count);
             log.info("Advanced search found {} staff members - Status: 200 OK", staff.getNumberOfElements());
             return ResponseEntity.ok(staff);
         } catch (Exception e) {
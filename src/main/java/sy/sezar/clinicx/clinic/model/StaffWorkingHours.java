@@ -0,0 +1,38 @@
+package sy.sezar.clinicx.clinic.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.Setter;
+import sy.sezar.clinicx.core.model.BaseEntity;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+
+/**
+ * One working period of a staff member on a day of the week, in the clinic's local time.
+ */
+@Entity
+@Table(name = "staff_working_hours")
+@Getter
+@Setter
+public class StaffWorkingHours extends BaseEntity {
+
+    @NotNull
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "staff_id", nullable = false)
+    private Staff staff;
+
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    @Column(name = "day_of_week", nullable = false, length = 10)
+    private DayOfWeek dayOfWeek;
+
+    @NotNull
+    @Column(name = "start_time", nullable = false)
+    private LocalTime startTime;
+
+    @NotNull
+    @Column(name = "end_time", nullable = false)
+    private LocalTime endTime;
+}
@@ -8,9 +8,11 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import sy.sezar.clinicx.clinic.model.Specialty;
 import sy.sezar.clinicx.clinic.model.Staff;
 import sy.sezar.clinicx.clinic.model.enums.StaffRole;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -34,12 +36,6 @@ public interface StaffRepository extends JpaRepository<Staff, UUID>, JpaSpecific
     @Query("SELECT DISTINCT s FROM Staff s WHERE SIZE(s.roles) > 0")
     Page<Staff> findAllWithRoles(Pageable pageable);
 
-    @Query("SELECT s FROM Staff s WHERE " +
-           "LOWER(s.fullName) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-           "LOWER(s.email) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-           "LOWER(s.phoneNumber) LIKE LOWER(CONCAT('%', :searchTerm, '%'))")
-    Page<Staff> searchStaff(@Param("searchTerm") String searchTerm, Pageable pageable);
-
     @Query("SELECT s FROM Staff s JOIN s.specialties sp WHERE sp.id = :specialtyId")
     Page<Staff> findBySpecialtyId(@Param("specialtyId") UUID specialtyId, Pageable pageable);
 
@@ -49,6 +45,24 @@ public interface StaffRepository extends JpaRepository<Staff, UUID>, JpaSpecific
 
     List<Staff> findByTenantId(String tenantId);
 
+    Page<Staff> findByTenantId(String tenantId, Pageable pageable);
+
+    /**
+     * Pages the staff of a tenant whose membership is primary: an active primary
+     * user_tenant_access row, or an active staff record when no access row exists.
+     */
+    @Query(value = "SELECT s FROM Staff s LEFT JOIN UserTenantAccess uta " +
+           "ON uta.userId = s.keycloakUserId AND uta.tenantId = s.tenantId " +
+           "WHERE s.tenantId = :tenantId AND (" +
+           "(uta.id IS NOT NULL AND uta.isPrimary = true AND uta.isActive = true) OR " +
+           "(uta.id IS NULL AND s.isActive = true))",
+           countQuery = "SELECT COUNT(s) FROM Staff s LEFT JOIN UserTenantAccess uta " +
+           "ON uta.userId = s.keycloakUserId AND uta.tenantId = s.tenantId " +
+           "WHERE s.tenantId = :tenantId AND (" +
+           "(uta.id IS NOT NULL AND uta.isPrimary = true AND uta.isActive = true) OR " +
+           "(uta.id IS NULL AND s.isActive = true))")
+    Page<Staff> findPrimaryByTenantId(@Param("tenantId") String tenantId, Pageable pageable);
+
     Optional<Staff> findByKeycloakUserIdAndTenantId(String keycloakUserId, String tenantId);
 
     boolean existsByKeycloakUserIdAndTenantId(String keycloakUserId, String tenantId);
@@ -65,4 +79,49 @@ public interface StaffRepository extends JpaRepository<Staff, UUID>, JpaSpecific
             @Param("keycloakUserId") String keycloakUserId,
             @Param("tenantId") String tenantId,
             @Param("phoneNumber") String phoneNumber);
+
+    /**
+     * Roles of the given staff members, one row per staff member and role, to complete a page of
+     * staff read through a projection.
+     */
+    @Query("SELECT s.id AS staffId, r AS role FROM Staff s JOIN s.roles r WHERE s.id IN :staffIds")
+    List<StaffRoleRow> findRolesByStaffIds(@Param("staffIds") Collection<UUID> staffIds);
+
+    /**
+     * Specialties of the given staff members, one row per staff member and specialty.
+     */
+    @Query("SELECT s.id AS staffId, sp AS specialty FROM Staff s JOIN s.specialties sp WHERE s.id IN :staffIds")
+    List<StaffSpecialtyRow> findSpecialtiesByStaffIds(@Param("staffIds") Collection<UUID> staffIds);
+
+    /**
+     * Active staff members with a role and specialty, by name, such as the orthodontists to
+     * search free appointment slots of.
+     */
+    @Query("SELECT s.id AS id, s.fullName AS fullName FROM Staff s JOIN s.roles r JOIN s.specialties sp "
+        + "WHERE r = :role AND sp.id = :specialtyId AND s.isActive = true ORDER BY s.fullName")
+    List<StaffNameRow> findActiveNamesByRoleAndSpecialty(@Param("role") StaffRole role,
+                                                         @Param("specialtyId") UUID specialtyId);
+
+    /**
+     * Active staff members with a role among the given ones, by name.
+     */
+    @Query("SELECT s.id AS id, s.fullName AS fullName FROM Staff s JOIN s.roles r "
+        + "WHERE r = :role AND s.id IN :staffIds AND s.isActive = true ORDER BY s.fullName")
+    List<StaffNameRow> findActiveNamesByRoleAndIds(@Param("role") StaffRole role,
+                                                   @Param("staffIds") Collection<UUID> staffIds);
+
+    interface StaffNameRow {
+        UUID getId();
+        String getFullName();
+    }
+
+    interface StaffRoleRow {
+        UUID getStaffId();
+        StaffRole getRole();
+    }
+
+    interface StaffSpecialtyRow {
+        UUID getStaffId();
+        Specialty getSpecialty();
+    }
 }
@@ -0,0 +1,25 @@
+package sy.sezar.clinicx.clinic.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import sy.sezar.clinicx.clinic.model.StaffWorkingHours;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface StaffWorkingHoursRepository extends JpaRepository<StaffWorkingHours, UUID> {
+
+    List<StaffWorkingHours> findByStaffIdOrderByDayOfWeekAscStartTimeAsc(UUID staffId);
+
+    @Query("SELECT h FROM StaffWorkingHours h WHERE h.staff.id IN :staffIds")
+    List<StaffWorkingHours> findByStaffIds(@Param("staffIds") Collection<UUID> staffIds);
+
+    @Modifying
+    @Query("DELETE FROM StaffWorkingHours h WHERE h.staff.id = :staffId")
+    void deleteByStaffId(@Param("staffId") UUID staffId);
+}
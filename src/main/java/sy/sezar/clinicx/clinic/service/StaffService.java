@@ -2,12 +2,14 @@ package sy.sezar.clinicx.clinic.service;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import sy.sezar.clinicx.clinic.dto.StaffCreateRequest;
 import sy.sezar.clinicx.clinic.dto.StaffDto;
 import sy.sezar.clinicx.clinic.dto.StaffSearchCriteria;
 import sy.sezar.clinicx.clinic.dto.StaffUpdateRequest;
 import sy.sezar.clinicx.clinic.dto.StaffWithAccessDto;
 import sy.sezar.clinicx.clinic.model.enums.StaffRole;
+import sy.sezar.clinicx.core.pagination.CountMode;
 
 import java.util.UUID;
 
@@ -41,9 +43,10 @@ public interface StaffService {
     /**
      * Finds all staff members with pagination.
      * @param pageable Pagination information
-     * @return Page of StaffDto
+     * @param countMode How the total is reported
+     * @return Page of StaffDto, or a Slice without a total for {@link CountMode#NONE}
      */
-    Page<StaffDto> findAllStaff(Pageable pageable);
+    Slice<StaffDto> findAllStaff(Pageable pageable, CountMode countMode);
 
     /**
      * Finds all active staff members with pagination.
@@ -64,17 +67,19 @@ public interface StaffService {
      * Searches staff members based on criteria.
      * @param criteria Search criteria
      * @param pageable Pagination information
-     * @return Page of StaffDto
+     * @param countMode How the total is reported
+     * @return Page of StaffDto, or a Slice without a total for {@link CountMode#NONE}
      */
-    Page<StaffDto> searchStaff(StaffSearchCriteria criteria, Pageable pageable);
+    Slice<StaffDto> searchStaff(StaffSearchCriteria criteria, Pageable pageable, CountMode countMode);
 
     /**
      * Simple search for staff members.
      * @param searchTerm Search term
      * @param pageable Pagination information
-     * @return Page of StaffDto
+     * @param countMode How the total is reported
+     * @return Page of StaffDto, or a Slice without a total for {@link CountMode#NONE}
      */
-    Page<StaffDto> searchStaff(String searchTerm, Pageable pageable);
+    Slice<StaffDto> searchStaff(String searchTerm, Pageable pageable, CountMode countMode);
 
     /**
      * Deactivates a staff member (soft delete).
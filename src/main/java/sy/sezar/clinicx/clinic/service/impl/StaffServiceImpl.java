@@ -1,9 +1,11 @@
 package sy.sezar.clinicx.clinic.service.impl;
 
+import jakarta.persistence.criteria.Selection;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -11,11 +13,15 @@ import sy.sezar.clinicx.clinic.model.Specialty;
 import sy.sezar.clinicx.clinic.repository.SpecialtyRepository;
 import sy.sezar.clinicx.core.exception.BusinessRuleException;
 import sy.sezar.clinicx.core.exception.NotFoundException;
+import sy.sezar.clinicx.core.pagination.CountMode;
+import sy.sezar.clinicx.core.pagination.ProjectionQueryExecutor;
+import sy.sezar.clinicx.core.pagination.TupleProjection;
 import sy.sezar.clinicx.clinic.dto.StaffCreateRequest;
 import sy.sezar.clinicx.clinic.dto.StaffDto;
 import sy.sezar.clinicx.clinic.dto.StaffSearchCriteria;
 import sy.sezar.clinicx.clinic.dto.StaffUpdateRequest;
 import sy.sezar.clinicx.clinic.dto.StaffWithAccessDto;
+import sy.sezar.clinicx.clinic.mapper.SpecialtyMapper;
 import sy.sezar.clinicx.clinic.mapper.StaffMapper;
 import sy.sezar.clinicx.clinic.model.Staff;
 import sy.sezar.clinicx.clinic.model.enums.StaffRole;
@@ -30,7 +36,11 @@ import sy.sezar.clinicx.tenant.service.KeycloakAdminService;
 import sy.sezar.clinicx.tenant.repository.TenantRepository;
 import org.keycloak.representations.idm.UserRepresentation;
 
+import java.time.Instant;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 
@@ -40,9 +50,39 @@ import java.util.UUID;
 @Transactional(readOnly = true)
 public class StaffServiceImpl implements StaffService {
 
+    /** Columns of {@link StaffDto}; roles and specialties are added to the sets afterwards. */
+    private static final TupleProjection<Staff, StaffDto> STAFF_PROJECTION = new TupleProjection<>(
+            (root, cb) -> List.<Selection<?>>of(
+                    root.get("id").alias("id"),
+                    root.get("fullName").alias("fullName"),
+                    root.get("email").alias("email"),
+                    root.get("phoneNumber").alias("phoneNumber"),
+                    root.get("isActive").alias("isActive"),
+                    root.get("keycloakUserId").alias("keycloakUserId"),
+                    root.get("tenantId").alias("tenantId"),
+                    root.get("createdAt").alias("createdAt"),
+                    root.get("updatedAt").alias("updatedAt")),
+            tuple -> new StaffDto(
+                    tuple.get("id", UUID.class),
+                    tuple.get("fullName", String.class),
+                    new HashSet<>(),
+                    tuple.get("email", String.class),
+                    tuple.get("phoneNumber", String.class),
+                    tuple.get("isActive", Boolean.class),
+                    new HashSet<>(),
+                    tuple.get("keycloakUserId", String.class),
+                    tuple.get("tenantId", String.class),
+                    null,
+                    null,
+                    null,
+                    tuple.get("createdAt", Instant.class),
+                    tuple.get("updatedAt", Instant.class)));
+
     private final StaffRepository staffRepository;
     private final SpecialtyRepository specialtyRepository;
     private final StaffMapper staffMapper;
+    private final SpecialtyMapper specialtyMapper;
+    private final ProjectionQueryExecutor projectionQueryExecutor;
     private final UserTenantAccessService userTenantAccessService;
     private final KeycloakAdminService keycloakAdminService;
     private final TenantRepository tenantRepository;
@@ -217,16 +257,13 @@ public class StaffServiceImpl implements StaffService {
     }
 
     @Override
-    public Page<StaffDto> findAllStaff(Pageable pageable) {
+    public Slice<StaffDto> findAllStaff(Pageable pageable, CountMode countMode) {
         log.info("Finding all staff members with pagination: {}", pageable);
 
-        Page<Staff> staffPage = staffRepository.findAll(pageable);
-        log.info("Found {} staff members (page {} of {})",
-                staffPage.getNumberOfElements(),
-                staffPage.getNumber() + 1,
-                staffPage.getTotalPages());
+        Slice<StaffDto> staffPage = findStaff(null, pageable, countMode);
+        log.info("Found {} staff members (page {})", staffPage.getNumberOfElements(), staffPage.getNumber() + 1);
 
-        return staffPage.map(staffMapper::toDto);
+        return staffPage;
     }
 
     @Override
@@ -257,37 +294,31 @@ public class StaffServiceImpl implements StaffService {
     }
 
     @Override
-    public Page<StaffDto> searchStaff(StaffSearchCriteria criteria, Pageable pageable) {
+    public Slice<StaffDto> searchStaff(StaffSearchCriteria criteria, Pageable pageable, CountMode countMode) {
         log.info("Searching staff members with advanced criteria: {}", criteria);
         log.debug("Search pagination: {}", pageable);
 
-        Specification<Staff> spec = StaffSpecifications.withCriteria(criteria);
-        Page<Staff> staffPage = staffRepository.findAll(spec, pageable);
+        Slice<StaffDto> staffPage = findStaff(StaffSpecifications.withCriteria(criteria), pageable, countMode);
 
-        log.info("Advanced search found {} staff members (page {} of {})",
-                staffPage.getNumberOfElements(),
-                staffPage.getNumber() + 1,
-                staffPage.getTotalPages());
+        log.info("Advanced search found {} staff members (page {})",
+                staffPage.getNumberOfElements(), staffPage.getNumber() + 1);
 
-        return staffPage.map(staffMapper::toDto);
+        return staffPage;
     }
 
     @Override
-    public Page<StaffDto> searchStaff(String searchTerm, Pageable pageable) {
+    public Slice<StaffDto> searchStaff(String searchTerm, Pageable pageable, CountMode countMode) {
         log.info("Searching staff members with term: '{}' and pagination: {}", searchTerm, pageable);
 
         if (searchTerm == null || searchTerm.trim().isEmpty()) {
             log.debug("Empty search term, returning all staff members");
-            return findAllStaff(pageable);
+            return findAllStaff(pageable, countMode);
         }
 
-        Page<Staff> staffPage = staffRepository.searchStaff(searchTerm.trim(), pageable);
-        log.info("Search found {} staff members (page {} of {})",
-                staffPage.getNumberOfElements(),
-                staffPage.getNumber() + 1,
-                staffPage.getTotalPages());
+        Slice<StaffDto> staffPage = findStaff(StaffSpecifications.bySearchTerm(searchTerm.trim()), pageable, countMode);
+        log.info("Search found {} staff members (page {})", staffPage.getNumberOfElements(), staffPage.getNumber() + 1);
 
-        return staffPage.map(staffMapper::toDto);
+        return staffPage;
     }
 
     @Override
@@ -445,4 +476,25 @@ public class StaffServiceImpl implements StaffService {
             .map(Enum::name)
             .collect(java.util.stream.Collectors.toList());
     }
+
+    /**
+     * Reads a page of staff members through a projection of their columns, then their roles and
+     * specialties for the whole page with one query each.
+     */
+    private Slice<StaffDto> findStaff(Specification<Staff> spec, Pageable pageable, CountMode countMode) {
+        Slice<StaffDto> staffPage = projectionQueryExecutor.findAll(
+                Staff.class, spec, pageable, countMode, STAFF_PROJECTION);
+        if (!staffPage.hasContent()) {
+            return staffPage;
+        }
+
+        Map<UUID, StaffDto> staffById = new HashMap<>();
+        staffPage.forEach(staff -> staffById.put(staff.id(), staff));
+        staffRepository.findRolesByStaffIds(staffById.keySet())
+                .forEach(row -> staffById.get(row.getStaffId()).roles().add(row.getRole()));
+        staffRepository.findSpecialtiesByStaffIds(staffById.keySet())
+                .forEach(row -> staffById.get(row.getStaffId()).specialties()
+                        .add(specialtyMapper.toDto(row.getSpecialty())));
+        return staffPage;
+    }
 }
@@ -7,9 +7,11 @@ import org.springframework.data.jpa.domain.Specification;
 import sy.sezar.clinicx.clinic.model.Specialty;
 import sy.sezar.clinicx.clinic.dto.StaffSearchCriteria;
 import sy.sezar.clinicx.clinic.model.Staff;
+import sy.sezar.clinicx.clinic.model.enums.StaffRole;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 public class StaffSpecifications {
 
@@ -19,17 +21,12 @@ public class StaffSpecifications {
 
             // Search term (name, email, phone)
             if (criteria.searchTerm() != null && !criteria.searchTerm().trim().isEmpty()) {
-                String searchPattern = "%" + criteria.searchTerm().toLowerCase() + "%";
-                predicates.add(cb.or(
-                        cb.like(cb.lower(root.get("fullName")), searchPattern),
-                        cb.like(cb.lower(root.get("email")), searchPattern),
-                        cb.like(cb.lower(root.get("phoneNumber")), searchPattern)
-                ));
+                predicates.add(bySearchTerm(criteria.searchTerm()).toPredicate(root, query, cb));
             }
 
             // Role filter
             if (criteria.role() != null) {
-                predicates.add(cb.equal(root.get("role"), criteria.role()));
+                predicates.add(cb.isMember(criteria.role(), root.<Set<StaffRole>>get("roles")));
             }
 
             // Active status filter
@@ -48,6 +45,20 @@ public class StaffSpecifications {
         };
     }
     
+    /**
+     * Matches staff members whose name, email or phone number contains the term, ignoring case.
+     */
+    public static Specification<Staff> bySearchTerm(String searchTerm) {
+        return (root, query, cb) -> {
+            String searchPattern = "%" + searchTerm.toLowerCase() + "%";
+            return cb.or(
+                    cb.like(cb.lower(root.get("fullName")), searchPattern),
+                    cb.like(cb.lower(root.get("email")), searchPattern),
+                    cb.like(cb.lower(root.get("phoneNumber")), searchPattern)
+            );
+        };
+    }
+
     public static Specification<Staff> byTenantId(String tenantId) {
         return (root, query, cb) -> {
             if (tenantId == null) {
@@ -0,0 +1,23 @@
+package sy.sezar.clinicx.core.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.scheduling.annotation.EnableAsync;
+import sy.sezar.clinicx.tenant.TenantContextTaskDecorator;
+
+/**
+ * Enables {@code @Async} methods and propagates the tenant context to them.
+ * Spring Boot applies the task decorator to the auto-configured application task executor,
+ * both the thread pool and the virtual thread executor used with
+ * {@code spring.threads.virtual.enabled}.
+ */
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+
+    @Bean
+    public TaskDecorator tenantContextTaskDecorator() {
+        return new TenantContextTaskDecorator();
+    }
+}
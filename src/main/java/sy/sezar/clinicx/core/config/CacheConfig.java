@@ -0,0 +1,48 @@
+package sy.sezar.clinicx.core.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Cache configuration.
+ * Tenant access decisions get a short TTL so that revocations missed by explicit eviction
+ * still take effect quickly; other caches are created on demand with a size bound.
+ * The caches are used directly through the CacheManager; annotation-driven caching is not
+ * enabled, so {@code @Cacheable} methods keep reading through on every call.
+ */
+@Configuration
+public class CacheConfig {
+
+    public static final String TENANT_ACCESS_CACHE = "tenantAccess";
+    public static final String USER_ROLES_CACHE = "userRoles";
+
+    @Value("${app.security.access-cache-ttl:60}")
+    private long accessCacheTtlSeconds;
+
+    @Value("${app.security.access-cache-max-size:10000}")
+    private long accessCacheMaxSize;
+
+    @Bean
+    public CacheManager cacheManager() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setCaffeine(Caffeine.newBuilder()
+            .maximumSize(1_000)
+            .recordStats());
+        cacheManager.registerCustomCache(TENANT_ACCESS_CACHE, accessCache().build());
+        cacheManager.registerCustomCache(USER_ROLES_CACHE, accessCache().build());
+        return cacheManager;
+    }
+
+    private Caffeine<Object, Object> accessCache() {
+        return Caffeine.newBuilder()
+            .expireAfterWrite(Duration.ofSeconds(accessCacheTtlSeconds))
+            .maximumSize(accessCacheMaxSize)
+            .recordStats();
+    }
+}
@@ -0,0 +1,35 @@
+package sy.sezar.clinicx.core.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Maps the `app.security.jwt-decoder` section from application.yml.
+ * Controls the per-realm JWT decoders and their JWK set caching.
+ */
+@Component
+@ConfigurationProperties(prefix = "app.security.jwt-decoder")
+@Getter
+@Setter
+public class JwtDecoderProperties {
+
+    /** Maximum number of realms with a cached decoder. */
+    private long maxRealms = 500;
+
+    /** Interval in seconds at which cached JWK sets are refreshed in the background. */
+    private long refreshIntervalSeconds = 300;
+
+    /** Minimum seconds between two refreshes of a realm triggered by unknown key IDs. */
+    private long minRefreshIntervalSeconds = 10;
+
+    /** Maximum milliseconds a request waits for a refresh triggered by an unknown key ID. */
+    private long keyMissWaitMillis = 2_000;
+
+    /** Connect and read timeout in milliseconds for JWK set requests. */
+    private long fetchTimeoutMillis = 3_000;
+
+    /** Whether JWK sets of all active realms are fetched at startup. */
+    private boolean prefetchOnStartup = true;
+}
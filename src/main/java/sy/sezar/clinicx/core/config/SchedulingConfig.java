@@ -0,0 +1,12 @@
+package sy.sezar.clinicx.core.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables scheduled background jobs such as registry reloads.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
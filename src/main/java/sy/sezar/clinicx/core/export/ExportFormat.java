@@ -0,0 +1,62 @@
+package sy.sezar.clinicx.core.export;
+
+import sy.sezar.clinicx.core.exception.BusinessRuleException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Locale;
+
+/**
+ * File formats reports can be exported in.
+ */
+public enum ExportFormat {
+
+    CSV("text/csv", "csv"),
+    XLSX("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", "xlsx"),
+    PDF("application/pdf", "pdf");
+
+    private final String mediaType;
+    private final String extension;
+
+    ExportFormat(String mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Opens a writer of this format on the given stream.
+     *
+     * @param title sheet name or page title of the document
+     */
+    public TableWriter open(OutputStream out, String title) throws IOException {
+        return switch (this) {
+            case CSV -> new CsvTableWriter(out);
+            case XLSX -> new XlsxTableWriter(out, title);
+            case PDF -> new PdfTableWriter(out, title);
+        };
+    }
+
+    /**
+     * Parses a format name; {@code EXCEL} is accepted for {@link #XLSX}.
+     */
+    public static ExportFormat from(String format) {
+        String name = format == null ? "" : format.trim().toUpperCase(Locale.ROOT);
+        if (name.equals("EXCEL")) {
+            return XLSX;
+        }
+        for (ExportFormat value : values()) {
+            if (value.name().equals(name)) {
+                return value;
+            }
+        }
+        throw new BusinessRuleException("Unsupported export format: " + format);
+    }
+}
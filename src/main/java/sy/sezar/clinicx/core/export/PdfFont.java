@@ -0,0 +1,222 @@
+package sy.sezar.clinicx.core.export;
+
+import java.awt.Font;
+import java.awt.FontFormatException;
+import java.awt.font.FontRenderContext;
+import java.awt.font.GlyphVector;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.text.Bidi;
+import java.util.Arrays;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * TrueType font embedded in PDF exports as a CID-keyed font whose CIDs are glyph ids, so that text
+ * laid out by the JDK, with Arabic letters joined and right-to-left runs reordered, is printed
+ * exactly as laid out. The font is read from the classpath once and shared by all writers.
+ * <p>
+ * Widths are in thousandths of the font size, the unit of PDF glyph widths and text adjustments.
+ */
+final class PdfFont {
+
+    static final String NAME = "DejaVuSans";
+    private static final String RESOURCE = "/fonts/DejaVuSans.ttf";
+
+    /** Layout without hinting and with fractional advances, so positions match the font's widths. */
+    private static final FontRenderContext RENDER_CONTEXT = new FontRenderContext(null, false, true);
+
+    /**
+     * Characters below this are mapped to glyphs one by one; from here on come the scripts that
+     * are shaped or written right to left.
+     */
+    private static final char SIMPLE_LIMIT = '\u0590';
+
+    private final Font font;
+    private final byte[] compressedData;
+    private final int dataLength;
+    private final int[] widths;
+    private final int[] simpleGlyphs;
+    private final int[] boundingBox;
+    private final int ascent;
+    private final int descent;
+    private final int capHeight;
+
+    private PdfFont(byte[] data) throws IOException, FontFormatException {
+        this.font = Font.createFont(Font.TRUETYPE_FONT, new ByteArrayInputStream(data)).deriveFont(1000f);
+        this.dataLength = data.length;
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(data.length / 2);
+        try (DeflaterOutputStream deflater = new DeflaterOutputStream(compressed)) {
+            deflater.write(data);
+        }
+        this.compressedData = compressed.toByteArray();
+
+        ByteBuffer ttf = ByteBuffer.wrap(data);
+        int head = table(ttf, "head");
+        int hhea = table(ttf, "hhea");
+        int unitsPerEm = ttf.getChar(head + 18);
+        this.boundingBox = new int[]{
+            scale(ttf.getShort(head + 36), unitsPerEm), scale(ttf.getShort(head + 38), unitsPerEm),
+            scale(ttf.getShort(head + 40), unitsPerEm), scale(ttf.getShort(head + 42), unitsPerEm)};
+        this.ascent = scale(ttf.getShort(hhea + 4), unitsPerEm);
+        this.descent = scale(ttf.getShort(hhea + 6), unitsPerEm);
+        int os2 = table(ttf, "OS/2");
+        this.capHeight = ttf.getChar(os2) >= 2 ? scale(ttf.getShort(os2 + 88), unitsPerEm) : ascent;
+
+        // Glyphs past the last horizontal metric share its advance
+        int glyphs = ttf.getChar(table(ttf, "maxp") + 4);
+        int metrics = ttf.getChar(hhea + 34);
+        int hmtx = table(ttf, "hmtx");
+        this.widths = new int[glyphs];
+        for (int glyph = 0; glyph < glyphs; glyph++) {
+            widths[glyph] = scale(ttf.getChar(hmtx + 4 * Math.min(glyph, metrics - 1)), unitsPerEm);
+        }
+
+        char[] simple = new char[SIMPLE_LIMIT];
+        for (char c = 0; c < SIMPLE_LIMIT; c++) {
+            simple[c] = c;
+        }
+        this.simpleGlyphs = font.createGlyphVector(RENDER_CONTEXT, simple).getGlyphCodes(0, simple.length, null);
+    }
+
+    static PdfFont regular() {
+        return Holder.REGULAR;
+    }
+
+    /**
+     * Lays out a line of text, returning its glyphs in visual order, left to right.
+     */
+    Glyphs layout(String text) {
+        if (isSimple(text)) {
+            int[] ids = new int[text.length()];
+            int width = 0;
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = simpleGlyphs[text.charAt(i)];
+                width += widths[ids[i]];
+            }
+            return new Glyphs(ids, null, width);
+        }
+
+        char[] chars = text.toCharArray();
+        Bidi bidi = new Bidi(chars, 0, null, 0, chars.length, Bidi.DIRECTION_DEFAULT_LEFT_TO_RIGHT);
+        int runs = bidi.getRunCount();
+        byte[] levels = new byte[runs];
+        Integer[] order = new Integer[runs];
+        for (int run = 0; run < runs; run++) {
+            levels[run] = (byte) bidi.getRunLevel(run);
+            order[run] = run;
+        }
+        Bidi.reorderVisually(levels, 0, order, 0, runs);
+
+        int[] ids = new int[chars.length];
+        int[] adjustments = new int[chars.length];
+        int count = 0;
+        double x = 0;
+        int pen = 0;
+        for (int run : order) {
+            int flags = (bidi.getRunLevel(run) & 1) == 1 ? Font.LAYOUT_RIGHT_TO_LEFT : Font.LAYOUT_LEFT_TO_RIGHT;
+            GlyphVector vector = font.layoutGlyphVector(RENDER_CONTEXT, chars,
+                bidi.getRunStart(run), bidi.getRunLimit(run), flags);
+            for (int i = 0; i < vector.getNumGlyphs(); i++) {
+                int id = vector.getGlyphCode(i);
+                // The layout marks characters without a glyph of their own, such as joiners, with ids past the font
+                if (id >= widths.length) {
+                    continue;
+                }
+                if (count == ids.length) {
+                    ids = Arrays.copyOf(ids, count * 2);
+                    adjustments = Arrays.copyOf(adjustments, count * 2);
+                }
+                // Moves the glyph from where the previous glyph's width leaves it to where the layout puts it;
+                // the rounding of widths is let drift by a unit before it is corrected
+                int position = (int) Math.round(x + vector.getGlyphPosition(i).getX());
+                if (Math.abs(pen - position) > 1) {
+                    adjustments[count] = pen - position;
+                    pen = position;
+                }
+                ids[count++] = id;
+                pen += widths[id];
+            }
+            x += vector.getGlyphPosition(vector.getNumGlyphs()).getX();
+        }
+        return new Glyphs(Arrays.copyOf(ids, count), Arrays.copyOf(adjustments, count), (int) Math.round(x));
+    }
+
+    int width(int glyph) {
+        return widths[glyph];
+    }
+
+    byte[] compressedData() {
+        return compressedData;
+    }
+
+    int dataLength() {
+        return dataLength;
+    }
+
+    /**
+     * Body of the font descriptor, referring to the embedded font file object.
+     */
+    String descriptor(int fontFileObject) {
+        return "<< /Type /FontDescriptor /FontName /" + NAME + " /Flags 4"
+            + " /FontBBox [" + boundingBox[0] + " " + boundingBox[1] + " " + boundingBox[2] + " " + boundingBox[3] + "]"
+            + " /ItalicAngle 0 /Ascent " + ascent + " /Descent " + descent + " /CapHeight " + capHeight
+            + " /StemV 80 /FontFile2 " + fontFileObject + " 0 R >>";
+    }
+
+    private static boolean isSimple(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            // Combining marks are positioned by the layout
+            if (c >= SIMPLE_LIMIT || (c >= '\u0300' && c < '\u0370')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int table(ByteBuffer ttf, String tag) {
+        int tables = ttf.getChar(4);
+        for (int entry = 12; entry < 12 + 16 * tables; entry += 16) {
+            if (tag.equals(new String(ttf.array(), entry, 4, StandardCharsets.ISO_8859_1))) {
+                return ttf.getInt(entry + 8);
+            }
+        }
+        throw new IllegalStateException("Font " + NAME + " has no " + tag + " table");
+    }
+
+    private static int scale(int units, int unitsPerEm) {
+        return Math.round(units * 1000f / unitsPerEm);
+    }
+
+    /**
+     * Glyphs of a laid out line with its width; {@code adjustments[i]} moves glyph {@code i} left
+     * of where the previous glyph ends, and is absent when no glyph is moved.
+     */
+    record Glyphs(int[] ids, int[] adjustments, int width) {
+
+        static final Glyphs EMPTY = new Glyphs(new int[0], null, 0);
+    }
+
+    private static final class Holder {
+
+        private static final PdfFont REGULAR = load();
+
+        private static PdfFont load() {
+            try (InputStream in = PdfFont.class.getResourceAsStream(RESOURCE)) {
+                if (in == null) {
+                    throw new IllegalStateException("Font resource " + RESOURCE + " not found");
+                }
+                return new PdfFont(in.readAllBytes());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } catch (FontFormatException e) {
+                throw new IllegalStateException("Font resource " + RESOURCE + " is not a TrueType font", e);
+            }
+        }
+    }
+}
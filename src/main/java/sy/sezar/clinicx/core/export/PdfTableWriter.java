@@ -0,0 +1,297 @@
+package sy.sezar.clinicx.core.export;
+
+import java.io.BufferedOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.Deflater;
+
+/**
+ * Paginated PDF table, written page by page: each page is deflated and written as soon as it is
+ * full, and only the byte offsets of the written objects are kept for the cross-reference table.
+ * <p>
+ * Pages are A4 landscape in the embedded {@link PdfFont}, so names in Arabic script print joined
+ * and right to left; bold text is the same font with stroked outlines. The font file is written
+ * first and the widths of the glyphs used once the document ends. Columns share the page width
+ * equally and cells that do not fit are truncated. Numbers are right aligned.
+ */
+public class PdfTableWriter implements TableWriter {
+
+    private static final float PAGE_WIDTH = 842;
+    private static final float PAGE_HEIGHT = 595;
+    private static final float MARGIN = 36;
+    private static final float FONT_SIZE = 7;
+    private static final float LINE_HEIGHT = 10;
+    private static final float TITLE_SIZE = 11;
+    private static final float TITLE_Y = PAGE_HEIGHT - MARGIN - TITLE_SIZE;
+    private static final float HEADER_Y = TITLE_Y - 20;
+    private static final int ROWS_PER_PAGE = (int) ((HEADER_Y - LINE_HEIGHT - MARGIN) / LINE_HEIGHT) + 1;
+    private static final float CELL_PADDING = 2;
+
+    /** Width of the outline stroked around bold text, as a fraction of the font size. */
+    private static final float BOLD_STROKE = 0.03f;
+    private static final String ELLIPSIS = "\u2026";
+
+    private static final int CATALOG = 1;
+    private static final int PAGES = 2;
+    private static final int FONT = 3;
+    private static final int CID_FONT = 4;
+    private static final int FONT_DESCRIPTOR = 5;
+    private static final int FONT_FILE = 6;
+    private static final int FIRST_PAGE_OBJECT = 7;
+
+    private final CountingOutputStream out;
+    private final String title;
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    private final StringBuilder content = new StringBuilder(16 * 1024);
+    private final PdfFont font = PdfFont.regular();
+    private final BitSet usedGlyphs = new BitSet();
+
+    private long[] offsets = new long[64];
+    private List<String> header = List.of();
+    private int pages;
+    private int pageRows;
+    private float columnWidth;
+
+    public PdfTableWriter(OutputStream out, String title) throws IOException {
+        this.out = new CountingOutputStream(new BufferedOutputStream(out, 64 * 1024));
+        this.title = title == null ? "" : title;
+        // A comment of bytes above 127 marks the file as binary for transfer tools
+        write("%PDF-1.4\n%\u00e2\u00e3\u00cf\u00d3\n");
+        writeObject(FONT_DESCRIPTOR, font.descriptor(FONT_FILE));
+        writeFontFile();
+    }
+
+    @Override
+    public void writeHeader(List<String> columns) throws IOException {
+        this.header = List.copyOf(columns);
+    }
+
+    @Override
+    public void writeRow(Object... values) throws IOException {
+        if (pageRows == ROWS_PER_PAGE) {
+            endPage();
+        }
+        if (pageRows == 0) {
+            startPage(values.length);
+        }
+        writeCells(values, HEADER_Y - LINE_HEIGHT * (pageRows + 1) - 2);
+        pageRows++;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (pages == 0 && pageRows == 0) {
+            startPage(header.size());
+        }
+        endPage();
+
+        writeObject(FONT, "<< /Type /Font /Subtype /Type0 /BaseFont /" + PdfFont.NAME
+            + " /Encoding /Identity-H /DescendantFonts [" + CID_FONT + " 0 R] >>");
+        writeObject(CID_FONT, "<< /Type /Font /Subtype /CIDFontType2 /BaseFont /" + PdfFont.NAME
+            + " /CIDSystemInfo << /Registry (Adobe) /Ordering (Identity) /Supplement 0 >>"
+            + " /FontDescriptor " + FONT_DESCRIPTOR + " 0 R /CIDToGIDMap /Identity /W " + glyphWidths() + " >>");
+
+        int size = FIRST_PAGE_OBJECT + 2 * pages;
+        ensureCapacity(size);
+        offsets[PAGES] = out.count;
+        write("2 0 obj\n<< /Type /Pages /Count " + pages + " /Kids [");
+        for (int page = 0; page < pages; page++) {
+            write((FIRST_PAGE_OBJECT + 2 * page + 1) + " 0 R ");
+        }
+        write("] >>\nendobj\n");
+        writeObject(CATALOG, "<< /Type /Catalog /Pages 2 0 R >>");
+
+        long xref = out.count;
+        write("xref\n0 " + size + "\n0000000000 65535 f \n");
+        for (int object = 1; object < size; object++) {
+            write(String.format("%010d 00000 n \n", offsets[object]));
+        }
+        write("trailer\n<< /Size " + size + " /Root 1 0 R >>\nstartxref\n" + xref + "\n%%EOF\n");
+        deflater.end();
+        out.flush();
+    }
+
+    private void startPage(int columns) {
+        columnWidth = (PAGE_WIDTH - 2 * MARGIN) / Math.max(1, Math.max(columns, header.size()));
+        content.setLength(0);
+        content.append("BT\n2 Tr\n");
+        selectFont(TITLE_SIZE);
+        text(MARGIN, TITLE_Y, font.layout(title));
+        selectFont(FONT_SIZE);
+        if (!header.isEmpty()) {
+            writeCells(header.toArray(), HEADER_Y);
+        }
+        content.append("0 Tr\n");
+        text(PAGE_WIDTH - MARGIN - 40, MARGIN / 2, font.layout("Page " + (pages + 1)));
+    }
+
+    private void writeCells(Object[] values, float y) {
+        for (int column = 0; column < values.length; column++) {
+            Object value = values[column];
+            if (value == null) {
+                continue;
+            }
+            PdfFont.Glyphs cell = fit(TableWriter.text(value));
+            float left = MARGIN + column * columnWidth;
+            float x = value instanceof Number
+                ? left + columnWidth - CELL_PADDING - cell.width() * FONT_SIZE / 1000
+                : left + CELL_PADDING;
+            text(x, y, cell);
+        }
+    }
+
+    private void endPage() throws IOException {
+        content.append("ET\n");
+        byte[] raw = content.toString().getBytes(StandardCharsets.ISO_8859_1);
+        deflater.reset();
+        deflater.setInput(raw);
+        deflater.finish();
+
+        int contentObject = FIRST_PAGE_OBJECT + 2 * pages;
+        ensureCapacity(contentObject + 2);
+        byte[] compressed = new byte[raw.length + 64];
+        int length = 0;
+        while (!deflater.finished()) {
+            if (length == compressed.length) {
+                compressed = Arrays.copyOf(compressed, compressed.length * 2);
+            }
+            length += deflater.deflate(compressed, length, compressed.length - length);
+        }
+
+        offsets[contentObject] = out.count;
+        write(contentObject + " 0 obj\n<< /Length " + length + " /Filter /FlateDecode >>\nstream\n");
+        out.write(compressed, 0, length);
+        write("\nendstream\nendobj\n");
+        writeObject(contentObject + 1, String.format(Locale.ROOT,
+            "<< /Type /Page /Parent 2 0 R /MediaBox [0 0 %.0f %.0f] /Contents %d 0 R"
+                + " /Resources << /Font << /F1 %d 0 R >> >> >>",
+            PAGE_WIDTH, PAGE_HEIGHT, contentObject, FONT));
+
+        pages++;
+        pageRows = 0;
+    }
+
+    /**
+     * Selects the font at a size, with the outline stroke of bold text at that size.
+     */
+    private void selectFont(float size) {
+        content.append("/F1 ").append(size).append(" Tf ")
+            .append(Math.round(size * BOLD_STROKE * 100) / 100f).append(" w\n");
+    }
+
+    /**
+     * Shows glyphs by id, two bytes each, moving those the layout places apart from where the
+     * previous glyph ends.
+     */
+    private void text(float x, float y, PdfFont.Glyphs glyphs) {
+        content.append("1 0 0 1 ").append(x).append(' ').append(y).append(" Tm [<");
+        int[] ids = glyphs.ids();
+        for (int i = 0; i < ids.length; i++) {
+            if (glyphs.adjustments() != null && glyphs.adjustments()[i] != 0) {
+                content.append("> ").append(glyphs.adjustments()[i]).append(" <");
+            }
+            usedGlyphs.set(ids[i]);
+            String hex = Integer.toHexString(ids[i]);
+            content.append("0000", hex.length(), 4).append(hex);
+        }
+        content.append(">] TJ\n");
+    }
+
+    /**
+     * Lays out a cell, dropping characters from its end until it fits its column with an ellipsis.
+     */
+    private PdfFont.Glyphs fit(String text) {
+        int available = (int) ((columnWidth - 2 * CELL_PADDING) * 1000 / FONT_SIZE);
+        PdfFont.Glyphs glyphs = font.layout(text);
+        if (glyphs.width() <= available) {
+            return glyphs;
+        }
+        PdfFont.Glyphs fitting = PdfFont.Glyphs.EMPTY;
+        int low = 0;
+        int high = text.length() - 1;
+        while (low <= high) {
+            int length = (low + high) >>> 1;
+            int end = length > 0 && Character.isHighSurrogate(text.charAt(length - 1)) ? length - 1 : length;
+            PdfFont.Glyphs shortened = font.layout(text.substring(0, end) + ELLIPSIS);
+            if (shortened.width() <= available) {
+                fitting = shortened;
+                low = length + 1;
+            } else {
+                high = length - 1;
+            }
+        }
+        return fitting;
+    }
+
+    /**
+     * The widths array of the glyphs used, each run of consecutive glyph ids as one entry.
+     */
+    private String glyphWidths() {
+        StringBuilder widths = new StringBuilder("[");
+        for (int glyph = usedGlyphs.nextSetBit(0); glyph >= 0; ) {
+            widths.append(glyph).append(" [");
+            int next = glyph;
+            do {
+                widths.append(font.width(next)).append(' ');
+                next++;
+            } while (usedGlyphs.get(next));
+            widths.setLength(widths.length() - 1);
+            widths.append("] ");
+            glyph = usedGlyphs.nextSetBit(next);
+        }
+        return widths.append("]").toString();
+    }
+
+    private void writeFontFile() throws IOException {
+        byte[] data = font.compressedData();
+        offsets[FONT_FILE] = out.count;
+        write(FONT_FILE + " 0 obj\n<< /Length " + data.length + " /Length1 " + font.dataLength()
+            + " /Filter /FlateDecode >>\nstream\n");
+        out.write(data);
+        write("\nendstream\nendobj\n");
+    }
+
+    private void writeObject(int object, String body) throws IOException {
+        ensureCapacity(object + 1);
+        offsets[object] = out.count;
+        write(object + " 0 obj\n" + body + "\nendobj\n");
+    }
+
+    private void write(String text) throws IOException {
+        out.write(text.getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    private void ensureCapacity(int size) {
+        if (offsets.length < size) {
+            offsets = Arrays.copyOf(offsets, Math.max(size, offsets.length * 2));
+        }
+    }
+
+    /** Tracks the byte offset of every object for the cross-reference table. */
+    private static final class CountingOutputStream extends FilterOutputStream {
+
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
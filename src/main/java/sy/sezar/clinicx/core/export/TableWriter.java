@@ -0,0 +1,61 @@
+package sy.sezar.clinicx.core.export;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Writes a table to an output stream one row at a time, so the size of an export is bounded by
+ * the output stream and not by memory.
+ * <p>
+ * {@link #close()} completes the document and flushes it, but leaves the underlying stream open:
+ * the stream belongs to the caller, usually the servlet response.
+ */
+public interface TableWriter extends Closeable {
+
+    DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    void writeHeader(List<String> columns) throws IOException;
+
+    /**
+     * Writes one row. Values are {@link Number}s, dates, enums, strings or {@code null}.
+     */
+    void writeRow(Object... values) throws IOException;
+
+    /**
+     * Text of a cell value as written by every format.
+     */
+    static String text(Object value) {
+        if (value == null) {
+            return "";
+        }
+        if (value instanceof BigDecimal decimal) {
+            return decimal.toPlainString();
+        }
+        if (value instanceof LocalDate date) {
+            return date.toString();
+        }
+        if (value instanceof LocalDateTime dateTime) {
+            return DATE_TIME.format(dateTime);
+        }
+        if (value instanceof Instant instant) {
+            return DATE_TIME.format(instant.atZone(ZoneId.systemDefault()));
+        }
+        if (value instanceof java.sql.Timestamp timestamp) {
+            return DATE_TIME.format(timestamp.toLocalDateTime());
+        }
+        if (value instanceof java.sql.Date date) {
+            return date.toLocalDate().toString();
+        }
+        if (value instanceof Enum<?> constant) {
+            return constant.name();
+        }
+        return value.toString();
+    }
+}
@@ -0,0 +1,176 @@
+package sy.sezar.clinicx.core.export;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Office Open XML workbook written as a stream of SpreadsheetML elements into the zip package.
+ * Rows go straight into the deflater; strings are inline rather than in a shared string table,
+ * which would have to be held in memory until the end. A sheet holds at most
+ * {@value #MAX_SHEET_ROWS} rows, so longer tables continue on further sheets that repeat the header.
+ */
+public class XlsxTableWriter implements TableWriter {
+
+    static final int MAX_SHEET_ROWS = 1_048_576;
+
+    private final BufferedOutputStream buffer;
+    private final ZipOutputStream zip;
+    private final Writer xml;
+    private final String sheetName;
+    private final int maxSheetRows;
+
+    private List<String> header;
+    private int sheets;
+    private int sheetRows;
+
+    public XlsxTableWriter(OutputStream out, String sheetName) {
+        this(out, sheetName, MAX_SHEET_ROWS);
+    }
+
+    XlsxTableWriter(OutputStream out, String sheetName, int maxSheetRows) {
+        this.maxSheetRows = maxSheetRows;
+        this.buffer = new BufferedOutputStream(out, 64 * 1024);
+        this.zip = new ZipOutputStream(buffer, StandardCharsets.UTF_8);
+        this.xml = new BufferedWriter(new OutputStreamWriter(zip, StandardCharsets.UTF_8), 64 * 1024);
+        this.sheetName = sanitizeSheetName(sheetName);
+    }
+
+    @Override
+    public void writeHeader(List<String> columns) throws IOException {
+        this.header = List.copyOf(columns);
+        writeRow(columns.toArray());
+    }
+
+    @Override
+    public void writeRow(Object... values) throws IOException {
+        if (sheets == 0 || sheetRows == maxSheetRows) {
+            startSheet();
+        }
+        xml.write("<row>");
+        for (Object value : values) {
+            if (value == null) {
+                xml.write("<c/>");
+            } else if (value instanceof Number number) {
+                xml.write("<c><v>");
+                xml.write(TableWriter.text(number));
+                xml.write("</v></c>");
+            } else {
+                xml.write("<c t=\"inlineStr\"><is><t xml:space=\"preserve\">");
+                escape(TableWriter.text(value));
+                xml.write("</t></is></c>");
+            }
+        }
+        xml.write("</row>");
+        sheetRows++;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (sheets == 0) {
+            startSheet();
+        }
+        endSheet();
+        writePackageParts();
+        zip.finish();
+        buffer.flush();
+    }
+
+    private void startSheet() throws IOException {
+        if (sheets > 0) {
+            endSheet();
+        }
+        sheets++;
+        sheetRows = 0;
+        zip.putNextEntry(new ZipEntry("xl/worksheets/sheet" + sheets + ".xml"));
+        xml.write("""
+            <?xml version="1.0" encoding="UTF-8" standalone="yes"?>
+            <worksheet xmlns="http://schemas.openxmlformats.org/spreadsheetml/2006/main"><sheetData>""");
+        if (sheets > 1 && header != null) {
+            writeRow(header.toArray());
+        }
+    }
+
+    private void endSheet() throws IOException {
+        xml.write("</sheetData></worksheet>");
+        xml.flush();
+        zip.closeEntry();
+    }
+
+    private void writePackageParts() throws IOException {
+        StringBuilder overrides = new StringBuilder();
+        StringBuilder sheetList = new StringBuilder();
+        StringBuilder relationships = new StringBuilder();
+        for (int i = 1; i <= sheets; i++) {
+            overrides.append("<Override PartName=\"/xl/worksheets/sheet").append(i)
+                .append(".xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.worksheet+xml\"/>");
+            sheetList.append("<sheet name=\"").append(sheets == 1 ? sheetName : sheetName + " " + i)
+                .append("\" sheetId=\"").append(i).append("\" r:id=\"rId").append(i).append("\"/>");
+            relationships.append("<Relationship Id=\"rId").append(i)
+                .append("\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/worksheet\"")
+                .append(" Target=\"worksheets/sheet").append(i).append(".xml\"/>");
+        }
+
+        writeEntry("[Content_Types].xml", """
+            <?xml version="1.0" encoding="UTF-8" standalone="yes"?>
+            <Types xmlns="http://schemas.openxmlformats.org/package/2006/content-types">\
+            <Default Extension="rels" ContentType="application/vnd.openxmlformats-package.relationships+xml"/>\
+            <Default Extension="xml" ContentType="application/xml"/>\
+            <Override PartName="/xl/workbook.xml" ContentType="application/vnd.openxmlformats-officedocument.spreadsheetml.sheet.main+xml"/>\
+            %s</Types>""".formatted(overrides));
+        writeEntry("_rels/.rels", """
+            <?xml version="1.0" encoding="UTF-8" standalone="yes"?>
+            <Relationships xmlns="http://schemas.openxmlformats.org/package/2006/relationships">\
+            <Relationship Id="rId1" Type="http://schemas.openxmlformats.org/officeDocument/2006/relationships/officeDocument" Target="xl/workbook.xml"/>\
+            </Relationships>""");
+        writeEntry("xl/workbook.xml", """
+            <?xml version="1.0" encoding="UTF-8" standalone="yes"?>
+            <workbook xmlns="http://schemas.openxmlformats.org/spreadsheetml/2006/main" \
+            xmlns:r="http://schemas.openxmlformats.org/officeDocument/2006/relationships">\
+            <sheets>%s</sheets></workbook>""".formatted(sheetList));
+        writeEntry("xl/_rels/workbook.xml.rels", """
+            <?xml version="1.0" encoding="UTF-8" standalone="yes"?>
+            <Relationships xmlns="http://schemas.openxmlformats.org/package/2006/relationships">\
+            %s</Relationships>""".formatted(relationships));
+    }
+
+    private void writeEntry(String name, String content) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        xml.write(content);
+        xml.flush();
+        zip.closeEntry();
+    }
+
+    private void escape(String text) throws IOException {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '&' -> xml.write("&amp;");
+                case '<' -> xml.write("&lt;");
+                case '>' -> xml.write("&gt;");
+                default -> {
+                    // Control characters other than tab and line breaks are not allowed in XML 1.0
+                    if (c >= 0x20 || c == '\t' || c == '\n' || c == '\r') {
+                        xml.write(c);
+                    }
+                }
+            }
+        }
+    }
+
+    private static String sanitizeSheetName(String name) {
+        String sanitized = name == null ? "" : name.replaceAll("[\\\\/?*\\[\\]:&<>\"]", " ").strip();
+        if (sanitized.isEmpty()) {
+            return "Report";
+        }
+        // Leave room for the " n" suffix of continuation sheets within the 31 character limit
+        return sanitized.length() > 24 ? sanitized.substring(0, 24) : sanitized;
+    }
+}
@@ -0,0 +1,19 @@
+package sy.sezar.clinicx.core.pagination;
+
+/**
+ * How a list endpoint reports the total number of rows along with a page.
+ */
+public enum CountMode {
+
+    /** Counts the matching rows; the count is skipped when the page itself shows the total. */
+    EXACT,
+
+    /**
+     * Reads the row count PostgreSQL keeps in its statistics for an unfiltered list of a large
+     * table, counting exactly otherwise.
+     */
+    ESTIMATED,
+
+    /** Returns a slice without a total; it only tells whether a next page exists. */
+    NONE
+}
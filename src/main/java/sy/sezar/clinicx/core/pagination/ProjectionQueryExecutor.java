@@ -0,0 +1,157 @@
+package sy.sezar.clinicx.core.pagination;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Table;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads pages of list views selecting only the columns of their DTOs, instead of loading the
+ * entities and mapping them. The total of a page is counted, estimated or left out according
+ * to the {@link CountMode} the client asked for.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProjectionQueryExecutor {
+
+    /** Below this many rows a table is counted exactly, which is then cheap. */
+    static final long ESTIMATE_THRESHOLD = 100_000;
+
+    private static final String ESTIMATE_SQL = "SELECT reltuples::bigint FROM pg_class WHERE oid = to_regclass(?)";
+
+    private final EntityManager entityManager;
+    private final JdbcTemplate jdbcTemplate;
+
+    private volatile Boolean postgres;
+
+    /**
+     * Reads one page of the entities matching a specification through a projection.
+     *
+     * @param spec the filter, or null for all rows; an estimated total is only used without one
+     * @return a {@code Page} for {@link CountMode#EXACT} and {@link CountMode#ESTIMATED}, a
+     *         {@code Slice} without a total for {@link CountMode#NONE}
+     */
+    public <E, D> Slice<D> findAll(Class<E> entityClass, Specification<E> spec, Pageable pageable,
+                                   CountMode countMode, TupleProjection<E, D> projection) {
+        List<Tuple> rows = select(entityClass, spec, pageable, countMode != CountMode.EXACT, projection);
+        if (pageable.isUnpaged()) {
+            List<D> content = rows.stream().map(projection.mapper()).toList();
+            return countMode == CountMode.NONE ? new SliceImpl<>(content) : new PageImpl<>(content);
+        }
+
+        if (countMode == CountMode.EXACT) {
+            List<D> content = rows.stream().map(projection.mapper()).toList();
+            return PageableExecutionUtils.getPage(content, pageable, () -> count(entityClass, spec));
+        }
+
+        // The other modes read one row past the page to tell whether a next page exists
+        boolean hasNext = rows.size() > pageable.getPageSize();
+        List<D> content = rows.stream().limit(pageable.getPageSize()).map(projection.mapper()).toList();
+        if (countMode == CountMode.NONE) {
+            return new SliceImpl<>(content, pageable, hasNext);
+        }
+        if (!hasNext) {
+            return new PageImpl<>(content, pageable, pageable.getOffset() + content.size());
+        }
+        long estimate = spec == null ? estimate(entityClass) : -1;
+        if (estimate < ESTIMATE_THRESHOLD) {
+            return new PageImpl<>(content, pageable, count(entityClass, spec));
+        }
+        // The statistics lag behind the table, but the total cannot end before this page does
+        return new PageImpl<>(content, pageable, Math.max(estimate, pageable.getOffset() + content.size() + 1));
+    }
+
+    private <E> List<Tuple> select(Class<E> entityClass, Specification<E> spec, Pageable pageable,
+                                   boolean readAhead, TupleProjection<E, ?> projection) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<E> root = query.from(entityClass);
+        List<Selection<?>> selections = new ArrayList<>(projection.selection().apply(root, cb));
+
+        if (spec != null) {
+            Predicate predicate = spec.toPredicate(root, query, cb);
+            if (predicate != null) {
+                query.where(predicate);
+            }
+        }
+        if (pageable.getSort().isSorted()) {
+            List<Order> orders = QueryUtils.toOrders(pageable.getSort(), root, cb);
+            query.orderBy(orders);
+            // A distinct query can only be ordered by selected columns
+            if (query.isDistinct()) {
+                orders.forEach(order -> selections.add(order.getExpression()));
+            }
+        }
+        query.multiselect(selections);
+
+        TypedQuery<Tuple> typedQuery = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult(Math.toIntExact(pageable.getOffset()));
+            typedQuery.setMaxResults(pageable.getPageSize() + (readAhead ? 1 : 0));
+        }
+        return typedQuery.getResultList();
+    }
+
+    private <E> long count(Class<E> entityClass, Specification<E> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<E> root = query.from(entityClass);
+        if (spec != null) {
+            Predicate predicate = spec.toPredicate(root, query, cb);
+            if (predicate != null) {
+                query.where(predicate);
+            }
+        }
+        query.select(query.isDistinct() ? cb.countDistinct(root) : cb.count(root));
+        query.orderBy(List.of());
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    /**
+     * Returns the number of rows of the table of an entity as last sampled by ANALYZE, or -1 when
+     * it is unknown or the database is not PostgreSQL.
+     */
+    private long estimate(Class<?> entityClass) {
+        Table table = entityClass.getAnnotation(Table.class);
+        if (table == null || !isPostgres()) {
+            return -1;
+        }
+        Long estimate = jdbcTemplate.query(ESTIMATE_SQL,
+            rs -> rs.next() ? rs.getLong(1) : null, table.name());
+        log.debug("Estimated {} rows in {}", estimate, table.name());
+        return estimate != null ? estimate : -1;
+    }
+
+    private boolean isPostgres() {
+        Boolean current = postgres;
+        if (current == null) {
+            String product = jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+            current = "PostgreSQL".equalsIgnoreCase(product);
+            postgres = current;
+        }
+        return current;
+    }
+}
@@ -0,0 +1,22 @@
+package sy.sezar.clinicx.core.pagination;
+
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * The columns a list view shows, selected from the root of a query and joins it adds, and the
+ * mapping of each selected row to its DTO.
+ *
+ * @param selection selects the columns, each with the alias {@code mapper} reads it by
+ * @param mapper    maps one selected row
+ */
+public record TupleProjection<E, D>(
+    BiFunction<Root<E>, CriteriaBuilder, List<Selection<?>>> selection,
+    Function<Tuple, D> mapper
+) {}
@@ -1,123 +1,288 @@
 package sy.sezar.clinicx.core.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
 import com.nimbusds.jwt.JWT;
+import com.nimbusds.jwt.JWTClaimsSet;
 import com.nimbusds.jwt.JWTParser;
+import com.nimbusds.jwt.proc.ConfigurableJWTProcessor;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.oauth2.core.OAuth2TokenValidator;
+import org.springframework.security.oauth2.core.OAuth2TokenValidatorResult;
+import org.springframework.security.oauth2.jwt.BadJwtException;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.jwt.JwtException;
-import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtValidationException;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.MappedJwtClaimSetConverter;
+import sy.sezar.clinicx.core.config.JwtDecoderProperties;
 import sy.sezar.clinicx.tenant.TenantContext;
-import sy.sezar.clinicx.tenant.model.Tenant;
-import sy.sezar.clinicx.tenant.repository.TenantRepository;
+import sy.sezar.clinicx.tenant.service.TenantRegistry;
 
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
-import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
-public class MultiTenantJwtDecoder implements JwtDecoder {
-    
-    private TenantRepository tenantRepository;
+/**
+ * JWT decoder for tokens issued by any of the tenant realms.
+ * Each token is parsed once; the parsed token is used both to find the realm and tenant
+ * and to verify the signature. Realm key sets are cached in a bounded cache, prefetched
+ * at startup and refreshed in the background. Verifiers are only created for the default and
+ * master realms and the realms of active tenants, so tokens naming arbitrary issuers are
+ * rejected before any key set is fetched.
+ */
+@Slf4j
+public class MultiTenantJwtDecoder implements JwtDecoder, InitializingBean, DisposableBean,
+        ApplicationListener<ApplicationReadyEvent> {
+
+    private static final Converter<Map<String, Object>, Map<String, Object>> CLAIM_SET_CONVERTER =
+        MappedJwtClaimSetConverter.withDefaults(Collections.emptyMap());
+    private static final OAuth2TokenValidator<Jwt> TOKEN_VALIDATOR = JwtValidators.createDefault();
+
+    private TenantRegistry tenantRegistry;
     private String keycloakBaseUrl;
     private boolean multiTenantEnabled;
     private String defaultRealm;
-    
-    private final Map<String, JwtDecoder> decoders = new ConcurrentHashMap<>();
-    
+    private JwtDecoderProperties properties = new JwtDecoderProperties();
+    private MeterRegistry meterRegistry = Metrics.globalRegistry;
+
+    private Cache<String, RealmVerifier> verifiers;
+    private ScheduledExecutorService refreshExecutor;
+    private HttpClient httpClient;
+
+    @Override
+    public void afterPropertiesSet() {
+        this.verifiers = Caffeine.newBuilder()
+            .maximumSize(properties.getMaxRealms())
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiers, "jwtDecoders");
+        this.refreshExecutor = Executors.newScheduledThreadPool(2,
+            Thread.ofPlatform().name("jwks-refresh-", 0).daemon(true).factory());
+        this.httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofMillis(properties.getFetchTimeoutMillis()))
+            .build();
+        long refreshInterval = properties.getRefreshIntervalSeconds();
+        refreshExecutor.scheduleWithFixedDelay(this::refreshAll, refreshInterval, refreshInterval, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public void destroy() {
+        refreshExecutor.shutdownNow();
+    }
+
+    /**
+     * Fetches the key sets of the default realm and all realms of active tenants in the
+     * background, so the first request of each realm does not wait for Keycloak.
+     */
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        if (!properties.isPrefetchOnStartup()) {
+            return;
+        }
+        try {
+            Set<String> realms = new LinkedHashSet<>();
+            realms.add(defaultRealm);
+            if (multiTenantEnabled) {
+                realms.addAll(tenantRegistry.getActiveRealmNames());
+            }
+            realms.forEach(realm -> getVerifier(realm).jwkSource().refresh());
+            log.info("Prefetching JWK sets for {} realms", realms.size());
+        } catch (Exception e) {
+            log.warn("Failed to prefetch JWK sets: {}", e.getMessage());
+        }
+    }
+
     @Override
     public Jwt decode(String token) throws JwtException {
         if (!multiTenantEnabled) {
-            return getDecoder(defaultRealm).decode(token);
+            return verify(defaultRealm, token, parse(token));
         }
-        
+
         try {
-            // Parse token to get issuer
+            // Parse token once to get issuer and tenant
             JWT jwt = JWTParser.parse(token);
-            String issuer = jwt.getJWTClaimsSet().getIssuer();
-            
+            JWTClaimsSet claims = jwt.getJWTClaimsSet();
+
             // Extract realm from issuer
-            String realm = extractRealmFromIssuer(issuer);
-            
+            String realm = extractRealmFromIssuer(claims.getIssuer());
+
             // Special handling for master and default realms
             if (realm.equals(defaultRealm) || realm.equals("master")) {
                 // For default/master realm, set the default tenant context
                 TenantContext.setCurrentTenant(defaultRealm);
             } else {
                 // In realm-per-type architecture, get tenant_id from the token claims
-                String tenantId = (String) jwt.getJWTClaimsSet().getClaim("tenant_id");
-                
+                String tenantId = (String) claims.getClaim("tenant_id");
+
                 if (tenantId == null) {
                     throw new JwtException("No tenant_id found in token");
                 }
-                
-                // Validate tenant exists and is active
-                Optional<Tenant> tenant = tenantRepository.findByTenantId(tenantId);
-                if (tenant.isEmpty() || !tenant.get().isActive()) {
+
+                // Validate tenant exists, is active and is hosted in the issuing realm. The issuer
+                // is not verified yet, so no key set is fetched for a realm no tenant lives in
+                boolean issuedByTenantRealm = tenantRegistry.findActiveByTenantId(tenantId)
+                    .filter(tenant -> realm.equals(tenant.getRealmName()))
+                    .isPresent();
+                if (!issuedByTenantRealm) {
                     throw new JwtException("Invalid or inactive tenant");
                 }
-                
+
                 // Set tenant context from token
                 TenantContext.setCurrentTenant(tenantId);
             }
-            
-            // Get or create decoder for this realm
-            JwtDecoder decoder = getDecoder(realm);
-            
-            return decoder.decode(token);
-            
+
+            // Verify the already parsed token with the realm's keys
+            return verify(realm, token, jwt);
+
         } catch (Exception e) {
             throw new JwtException("Failed to decode JWT", e);
         }
     }
-    
-    private JwtDecoder getDecoder(String realm) {
-        return decoders.computeIfAbsent(realm, r -> {
-            String jwkSetUri = buildJwkSetUri(r);
-            return NimbusJwtDecoder.withJwkSetUri(jwkSetUri).build();
+
+    private JWT parse(String token) {
+        try {
+            return JWTParser.parse(token);
+        } catch (Exception e) {
+            throw new BadJwtException("Failed to decode JWT", e);
+        }
+    }
+
+    private Jwt verify(String realm, String token, JWT parsedJwt) {
+        JWTClaimsSet verifiedClaims;
+        try {
+            verifiedClaims = getVerifier(realm).processor().process(parsedJwt, null);
+        } catch (Exception e) {
+            throw new BadJwtException("An error occurred while attempting to decode the Jwt: " + e.getMessage(), e);
+        }
+
+        Map<String, Object> headers = new LinkedHashMap<>(parsedJwt.getHeader().toJSONObject());
+        Map<String, Object> claims = CLAIM_SET_CONVERTER.convert(verifiedClaims.getClaims());
+        Jwt jwt = Jwt.withTokenValue(token)
+            .headers(h -> h.putAll(headers))
+            .claims(c -> c.putAll(claims))
+            .build();
+
+        OAuth2TokenValidatorResult result = TOKEN_VALIDATOR.validate(jwt);
+        if (result.hasErrors()) {
+            String description = result.getErrors().iterator().next().getDescription();
+            throw new JwtValidationException(
+                "An error occurred while attempting to decode the Jwt: " + description, result.getErrors());
+        }
+        return jwt;
+    }
+
+    private RealmVerifier getVerifier(String realm) {
+        return verifiers.get(realm, this::createVerifier);
+    }
+
+    private RealmVerifier createVerifier(String realm) {
+        RealmJwkSource jwkSource = new RealmJwkSource(
+            realm,
+            URI.create(buildJwkSetUri(realm)),
+            httpClient,
+            refreshExecutor,
+            Duration.ofMillis(properties.getFetchTimeoutMillis()),
+            Duration.ofSeconds(properties.getMinRefreshIntervalSeconds()),
+            properties.getKeyMissWaitMillis(),
+            new RealmJwkSource.JwkSourceListener() {
+                @Override
+                public void onFetch(String fetchedRealm, boolean success) {
+                    meterRegistry.counter("jwt.jwks.fetch", "result", success ? "success" : "failure").increment();
+                }
+
+                @Override
+                public void onKeyMiss(String missedRealm) {
+                    meterRegistry.counter("jwt.jwks.key.miss").increment();
+                }
+            });
+
+        ConfigurableJWTProcessor<SecurityContext> processor = new DefaultJWTProcessor<>();
+        processor.setJWSKeySelector(new JWSVerificationKeySelector<>(Set.of(JWSAlgorithm.RS256), jwkSource));
+        // Claims are validated by Spring's validators after conversion
+        processor.setJWTClaimsSetVerifier((claims, context) -> {
         });
+        return new RealmVerifier(jwkSource, processor);
+    }
+
+    private void refreshAll() {
+        verifiers.asMap().values().forEach(verifier -> verifier.jwkSource().refresh());
     }
-    
+
     private String buildJwkSetUri(String realm) {
         return String.format("%s/realms/%s/protocol/openid-connect/certs", keycloakBaseUrl, realm);
     }
-    
+
     private String extractRealmFromIssuer(String issuer) {
         // Issuer format: http://localhost:8080/realms/clinic-123
         if (issuer == null || !issuer.contains("/realms/")) {
             return defaultRealm;
         }
-        
+
         int realmStart = issuer.indexOf("/realms/") + 8;
         int realmEnd = issuer.indexOf("/", realmStart);
-        
+
         if (realmEnd == -1) {
             return issuer.substring(realmStart);
         } else {
             return issuer.substring(realmStart, realmEnd);
         }
     }
-    
+
     public void clearCache() {
-        decoders.clear();
+        verifiers.invalidateAll();
     }
-    
+
     public void clearCacheForRealm(String realm) {
-        decoders.remove(realm);
+        verifiers.invalidate(realm);
     }
-    
+
     // Setter methods for dependency injection
-    public void setTenantRepository(TenantRepository tenantRepository) {
-        this.tenantRepository = tenantRepository;
+    public void setTenantRegistry(TenantRegistry tenantRegistry) {
+        this.tenantRegistry = tenantRegistry;
     }
-    
+
     public void setKeycloakBaseUrl(String keycloakBaseUrl) {
         this.keycloakBaseUrl = keycloakBaseUrl;
     }
-    
+
     public void setMultiTenantEnabled(boolean multiTenantEnabled) {
         this.multiTenantEnabled = multiTenantEnabled;
     }
-    
+
     public void setDefaultRealm(String defaultRealm) {
         this.defaultRealm = defaultRealm;
     }
-}
\ No newline at end of file
+
+    public void setProperties(JwtDecoderProperties properties) {
+        this.properties = properties;
+    }
+
+    public void setMeterRegistry(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    private record RealmVerifier(RealmJwkSource jwkSource, ConfigurableJWTProcessor<SecurityContext> processor) {
+    }
+}
@@ -0,0 +1,161 @@
+package sy.sezar.clinicx.core.security;
+
+import com.nimbusds.jose.KeySourceException;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.SecurityContext;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * JWK source of a single Keycloak realm.
+ * Keys are served from memory. Fetches always run on the refresh executor and are shared
+ * by all requests that need them; an unknown key ID triggers at most one fetch per minimum
+ * refresh interval, so tokens with made-up key IDs cannot cause a fetch per request.
+ */
+@Slf4j
+class RealmJwkSource implements JWKSource<SecurityContext> {
+
+    private final String realm;
+    private final URI jwkSetUri;
+    private final HttpClient httpClient;
+    private final Executor refreshExecutor;
+    private final Duration fetchTimeout;
+    private final long minRefreshIntervalNanos;
+    private final long keyMissWaitMillis;
+    private final JwkSourceListener listener;
+
+    private volatile JWKSet jwkSet;
+    private CompletableFuture<JWKSet> inFlight;
+    private long lastRefreshStarted;
+    private boolean refreshedBefore;
+
+    RealmJwkSource(String realm, URI jwkSetUri, HttpClient httpClient, Executor refreshExecutor,
+                   Duration fetchTimeout, Duration minRefreshInterval, long keyMissWaitMillis,
+                   JwkSourceListener listener) {
+        this.realm = realm;
+        this.jwkSetUri = jwkSetUri;
+        this.httpClient = httpClient;
+        this.refreshExecutor = refreshExecutor;
+        this.fetchTimeout = fetchTimeout;
+        this.minRefreshIntervalNanos = minRefreshInterval.toNanos();
+        this.keyMissWaitMillis = keyMissWaitMillis;
+        this.listener = listener;
+    }
+
+    @Override
+    public List<JWK> get(JWKSelector jwkSelector, SecurityContext context) throws KeySourceException {
+        JWKSet current = jwkSet;
+        if (current != null) {
+            List<JWK> keys = jwkSelector.select(current);
+            if (!keys.isEmpty()) {
+                return keys;
+            }
+            // Unknown key ID, most likely a key rotation in Keycloak
+            listener.onKeyMiss(realm);
+        }
+
+        CompletableFuture<JWKSet> refresh = refresh();
+        if (refresh == null) {
+            return List.of();
+        }
+        try {
+            return jwkSelector.select(refresh.get(keyMissWaitMillis, TimeUnit.MILLISECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new KeySourceException("Interrupted while loading JWK set of realm " + realm, e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new KeySourceException("Unable to load JWK set of realm " + realm, e);
+        }
+    }
+
+    /**
+     * Starts a background fetch of the JWK set unless one is running or the realm was
+     * refreshed less than the minimum refresh interval ago.
+     *
+     * @return the running fetch, or null if the refresh was rate limited
+     */
+    synchronized CompletableFuture<JWKSet> refresh() {
+        if (inFlight != null) {
+            return inFlight;
+        }
+        long now = System.nanoTime();
+        if (refreshedBefore && now - lastRefreshStarted < minRefreshIntervalNanos) {
+            return null;
+        }
+        refreshedBefore = true;
+        lastRefreshStarted = now;
+
+        CompletableFuture<JWKSet> future = CompletableFuture.supplyAsync(() -> {
+            // Publish before completing, so callers woken by the future see the new keys
+            JWKSet loaded = fetch();
+            jwkSet = loaded;
+            return loaded;
+        }, refreshExecutor);
+        inFlight = future;
+        future.whenComplete((loaded, error) -> {
+            synchronized (this) {
+                inFlight = null;
+            }
+            if (loaded != null) {
+                listener.onFetch(realm, true);
+            } else {
+                log.warn("Failed to fetch JWK set of realm {}: {}", realm, error.getMessage());
+                listener.onFetch(realm, false);
+            }
+        });
+        return future;
+    }
+
+    boolean isLoaded() {
+        return jwkSet != null;
+    }
+
+    private JWKSet fetch() {
+        HttpRequest request = HttpRequest.newBuilder(jwkSetUri)
+            .timeout(fetchTimeout)
+            .header("Accept", "application/json")
+            .GET()
+            .build();
+        try {
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("JWK set request to " + jwkSetUri + " returned " + response.statusCode());
+            }
+            return JWKSet.parse(response.body());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while fetching " + jwkSetUri, e);
+        } catch (ParseException e) {
+            throw new IllegalStateException("Invalid JWK set at " + jwkSetUri, e);
+        }
+    }
+
+    /**
+     * Receives fetch and key miss notifications, used for metrics.
+     */
+    interface JwkSourceListener {
+
+        void onFetch(String realm, boolean success);
+
+        void onKeyMiss(String realm);
+    }
+}
@@ -1,5 +1,6 @@
 package sy.sezar.clinicx.core.security;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
@@ -21,9 +22,10 @@ import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.session.NullAuthenticatedSessionStrategy;
 import org.springframework.security.web.authentication.session.SessionAuthenticationStrategy;
 import org.springframework.beans.factory.annotation.Value;
-import sy.sezar.clinicx.tenant.repository.TenantRepository;
+import sy.sezar.clinicx.core.config.JwtDecoderProperties;
 import sy.sezar.clinicx.tenant.security.TenantAccessDecisionVoter;
 import sy.sezar.clinicx.tenant.security.TenantAuthorizationFilter;
+import sy.sezar.clinicx.tenant.service.TenantRegistry;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
 import java.util.Arrays;
@@ -49,7 +51,13 @@ public class SecurityConfig {
     private String defaultRealm;
     
     @Autowired
-    private TenantRepository tenantRepository;
+    private TenantRegistry tenantRegistry;
+    
+    @Autowired
+    private JwtDecoderProperties jwtDecoderProperties;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
     
     @Autowired
     private TenantAccessDecisionVoter tenantAccessDecisionVoter;
@@ -102,10 +110,12 @@ public class SecurityConfig {
     public JwtDecoder jwtDecoder() {
         if (multiTenantEnabled) {
             MultiTenantJwtDecoder decoder = new MultiTenantJwtDecoder();
-            decoder.setTenantRepository(tenantRepository);
+            decoder.setTenantRegistry(tenantRegistry);
             decoder.setKeycloakBaseUrl(keycloakBaseUrl);
             decoder.setMultiTenantEnabled(multiTenantEnabled);
             decoder.setDefaultRealm(defaultRealm);
+            decoder.setProperties(jwtDecoderProperties);
+            decoder.setMeterRegistry(meterRegistry);
             return decoder;
         }
         return JwtDecoders.fromIssuerLocation(issuerUri);
@@ -12,6 +12,7 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import sy.sezar.clinicx.patient.dto.*;
+import sy.sezar.clinicx.patient.model.enums.CreditAllocationPolicy;
 
 import java.util.UUID;
 
@@ -88,4 +89,18 @@ public interface AdvancePaymentControllerApi {
     ResponseEntity<FinancialRecordDto> autoApplyAdvancePaymentsToInvoice(
             @Parameter(description = "Invoice ID") @PathVariable UUID invoiceId
     );
+
+    @Operation(
+            summary = "Auto-apply patient credits",
+            description = "Applies all unapplied advance payments of a patient across the patient's open invoices, "
+                    + "oldest credit first; the policy decides which invoices are settled first"
+    )
+    @ApiResponse(responseCode = "200", description = "Credits applied successfully")
+    @ApiResponse(responseCode = "404", description = "Patient not found", content = @Content(schema = @Schema(implementation = String.class)))
+    @PostMapping("/patient/{patientId}/auto-apply")
+    ResponseEntity<CreditApplicationResultDto> autoApplyCredits(
+            @Parameter(description = "Patient ID") @PathVariable UUID patientId,
+            @Parameter(description = "Order in which open invoices receive credit")
+            @RequestParam(defaultValue = "FIFO") CreditAllocationPolicy policy
+    );
 }
\ No newline at end of file
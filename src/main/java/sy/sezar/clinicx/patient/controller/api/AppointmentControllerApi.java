@@ -14,6 +14,8 @@ import org.springframework.web.bind.annotation.*;
 import jakarta.validation.Valid;
 import sy.sezar.clinicx.patient.dto.AppointmentCardDto;
 import sy.sezar.clinicx.patient.dto.AppointmentCreateRequest;
+import sy.sezar.clinicx.patient.dto.AppointmentRescheduleRequest;
+import sy.sezar.clinicx.patient.dto.BookedSlotDto;
 import sy.sezar.clinicx.patient.dto.UpcomingAppointmentDto;
 
 import java.time.Instant;
@@ -37,6 +39,49 @@ public interface AppointmentControllerApi {
     ResponseEntity<AppointmentCardDto> createAppointment(
             @Valid @RequestBody AppointmentCreateRequest request);
 
+    @PutMapping("/{id}/reschedule")
+    @Operation(
+        summary = "Reschedule appointment",
+        description = "Moves an appointment to another date/time, duration or doctor."
+    )
+    @ApiResponse(responseCode = "200", description = "Appointment rescheduled",
+                content = @Content(schema = @Schema(implementation = AppointmentCardDto.class)))
+    @ApiResponse(responseCode = "400", description = "Validation error or appointment cannot be rescheduled")
+    @ApiResponse(responseCode = "404", description = "Appointment or doctor not found")
+    @ApiResponse(responseCode = "409", description = "Doctor already has an appointment at this time")
+    ResponseEntity<AppointmentCardDto> rescheduleAppointment(
+            @Parameter(name = "id", description = "Appointment UUID", required = true)
+            @PathVariable UUID id,
+            @Valid @RequestBody AppointmentRescheduleRequest request);
+
+    @PostMapping("/{id}/cancel")
+    @Operation(
+        summary = "Cancel appointment",
+        description = "Cancels an appointment, freeing the doctor's time it booked."
+    )
+    @ApiResponse(responseCode = "200", description = "Appointment cancelled",
+                content = @Content(schema = @Schema(implementation = AppointmentCardDto.class)))
+    @ApiResponse(responseCode = "400", description = "Completed appointments cannot be cancelled")
+    @ApiResponse(responseCode = "404", description = "Appointment not found")
+    ResponseEntity<AppointmentCardDto> cancelAppointment(
+            @Parameter(name = "id", description = "Appointment UUID", required = true)
+            @PathVariable UUID id);
+
+    @GetMapping("/conflicts")
+    @Operation(
+        summary = "Check doctor conflicts",
+        description = "Returns the appointments of a doctor that a booking at the given time would overlap. " +
+                     "An empty list means the doctor is free."
+    )
+    @ApiResponse(responseCode = "200", description = "Conflicting appointments retrieved")
+    ResponseEntity<List<BookedSlotDto>> getDoctorConflicts(
+            @Parameter(name = "doctorId", description = "Doctor UUID", required = true)
+            @RequestParam UUID doctorId,
+            @Parameter(name = "startDateTime", description = "Start date and time (ISO format)", required = true)
+            @RequestParam Instant startDateTime,
+            @Parameter(name = "durationMinutes", description = "Duration in minutes", example = "30")
+            @RequestParam(defaultValue = "30") int durationMinutes);
+
     @GetMapping("/date-range")
     @Operation(
         summary = "Get appointments by date range",
@@ -13,6 +13,7 @@ import org.springframework.data.domain.Sort;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import sy.sezar.clinicx.patient.dto.*;
 
 import java.time.LocalDate;
@@ -194,12 +195,12 @@ public interface BillingReportControllerApi {
     @PostMapping("/export/{reportType}")
     @Operation(
         summary = "Export report",
-        description = "Exports a billing report in various formats (PDF, Excel, CSV)."
+        description = "Streams a billing report (payments, invoices or patient-statement) in PDF, Excel or CSV format."
     )
     @ApiResponse(responseCode = "200", description = "Report exported successfully")
     @ApiResponse(responseCode = "400", description = "Invalid report type or parameters")
-    ResponseEntity<byte[]> exportReport(
-            @Parameter(description = "Type of report to export", required = true)
+    ResponseEntity<StreamingResponseBody> exportReport(
+            @Parameter(description = "Type of report to export (payments, invoices, patient-statement)", required = true)
             @PathVariable String reportType,
             @Parameter(description = "Export format (PDF, EXCEL, CSV)")
             @RequestParam(defaultValue = "PDF") String format,
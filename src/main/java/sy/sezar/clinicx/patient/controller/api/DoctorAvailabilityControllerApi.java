@@ -0,0 +1,69 @@
+package sy.sezar.clinicx.patient.controller.api;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import sy.sezar.clinicx.patient.dto.FreeSlotDto;
+import sy.sezar.clinicx.patient.dto.WorkingHoursDto;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/v1/availability")
+@Tag(name = "Doctor Availability", description = "Free appointment slots and working hours of doctors")
+public interface DoctorAvailabilityControllerApi {
+
+    @GetMapping("/free-slots")
+    @Operation(
+        summary = "Find free slots",
+        description = "Finds the earliest free appointment slots of the doctors of a specialty and/or of given " +
+                     "doctors within a date range, ordered by start time and doctor name."
+    )
+    @ApiResponse(responseCode = "200", description = "Free slots retrieved")
+    @ApiResponse(responseCode = "400", description = "Invalid search parameters")
+    ResponseEntity<List<FreeSlotDto>> findFreeSlots(
+            @Parameter(name = "specialtyId", description = "Specialty UUID")
+            @RequestParam(required = false) UUID specialtyId,
+            @Parameter(name = "doctorIds", description = "Doctor UUIDs")
+            @RequestParam(required = false) Set<UUID> doctorIds,
+            @Parameter(name = "fromDate", description = "First date in YYYY-MM-DD format", required = true)
+            @RequestParam LocalDate fromDate,
+            @Parameter(name = "toDate", description = "Last date in YYYY-MM-DD format", required = true)
+            @RequestParam LocalDate toDate,
+            @Parameter(name = "durationMinutes", description = "Slot length in minutes, multiple of 5", example = "30")
+            @RequestParam(defaultValue = "30") int durationMinutes,
+            @Parameter(name = "stepMinutes", description = "Minutes between slot starts; defaults to the duration")
+            @RequestParam(required = false) Integer stepMinutes,
+            @Parameter(name = "limit", description = "Maximum number of slots", example = "10")
+            @RequestParam(defaultValue = "10") int limit);
+
+    @GetMapping("/doctors/{doctorId}/working-hours")
+    @Operation(
+        summary = "Get working hours",
+        description = "Retrieves the weekly working hours of a doctor. An empty list means the default clinic hours."
+    )
+    @ApiResponse(responseCode = "200", description = "Working hours retrieved")
+    ResponseEntity<List<WorkingHoursDto>> getWorkingHours(
+            @Parameter(name = "doctorId", description = "Doctor UUID", required = true)
+            @PathVariable UUID doctorId);
+
+    @PutMapping("/doctors/{doctorId}/working-hours")
+    @Operation(
+        summary = "Replace working hours",
+        description = "Replaces the weekly working hours of a doctor. An empty list restores the default clinic hours."
+    )
+    @ApiResponse(responseCode = "200", description = "Working hours replaced")
+    @ApiResponse(responseCode = "400", description = "Invalid or overlapping working periods")
+    @ApiResponse(responseCode = "404", description = "Doctor not found")
+    ResponseEntity<List<WorkingHoursDto>> replaceWorkingHours(
+            @Parameter(name = "doctorId", description = "Doctor UUID", required = true)
+            @PathVariable UUID doctorId,
+            @Valid @RequestBody List<@Valid WorkingHoursDto> workingHours);
+}
@@ -70,6 +70,54 @@ public interface FinancialAnalyticsControllerApi {
             @Parameter(description = "As of date", required = true)
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOfDate);
 
+    @GetMapping("/accounts-receivable/aging/patients")
+    @Operation(
+        summary = "Get accounts receivable aging by patient",
+        description = "Retrieves outstanding balances per patient by aging bucket, one page at a time. "
+            + "The next page is requested with the cursor returned by the previous one."
+    )
+    @ApiResponse(responseCode = "200", description = "Aging by patient retrieved successfully")
+    ResponseEntity<AgingPageDto<AgingGroupDto>> getAgingByPatient(
+            @Parameter(description = "As of date", required = true)
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOfDate,
+            @Parameter(description = "Cursor of the next page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size, at most 500")
+            @RequestParam(defaultValue = "50") int size);
+
+    @GetMapping("/accounts-receivable/aging/insurance-providers")
+    @Operation(
+        summary = "Get accounts receivable aging by insurance provider",
+        description = "Retrieves outstanding balances per insurance provider by aging bucket, one page at a time. "
+            + "Patients without an insurance provider are grouped under an empty key."
+    )
+    @ApiResponse(responseCode = "200", description = "Aging by insurance provider retrieved successfully")
+    ResponseEntity<AgingPageDto<AgingGroupDto>> getAgingByInsuranceProvider(
+            @Parameter(description = "As of date", required = true)
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOfDate,
+            @Parameter(description = "Cursor of the next page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size, at most 500")
+            @RequestParam(defaultValue = "50") int size);
+
+    @GetMapping("/accounts-receivable/aging/invoices")
+    @Operation(
+        summary = "Get aging invoices",
+        description = "Retrieves open invoices of a patient or insurance provider, oldest first, one page at a time."
+    )
+    @ApiResponse(responseCode = "200", description = "Aging invoices retrieved successfully")
+    ResponseEntity<AgingPageDto<AgingDetailDto>> getAgingInvoices(
+            @Parameter(description = "As of date", required = true)
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOfDate,
+            @Parameter(description = "Patient UUID")
+            @RequestParam(required = false) UUID patientId,
+            @Parameter(description = "Insurance provider, empty for patients without one")
+            @RequestParam(required = false) String insuranceProvider,
+            @Parameter(description = "Cursor of the next page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size, at most 500")
+            @RequestParam(defaultValue = "50") int size);
+
     @GetMapping("/payment-methods/distribution")
     @Operation(
         summary = "Get payment method distribution",
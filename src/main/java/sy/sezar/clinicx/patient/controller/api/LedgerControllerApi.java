@@ -8,10 +8,14 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import sy.sezar.clinicx.patient.dto.CursorPageDto;
 import sy.sezar.clinicx.patient.dto.LedgerEntryDto;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.UUID;
 
 @RestController
@@ -22,13 +26,42 @@ public interface LedgerControllerApi {
     @GetMapping("/patient/{patientId}")
     @Operation(
         summary = "Get patient ledger entries",
-        description = "Retrieves paginated ledger entries with chronological order."
+        description = "Retrieves paginated ledger entries in chronological order, each with the running balance after it."
     )
     @ApiResponse(responseCode = "200", description = "Ledger entries retrieved successfully")
     ResponseEntity<Page<LedgerEntryDto>> getPatientLedger(
             @Parameter(description = "Patient UUID", required = true)
             @PathVariable UUID patientId,
             @Parameter(hidden = true) @PageableDefault(sort = "occurredAt", direction = Sort.Direction.ASC) Pageable pageable);
+
+    @GetMapping("/patient/{patientId}/scroll")
+    @Operation(
+        summary = "Scroll patient ledger entries",
+        description = "Retrieves ledger entries in chronological order, each with the running balance after it, "
+            + "one page at a time without counting them. "
+            + "The next page is requested with the cursor returned by the previous one."
+    )
+    @ApiResponse(responseCode = "200", description = "Ledger entries retrieved successfully")
+    @ApiResponse(responseCode = "400", description = "Invalid cursor or page size")
+    ResponseEntity<CursorPageDto<LedgerEntryDto>> scrollPatientLedger(
+            @Parameter(description = "Patient UUID", required = true)
+            @PathVariable UUID patientId,
+            @Parameter(description = "Cursor of the next page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size, at most 100")
+            @RequestParam(defaultValue = "20") int size);
+
+    @GetMapping("/patient/{patientId}/balance")
+    @Operation(
+        summary = "Get patient balance as of a date",
+        description = "Computes the patient balance at the end of the given day from the ledger."
+    )
+    @ApiResponse(responseCode = "200", description = "Balance computed successfully")
+    ResponseEntity<BigDecimal> getBalanceAsOf(
+            @Parameter(description = "Patient UUID", required = true)
+            @PathVariable UUID patientId,
+            @Parameter(description = "Day at the end of which the balance is computed", required = true)
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOf);
 }
 
 
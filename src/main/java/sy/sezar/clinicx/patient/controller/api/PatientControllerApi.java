@@ -9,11 +9,14 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import sy.sezar.clinicx.core.pagination.CountMode;
 import sy.sezar.clinicx.patient.dto.*;
 
+import java.util.List;
 import java.util.UUID;
 
 @RestController
@@ -32,6 +35,17 @@ public interface PatientControllerApi {
     ResponseEntity<PatientSummaryDto> getPatientById(
             @Parameter(description = "Patient ID") @PathVariable UUID id);
 
+    @GetMapping("/{id}/dashboard")
+    @Operation(
+        summary = "Get patient dashboard",
+        description = "Retrieves a patient with their appointments, notes and invoices, newest first."
+    )
+    @ApiResponse(responseCode = "200", description = "Patient dashboard retrieved",
+                content = @Content(schema = @Schema(implementation = PatientDashboardDto.class)))
+    @ApiResponse(responseCode = "404", description = "Patient not found")
+    ResponseEntity<PatientDashboardDto> getPatientDashboard(
+            @Parameter(description = "Patient ID") @PathVariable UUID id);
+
     @GetMapping
     @Operation(
         summary = "Get all patients",
@@ -43,11 +57,26 @@ public interface PatientControllerApi {
         }
     )
     @ApiResponse(responseCode = "200", description = "Patients retrieved")
-    ResponseEntity<Page<PatientSummaryDto>> getAllPatients(
+    ResponseEntity<Slice<PatientSummaryDto>> getAllPatients(
             @Parameter(name = "searchTerm", description = "Search term for filtering patients")
             @RequestParam(required = false) String searchTerm,
+            @Parameter(description = "How the total is reported: EXACT, ESTIMATED, or NONE for a slice without a total")
+            @RequestParam(defaultValue = "EXACT") CountMode count,
             @Parameter(hidden = true) @PageableDefault(sort = "fullName") Pageable pageable);
 
+    @GetMapping("/quick-search")
+    @Operation(
+        summary = "Quick patient search",
+        description = "Finds the patients best matching a typed term, best matches first: exact public ID, "
+            + "email or insurance number, then names starting with the term, then any searched field containing it."
+    )
+    @ApiResponse(responseCode = "200", description = "Patients found")
+    ResponseEntity<List<PatientSearchResultDto>> quickSearch(
+            @Parameter(description = "Typed search term", required = true)
+            @RequestParam String term,
+            @Parameter(description = "Maximum number of patients returned, at most 50")
+            @RequestParam(defaultValue = "20") int limit);
+
     @PostMapping("/search")
     @Operation(
         summary = "Advanced patient search",
@@ -59,8 +88,10 @@ public interface PatientControllerApi {
         }
     )
     @ApiResponse(responseCode = "200", description = "Patients retrieved")
-    ResponseEntity<Page<PatientSummaryDto>> searchPatients(
+    ResponseEntity<Slice<PatientSummaryDto>> searchPatients(
             @Valid @RequestBody PatientSearchCriteria criteria,
+            @Parameter(description = "How the total is reported: EXACT, ESTIMATED, or NONE for a slice without a total")
+            @RequestParam(defaultValue = "EXACT") CountMode count,
             @Parameter(hidden = true) @PageableDefault(sort = "fullName") Pageable pageable);
 
     @PostMapping
@@ -176,4 +207,80 @@ public interface PatientControllerApi {
     ResponseEntity<Page<FinancialRecordDto>> getPatientFinancialRecords(
             @Parameter(description = "Patient ID") @PathVariable UUID id,
             @Parameter(hidden = true) @PageableDefault(sort = "invoiceDate", direction = org.springframework.data.domain.Sort.Direction.DESC) Pageable pageable);
+
+    @GetMapping("/{id}/documents/scroll")
+    @Operation(
+        summary = "Scroll patient documents",
+        description = "Retrieves the documents of a patient newest first, one page at a time, without counting them. "
+            + "The next page is requested with the cursor returned by the previous one."
+    )
+    @ApiResponse(responseCode = "200", description = "Documents retrieved")
+    @ApiResponse(responseCode = "400", description = "Invalid cursor or page size")
+    ResponseEntity<CursorPageDto<DocumentSummaryDto>> scrollPatientDocuments(
+            @Parameter(description = "Patient ID") @PathVariable UUID id,
+            @Parameter(description = "Cursor of the next page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size, at most 100")
+            @RequestParam(defaultValue = "20") int size);
+
+    @GetMapping("/{id}/notes/scroll")
+    @Operation(
+        summary = "Scroll patient notes",
+        description = "Retrieves the notes of a patient newest first, one page at a time, without counting them. "
+            + "The next page is requested with the cursor returned by the previous one."
+    )
+    @ApiResponse(responseCode = "200", description = "Notes retrieved")
+    @ApiResponse(responseCode = "400", description = "Invalid cursor or page size")
+    ResponseEntity<CursorPageDto<NoteSummaryDto>> scrollPatientNotes(
+            @Parameter(description = "Patient ID") @PathVariable UUID id,
+            @Parameter(description = "Cursor of the next page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size, at most 100")
+            @RequestParam(defaultValue = "20") int size);
+
+    @GetMapping("/{id}/treatments/scroll")
+    @Operation(
+        summary = "Scroll patient treatment history",
+        description = "Retrieves the visits of a patient newest first, one page at a time, without counting them. "
+            + "The next page is requested with the cursor returned by the previous one."
+    )
+    @ApiResponse(responseCode = "200", description = "Visits retrieved")
+    @ApiResponse(responseCode = "400", description = "Invalid cursor or page size")
+    ResponseEntity<CursorPageDto<VisitLogDto>> scrollPatientTreatmentHistory(
+            @Parameter(description = "Patient ID") @PathVariable UUID id,
+            @Parameter(description = "Cursor of the next page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size, at most 100")
+            @RequestParam(defaultValue = "20") int size);
+
+    @GetMapping("/{id}/lab-requests/scroll")
+    @Operation(
+        summary = "Scroll patient lab requests",
+        description = "Retrieves the lab requests of a patient, those not sent yet first, then the sent ones newest first, "
+            + "one page at a time, without counting them. "
+            + "The next page is requested with the cursor returned by the previous one."
+    )
+    @ApiResponse(responseCode = "200", description = "Lab requests retrieved")
+    @ApiResponse(responseCode = "400", description = "Invalid cursor or page size")
+    ResponseEntity<CursorPageDto<LabRequestDto>> scrollPatientLabRequests(
+            @Parameter(description = "Patient ID") @PathVariable UUID id,
+            @Parameter(description = "Cursor of the next page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size, at most 100")
+            @RequestParam(defaultValue = "20") int size);
+
+    @GetMapping("/{id}/financial-records/scroll")
+    @Operation(
+        summary = "Scroll patient financial records",
+        description = "Retrieves the financial records of a patient newest first, one page at a time, without counting them. "
+            + "The next page is requested with the cursor returned by the previous one."
+    )
+    @ApiResponse(responseCode = "200", description = "Financial records retrieved")
+    @ApiResponse(responseCode = "400", description = "Invalid cursor or page size")
+    ResponseEntity<CursorPageDto<FinancialRecordDto>> scrollPatientFinancialRecords(
+            @Parameter(description = "Patient ID") @PathVariable UUID id,
+            @Parameter(description = "Cursor of the next page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size, at most 100")
+            @RequestParam(defaultValue = "20") int size);
 }
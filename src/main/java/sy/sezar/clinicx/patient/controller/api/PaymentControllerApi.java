@@ -48,6 +48,22 @@ public interface PaymentControllerApi {
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
             @Parameter(hidden = true) @PageableDefault(sort = "paymentDate", direction = Sort.Direction.DESC) Pageable pageable);
 
+    @GetMapping("/scroll")
+    @Operation(
+        summary = "Scroll patient payments",
+        description = "Retrieves the payments of a patient newest first, one page at a time, without counting them. "
+            + "The next page is requested with the cursor returned by the previous one."
+    )
+    @ApiResponse(responseCode = "200", description = "Payments retrieved successfully")
+    @ApiResponse(responseCode = "400", description = "Invalid cursor or page size")
+    ResponseEntity<CursorPageDto<PaymentDto>> scrollPatientPayments(
+            @Parameter(description = "Patient ID", required = true)
+            @RequestParam UUID patientId,
+            @Parameter(description = "Cursor of the next page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size, at most 100")
+            @RequestParam(defaultValue = "20") int size);
+
     @GetMapping("/{paymentId}")
     @Operation(
         summary = "Get payment by ID",
@@ -9,11 +9,13 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.data.domain.Sort;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import sy.sezar.clinicx.core.pagination.CountMode;
 import sy.sezar.clinicx.patient.dto.*;
 import sy.sezar.clinicx.patient.model.enums.PaymentPlanStatus;
 
@@ -69,9 +71,11 @@ public interface PaymentPlanControllerApi {
         description = "Retrieves paginated list of payment plans filtered by status."
     )
     @ApiResponse(responseCode = "200", description = "Payment plans retrieved successfully")
-    ResponseEntity<Page<PaymentPlanDto>> getPaymentPlansByStatus(
-            @Parameter(description = "Payment plan status")
+    ResponseEntity<Slice<PaymentPlanDto>> getPaymentPlansByStatus(
+            @Parameter(description = "Payment plan status; all payment plans when omitted")
             @RequestParam(required = false) PaymentPlanStatus status,
+            @Parameter(description = "How the total is reported: EXACT, ESTIMATED, or NONE for a slice without a total")
+            @RequestParam(defaultValue = "EXACT") CountMode count,
             @Parameter(hidden = true) @PageableDefault(sort = "createdAt", direction = Sort.Direction.DESC) Pageable pageable);
 
     @PutMapping("/{paymentPlanId}/status")
@@ -9,6 +9,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RestController;
 import sy.sezar.clinicx.patient.controller.api.AdvancePaymentControllerApi;
 import sy.sezar.clinicx.patient.dto.*;
+import sy.sezar.clinicx.patient.model.enums.CreditAllocationPolicy;
 import sy.sezar.clinicx.patient.service.AdvancePaymentService;
 
 import java.util.UUID;
@@ -64,4 +65,11 @@ public class AdvancePaymentControllerImpl implements AdvancePaymentControllerApi
         FinancialRecordDto result = advancePaymentService.autoApplyAdvancePaymentsToInvoice(invoiceId);
         return ResponseEntity.ok(result);
     }
+
+    @Override
+    public ResponseEntity<CreditApplicationResultDto> autoApplyCredits(UUID patientId, CreditAllocationPolicy policy) {
+        log.info("Auto-applying credits of patient {} with policy {}", patientId, policy);
+        CreditApplicationResultDto result = advancePaymentService.autoApplyCredits(patientId, policy);
+        return ResponseEntity.ok(result);
+    }
 }
\ No newline at end of file
@@ -11,6 +11,8 @@ import org.springframework.validation.annotation.Validated;
 import sy.sezar.clinicx.patient.controller.api.AppointmentControllerApi;
 import sy.sezar.clinicx.patient.dto.AppointmentCardDto;
 import sy.sezar.clinicx.patient.dto.AppointmentCreateRequest;
+import sy.sezar.clinicx.patient.dto.AppointmentRescheduleRequest;
+import sy.sezar.clinicx.patient.dto.BookedSlotDto;
 import sy.sezar.clinicx.patient.dto.UpcomingAppointmentDto;
 import sy.sezar.clinicx.patient.service.AppointmentService;
 
@@ -34,6 +36,28 @@ public class AppointmentControllerImpl implements AppointmentControllerApi {
         return ResponseEntity.status(HttpStatus.CREATED).body(createdAppointment);
     }
 
+    @Override
+    public ResponseEntity<AppointmentCardDto> rescheduleAppointment(UUID id, AppointmentRescheduleRequest request) {
+        log.info("Rescheduling appointment {} to {}", id, request.appointmentDatetime());
+        AppointmentCardDto appointment = appointmentService.rescheduleAppointment(id, request);
+        return ResponseEntity.ok(appointment);
+    }
+
+    @Override
+    public ResponseEntity<AppointmentCardDto> cancelAppointment(UUID id) {
+        log.info("Cancelling appointment with ID: {}", id);
+        AppointmentCardDto appointment = appointmentService.cancelAppointment(id);
+        return ResponseEntity.ok(appointment);
+    }
+
+    @Override
+    public ResponseEntity<List<BookedSlotDto>> getDoctorConflicts(UUID doctorId, Instant startDateTime,
+                                                                  int durationMinutes) {
+        log.debug("Checking conflicts of doctor {} at {} for {} minutes", doctorId, startDateTime, durationMinutes);
+        List<BookedSlotDto> conflicts = appointmentService.findDoctorConflicts(doctorId, startDateTime, durationMinutes);
+        return ResponseEntity.ok(conflicts);
+    }
+
     @Override
     public ResponseEntity<List<AppointmentCardDto>> getAppointmentsByDateRange(Instant startDateTime, Instant endDateTime) {
         log.info("Retrieving appointments between {} and {}", startDateTime, endDateTime);
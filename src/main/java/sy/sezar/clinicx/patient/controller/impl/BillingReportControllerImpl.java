@@ -10,8 +10,11 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import sy.sezar.clinicx.core.export.ExportFormat;
 import sy.sezar.clinicx.patient.controller.api.BillingReportControllerApi;
 import sy.sezar.clinicx.patient.dto.*;
+import sy.sezar.clinicx.patient.model.enums.BillingReportType;
 import sy.sezar.clinicx.patient.service.BillingReportService;
 
 import java.math.BigDecimal;
@@ -166,33 +169,28 @@ public class BillingReportControllerImpl implements BillingReportControllerApi {
 
     @Override
     @PreAuthorize("hasAnyRole('ADMIN', 'STAFF')")
-    public ResponseEntity<byte[]> exportReport(
+    public ResponseEntity<StreamingResponseBody> exportReport(
             String reportType,
             String format,
             ExportReportRequest request) {
         log.info("Exporting {} report in {} format", reportType, format);
-        
-        byte[] reportData = billingReportService.exportReport(reportType, format, request);
-        
+
+        // Validate before streaming: once the body starts the status and headers are committed
+        BillingReportType type = BillingReportType.from(reportType);
+        ExportFormat exportFormat = ExportFormat.from(format);
+        billingReportService.validateExport(type, request);
+
         HttpHeaders headers = new HttpHeaders();
-        String filename = String.format("%s_%s.%s", 
-            reportType, 
-            LocalDate.now(), 
-            format.toLowerCase());
-        
-        MediaType mediaType = switch (format.toUpperCase()) {
-            case "PDF" -> MediaType.APPLICATION_PDF;
-            case "EXCEL", "XLSX" -> MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
-            case "CSV" -> MediaType.parseMediaType("text/csv");
-            default -> MediaType.APPLICATION_OCTET_STREAM;
-        };
-        
-        headers.setContentType(mediaType);
+        String filename = String.format("%s_%s.%s",
+            type.name().toLowerCase(),
+            LocalDate.now(),
+            exportFormat.getExtension());
+        headers.setContentType(MediaType.parseMediaType(exportFormat.getMediaType()));
         headers.setContentDispositionFormData("attachment", filename);
-        headers.setContentLength(reportData.length);
-        
+
+        StreamingResponseBody body = out -> billingReportService.exportReport(type, exportFormat, request, out);
         return ResponseEntity.ok()
             .headers(headers)
-            .body(reportData);
+            .body(body);
     }
 }
\ No newline at end of file
@@ -0,0 +1,50 @@
+package sy.sezar.clinicx.patient.controller.impl;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+import sy.sezar.clinicx.patient.controller.api.DoctorAvailabilityControllerApi;
+import sy.sezar.clinicx.patient.dto.FreeSlotDto;
+import sy.sezar.clinicx.patient.dto.FreeSlotSearchCriteria;
+import sy.sezar.clinicx.patient.dto.WorkingHoursDto;
+import sy.sezar.clinicx.patient.service.DoctorAvailabilityService;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+@Component
+@RequiredArgsConstructor
+@Validated
+@Slf4j
+public class DoctorAvailabilityControllerImpl implements DoctorAvailabilityControllerApi {
+
+    private final DoctorAvailabilityService doctorAvailabilityService;
+
+    @Override
+    public ResponseEntity<List<FreeSlotDto>> findFreeSlots(UUID specialtyId, Set<UUID> doctorIds, LocalDate fromDate,
+                                                           LocalDate toDate, int durationMinutes, Integer stepMinutes,
+                                                           int limit) {
+        log.info("Finding free slots for specialty {} and doctors {} between {} and {}",
+            specialtyId, doctorIds, fromDate, toDate);
+        FreeSlotSearchCriteria criteria = new FreeSlotSearchCriteria(
+            specialtyId, doctorIds, fromDate, toDate, durationMinutes, stepMinutes, limit);
+        return ResponseEntity.ok(doctorAvailabilityService.findFreeSlots(criteria));
+    }
+
+    @Override
+    public ResponseEntity<List<WorkingHoursDto>> getWorkingHours(UUID doctorId) {
+        log.info("Retrieving working hours of doctor {}", doctorId);
+        return ResponseEntity.ok(doctorAvailabilityService.getWorkingHours(doctorId));
+    }
+
+    @Override
+    public ResponseEntity<List<WorkingHoursDto>> replaceWorkingHours(UUID doctorId,
+                                                                     List<WorkingHoursDto> workingHours) {
+        log.info("Replacing working hours of doctor {}", doctorId);
+        return ResponseEntity.ok(doctorAvailabilityService.replaceWorkingHours(doctorId, workingHours));
+    }
+}
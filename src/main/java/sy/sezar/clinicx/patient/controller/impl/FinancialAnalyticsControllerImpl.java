@@ -0,0 +1,132 @@
+package sy.sezar.clinicx.patient.controller.impl;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.RestController;
+import sy.sezar.clinicx.patient.controller.api.FinancialAnalyticsControllerApi;
+import sy.sezar.clinicx.patient.dto.*;
+import sy.sezar.clinicx.patient.service.FinancialAnalyticsService;
+import sy.sezar.clinicx.patient.service.InvoiceAgingService;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Implementation of FinancialAnalyticsControllerApi for financial analytics and dashboards.
+ */
+@Slf4j
+@RestController
+@RequiredArgsConstructor
+public class FinancialAnalyticsControllerImpl implements FinancialAnalyticsControllerApi {
+
+    private final FinancialAnalyticsService financialAnalyticsService;
+    private final InvoiceAgingService invoiceAgingService;
+
+    @Override
+    @PreAuthorize("hasAnyRole('ADMIN', 'STAFF')")
+    public ResponseEntity<PatientFinancialSummaryDto> getPatientFinancialSummary(UUID patientId) {
+        log.info("Getting financial summary for patient: {}", patientId);
+        return ResponseEntity.ok(financialAnalyticsService.getPatientFinancialSummary(patientId));
+    }
+
+    @Override
+    @PreAuthorize("hasAnyRole('ADMIN', 'STAFF')")
+    public ResponseEntity<RevenueAnalyticsDto> getRevenueAnalytics(LocalDate startDate, LocalDate endDate) {
+        log.info("Getting revenue analytics from {} to {}", startDate, endDate);
+        return ResponseEntity.ok(financialAnalyticsService.getRevenueAnalytics(startDate, endDate));
+    }
+
+    @Override
+    @PreAuthorize("hasAnyRole('ADMIN', 'STAFF')")
+    public ResponseEntity<CollectionAnalyticsDto> getCollectionAnalytics(LocalDate startDate, LocalDate endDate) {
+        log.info("Getting collection analytics from {} to {}", startDate, endDate);
+        return ResponseEntity.ok(financialAnalyticsService.getCollectionAnalytics(startDate, endDate));
+    }
+
+    @Override
+    @PreAuthorize("hasAnyRole('ADMIN', 'STAFF')")
+    public ResponseEntity<AccountsReceivableAgingDto> getAccountsReceivableAging(LocalDate asOfDate) {
+        log.info("Getting accounts receivable aging as of {}", asOfDate);
+        return ResponseEntity.ok(financialAnalyticsService.getAccountsReceivableAging(asOfDate));
+    }
+
+    @Override
+    @PreAuthorize("hasAnyRole('ADMIN', 'STAFF')")
+    public ResponseEntity<AgingPageDto<AgingGroupDto>> getAgingByPatient(LocalDate asOfDate, String cursor, int size) {
+        log.info("Getting aging by patient as of {}", asOfDate);
+        return ResponseEntity.ok(invoiceAgingService.getAgingByPatient(asOfDate, cursor, size));
+    }
+
+    @Override
+    @PreAuthorize("hasAnyRole('ADMIN', 'STAFF')")
+    public ResponseEntity<AgingPageDto<AgingGroupDto>> getAgingByInsuranceProvider(LocalDate asOfDate, String cursor,
+                                                                                   int size) {
+        log.info("Getting aging by insurance provider as of {}", asOfDate);
+        return ResponseEntity.ok(invoiceAgingService.getAgingByInsuranceProvider(asOfDate, cursor, size));
+    }
+
+    @Override
+    @PreAuthorize("hasAnyRole('ADMIN', 'STAFF')")
+    public ResponseEntity<AgingPageDto<AgingDetailDto>> getAgingInvoices(LocalDate asOfDate, UUID patientId,
+                                                                         String insuranceProvider, String cursor,
+                                                                         int size) {
+        log.info("Getting aging invoices as of {} for patient {} and insurance provider {}",
+            asOfDate, patientId, insuranceProvider);
+        return ResponseEntity.ok(
+            invoiceAgingService.getAgingInvoices(asOfDate, patientId, insuranceProvider, cursor, size));
+    }
+
+    @Override
+    @PreAuthorize("hasAnyRole('ADMIN', 'STAFF')")
+    public ResponseEntity<Map<String, BigDecimal>> getPaymentMethodDistribution(LocalDate startDate, LocalDate endDate) {
+        log.info("Getting payment method distribution from {} to {}", startDate, endDate);
+        return ResponseEntity.ok(financialAnalyticsService.getPaymentMethodDistribution(startDate, endDate));
+    }
+
+    @Override
+    @PreAuthorize("hasAnyRole('ADMIN', 'STAFF')")
+    public ResponseEntity<TreatmentCostAnalysisDto> getTreatmentCostAnalysis(LocalDate startDate, LocalDate endDate) {
+        log.info("Getting treatment cost analysis from {} to {}", startDate, endDate);
+        return ResponseEntity.ok(financialAnalyticsService.getTreatmentCostAnalysis(startDate, endDate));
+    }
+
+    @Override
+    @PreAuthorize("hasAnyRole('ADMIN', 'STAFF')")
+    public ResponseEntity<PaymentTrendsDto> getPatientPaymentTrends(UUID patientId, int months) {
+        log.info("Getting payment trends for patient: {} over {} months", patientId, months);
+        return ResponseEntity.ok(financialAnalyticsService.getPatientPaymentTrends(patientId, months));
+    }
+
+    @Override
+    @PreAuthorize("hasAnyRole('ADMIN', 'STAFF')")
+    public ResponseEntity<CashFlowAnalysisDto> getCashFlowAnalysis(LocalDate startDate, LocalDate endDate) {
+        log.info("Getting cash flow analysis from {} to {}", startDate, endDate);
+        return ResponseEntity.ok(financialAnalyticsService.getCashFlowAnalysis(startDate, endDate));
+    }
+
+    @Override
+    @PreAuthorize("hasAnyRole('ADMIN', 'STAFF')")
+    public ResponseEntity<OutstandingBalancesDto> getOutstandingBalances(BigDecimal threshold) {
+        log.info("Getting outstanding balances above {}", threshold);
+        return ResponseEntity.ok(financialAnalyticsService.getOutstandingBalances(threshold));
+    }
+
+    @Override
+    @PreAuthorize("hasAnyRole('ADMIN', 'STAFF')")
+    public ResponseEntity<FinancialPerformanceMetricsDto> getFinancialPerformanceMetrics(LocalDate startDate,
+                                                                                       LocalDate endDate) {
+        log.info("Getting financial performance metrics from {} to {}", startDate, endDate);
+        return ResponseEntity.ok(financialAnalyticsService.getFinancialPerformanceMetrics(startDate, endDate));
+    }
+
+    @Override
+    @PreAuthorize("hasAnyRole('ADMIN', 'STAFF')")
+    public ResponseEntity<Map<String, Object>> getFinancialDashboard(LocalDate startDate, LocalDate endDate) {
+        log.info("Getting financial dashboard from {} to {}", startDate, endDate);
+        return ResponseEntity.ok(financialAnalyticsService.getFinancialDashboard(startDate, endDate));
+    }
+}
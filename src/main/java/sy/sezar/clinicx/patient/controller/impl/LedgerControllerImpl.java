@@ -7,9 +7,12 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RestController;
 import sy.sezar.clinicx.patient.controller.api.LedgerControllerApi;
+import sy.sezar.clinicx.patient.dto.CursorPageDto;
 import sy.sezar.clinicx.patient.dto.LedgerEntryDto;
 import sy.sezar.clinicx.patient.service.LedgerService;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.UUID;
 
 @Slf4j
@@ -24,6 +27,16 @@ public class LedgerControllerImpl implements LedgerControllerApi {
         log.debug("Getting ledger for patient {}", patientId);
         return ResponseEntity.ok(ledgerService.getPatientLedger(patientId, pageable));
     }
-}
 
+    @Override
+    public ResponseEntity<CursorPageDto<LedgerEntryDto>> scrollPatientLedger(UUID patientId, String cursor, int size) {
+        log.debug("Scrolling ledger for patient {} after {}", patientId, cursor);
+        return ResponseEntity.ok(ledgerService.getPatientLedgerAfter(patientId, cursor, size));
+    }
 
+    @Override
+    public ResponseEntity<BigDecimal> getBalanceAsOf(UUID patientId, LocalDate asOf) {
+        log.debug("Getting balance of patient {} as of {}", patientId, asOf);
+        return ResponseEntity.ok(ledgerService.getBalanceAsOf(patientId, asOf));
+    }
+}
@@ -4,13 +4,17 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
+import sy.sezar.clinicx.core.pagination.CountMode;
 import sy.sezar.clinicx.patient.controller.api.PatientControllerApi;
 import sy.sezar.clinicx.patient.dto.*;
+import sy.sezar.clinicx.patient.service.PatientSearchService;
 import sy.sezar.clinicx.patient.service.PatientService;
 
+import java.util.List;
 import java.util.UUID;
 
 @Component
@@ -19,6 +23,7 @@ import java.util.UUID;
 public class PatientControllerImpl implements PatientControllerApi {
 
     private final PatientService patientService;
+    private final PatientSearchService patientSearchService;
 
     @Override
     public ResponseEntity<PatientSummaryDto> getPatientById(UUID id) {
@@ -35,11 +40,18 @@ public class PatientControllerImpl implements PatientControllerApi {
     }
 
     @Override
-    public ResponseEntity<Page<PatientSummaryDto>> getAllPatients(String searchTerm, Pageable pageable) {
+    public ResponseEntity<PatientDashboardDto> getPatientDashboard(UUID id) {
+        log.info("Retrieving dashboard of patient with ID: {}", id);
+        return ResponseEntity.ok(patientService.getPatientDashboard(id));
+    }
+
+    @Override
+    public ResponseEntity<Slice<PatientSummaryDto>> getAllPatients(String searchTerm, CountMode count,
+                                                                   Pageable pageable) {
         log.info("Retrieving patients with search term: '{}' and pagination: {}", searchTerm, pageable);
 
         try {
-            Page<PatientSummaryDto> patients = patientService.findAllPatients(searchTerm, pageable);
+            Slice<PatientSummaryDto> patients = patientService.findAllPatients(searchTerm, pageable, count);
             log.info("Successfully retrieved {} patients - Status: 200 OK", patients.getNumberOfElements());
             return ResponseEntity.ok(patients);
         } catch (Exception e) {
@@ -49,9 +61,16 @@ public class PatientControllerImpl implements PatientControllerApi {
     }
 
     @Override
-    public ResponseEntity<Page<PatientSummaryDto>> searchPatients(PatientSearchCriteria criteria, Pageable pageable) {
+    public ResponseEntity<List<PatientSearchResultDto>> quickSearch(String term, int limit) {
+        log.debug("Quick search for patients with term: '{}'", term);
+        return ResponseEntity.ok(patientSearchService.search(term, limit));
+    }
+
+    @Override
+    public ResponseEntity<Slice<PatientSummaryDto>> searchPatients(PatientSearchCriteria criteria, CountMode count,
+                                                                   Pageable pageable) {
         log.info("Advanced search for patients with criteria: {}", criteria);
-        Page<PatientSummaryDto> patients = patientService.searchPatients(criteria, pageable);
+        Slice<PatientSummaryDto> patients = patientService.searchPatients(criteria, pageable, count);
         return ResponseEntity.ok(patients);
     }
 
@@ -133,4 +152,34 @@ public class PatientControllerImpl implements PatientControllerApi {
         Page<FinancialRecordDto> records = patientService.getPatientFinancialRecords(id, pageable);
         return ResponseEntity.ok(records);
     }
+
+    @Override
+    public ResponseEntity<CursorPageDto<DocumentSummaryDto>> scrollPatientDocuments(UUID id, String cursor, int size) {
+        log.info("Scrolling documents for patient ID: {} after cursor: {}", id, cursor);
+        return ResponseEntity.ok(patientService.getPatientDocumentsAfter(id, cursor, size));
+    }
+
+    @Override
+    public ResponseEntity<CursorPageDto<NoteSummaryDto>> scrollPatientNotes(UUID id, String cursor, int size) {
+        log.info("Scrolling notes for patient ID: {} after cursor: {}", id, cursor);
+        return ResponseEntity.ok(patientService.getPatientNotesAfter(id, cursor, size));
+    }
+
+    @Override
+    public ResponseEntity<CursorPageDto<VisitLogDto>> scrollPatientTreatmentHistory(UUID id, String cursor, int size) {
+        log.info("Scrolling treatment history for patient ID: {} after cursor: {}", id, cursor);
+        return ResponseEntity.ok(patientService.getPatientVisitHistoryAfter(id, cursor, size));
+    }
+
+    @Override
+    public ResponseEntity<CursorPageDto<LabRequestDto>> scrollPatientLabRequests(UUID id, String cursor, int size) {
+        log.info("Scrolling lab requests for patient ID: {} after cursor: {}", id, cursor);
+        return ResponseEntity.ok(patientService.getPatientLabRequestsAfter(id, cursor, size));
+    }
+
+    @Override
+    public ResponseEntity<CursorPageDto<FinancialRecordDto>> scrollPatientFinancialRecords(UUID id, String cursor, int size) {
+        log.info("Scrolling financial records for patient ID: {} after cursor: {}", id, cursor);
+        return ResponseEntity.ok(patientService.getPatientFinancialRecordsAfter(id, cursor, size));
+    }
 }
@@ -44,6 +44,13 @@ public class PaymentControllerImpl implements PaymentControllerApi {
         return ResponseEntity.ok(payments);
     }
 
+    @Override
+    @PreAuthorize("hasAnyRole('ADMIN', 'STAFF', 'DOCTOR')")
+    public ResponseEntity<CursorPageDto<PaymentDto>> scrollPatientPayments(UUID patientId, String cursor, int size) {
+        log.debug("Scrolling payments of patient {} after cursor {}", patientId, cursor);
+        return ResponseEntity.ok(paymentService.getPatientPaymentsAfter(patientId, cursor, size));
+    }
+
     @Override
     @PreAuthorize("hasAnyRole('ADMIN', 'STAFF', 'DOCTOR')")
     public ResponseEntity<PaymentDto> getPayment(UUID paymentId) {
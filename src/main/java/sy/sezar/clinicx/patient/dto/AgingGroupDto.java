@@ -0,0 +1,18 @@
+package sy.sezar.clinicx.patient.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Outstanding balances of one patient or insurance provider by aging bucket.
+ */
+public record AgingGroupDto(
+    String key,
+    String name,
+    long invoiceCount,
+    BigDecimal currentAmount,
+    BigDecimal days30Amount,
+    BigDecimal days60Amount,
+    BigDecimal days90Amount,
+    BigDecimal over90Amount,
+    BigDecimal totalAmount
+) {}
@@ -0,0 +1,14 @@
+package sy.sezar.clinicx.patient.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * One page of an aging drill-down. The next page is requested with {@code nextCursor}, which is
+ * null on the last page.
+ */
+public record AgingPageDto<T>(
+    LocalDate asOfDate,
+    List<T> items,
+    String nextCursor
+) {}
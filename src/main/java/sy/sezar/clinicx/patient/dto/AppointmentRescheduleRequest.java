@@ -0,0 +1,25 @@
+package sy.sezar.clinicx.patient.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Schema(description = "Request to move an appointment to another time or doctor")
+public record AppointmentRescheduleRequest(
+
+        @NotNull
+        @Schema(description = "New appointment date and time", example = "2024-07-15T10:30:00Z", required = true)
+        Instant appointmentDatetime,
+
+        @Positive
+        @Schema(description = "New duration in minutes, or null to keep the current one", example = "30")
+        Integer durationMinutes,
+
+        @Schema(description = "New doctor ID, or null to keep the current doctor",
+                example = "550e8400-e29b-41d4-a716-446655440000")
+        UUID doctorId
+) {
+}
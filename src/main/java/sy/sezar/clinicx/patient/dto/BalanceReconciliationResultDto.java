@@ -0,0 +1,26 @@
+package sy.sezar.clinicx.patient.dto;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Result of verifying stored patient balances against the ledger.
+ */
+public record BalanceReconciliationResultDto(
+    int mismatchCount,
+    int repairedCount,
+    List<Mismatch> mismatches,
+    Instant checkedAt
+) {
+
+    /**
+     * A patient whose stored balance differs from the sum of its ledger entries.
+     */
+    public record Mismatch(
+        UUID patientId,
+        BigDecimal storedBalance,
+        BigDecimal ledgerBalance
+    ) {}
+}
@@ -0,0 +1,20 @@
+package sy.sezar.clinicx.patient.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Schema(description = "Time of a doctor booked by an appointment")
+public record BookedSlotDto(
+
+        @Schema(description = "Appointment ID", example = "550e8400-e29b-41d4-a716-446655440000")
+        UUID appointmentId,
+
+        @Schema(description = "Start of the appointment", example = "2024-07-15T10:30:00Z")
+        Instant startDateTime,
+
+        @Schema(description = "End of the appointment, exclusive", example = "2024-07-15T11:00:00Z")
+        Instant endDateTime
+) {
+}
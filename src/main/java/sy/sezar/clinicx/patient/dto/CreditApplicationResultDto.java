@@ -0,0 +1,28 @@
+package sy.sezar.clinicx.patient.dto;
+
+import sy.sezar.clinicx.patient.model.enums.CreditAllocationPolicy;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Result of applying a patient's open credits to the patient's open invoices.
+ */
+public record CreditApplicationResultDto(
+    UUID patientId,
+    CreditAllocationPolicy policy,
+    BigDecimal appliedAmount,
+    BigDecimal remainingCredit,
+    List<Allocation> allocations
+) {
+    /**
+     * Amount of one credit applied to one invoice.
+     */
+    public record Allocation(
+        UUID creditPaymentId,
+        UUID invoiceId,
+        String invoiceNumber,
+        BigDecimal amount
+    ) {}
+}
@@ -0,0 +1,13 @@
+package sy.sezar.clinicx.patient.dto;
+
+import java.util.List;
+
+/**
+ * One page of a list read in cursor mode. The next page is requested with {@code nextCursor},
+ * which is null on the last page. Unlike a {@code Page}, it carries no total, so reading it does
+ * not count the list.
+ */
+public record CursorPageDto<T>(
+    List<T> items,
+    String nextCursor
+) {}
@@ -0,0 +1,23 @@
+package sy.sezar.clinicx.patient.dto;
+
+import sy.sezar.clinicx.patient.model.enums.LedgerEntryType;
+import sy.sezar.clinicx.patient.model.enums.PaymentMethod;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * One row of the daily financial rollup: the ledger entries of a type on one day for a doctor,
+ * payment method and procedure code. Dimensions the entries are not attributed to are null.
+ */
+public record DailyFinancialRollupDto(
+    LocalDate date,
+    UUID doctorId,
+    String doctorName,
+    PaymentMethod paymentMethod,
+    String procedureCode,
+    LedgerEntryType entryType,
+    BigDecimal amount,
+    long entryCount
+) {}
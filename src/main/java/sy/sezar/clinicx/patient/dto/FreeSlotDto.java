@@ -0,0 +1,23 @@
+package sy.sezar.clinicx.patient.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Schema(description = "Free appointment slot of a doctor")
+public record FreeSlotDto(
+
+        @Schema(description = "Doctor ID", example = "550e8400-e29b-41d4-a716-446655440000")
+        UUID doctorId,
+
+        @Schema(description = "Doctor name", example = "Dr. Amal Haddad")
+        String doctorName,
+
+        @Schema(description = "Start of the slot", example = "2024-07-15T10:30:00Z")
+        Instant startDateTime,
+
+        @Schema(description = "End of the slot, exclusive", example = "2024-07-15T11:00:00Z")
+        Instant endDateTime
+) {
+}
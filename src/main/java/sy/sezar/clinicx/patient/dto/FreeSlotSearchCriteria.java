@@ -0,0 +1,24 @@
+package sy.sezar.clinicx.patient.dto;
+
+import java.time.LocalDate;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Search for the earliest free slots of the doctors of a specialty, of given doctors, or of the
+ * given doctors with that specialty.
+ *
+ * @param durationMinutes length of the slots, a multiple of 5 minutes
+ * @param stepMinutes     spacing of the slot starts from midnight, a multiple of 5 minutes;
+ *                        null to space them by the duration
+ * @param limit           how many slots to return at most
+ */
+public record FreeSlotSearchCriteria(
+    UUID specialtyId,
+    Set<UUID> doctorIds,
+    LocalDate fromDate,
+    LocalDate toDate,
+    int durationMinutes,
+    Integer stepMinutes,
+    int limit
+) {}
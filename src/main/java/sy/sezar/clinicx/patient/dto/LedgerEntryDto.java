@@ -6,6 +6,9 @@ import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.UUID;
 
+/**
+ * DTO for a patient ledger entry, with the patient balance after the entry.
+ */
 public record LedgerEntryDto(
         UUID id,
         UUID patientId,
@@ -14,7 +17,8 @@ public record LedgerEntryDto(
         LedgerEntryType entryType,
         BigDecimal amount,
         Instant occurredAt,
-        String description
+        String description,
+        BigDecimal runningBalance
 ) {}
 
 
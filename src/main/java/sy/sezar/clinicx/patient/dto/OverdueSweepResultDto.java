@@ -0,0 +1,18 @@
+package sy.sezar.clinicx.patient.dto;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Result of a sweep marking invoices and payment-plan installments past their due date as overdue.
+ * A sweep that found another node holding the sweep lock reports {@code skipped} and changes nothing.
+ */
+public record OverdueSweepResultDto(
+    LocalDate asOfDate,
+    boolean skipped,
+    int invoicesMarked,
+    int installmentsMarked,
+    int chunks,
+    long durationMillis,
+    Instant completedAt
+) {}
@@ -0,0 +1,13 @@
+package sy.sezar.clinicx.patient.dto;
+
+import java.util.List;
+
+/**
+ * Patient dashboard: the patient with their appointments, notes and invoices, newest first.
+ */
+public record PatientDashboardDto(
+    PatientSummaryDto patient,
+    List<UpcomingAppointmentDto> appointments,
+    List<NoteSummaryDto> notes,
+    List<FinancialRecordDto> financialRecords
+) {}
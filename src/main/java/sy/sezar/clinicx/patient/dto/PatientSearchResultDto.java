@@ -0,0 +1,16 @@
+package sy.sezar.clinicx.patient.dto;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * DTO for a patient found by the ranked patient search.
+ */
+public record PatientSearchResultDto(
+    UUID id,
+    String publicFacingId,
+    String fullName,
+    LocalDate dateOfBirth,
+    String phoneNumber,
+    String insuranceProvider
+) {}
@@ -0,0 +1,32 @@
+package sy.sezar.clinicx.patient.dto;
+
+import sy.sezar.clinicx.patient.model.enums.LedgerEntryType;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Result of verifying the daily financial rollup against the ledger.
+ */
+public record RollupVerificationResultDto(
+    int mismatchCount,
+    int rebuiltDays,
+    List<Mismatch> mismatches,
+    Instant checkedAt
+) {
+
+    /**
+     * A tenant day and entry type whose rollup total differs from its ledger entries.
+     */
+    public record Mismatch(
+        String tenantId,
+        LocalDate date,
+        LedgerEntryType entryType,
+        BigDecimal ledgerAmount,
+        BigDecimal rollupAmount,
+        long ledgerCount,
+        long rollupCount
+    ) {}
+}
@@ -0,0 +1,24 @@
+package sy.sezar.clinicx.patient.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+
+@Schema(description = "Working period of a doctor on a day of the week, in the clinic's local time")
+public record WorkingHoursDto(
+
+        @NotNull
+        @Schema(description = "Day of the week", example = "MONDAY", required = true)
+        DayOfWeek dayOfWeek,
+
+        @NotNull
+        @Schema(description = "Start of the period", example = "09:00", required = true)
+        LocalTime startTime,
+
+        @NotNull
+        @Schema(description = "End of the period, exclusive", example = "13:00", required = true)
+        LocalTime endTime
+) {
+}
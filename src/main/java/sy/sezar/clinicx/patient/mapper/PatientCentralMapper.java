@@ -34,6 +34,7 @@ public interface PatientCentralMapper {
     @Mapping(target = "balance", ignore = true)
     @Mapping(target = "active", ignore = true)
     @Mapping(target = "createdBy", ignore = true)
+    @Mapping(target = "searchText", ignore = true)
     @Mapping(target = "appointments", ignore = true)
     @Mapping(target = "labRequests", ignore = true)
     @Mapping(target = "documents", ignore = true)
@@ -52,6 +53,7 @@ public interface PatientCentralMapper {
     @Mapping(target = "balance", ignore = true)
     @Mapping(target = "active", ignore = true)
     @Mapping(target = "createdBy", ignore = true)
+    @Mapping(target = "searchText", ignore = true)
     @Mapping(target = "appointments", ignore = true)
     @Mapping(target = "labRequests", ignore = true)
     @Mapping(target = "documents", ignore = true)
@@ -76,5 +76,37 @@ public class Invoice extends BaseEntity {
 
     @OneToMany(mappedBy = "invoice", cascade = CascadeType.ALL)
     private Set<Payment> payments = new HashSet<>();
+
+    /**
+     * Amount the invoice charges: the subtotal less discounts and write-offs, plus tax and adjustments.
+     */
+    @Transient
+    public BigDecimal getNetCharge() {
+        return orZero(subTotal != null ? subTotal : totalAmount)
+                .subtract(orZero(discountAmount))
+                .add(orZero(taxAmount))
+                .add(orZero(adjustmentAmount))
+                .subtract(orZero(writeOffAmount));
+    }
+
+    /**
+     * Recomputes the materialized amount due from the net charge and the amount paid.
+     */
+    public void recalculateAmountDue() {
+        amountDue = getNetCharge().subtract(orZero(amountPaid)).max(BigDecimal.ZERO);
+    }
+
+    /**
+     * Sets the materialized amount paid, and the amount due and status with it.
+     */
+    public void applyAmountPaid(BigDecimal paid) {
+        amountPaid = paid;
+        recalculateAmountDue();
+        status = amountDue.signum() == 0 ? InvoiceStatus.PAID : InvoiceStatus.PARTIALLY_PAID;
+    }
+
+    private static BigDecimal orZero(BigDecimal amount) {
+        return amount != null ? amount : BigDecimal.ZERO;
+    }
 }
 
@@ -50,6 +50,9 @@ public class LedgerEntry {
 
     @Column(name = "description")
     private String description;
+
+    @Column(name = "tenant_id", updatable = false, length = 100)
+    private String tenantId;
 }
 
 
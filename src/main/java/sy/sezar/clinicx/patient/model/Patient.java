@@ -6,8 +6,10 @@ import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.BatchSize;
 import sy.sezar.clinicx.core.model.BaseEntity;
 import sy.sezar.clinicx.clinic.model.Staff;
+import sy.sezar.clinicx.patient.spec.PatientSearchText;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -61,8 +63,9 @@ public class Patient extends BaseEntity {
     @Column(name = "important_medical_notes")
     private String importantMedicalNotes;
 
+    // Maintained by LedgerService through balance deltas, never written from the entity
     @NotNull
-    @Column(name = "balance", nullable = false, precision = 10, scale = 2)
+    @Column(name = "balance", nullable = false, updatable = false, precision = 10, scale = 2)
     private BigDecimal balance = BigDecimal.ZERO;
 
     @NotNull
@@ -73,7 +76,12 @@ public class Patient extends BaseEntity {
     @JoinColumn(name = "created_by")
     private Staff createdBy;
 
+    // Normalized text matched by the patient search, rebuilt from the searched fields on every write
+    @Column(name = "search_text")
+    private String searchText;
+
     @OneToMany(mappedBy = "patient", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 50)
     private Set<Appointment> appointments = new HashSet<>();
 
     @OneToMany(mappedBy = "patient", cascade = CascadeType.ALL, orphanRemoval = true)
@@ -83,12 +91,14 @@ public class Patient extends BaseEntity {
     private Set<Document> documents = new HashSet<>();
 
     @OneToMany(mappedBy = "patient", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 50)
     private Set<Invoice> invoices = new HashSet<>();
 
     @OneToMany(mappedBy = "patient", cascade = CascadeType.ALL, orphanRemoval = true)
     private Set<Payment> payments = new HashSet<>();
 
     @OneToMany(mappedBy = "patient", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 50)
     private Set<Note> notes = new HashSet<>();
 
     @OneToOne(mappedBy = "patient", cascade = CascadeType.ALL, orphanRemoval = true)
@@ -96,5 +106,10 @@ public class Patient extends BaseEntity {
 
     @OneToMany(mappedBy = "patient", cascade = CascadeType.ALL, orphanRemoval = true)
     private Set<Visit> visits = new HashSet<>();
-}
 
+    @PrePersist
+    @PreUpdate
+    void updateSearchText() {
+        searchText = PatientSearchText.of(this);
+    }
+}
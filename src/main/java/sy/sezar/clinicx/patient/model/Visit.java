@@ -20,7 +20,7 @@ import java.util.Set;
  */
 @Entity
 @Table(name = "visits", indexes = {
-    @Index(name = "idx_visits_patient_id", columnList = "patient_id"),
+    @Index(name = "idx_visits_patient_date_id", columnList = "patient_id, date, id"),
     @Index(name = "idx_visits_date", columnList = "date"),
     @Index(name = "idx_visits_provider_id", columnList = "provider_id")
 })
@@ -1,11 +1,29 @@
 package sy.sezar.clinicx.patient.model.enums;
 
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+
 public enum AppointmentStatus {
     PENDING_CONFIRMATION,
     SCHEDULED,
     CONFIRMED,
     COMPLETED,
     CANCELLED,
-    NO_SHOW
-}
+    NO_SHOW;
 
+    /**
+     * Whether an appointment in this status keeps its doctor's time booked. Cancelled and
+     * no-show appointments free their slot for another booking.
+     */
+    public boolean occupiesSlot() {
+        return this != CANCELLED && this != NO_SHOW;
+    }
+
+    /**
+     * Returns the statuses of appointments that do not keep their doctor's time booked.
+     */
+    public static Set<AppointmentStatus> freeingSlot() {
+        return EnumSet.copyOf(Arrays.stream(values()).filter(status -> !status.occupiesSlot()).toList());
+    }
+}
@@ -0,0 +1,40 @@
+package sy.sezar.clinicx.patient.model.enums;
+
+import sy.sezar.clinicx.core.exception.BusinessRuleException;
+
+import java.util.Locale;
+
+/**
+ * Row-level billing reports that can be exported.
+ */
+public enum BillingReportType {
+    /** Payments and refunds received in the period. */
+    PAYMENTS("Payments"),
+    /** Invoices issued in the period with their paid and due amounts. */
+    INVOICES("Invoices"),
+    /** Ledger entries of one patient in the period with the running balance. */
+    PATIENT_STATEMENT("Patient Statement");
+
+    private final String title;
+
+    BillingReportType(String title) {
+        this.title = title;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    /**
+     * Parses a report type as it appears in URLs, e.g. {@code patient-statement}.
+     */
+    public static BillingReportType from(String reportType) {
+        String name = reportType == null ? "" : reportType.trim().replace('-', '_').toUpperCase(Locale.ROOT);
+        for (BillingReportType value : values()) {
+            if (value.name().equals(name)) {
+                return value;
+            }
+        }
+        throw new BusinessRuleException("Unsupported report type: " + reportType);
+    }
+}
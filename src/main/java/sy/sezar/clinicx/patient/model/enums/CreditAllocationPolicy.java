@@ -0,0 +1,12 @@
+package sy.sezar.clinicx.patient.model.enums;
+
+/**
+ * Order in which open credits of a patient are applied to the patient's open invoices.
+ * Credits are always consumed oldest first; the policies differ in which invoices they settle first.
+ */
+public enum CreditAllocationPolicy {
+    /** Invoices in the order they were issued. */
+    FIFO,
+    /** Invoices with the earliest due date first; invoices without a due date last. */
+    OLDEST_DUE_FIRST
+}
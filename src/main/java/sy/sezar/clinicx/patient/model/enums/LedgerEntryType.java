@@ -1,17 +1,50 @@
 package sy.sezar.clinicx.patient.model.enums;
 
+import java.math.BigDecimal;
+
 /**
  * Types of financial ledger entries for a patient's unified ledger.
+ * Each type declares how its amount changes the patient balance (the amount the patient owes).
  */
 public enum LedgerEntryType {
-    CHARGE,
-    DISCOUNT,
-    TAX,
-    ADJUSTMENT,
-    WRITE_OFF,
-    PAYMENT_RECEIPT,
-    REFUND,
-    CREDIT_APPLIED
-}
+    CHARGE(BalanceEffect.INCREASE),
+    DISCOUNT(BalanceEffect.DECREASE),
+    TAX(BalanceEffect.INCREASE),
+    ADJUSTMENT(BalanceEffect.SIGNED),
+    WRITE_OFF(BalanceEffect.DECREASE),
+    PAYMENT_RECEIPT(BalanceEffect.DECREASE),
+    REFUND(BalanceEffect.INCREASE),
+    CREDIT_APPLIED(BalanceEffect.NONE),
+    /** Balance a patient had before the ledger was kept, carried over once; neither revenue nor cash. */
+    OPENING_BALANCE(BalanceEffect.SIGNED);
+
+    private final BalanceEffect balanceEffect;
 
+    LedgerEntryType(BalanceEffect balanceEffect) {
+        this.balanceEffect = balanceEffect;
+    }
 
+    public BalanceEffect getBalanceEffect() {
+        return balanceEffect;
+    }
+
+    /**
+     * Change of the patient balance caused by an entry of this type.
+     * Amounts are recorded with inconsistent signs, so only ADJUSTMENT and OPENING_BALANCE use the sign as given.
+     */
+    public BigDecimal balanceDelta(BigDecimal amount) {
+        return switch (balanceEffect) {
+            case INCREASE -> amount.abs();
+            case DECREASE -> amount.abs().negate();
+            case SIGNED -> amount;
+            case NONE -> BigDecimal.ZERO;
+        };
+    }
+
+    public enum BalanceEffect {
+        INCREASE,
+        DECREASE,
+        SIGNED,
+        NONE
+    }
+}
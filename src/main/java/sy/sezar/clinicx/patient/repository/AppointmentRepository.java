@@ -6,8 +6,10 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import sy.sezar.clinicx.patient.model.Appointment;
+import sy.sezar.clinicx.patient.model.enums.AppointmentStatus;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -61,4 +63,49 @@ public interface AppointmentRepository extends JpaRepository<Appointment, UUID>
         @Param("startDateTime") Instant startDateTime,
         @Param("endDateTime") Instant endDateTime
     );
+
+    /**
+     * Finds the time booked by a doctor's appointments starting within a datetime range, leaving
+     * out the appointments in the given statuses, to build the doctor's schedule of a day.
+     *
+     * @param doctorId      The ID of the doctor.
+     * @param startDateTime The start of the range, inclusive.
+     * @param endDateTime   The end of the range, exclusive.
+     * @param freeStatuses  The statuses of appointments that do not book the doctor's time.
+     * @return The booked slots ordered by their start.
+     */
+    @Query("SELECT a.id AS id, a.appointmentDatetime AS appointmentDatetime, a.durationMinutes AS durationMinutes "
+        + "FROM Appointment a WHERE a.doctor.id = :doctorId AND a.appointmentDatetime >= :startDateTime "
+        + "AND a.appointmentDatetime < :endDateTime AND a.status NOT IN :freeStatuses ORDER BY a.appointmentDatetime")
+    List<BookedSlotRow> findBookedSlots(
+        @Param("doctorId") UUID doctorId,
+        @Param("startDateTime") Instant startDateTime,
+        @Param("endDateTime") Instant endDateTime,
+        @Param("freeStatuses") Collection<AppointmentStatus> freeStatuses
+    );
+
+    /**
+     * Finds the time booked by the appointments of several doctors starting within a datetime
+     * range, leaving out the appointments in the given statuses, to build many doctor days at once.
+     */
+    @Query("SELECT a.doctor.id AS doctorId, a.id AS id, a.appointmentDatetime AS appointmentDatetime, "
+        + "a.durationMinutes AS durationMinutes FROM Appointment a WHERE a.doctor.id IN :doctorIds "
+        + "AND a.appointmentDatetime >= :startDateTime AND a.appointmentDatetime < :endDateTime "
+        + "AND a.status NOT IN :freeStatuses")
+    List<DoctorBookedSlotRow> findBookedSlotsOfDoctors(
+        @Param("doctorIds") Collection<UUID> doctorIds,
+        @Param("startDateTime") Instant startDateTime,
+        @Param("endDateTime") Instant endDateTime,
+        @Param("freeStatuses") Collection<AppointmentStatus> freeStatuses
+    );
+
+    interface BookedSlotRow {
+        UUID getId();
+        Instant getAppointmentDatetime();
+        Integer getDurationMinutes();
+    }
+
+    interface DoctorBookedSlotRow extends BookedSlotRow {
+        UUID getDoctorId();
+    }
 }
@@ -2,9 +2,13 @@ package sy.sezar.clinicx.patient.repository;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import sy.sezar.clinicx.patient.model.Document;
 
+import java.time.Instant;
 import java.util.UUID;
 
 /**
@@ -20,4 +24,28 @@ public interface DocumentRepository extends JpaRepository<Document, UUID> {
      * @return A Page of documents.
      */
     Page<Document> findByPatientIdOrderByCreatedAtDesc(UUID patientId, Pageable pageable);
+
+    /**
+     * Finds the first documents of a patient in cursor mode, newest first, without counting them.
+     *
+     * @param patientId The UUID of the patient.
+     * @param pageable  The page size; the offset is not used.
+     * @return A Slice of documents.
+     */
+    @Query("SELECT d FROM Document d WHERE d.patient.id = :patientId ORDER BY d.createdAt DESC, d.id DESC")
+    Slice<Document> findSliceByPatientId(@Param("patientId") UUID patientId, Pageable pageable);
+
+    /**
+     * Finds the documents of a patient following the given position in cursor mode, newest first.
+     *
+     * @param patientId The UUID of the patient.
+     * @param createdAt The sort key of the last row of the previous page.
+     * @param id        The id of the last row of the previous page.
+     * @param pageable  The page size; the offset is not used.
+     * @return A Slice of documents.
+     */
+    @Query("SELECT d FROM Document d WHERE d.patient.id = :patientId AND (d.createdAt, d.id) < (:createdAt, :id) " +
+           "ORDER BY d.createdAt DESC, d.id DESC")
+    Slice<Document> findSliceByPatientIdAfter(@Param("patientId") UUID patientId, @Param("createdAt") Instant createdAt,
+                                              @Param("id") UUID id, Pageable pageable);
 }
@@ -1,9 +1,12 @@
 package sy.sezar.clinicx.patient.repository;
 
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import sy.sezar.clinicx.patient.model.Invoice;
@@ -58,6 +61,20 @@ public interface InvoiceRepository extends JpaRepository<Invoice, UUID> {
      */
     Page<Invoice> findByPatientIdAndStatusIn(UUID patientId, List<InvoiceStatus> statuses, Pageable pageable);
 
+    /**
+     * Finds the invoices of a patient that still have an amount due, and locks them until the end
+     * of the transaction so concurrent payments cannot settle them at the same time.
+     *
+     * @param patientId The UUID of the patient.
+     * @param statuses The open invoice statuses.
+     * @return The open invoices of the patient.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM Invoice i WHERE i.patient.id = :patientId AND i.status IN :statuses AND i.amountDue > 0 " +
+           "ORDER BY i.id")
+    List<Invoice> findOpenInvoicesForUpdate(@Param("patientId") UUID patientId,
+                                            @Param("statuses") List<InvoiceStatus> statuses);
+
     /**
      * Finds overdue invoices.
      *
@@ -108,32 +125,6 @@ public interface InvoiceRepository extends JpaRepository<Invoice, UUID> {
            "HAVING SUM(i.totalAmount - COALESCE((SELECT SUM(p.amount) FROM Payment p WHERE p.invoice = i), 0)) > 0")
     List<Object[]> calculateOutstandingBalancesByPatient();
 
-    /**
-     * Generates aging report data.
-     *
-     * @return Aging report summary.
-     */
-    @Query("SELECT " +
-           "SUM(CASE WHEN (CURRENT_DATE - i.dueDate) <= 30 THEN " +
-           "    i.totalAmount - COALESCE((SELECT SUM(p.amount) FROM Payment p WHERE p.invoice = i), 0) ELSE 0 END) as current, " +
-           "SUM(CASE WHEN (CURRENT_DATE - i.dueDate) BETWEEN 31 AND 60 THEN " +
-           "    i.totalAmount - COALESCE((SELECT SUM(p.amount) FROM Payment p WHERE p.invoice = i), 0) ELSE 0 END) as days30, " +
-           "SUM(CASE WHEN (CURRENT_DATE - i.dueDate) BETWEEN 61 AND 90 THEN " +
-           "    i.totalAmount - COALESCE((SELECT SUM(p.amount) FROM Payment p WHERE p.invoice = i), 0) ELSE 0 END) as days60, " +
-           "SUM(CASE WHEN (CURRENT_DATE - i.dueDate) > 90 THEN " +
-           "    i.totalAmount - COALESCE((SELECT SUM(p.amount) FROM Payment p WHERE p.invoice = i), 0) ELSE 0 END) as days90 " +
-           "FROM Invoice i WHERE i.status IN ('UNPAID', 'PARTIALLY_PAID', 'OVERDUE')")
-    Object[] calculateAgingReport();
-
-    /**
-     * Gets the next invoice number.
-     *
-     * @return The next invoice number in sequence.
-     */
-    @Query("SELECT COALESCE(MAX(CAST(SUBSTRING(i.invoiceNumber, 4) AS integer)), 0) + 1 " +
-           "FROM Invoice i WHERE i.invoiceNumber LIKE 'INV%'")
-    Integer getNextInvoiceNumber();
-
     /**
      * Finds invoices created within a date range.
      *
@@ -208,5 +199,28 @@ public interface InvoiceRepository extends JpaRepository<Invoice, UUID> {
      * Count invoices by due date range and status list.
      */
     long countByDueDateBetweenAndStatusIn(LocalDate startDate, LocalDate endDate, List<InvoiceStatus> statuses);
-}
 
+    /**
+     * Finds the first invoices of a patient in cursor mode, newest first, without counting them.
+     *
+     * @param patientId The UUID of the patient.
+     * @param pageable  The page size; the offset is not used.
+     * @return A Slice of invoices.
+     */
+    @Query("SELECT i FROM Invoice i WHERE i.patient.id = :patientId ORDER BY i.issueDate DESC, i.id DESC")
+    Slice<Invoice> findSliceByPatientId(@Param("patientId") UUID patientId, Pageable pageable);
+
+    /**
+     * Finds the invoices of a patient following the given position in cursor mode, newest first.
+     *
+     * @param patientId The UUID of the patient.
+     * @param issueDate The sort key of the last row of the previous page.
+     * @param id        The id of the last row of the previous page.
+     * @param pageable  The page size; the offset is not used.
+     * @return A Slice of invoices.
+     */
+    @Query("SELECT i FROM Invoice i WHERE i.patient.id = :patientId AND (i.issueDate, i.id) < (:issueDate, :id) " +
+           "ORDER BY i.issueDate DESC, i.id DESC")
+    Slice<Invoice> findSliceByPatientIdAfter(@Param("patientId") UUID patientId, @Param("issueDate") LocalDate issueDate,
+                                             @Param("id") UUID id, Pageable pageable);
+}
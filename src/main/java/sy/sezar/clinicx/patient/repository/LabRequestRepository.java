@@ -2,9 +2,13 @@ package sy.sezar.clinicx.patient.repository;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import sy.sezar.clinicx.patient.model.LabRequest;
 
+import java.time.LocalDate;
 import java.util.UUID;
 
 /**
@@ -20,4 +24,54 @@ public interface LabRequestRepository extends JpaRepository<LabRequest, UUID> {
      * @return A Page of lab requests for the given patient.
      */
     Page<LabRequest> findByPatientIdOrderByDateSentDesc(UUID patientId, Pageable pageable);
+
+    /**
+     * Finds the first lab requests of a patient not sent yet, in cursor mode, without counting them.
+     * They come before the sent ones, as they do on PostgreSQL when sorting by date sent descending.
+     *
+     * @param patientId The UUID of the patient.
+     * @param pageable  The page size; the offset is not used.
+     * @return A Slice of unsent lab requests.
+     */
+    @Query("SELECT l FROM LabRequest l WHERE l.patient.id = :patientId AND l.dateSent IS NULL ORDER BY l.id DESC")
+    Slice<LabRequest> findUnsentSliceByPatientId(@Param("patientId") UUID patientId, Pageable pageable);
+
+    /**
+     * Finds the lab requests of a patient not sent yet following the given one, in cursor mode.
+     *
+     * @param patientId The UUID of the patient.
+     * @param id        The id of the last row of the previous page.
+     * @param pageable  The page size; the offset is not used.
+     * @return A Slice of unsent lab requests.
+     */
+    @Query("SELECT l FROM LabRequest l WHERE l.patient.id = :patientId AND l.dateSent IS NULL AND l.id < :id " +
+           "ORDER BY l.id DESC")
+    Slice<LabRequest> findUnsentSliceByPatientIdAfter(@Param("patientId") UUID patientId, @Param("id") UUID id,
+                                                      Pageable pageable);
+
+    /**
+     * Finds the first sent lab requests of a patient in cursor mode, newest first, without counting them.
+     *
+     * @param patientId The UUID of the patient.
+     * @param pageable  The page size; the offset is not used.
+     * @return A Slice of sent lab requests.
+     */
+    @Query("SELECT l FROM LabRequest l WHERE l.patient.id = :patientId AND l.dateSent IS NOT NULL " +
+           "ORDER BY l.dateSent DESC, l.id DESC")
+    Slice<LabRequest> findSentSliceByPatientId(@Param("patientId") UUID patientId, Pageable pageable);
+
+    /**
+     * Finds the sent lab requests of a patient following the given position in cursor mode, newest first.
+     *
+     * @param patientId The UUID of the patient.
+     * @param dateSent  The date sent of the last row of the previous page.
+     * @param id        The id of the last row of the previous page.
+     * @param pageable  The page size; the offset is not used.
+     * @return A Slice of sent lab requests.
+     */
+    @Query("SELECT l FROM LabRequest l WHERE l.patient.id = :patientId AND (l.dateSent, l.id) < (:dateSent, :id) " +
+           "ORDER BY l.dateSent DESC, l.id DESC")
+    Slice<LabRequest> findSentSliceByPatientIdAfter(@Param("patientId") UUID patientId,
+                                                    @Param("dateSent") LocalDate dateSent,
+                                                    @Param("id") UUID id, Pageable pageable);
 }
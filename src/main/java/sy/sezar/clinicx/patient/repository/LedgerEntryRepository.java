@@ -2,13 +2,27 @@ package sy.sezar.clinicx.patient.repository;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import sy.sezar.clinicx.patient.model.LedgerEntry;
 
+import java.time.Instant;
 import java.util.UUID;
 
 public interface LedgerEntryRepository extends JpaRepository<LedgerEntry, UUID> {
-    Page<LedgerEntry> findByPatientIdOrderByOccurredAtAsc(UUID patientId, Pageable pageable);
-}
+    Page<LedgerEntry> findByPatientIdOrderByOccurredAtAscIdAsc(UUID patientId, Pageable pageable);
 
+    @Query("SELECT e FROM LedgerEntry e WHERE e.patient.id = :patientId ORDER BY e.occurredAt, e.id")
+    Slice<LedgerEntry> findSliceByPatientId(@Param("patientId") UUID patientId, Pageable pageable);
 
+    /**
+     * Entries of a patient following the given position, in chronological order.
+     */
+    @Query("SELECT e FROM LedgerEntry e WHERE e.patient.id = :patientId AND (e.occurredAt, e.id) > (:occurredAt, :id) " +
+           "ORDER BY e.occurredAt, e.id")
+    Slice<LedgerEntry> findSliceByPatientIdAfter(@Param("patientId") UUID patientId,
+                                                 @Param("occurredAt") Instant occurredAt,
+                                                 @Param("id") UUID id, Pageable pageable);
+}
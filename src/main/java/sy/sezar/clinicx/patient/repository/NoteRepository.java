@@ -2,9 +2,13 @@ package sy.sezar.clinicx.patient.repository;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import sy.sezar.clinicx.patient.model.Note;
 
+import java.time.Instant;
 import java.util.UUID;
 
 /**
@@ -20,4 +24,28 @@ public interface NoteRepository extends JpaRepository<Note, UUID> {
      * @return A Page of notes for the given patient.
      */
     Page<Note> findByPatientIdOrderByNoteDateDesc(UUID patientId, Pageable pageable);
+
+    /**
+     * Finds the first notes of a patient in cursor mode, newest first, without counting them.
+     *
+     * @param patientId The UUID of the patient.
+     * @param pageable  The page size; the offset is not used.
+     * @return A Slice of notes.
+     */
+    @Query("SELECT n FROM Note n WHERE n.patient.id = :patientId ORDER BY n.noteDate DESC, n.id DESC")
+    Slice<Note> findSliceByPatientId(@Param("patientId") UUID patientId, Pageable pageable);
+
+    /**
+     * Finds the notes of a patient following the given position in cursor mode, newest first.
+     *
+     * @param patientId The UUID of the patient.
+     * @param noteDate  The sort key of the last row of the previous page.
+     * @param id        The id of the last row of the previous page.
+     * @param pageable  The page size; the offset is not used.
+     * @return A Slice of notes.
+     */
+    @Query("SELECT n FROM Note n WHERE n.patient.id = :patientId AND (n.noteDate, n.id) < (:noteDate, :id) " +
+           "ORDER BY n.noteDate DESC, n.id DESC")
+    Slice<Note> findSliceByPatientIdAfter(@Param("patientId") UUID patientId, @Param("noteDate") Instant noteDate,
+                                          @Param("id") UUID id, Pageable pageable);
 }
@@ -1,14 +1,14 @@
 package sy.sezar.clinicx.patient.repository;
 
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.jpa.domain.Specification;
-import org.springframework.data.jpa.repository.EntityGraph;
+import org.hibernate.Hibernate;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import sy.sezar.clinicx.patient.model.Patient;
-import sy.sezar.clinicx.patient.projection.PatientSearchResultProjection;
 
+import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.Optional;
 import java.util.UUID;
@@ -19,26 +19,24 @@ import java.util.UUID;
 public interface PatientRepository extends JpaRepository<Patient, UUID>, JpaSpecificationExecutor<Patient> {
 
     /**
-     * Finds a patient by their ID, eagerly fetching related data required for the main patient view.
-     * This helps to avoid N+1 query problems when loading the patient dashboard.
+     * Finds a patient by their ID together with the collections shown on the patient dashboard.
+     * Appointments, notes and invoices are each loaded with their own query instead of one join
+     * over all three, which would return appointments x notes x invoices rows.
+     * Must be called within a transaction.
      *
      * @param id The UUID of the patient.
-     * @return An Optional containing the Patient with fetched associations.
+     * @return An Optional containing the Patient with initialized dashboard collections.
      */
-    @Override
-    @EntityGraph(attributePaths = {"appointments", "notes", "invoices"})
-    Optional<Patient> findById(UUID id);
+    default Optional<Patient> findDashboardById(UUID id) {
+        Optional<Patient> patient = findById(id);
+        patient.ifPresent(p -> {
+            Hibernate.initialize(p.getAppointments());
+            Hibernate.initialize(p.getNotes());
+            Hibernate.initialize(p.getInvoices());
+        });
+        return patient;
+    }
 
-    /**
-     * Finds all patients matching the given specification and returns a paginated result
-     * with a projection suitable for list views.
-     *
-     * @param spec       The specification to filter patients (e.g., by search term).
-     * @param pageable   The pagination and sorting information.
-     * @return A Page of PatientSearchResultProjection.
-     */
-    Page<PatientSearchResultProjection> findBy(Specification<Patient> spec, Pageable pageable);
-    
     /**
      * Count patients created after a specific date.
      * Used for tracking active patients.
@@ -47,5 +45,39 @@ public interface PatientRepository extends JpaRepository<Patient, UUID>, JpaSpec
      * @return Count of patients created after the date.
      */
     long countByCreatedAtAfter(Instant createdAt);
+
+    /**
+     * Adds a delta to the balance of a patient in a single statement.
+     * The row lock taken by the update serializes concurrent balance changes of the same patient.
+     * A patient already loaded in the persistence context keeps its old balance until
+     * {@link #findBalanceById} is read into it.
+     *
+     * @param patientId The UUID of the patient.
+     * @param delta     The amount to add; negative to reduce the balance.
+     * @return Number of updated rows, 0 if the patient does not exist.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Patient p SET p.balance = p.balance + :delta WHERE p.id = :patientId")
+    int applyBalanceDelta(@Param("patientId") UUID patientId, @Param("delta") BigDecimal delta);
+
+    /**
+     * Reads the current balance of a patient from the database.
+     *
+     * @param patientId The UUID of the patient.
+     * @return The balance, or null if the patient does not exist.
+     */
+    @Query("SELECT p.balance FROM Patient p WHERE p.id = :patientId")
+    BigDecimal findBalanceById(@Param("patientId") UUID patientId);
+
+    /**
+     * Overwrites the balance of a patient, used when rebuilding it from the ledger.
+     *
+     * @param patientId The UUID of the patient.
+     * @param balance   The new balance.
+     * @return Number of updated rows, 0 if the patient does not exist.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Patient p SET p.balance = :balance WHERE p.id = :patientId")
+    int updateBalance(@Param("patientId") UUID patientId, @Param("balance") BigDecimal balance);
 }
 
@@ -10,6 +10,7 @@ import sy.sezar.clinicx.patient.model.PaymentPlanInstallment;
 import sy.sezar.clinicx.patient.model.enums.InstallmentStatus;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -21,6 +22,11 @@ public interface PaymentPlanInstallmentRepository extends JpaRepository<PaymentP
      */
     List<PaymentPlanInstallment> findByPaymentPlanIdOrderByInstallmentNumber(UUID paymentPlanId);
 
+    /**
+     * Find the installments of several payment plans, to complete a page of payment plans.
+     */
+    List<PaymentPlanInstallment> findByPaymentPlanIdInOrderByInstallmentNumber(Collection<UUID> paymentPlanIds);
+
     /**
      * Find installments by status.
      */
@@ -1,8 +1,11 @@
 package sy.sezar.clinicx.patient.repository;
 
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import sy.sezar.clinicx.patient.model.Payment;
@@ -66,6 +69,30 @@ public interface PaymentRepository extends JpaRepository<Payment, UUID> {
     @Query("SELECT COALESCE(SUM(p.amount), 0) FROM Payment p WHERE p.patient.id = :patientId AND p.type = 'CREDIT'")
     BigDecimal calculateTotalCredit(@Param("patientId") UUID patientId);
 
+    /**
+     * Totals of the advance payments (credits) of a patient, applied or not, in one aggregate.
+     *
+     * @param patientId The UUID of the patient.
+     * @return The credit totals of the patient.
+     */
+    @Query("SELECT COALESCE(SUM(p.amount), 0) AS totalAmount, " +
+           "COALESCE(SUM(CASE WHEN p.invoice IS NULL THEN p.amount END), 0) AS availableAmount, " +
+           "COUNT(p) AS totalCount, COUNT(CASE WHEN p.invoice IS NULL THEN 1 END) AS availableCount " +
+           "FROM Payment p WHERE p.patient.id = :patientId AND p.type = 'CREDIT'")
+    CreditTotals calculateCreditTotals(@Param("patientId") UUID patientId);
+
+    /**
+     * Finds the unapplied advance payments (credits) of a patient, oldest first, and locks them
+     * until the end of the transaction so they cannot be applied twice.
+     *
+     * @param patientId The UUID of the patient.
+     * @return The unapplied advance payments of the patient.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Payment p WHERE p.patient.id = :patientId AND p.type = 'CREDIT' AND p.invoice IS NULL " +
+           "ORDER BY p.paymentDate, p.id")
+    List<Payment> findUnappliedAdvancePaymentsForUpdate(@Param("patientId") UUID patientId);
+
     /**
      * Finds all payments for a specific patient with pagination.
      *
@@ -201,4 +228,38 @@ public interface PaymentRepository extends JpaRepository<Payment, UUID> {
      * Find first payment by patient ordered by date.
      */
     Optional<Payment> findFirstByPatientIdOrderByPaymentDateAsc(UUID patientId);
+
+    /**
+     * Finds the first payments of a patient in cursor mode, newest first, without counting them.
+     *
+     * @param patientId The UUID of the patient.
+     * @param pageable  The page size; the offset is not used.
+     * @return A Slice of payments.
+     */
+    @Query("SELECT p FROM Payment p WHERE p.patient.id = :patientId ORDER BY p.paymentDate DESC, p.id DESC")
+    Slice<Payment> findSliceByPatientId(@Param("patientId") UUID patientId, Pageable pageable);
+
+    /**
+     * Finds the payments of a patient following the given position in cursor mode, newest first.
+     *
+     * @param patientId The UUID of the patient.
+     * @param paymentDate The sort key of the last row of the previous page.
+     * @param id        The id of the last row of the previous page.
+     * @param pageable  The page size; the offset is not used.
+     * @return A Slice of payments.
+     */
+    @Query("SELECT p FROM Payment p WHERE p.patient.id = :patientId AND (p.paymentDate, p.id) < (:paymentDate, :id) " +
+           "ORDER BY p.paymentDate DESC, p.id DESC")
+    Slice<Payment> findSliceByPatientIdAfter(@Param("patientId") UUID patientId, @Param("paymentDate") LocalDate paymentDate,
+                                             @Param("id") UUID id, Pageable pageable);
+
+    /**
+     * Credit totals of a patient.
+     */
+    interface CreditTotals {
+        BigDecimal getTotalAmount();
+        BigDecimal getAvailableAmount();
+        long getTotalCount();
+        long getAvailableCount();
+    }
 }
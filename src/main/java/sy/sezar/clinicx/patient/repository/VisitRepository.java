@@ -2,10 +2,14 @@ package sy.sezar.clinicx.patient.repository;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import sy.sezar.clinicx.patient.model.Visit;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.UUID;
 
@@ -30,4 +34,28 @@ public interface VisitRepository extends JpaRepository<Visit, UUID>, JpaSpecific
      * @return A list of visits.
      */
     List<Visit> findByPatientId(UUID patientId);
+
+    /**
+     * Finds the first visits of a patient in cursor mode, newest first, without counting them.
+     *
+     * @param patientId The UUID of the patient.
+     * @param pageable  The page size; the offset is not used.
+     * @return A Slice of visits.
+     */
+    @Query("SELECT v FROM Visit v WHERE v.patient.id = :patientId ORDER BY v.date DESC, v.id DESC")
+    Slice<Visit> findSliceByPatientId(@Param("patientId") UUID patientId, Pageable pageable);
+
+    /**
+     * Finds the visits of a patient following the given position in cursor mode, newest first.
+     *
+     * @param patientId The UUID of the patient.
+     * @param date      The sort key of the last row of the previous page.
+     * @param id        The id of the last row of the previous page.
+     * @param pageable  The page size; the offset is not used.
+     * @return A Slice of visits.
+     */
+    @Query("SELECT v FROM Visit v WHERE v.patient.id = :patientId AND (v.date, v.id) < (:date, :id) " +
+           "ORDER BY v.date DESC, v.id DESC")
+    Slice<Visit> findSliceByPatientIdAfter(@Param("patientId") UUID patientId, @Param("date") LocalDate date,
+                                           @Param("id") UUID id, Pageable pageable);
 }
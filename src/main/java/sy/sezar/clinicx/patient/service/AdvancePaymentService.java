@@ -3,6 +3,7 @@ package sy.sezar.clinicx.patient.service;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import sy.sezar.clinicx.patient.dto.*;
+import sy.sezar.clinicx.patient.model.enums.CreditAllocationPolicy;
 
 import java.util.UUID;
 
@@ -60,4 +61,14 @@ public interface AdvancePaymentService {
      * @return The financial record DTO showing the updated invoice status.
      */
     FinancialRecordDto autoApplyAdvancePaymentsToInvoice(UUID invoiceId);
+
+    /**
+     * Applies all unapplied advance payments of a patient across the patient's open invoices in one
+     * transaction. Credits are consumed oldest first; the policy decides which invoices are settled first.
+     *
+     * @param patientId The UUID of the patient.
+     * @param policy    The order in which open invoices receive credit.
+     * @return The amounts applied per credit and invoice, and the credit left.
+     */
+    CreditApplicationResultDto autoApplyCredits(UUID patientId, CreditAllocationPolicy policy);
 }
\ No newline at end of file
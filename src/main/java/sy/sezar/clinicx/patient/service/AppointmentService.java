@@ -4,6 +4,8 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import sy.sezar.clinicx.patient.dto.AppointmentCardDto;
 import sy.sezar.clinicx.patient.dto.AppointmentCreateRequest;
+import sy.sezar.clinicx.patient.dto.AppointmentRescheduleRequest;
+import sy.sezar.clinicx.patient.dto.BookedSlotDto;
 import sy.sezar.clinicx.patient.dto.UpcomingAppointmentDto;
 
 import java.time.Instant;
@@ -21,6 +23,23 @@ public interface AppointmentService {
      */
     AppointmentCardDto createAppointment(AppointmentCreateRequest request);
 
+    /**
+     * Moves an appointment to another time, duration or doctor.
+     * Fails with a conflict when the doctor already has an appointment overlapping the new time.
+     */
+    AppointmentCardDto rescheduleAppointment(UUID appointmentId, AppointmentRescheduleRequest request);
+
+    /**
+     * Cancels an appointment, freeing the doctor's time it booked.
+     */
+    AppointmentCardDto cancelAppointment(UUID appointmentId);
+
+    /**
+     * Finds the appointments of a doctor that a booking at the given time would overlap,
+     * read from the in-memory schedule index.
+     */
+    List<BookedSlotDto> findDoctorConflicts(UUID doctorId, Instant startDateTime, int durationMinutes);
+
     /**
      * Gets appointments for a specific date range (for daily view in sidebar).
      */
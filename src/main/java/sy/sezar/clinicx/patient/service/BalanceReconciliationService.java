@@ -0,0 +1,25 @@
+package sy.sezar.clinicx.patient.service;
+
+import sy.sezar.clinicx.patient.dto.BalanceReconciliationResultDto;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Verifies the incrementally maintained patient balances against the ledger.
+ */
+public interface BalanceReconciliationService {
+
+    /**
+     * Compares the balance of every patient with the sum of its ledger entries in one pass.
+     * Mismatches are repaired when {@code repair} is true.
+     */
+    BalanceReconciliationResultDto reconcileAll(boolean repair);
+
+    /**
+     * Rebuilds the balance of a single patient from its ledger entries.
+     *
+     * @return the rebuilt balance
+     */
+    BigDecimal rebuildBalance(UUID patientId);
+}
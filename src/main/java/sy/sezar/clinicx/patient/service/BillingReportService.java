@@ -2,8 +2,12 @@ package sy.sezar.clinicx.patient.service;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import sy.sezar.clinicx.core.export.ExportFormat;
 import sy.sezar.clinicx.patient.dto.*;
+import sy.sezar.clinicx.patient.model.enums.BillingReportType;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.UUID;
@@ -76,7 +80,14 @@ public interface BillingReportService {
     TaxReportDto generateTaxReport(LocalDate startDate, LocalDate endDate, boolean includeDetails);
 
     /**
-     * Export report in various formats.
+     * Checks that an export can be produced, so that errors are reported before any of it is streamed.
      */
-    byte[] exportReport(String reportType, String format, ExportReportRequest request);
+    void validateExport(BillingReportType reportType, ExportReportRequest request);
+
+    /**
+     * Streams a report to the given output stream, reading its rows from a database cursor,
+     * so that memory use does not depend on the number of rows. The stream is not closed.
+     */
+    void exportReport(BillingReportType reportType, ExportFormat format, ExportReportRequest request,
+                      OutputStream out) throws IOException;
 }
\ No newline at end of file
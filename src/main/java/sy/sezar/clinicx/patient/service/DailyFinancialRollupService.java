@@ -0,0 +1,41 @@
+package sy.sezar.clinicx.patient.service;
+
+import sy.sezar.clinicx.patient.dto.DailyFinancialRollupDto;
+import sy.sezar.clinicx.patient.dto.RollupVerificationResultDto;
+import sy.sezar.clinicx.patient.model.LedgerEntry;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Maintains daily totals of ledger entries per tenant, doctor, payment method and procedure code,
+ * so that dashboards read a few rollup rows instead of every invoice and payment.
+ */
+public interface DailyFinancialRollupService {
+
+    /**
+     * Adds a ledger entry to the rollup once the current transaction commits.
+     * Charges are split over the procedures of their invoice; payments and refunds are attributed
+     * to their payment method.
+     */
+    void record(LedgerEntry entry);
+
+    /**
+     * Rollup rows of the current tenant between the given dates, inclusive.
+     */
+    List<DailyFinancialRollupDto> getRollup(LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Compares the rollup totals of every tenant day in the range with its ledger entries.
+     * Days that differ are rebuilt from the ledger when {@code rebuild} is true.
+     */
+    RollupVerificationResultDto verify(LocalDate startDate, LocalDate endDate, boolean rebuild);
+
+    /**
+     * Replaces the rollup rows of every tenant between the given dates with totals recomputed
+     * from the ledger.
+     *
+     * @return the number of rollup rows written
+     */
+    int rebuild(LocalDate startDate, LocalDate endDate);
+}
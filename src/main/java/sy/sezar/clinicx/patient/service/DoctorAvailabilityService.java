@@ -0,0 +1,46 @@
+package sy.sezar.clinicx.patient.service;
+
+import sy.sezar.clinicx.patient.dto.FreeSlotDto;
+import sy.sezar.clinicx.patient.dto.FreeSlotSearchCriteria;
+import sy.sezar.clinicx.patient.dto.WorkingHoursDto;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Finds free appointment slots of doctors from their working hours and their bookings.
+ * The booked slots of each doctor-day are cached; every operation that books or frees a doctor's
+ * time must report it, besides invalidating the {@link DoctorScheduleIndex}, so the cached days
+ * are updated in place rather than built again.
+ */
+public interface DoctorAvailabilityService {
+
+    /**
+     * Finds the earliest free slots of the matching doctors within a date range, ordered by start
+     * and then by doctor name. Slots that have already started are left out.
+     */
+    List<FreeSlotDto> findFreeSlots(FreeSlotSearchCriteria criteria);
+
+    /**
+     * Gets the weekly working hours of a doctor; empty when the doctor works the default hours.
+     */
+    List<WorkingHoursDto> getWorkingHours(UUID doctorId);
+
+    /**
+     * Replaces the weekly working hours of a doctor. An empty list restores the default hours.
+     */
+    List<WorkingHoursDto> replaceWorkingHours(UUID doctorId, List<WorkingHoursDto> workingHours);
+
+    /**
+     * Records that an appointment books a doctor's time [start, end), once the current
+     * transaction commits, or right away when no transaction is active.
+     */
+    void appointmentBooked(UUID appointmentId, UUID doctorId, Instant start, Instant end);
+
+    /**
+     * Records that an appointment no longer books a doctor's time, once the current transaction
+     * commits, or right away when no transaction is active.
+     */
+    void appointmentReleased(UUID appointmentId, UUID doctorId, Instant start, Instant end);
+}
@@ -0,0 +1,37 @@
+package sy.sezar.clinicx.patient.service;
+
+import sy.sezar.clinicx.patient.dto.BookedSlotDto;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * In-memory index of the time booked by each doctor, kept per doctor and day, so that booking
+ * conflicts are found without a database round-trip once a day has been read.
+ * The database enforces the same rule, so a booking that slips past a stale index still fails.
+ * Every operation that books, moves or frees a doctor's time must invalidate the affected range.
+ */
+public interface DoctorScheduleIndex {
+
+    /**
+     * Returns the appointments of a doctor overlapping [start, end), ordered by start.
+     */
+    List<BookedSlotDto> findOverlapping(UUID doctorId, Instant start, Instant end);
+
+    /**
+     * Returns the appointments of each doctor on each day, in the system time zone, ordered by start.
+     * The days not yet indexed are read for all doctors in one query.
+     */
+    Map<UUID, Map<LocalDate, List<BookedSlotDto>>> findBookedDays(Collection<UUID> doctorIds,
+                                                                   Collection<LocalDate> dates);
+
+    /**
+     * Drops the days of a doctor touched by [start, end) once the current transaction completes,
+     * or right away when no transaction is active.
+     */
+    void invalidate(UUID doctorId, Instant start, Instant end);
+}
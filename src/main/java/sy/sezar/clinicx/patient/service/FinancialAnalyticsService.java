@@ -98,4 +98,13 @@ public interface FinancialAnalyticsService {
      * @return Performance metrics
      */
     FinancialPerformanceMetricsDto getFinancialPerformanceMetrics(LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Get key financial metrics for dashboard display.
+     *
+     * @param startDate Start date
+     * @param endDate End date
+     * @return Dashboard metrics by name
+     */
+    Map<String, Object> getFinancialDashboard(LocalDate startDate, LocalDate endDate);
 }
@@ -0,0 +1,56 @@
+package sy.sezar.clinicx.patient.service;
+
+import sy.sezar.clinicx.patient.dto.AccountsReceivableAgingDto;
+import sy.sezar.clinicx.patient.dto.AgingDetailDto;
+import sy.sezar.clinicx.patient.dto.AgingGroupDto;
+import sy.sezar.clinicx.patient.dto.AgingPageDto;
+import sy.sezar.clinicx.patient.dto.InvoiceAgingReportDto;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Ages the outstanding balances of open invoices from their materialized amount due.
+ * Invoices are aged from their due date, or their issue date when they have none, and fall into
+ * the buckets current, 1-30, 31-60, 61-90 and over 90 days past due as of the requested date.
+ * Drill-downs are paged with keyset cursors, so that every page costs the same.
+ */
+public interface InvoiceAgingService {
+
+    /**
+     * Aging summary as of the given date in the buckets of the invoice aging report, which counts
+     * invoices up to 30 days past due as current.
+     *
+     * @param includeDetails whether to list the oldest open invoices, up to the configured detail limit
+     */
+    InvoiceAgingReportDto getAgingReport(LocalDate asOfDate, boolean includeDetails);
+
+    /**
+     * Accounts receivable aging as of the given date, with account counts per patient.
+     */
+    AccountsReceivableAgingDto getAccountsReceivableAging(LocalDate asOfDate);
+
+    /**
+     * Outstanding balances per patient, in patient order.
+     *
+     * @param cursor the {@code nextCursor} of the previous page, or null for the first page
+     */
+    AgingPageDto<AgingGroupDto> getAgingByPatient(LocalDate asOfDate, String cursor, int size);
+
+    /**
+     * Outstanding balances per insurance provider of the patients, in provider order. Patients
+     * without an insurance provider are grouped under an empty key.
+     *
+     * @param cursor the {@code nextCursor} of the previous page, or null for the first page
+     */
+    AgingPageDto<AgingGroupDto> getAgingByInsuranceProvider(LocalDate asOfDate, String cursor, int size);
+
+    /**
+     * Open invoices of a patient or of the patients of an insurance provider, oldest first.
+     * Either filter may be null; an empty provider selects patients without insurance.
+     *
+     * @param cursor the {@code nextCursor} of the previous page, or null for the first page
+     */
+    AgingPageDto<AgingDetailDto> getAgingInvoices(LocalDate asOfDate, UUID patientId, String insuranceProvider,
+                                                  String cursor, int size);
+}
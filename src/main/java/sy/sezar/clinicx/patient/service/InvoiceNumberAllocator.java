@@ -0,0 +1,23 @@
+package sy.sezar.clinicx.patient.service;
+
+import java.util.List;
+
+/**
+ * Allocates invoice numbers from per-tenant, per-year series.
+ * Numbers are handed out from blocks leased into memory, so allocation does not touch the
+ * database except when a block is used up. Numbers that are allocated but never used (rolled
+ * back transactions, leases left over at shutdown) are recorded in invoice_number_gaps.
+ */
+public interface InvoiceNumberAllocator {
+
+    /**
+     * Allocates the next invoice number of the current tenant's series for the current year.
+     */
+    String next();
+
+    /**
+     * Allocates {@code count} consecutive-as-possible invoice numbers for bulk invoicing.
+     * Large requests lease a dedicated block, so the numbers are consecutive.
+     */
+    List<String> nextBlock(int count);
+}
@@ -37,12 +37,13 @@ public interface InvoiceService {
     Page<PaymentInstallmentDto> getInvoicePayments(UUID invoiceId, Pageable pageable);
 
     /**
-     * Recalculates and updates patient balance based on all invoices and payments.
+     * Rebuilds the patient balance from the patient's ledger entries.
+     * Balances are otherwise maintained incrementally as entries are recorded.
      */
     BigDecimal recalculatePatientBalance(UUID patientId);
 
     /**
-     * Gets the next sequential invoice number.
+     * Gets the next invoice number of the current tenant's series for this year.
      */
     String getNextInvoiceNumber();
 
@@ -0,0 +1,19 @@
+package sy.sezar.clinicx.patient.service;
+
+import java.time.LocalDate;
+
+/**
+ * Maintains the monthly balance checkpoints of the patient ledgers, from which balances as of a
+ * date and running balances are computed without summing the whole ledger.
+ */
+public interface LedgerCheckpointService {
+
+    /**
+     * Writes the missing checkpoints of every patient at each month boundary up to the start of
+     * the month of {@code upTo}, never past the start of the current month. Checkpoints already
+     * written are kept, so the call can be repeated.
+     *
+     * @return the number of checkpoints written
+     */
+    int createCheckpoints(LocalDate upTo);
+}
@@ -2,17 +2,43 @@ package sy.sezar.clinicx.patient.service;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import sy.sezar.clinicx.patient.dto.CursorPageDto;
 import sy.sezar.clinicx.patient.dto.LedgerEntryDto;
 import sy.sezar.clinicx.patient.model.Invoice;
+import sy.sezar.clinicx.patient.model.LedgerEntry;
 import sy.sezar.clinicx.patient.model.Payment;
 import sy.sezar.clinicx.patient.model.enums.LedgerEntryType;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
 import java.util.UUID;
 
 public interface LedgerService {
     void record(UUID patientId, Invoice invoice, Payment payment, LedgerEntryType type, BigDecimal amount, String description);
+
+    /**
+     * Records many entries at once: their balance deltas are summed per patient and applied in one
+     * batched statement, and the entries are inserted in JDBC batches.
+     */
+    void recordAll(List<LedgerEntry> entries);
+
+    /**
+     * Returns a page of the patient's ledger in chronological order, each entry with the patient
+     * balance after it.
+     */
     Page<LedgerEntryDto> getPatientLedger(UUID patientId, Pageable pageable);
+
+    /**
+     * Returns the patient's ledger in cursor mode, in chronological order after the given cursor,
+     * each entry with the patient balance after it.
+     */
+    CursorPageDto<LedgerEntryDto> getPatientLedgerAfter(UUID patientId, String cursor, int size);
+
+    /**
+     * Returns the patient balance at the end of the given day, from the ledger.
+     */
+    BigDecimal getBalanceAsOf(UUID patientId, LocalDate asOf);
 }
 
 
@@ -0,0 +1,37 @@
+package sy.sezar.clinicx.patient.service;
+
+import sy.sezar.clinicx.patient.dto.OverdueSweepResultDto;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Marks invoices and payment-plan installments whose due date has passed as overdue, with
+ * set-based updates in bounded chunks. Every row marked also gets an overdue event in
+ * billing_events, written by the same statement, from which reminders are sent.
+ * The cost of a sweep grows with the rows it marks, not with the number of invoices.
+ */
+public interface OverdueSweepService {
+
+    /**
+     * Sweeps invoices and installments due before the given date, unless another node holds the
+     * sweep lock, in which case the sweep is skipped.
+     */
+    OverdueSweepResultDto sweep(LocalDate today);
+
+    /**
+     * Marks the unpaid and partially paid invoices due before the given date as overdue.
+     *
+     * @return the IDs of the invoices marked
+     */
+    List<UUID> markOverdueInvoices(LocalDate today);
+
+    /**
+     * Marks the pending and partially paid installments of active payment plans due before the
+     * given date as overdue.
+     *
+     * @return the number of installments marked
+     */
+    int markOverdueInstallments(LocalDate today);
+}
@@ -0,0 +1,22 @@
+package sy.sezar.clinicx.patient.service;
+
+import sy.sezar.clinicx.patient.dto.PatientSearchResultDto;
+
+import java.util.List;
+
+/**
+ * Ranked patient search for the search-as-you-type box at the reception desk.
+ */
+public interface PatientSearchService {
+
+    /**
+     * Finds the patients best matching a typed term, best matches first: exact public facing ID,
+     * email or insurance number matches, then names starting with the term, then patients whose
+     * name, identifiers, phone number or date of birth contain it.
+     *
+     * @param term  the typed term
+     * @param limit the maximum number of patients returned
+     * @return the matching patients, empty for a blank term
+     */
+    List<PatientSearchResultDto> search(String term, int limit);
+}
@@ -2,6 +2,8 @@ package sy.sezar.clinicx.patient.service;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import sy.sezar.clinicx.core.pagination.CountMode;
 import sy.sezar.clinicx.patient.dto.*;
 
 import java.util.List;
@@ -27,15 +29,22 @@ public interface PatientService {
      */
     PatientSummaryDto findPatientById(UUID patientId);
 
+    /**
+     * Gets the patient dashboard: the patient with their appointments, notes and invoices.
+     */
+    PatientDashboardDto getPatientDashboard(UUID patientId);
+
     /**
      * Finds all patients with optional search filtering and pagination.
+     * Returns a {@code Page} unless the count mode is {@link CountMode#NONE}.
      */
-    Page<PatientSummaryDto> findAllPatients(String searchTerm, Pageable pageable);
+    Slice<PatientSummaryDto> findAllPatients(String searchTerm, Pageable pageable, CountMode countMode);
 
     /**
      * Advanced search for patients with multiple criteria.
+     * Returns a {@code Page} unless the count mode is {@link CountMode#NONE}.
      */
-    Page<PatientSummaryDto> searchPatients(PatientSearchCriteria criteria, Pageable pageable);
+    Slice<PatientSummaryDto> searchPatients(PatientSearchCriteria criteria, Pageable pageable, CountMode countMode);
 
     /**
      * Gets the patient's balance summary.
@@ -77,6 +86,32 @@ public interface PatientService {
      */
     Page<FinancialRecordDto> getPatientFinancialRecords(UUID patientId, Pageable pageable);
 
+    /**
+     * Gets patient documents in cursor mode, newest first, after the given cursor.
+     */
+    CursorPageDto<DocumentSummaryDto> getPatientDocumentsAfter(UUID patientId, String cursor, int size);
+
+    /**
+     * Gets patient notes in cursor mode, newest first, after the given cursor.
+     */
+    CursorPageDto<NoteSummaryDto> getPatientNotesAfter(UUID patientId, String cursor, int size);
+
+    /**
+     * Gets patient visit history in cursor mode, newest first, after the given cursor.
+     */
+    CursorPageDto<VisitLogDto> getPatientVisitHistoryAfter(UUID patientId, String cursor, int size);
+
+    /**
+     * Gets patient lab requests in cursor mode after the given cursor: the unsent ones first,
+     * then the sent ones, newest first.
+     */
+    CursorPageDto<LabRequestDto> getPatientLabRequestsAfter(UUID patientId, String cursor, int size);
+
+    /**
+     * Gets patient financial records in cursor mode, newest first, after the given cursor.
+     */
+    CursorPageDto<FinancialRecordDto> getPatientFinancialRecordsAfter(UUID patientId, String cursor, int size);
+
     /**
      * Deactivates a patient (soft delete).
      */
@@ -2,6 +2,8 @@ package sy.sezar.clinicx.patient.service;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import sy.sezar.clinicx.core.pagination.CountMode;
 import sy.sezar.clinicx.patient.dto.*;
 import sy.sezar.clinicx.patient.model.enums.PaymentPlanStatus;
 
@@ -68,11 +70,12 @@ public interface PaymentPlanService {
     /**
      * Get payment plans by status.
      *
-     * @param status Payment plan status
+     * @param status Payment plan status, or null for all payment plans
      * @param pageable Pagination information
-     * @return Page of payment plans
+     * @param countMode How the total is reported
+     * @return Page of payment plans, or a Slice without a total for {@link CountMode#NONE}
      */
-    Page<PaymentPlanDto> getPaymentPlansByStatus(PaymentPlanStatus status, Pageable pageable);
+    Slice<PaymentPlanDto> getPaymentPlansByStatus(PaymentPlanStatus status, Pageable pageable, CountMode countMode);
 
     /**
      * Update payment plan status.
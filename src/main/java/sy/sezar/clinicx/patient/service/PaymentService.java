@@ -29,6 +29,16 @@ public interface PaymentService {
     Page<PaymentDto> getAllPayments(UUID patientId, UUID invoiceId, PaymentType type,
                                    LocalDate startDate, LocalDate endDate, Pageable pageable);
 
+    /**
+     * Get the payments of a patient in cursor mode, newest first, without counting them.
+     *
+     * @param patientId Patient ID
+     * @param cursor Cursor returned with the previous page, or null for the first page
+     * @param size Page size
+     * @return Page of payments with the cursor of the next one
+     */
+    CursorPageDto<PaymentDto> getPatientPaymentsAfter(UUID patientId, String cursor, int size);
+
     /**
      * Get payment by ID.
      *
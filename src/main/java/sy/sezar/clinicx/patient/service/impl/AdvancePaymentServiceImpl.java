@@ -11,21 +11,31 @@ import sy.sezar.clinicx.core.exception.NotFoundException;
 import sy.sezar.clinicx.patient.dto.*;
 import sy.sezar.clinicx.patient.mapper.InvoiceMapper;
 import sy.sezar.clinicx.patient.model.Invoice;
+import sy.sezar.clinicx.patient.model.LedgerEntry;
 import sy.sezar.clinicx.patient.model.Patient;
 import sy.sezar.clinicx.patient.model.Payment;
+import sy.sezar.clinicx.patient.model.PaymentAllocation;
+import sy.sezar.clinicx.patient.model.enums.CreditAllocationPolicy;
 import sy.sezar.clinicx.patient.model.enums.InvoiceStatus;
+import sy.sezar.clinicx.patient.model.enums.LedgerEntryType;
 import sy.sezar.clinicx.patient.model.enums.PaymentType;
 import sy.sezar.clinicx.patient.model.enums.PaymentMethod;
 import sy.sezar.clinicx.patient.repository.InvoiceRepository;
 import sy.sezar.clinicx.patient.repository.PatientRepository;
+import sy.sezar.clinicx.patient.repository.PaymentAllocationRepository;
 import sy.sezar.clinicx.patient.repository.PaymentRepository;
 import sy.sezar.clinicx.patient.service.AdvancePaymentService;
-import sy.sezar.clinicx.patient.service.InvoiceService;
+import sy.sezar.clinicx.patient.service.LedgerService;
 
 import java.math.BigDecimal;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Service implementation for managing advance payments.
@@ -38,8 +48,12 @@ public class AdvancePaymentServiceImpl implements AdvancePaymentService {
     private final PaymentRepository paymentRepository;
     private final PatientRepository patientRepository;
     private final InvoiceRepository invoiceRepository;
-    private final InvoiceService invoiceService;
+    private final LedgerService ledgerService;
     private final InvoiceMapper invoiceMapper;
+    private final PaymentAllocationRepository paymentAllocationRepository;
+
+    private static final List<InvoiceStatus> OPEN_STATUSES =
+            List.of(InvoiceStatus.UNPAID, InvoiceStatus.PARTIALLY_PAID, InvoiceStatus.OVERDUE);
 
     private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
 
@@ -66,8 +80,9 @@ public class AdvancePaymentServiceImpl implements AdvancePaymentService {
 
         Payment savedPayment = paymentRepository.save(advancePayment);
 
-        // Recalculate patient balance
-        invoiceService.recalculatePatientBalance(request.patientId());
+        // Ledger entry for the received credit, which also updates the patient balance
+        ledgerService.record(patient.getId(), null, savedPayment,
+                LedgerEntryType.PAYMENT_RECEIPT, savedPayment.getAmount(), advancePayment.getDescription());
 
         log.info("Created advance payment {} for patient {}", savedPayment.getId(), patient.getId());
 
@@ -137,15 +152,13 @@ public class AdvancePaymentServiceImpl implements AdvancePaymentService {
             paymentRepository.save(advancePayment);
         }
 
-        // Update invoice status if fully paid
-        BigDecimal newRemainingAmount = remainingInvoiceAmount.subtract(amountToApply);
-        if (newRemainingAmount.compareTo(BigDecimal.ZERO) == 0) {
-            invoice.setStatus(InvoiceStatus.PAID);
-            invoiceRepository.save(invoice);
-        }
+        // Update the invoice totals and its status with them
+        invoice.applyAmountPaid(invoice.getAmountPaid().add(amountToApply));
+        invoiceRepository.save(invoice);
 
-        // Recalculate patient balance
-        invoiceService.recalculatePatientBalance(invoice.getPatient().getId());
+        // Moving credit onto an invoice does not change the balance
+        ledgerService.record(invoice.getPatient().getId(), invoice, advancePayment,
+                LedgerEntryType.CREDIT_APPLIED, amountToApply, "Advance payment applied");
 
         log.info("Applied advance payment {} to invoice {}", advancePayment.getId(), invoice.getInvoiceNumber());
 
@@ -189,22 +202,16 @@ public class AdvancePaymentServiceImpl implements AdvancePaymentService {
         Patient patient = patientRepository.findById(patientId)
                 .orElseThrow(() -> new NotFoundException("Patient not found with id: " + patientId));
 
-        BigDecimal totalCredits = paymentRepository.calculateTotalCredit(patientId);
-        BigDecimal availableCredits = paymentRepository.calculateAvailableCredit(patientId);
-        BigDecimal appliedCredits = totalCredits.subtract(availableCredits);
-
-        List<Payment> allCredits = paymentRepository.findUnappliedAdvancePayments(patientId, PaymentType.CREDIT);
-        int totalAdvancePayments = (int) paymentRepository.findByPatientIdAndTypeOrderByPaymentDateDesc(patientId, PaymentType.CREDIT, Pageable.unpaged()).getTotalElements();
-        int unappliedAdvancePayments = allCredits.size();
+        PaymentRepository.CreditTotals totals = paymentRepository.calculateCreditTotals(patientId);
 
         return new PatientCreditBalanceDto(
                 patient.getId(),
                 patient.getFullName(),
-                totalCredits,
-                appliedCredits,
-                availableCredits,
-                totalAdvancePayments,
-                unappliedAdvancePayments
+                totals.getTotalAmount(),
+                totals.getTotalAmount().subtract(totals.getAvailableAmount()),
+                totals.getAvailableAmount(),
+                (int) totals.getTotalCount(),
+                (int) totals.getAvailableCount()
         );
     }
 
@@ -220,33 +227,136 @@ public class AdvancePaymentServiceImpl implements AdvancePaymentService {
             throw new BusinessRuleException("Cannot apply payments to " + invoice.getStatus().toString().toLowerCase() + " invoice");
         }
 
-        BigDecimal remainingAmount = calculateRemainingInvoiceAmount(invoice);
-        List<Payment> availableCredits = paymentRepository.findUnappliedAdvancePayments(invoice.getPatient().getId(), PaymentType.CREDIT);
+        CreditApplicationResultDto result = applyCredits(invoice.getPatient().getId(), List.of(invoice),
+                CreditAllocationPolicy.FIFO);
 
-        BigDecimal totalApplied = BigDecimal.ZERO;
+        log.info("Auto-applied {} in advance payments to invoice {}", result.appliedAmount(), invoice.getInvoiceNumber());
 
-        for (Payment credit : availableCredits) {
-            if (remainingAmount.compareTo(BigDecimal.ZERO) <= 0) {
-                break;
-            }
+        return invoiceMapper.toFinancialRecordDto(invoice);
+    }
+
+    @Override
+    @Transactional
+    public CreditApplicationResultDto autoApplyCredits(UUID patientId, CreditAllocationPolicy policy) {
+        log.debug("Auto-applying credits of patient {} with policy {}", patientId, policy);
 
-            BigDecimal amountToApply = credit.getAmount().min(remainingAmount);
+        if (!patientRepository.existsById(patientId)) {
+            throw new NotFoundException("Patient not found with id: " + patientId);
+        }
 
-            ApplyAdvancePaymentRequest applyRequest = new ApplyAdvancePaymentRequest(
-                    credit.getId(),
-                    invoiceId,
-                    amountToApply
-            );
+        List<Invoice> invoices = invoiceRepository.findOpenInvoicesForUpdate(patientId, OPEN_STATUSES);
+        CreditApplicationResultDto result = applyCredits(patientId, invoices, policy);
 
-            applyAdvancePaymentToInvoice(applyRequest);
+        log.info("Auto-applied {} in credits of patient {} to {} invoices ({} credit left)", result.appliedAmount(),
+                patientId, result.allocations().stream().map(CreditApplicationResultDto.Allocation::invoiceId).distinct().count(),
+                result.remainingCredit());
+        return result;
+    }
 
-            totalApplied = totalApplied.add(amountToApply);
-            remainingAmount = remainingAmount.subtract(amountToApply);
+    /**
+     * Applies the unapplied credits of a patient to the given invoices as planned by
+     * {@link CreditAllocationPlanner}. A credit keeps its first allocation; every further allocation
+     * and any amount left over become credits of their own, since a payment is applied to one invoice
+     * at most. Allocation rows, payments and ledger entries are written in batches, and each invoice
+     * is updated once with the total it received.
+     */
+    private CreditApplicationResultDto applyCredits(UUID patientId, List<Invoice> invoices, CreditAllocationPolicy policy) {
+        List<Payment> credits = paymentRepository.findUnappliedAdvancePaymentsForUpdate(patientId);
+        Map<UUID, Payment> creditsById = credits.stream()
+                .collect(Collectors.toMap(Payment::getId, Function.identity()));
+        Map<UUID, Invoice> invoicesById = invoices.stream()
+                .collect(Collectors.toMap(Invoice::getId, Function.identity()));
+
+        List<CreditAllocationPlanner.Allocation> plan = CreditAllocationPlanner.plan(
+                credits.stream()
+                        .map(c -> new CreditAllocationPlanner.Credit(c.getId(), c.getPaymentDate(), c.getAmount()))
+                        .toList(),
+                invoices.stream()
+                        .map(i -> new CreditAllocationPlanner.OpenInvoice(i.getId(), i.getIssueDate(), i.getDueDate(),
+                                i.getAmountDue()))
+                        .toList(),
+                policy);
+
+        Map<UUID, BigDecimal> creditLeft = new LinkedHashMap<>();
+        Map<UUID, BigDecimal> appliedByInvoice = new LinkedHashMap<>();
+        List<Payment> newPayments = new ArrayList<>();
+        List<PaymentAllocation> allocations = new ArrayList<>();
+        List<LedgerEntry> ledgerEntries = new ArrayList<>();
+        BigDecimal totalCredit = credits.stream().map(Payment::getAmount).reduce(BigDecimal.ZERO, BigDecimal::add);
+        BigDecimal appliedAmount = BigDecimal.ZERO;
+
+        for (CreditAllocationPlanner.Allocation step : plan) {
+            Payment credit = creditsById.get(step.creditId());
+            Invoice invoice = invoicesById.get(step.invoiceId());
+
+            Payment payment;
+            if (creditLeft.containsKey(credit.getId())) {
+                payment = splitCredit(credit, step.amount(), "Credit applied from advance payment");
+                newPayments.add(payment);
+            } else {
+                creditLeft.put(credit.getId(), credit.getAmount());
+                payment = credit;
+                payment.setAmount(step.amount());
+            }
+            payment.setInvoice(invoice);
+            creditLeft.merge(credit.getId(), step.amount().negate(), BigDecimal::add);
+
+            PaymentAllocation allocation = new PaymentAllocation();
+            allocation.setPayment(payment);
+            allocation.setInvoice(invoice);
+            allocation.setAllocatedAmount(step.amount());
+            allocations.add(allocation);
+
+            // Moving credit onto an invoice does not change the balance
+            LedgerEntry entry = new LedgerEntry();
+            entry.setPatient(credit.getPatient());
+            entry.setInvoice(invoice);
+            entry.setPayment(payment);
+            entry.setEntryType(LedgerEntryType.CREDIT_APPLIED);
+            entry.setAmount(step.amount());
+            entry.setDescription("Advance payment applied");
+            ledgerEntries.add(entry);
+
+            appliedByInvoice.merge(invoice.getId(), step.amount(), BigDecimal::add);
+            appliedAmount = appliedAmount.add(step.amount());
         }
 
-        log.info("Auto-applied {} in advance payments to invoice {}", totalApplied, invoice.getInvoiceNumber());
+        creditLeft.forEach((creditId, left) -> {
+            if (left.signum() > 0) {
+                newPayments.add(splitCredit(creditsById.get(creditId), left, "Remaining credit from partial application"));
+            }
+        });
+        appliedByInvoice.forEach((invoiceId, amount) -> {
+            Invoice invoice = invoicesById.get(invoiceId);
+            invoice.applyAmountPaid(invoice.getAmountPaid().add(amount));
+        });
+
+        paymentRepository.saveAll(newPayments);
+        paymentAllocationRepository.saveAll(allocations);
+        ledgerService.recordAll(ledgerEntries);
+
+        List<CreditApplicationResultDto.Allocation> applied = allocations.stream()
+                .map(a -> new CreditApplicationResultDto.Allocation(a.getPayment().getId(), a.getInvoice().getId(),
+                        a.getInvoice().getInvoiceNumber(), a.getAllocatedAmount()))
+                .toList();
+        return new CreditApplicationResultDto(patientId, policy, appliedAmount, totalCredit.subtract(appliedAmount),
+                applied);
+    }
 
-        return invoiceMapper.toFinancialRecordDto(invoiceRepository.findById(invoiceId).orElseThrow());
+    /**
+     * Creates a credit of the given amount with the origin of an existing one.
+     */
+    private Payment splitCredit(Payment credit, BigDecimal amount, String description) {
+        Payment split = new Payment();
+        split.setPatient(credit.getPatient());
+        split.setAmount(amount);
+        split.setPaymentDate(credit.getPaymentDate());
+        split.setPaymentMethod(credit.getPaymentMethod());
+        split.setType(PaymentType.CREDIT);
+        split.setDescription(description);
+        split.setReferenceNumber(credit.getReferenceNumber());
+        split.setCreatedBy(credit.getCreatedBy());
+        return split;
     }
 
     private BigDecimal calculateRemainingInvoiceAmount(Invoice invoice) {
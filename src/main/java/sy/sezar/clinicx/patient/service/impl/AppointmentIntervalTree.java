@@ -0,0 +1,93 @@
+package sy.sezar.clinicx.patient.service.impl;
+
+import sy.sezar.clinicx.patient.dto.BookedSlotDto;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Immutable interval tree of the booked slots of one doctor, answering which slots overlap a
+ * half-open range [start, end).
+ * The slots are kept sorted by start in an array, read as a balanced binary search tree whose
+ * root is the middle element; each node also records the latest end within its subtree, so a
+ * search skips every subtree that ends before the range starts.
+ */
+final class AppointmentIntervalTree {
+
+    private static final AppointmentIntervalTree EMPTY = new AppointmentIntervalTree(List.of());
+
+    private final BookedSlotDto[] slots;
+    private final long[] starts;
+    private final long[] ends;
+    private final long[] maxEnds;
+
+    private AppointmentIntervalTree(Collection<BookedSlotDto> slots) {
+        this.slots = slots.stream()
+            .sorted(Comparator.comparing(BookedSlotDto::startDateTime))
+            .toArray(BookedSlotDto[]::new);
+        this.starts = new long[this.slots.length];
+        this.ends = new long[this.slots.length];
+        this.maxEnds = new long[this.slots.length];
+        for (int i = 0; i < this.slots.length; i++) {
+            starts[i] = this.slots[i].startDateTime().toEpochMilli();
+            ends[i] = this.slots[i].endDateTime().toEpochMilli();
+        }
+        computeMaxEnds(0, this.slots.length);
+    }
+
+    static AppointmentIntervalTree of(Collection<BookedSlotDto> slots) {
+        return slots.isEmpty() ? EMPTY : new AppointmentIntervalTree(slots);
+    }
+
+    int size() {
+        return slots.length;
+    }
+
+    /**
+     * Returns all slots of the tree, ordered by start.
+     */
+    List<BookedSlotDto> slots() {
+        return List.of(slots);
+    }
+
+    /**
+     * Returns the slots overlapping [start, end), ordered by start. Slots that only touch the
+     * range, ending at its start or starting at its end, do not overlap it.
+     */
+    List<BookedSlotDto> overlapping(Instant start, Instant end) {
+        List<BookedSlotDto> overlapping = new ArrayList<>();
+        collect(0, slots.length, start.toEpochMilli(), end.toEpochMilli(), overlapping);
+        return overlapping;
+    }
+
+    private long computeMaxEnds(int from, int to) {
+        if (from >= to) {
+            return Long.MIN_VALUE;
+        }
+        int mid = (from + to) >>> 1;
+        long maxEnd = Math.max(ends[mid], Math.max(computeMaxEnds(from, mid), computeMaxEnds(mid + 1, to)));
+        maxEnds[mid] = maxEnd;
+        return maxEnd;
+    }
+
+    private void collect(int from, int to, long start, long end, List<BookedSlotDto> overlapping) {
+        if (from >= to) {
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        if (maxEnds[mid] <= start) {
+            return;
+        }
+        collect(from, mid, start, end, overlapping);
+        // The right subtree starts no earlier than this node, so it is done with once this one starts too late
+        if (starts[mid] < end) {
+            if (ends[mid] > start) {
+                overlapping.add(slots[mid]);
+            }
+            collect(mid + 1, to, start, end, overlapping);
+        }
+    }
+}
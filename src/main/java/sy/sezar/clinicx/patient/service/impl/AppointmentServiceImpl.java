@@ -5,6 +5,7 @@ import java.util.Optional;
 import java.util.Set;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.access.AccessDeniedException;
@@ -13,17 +14,23 @@ import org.springframework.transaction.annotation.Transactional;
 import sy.sezar.clinicx.clinic.model.Staff;
 import sy.sezar.clinicx.clinic.model.enums.StaffRole;
 import sy.sezar.clinicx.core.exception.BusinessRuleException;
+import sy.sezar.clinicx.core.exception.ConflictException;
 import sy.sezar.clinicx.core.exception.NotFoundException;
 import sy.sezar.clinicx.core.exception.NotValidValueException;
 import sy.sezar.clinicx.core.security.SecurityUtils;
 import sy.sezar.clinicx.patient.dto.AppointmentCardDto;
 import sy.sezar.clinicx.patient.dto.AppointmentCreateRequest;
+import sy.sezar.clinicx.patient.dto.AppointmentRescheduleRequest;
+import sy.sezar.clinicx.patient.dto.BookedSlotDto;
 import sy.sezar.clinicx.patient.dto.UpcomingAppointmentDto;
 import sy.sezar.clinicx.patient.mapper.AppointmentMapper;
 import sy.sezar.clinicx.patient.model.Appointment;
+import sy.sezar.clinicx.patient.model.enums.AppointmentStatus;
 import sy.sezar.clinicx.patient.repository.AppointmentRepository;
 import sy.sezar.clinicx.patient.repository.PatientRepository;
 import sy.sezar.clinicx.patient.service.AppointmentService;
+import sy.sezar.clinicx.patient.service.DoctorAvailabilityService;
+import sy.sezar.clinicx.patient.service.DoctorScheduleIndex;
 import sy.sezar.clinicx.clinic.repository.SpecialtyRepository;
 import sy.sezar.clinicx.clinic.repository.StaffRepository;
 import sy.sezar.clinicx.tenant.TenantContext;
@@ -51,6 +58,12 @@ public class AppointmentServiceImpl implements AppointmentService {
     private final PatientRepository patientRepository;
     private final SpecialtyRepository specialtyRepository;
     private final StaffRepository staffRepository;
+    private final DoctorScheduleIndex doctorScheduleIndex;
+    private final DoctorAvailabilityService doctorAvailabilityService;
+
+    /** Name of the exclusion constraint keeping a doctor's appointments from overlapping. */
+    static final String DOCTOR_OVERLAP_CONSTRAINT = "excl_appointments_doctor_overlap";
+    private static final int DEFAULT_DURATION_MINUTES = 30;
 
     @Override
     @Transactional
@@ -60,8 +73,11 @@ public class AppointmentServiceImpl implements AppointmentService {
         // Validate appointment date/time
         validateAppointmentDateTime(request.appointmentDatetime());
 
-        // TODO: Add availability validation when doctor schedules are implemented
-        // validateAppointmentAvailability(request);
+        AppointmentStatus status = request.status() != null ? request.status() : AppointmentStatus.SCHEDULED;
+        int durationMinutes = request.durationMinutes() != null ? request.durationMinutes() : DEFAULT_DURATION_MINUTES;
+        if (status.occupiesSlot()) {
+            validateAppointmentAvailability(request.doctorId(), request.appointmentDatetime(), durationMinutes, null);
+        }
 
         Appointment appointment = appointmentMapper.toEntity(request);
 
@@ -82,15 +98,76 @@ public class AppointmentServiceImpl implements AppointmentService {
         }
 
         if (request.status() == null) {
-            appointment.setStatus(sy.sezar.clinicx.patient.model.enums.AppointmentStatus.SCHEDULED);
+            appointment.setStatus(AppointmentStatus.SCHEDULED);
         }
 
-        Appointment savedAppointment = appointmentRepository.save(appointment);
+        Appointment savedAppointment = saveBooking(appointment);
         log.info("Created appointment with id: {}", savedAppointment.getId());
 
         return appointmentMapper.toAppointmentCardDto(savedAppointment);
     }
 
+    @Override
+    @Transactional
+    public AppointmentCardDto rescheduleAppointment(UUID appointmentId, AppointmentRescheduleRequest request) {
+        log.info("Rescheduling appointment {} to {}", appointmentId, request.appointmentDatetime());
+
+        Appointment appointment = findAppointment(appointmentId);
+        if (!appointment.getStatus().occupiesSlot() || appointment.getStatus() == AppointmentStatus.COMPLETED) {
+            throw new BusinessRuleException(
+                String.format("Cannot reschedule an appointment with status %s", appointment.getStatus()));
+        }
+        validateAppointmentDateTime(request.appointmentDatetime());
+
+        int durationMinutes = request.durationMinutes() != null
+            ? request.durationMinutes() : appointment.getDurationMinutes();
+        Staff doctor = appointment.getDoctor();
+        if (request.doctorId() != null && (doctor == null || !request.doctorId().equals(doctor.getId()))) {
+            doctor = staffRepository.findById(request.doctorId())
+                .orElseThrow(() -> new NotFoundException("Doctor not found with id: " + request.doctorId()));
+        }
+        validateAppointmentAvailability(doctor != null ? doctor.getId() : null,
+            request.appointmentDatetime(), durationMinutes, appointmentId);
+
+        releaseSchedule(appointment);
+        appointment.setDoctor(doctor);
+        appointment.setAppointmentDatetime(request.appointmentDatetime());
+        appointment.setDurationMinutes(durationMinutes);
+
+        Appointment savedAppointment = saveBooking(appointment);
+        log.info("Rescheduled appointment {} to {}", appointmentId, savedAppointment.getAppointmentDatetime());
+
+        return appointmentMapper.toAppointmentCardDto(savedAppointment);
+    }
+
+    @Override
+    @Transactional
+    public AppointmentCardDto cancelAppointment(UUID appointmentId) {
+        log.info("Cancelling appointment {}", appointmentId);
+
+        Appointment appointment = findAppointment(appointmentId);
+        if (appointment.getStatus() == AppointmentStatus.COMPLETED) {
+            throw new BusinessRuleException("Cannot cancel a completed appointment");
+        }
+        if (appointment.getStatus() != AppointmentStatus.CANCELLED) {
+            releaseSchedule(appointment);
+            appointment.setStatus(AppointmentStatus.CANCELLED);
+        }
+
+        return appointmentMapper.toAppointmentCardDto(appointment);
+    }
+
+    @Override
+    public List<BookedSlotDto> findDoctorConflicts(UUID doctorId, Instant startDateTime, int durationMinutes) {
+        log.debug("Checking conflicts of doctor {} at {} for {} minutes", doctorId, startDateTime, durationMinutes);
+        if (durationMinutes <= 0) {
+            throw new NotValidValueException("durationMinutes", durationMinutes,
+                "Positive number of minutes", "Appointment duration must be positive");
+        }
+        return doctorScheduleIndex.findOverlapping(doctorId, startDateTime,
+            startDateTime.plus(Duration.ofMinutes(durationMinutes)));
+    }
+
     @Override
     public List<AppointmentCardDto> getAppointmentsByDateRange(Instant startDateTime, Instant endDateTime) {
         log.info("Getting appointments between {} and {}", startDateTime, endDateTime);
@@ -141,16 +218,67 @@ public class AppointmentServiceImpl implements AppointmentService {
     public AppointmentCardDto findAppointmentById(UUID appointmentId) {
         log.info("Finding appointment by ID: {}", appointmentId);
 
-        Appointment appointment = appointmentRepository.findById(appointmentId)
+        Appointment appointment = findAppointment(appointmentId);
+
+        log.debug("Found appointment for patient: {} at: {}",
+                appointment.getPatient().getId(), appointment.getAppointmentDatetime());
+
+        return appointmentMapper.toAppointmentCardDto(appointment);
+    }
+
+    private Appointment findAppointment(UUID appointmentId) {
+        return appointmentRepository.findById(appointmentId)
                 .orElseThrow(() -> {
                     log.error("Appointment not found with ID: {}", appointmentId);
                     return new NotFoundException("Appointment not found with ID: " + appointmentId);
                 });
+    }
 
-        log.debug("Found appointment for patient: {} at: {}",
-                appointment.getPatient().getId(), appointment.getAppointmentDatetime());
+    /**
+     * Saves a booked appointment, flushing it so that an overlap the database rejects is reported
+     * as a conflict, and reports the time it books to the schedule index and free-slot search.
+     */
+    private Appointment saveBooking(Appointment appointment) {
+        invalidateSchedule(appointment);
+        Appointment savedAppointment;
+        try {
+            savedAppointment = appointmentRepository.saveAndFlush(appointment);
+        } catch (DataIntegrityViolationException e) {
+            if (e.getMessage() != null && e.getMessage().contains(DOCTOR_OVERLAP_CONSTRAINT)) {
+                log.warn("Overlapping booking of doctor {} at {} rejected by the database",
+                    appointment.getDoctor().getId(), appointment.getAppointmentDatetime());
+                throw new ConflictException("The doctor already has an appointment at this time", e);
+            }
+            throw e;
+        }
+        if (savedAppointment.getDoctor() != null && savedAppointment.getStatus().occupiesSlot()) {
+            Instant start = savedAppointment.getAppointmentDatetime();
+            doctorAvailabilityService.appointmentBooked(savedAppointment.getId(), savedAppointment.getDoctor().getId(),
+                start, start.plus(Duration.ofMinutes(savedAppointment.getDurationMinutes())));
+        }
+        return savedAppointment;
+    }
 
-        return appointmentMapper.toAppointmentCardDto(appointment);
+    /**
+     * Reports that an appointment no longer books the time it was saved with, before it is
+     * moved or cancelled.
+     */
+    private void releaseSchedule(Appointment appointment) {
+        invalidateSchedule(appointment);
+        if (appointment.getDoctor() != null) {
+            Instant start = appointment.getAppointmentDatetime();
+            doctorAvailabilityService.appointmentReleased(appointment.getId(), appointment.getDoctor().getId(),
+                start, start.plus(Duration.ofMinutes(appointment.getDurationMinutes())));
+        }
+    }
+
+    private void invalidateSchedule(Appointment appointment) {
+        if (appointment.getDoctor() == null) {
+            return;
+        }
+        Instant start = appointment.getAppointmentDatetime();
+        doctorScheduleIndex.invalidate(appointment.getDoctor().getId(), start,
+            start.plus(Duration.ofMinutes(appointment.getDurationMinutes())));
     }
 
     /**
@@ -209,14 +337,23 @@ public class AppointmentServiceImpl implements AppointmentService {
     }
 
     /**
-     * Validates appointment availability (to be implemented when doctor schedules are available).
+     * Validates that the doctor has no other appointment overlapping the requested time.
+     * Appointments without a doctor are not checked.
      */
-    private void validateAppointmentAvailability(AppointmentCreateRequest request) {
-        // TODO: Implement when doctor schedule functionality is available
-        // - Check if doctor is available at the requested time
-        // - Check for conflicts with existing appointments
-        // - Check clinic operating hours
-        log.debug("Appointment availability validation not yet implemented");
+    private void validateAppointmentAvailability(UUID doctorId, Instant appointmentDateTime, int durationMinutes,
+                                                 UUID appointmentId) {
+        if (doctorId == null) {
+            return;
+        }
+        List<BookedSlotDto> conflicts = doctorScheduleIndex.findOverlapping(doctorId, appointmentDateTime,
+                appointmentDateTime.plus(Duration.ofMinutes(durationMinutes))).stream()
+            .filter(slot -> !slot.appointmentId().equals(appointmentId))
+            .toList();
+        if (!conflicts.isEmpty()) {
+            BookedSlotDto conflict = conflicts.get(0);
+            throw new ConflictException(String.format(
+                "The doctor already has an appointment from %s to %s", conflict.startDateTime(), conflict.endDateTime()));
+        }
     }
 
   @Override
@@ -0,0 +1,171 @@
+package sy.sezar.clinicx.patient.service.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import sy.sezar.clinicx.core.exception.NotFoundException;
+import sy.sezar.clinicx.patient.dto.BalanceReconciliationResultDto;
+import sy.sezar.clinicx.patient.model.enums.LedgerEntryType;
+import sy.sezar.clinicx.patient.repository.PatientRepository;
+import sy.sezar.clinicx.patient.service.BalanceReconciliationService;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Implementation of BalanceReconciliationService.
+ * The ledger sum is computed by the database with one grouped query over ledger_entries; the
+ * balance effect of each entry type comes from {@link LedgerEntryType}, the same rule used when
+ * the entries are recorded.
+ * Balances are only overwritten after the patient rows are locked, so an entry recorded
+ * concurrently either finished before the ledger is summed or waits until the balance is written.
+ */
+@Slf4j
+@Service
+public class BalanceReconciliationServiceImpl implements BalanceReconciliationService {
+
+    private static final int MAX_REPORTED_MISMATCHES = 100;
+
+    private static final int REPAIR_BATCH_SIZE = 500;
+
+    private static final String LEDGER_DELTA_SQL = ledgerDeltaSql();
+
+    private static final String MISMATCH_SQL = """
+        SELECT p.id, p.balance, COALESCE(l.ledger_balance, 0) AS ledger_balance
+        FROM patients p
+        LEFT JOIN (
+            SELECT patient_id, SUM(%s) AS ledger_balance
+            FROM ledger_entries
+            GROUP BY patient_id
+        ) l ON l.patient_id = p.id
+        WHERE p.balance <> COALESCE(l.ledger_balance, 0)
+        """.formatted(LEDGER_DELTA_SQL);
+
+    private static final String PATIENT_LEDGER_SQL =
+        "SELECT COALESCE(SUM(" + LEDGER_DELTA_SQL + "), 0) FROM ledger_entries WHERE patient_id = ?";
+
+    private static final String LOCK_PATIENT_SQL = "SELECT id FROM patients WHERE id = ? FOR UPDATE";
+
+    private static final String LOCK_PATIENTS_SQL = "SELECT id FROM patients WHERE id IN (:ids) ORDER BY id FOR UPDATE";
+
+    /** Sums the ledger in the statement after the lock, so the sum includes every entry committed before it. */
+    private static final String REPAIR_SQL = """
+        UPDATE patients
+        SET balance = (SELECT COALESCE(SUM(%1$s), 0) FROM ledger_entries WHERE patient_id = patients.id)
+        WHERE id IN (:ids)
+          AND balance <> (SELECT COALESCE(SUM(%1$s), 0) FROM ledger_entries WHERE patient_id = patients.id)
+        """.formatted(LEDGER_DELTA_SQL);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final PatientRepository patientRepository;
+    private final Counter mismatchCounter;
+
+    @Value("${app.finance.balance-reconciliation.enabled:true}")
+    private boolean reconciliationEnabled;
+
+    @Value("${app.finance.balance-reconciliation.repair:false}")
+    private boolean repairOnSchedule;
+
+    public BalanceReconciliationServiceImpl(JdbcTemplate jdbcTemplate,
+                                            PatientRepository patientRepository,
+                                            MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.patientRepository = patientRepository;
+        this.mismatchCounter = Counter.builder("finance.balance.mismatches")
+            .description("Patient balances found to differ from the ledger")
+            .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${app.finance.balance-reconciliation.cron:0 30 2 * * *}")
+    public void scheduledReconciliation() {
+        if (!reconciliationEnabled) {
+            return;
+        }
+        BalanceReconciliationResultDto result = reconcileAll(repairOnSchedule);
+        if (result.mismatchCount() > 0) {
+            log.warn("Balance reconciliation found {} patients whose balance differs from the ledger ({} repaired)",
+                result.mismatchCount(), result.repairedCount());
+        } else {
+            log.info("Balance reconciliation found no mismatches");
+        }
+    }
+
+    @Override
+    @Transactional
+    public BalanceReconciliationResultDto reconcileAll(boolean repair) {
+        List<BalanceReconciliationResultDto.Mismatch> mismatches = new ArrayList<>();
+        int[] mismatchCount = {0};
+
+        jdbcTemplate.query(MISMATCH_SQL, rs -> {
+            mismatchCount[0]++;
+            BalanceReconciliationResultDto.Mismatch mismatch = new BalanceReconciliationResultDto.Mismatch(
+                rs.getObject(1, UUID.class), rs.getBigDecimal(2), rs.getBigDecimal(3));
+            if (repair || mismatches.size() < MAX_REPORTED_MISMATCHES) {
+                mismatches.add(mismatch);
+            }
+        });
+        mismatchCounter.increment(mismatchCount[0]);
+
+        int repaired = 0;
+        if (repair && !mismatches.isEmpty()) {
+            // Batches take their locks in patient order, the order LedgerService#recordAll locks in
+            List<UUID> patientIds = mismatches.stream()
+                .map(BalanceReconciliationResultDto.Mismatch::patientId)
+                .sorted(LedgerServiceImpl.PATIENT_LOCK_ORDER)
+                .toList();
+            for (int from = 0; from < patientIds.size(); from += REPAIR_BATCH_SIZE) {
+                Map<String, List<UUID>> ids = Map.of("ids",
+                    patientIds.subList(from, Math.min(from + REPAIR_BATCH_SIZE, patientIds.size())));
+                namedJdbcTemplate.queryForList(LOCK_PATIENTS_SQL, ids, UUID.class);
+                // Balances brought back in line by an entry committed meanwhile are left alone
+                repaired += namedJdbcTemplate.update(REPAIR_SQL, ids);
+            }
+        }
+
+        List<BalanceReconciliationResultDto.Mismatch> reported = mismatches.size() > MAX_REPORTED_MISMATCHES
+            ? List.copyOf(mismatches.subList(0, MAX_REPORTED_MISMATCHES))
+            : List.copyOf(mismatches);
+        return new BalanceReconciliationResultDto(mismatchCount[0], repaired, reported, Instant.now());
+    }
+
+    @Override
+    @Transactional
+    public BigDecimal rebuildBalance(UUID patientId) {
+        if (jdbcTemplate.queryForList(LOCK_PATIENT_SQL, UUID.class, patientId).isEmpty()) {
+            throw new NotFoundException("Patient not found with ID: " + patientId);
+        }
+        BigDecimal balance = jdbcTemplate.queryForObject(PATIENT_LEDGER_SQL, BigDecimal.class, patientId);
+        patientRepository.updateBalance(patientId, balance);
+        log.debug("Rebuilt balance of patient {} from the ledger: {}", patientId, balance);
+        return balance;
+    }
+
+    /**
+     * Builds the SQL expression for the balance change of one ledger row from the entry types.
+     */
+    static String ledgerDeltaSql() {
+        String cases = Arrays.stream(LedgerEntryType.values())
+            .map(type -> "WHEN '" + type.name() + "' THEN " + switch (type.getBalanceEffect()) {
+                case INCREASE -> "ABS(amount)";
+                case DECREASE -> "-ABS(amount)";
+                case SIGNED -> "amount";
+                case NONE -> "0";
+            })
+            .collect(Collectors.joining(" "));
+        return "CASE entry_type " + cases + " ELSE 0 END";
+    }
+}
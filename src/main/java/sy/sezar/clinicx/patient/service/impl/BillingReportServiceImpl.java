@@ -2,24 +2,48 @@ package sy.sezar.clinicx.patient.service.impl;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import sy.sezar.clinicx.core.exception.BusinessRuleException;
+import sy.sezar.clinicx.core.export.ExportFormat;
+import sy.sezar.clinicx.core.export.TableWriter;
 import sy.sezar.clinicx.patient.dto.*;
-import sy.sezar.clinicx.patient.repository.*;
-import sy.sezar.clinicx.clinic.repository.StaffRepository;
+import sy.sezar.clinicx.patient.model.enums.BillingReportType;
+import sy.sezar.clinicx.patient.model.enums.LedgerEntryType;
 import sy.sezar.clinicx.patient.service.BillingReportService;
 
-import jakarta.persistence.EntityManager;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.IsoFields;
 import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Comprehensive implementation of BillingReportService for generating billing and financial reports.
  * Provides advanced analytics, revenue tracking, and financial insights.
+ * <p>
+ * Each report is computed by the database in a single statement: the sections of a report are
+ * grouped aggregations joined with UNION ALL into one common row shape ({@link ReportRow}), so a
+ * report costs one round-trip regardless of the number of invoices and payments it covers.
  */
 @Slf4j
 @Service
@@ -27,13 +51,34 @@ import java.util.*;
 @Transactional(readOnly = true)
 public class BillingReportServiceImpl implements BillingReportService {
 
-    private final InvoiceRepository invoiceRepository;
-    private final PaymentRepository paymentRepository;
-    private final PatientRepository patientRepository;
-    private final VisitRepository visitRepository;
-    private final StaffRepository staffRepository;
-    private final ProcedureRepository procedureRepository;
-    private final EntityManager entityManager;
+    /** Invoices that count as billed. */
+    private static final String BILLED_INVOICE = "i.status NOT IN ('CANCELLED', 'DRAFT')";
+
+    /** Payments and refunds that count as money moved. */
+    private static final String COUNTED_PAYMENT = "p.status NOT IN ('FAILED', 'CANCELLED', 'VOIDED')";
+
+    /** Money moved by a payment row; refunds are stored as negative amounts. */
+    private static final String MOVED_AMOUNT = "CASE WHEN p.type = 'REFUND' THEN ABS(p.amount) ELSE p.amount END";
+
+    private static final String UNPAID_STATUSES = "('UNPAID', 'PARTIALLY_PAID', 'OVERDUE')";
+
+    /** Column list of the first branch of every report statement; later branches follow its order. */
+    private static final String ROW_COLUMNS = """
+        CAST(%s AS VARCHAR(30)) AS section,
+        CAST(%s AS VARCHAR(255)) AS k1, CAST(%s AS VARCHAR(255)) AS k2,
+        CAST(%s AS VARCHAR(255)) AS k3, CAST(%s AS VARCHAR(255)) AS k4,
+        CAST(%s AS DATE) AS bucket, CAST(%s AS TIMESTAMP) AS occurred,
+        CAST(%s AS DECIMAL(19, 2)) AS a1, CAST(%s AS DECIMAL(19, 2)) AS a2, CAST(%s AS DECIMAL(19, 2)) AS a3,
+        CAST(%s AS BIGINT) AS c1, CAST(%s AS BIGINT) AS c2, CAST(%s AS BIGINT) AS c3""";
+
+    private static final String UNASSIGNED_STAFF = "Unassigned";
+    private static final int TOP_DOCTORS = 3;
+    private static final int TOP_PROCEDURES = 5;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Value("${app.finance.export.fetch-size:1000}")
+    private int exportFetchSize = 1000;
 
     @Override
     @Transactional(readOnly = true)
@@ -41,8 +86,109 @@ public class BillingReportServiceImpl implements BillingReportService {
                                                   String groupBy, boolean includeProcedureBreakdown,
                                                   boolean includeDoctorBreakdown) {
         log.info("Generating revenue report from {} to {}", startDate, endDate);
-        // TODO: Implement when DTO structure is finalized
-        return null;
+        validateRange(startDate, endDate);
+        Period period = Period.fromGroupBy(groupBy);
+
+        StringBuilder sql = new StringBuilder("""
+            WITH inv AS (
+                SELECT i.id, i.total_amount, %s AS period_start,
+                       GREATEST(i.total_amount - COALESCE(i.amount_paid, 0), 0) AS outstanding
+                FROM invoices i
+                WHERE i.issue_date BETWEEN :startDate AND :endDate AND %s
+            ), pay AS (
+                SELECT %s AS amount, p.type, %s AS period_start
+                FROM payments p
+                WHERE p.payment_date BETWEEN :startDate AND :endDate AND %s
+            )
+            SELECT %s
+            FROM inv
+            GROUP BY period_start
+            UNION ALL
+            SELECT 'PAYMENTS', NULL, NULL, NULL, NULL, period_start, NULL,
+                   SUM(CASE WHEN type = 'PAYMENT' THEN amount ELSE 0 END),
+                   SUM(CASE WHEN type = 'REFUND' THEN amount ELSE 0 END), 0,
+                   COUNT(CASE WHEN type = 'PAYMENT' THEN 1 END), 0, 0
+            FROM pay
+            GROUP BY period_start
+            """.formatted(period.bucket("i.issue_date"), BILLED_INVOICE,
+                MOVED_AMOUNT, period.bucket("p.payment_date"), COUNTED_PAYMENT,
+                row("'INVOICES'", null, null, null, null, "period_start", null,
+                    "SUM(total_amount)", "SUM(outstanding)", "0", "COUNT(*)", "0", "0")));
+        if (includeProcedureBreakdown) {
+            sql.append("""
+                UNION ALL
+                SELECT 'PROCEDURE', pr.name, NULL, NULL, NULL, NULL, NULL, SUM(ii.amount), 0, 0, COUNT(*), 0, 0
+                FROM inv
+                JOIN invoice_items ii ON ii.invoice_id = inv.id
+                JOIN procedures pr ON pr.id = ii.procedure_id
+                GROUP BY pr.name
+                UNION ALL
+                SELECT 'SPECIALTY', sp.name, NULL, NULL, NULL, NULL, NULL, SUM(ii.amount), 0, 0, COUNT(*), 0, 0
+                FROM inv
+                JOIN invoice_items ii ON ii.invoice_id = inv.id
+                JOIN procedures pr ON pr.id = ii.procedure_id
+                JOIN visits v ON v.id = pr.visit_id
+                JOIN appointments a ON a.id = v.appointment_id
+                JOIN specialties sp ON sp.id = a.specialty_id
+                GROUP BY sp.name
+                """);
+        }
+        if (includeDoctorBreakdown) {
+            sql.append("""
+                UNION ALL
+                SELECT 'DOCTOR', s.full_name, NULL, NULL, NULL, NULL, NULL, SUM(ii.amount), 0, 0, COUNT(*), 0, 0
+                FROM inv
+                JOIN invoice_items ii ON ii.invoice_id = inv.id
+                JOIN procedures pr ON pr.id = ii.procedure_id
+                JOIN visits v ON v.id = pr.visit_id
+                JOIN staff s ON s.id = COALESCE(pr.performed_by_id, v.provider_id)
+                GROUP BY s.id, s.full_name
+                """);
+        }
+
+        List<ReportRow> rows = query(sql.toString(), range(startDate, endDate));
+
+        Map<LocalDate, PeriodTotals> periods = new TreeMap<>();
+        for (ReportRow row : rows) {
+            if (row.section().equals("INVOICES")) {
+                PeriodTotals totals = periods.computeIfAbsent(row.day(), day -> new PeriodTotals());
+                totals.revenue = row.a1();
+                totals.outstanding = row.a2();
+                totals.invoiceCount = row.c1();
+            } else if (row.section().equals("PAYMENTS")) {
+                PeriodTotals totals = periods.computeIfAbsent(row.day(), day -> new PeriodTotals());
+                totals.collected = row.a1();
+                totals.refunded = row.a2();
+                totals.paymentCount = row.c1();
+            }
+        }
+
+        List<RevenueReportDto.RevenueByPeriod> revenueByPeriod = periods.entrySet().stream()
+            .map(entry -> {
+                PeriodTotals totals = entry.getValue();
+                return new RevenueReportDto.RevenueByPeriod(
+                    period.label(entry.getKey()), entry.getKey(), period.end(entry.getKey(), endDate),
+                    totals.revenue, totals.collected, totals.outstanding,
+                    (int) totals.invoiceCount, (int) totals.paymentCount);
+            })
+            .toList();
+
+        BigDecimal totalRevenue = sum(periods.values(), totals -> totals.revenue);
+        BigDecimal totalCollected = sum(periods.values(), totals -> totals.collected);
+        BigDecimal totalRefunded = sum(periods.values(), totals -> totals.refunded);
+
+        return new RevenueReportDto(
+            totalRevenue,
+            totalCollected,
+            sum(periods.values(), totals -> totals.outstanding),
+            totalRefunded,
+            totalCollected.subtract(totalRefunded),
+            startDate,
+            endDate,
+            revenueByPeriod,
+            amountsByKey(rows, "PROCEDURE"),
+            amountsByKey(rows, "DOCTOR"),
+            amountsByKey(rows, "SPECIALTY"));
     }
 
     @Override
@@ -52,9 +198,84 @@ public class BillingReportServiceImpl implements BillingReportService {
                                                           String sortBy, Pageable pageable) {
         log.debug("Getting outstanding balances with minBalance: {}", minBalance);
 
-        // TODO: Implement when repository methods and DTOs are available
-        List<PatientBalanceDto> balances = new ArrayList<>();
-        return new PageImpl<>(balances, pageable, 0);
+        String sortKey = sortBy != null ? sortBy.toUpperCase(Locale.ROOT) : "BALANCE";
+        String orderBy = switch (sortKey) {
+            case "BALANCE" -> "balance DESC, id";
+            case "NAME" -> "full_name, id";
+            case "LAST_PAYMENT_DATE" -> "last_payment_date DESC NULLS LAST, id";
+            default -> throw new BusinessRuleException("Unsupported sort for outstanding balances: " + sortBy);
+        };
+        String lastPayment = sortKey.equals("LAST_PAYMENT_DATE")
+            ? "(SELECT MAX(p.payment_date) FROM payments p WHERE p.patient_id = pt.id AND p.type = 'PAYMENT' AND "
+                + COUNTED_PAYMENT + ")"
+            : "CAST(NULL AS DATE)";
+
+        // The page of patients is chosen first, so the invoice, payment and ledger aggregates
+        // only cover the patients on the page
+        String sql = """
+            WITH page AS (
+                SELECT pt.id, pt.full_name, pt.public_facing_id, pt.phone_number, pt.email, pt.balance,
+                       %s AS last_payment_date, COUNT(*) OVER () AS total_rows
+                FROM patients pt
+                WHERE pt.is_active = TRUE AND pt.balance >= :minBalance %s
+                ORDER BY %s
+                LIMIT :limit OFFSET :offset
+            )
+            SELECT page.id, page.full_name, page.public_facing_id, page.phone_number, page.email, page.balance,
+                   COALESCE(inv.invoiced, 0) AS invoiced, COALESCE(pay.paid, 0) AS paid,
+                   COALESCE(cr.credits, 0) AS credits, pay.last_payment_date, inv.oldest_unpaid,
+                   COALESCE(inv.unpaid_count, 0) AS unpaid_count, page.total_rows
+            FROM page
+            LEFT JOIN (
+                SELECT i.patient_id, SUM(i.total_amount) AS invoiced,
+                       MIN(CASE WHEN i.status IN %s THEN i.issue_date END) AS oldest_unpaid,
+                       COUNT(CASE WHEN i.status IN %s THEN 1 END) AS unpaid_count
+                FROM invoices i
+                WHERE i.patient_id IN (SELECT id FROM page) AND %s
+                GROUP BY i.patient_id
+            ) inv ON inv.patient_id = page.id
+            LEFT JOIN (
+                SELECT p.patient_id, SUM(p.amount) AS paid, MAX(p.payment_date) AS last_payment_date
+                FROM payments p
+                WHERE p.patient_id IN (SELECT id FROM page) AND p.type = 'PAYMENT' AND %s
+                GROUP BY p.patient_id
+            ) pay ON pay.patient_id = page.id
+            LEFT JOIN (
+                SELECT l.patient_id, SUM(ABS(l.amount)) AS credits
+                FROM ledger_entries l
+                WHERE l.patient_id IN (SELECT id FROM page) AND l.entry_type = 'CREDIT_APPLIED'
+                GROUP BY l.patient_id
+            ) cr ON cr.patient_id = page.id
+            ORDER BY %s
+            """.formatted(lastPayment, includeZeroBalances ? "" : "AND pt.balance > 0", orderBy,
+                UNPAID_STATUSES, UNPAID_STATUSES, BILLED_INVOICE, COUNTED_PAYMENT, orderBy);
+
+        MapSqlParameterSource params = new MapSqlParameterSource()
+            .addValue("minBalance", minBalance != null ? minBalance : BigDecimal.ZERO)
+            .addValue("limit", pageable.isPaged() ? pageable.getPageSize() : Integer.MAX_VALUE)
+            .addValue("offset", pageable.isPaged() ? pageable.getOffset() : 0L);
+
+        LocalDate today = LocalDate.now();
+        long[] total = {0};
+        List<PatientBalanceDto> balances = jdbcTemplate.query(sql, params, (rs, rowNum) -> {
+            total[0] = rs.getLong("total_rows");
+            LocalDate lastPaymentDate = rs.getObject("last_payment_date", LocalDate.class);
+            return new PatientBalanceDto(
+                rs.getObject("id", UUID.class),
+                rs.getString("full_name"),
+                rs.getString("public_facing_id"),
+                rs.getString("phone_number"),
+                rs.getString("email"),
+                rs.getBigDecimal("balance"),
+                rs.getBigDecimal("invoiced"),
+                rs.getBigDecimal("paid"),
+                rs.getBigDecimal("credits"),
+                lastPaymentDate,
+                rs.getObject("oldest_unpaid", LocalDate.class),
+                rs.getInt("unpaid_count"),
+                lastPaymentDate != null ? (int) ChronoUnit.DAYS.between(lastPaymentDate, today) : 0);
+        });
+        return new PageImpl<>(balances, pageable, total[0]);
     }
 
     @Override
@@ -63,8 +284,69 @@ public class BillingReportServiceImpl implements BillingReportService {
                                                         boolean includePaymentMethods,
                                                         boolean includeDailyBreakdown) {
         log.info("Generating collection report from {} to {}", startDate, endDate);
-        // TODO: Implement when DTO structure is finalized
-        return null;
+        validateRange(startDate, endDate);
+
+        StringBuilder sql = new StringBuilder("""
+            SELECT %s
+            FROM invoices i
+            WHERE i.issue_date BETWEEN :startDate AND :endDate AND %s
+            GROUP BY i.issue_date
+            UNION ALL
+            SELECT 'PAYMENTS', NULL, NULL, NULL, NULL, p.payment_date, NULL, SUM(p.amount), 0, 0, COUNT(*), 0, 0
+            FROM payments p
+            WHERE p.payment_date BETWEEN :startDate AND :endDate AND p.type = 'PAYMENT' AND %s
+            GROUP BY p.payment_date
+            """.formatted(
+                row("'INVOICES'", null, null, null, null, "i.issue_date", null,
+                    "SUM(i.total_amount)", "SUM(GREATEST(i.total_amount - COALESCE(i.amount_paid, 0), 0))", "0",
+                    "COUNT(*)", "0", "0"),
+                BILLED_INVOICE, COUNTED_PAYMENT));
+        if (includePaymentMethods) {
+            sql.append("""
+                UNION ALL
+                SELECT 'METHOD', p.payment_method, NULL, NULL, NULL, NULL, NULL, SUM(p.amount), 0, 0, COUNT(*), 0, 0
+                FROM payments p
+                WHERE p.payment_date BETWEEN :startDate AND :endDate AND p.type = 'PAYMENT' AND %s
+                GROUP BY p.payment_method
+                """.formatted(COUNTED_PAYMENT));
+        }
+
+        List<ReportRow> rows = query(sql.toString(), range(startDate, endDate));
+
+        Map<LocalDate, PeriodTotals> days = new TreeMap<>();
+        for (ReportRow row : rows) {
+            if (row.section().equals("INVOICES")) {
+                PeriodTotals totals = days.computeIfAbsent(row.day(), day -> new PeriodTotals());
+                totals.revenue = row.a1();
+                totals.outstanding = row.a2();
+                totals.invoiceCount = row.c1();
+            } else if (row.section().equals("PAYMENTS")) {
+                PeriodTotals totals = days.computeIfAbsent(row.day(), day -> new PeriodTotals());
+                totals.collected = row.a1();
+                totals.paymentCount = row.c1();
+            }
+        }
+
+        BigDecimal totalBilled = sum(days.values(), totals -> totals.revenue);
+        BigDecimal totalCollected = sum(days.values(), totals -> totals.collected);
+        List<CollectionReportDto.DailyCollection> dailyBreakdown = includeDailyBreakdown
+            ? days.entrySet().stream()
+                .map(entry -> new CollectionReportDto.DailyCollection(
+                    entry.getKey(), entry.getValue().revenue, entry.getValue().collected,
+                    entry.getValue().outstanding, (int) entry.getValue().paymentCount,
+                    (int) entry.getValue().invoiceCount))
+                .toList()
+            : List.of();
+
+        return new CollectionReportDto(
+            totalBilled,
+            totalCollected,
+            sum(days.values(), totals -> totals.outstanding),
+            percentage(totalCollected, totalBilled),
+            startDate,
+            endDate,
+            amountsByKey(rows, "METHOD"),
+            dailyBreakdown);
     }
 
     @Override
@@ -83,9 +365,106 @@ public class BillingReportServiceImpl implements BillingReportService {
     @Transactional(readOnly = true)
     public DailyCashReportDto generateDailyCashReport(LocalDate date, boolean includeNonCash,
                                                       boolean groupByStaff) {
-        log.info("Generating daily cash report for: {}", date);
-        // TODO: Implement when DTO structure is finalized
-        return null;
+        LocalDate reportDate = date != null ? date : LocalDate.now();
+        log.info("Generating daily cash report for: {}", reportDate);
+
+        StringBuilder sql = new StringBuilder("""
+            SELECT %s
+            FROM (
+                SELECT p.type, %s AS amount,
+                       CASE WHEN p.payment_method = 'CASH' THEN 'CASH' ELSE 'NON_CASH' END AS drawer
+                FROM payments p
+                WHERE p.payment_date = :reportDate AND %s
+            ) t
+            GROUP BY t.type, t.drawer
+            UNION ALL
+            SELECT 'TRANSACTION', p.type, pt.full_name, p.payment_method, s.full_name, NULL, p.created_at,
+                   p.amount, 0, 0, 0, 0, 0
+            FROM payments p
+            JOIN patients pt ON pt.id = p.patient_id
+            LEFT JOIN staff s ON s.id = p.created_by
+            WHERE p.payment_date = :reportDate AND %s %s
+            """.formatted(
+                row("'TOTALS'", "t.type", "t.drawer", null, null, null, null,
+                    "SUM(t.amount)", "0", "0", "COUNT(*)", "0", "0"),
+                MOVED_AMOUNT, COUNTED_PAYMENT, COUNTED_PAYMENT,
+                includeNonCash ? "" : "AND p.payment_method = 'CASH'"));
+        if (groupByStaff) {
+            sql.append("""
+                UNION ALL
+                SELECT 'STAFF', s.full_name, NULL, NULL, NULL, NULL, NULL,
+                       SUM(CASE WHEN p.type = 'PAYMENT' AND p.payment_method = 'CASH' THEN p.amount ELSE 0 END),
+                       SUM(CASE WHEN p.type = 'PAYMENT' AND p.payment_method <> 'CASH' THEN p.amount ELSE 0 END),
+                       0, COUNT(*), 0, 0
+                FROM payments p
+                LEFT JOIN staff s ON s.id = p.created_by
+                WHERE p.payment_date = :reportDate AND %s
+                GROUP BY s.id, s.full_name
+                """.formatted(COUNTED_PAYMENT));
+        }
+
+        List<ReportRow> rows = query(sql.toString(), new MapSqlParameterSource("reportDate", reportDate));
+
+        BigDecimal cashReceived = BigDecimal.ZERO;
+        BigDecimal cashRefunded = BigDecimal.ZERO;
+        BigDecimal nonCashReceived = BigDecimal.ZERO;
+        long cashCount = 0;
+        long nonCashCount = 0;
+        Map<String, DailyCashReportDto.CashByStaff> byStaff = new LinkedHashMap<>();
+        List<DailyCashReportDto.CashTransaction> transactions = new ArrayList<>();
+        DateTimeFormatter timeFormat = DateTimeFormatter.ofPattern("HH:mm");
+
+        for (ReportRow row : rows) {
+            switch (row.section()) {
+                case "TOTALS" -> {
+                    boolean cash = "CASH".equals(row.k2());
+                    if (cash) {
+                        cashCount += row.c1();
+                    } else {
+                        nonCashCount += row.c1();
+                    }
+                    if ("PAYMENT".equals(row.k1())) {
+                        if (cash) {
+                            cashReceived = cashReceived.add(row.a1());
+                        } else {
+                            nonCashReceived = nonCashReceived.add(row.a1());
+                        }
+                    } else if ("REFUND".equals(row.k1()) && cash) {
+                        cashRefunded = cashRefunded.add(row.a1());
+                    }
+                }
+                case "STAFF" -> {
+                    String staffName = row.k1() != null ? row.k1() : UNASSIGNED_STAFF;
+                    byStaff.merge(staffName,
+                        new DailyCashReportDto.CashByStaff(staffName, row.a1(), row.a2(), (int) row.c1()),
+                        (a, b) -> new DailyCashReportDto.CashByStaff(staffName,
+                            a.cashCollected().add(b.cashCollected()), a.nonCashCollected().add(b.nonCashCollected()),
+                            a.transactionCount() + b.transactionCount()));
+                }
+                case "TRANSACTION" -> transactions.add(new DailyCashReportDto.CashTransaction(
+                    row.at() != null ? row.at().format(timeFormat) : null,
+                    row.k2(), row.k1(), row.a1(), row.k3(),
+                    row.k4() != null ? row.k4() : UNASSIGNED_STAFF));
+                default -> {
+                }
+            }
+        }
+        transactions.sort(Comparator.comparing(DailyCashReportDto.CashTransaction::time,
+            Comparator.nullsLast(Comparator.naturalOrder())));
+
+        // The drawer is counted per day, so each day opens at zero
+        BigDecimal openingBalance = BigDecimal.ZERO;
+        return new DailyCashReportDto(
+            reportDate,
+            openingBalance,
+            cashReceived,
+            cashRefunded,
+            nonCashReceived,
+            openingBalance.add(cashReceived).subtract(cashRefunded),
+            (int) cashCount,
+            (int) nonCashCount,
+            byStaff,
+            transactions);
     }
 
     @Override
@@ -102,8 +481,95 @@ public class BillingReportServiceImpl implements BillingReportService {
     public ProcedureAnalysisDto generateProcedureAnalysis(LocalDate startDate, LocalDate endDate,
                                                           UUID specialtyId, Integer minCount) {
         log.info("Generating procedure analysis from {} to {}", startDate, endDate);
-        // TODO: Implement when Visit repository methods are available
-        return null;
+        validateRange(startDate, endDate);
+
+        MapSqlParameterSource params = range(startDate, endDate)
+            .addValue("minCount", minCount != null ? minCount : 1);
+        String specialtyFilter = "";
+        if (specialtyId != null) {
+            specialtyFilter = "AND a.specialty_id = :specialtyId";
+            params.addValue("specialtyId", specialtyId);
+        }
+
+        String sql = """
+            WITH perf AS (
+                SELECT pr.id, pr.code, pr.name, pr.quantity, pr.unit_fee, pr.quantity * pr.unit_fee AS revenue,
+                       COALESCE(pr.performed_by_id, v.provider_id) AS doctor_id
+                FROM procedures pr
+                JOIN visits v ON v.id = pr.visit_id
+                LEFT JOIN appointments a ON a.id = v.appointment_id
+                WHERE v.date BETWEEN :startDate AND :endDate AND pr.status = 'COMPLETED' %s
+            )
+            SELECT %s
+            FROM perf f
+            LEFT JOIN procedure_templates pt ON pt.procedure_code = f.code
+            GROUP BY f.code, f.name, pt.id
+            HAVING COUNT(*) >= :minCount
+            UNION ALL
+            SELECT 'COST', f.code, f.name, NULL, NULL, NULL, NULL, SUM(pm.total_cost), 0, 0, 0, 0, 0
+            FROM perf f
+            JOIN procedure_materials pm ON pm.procedure_id = f.id
+            GROUP BY f.code, f.name
+            UNION ALL
+            SELECT 'DOCTOR', r.code, r.name, r.full_name, NULL, NULL, NULL, 0, 0, 0, r.performed, r.doctor_rank, 0
+            FROM (
+                SELECT f.code, f.name, s.full_name, COUNT(*) AS performed,
+                       ROW_NUMBER() OVER (PARTITION BY f.code, f.name ORDER BY COUNT(*) DESC, s.full_name) AS doctor_rank
+                FROM perf f
+                JOIN staff s ON s.id = f.doctor_id
+                GROUP BY f.code, f.name, s.full_name
+            ) r
+            WHERE r.doctor_rank <= %d
+            """.formatted(specialtyFilter,
+                row("'PROCEDURE'", "f.code", "f.name", "pt.id", null, null, null,
+                    "SUM(f.revenue)", "MIN(f.unit_fee)", "MAX(f.unit_fee)", "COUNT(*)", "SUM(f.quantity)", "0"),
+                TOP_DOCTORS);
+
+        List<ReportRow> rows = query(sql, params);
+
+        Map<String, BigDecimal> costs = new HashMap<>();
+        Map<String, List<ReportRow>> doctors = new HashMap<>();
+        for (ReportRow row : rows) {
+            String key = row.k1() + '\u0000' + row.k2();
+            if (row.section().equals("COST")) {
+                costs.put(key, row.a1());
+            } else if (row.section().equals("DOCTOR")) {
+                doctors.computeIfAbsent(key, k -> new ArrayList<>()).add(row);
+            }
+        }
+
+        List<ProcedureAnalysisDto.ProcedureMetrics> procedures = rows.stream()
+            .filter(row -> row.section().equals("PROCEDURE"))
+            .map(row -> {
+                String key = row.k1() + '\u0000' + row.k2();
+                BigDecimal revenue = row.a1();
+                BigDecimal cost = costs.getOrDefault(key, BigDecimal.ZERO);
+                List<String> topDoctors = doctors.getOrDefault(key, List.of()).stream()
+                    .sorted(Comparator.comparingLong(ReportRow::c2))
+                    .map(ReportRow::k3)
+                    .toList();
+                return new ProcedureAnalysisDto.ProcedureMetrics(
+                    row.k3() != null ? UUID.fromString(row.k3()) : null,
+                    row.k1(),
+                    row.k2(),
+                    (int) row.c1(),
+                    revenue,
+                    divide(revenue, row.c2()),
+                    row.a2(),
+                    row.a3(),
+                    topDoctors,
+                    revenue.signum() > 0 ? percentage(revenue.subtract(cost), revenue) : null);
+            })
+            .sorted(Comparator.comparing(ProcedureAnalysisDto.ProcedureMetrics::totalRevenue).reversed())
+            .toList();
+
+        return new ProcedureAnalysisDto(
+            startDate,
+            endDate,
+            procedures.stream().mapToInt(ProcedureAnalysisDto.ProcedureMetrics::performedCount).sum(),
+            procedures.stream().map(ProcedureAnalysisDto.ProcedureMetrics::totalRevenue)
+                .reduce(BigDecimal.ZERO, BigDecimal::add),
+            procedures);
     }
 
     @Override
@@ -111,37 +577,579 @@ public class BillingReportServiceImpl implements BillingReportService {
     public DoctorPerformanceDto generateDoctorPerformance(LocalDate startDate, LocalDate endDate,
                                                           UUID doctorId, boolean includeProcedures) {
         log.info("Generating doctor performance report from {} to {}", startDate, endDate);
-        // TODO: Implement when Visit repository methods are available
-        return null;
+        validateRange(startDate, endDate);
+
+        ZoneId zone = ZoneId.systemDefault();
+        MapSqlParameterSource params = range(startDate, endDate)
+            .addValue("startTime", Timestamp.from(startDate.atStartOfDay(zone).toInstant()))
+            .addValue("endTime", Timestamp.from(endDate.plusDays(1).atStartOfDay(zone).toInstant()));
+        String treatmentFilter = "";
+        String appointmentFilter = "";
+        if (doctorId != null) {
+            treatmentFilter = "AND COALESCE(pr.performed_by_id, v.provider_id) = :doctorId";
+            appointmentFilter = "AND a.doctor_id = :doctorId";
+            params.addValue("doctorId", doctorId);
+        }
+
+        StringBuilder sql = new StringBuilder("""
+            WITH perf AS (
+                SELECT pr.id, pr.name, pr.quantity * pr.unit_fee AS revenue, v.patient_id,
+                       COALESCE(pr.performed_by_id, v.provider_id) AS doctor_id
+                FROM procedures pr
+                JOIN visits v ON v.id = pr.visit_id
+                WHERE v.date BETWEEN :startDate AND :endDate AND pr.status = 'COMPLETED' %s
+            )
+            SELECT %s
+            FROM perf f
+            JOIN staff s ON s.id = f.doctor_id
+            GROUP BY s.id, s.full_name
+            UNION ALL
+            SELECT 'APPOINTMENTS', CAST(s.id AS VARCHAR(36)), s.full_name, NULL, NULL, NULL, NULL, 0, 0, 0,
+                   COUNT(*), COUNT(CASE WHEN a.status = 'COMPLETED' THEN 1 END),
+                   COUNT(CASE WHEN a.status = 'CANCELLED' THEN 1 END)
+            FROM appointments a
+            JOIN staff s ON s.id = a.doctor_id
+            WHERE a.appointment_datetime >= :startTime AND a.appointment_datetime < :endTime %s
+            GROUP BY s.id, s.full_name
+            UNION ALL
+            SELECT 'COLLECTION', CAST(f.doctor_id AS VARCHAR(36)), NULL, NULL, NULL, NULL, NULL,
+                   SUM(ii.amount),
+                   SUM(CASE WHEN i.total_amount > 0
+                            THEN ii.amount * LEAST(COALESCE(i.amount_paid, 0) / i.total_amount, 1)
+                            ELSE 0 END),
+                   0, 0, 0, 0
+            FROM perf f
+            JOIN invoice_items ii ON ii.procedure_id = f.id
+            JOIN invoices i ON i.id = ii.invoice_id
+            WHERE %s
+            GROUP BY f.doctor_id
+            """.formatted(treatmentFilter,
+                row("'TREATMENTS'", "CAST(s.id AS VARCHAR(36))", "s.full_name", null, null, null, null,
+                    "SUM(f.revenue)", "0", "0", "COUNT(*)", "COUNT(DISTINCT f.patient_id)", "0"),
+                appointmentFilter, BILLED_INVOICE));
+        if (includeProcedures) {
+            sql.append("""
+                UNION ALL
+                SELECT 'PROCEDURE', CAST(f.doctor_id AS VARCHAR(36)), f.name, NULL, NULL, NULL, NULL,
+                       SUM(f.revenue), 0, 0, COUNT(*), 0, 0
+                FROM perf f
+                GROUP BY f.doctor_id, f.name
+                """);
+        }
+
+        List<ReportRow> rows = query(sql.toString(), params);
+
+        Map<String, DoctorTotals> doctors = new LinkedHashMap<>();
+        for (ReportRow row : rows) {
+            switch (row.section()) {
+                case "TREATMENTS" -> {
+                    DoctorTotals totals = doctors.computeIfAbsent(row.k1(), id -> new DoctorTotals(row.k2()));
+                    totals.revenue = row.a1();
+                    totals.treatmentCount = row.c1();
+                    totals.patientCount = row.c2();
+                }
+                case "APPOINTMENTS" -> {
+                    DoctorTotals totals = doctors.computeIfAbsent(row.k1(), id -> new DoctorTotals(row.k2()));
+                    totals.appointmentCount = row.c1();
+                    totals.completedAppointments = row.c2();
+                    totals.cancelledAppointments = row.c3();
+                }
+                default -> {
+                }
+            }
+        }
+        for (ReportRow row : rows) {
+            DoctorTotals totals = doctors.get(row.k1());
+            if (totals == null) {
+                continue;
+            }
+            if (row.section().equals("COLLECTION")) {
+                totals.billed = row.a1();
+                totals.collected = row.a2();
+            } else if (row.section().equals("PROCEDURE")) {
+                totals.procedures.put(row.k2(), (int) row.c1());
+            }
+        }
+
+        List<DoctorPerformanceDto.DoctorMetrics> metrics = doctors.entrySet().stream()
+            .map(entry -> {
+                DoctorTotals totals = entry.getValue();
+                List<String> topProcedures = totals.procedures.entrySet().stream()
+                    .sorted(Map.Entry.<String, Integer>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey()))
+                    .limit(TOP_PROCEDURES)
+                    .map(Map.Entry::getKey)
+                    .toList();
+                return new DoctorPerformanceDto.DoctorMetrics(
+                    UUID.fromString(entry.getKey()),
+                    totals.name,
+                    (int) totals.patientCount,
+                    (int) totals.appointmentCount,
+                    (int) totals.treatmentCount,
+                    totals.revenue,
+                    divide(totals.revenue, totals.patientCount),
+                    divide(totals.revenue, totals.treatmentCount),
+                    includeProcedures ? totals.procedures : Map.of(),
+                    includeProcedures ? topProcedures : List.of(),
+                    percentage(totals.collected, totals.billed),
+                    (int) totals.completedAppointments,
+                    (int) totals.cancelledAppointments,
+                    totals.appointmentCount > 0
+                        ? totals.completedAppointments * 100.0 / totals.appointmentCount
+                        : 0.0);
+            })
+            .sorted(Comparator.comparing(DoctorPerformanceDto.DoctorMetrics::totalRevenue).reversed())
+            .toList();
+
+        return new DoctorPerformanceDto(startDate, endDate, metrics);
     }
 
     @Override
     @Transactional(readOnly = true)
     public PaymentTrendsDto analyzePaymentTrends(LocalDate startDate, LocalDate endDate, String interval) {
         log.info("Analyzing payment trends from {} to {}", startDate, endDate);
-        // TODO: Implement when DTO structure is finalized
-        return null;
+        validateRange(startDate, endDate);
+        Period period = Period.fromInterval(interval);
+
+        String daysToPayment = """
+            CASE WHEN i.id IS NOT NULL
+                 THEN (EXTRACT(EPOCH FROM CAST(p.payment_date AS TIMESTAMP))
+                       - EXTRACT(EPOCH FROM CAST(i.issue_date AS TIMESTAMP))) / 86400
+            END""";
+        String sql = """
+            SELECT %s
+            FROM (
+                SELECT p.amount, %s AS period_start, %s AS days_to_payment
+                FROM payments p
+                LEFT JOIN invoices i ON i.id = p.invoice_id
+                WHERE p.payment_date BETWEEN :startDate AND :endDate AND p.type = 'PAYMENT' AND %s
+            ) t
+            GROUP BY period_start
+            """.formatted(
+                row("'PERIOD'", null, null, null, null, "period_start", null,
+                    "SUM(amount)", "SUM(days_to_payment)", "0", "COUNT(*)", "COUNT(days_to_payment)", "0"),
+                period.bucket("p.payment_date"), daysToPayment, COUNTED_PAYMENT);
+
+        List<ReportRow> rows = query(sql, range(startDate, endDate)).stream()
+            .sorted(Comparator.comparing(ReportRow::day))
+            .toList();
+
+        List<PaymentTrendsDto.TrendData> trends = rows.stream()
+            .map(row -> new PaymentTrendsDto.TrendData(
+                period.label(row.day()),
+                row.day(),
+                period.end(row.day(), endDate),
+                (int) row.c1(),
+                row.a1(),
+                divide(row.a1(), row.c1()),
+                row.c2() > 0 ? row.a2().doubleValue() / row.c2() : 0.0))
+            .toList();
+
+        BigDecimal totalAmount = sum(rows, ReportRow::a1);
+        long totalPayments = rows.stream().mapToLong(ReportRow::c1).sum();
+        long paymentsWithInvoice = rows.stream().mapToLong(ReportRow::c2).sum();
+        BigDecimal totalDays = sum(rows, ReportRow::a2);
+
+        double growthRate = 0.0;
+        if (trends.size() >= 2 && trends.get(0).totalAmount().signum() > 0) {
+            BigDecimal first = trends.get(0).totalAmount();
+            BigDecimal last = trends.get(trends.size() - 1).totalAmount();
+            growthRate = last.subtract(first).multiply(BigDecimal.valueOf(100))
+                .divide(first, 2, RoundingMode.HALF_UP).doubleValue();
+        }
+        String trendDirection = growthRate > 5 ? "INCREASING" : growthRate < -5 ? "DECREASING" : "STABLE";
+
+        return new PaymentTrendsDto(
+            startDate,
+            endDate,
+            totalAmount,
+            (int) totalPayments,
+            divide(totalAmount, totalPayments),
+            paymentsWithInvoice > 0 ? totalDays.doubleValue() / paymentsWithInvoice : 0.0,
+            trends,
+            trendDirection,
+            growthRate);
     }
 
     @Override
     @Transactional(readOnly = true)
     public TaxReportDto generateTaxReport(LocalDate startDate, LocalDate endDate, boolean includeDetails) {
         log.info("Generating tax report from {} to {}", startDate, endDate);
-        // TODO: Implement when DTO structure is finalized
-        return null;
+        validateRange(startDate, endDate);
+
+        String sql = """
+            WITH inv AS (
+                SELECT i.total_amount, COALESCE(i.tax_amount, 0) AS tax,
+                       COALESCE(i.sub_total, i.total_amount - COALESCE(i.tax_amount, 0))
+                           - COALESCE(i.discount_amount, 0) AS base
+                FROM invoices i
+                WHERE i.issue_date BETWEEN :startDate AND :endDate AND %s
+            ), rated AS (
+                SELECT total_amount, tax, base,
+                       CASE WHEN tax > 0 AND base > 0 THEN ROUND(tax * 100 / base, 2) ELSE 0 END AS rate
+                FROM inv
+            )
+            SELECT %s
+            FROM rated
+            GROUP BY rate
+            """.formatted(BILLED_INVOICE,
+                row("'RATE'", "CAST(rate AS VARCHAR(20))", null, null, null, null, null,
+                    "SUM(total_amount)", "SUM(base)", "SUM(tax)", "COUNT(*)", "0", "0"));
+
+        List<ReportRow> rows = query(sql, range(startDate, endDate));
+
+        BigDecimal grossRevenue = BigDecimal.ZERO;
+        BigDecimal taxableRevenue = BigDecimal.ZERO;
+        BigDecimal nonTaxableRevenue = BigDecimal.ZERO;
+        BigDecimal totalTax = BigDecimal.ZERO;
+        List<TaxReportDto.TaxBreakdown> breakdown = new ArrayList<>();
+        for (ReportRow row : rows) {
+            BigDecimal rate = new BigDecimal(row.k1().trim());
+            boolean taxable = rate.signum() > 0;
+            grossRevenue = grossRevenue.add(row.a1());
+            totalTax = totalTax.add(row.a3());
+            if (taxable) {
+                taxableRevenue = taxableRevenue.add(row.a2());
+            } else {
+                nonTaxableRevenue = nonTaxableRevenue.add(row.a2());
+            }
+            if (includeDetails) {
+                breakdown.add(new TaxReportDto.TaxBreakdown(
+                    taxable ? "TAXABLE" : "NON_TAXABLE",
+                    row.a2(),
+                    rate,
+                    row.a3(),
+                    row.c1() + " invoices" + (taxable ? " taxed at " + rate.stripTrailingZeros().toPlainString() + "%" : "")));
+            }
+        }
+        breakdown.sort(Comparator.comparing(TaxReportDto.TaxBreakdown::taxRate));
+
+        return new TaxReportDto(
+            startDate,
+            endDate,
+            grossRevenue,
+            taxableRevenue,
+            nonTaxableRevenue,
+            totalTax,
+            grossRevenue.subtract(totalTax),
+            breakdown);
+    }
+
+    @Override
+    public void validateExport(BillingReportType reportType, ExportReportRequest request) {
+        if (request == null) {
+            throw new BusinessRuleException("Export request is required");
+        }
+        validateRange(request.startDate(), request.endDate());
+        if (reportType == BillingReportType.PATIENT_STATEMENT && request.patientId() == null) {
+            throw new BusinessRuleException("A patient is required for a patient statement");
+        }
     }
 
+    /**
+     * Rows are read from a forward-only cursor {@code exportFetchSize} rows at a time and written
+     * as they arrive. PostgreSQL only honours the fetch size inside a transaction, which the
+     * class-level read-only transaction provides.
+     */
     @Override
-    public byte[] exportReport(String reportType, String format, ExportReportRequest request) {
-        log.info("Exporting {} report in {} format", reportType, format);
+    public void exportReport(BillingReportType reportType, ExportFormat format, ExportReportRequest request,
+                             OutputStream out) throws IOException {
+        validateExport(reportType, request);
+        log.info("Exporting {} report in {} format from {} to {}",
+            reportType, format, request.startDate(), request.endDate());
+
+        long rows;
+        try (TableWriter writer = format.open(out, reportType.getTitle())) {
+            rows = switch (reportType) {
+                case PAYMENTS -> exportPayments(request, writer);
+                case INVOICES -> exportInvoices(request, writer);
+                case PATIENT_STATEMENT -> exportPatientStatement(request, writer);
+            };
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        log.info("Exported {} rows of {} report", rows, reportType);
+    }
+
+    private long exportPayments(ExportReportRequest request, TableWriter writer) throws IOException {
+        StringBuilder sql = new StringBuilder("""
+            SELECT p.payment_date, pt.public_facing_id, pt.full_name, i.invoice_number, p.type,
+                   p.payment_method, p.status, p.reference_number, p.amount
+            FROM payments p
+            JOIN patients pt ON pt.id = p.patient_id
+            LEFT JOIN invoices i ON i.id = p.invoice_id
+            WHERE p.payment_date BETWEEN :startDate AND :endDate
+            """);
+        MapSqlParameterSource params = range(request.startDate(), request.endDate());
+        if (request.patientId() != null) {
+            sql.append(" AND p.patient_id = :patientId");
+            params.addValue("patientId", request.patientId());
+        }
+        sql.append(" ORDER BY p.payment_date, p.created_at");
+
+        writer.writeHeader(List.of("Date", "Patient ID", "Patient", "Invoice", "Type",
+            "Method", "Status", "Reference", "Amount"));
+        return stream(sql.toString(), params, writer, rs -> new Object[]{
+            rs.getDate(1), rs.getString(2), rs.getString(3), rs.getString(4), rs.getString(5),
+            rs.getString(6), rs.getString(7), rs.getString(8), rs.getBigDecimal(9)});
+    }
+
+    private long exportInvoices(ExportReportRequest request, TableWriter writer) throws IOException {
+        StringBuilder sql = new StringBuilder("""
+            SELECT i.invoice_number, i.issue_date, i.due_date, pt.public_facing_id, pt.full_name, i.status,
+                   i.total_amount, COALESCE(i.amount_paid, 0) AS paid,
+                   GREATEST(i.total_amount - COALESCE(i.amount_paid, 0), 0) AS due
+            FROM invoices i
+            JOIN patients pt ON pt.id = i.patient_id
+            WHERE i.issue_date BETWEEN :startDate AND :endDate
+            """);
+        MapSqlParameterSource params = range(request.startDate(), request.endDate());
+        if (request.patientId() != null) {
+            sql.append(" AND i.patient_id = :patientId");
+            params.addValue("patientId", request.patientId());
+        }
+        sql.append(" ORDER BY i.issue_date, i.invoice_number");
+
+        writer.writeHeader(List.of("Invoice", "Issued", "Due Date", "Patient ID", "Patient", "Status",
+            "Total", "Paid", "Due"));
+        return stream(sql.toString(), params, writer, rs -> new Object[]{
+            rs.getString(1), rs.getDate(2), rs.getDate(3), rs.getString(4), rs.getString(5), rs.getString(6),
+            rs.getBigDecimal(7), rs.getBigDecimal(8), rs.getBigDecimal(9)});
+    }
+
+    /**
+     * Ledger entries of the patient with the running balance, starting from the balance of the
+     * entries before the period.
+     */
+    private long exportPatientStatement(ExportReportRequest request, TableWriter writer) throws IOException {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+            .addValue("patientId", request.patientId())
+            .addValue("from", Timestamp.valueOf(request.startDate().atStartOfDay()))
+            .addValue("to", Timestamp.valueOf(request.endDate().plusDays(1).atStartOfDay()));
+        BigDecimal opening = jdbcTemplate.queryForObject(
+            "SELECT COALESCE(SUM(" + BalanceReconciliationServiceImpl.ledgerDeltaSql() + "), 0)"
+                + " FROM ledger_entries WHERE patient_id = :patientId AND occurred_at < :from",
+            params, BigDecimal.class);
+
+        writer.writeHeader(List.of("Date", "Entry", "Description", "Invoice", "Method", "Reference",
+            "Amount", "Balance"));
+        writer.writeRow(request.startDate(), "OPENING_BALANCE", null, null, null, null, null, opening);
+        BigDecimal[] balance = {opening};
+        return stream("""
+            SELECT le.occurred_at, le.entry_type, le.description, i.invoice_number, p.payment_method,
+                   p.reference_number, le.amount
+            FROM ledger_entries le
+            LEFT JOIN invoices i ON i.id = le.invoice_id
+            LEFT JOIN payments p ON p.id = le.payment_id
+            WHERE le.patient_id = :patientId AND le.occurred_at >= :from AND le.occurred_at < :to
+            ORDER BY le.occurred_at, le.id
+            """, params, writer, rs -> {
+            BigDecimal amount = rs.getBigDecimal(7);
+            balance[0] = balance[0].add(LedgerEntryType.valueOf(rs.getString(2)).balanceDelta(amount));
+            return new Object[]{
+                rs.getTimestamp(1), rs.getString(2), rs.getString(3), rs.getString(4), rs.getString(5),
+                rs.getString(6), amount, balance[0]};
+        });
+    }
+
+    /**
+     * Writes every row of the query as it is fetched.
+     *
+     * @return the number of rows written
+     */
+    private long stream(String sql, MapSqlParameterSource params, TableWriter writer,
+                        RowMapper<Object[]> mapper) {
+        JdbcTemplate cursor = new JdbcTemplate(
+            Objects.requireNonNull(jdbcTemplate.getJdbcTemplate().getDataSource()));
+        cursor.setFetchSize(exportFetchSize);
+        long[] rows = {0};
+        new NamedParameterJdbcTemplate(cursor).query(sql, params, (RowCallbackHandler) rs -> {
+            try {
+                writer.writeRow(mapper.mapRow(rs, (int) rows[0]));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            rows[0]++;
+        });
+        return rows[0];
+    }
+
+    private List<ReportRow> query(String sql, MapSqlParameterSource params) {
+        return jdbcTemplate.query(sql, params, ReportRow.MAPPER);
+    }
+
+    private static MapSqlParameterSource range(LocalDate startDate, LocalDate endDate) {
+        return new MapSqlParameterSource()
+            .addValue("startDate", startDate)
+            .addValue("endDate", endDate);
+    }
+
+    private static void validateRange(LocalDate startDate, LocalDate endDate) {
+        if (startDate == null || endDate == null || startDate.isAfter(endDate)) {
+            throw new BusinessRuleException("Invalid date range: " + startDate + " to " + endDate);
+        }
+    }
+
+    /**
+     * Builds the column list of the first branch of a report statement; null values become NULL.
+     */
+    private static String row(String section, String k1, String k2, String k3, String k4, String day, String at,
+                              String a1, String a2, String a3, String c1, String c2, String c3) {
+        Object[] values = {section, k1, k2, k3, k4, day, at, a1, a2, a3, c1, c2, c3};
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == null) {
+                values[i] = "NULL";
+            }
+        }
+        return ROW_COLUMNS.formatted(values);
+    }
+
+    private static Map<String, BigDecimal> amountsByKey(List<ReportRow> rows, String section) {
+        return rows.stream()
+            .filter(row -> row.section().equals(section) && row.k1() != null)
+            .sorted(Comparator.comparing(ReportRow::a1).reversed())
+            .collect(Collectors.toMap(ReportRow::k1, ReportRow::a1, BigDecimal::add, LinkedHashMap::new));
+    }
+
+    private static <T> BigDecimal sum(Collection<T> values, Function<T, BigDecimal> amount) {
+        return values.stream().map(amount).reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    private static BigDecimal divide(BigDecimal amount, long count) {
+        return count > 0 ? amount.divide(BigDecimal.valueOf(count), 2, RoundingMode.HALF_UP) : BigDecimal.ZERO;
+    }
+
+    private static BigDecimal percentage(BigDecimal part, BigDecimal whole) {
+        if (whole == null || whole.signum() == 0) {
+            return BigDecimal.ZERO;
+        }
+        return part.multiply(BigDecimal.valueOf(100)).divide(whole, 2, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Row shape shared by all branches of a report statement: a section name, up to four text
+     * keys, a day, a timestamp, three amounts and three counts.
+     */
+    record ReportRow(String section, String k1, String k2, String k3, String k4, LocalDate day,
+                     LocalDateTime at, BigDecimal a1, BigDecimal a2, BigDecimal a3, long c1, long c2, long c3) {
+
+        static final RowMapper<ReportRow> MAPPER = (rs, rowNum) -> {
+            Timestamp at = rs.getTimestamp("occurred");
+            return new ReportRow(
+                rs.getString("section").trim(),
+                rs.getString("k1"),
+                rs.getString("k2"),
+                rs.getString("k3"),
+                rs.getString("k4"),
+                rs.getObject("bucket", LocalDate.class),
+                at != null ? at.toLocalDateTime() : null,
+                amount(rs.getBigDecimal("a1")),
+                amount(rs.getBigDecimal("a2")),
+                amount(rs.getBigDecimal("a3")),
+                rs.getLong("c1"),
+                rs.getLong("c2"),
+                rs.getLong("c3"));
+        };
+
+        private static BigDecimal amount(BigDecimal value) {
+            return value != null ? value.setScale(2, RoundingMode.HALF_UP) : BigDecimal.ZERO.setScale(2);
+        }
+    }
+
+    /**
+     * Period buckets of the revenue report and the payment trends, truncated by the database.
+     */
+    enum Period {
+        DAY("day"),
+        WEEK("week"),
+        MONTH("month"),
+        QUARTER("quarter"),
+        YEAR("year");
+
+        private final String unit;
+
+        Period(String unit) {
+            this.unit = unit;
+        }
+
+        static Period fromGroupBy(String groupBy) {
+            if (groupBy == null) {
+                return MONTH;
+            }
+            try {
+                return valueOf(groupBy.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new BusinessRuleException("Unsupported report grouping: " + groupBy);
+            }
+        }
+
+        static Period fromInterval(String interval) {
+            if (interval == null) {
+                return MONTH;
+            }
+            return switch (interval.toUpperCase(Locale.ROOT)) {
+                case "DAILY", "DAY" -> DAY;
+                case "WEEKLY", "WEEK" -> WEEK;
+                case "MONTHLY", "MONTH" -> MONTH;
+                case "QUARTERLY", "QUARTER" -> QUARTER;
+                case "YEARLY", "YEAR" -> YEAR;
+                default -> throw new BusinessRuleException("Unsupported trend interval: " + interval);
+            };
+        }
+
+        /**
+         * SQL expression truncating a date column to the first day of its period.
+         */
+        String bucket(String column) {
+            return "CAST(DATE_TRUNC('" + unit + "', " + column + ") AS DATE)";
+        }
+
+        LocalDate end(LocalDate start, LocalDate reportEnd) {
+            LocalDate end = switch (this) {
+                case DAY -> start;
+                case WEEK -> start.plusWeeks(1).minusDays(1);
+                case MONTH -> start.plusMonths(1).minusDays(1);
+                case QUARTER -> start.plusMonths(3).minusDays(1);
+                case YEAR -> start.plusYears(1).minusDays(1);
+            };
+            return end.isAfter(reportEnd) ? reportEnd : end;
+        }
+
+        String label(LocalDate start) {
+            return switch (this) {
+                case DAY -> start.toString();
+                case WEEK -> String.format("%d-W%02d",
+                    start.get(IsoFields.WEEK_BASED_YEAR), start.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR));
+                case MONTH -> String.format("%d-%02d", start.getYear(), start.getMonthValue());
+                case QUARTER -> start.getYear() + "-Q" + start.get(IsoFields.QUARTER_OF_YEAR);
+                case YEAR -> String.valueOf(start.getYear());
+            };
+        }
+    }
+
+    private static final class PeriodTotals {
+        private BigDecimal revenue = BigDecimal.ZERO;
+        private BigDecimal collected = BigDecimal.ZERO;
+        private BigDecimal refunded = BigDecimal.ZERO;
+        private BigDecimal outstanding = BigDecimal.ZERO;
+        private long invoiceCount;
+        private long paymentCount;
+    }
 
-        // This would use a report generation library like JasperReports or Apache POI
-        // For now, returning mock data
-        String mockContent = String.format(
-            "Report Type: %s\nFormat: %s\nDate Range: %s to %s\n\nThis is a mock report export.",
-            reportType, format, request.startDate(), request.endDate()
-        );
+    private static final class DoctorTotals {
+        private final String name;
+        private final Map<String, Integer> procedures = new LinkedHashMap<>();
+        private BigDecimal revenue = BigDecimal.ZERO;
+        private BigDecimal billed = BigDecimal.ZERO;
+        private BigDecimal collected = BigDecimal.ZERO;
+        private long patientCount;
+        private long treatmentCount;
+        private long appointmentCount;
+        private long completedAppointments;
+        private long cancelledAppointments;
 
-        return mockContent.getBytes();
+        private DoctorTotals(String name) {
+            this.name = name;
+        }
     }
 }
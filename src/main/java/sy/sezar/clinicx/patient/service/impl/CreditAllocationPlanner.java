@@ -0,0 +1,70 @@
+package sy.sezar.clinicx.patient.service.impl;
+
+import sy.sezar.clinicx.patient.model.enums.CreditAllocationPolicy;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Greedy allocation of credits to invoices, free of persistence so the money it moves can be
+ * checked in isolation. Credits are consumed oldest first and each invoice, in policy order, takes
+ * as much of them as it is due; the amounts planned never exceed a credit or an invoice.
+ */
+final class CreditAllocationPlanner {
+
+    private static final Comparator<Credit> CREDIT_ORDER = Comparator
+        .comparing(Credit::date, Comparator.nullsLast(Comparator.naturalOrder()))
+        .thenComparing(Credit::id);
+
+    private static final Comparator<OpenInvoice> ISSUE_ORDER = Comparator
+        .comparing(OpenInvoice::issueDate, Comparator.nullsLast(Comparator.naturalOrder()))
+        .thenComparing(OpenInvoice::id);
+
+    private static final Comparator<OpenInvoice> DUE_ORDER = Comparator
+        .comparing(OpenInvoice::dueDate, Comparator.nullsLast(Comparator.naturalOrder()))
+        .thenComparing(ISSUE_ORDER);
+
+    private CreditAllocationPlanner() {
+    }
+
+    static List<Allocation> plan(List<Credit> credits, List<OpenInvoice> invoices, CreditAllocationPolicy policy) {
+        List<Credit> creditOrder = credits.stream()
+            .filter(credit -> credit.amount().signum() > 0)
+            .sorted(CREDIT_ORDER)
+            .toList();
+        List<OpenInvoice> invoiceOrder = invoices.stream()
+            .filter(invoice -> invoice.amountDue().signum() > 0)
+            .sorted(policy == CreditAllocationPolicy.OLDEST_DUE_FIRST ? DUE_ORDER : ISSUE_ORDER)
+            .toList();
+
+        List<Allocation> allocations = new ArrayList<>();
+        int c = 0;
+        BigDecimal creditLeft = creditOrder.isEmpty() ? BigDecimal.ZERO : creditOrder.get(0).amount();
+        for (OpenInvoice invoice : invoiceOrder) {
+            BigDecimal due = invoice.amountDue();
+            while (due.signum() > 0 && c < creditOrder.size()) {
+                BigDecimal amount = creditLeft.min(due);
+                allocations.add(new Allocation(creditOrder.get(c).id(), invoice.id(), amount));
+                due = due.subtract(amount);
+                creditLeft = creditLeft.subtract(amount);
+                if (creditLeft.signum() == 0 && ++c < creditOrder.size()) {
+                    creditLeft = creditOrder.get(c).amount();
+                }
+            }
+            if (c == creditOrder.size()) {
+                break;
+            }
+        }
+        return allocations;
+    }
+
+    record Credit(UUID id, LocalDate date, BigDecimal amount) {}
+
+    record OpenInvoice(UUID id, LocalDate issueDate, LocalDate dueDate, BigDecimal amountDue) {}
+
+    record Allocation(UUID creditId, UUID invoiceId, BigDecimal amount) {}
+}
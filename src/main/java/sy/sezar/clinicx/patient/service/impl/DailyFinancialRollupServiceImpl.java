@@ -0,0 +1,484 @@
+package sy.sezar.clinicx.patient.service.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import sy.sezar.clinicx.patient.dto.DailyFinancialRollupDto;
+import sy.sezar.clinicx.patient.dto.RollupVerificationResultDto;
+import sy.sezar.clinicx.patient.model.InvoiceItem;
+import sy.sezar.clinicx.patient.model.LedgerEntry;
+import sy.sezar.clinicx.patient.model.VisitProcedure;
+import sy.sezar.clinicx.patient.model.enums.LedgerEntryType;
+import sy.sezar.clinicx.patient.model.enums.PaymentMethod;
+import sy.sezar.clinicx.patient.service.DailyFinancialRollupService;
+import sy.sezar.clinicx.tenant.TenantContext;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Implementation of DailyFinancialRollupService.
+ * Ledger entries are added to a buffer bound to the current transaction and written to
+ * daily_financial_rollup as deltas in a short transaction of their own after the commit, so rolled
+ * back work never reaches the rollup and the business transaction does not wait on rollup rows.
+ * A delta lost to a failed write is repaired by the nightly verification, which rebuilds every
+ * tenant day whose totals differ from the ledger.
+ */
+@Slf4j
+@Service
+public class DailyFinancialRollupServiceImpl implements DailyFinancialRollupService {
+
+    /** Key value of rows not attributed to a doctor. */
+    static final UUID UNATTRIBUTED_DOCTOR = new UUID(0, 0);
+
+    /** Key value of rows not attributed to a payment method or procedure code. */
+    static final String UNATTRIBUTED = "";
+
+    private static final int MAX_REPORTED_MISMATCHES = 100;
+    private static final int FLUSH_ATTEMPTS = 3;
+
+    private static final String ROLLUP_AMOUNT_SQL = rollupAmountSql();
+
+    private static final String UPDATE_SQL = """
+        UPDATE daily_financial_rollup
+        SET amount = amount + ?, entry_count = entry_count + ?, updated_at = CURRENT_TIMESTAMP
+        WHERE tenant_id = ? AND rollup_date = ? AND doctor_id = ? AND payment_method = ?
+          AND procedure_code = ? AND entry_type = ?
+        """;
+
+    private static final String INSERT_SQL = """
+        INSERT INTO daily_financial_rollup
+            (amount, entry_count, tenant_id, rollup_date, doctor_id, payment_method, procedure_code, entry_type)
+        VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+        """;
+
+    private static final String ROLLUP_SQL = """
+        SELECT r.rollup_date, r.doctor_id, s.full_name, r.payment_method, r.procedure_code, r.entry_type,
+               r.amount, r.entry_count
+        FROM daily_financial_rollup r
+        LEFT JOIN staff s ON s.id = r.doctor_id
+        WHERE r.tenant_id = :tenantId AND r.rollup_date BETWEEN :startDate AND :endDate
+        ORDER BY r.rollup_date
+        """;
+
+    /**
+     * Ledger and rollup totals per tenant and entry type of one day, in one statement. The ledger
+     * entries of the day are selected by the bounds of the day in the clock zone, never by a date
+     * computed by the database, whose session zone may differ.
+     */
+    private static final String VERIFY_SQL = """
+        SELECT 'LEDGER' AS source, tenant_id, entry_type, SUM(amount) AS amount,
+               CAST(COUNT(*) AS BIGINT) AS entry_count
+        FROM (
+            SELECT COALESCE(l.tenant_id, :defaultTenant) AS tenant_id, l.entry_type, %s AS amount
+            FROM ledger_entries l
+            WHERE l.occurred_at >= :startTime AND l.occurred_at < :endTime
+        ) e
+        GROUP BY tenant_id, entry_type
+        UNION ALL
+        SELECT 'ROLLUP', tenant_id, entry_type, SUM(amount), CAST(SUM(entry_count) AS BIGINT)
+        FROM daily_financial_rollup
+        WHERE rollup_date = :rollupDate
+        GROUP BY tenant_id, entry_type
+        """.formatted(ROLLUP_AMOUNT_SQL);
+
+    private static final String DELETE_SQL = "DELETE FROM daily_financial_rollup WHERE rollup_date = :rollupDate";
+
+    /**
+     * Recomputes the rollup of one day from the ledger with the attribution rules of {@link #record}:
+     * every entry is counted once on an unattributed row, and charges move the amount of each
+     * procedure item of their invoice onto a row for its doctor and procedure code.
+     */
+    private static final String REBUILD_SQL = """
+        INSERT INTO daily_financial_rollup
+            (tenant_id, rollup_date, doctor_id, payment_method, procedure_code, entry_type, amount, entry_count)
+        SELECT tenant_id, rollup_date, doctor_id, payment_method, procedure_code, entry_type,
+               SUM(amount), SUM(entry_count)
+        FROM (
+            SELECT COALESCE(l.tenant_id, :defaultTenant) AS tenant_id, CAST(:rollupDate AS DATE) AS rollup_date,
+                   CAST(:unattributedDoctor AS UUID) AS doctor_id,
+                   CAST(COALESCE(p.payment_method, '') AS VARCHAR(50)) AS payment_method,
+                   CAST('' AS VARCHAR(20)) AS procedure_code, l.entry_type,
+                   %s - CASE WHEN l.entry_type = 'CHARGE' THEN COALESCE((
+                       SELECT SUM(ii.amount)
+                       FROM invoice_items ii
+                       JOIN procedures pr ON pr.id = ii.procedure_id
+                       WHERE ii.invoice_id = l.invoice_id), 0) ELSE 0 END AS amount,
+                   1 AS entry_count
+            FROM ledger_entries l
+            LEFT JOIN payments p ON p.id = l.payment_id
+            WHERE l.occurred_at >= :startTime AND l.occurred_at < :endTime
+            UNION ALL
+            SELECT COALESCE(l.tenant_id, :defaultTenant), CAST(:rollupDate AS DATE),
+                   COALESCE(pr.performed_by_id, v.provider_id, :unattributedDoctor),
+                   COALESCE(p.payment_method, ''), pr.code, l.entry_type, ii.amount, 0
+            FROM ledger_entries l
+            JOIN invoice_items ii ON ii.invoice_id = l.invoice_id
+            JOIN procedures pr ON pr.id = ii.procedure_id
+            JOIN visits v ON v.id = pr.visit_id
+            LEFT JOIN payments p ON p.id = l.payment_id
+            WHERE l.entry_type = 'CHARGE' AND l.occurred_at >= :startTime AND l.occurred_at < :endTime
+        ) e
+        GROUP BY tenant_id, rollup_date, doctor_id, payment_method, procedure_code, entry_type
+        """.formatted(ROLLUP_AMOUNT_SQL);
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate flushTemplate;
+    private final Counter flushFailureCounter;
+    private final Counter mismatchCounter;
+    private Clock clock = Clock.systemDefaultZone();
+
+    @Value("${app.tenant.default-tenant:master}")
+    private String defaultTenant = "master";
+
+    @Value("${app.finance.rollup.verification.enabled:true}")
+    private boolean verificationEnabled = true;
+
+    @Value("${app.finance.rollup.verification.lookback-days:2}")
+    private int lookbackDays = 2;
+
+    @Value("${app.finance.rollup.verification.rebuild:true}")
+    private boolean rebuildOnSchedule = true;
+
+    public DailyFinancialRollupServiceImpl(NamedParameterJdbcTemplate jdbcTemplate,
+                                           PlatformTransactionManager transactionManager,
+                                           MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.flushTemplate = new TransactionTemplate(transactionManager);
+        this.flushTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.flushFailureCounter = Counter.builder("finance.rollup.flush.failures")
+            .description("Rollup deltas that could not be written after a commit")
+            .register(meterRegistry);
+        this.mismatchCounter = Counter.builder("finance.rollup.mismatches")
+            .description("Tenant days and entry types whose rollup differs from the ledger")
+            .register(meterRegistry);
+    }
+
+    @Override
+    public void record(LedgerEntry entry) {
+        LedgerEntryType type = entry.getEntryType();
+        String tenantId = entry.getTenantId() != null ? entry.getTenantId() : defaultTenant;
+        Instant occurredAt = entry.getOccurredAt() != null ? entry.getOccurredAt() : clock.instant();
+        LocalDate date = LocalDate.ofInstant(occurredAt, clock.getZone());
+        String paymentMethod = entry.getPayment() != null && entry.getPayment().getPaymentMethod() != null
+            ? entry.getPayment().getPaymentMethod().name()
+            : UNATTRIBUTED;
+
+        Map<Key, Delta> buffer = currentBuffer();
+        BigDecimal remainder = rollupAmount(type, entry.getAmount());
+        if (type == LedgerEntryType.CHARGE && entry.getInvoice() != null) {
+            for (InvoiceItem item : entry.getInvoice().getItems()) {
+                VisitProcedure procedure = item.getProcedure();
+                if (procedure == null || item.getAmount() == null) {
+                    continue;
+                }
+                Key key = new Key(tenantId, date, doctorOf(procedure), paymentMethod, procedure.getCode(), type);
+                buffer.computeIfAbsent(key, k -> new Delta()).add(item.getAmount(), 0);
+                remainder = remainder.subtract(item.getAmount());
+            }
+        }
+        Key key = new Key(tenantId, date, UNATTRIBUTED_DOCTOR, paymentMethod, UNATTRIBUTED, type);
+        buffer.computeIfAbsent(key, k -> new Delta()).add(remainder, 1);
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            flush(buffer);
+        }
+    }
+
+    @Override
+    public List<DailyFinancialRollupDto> getRollup(LocalDate startDate, LocalDate endDate) {
+        String tenantId = TenantContext.getCurrentTenant();
+        MapSqlParameterSource params = new MapSqlParameterSource()
+            .addValue("tenantId", tenantId != null ? tenantId : defaultTenant)
+            .addValue("startDate", Date.valueOf(startDate))
+            .addValue("endDate", Date.valueOf(endDate));
+        return jdbcTemplate.query(ROLLUP_SQL, params, (rs, rowNum) -> {
+            UUID doctorId = rs.getObject(2, UUID.class);
+            String paymentMethod = rs.getString(4);
+            String procedureCode = rs.getString(5);
+            return new DailyFinancialRollupDto(
+                rs.getDate(1).toLocalDate(),
+                UNATTRIBUTED_DOCTOR.equals(doctorId) ? null : doctorId,
+                rs.getString(3),
+                UNATTRIBUTED.equals(paymentMethod) ? null : PaymentMethod.valueOf(paymentMethod),
+                UNATTRIBUTED.equals(procedureCode) ? null : procedureCode,
+                LedgerEntryType.valueOf(rs.getString(6)),
+                rs.getBigDecimal(7),
+                rs.getLong(8));
+        });
+    }
+
+    @Scheduled(cron = "${app.finance.rollup.verification.cron:0 0 3 * * *}")
+    public void scheduledVerification() {
+        if (!verificationEnabled) {
+            return;
+        }
+        // Today is still being written to, so only completed days are verified
+        LocalDate endDate = LocalDate.now(clock).minusDays(1);
+        LocalDate startDate = endDate.minusDays(Math.max(lookbackDays, 1) - 1L);
+        RollupVerificationResultDto result = verify(startDate, endDate, rebuildOnSchedule);
+        if (result.mismatchCount() > 0) {
+            log.warn("Rollup verification found {} totals that differ from the ledger between {} and {} ({} days rebuilt)",
+                result.mismatchCount(), startDate, endDate, result.rebuiltDays());
+        } else {
+            log.info("Rollup verification found no mismatches between {} and {}", startDate, endDate);
+        }
+    }
+
+    @Override
+    public RollupVerificationResultDto verify(LocalDate startDate, LocalDate endDate, boolean rebuild) {
+        Map<DayKey, Totals> totals = new TreeMap<>(DayKey.ORDER);
+        for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+            LocalDate rollupDate = date;
+            jdbcTemplate.query(VERIFY_SQL, dayParams(rollupDate), rs -> {
+                DayKey key = new DayKey(rs.getString(2), rollupDate, LedgerEntryType.valueOf(rs.getString(3)));
+                Totals day = totals.computeIfAbsent(key, k -> new Totals());
+                if ("LEDGER".equals(rs.getString(1))) {
+                    day.ledgerAmount = rs.getBigDecimal(4);
+                    day.ledgerCount = rs.getLong(5);
+                } else {
+                    day.rollupAmount = rs.getBigDecimal(4);
+                    day.rollupCount = rs.getLong(5);
+                }
+            });
+        }
+
+        List<RollupVerificationResultDto.Mismatch> mismatches = new ArrayList<>();
+        TreeSet<LocalDate> mismatchedDays = new TreeSet<>();
+        totals.forEach((key, day) -> {
+            if (day.ledgerAmount.compareTo(day.rollupAmount) != 0 || day.ledgerCount != day.rollupCount) {
+                mismatchedDays.add(key.date());
+                mismatches.add(new RollupVerificationResultDto.Mismatch(key.tenantId(), key.date(), key.entryType(),
+                    day.ledgerAmount, day.rollupAmount, day.ledgerCount, day.rollupCount));
+            }
+        });
+        mismatchCounter.increment(mismatches.size());
+
+        int rebuiltDays = 0;
+        if (rebuild) {
+            for (LocalDate day : mismatchedDays) {
+                rebuild(day, day);
+                rebuiltDays++;
+            }
+        }
+
+        List<RollupVerificationResultDto.Mismatch> reported = mismatches.size() > MAX_REPORTED_MISMATCHES
+            ? List.copyOf(mismatches.subList(0, MAX_REPORTED_MISMATCHES))
+            : List.copyOf(mismatches);
+        return new RollupVerificationResultDto(mismatches.size(), rebuiltDays, reported, Instant.now(clock));
+    }
+
+    @Override
+    public int rebuild(LocalDate startDate, LocalDate endDate) {
+        Integer rows = transactionTemplate.execute(status -> {
+            int inserted = 0;
+            for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+                MapSqlParameterSource params = dayParams(date).addValue("unattributedDoctor", UNATTRIBUTED_DOCTOR);
+                jdbcTemplate.update(DELETE_SQL, params);
+                inserted += jdbcTemplate.update(REBUILD_SQL, params);
+            }
+            return inserted;
+        });
+        log.info("Rebuilt {} rollup rows between {} and {} from the ledger", rows, startDate, endDate);
+        return rows != null ? rows : 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<Key, Delta> currentBuffer() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return new HashMap<>();
+        }
+        Map<Key, Delta> buffer = (Map<Key, Delta>) TransactionSynchronizationManager.getResource(this);
+        if (buffer == null) {
+            Map<Key, Delta> created = new HashMap<>();
+            TransactionSynchronizationManager.bindResource(this, created);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    flush(created);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(DailyFinancialRollupServiceImpl.this);
+                }
+            });
+            buffer = created;
+        }
+        return buffer;
+    }
+
+    /**
+     * Applies buffered deltas in key order, so concurrent flushes lock rows in the same order.
+     * An insert that races with another flush for the same new row is retried as an update.
+     */
+    private void flush(Map<Key, Delta> buffer) {
+        if (buffer.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<Key, Delta>> rows = buffer.entrySet().stream()
+            .sorted(Map.Entry.comparingByKey(Key.ORDER))
+            .toList();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                flushTemplate.executeWithoutResult(status -> apply(rows));
+                return;
+            } catch (DuplicateKeyException e) {
+                if (attempt < FLUSH_ATTEMPTS) {
+                    continue;
+                }
+                fail(rows, e);
+                return;
+            } catch (RuntimeException e) {
+                fail(rows, e);
+                return;
+            }
+        }
+    }
+
+    private void apply(List<Map.Entry<Key, Delta>> rows) {
+        int[][] updated = jdbcTemplate.getJdbcTemplate().batchUpdate(UPDATE_SQL, rows, rows.size(),
+            (ps, row) -> bind(ps, row.getKey(), row.getValue()));
+        List<Map.Entry<Key, Delta>> missing = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i++) {
+            if (updated[0][i] == 0) {
+                missing.add(rows.get(i));
+            }
+        }
+        if (!missing.isEmpty()) {
+            jdbcTemplate.getJdbcTemplate().batchUpdate(INSERT_SQL, missing, missing.size(),
+                (ps, row) -> bind(ps, row.getKey(), row.getValue()));
+        }
+    }
+
+    private static void bind(PreparedStatement ps, Key key, Delta delta) throws SQLException {
+        ps.setBigDecimal(1, delta.amount);
+        ps.setLong(2, delta.count);
+        ps.setString(3, key.tenantId());
+        ps.setDate(4, Date.valueOf(key.date()));
+        ps.setObject(5, key.doctorId());
+        ps.setString(6, key.paymentMethod());
+        ps.setString(7, key.procedureCode());
+        ps.setString(8, key.entryType().name());
+    }
+
+    private void fail(List<Map.Entry<Key, Delta>> rows, Exception e) {
+        flushFailureCounter.increment(rows.size());
+        log.error("Failed to write {} rollup deltas for {}; the nightly verification will rebuild them: {}",
+            rows.size(), rows.stream().map(row -> row.getKey().tenantId() + " " + row.getKey().date())
+                .distinct().collect(Collectors.joining(", ")), e.getMessage());
+    }
+
+    /**
+     * Parameters of one rollup day: the date and the instants it starts and ends at in the clock
+     * zone, the same zone {@link #record} takes the date of an entry in.
+     */
+    private MapSqlParameterSource dayParams(LocalDate date) {
+        return new MapSqlParameterSource()
+            .addValue("defaultTenant", defaultTenant)
+            .addValue("rollupDate", Date.valueOf(date))
+            .addValue("startTime", Timestamp.from(date.atStartOfDay(clock.getZone()).toInstant()))
+            .addValue("endTime", Timestamp.from(date.plusDays(1).atStartOfDay(clock.getZone()).toInstant()));
+    }
+
+    private static UUID doctorOf(VisitProcedure procedure) {
+        if (procedure.getPerformedBy() != null) {
+            return procedure.getPerformedBy().getId();
+        }
+        if (procedure.getVisit() != null && procedure.getVisit().getProvider() != null) {
+            return procedure.getVisit().getProvider().getId();
+        }
+        return UNATTRIBUTED_DOCTOR;
+    }
+
+    /**
+     * Amount of an entry as rolled up: its magnitude, except for entry types whose sign carries
+     * meaning. Amounts are recorded with inconsistent signs, see {@link LedgerEntryType#balanceDelta}.
+     */
+    static BigDecimal rollupAmount(LedgerEntryType type, BigDecimal amount) {
+        if (amount == null) {
+            return BigDecimal.ZERO;
+        }
+        return type.getBalanceEffect() == LedgerEntryType.BalanceEffect.SIGNED ? amount : amount.abs();
+    }
+
+    /**
+     * Builds the SQL expression of {@link #rollupAmount} for one ledger row.
+     */
+    static String rollupAmountSql() {
+        String signed = Arrays.stream(LedgerEntryType.values())
+            .filter(type -> type.getBalanceEffect() == LedgerEntryType.BalanceEffect.SIGNED)
+            .map(type -> "'" + type.name() + "'")
+            .collect(Collectors.joining(", "));
+        return "CASE WHEN l.entry_type IN (" + signed + ") THEN l.amount ELSE ABS(l.amount) END";
+    }
+
+    private record Key(String tenantId, LocalDate date, UUID doctorId, String paymentMethod,
+                       String procedureCode, LedgerEntryType entryType) {
+
+        static final Comparator<Key> ORDER = Comparator.comparing(Key::tenantId)
+            .thenComparing(Key::date)
+            .thenComparing(Key::doctorId)
+            .thenComparing(Key::paymentMethod)
+            .thenComparing(Key::procedureCode)
+            .thenComparing(Key::entryType);
+    }
+
+    private record DayKey(String tenantId, LocalDate date, LedgerEntryType entryType) {
+
+        static final Comparator<DayKey> ORDER = Comparator.comparing(DayKey::tenantId)
+            .thenComparing(DayKey::date)
+            .thenComparing(DayKey::entryType);
+    }
+
+    /**
+     * Ledger and rollup totals of one tenant day and entry type; a side without rows counts as zero.
+     */
+    private static final class Totals {
+
+        private BigDecimal ledgerAmount = BigDecimal.ZERO;
+        private BigDecimal rollupAmount = BigDecimal.ZERO;
+        private long ledgerCount;
+        private long rollupCount;
+    }
+
+    private static final class Delta {
+
+        private BigDecimal amount = BigDecimal.ZERO;
+        private long count;
+
+        void add(BigDecimal value, long entries) {
+            amount = amount.add(value);
+            count += entries;
+        }
+    }
+}
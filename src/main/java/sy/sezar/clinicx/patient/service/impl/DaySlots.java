@@ -0,0 +1,174 @@
+package sy.sezar.clinicx.patient.service.impl;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Immutable set of the 5-minute slots of one day, 288 bits packed into five longs; slot i starts
+ * i * 5 minutes after midnight. Working hours and bookings of a doctor-day are combined with
+ * bitwise operations, and free runs of several slots are found by shifting the set onto itself.
+ */
+final class DaySlots {
+
+    static final int SLOT_MINUTES = 5;
+    static final int SLOTS_PER_DAY = 24 * 60 / SLOT_MINUTES;
+
+    private static final int WORDS = (SLOTS_PER_DAY + Long.SIZE - 1) / Long.SIZE;
+
+    static final DaySlots EMPTY = new DaySlots(new long[WORDS]);
+
+    private final long[] words;
+
+    private DaySlots(long[] words) {
+        this.words = words;
+    }
+
+    /**
+     * Returns the slots [from, to), clamped to the day.
+     */
+    static DaySlots range(int from, int to) {
+        from = Math.max(from, 0);
+        to = Math.min(to, SLOTS_PER_DAY);
+        if (from >= to) {
+            return EMPTY;
+        }
+        long[] words = new long[WORDS];
+        for (int word = from / Long.SIZE; word <= (to - 1) / Long.SIZE; word++) {
+            int low = Math.max(from - word * Long.SIZE, 0);
+            int high = Math.min(to - word * Long.SIZE, Long.SIZE);
+            long mask = high == Long.SIZE ? -1L : (1L << high) - 1;
+            words[word] = mask & (-1L << low);
+        }
+        return new DaySlots(words);
+    }
+
+    /**
+     * Returns every step-th slot of the day, starting at midnight.
+     */
+    static DaySlots every(int step) {
+        long[] words = new long[WORDS];
+        for (int slot = 0; slot < SLOTS_PER_DAY; slot += step) {
+            words[slot / Long.SIZE] |= 1L << slot;
+        }
+        return new DaySlots(words);
+    }
+
+    DaySlots or(DaySlots other) {
+        long[] result = new long[WORDS];
+        for (int i = 0; i < WORDS; i++) {
+            result[i] = words[i] | other.words[i];
+        }
+        return new DaySlots(result);
+    }
+
+    DaySlots and(DaySlots other) {
+        long[] result = new long[WORDS];
+        for (int i = 0; i < WORDS; i++) {
+            result[i] = words[i] & other.words[i];
+        }
+        return new DaySlots(result);
+    }
+
+    DaySlots andNot(DaySlots other) {
+        long[] result = new long[WORDS];
+        for (int i = 0; i < WORDS; i++) {
+            result[i] = words[i] & ~other.words[i];
+        }
+        return new DaySlots(result);
+    }
+
+    boolean intersects(DaySlots other) {
+        for (int i = 0; i < WORDS; i++) {
+            if ((words[i] & other.words[i]) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    boolean contains(int slot) {
+        return (words[slot / Long.SIZE] & (1L << slot)) != 0;
+    }
+
+    boolean isEmpty() {
+        for (long word : words) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    int cardinality() {
+        int cardinality = 0;
+        for (long word : words) {
+            cardinality += Long.bitCount(word);
+        }
+        return cardinality;
+    }
+
+    /**
+     * Returns the slots that start a run of {@code length} slots all in this set. Each step ANDs
+     * the set with itself shifted by the length covered so far, doubling it, so a run of n slots
+     * takes about log2(n) steps.
+     */
+    DaySlots runStarts(int length) {
+        long[] result = words.clone();
+        int covered = 1;
+        while (covered < length) {
+            int shift = Math.min(covered, length - covered);
+            long[] shifted = shiftDown(result, shift);
+            for (int i = 0; i < WORDS; i++) {
+                result[i] &= shifted[i];
+            }
+            covered += shift;
+        }
+        return new DaySlots(result);
+    }
+
+    /**
+     * Calls the action with each slot in this set, in order.
+     */
+    void forEach(IntConsumer action) {
+        for (int i = 0; i < WORDS; i++) {
+            long word = words[i];
+            while (word != 0) {
+                action.accept(i * Long.SIZE + Long.numberOfTrailingZeros(word));
+                word &= word - 1;
+            }
+        }
+    }
+
+    /**
+     * Moves every bit down by the given number of slots, so that slot i holds slot i + shift.
+     */
+    private static long[] shiftDown(long[] words, int shift) {
+        long[] result = new long[WORDS];
+        int wordShift = shift / Long.SIZE;
+        int bitShift = shift % Long.SIZE;
+        for (int i = 0; i + wordShift < WORDS; i++) {
+            long low = words[i + wordShift] >>> bitShift;
+            boolean carries = bitShift != 0 && i + wordShift + 1 < WORDS;
+            long high = carries ? words[i + wordShift + 1] << (Long.SIZE - bitShift) : 0;
+            result[i] = low | high;
+        }
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof DaySlots other && Arrays.equals(words, other.words);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(words);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder slots = new StringBuilder("DaySlots[");
+        forEach(slot -> slots.append(slots.length() > 9 ? "," : "").append(slot));
+        return slots.append(']').toString();
+    }
+}
@@ -0,0 +1,430 @@
+package sy.sezar.clinicx.patient.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import sy.sezar.clinicx.clinic.model.Staff;
+import sy.sezar.clinicx.clinic.model.StaffWorkingHours;
+import sy.sezar.clinicx.clinic.model.enums.StaffRole;
+import sy.sezar.clinicx.clinic.repository.StaffRepository;
+import sy.sezar.clinicx.clinic.repository.StaffRepository.StaffNameRow;
+import sy.sezar.clinicx.clinic.repository.StaffWorkingHoursRepository;
+import sy.sezar.clinicx.core.exception.BusinessRuleException;
+import sy.sezar.clinicx.core.exception.NotFoundException;
+import sy.sezar.clinicx.core.exception.NotValidValueException;
+import sy.sezar.clinicx.patient.dto.BookedSlotDto;
+import sy.sezar.clinicx.patient.dto.FreeSlotDto;
+import sy.sezar.clinicx.patient.dto.FreeSlotSearchCriteria;
+import sy.sezar.clinicx.patient.dto.WorkingHoursDto;
+import sy.sezar.clinicx.patient.service.DoctorAvailabilityService;
+import sy.sezar.clinicx.patient.service.DoctorScheduleIndex;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+
+/**
+ * Implementation of DoctorAvailabilityService on 5-minute {@link DaySlots}.
+ * The free slots of a doctor-day are its working hours without its bookings; the runs long enough
+ * for the requested duration are then found with a few shifts and ANDs of the bitset. The booked
+ * slots of each doctor-day are cached; a day the cache does not hold is built from the appointments
+ * in the {@link DoctorScheduleIndex}, which reads the days it does not hold for all doctors in one
+ * query. Bookings reported after a commit set and clear the slots of the cached days in place, and
+ * are stamped per day, so that a day built before a booking and cached after it is not kept. The
+ * expiry bounds how long bookings made by other instances go unseen. Slots are in the wall-clock
+ * time of the system time zone, like the working hours.
+ */
+@Slf4j
+@Service
+@Transactional(readOnly = true)
+public class DoctorAvailabilityServiceImpl implements DoctorAvailabilityService {
+
+    static final int MAX_SEARCH_DAYS = 31;
+    static final int MAX_LIMIT = 100;
+
+    private static final Duration EXPIRY = Duration.ofMinutes(5);
+    private static final long MAX_CACHED_DAYS = 50_000;
+
+    private static final Set<DayOfWeek> DEFAULT_WORKING_DAYS = EnumSet.range(DayOfWeek.MONDAY, DayOfWeek.FRIDAY);
+    private static final int SLOT_SECONDS = DaySlots.SLOT_MINUTES * 60;
+
+    private final DoctorScheduleIndex doctorScheduleIndex;
+    private final StaffRepository staffRepository;
+    private final StaffWorkingHoursRepository staffWorkingHoursRepository;
+    private final Map<DayOfWeek, DaySlots> defaultWorkingHours;
+    private final Cache<DayKey, BookedDay> bookedDays;
+
+    /** Stamp of the latest booking reported on each day, kept as long as a day built before it could be cached. */
+    private final Cache<DayKey, Long> updatedAt;
+    private final AtomicLong updates = new AtomicLong();
+
+    public DoctorAvailabilityServiceImpl(DoctorScheduleIndex doctorScheduleIndex,
+                                         StaffRepository staffRepository,
+                                         StaffWorkingHoursRepository staffWorkingHoursRepository,
+                                         MeterRegistry meterRegistry,
+                                         @Value("${app.scheduling.default-working-hours.start:09:00}") String defaultStart,
+                                         @Value("${app.scheduling.default-working-hours.end:17:00}") String defaultEnd) {
+        this.doctorScheduleIndex = doctorScheduleIndex;
+        this.staffRepository = staffRepository;
+        this.staffWorkingHoursRepository = staffWorkingHoursRepository;
+        DaySlots defaultHours = workingSlots(LocalTime.parse(defaultStart), LocalTime.parse(defaultEnd));
+        this.defaultWorkingHours = new EnumMap<>(DayOfWeek.class);
+        DEFAULT_WORKING_DAYS.forEach(day -> defaultWorkingHours.put(day, defaultHours));
+        this.bookedDays = Caffeine.newBuilder()
+            .expireAfterWrite(EXPIRY)
+            .maximumSize(MAX_CACHED_DAYS)
+            .recordStats()
+            .build();
+        this.updatedAt = Caffeine.newBuilder()
+            .expireAfterWrite(EXPIRY)
+            .maximumSize(MAX_CACHED_DAYS)
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, bookedDays, "doctorBookedDays");
+    }
+
+    @Override
+    public List<FreeSlotDto> findFreeSlots(FreeSlotSearchCriteria criteria) {
+        log.info("Finding free {}-minute slots between {} and {}",
+            criteria.durationMinutes(), criteria.fromDate(), criteria.toDate());
+        validateCriteria(criteria);
+
+        List<StaffNameRow> doctors = findDoctors(criteria);
+        if (doctors.isEmpty()) {
+            return List.of();
+        }
+        List<UUID> doctorIds = doctors.stream().map(StaffNameRow::getId).toList();
+        List<LocalDate> days = criteria.fromDate().datesUntil(criteria.toDate().plusDays(1)).toList();
+        Map<UUID, Map<DayOfWeek, DaySlots>> workingHours = workingHoursOf(doctorIds);
+        Map<DayKey, BookedDay> booked = bookedDaysOf(doctorIds, days);
+
+        int length = criteria.durationMinutes() / DaySlots.SLOT_MINUTES;
+        int step = criteria.stepMinutes() != null ? criteria.stepMinutes() : criteria.durationMinutes();
+        DaySlots starts = DaySlots.every(step / DaySlots.SLOT_MINUTES);
+        ZoneId zone = ZoneId.systemDefault();
+        Instant now = Instant.now();
+
+        List<FreeSlotDto> slots = new ArrayList<>();
+        for (LocalDate day : days) {
+            List<FreeSlotDto> slotsOfDay = new ArrayList<>();
+            for (StaffNameRow doctor : doctors) {
+                DaySlots hours = workingHours.getOrDefault(doctor.getId(), defaultWorkingHours)
+                    .getOrDefault(day.getDayOfWeek(), DaySlots.EMPTY);
+                DaySlots free = hours.andNot(booked.get(new DayKey(doctor.getId(), day)).slots());
+                free.runStarts(length).and(starts).forEach(slot -> {
+                    Instant start = instantOf(day, slot, zone);
+                    if (!start.isBefore(now)) {
+                        slotsOfDay.add(new FreeSlotDto(doctor.getId(), doctor.getFullName(), start,
+                            instantOf(day, slot + length, zone)));
+                    }
+                });
+            }
+            slotsOfDay.sort(Comparator.comparing(FreeSlotDto::startDateTime).thenComparing(FreeSlotDto::doctorName));
+            slots.addAll(slotsOfDay);
+            if (slots.size() >= criteria.limit()) {
+                break;
+            }
+        }
+
+        log.info("Found {} free slots of {} doctors", Math.min(slots.size(), criteria.limit()), doctors.size());
+        return slots.size() > criteria.limit() ? List.copyOf(slots.subList(0, criteria.limit())) : slots;
+    }
+
+    @Override
+    public List<WorkingHoursDto> getWorkingHours(UUID doctorId) {
+        log.debug("Getting working hours of doctor {}", doctorId);
+        return staffWorkingHoursRepository.findByStaffIdOrderByDayOfWeekAscStartTimeAsc(doctorId).stream()
+            .map(hours -> new WorkingHoursDto(hours.getDayOfWeek(), hours.getStartTime(), hours.getEndTime()))
+            .toList();
+    }
+
+    @Override
+    @Transactional
+    public List<WorkingHoursDto> replaceWorkingHours(UUID doctorId, List<WorkingHoursDto> workingHours) {
+        log.info("Replacing working hours of doctor {} with {} periods", doctorId, workingHours.size());
+
+        Staff doctor = staffRepository.findById(doctorId)
+            .orElseThrow(() -> new NotFoundException("Doctor not found with id: " + doctorId));
+        validateWorkingHours(workingHours);
+
+        staffWorkingHoursRepository.deleteByStaffId(doctorId);
+        staffWorkingHoursRepository.saveAll(workingHours.stream().map(period -> {
+            StaffWorkingHours hours = new StaffWorkingHours();
+            hours.setStaff(doctor);
+            hours.setDayOfWeek(period.dayOfWeek());
+            hours.setStartTime(period.startTime());
+            hours.setEndTime(period.endTime());
+            return hours;
+        }).toList());
+
+        return workingHours.stream()
+            .sorted(Comparator.comparing(WorkingHoursDto::dayOfWeek).thenComparing(WorkingHoursDto::startTime))
+            .toList();
+    }
+
+    @Override
+    public void appointmentBooked(UUID appointmentId, UUID doctorId, Instant start, Instant end) {
+        afterCommit(() -> updateDays(doctorId, start, end,
+            (day, date) -> day.with(appointmentId, bookedSlots(date, start, end, ZoneId.systemDefault()))));
+    }
+
+    @Override
+    public void appointmentReleased(UUID appointmentId, UUID doctorId, Instant start, Instant end) {
+        afterCommit(() -> updateDays(doctorId, start, end, (day, date) -> day.without(appointmentId)));
+    }
+
+    private void validateCriteria(FreeSlotSearchCriteria criteria) {
+        if (criteria.specialtyId() == null && (criteria.doctorIds() == null || criteria.doctorIds().isEmpty())) {
+            throw new NotValidValueException("specialtyId", null, "Specialty UUID or doctor UUIDs",
+                "A specialty or doctors are required to search free slots");
+        }
+        if (criteria.fromDate() == null || criteria.toDate() == null) {
+            throw new IllegalArgumentException("Date range parameters cannot be null");
+        }
+        if (criteria.fromDate().isAfter(criteria.toDate())) {
+            throw new NotValidValueException("fromDate", criteria.fromDate(), "Must be before or equal to toDate",
+                String.format("Invalid date range: start date %s is after end date %s",
+                    criteria.fromDate(), criteria.toDate()));
+        }
+        long days = ChronoUnit.DAYS.between(criteria.fromDate(), criteria.toDate()) + 1;
+        if (days > MAX_SEARCH_DAYS) {
+            throw new BusinessRuleException(String.format(
+                "Free slots can be searched over at most %d days. Requested range is %d days", MAX_SEARCH_DAYS, days));
+        }
+        validateMinutes("durationMinutes", criteria.durationMinutes());
+        if (criteria.stepMinutes() != null) {
+            validateMinutes("stepMinutes", criteria.stepMinutes());
+        }
+        if (criteria.limit() < 1 || criteria.limit() > MAX_LIMIT) {
+            throw new NotValidValueException("limit", criteria.limit(), "Between 1 and " + MAX_LIMIT,
+                "Invalid number of slots requested");
+        }
+    }
+
+    private static void validateMinutes(String fieldName, int minutes) {
+        if (minutes <= 0 || minutes % DaySlots.SLOT_MINUTES != 0 || minutes > 24 * 60) {
+            throw new NotValidValueException(fieldName, minutes,
+                "Positive multiple of " + DaySlots.SLOT_MINUTES + " minutes, at most a day",
+                String.format("Invalid %s: %d", fieldName, minutes));
+        }
+    }
+
+    private static void validateWorkingHours(List<WorkingHoursDto> workingHours) {
+        Map<DayOfWeek, List<WorkingHoursDto>> byDay = new EnumMap<>(DayOfWeek.class);
+        for (WorkingHoursDto period : workingHours) {
+            if (!period.startTime().isBefore(period.endTime())) {
+                throw new BusinessRuleException(String.format(
+                    "Working period on %s must start before it ends", period.dayOfWeek()));
+            }
+            byDay.computeIfAbsent(period.dayOfWeek(), day -> new ArrayList<>()).add(period);
+        }
+        byDay.forEach((day, periods) -> {
+            periods.sort(Comparator.comparing(WorkingHoursDto::startTime));
+            for (int i = 1; i < periods.size(); i++) {
+                if (periods.get(i).startTime().isBefore(periods.get(i - 1).endTime())) {
+                    throw new BusinessRuleException(String.format("Working periods on %s overlap", day));
+                }
+            }
+        });
+    }
+
+    private List<StaffNameRow> findDoctors(FreeSlotSearchCriteria criteria) {
+        if (criteria.specialtyId() == null) {
+            return staffRepository.findActiveNamesByRoleAndIds(StaffRole.DOCTOR, criteria.doctorIds());
+        }
+        List<StaffNameRow> doctors = staffRepository.findActiveNamesByRoleAndSpecialty(
+            StaffRole.DOCTOR, criteria.specialtyId());
+        if (criteria.doctorIds() == null || criteria.doctorIds().isEmpty()) {
+            return doctors;
+        }
+        return doctors.stream().filter(doctor -> criteria.doctorIds().contains(doctor.getId())).toList();
+    }
+
+    /**
+     * Returns the working slots of each doctor with working hours by day of the week; doctors
+     * without any are left out and work the default hours.
+     */
+    private Map<UUID, Map<DayOfWeek, DaySlots>> workingHoursOf(List<UUID> doctorIds) {
+        Map<UUID, Map<DayOfWeek, DaySlots>> workingHours = new HashMap<>();
+        for (StaffWorkingHours hours : staffWorkingHoursRepository.findByStaffIds(doctorIds)) {
+            workingHours.computeIfAbsent(hours.getStaff().getId(), id -> new EnumMap<>(DayOfWeek.class))
+                .merge(hours.getDayOfWeek(), workingSlots(hours.getStartTime(), hours.getEndTime()), DaySlots::or);
+        }
+        return workingHours;
+    }
+
+    /**
+     * Returns the booked days of the doctors, building the days missing from the cache from the
+     * schedule index. A day built is only cached when no booking of it was reported meanwhile,
+     * which the index may have missed and which found no cached day to update.
+     */
+    private Map<DayKey, BookedDay> bookedDaysOf(List<UUID> doctorIds, List<LocalDate> days) {
+        List<DayKey> keys = new ArrayList<>();
+        doctorIds.forEach(doctorId -> days.forEach(day -> keys.add(new DayKey(doctorId, day))));
+        Map<DayKey, BookedDay> booked = new HashMap<>(bookedDays.getAllPresent(keys));
+        List<DayKey> missing = keys.stream().filter(key -> !booked.containsKey(key)).toList();
+        if (missing.isEmpty()) {
+            return booked;
+        }
+
+        long builtAt = updates.get();
+        ZoneId zone = ZoneId.systemDefault();
+        Map<UUID, Map<LocalDate, List<BookedSlotDto>>> indexed = doctorScheduleIndex.findBookedDays(
+            missing.stream().map(DayKey::doctorId).distinct().toList(),
+            missing.stream().map(DayKey::day).distinct().toList());
+        for (DayKey key : missing) {
+            BookedDay day = BookedDay.EMPTY;
+            for (BookedSlotDto slot : indexed.get(key.doctorId()).get(key.day())) {
+                day = day.with(slot.appointmentId(),
+                    bookedSlots(key.day(), slot.startDateTime(), slot.endDateTime(), zone));
+            }
+            booked.put(key, day);
+            BookedDay built = day;
+            bookedDays.asMap().compute(key,
+                (k, cached) -> cached != null || isUpdatedAfter(k, builtAt) ? cached : built);
+        }
+        return booked;
+    }
+
+    /**
+     * Applies a booking to the cached days it falls on. The stamp is written first, so a day built
+     * before it is either cached in time to be updated here or not cached at all.
+     */
+    private void updateDays(UUID doctorId, Instant start, Instant end,
+                            BiFunction<BookedDay, LocalDate, BookedDay> update) {
+        if (doctorId == null || start == null || end == null) {
+            return;
+        }
+        long stamp = updates.incrementAndGet();
+        for (LocalDate date : datesOf(start, end, ZoneId.systemDefault())) {
+            DayKey key = new DayKey(doctorId, date);
+            updatedAt.put(key, stamp);
+            bookedDays.asMap().computeIfPresent(key, (k, day) -> update.apply(day, date));
+        }
+    }
+
+    private boolean isUpdatedAfter(DayKey key, long stamp) {
+        Long updated = updatedAt.getIfPresent(key);
+        return updated != null && updated > stamp;
+    }
+
+    /**
+     * Runs an action once the current transaction commits, after the schedule index has dropped
+     * the days the transaction changed, or right away when no transaction is active.
+     */
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    action.run();
+                }
+            }
+        });
+    }
+
+    /**
+     * Returns the slots of a day taken by [start, end), including the slots it only partly takes.
+     */
+    private static DaySlots bookedSlots(LocalDate day, Instant start, Instant end, ZoneId zone) {
+        return DaySlots.range(slotOn(day, start, zone, false), slotOn(day, end, zone, true));
+    }
+
+    /**
+     * Returns the slots fully within a working period, as a period starting or ending within a
+     * slot leaves that slot only partly worked.
+     */
+    private static DaySlots workingSlots(LocalTime start, LocalTime end) {
+        return DaySlots.range(Math.ceilDiv(start.toSecondOfDay(), SLOT_SECONDS), end.toSecondOfDay() / SLOT_SECONDS);
+    }
+
+    private static int slotOn(LocalDate day, Instant instant, ZoneId zone, boolean roundUp) {
+        LocalDateTime time = LocalDateTime.ofInstant(instant, zone);
+        if (time.toLocalDate().isBefore(day)) {
+            return 0;
+        }
+        if (time.toLocalDate().isAfter(day)) {
+            return DaySlots.SLOTS_PER_DAY;
+        }
+        int seconds = time.toLocalTime().toSecondOfDay();
+        return roundUp ? Math.ceilDiv(seconds, SLOT_SECONDS) : seconds / SLOT_SECONDS;
+    }
+
+    private static Instant instantOf(LocalDate day, int slot, ZoneId zone) {
+        return day.atStartOfDay().plusMinutes((long) slot * DaySlots.SLOT_MINUTES).atZone(zone).toInstant();
+    }
+
+    /**
+     * Returns the days, in the system time zone, that [start, end) falls on.
+     */
+    private static List<LocalDate> datesOf(Instant start, Instant end, ZoneId zone) {
+        LocalDate first = LocalDate.ofInstant(start, zone);
+        LocalDate last = LocalDate.ofInstant(end.isAfter(start) ? end.minusNanos(1) : start, zone);
+        return first.datesUntil(last.plusDays(1)).toList();
+    }
+
+    private record DayKey(UUID doctorId, LocalDate day) {
+    }
+
+    /**
+     * The booked slots of a doctor-day with the slots of each appointment, kept so that an
+     * appointment can be taken out without reading the day again.
+     */
+    private record BookedDay(DaySlots slots, Map<UUID, DaySlots> appointments) {
+
+        static final BookedDay EMPTY = new BookedDay(DaySlots.EMPTY, Map.of());
+
+        BookedDay with(UUID appointmentId, DaySlots appointmentSlots) {
+            BookedDay base = without(appointmentId);
+            if (appointmentSlots.isEmpty()) {
+                return base;
+            }
+            Map<UUID, DaySlots> appointments = new HashMap<>(base.appointments());
+            appointments.put(appointmentId, appointmentSlots);
+            return new BookedDay(base.slots().or(appointmentSlots), Map.copyOf(appointments));
+        }
+
+        BookedDay without(UUID appointmentId) {
+            DaySlots removed = appointments.get(appointmentId);
+            if (removed == null) {
+                return this;
+            }
+            Map<UUID, DaySlots> appointments = new HashMap<>(this.appointments);
+            appointments.remove(appointmentId);
+            // A slot partly taken by this appointment may be partly taken by a neighbour as well
+            DaySlots slots = this.slots.andNot(removed);
+            for (DaySlots other : appointments.values()) {
+                if (other.intersects(removed)) {
+                    slots = slots.or(other);
+                }
+            }
+            return new BookedDay(slots, Map.copyOf(appointments));
+        }
+    }
+}
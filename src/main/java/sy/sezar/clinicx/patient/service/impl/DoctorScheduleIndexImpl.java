@@ -0,0 +1,210 @@
+package sy.sezar.clinicx.patient.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import sy.sezar.clinicx.patient.dto.BookedSlotDto;
+import sy.sezar.clinicx.patient.model.enums.AppointmentStatus;
+import sy.sezar.clinicx.patient.repository.AppointmentRepository;
+import sy.sezar.clinicx.patient.repository.AppointmentRepository.BookedSlotRow;
+import sy.sezar.clinicx.patient.repository.AppointmentRepository.DoctorBookedSlotRow;
+import sy.sezar.clinicx.patient.service.DoctorScheduleIndex;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caffeine-backed implementation of DoctorScheduleIndex, holding an interval tree per doctor and day.
+ * A day is read on its first lookup and replaced as a whole when invalidated. Invalidation runs
+ * after the transaction completes, whether it commits or rolls back, so a day read while the
+ * change was uncommitted never outlives it; the expiry bounds how long changes made by other
+ * instances can go unseen, the exclusion constraint on appointments rejecting what they miss.
+ * Days read in bulk are not loaded under the cache's per-key lock, so each invalidation is stamped
+ * and a bulk read only caches the days not invalidated since it started.
+ */
+@Slf4j
+@Service
+public class DoctorScheduleIndexImpl implements DoctorScheduleIndex {
+
+    private static final Duration EXPIRY = Duration.ofMinutes(5);
+    private static final long MAX_DAYS = 10_000;
+
+    /** How far back a day is read for appointments running into it; appointments are shorter than a day. */
+    private static final Duration MAX_APPOINTMENT_LENGTH = Duration.ofDays(1);
+
+    private static final Set<AppointmentStatus> FREE_STATUSES = AppointmentStatus.freeingSlot();
+
+    private final AppointmentRepository appointmentRepository;
+    private final Cache<DayKey, AppointmentIntervalTree> days;
+
+    /** Stamp of the latest invalidation of each day, kept as long as a day read before it could be cached. */
+    private final Cache<DayKey, Long> invalidatedAt;
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public DoctorScheduleIndexImpl(AppointmentRepository appointmentRepository, MeterRegistry meterRegistry) {
+        this.appointmentRepository = appointmentRepository;
+        this.days = Caffeine.newBuilder()
+            .expireAfterWrite(EXPIRY)
+            .maximumSize(MAX_DAYS)
+            .recordStats()
+            .build();
+        this.invalidatedAt = Caffeine.newBuilder()
+            .expireAfterWrite(EXPIRY)
+            .maximumSize(MAX_DAYS)
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, days, "doctorScheduleDays");
+    }
+
+    @Override
+    public List<BookedSlotDto> findOverlapping(UUID doctorId, Instant start, Instant end) {
+        if (!start.isBefore(end)) {
+            return List.of();
+        }
+        // A slot running into the next day is held by both days, so it is collected once
+        LinkedHashMap<UUID, BookedSlotDto> overlapping = new LinkedHashMap<>();
+        for (LocalDate day : daysOf(start, end)) {
+            AppointmentIntervalTree tree = days.get(new DayKey(doctorId, day), this::load);
+            tree.overlapping(start, end).forEach(slot -> overlapping.putIfAbsent(slot.appointmentId(), slot));
+        }
+        return List.copyOf(overlapping.values());
+    }
+
+    @Override
+    public Map<UUID, Map<LocalDate, List<BookedSlotDto>>> findBookedDays(Collection<UUID> doctorIds,
+                                                                          Collection<LocalDate> dates) {
+        Set<DayKey> keys = new LinkedHashSet<>();
+        doctorIds.forEach(doctorId -> dates.forEach(day -> keys.add(new DayKey(doctorId, day))));
+        Map<DayKey, AppointmentIntervalTree> trees = new HashMap<>(days.getAllPresent(keys));
+        List<DayKey> missing = keys.stream().filter(key -> !trees.containsKey(key)).toList();
+        if (!missing.isEmpty()) {
+            long loadedAt = invalidations.get();
+            loadAll(missing).forEach((key, tree) -> {
+                trees.put(key, tree);
+                // A day invalidated while it was read may hold a booking that is gone or miss a new one
+                days.asMap().compute(key, (k, cached) ->
+                    cached != null || isInvalidatedAfter(k, loadedAt) ? cached : tree);
+            });
+        }
+
+        Map<UUID, Map<LocalDate, List<BookedSlotDto>>> booked = new HashMap<>();
+        trees.forEach((key, tree) ->
+            booked.computeIfAbsent(key.doctorId(), doctorId -> new HashMap<>()).put(key.day(), tree.slots()));
+        return booked;
+    }
+
+    @Override
+    public void invalidate(UUID doctorId, Instant start, Instant end) {
+        if (doctorId == null || start == null) {
+            return;
+        }
+        List<DayKey> keys = daysOf(start, end.isAfter(start) ? end : start.plusMillis(1)).stream()
+            .map(day -> new DayKey(doctorId, day))
+            .toList();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidateAll(keys);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                invalidateAll(keys);
+                log.debug("Invalidated schedule days {} of doctor {}", keys, doctorId);
+            }
+        });
+    }
+
+    private void invalidateAll(List<DayKey> keys) {
+        long stamp = invalidations.incrementAndGet();
+        keys.forEach(key -> invalidatedAt.put(key, stamp));
+        days.invalidateAll(keys);
+    }
+
+    private boolean isInvalidatedAfter(DayKey key, long stamp) {
+        Long invalidated = invalidatedAt.getIfPresent(key);
+        return invalidated != null && invalidated > stamp;
+    }
+
+    private AppointmentIntervalTree load(DayKey key) {
+        ZoneId zone = ZoneId.systemDefault();
+        Instant dayStart = key.day().atStartOfDay(zone).toInstant();
+        Instant dayEnd = key.day().plusDays(1).atStartOfDay(zone).toInstant();
+        List<BookedSlotDto> slots = appointmentRepository.findBookedSlots(
+                key.doctorId(), dayStart.minus(MAX_APPOINTMENT_LENGTH), dayEnd, FREE_STATUSES).stream()
+            .map(DoctorScheduleIndexImpl::slotOf)
+            .filter(slot -> slot.endDateTime().isAfter(dayStart))
+            .toList();
+        log.debug("Loaded {} booked slots of doctor {} on {}", slots.size(), key.doctorId(), key.day());
+        return AppointmentIntervalTree.of(slots);
+    }
+
+    /**
+     * Reads the days of several doctors in one query, the days without appointments included.
+     */
+    private Map<DayKey, AppointmentIntervalTree> loadAll(List<DayKey> keys) {
+        ZoneId zone = ZoneId.systemDefault();
+        List<UUID> doctorIds = keys.stream().map(DayKey::doctorId).distinct().toList();
+        LocalDate first = keys.stream().map(DayKey::day).min(Comparator.naturalOrder()).orElseThrow();
+        LocalDate last = keys.stream().map(DayKey::day).max(Comparator.naturalOrder()).orElseThrow();
+
+        Map<DayKey, List<BookedSlotDto>> slots = new HashMap<>();
+        keys.forEach(key -> slots.put(key, new ArrayList<>()));
+        List<DoctorBookedSlotRow> rows = appointmentRepository.findBookedSlotsOfDoctors(doctorIds,
+            first.atStartOfDay(zone).toInstant().minus(MAX_APPOINTMENT_LENGTH),
+            last.plusDays(1).atStartOfDay(zone).toInstant(), FREE_STATUSES);
+        for (DoctorBookedSlotRow row : rows) {
+            BookedSlotDto slot = slotOf(row);
+            for (LocalDate day : daysOf(slot.startDateTime(), slot.endDateTime())) {
+                List<BookedSlotDto> slotsOfDay = slots.get(new DayKey(row.getDoctorId(), day));
+                if (slotsOfDay != null) {
+                    slotsOfDay.add(slot);
+                }
+            }
+        }
+        log.debug("Loaded {} schedule days of {} doctors from {} booked slots", keys.size(), doctorIds.size(),
+            rows.size());
+
+        Map<DayKey, AppointmentIntervalTree> trees = new HashMap<>();
+        slots.forEach((key, slotsOfDay) -> trees.put(key, AppointmentIntervalTree.of(slotsOfDay)));
+        return trees;
+    }
+
+    private static BookedSlotDto slotOf(BookedSlotRow row) {
+        return new BookedSlotDto(row.getId(), row.getAppointmentDatetime(),
+            row.getAppointmentDatetime().plus(Duration.ofMinutes(row.getDurationMinutes())));
+    }
+
+    /**
+     * Returns the days, in the system time zone, that [start, end) falls on.
+     */
+    private static List<LocalDate> daysOf(Instant start, Instant end) {
+        ZoneId zone = ZoneId.systemDefault();
+        LocalDate first = LocalDate.ofInstant(start, zone);
+        LocalDate last = LocalDate.ofInstant(end.minusNanos(1), zone);
+        List<LocalDate> days = new ArrayList<>();
+        for (LocalDate day = first; !day.isAfter(last); day = day.plusDays(1)) {
+            days.add(day);
+        }
+        return days;
+    }
+
+    private record DayKey(UUID doctorId, LocalDate day) {
+    }
+}
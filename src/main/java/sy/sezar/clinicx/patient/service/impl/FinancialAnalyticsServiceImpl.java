@@ -0,0 +1,455 @@
+package sy.sezar.clinicx.patient.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import sy.sezar.clinicx.core.exception.BusinessRuleException;
+import sy.sezar.clinicx.patient.dto.*;
+import sy.sezar.clinicx.patient.model.enums.LedgerEntryType;
+import sy.sezar.clinicx.patient.service.DailyFinancialRollupService;
+import sy.sezar.clinicx.patient.service.FinancialAnalyticsService;
+import sy.sezar.clinicx.patient.service.InvoiceAgingService;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Implementation of FinancialAnalyticsService.
+ * Period analytics are computed from the daily financial rollup, which holds a few rows per day,
+ * instead of from the invoices and payments of the period. Revenue is the net of charges, taxes,
+ * discounts, write-offs and invoice adjustments; cash is payments received less refunds.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class FinancialAnalyticsServiceImpl implements FinancialAnalyticsService {
+
+    private static final String INVOICE_STATUS_SQL = """
+        SELECT i.status, COUNT(*) AS invoices, SUM(GREATEST(i.total_amount - COALESCE(i.amount_paid, 0), 0)) AS due
+        FROM invoices i
+        WHERE i.issue_date BETWEEN :startDate AND :endDate AND i.status NOT IN ('CANCELLED', 'DRAFT')
+        GROUP BY i.status
+        """;
+
+    private final DailyFinancialRollupService dailyFinancialRollupService;
+    private final InvoiceAgingService invoiceAgingService;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Override
+    public PatientFinancialSummaryDto getPatientFinancialSummary(UUID patientId) {
+        log.debug("Getting financial summary for patient: {}", patientId);
+        // TODO: Implement when patient level analytics are available
+        return null;
+    }
+
+    @Override
+    public RevenueAnalyticsDto getRevenueAnalytics(LocalDate startDate, LocalDate endDate) {
+        log.info("Generating revenue analytics from {} to {}", startDate, endDate);
+        validateRange(startDate, endDate);
+
+        // The previous period of the same length is read with the same query for the growth rate
+        LocalDate previousStart = startDate.minusDays(days(startDate, endDate));
+        List<DailyFinancialRollupDto> rows = dailyFinancialRollupService.getRollup(previousStart, endDate);
+        List<DailyFinancialRollupDto> current = within(rows, startDate);
+        Totals totals = Totals.of(current);
+        Totals previous = Totals.of(before(rows, startDate));
+
+        Map<LocalDate, List<DailyFinancialRollupDto>> byDay = current.stream()
+            .collect(Collectors.groupingBy(DailyFinancialRollupDto::date, TreeMap::new, Collectors.toList()));
+        List<RevenueTrendDto> trends = byDay.entrySet().stream()
+            .map(day -> {
+                Totals dayTotals = Totals.of(day.getValue());
+                return new RevenueTrendDto(day.getKey(), dayTotals.revenue, dayTotals.charged,
+                    dayTotals.cash, dayTotals.revenue.subtract(dayTotals.cash));
+            })
+            .toList();
+
+        return new RevenueAnalyticsDto(
+            startDate,
+            endDate,
+            totals.revenue,
+            totals.charged,
+            totals.cash,
+            totals.revenue.subtract(totals.cash).max(BigDecimal.ZERO),
+            divide(totals.charged, totals.invoices),
+            null,
+            sumBy(current, row -> YearMonth.from(row.date()).toString(), FinancialAnalyticsServiceImpl::revenueEffect),
+            sumBy(charges(current, row -> row.procedureCode() != null), DailyFinancialRollupDto::procedureCode,
+                DailyFinancialRollupDto::amount),
+            sumBy(charges(current, row -> row.doctorId() != null), FinancialAnalyticsServiceImpl::doctorLabel,
+                DailyFinancialRollupDto::amount),
+            trends,
+            growth(previous.revenue, totals.revenue),
+            percentage(totals.cash, totals.revenue));
+    }
+
+    @Override
+    public CollectionAnalyticsDto getCollectionAnalytics(LocalDate startDate, LocalDate endDate) {
+        log.info("Generating collection analytics from {} to {}", startDate, endDate);
+        validateRange(startDate, endDate);
+
+        List<DailyFinancialRollupDto> rows = dailyFinancialRollupService.getRollup(startDate, endDate);
+        Totals totals = Totals.of(rows);
+
+        // Invoice states are not part of the rollup; one grouped scan of the period's invoices
+        int[] invoiceCounts = new int[3];
+        BigDecimal[] dueAmounts = {BigDecimal.ZERO, BigDecimal.ZERO};
+        jdbcTemplate.query(INVOICE_STATUS_SQL, new MapSqlParameterSource()
+            .addValue("startDate", Date.valueOf(startDate))
+            .addValue("endDate", Date.valueOf(endDate)), rs -> {
+            String status = rs.getString(1);
+            int count = rs.getInt(2);
+            BigDecimal due = rs.getBigDecimal(3) != null ? rs.getBigDecimal(3) : BigDecimal.ZERO;
+            invoiceCounts[0] += count;
+            dueAmounts[0] = dueAmounts[0].add(due);
+            if ("PAID".equals(status)) {
+                invoiceCounts[1] += count;
+            } else if ("OVERDUE".equals(status)) {
+                invoiceCounts[2] += count;
+                dueAmounts[1] = dueAmounts[1].add(due);
+            }
+        });
+
+        return new CollectionAnalyticsDto(
+            startDate,
+            endDate,
+            totals.cash,
+            totals.revenue.subtract(totals.cash).max(BigDecimal.ZERO),
+            percentage(totals.cash, totals.revenue),
+            null,
+            cashByMethod(rows),
+            sumBy(rows, row -> YearMonth.from(row.date()).toString(), FinancialAnalyticsServiceImpl::cashEffect),
+            dueAmounts[1],
+            percentage(dueAmounts[1], dueAmounts[0]),
+            invoiceCounts[0],
+            invoiceCounts[1],
+            invoiceCounts[2]);
+    }
+
+    @Override
+    public AccountsReceivableAgingDto getAccountsReceivableAging(LocalDate asOfDate) {
+        log.debug("Getting accounts receivable aging as of: {}", asOfDate);
+        return invoiceAgingService.getAccountsReceivableAging(asOfDate);
+    }
+
+    @Override
+    public Map<String, BigDecimal> getPaymentMethodDistribution(LocalDate startDate, LocalDate endDate) {
+        log.info("Getting payment method distribution from {} to {}", startDate, endDate);
+        validateRange(startDate, endDate);
+        return cashByMethod(dailyFinancialRollupService.getRollup(startDate, endDate));
+    }
+
+    @Override
+    public TreatmentCostAnalysisDto getTreatmentCostAnalysis(LocalDate startDate, LocalDate endDate) {
+        log.debug("Getting treatment cost analysis from {} to {}", startDate, endDate);
+        // TODO: Implement when material costs are tracked per treatment
+        return null;
+    }
+
+    @Override
+    public PaymentTrendsDto getPatientPaymentTrends(UUID patientId, int months) {
+        log.debug("Getting payment trends for patient: {} over {} months", patientId, months);
+        // TODO: Implement when patient level analytics are available
+        return null;
+    }
+
+    @Override
+    public CashFlowAnalysisDto getCashFlowAnalysis(LocalDate startDate, LocalDate endDate) {
+        log.info("Generating cash flow analysis from {} to {}", startDate, endDate);
+        validateRange(startDate, endDate);
+
+        List<DailyFinancialRollupDto> rows = dailyFinancialRollupService.getRollup(startDate, endDate);
+        Map<LocalDate, BigDecimal[]> flowsByDay = new TreeMap<>();
+        for (DailyFinancialRollupDto row : rows) {
+            BigDecimal effect = cashEffect(row);
+            if (effect.signum() != 0) {
+                BigDecimal[] flows = flowsByDay.computeIfAbsent(row.date(),
+                    day -> new BigDecimal[]{BigDecimal.ZERO, BigDecimal.ZERO});
+                int side = effect.signum() > 0 ? 0 : 1;
+                flows[side] = flows[side].add(effect.abs());
+            }
+        }
+
+        // The period starts from a zero balance, like the daily cash report
+        BigDecimal openingBalance = BigDecimal.ZERO;
+        BigDecimal balance = openingBalance;
+        BigDecimal inflows = BigDecimal.ZERO;
+        BigDecimal outflows = BigDecimal.ZERO;
+        List<CashFlowDetailDto> details = new ArrayList<>();
+        for (Map.Entry<LocalDate, BigDecimal[]> day : flowsByDay.entrySet()) {
+            BigDecimal[] flows = day.getValue();
+            if (flows[0].signum() != 0) {
+                balance = balance.add(flows[0]);
+                details.add(new CashFlowDetailDto(day.getKey(), "PAYMENTS", "Payments received",
+                    flows[0], "INFLOW", balance));
+            }
+            if (flows[1].signum() != 0) {
+                balance = balance.subtract(flows[1]);
+                details.add(new CashFlowDetailDto(day.getKey(), "REFUNDS", "Refunds and payment corrections",
+                    flows[1], "OUTFLOW", balance));
+            }
+            inflows = inflows.add(flows[0]);
+            outflows = outflows.add(flows[1]);
+        }
+
+        // Daily net flows including days without any, for the average, variance and trend
+        long days = days(startDate, endDate);
+        double[] daily = new double[(int) days];
+        flowsByDay.forEach((day, flows) ->
+            daily[(int) ChronoUnit.DAYS.between(startDate, day)] = flows[0].subtract(flows[1]).doubleValue());
+        BigDecimal netCashFlow = inflows.subtract(outflows);
+
+        return new CashFlowAnalysisDto(
+            startDate,
+            endDate,
+            openingBalance,
+            balance,
+            netCashFlow,
+            inflows,
+            outflows,
+            sumBy(rows, row -> YearMonth.from(row.date()).toString(), FinancialAnalyticsServiceImpl::cashEffect),
+            details,
+            divide(netCashFlow, days),
+            scale(variance(daily)),
+            scale(slope(daily)));
+    }
+
+    @Override
+    public OutstandingBalancesDto getOutstandingBalances(BigDecimal threshold) {
+        log.debug("Getting outstanding balances above: {}", threshold);
+        // TODO: Implement when patient level analytics are available
+        return null;
+    }
+
+    @Override
+    public FinancialPerformanceMetricsDto getFinancialPerformanceMetrics(LocalDate startDate, LocalDate endDate) {
+        log.info("Generating financial performance metrics from {} to {}", startDate, endDate);
+        validateRange(startDate, endDate);
+
+        long days = days(startDate, endDate);
+        List<DailyFinancialRollupDto> rows = dailyFinancialRollupService.getRollup(startDate.minusDays(days), endDate);
+        Totals totals = Totals.of(within(rows, startDate));
+        Totals previous = Totals.of(before(rows, startDate));
+
+        BigDecimal outstanding = totals.revenue.subtract(totals.cash).max(BigDecimal.ZERO);
+        BigDecimal dailyRevenue = totals.revenue.divide(BigDecimal.valueOf(days), 4, RoundingMode.HALF_UP);
+        BigDecimal daysSalesOutstanding = dailyRevenue.signum() > 0
+            ? outstanding.divide(dailyRevenue, 2, RoundingMode.HALF_UP)
+            : BigDecimal.ZERO;
+
+        // Expenses, assets and liabilities are not recorded, so metrics that need them stay empty
+        return new FinancialPerformanceMetricsDto(
+            startDate,
+            endDate,
+            totals.revenue,
+            null,
+            null,
+            null,
+            null,
+            growth(previous.revenue, totals.revenue),
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            totals.cash,
+            null,
+            null,
+            totals.cash,
+            daysSalesOutstanding,
+            null,
+            null,
+            null,
+            null);
+    }
+
+    @Override
+    public Map<String, Object> getFinancialDashboard(LocalDate startDate, LocalDate endDate) {
+        log.info("Generating financial dashboard from {} to {}", startDate, endDate);
+        validateRange(startDate, endDate);
+
+        List<DailyFinancialRollupDto> rows = dailyFinancialRollupService.getRollup(startDate, endDate);
+        Totals totals = Totals.of(rows);
+
+        Map<String, Object> dashboard = new LinkedHashMap<>();
+        dashboard.put("startDate", startDate);
+        dashboard.put("endDate", endDate);
+        dashboard.put("totalRevenue", totals.revenue);
+        dashboard.put("totalInvoiced", totals.charged);
+        dashboard.put("totalCollected", totals.cash);
+        dashboard.put("outstandingAmount", totals.revenue.subtract(totals.cash).max(BigDecimal.ZERO));
+        dashboard.put("collectionRate", percentage(totals.cash, totals.revenue));
+        dashboard.put("invoiceCount", totals.invoices);
+        dashboard.put("paymentCount", totals.payments);
+        dashboard.put("refundCount", totals.refunds);
+        dashboard.put("revenueByMonth",
+            sumBy(rows, row -> YearMonth.from(row.date()).toString(), FinancialAnalyticsServiceImpl::revenueEffect));
+        dashboard.put("revenueByDoctor", sumBy(charges(rows, row -> row.doctorId() != null),
+            FinancialAnalyticsServiceImpl::doctorLabel, DailyFinancialRollupDto::amount));
+        dashboard.put("collectionsByMethod", cashByMethod(rows));
+        return dashboard;
+    }
+
+    /**
+     * Revenue change caused by a rollup row. Adjustments that belong to a payment correct cash, not revenue,
+     * and opening balances carried over from before the ledger are neither.
+     */
+    private static BigDecimal revenueEffect(DailyFinancialRollupDto row) {
+        return switch (row.entryType()) {
+            case CHARGE, TAX -> row.amount();
+            case DISCOUNT, WRITE_OFF -> row.amount().negate();
+            case ADJUSTMENT -> row.paymentMethod() == null ? row.amount() : BigDecimal.ZERO;
+            default -> BigDecimal.ZERO;
+        };
+    }
+
+    /**
+     * Cash change caused by a rollup row. A payment adjustment raises the balance when the payment shrinks.
+     */
+    private static BigDecimal cashEffect(DailyFinancialRollupDto row) {
+        return switch (row.entryType()) {
+            case PAYMENT_RECEIPT -> row.amount();
+            case REFUND -> row.amount().negate();
+            case ADJUSTMENT -> row.paymentMethod() != null ? row.amount().negate() : BigDecimal.ZERO;
+            default -> BigDecimal.ZERO;
+        };
+    }
+
+    private static Map<String, BigDecimal> cashByMethod(List<DailyFinancialRollupDto> rows) {
+        return sumBy(rows.stream().filter(row -> row.paymentMethod() != null).toList(),
+            row -> row.paymentMethod().name(), FinancialAnalyticsServiceImpl::cashEffect);
+    }
+
+    private static List<DailyFinancialRollupDto> charges(List<DailyFinancialRollupDto> rows,
+                                                         Predicate<DailyFinancialRollupDto> attributed) {
+        return rows.stream()
+            .filter(row -> row.entryType() == LedgerEntryType.CHARGE && attributed.test(row))
+            .toList();
+    }
+
+    private static String doctorLabel(DailyFinancialRollupDto row) {
+        return row.doctorName() != null ? row.doctorName() : row.doctorId().toString();
+    }
+
+    /**
+     * Sums rows by key, largest totals first; keys whose total is zero are left out.
+     */
+    private static Map<String, BigDecimal> sumBy(List<DailyFinancialRollupDto> rows,
+                                                 Function<DailyFinancialRollupDto, String> key,
+                                                 Function<DailyFinancialRollupDto, BigDecimal> amount) {
+        Map<String, BigDecimal> sums = rows.stream()
+            .collect(Collectors.toMap(key, amount, BigDecimal::add));
+        return sums.entrySet().stream()
+            .filter(entry -> entry.getValue().signum() != 0)
+            .sorted(Map.Entry.<String, BigDecimal>comparingByValue().reversed())
+            .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, BigDecimal::add, LinkedHashMap::new));
+    }
+
+    private static List<DailyFinancialRollupDto> within(List<DailyFinancialRollupDto> rows, LocalDate startDate) {
+        return rows.stream().filter(row -> !row.date().isBefore(startDate)).toList();
+    }
+
+    private static List<DailyFinancialRollupDto> before(List<DailyFinancialRollupDto> rows, LocalDate startDate) {
+        return rows.stream().filter(row -> row.date().isBefore(startDate)).toList();
+    }
+
+    private static void validateRange(LocalDate startDate, LocalDate endDate) {
+        if (startDate == null || endDate == null || startDate.isAfter(endDate)) {
+            throw new BusinessRuleException("Invalid date range: " + startDate + " to " + endDate);
+        }
+    }
+
+    private static long days(LocalDate startDate, LocalDate endDate) {
+        return ChronoUnit.DAYS.between(startDate, endDate) + 1;
+    }
+
+    private static BigDecimal divide(BigDecimal amount, long count) {
+        return count > 0 ? amount.divide(BigDecimal.valueOf(count), 2, RoundingMode.HALF_UP) : BigDecimal.ZERO;
+    }
+
+    private static BigDecimal percentage(BigDecimal part, BigDecimal whole) {
+        if (whole == null || whole.signum() == 0) {
+            return BigDecimal.ZERO;
+        }
+        return part.multiply(BigDecimal.valueOf(100)).divide(whole, 2, RoundingMode.HALF_UP);
+    }
+
+    private static BigDecimal growth(BigDecimal previous, BigDecimal current) {
+        return percentage(current.subtract(previous), previous);
+    }
+
+    private static BigDecimal scale(double value) {
+        return BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    private static double variance(double[] values) {
+        double mean = Arrays.stream(values).average().orElse(0);
+        return Arrays.stream(values).map(value -> (value - mean) * (value - mean)).average().orElse(0);
+    }
+
+    /**
+     * Least squares slope of the values over their index, i.e. the change per day.
+     */
+    private static double slope(double[] values) {
+        int n = values.length;
+        if (n < 2) {
+            return 0;
+        }
+        double meanX = (n - 1) / 2.0;
+        double meanY = Arrays.stream(values).average().orElse(0);
+        double covariance = 0;
+        double varianceX = 0;
+        for (int i = 0; i < n; i++) {
+            covariance += (i - meanX) * (values[i] - meanY);
+            varianceX += (i - meanX) * (i - meanX);
+        }
+        return covariance / varianceX;
+    }
+
+    /**
+     * Period totals of a set of rollup rows.
+     */
+    private static final class Totals {
+
+        private BigDecimal charged = BigDecimal.ZERO;
+        private BigDecimal revenue = BigDecimal.ZERO;
+        private BigDecimal cash = BigDecimal.ZERO;
+        private long invoices;
+        private long payments;
+        private long refunds;
+
+        static Totals of(List<DailyFinancialRollupDto> rows) {
+            Totals totals = new Totals();
+            for (DailyFinancialRollupDto row : rows) {
+                totals.revenue = totals.revenue.add(revenueEffect(row));
+                totals.cash = totals.cash.add(cashEffect(row));
+                switch (row.entryType()) {
+                    case CHARGE -> {
+                        totals.charged = totals.charged.add(row.amount());
+                        totals.invoices += row.entryCount();
+                    }
+                    case TAX -> totals.charged = totals.charged.add(row.amount());
+                    case PAYMENT_RECEIPT -> totals.payments += row.entryCount();
+                    case REFUND -> totals.refunds += row.entryCount();
+                    default -> {
+                    }
+                }
+            }
+            return totals;
+        }
+    }
+}
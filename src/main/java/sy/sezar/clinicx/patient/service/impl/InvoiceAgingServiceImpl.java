@@ -0,0 +1,441 @@
+package sy.sezar.clinicx.patient.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import sy.sezar.clinicx.core.exception.BusinessRuleException;
+import sy.sezar.clinicx.patient.dto.AccountsReceivableAgingDto;
+import sy.sezar.clinicx.patient.dto.AgingDetailDto;
+import sy.sezar.clinicx.patient.dto.AgingGroupDto;
+import sy.sezar.clinicx.patient.dto.AgingPageDto;
+import sy.sezar.clinicx.patient.dto.InvoiceAgingReportDto;
+import sy.sezar.clinicx.patient.service.InvoiceAgingService;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Implementation of InvoiceAgingService.
+ * <p>
+ * Balances are read from the materialized {@code amount_due} of open invoices, which the partial
+ * index on open invoices covers, instead of summing the payments of every invoice. For a date in
+ * the past the payments received after it are added back to the balances, which also brings back
+ * invoices that were open then and have been paid since; discounts and write-offs are taken as
+ * they are now. Each summary and page is computed by one statement.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class InvoiceAgingServiceImpl implements InvoiceAgingService {
+
+    private static final String OPEN_STATUSES = "('UNPAID', 'PARTIALLY_PAID', 'OVERDUE')";
+
+    /** Columns of the {@code balances} relation that the aging statements read. */
+    private static final String BALANCE_COLUMNS = """
+        i.id, i.patient_id, i.invoice_number, i.issue_date, i.due_date,
+        COALESCE(i.due_date, i.issue_date) AS aged_from, i.total_amount AS amount""";
+
+    /** Open invoices with their balance now. */
+    private static final String CURRENT_BALANCES = """
+        WITH balances AS (
+            SELECT %s, COALESCE(i.amount_paid, 0) AS paid, i.amount_due AS balance
+            FROM invoices i
+            WHERE i.status IN %s AND i.amount_due > 0
+        )
+        """.formatted(BALANCE_COLUMNS, OPEN_STATUSES);
+
+    /**
+     * Invoices issued by the as-of date with their balance then: the open invoices, and the
+     * invoices closed since then by payments received after it.
+     */
+    private static final String SNAPSHOT_BALANCES = """
+        WITH later AS (
+            SELECT p.invoice_id, SUM(p.amount) AS paid_after
+            FROM payments p
+            WHERE p.payment_date > :asOfDate AND p.invoice_id IS NOT NULL AND p.type = 'PAYMENT'
+              AND p.status NOT IN ('FAILED', 'CANCELLED', 'VOIDED')
+            GROUP BY p.invoice_id
+        ), balances AS (
+            SELECT %1$s, COALESCE(i.amount_paid, 0) - COALESCE(l.paid_after, 0) AS paid,
+                   i.amount_due + COALESCE(l.paid_after, 0) AS balance
+            FROM invoices i
+            LEFT JOIN later l ON l.invoice_id = i.id
+            WHERE i.status IN %2$s AND i.issue_date <= :asOfDate
+            UNION ALL
+            SELECT %1$s, COALESCE(i.amount_paid, 0) - l.paid_after AS paid,
+                   COALESCE(i.amount_due, 0) + l.paid_after AS balance
+            FROM later l
+            JOIN invoices i ON i.id = l.invoice_id
+            WHERE i.status NOT IN %2$s AND i.status NOT IN ('CANCELLED', 'DRAFT') AND i.issue_date <= :asOfDate
+        )
+        """.formatted(BALANCE_COLUMNS, OPEN_STATUSES);
+
+    /** Balances of the rows of {@code o} by aging bucket, with the bucket bounds as parameters. */
+    private static final String BUCKETS = """
+        SUM(CASE WHEN o.aged_from >= :asOfDate THEN o.balance ELSE 0 END) AS current_amount,
+        SUM(CASE WHEN o.aged_from < :asOfDate AND o.aged_from >= :days30 THEN o.balance ELSE 0 END) AS days30_amount,
+        SUM(CASE WHEN o.aged_from < :days30 AND o.aged_from >= :days60 THEN o.balance ELSE 0 END) AS days60_amount,
+        SUM(CASE WHEN o.aged_from < :days60 AND o.aged_from >= :days90 THEN o.balance ELSE 0 END) AS days90_amount,
+        SUM(CASE WHEN o.aged_from < :days90 THEN o.balance ELSE 0 END) AS over90_amount,
+        COUNT(*) AS invoice_count""";
+
+    /** Bucket totals over all patients, counting the patients with a balance and with one past due. */
+    private static final String SUMMARY_SQL = """
+        SELECT SUM(g.current_amount) AS current_amount, SUM(g.days30_amount) AS days30_amount,
+               SUM(g.days60_amount) AS days60_amount, SUM(g.days90_amount) AS days90_amount,
+               SUM(g.over90_amount) AS over90_amount, SUM(g.invoice_count) AS invoice_count,
+               COUNT(*) AS accounts, COUNT(CASE WHEN g.past_due > 0 THEN 1 END) AS overdue_accounts
+        FROM (
+            SELECT o.patient_id, %s,
+                   SUM(CASE WHEN o.aged_from < :asOfDate THEN 1 ELSE 0 END) AS past_due
+            FROM balances o
+            WHERE o.balance > 0
+            GROUP BY o.patient_id
+        ) g
+        """.formatted(BUCKETS);
+
+    private static final String BY_PATIENT_SQL = """
+        SELECT g.*, pt.full_name
+        FROM (
+            SELECT o.patient_id, %s
+            FROM balances o
+            WHERE o.balance > 0%s
+            GROUP BY o.patient_id
+            ORDER BY o.patient_id
+            LIMIT :limit
+        ) g
+        JOIN patients pt ON pt.id = g.patient_id
+        ORDER BY g.patient_id
+        """;
+
+    private static final String BY_PROVIDER_SQL = """
+        SELECT o.provider, %s
+        FROM (
+            SELECT COALESCE(pt.insurance_provider, '') AS provider, b.aged_from, b.balance
+            FROM balances b
+            JOIN patients pt ON pt.id = b.patient_id
+            WHERE b.balance > 0%s
+        ) o
+        GROUP BY o.provider
+        ORDER BY o.provider
+        LIMIT :limit
+        """;
+
+    private static final String INVOICES_SQL = """
+        SELECT o.id, o.patient_id, pt.full_name, pt.public_facing_id, o.invoice_number, o.issue_date,
+               o.due_date, o.aged_from, o.amount, o.paid, o.balance
+        FROM balances o
+        JOIN patients pt ON pt.id = o.patient_id
+        WHERE o.balance > 0%s
+        ORDER BY o.aged_from, o.id
+        LIMIT :limit
+        """;
+
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final String SELF_PAY = "Self-pay";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Value("${app.finance.aging.detail-limit:1000}")
+    private int detailLimit = 1000;
+
+    @Override
+    public InvoiceAgingReportDto getAgingReport(LocalDate asOfDate, boolean includeDetails) {
+        log.info("Generating aging report as of {}", asOfDate);
+        Summary summary = summary(asOfDate);
+
+        List<InvoiceAgingReportDto.AgingDetail> details = List.of();
+        if (includeDetails) {
+            details = invoices(asOfDate, "", new MapSqlParameterSource(), detailLimit).stream()
+                .map(row -> new InvoiceAgingReportDto.AgingDetail(row.patientName, row.patientPublicId,
+                    row.invoiceNumber, row.issueDate, row.dueDate, row.amount, row.balance,
+                    row.daysPastDue, row.bucket))
+                .toList();
+            if (details.size() == detailLimit) {
+                log.debug("Aging report details as of {} truncated to {} invoices", asOfDate, detailLimit);
+            }
+        }
+
+        // The aging report counts invoices up to 30 days past due as current
+        return new InvoiceAgingReportDto(
+            summary.current.add(summary.days30),
+            summary.days60,
+            summary.days90,
+            summary.over90,
+            summary.total(),
+            asOfDate,
+            details);
+    }
+
+    @Override
+    public AccountsReceivableAgingDto getAccountsReceivableAging(LocalDate asOfDate) {
+        log.info("Getting accounts receivable aging as of {}", asOfDate);
+        Summary summary = summary(asOfDate);
+
+        Map<String, BigDecimal> buckets = new LinkedHashMap<>();
+        buckets.put(Bucket.CURRENT.label, summary.current);
+        buckets.put(Bucket.DAYS_30.label, summary.days30);
+        buckets.put(Bucket.DAYS_60.label, summary.days60);
+        buckets.put(Bucket.DAYS_90.label, summary.days90);
+        buckets.put(Bucket.OVER_90.label, summary.over90);
+
+        // Invoices are listed by the drill-down, which pages through them
+        return new AccountsReceivableAgingDto(
+            asOfDate,
+            summary.total(),
+            buckets,
+            List.of(),
+            summary.current,
+            summary.days30,
+            summary.days60,
+            summary.days90,
+            summary.over90,
+            summary.accounts,
+            summary.accounts - summary.overdueAccounts,
+            summary.overdueAccounts);
+    }
+
+    @Override
+    public AgingPageDto<AgingGroupDto> getAgingByPatient(LocalDate asOfDate, String cursor, int size) {
+        log.debug("Getting aging by patient as of {} after {}", asOfDate, cursor);
+        validatePageSize(size);
+        MapSqlParameterSource params = parameters(asOfDate).addValue("limit", size + 1);
+        String after = "";
+        if (cursor != null) {
+            params.addValue("afterPatient", decodeCursor(cursor, UUID::fromString));
+            after = " AND o.patient_id > :afterPatient";
+        }
+
+        List<AgingGroupDto> groups = jdbcTemplate.query(
+            balances(asOfDate) + BY_PATIENT_SQL.formatted(BUCKETS, after), params,
+            (rs, rowNum) -> group(rs, rs.getObject("patient_id", UUID.class).toString(), rs.getString("full_name")));
+        return page(asOfDate, groups, size, AgingGroupDto::key);
+    }
+
+    @Override
+    public AgingPageDto<AgingGroupDto> getAgingByInsuranceProvider(LocalDate asOfDate, String cursor, int size) {
+        log.debug("Getting aging by insurance provider as of {} after {}", asOfDate, cursor);
+        validatePageSize(size);
+        MapSqlParameterSource params = parameters(asOfDate).addValue("limit", size + 1);
+        String after = "";
+        if (cursor != null) {
+            params.addValue("afterProvider", decodeCursor(cursor, Function.identity()));
+            after = " AND COALESCE(pt.insurance_provider, '') > :afterProvider";
+        }
+
+        List<AgingGroupDto> groups = jdbcTemplate.query(
+            balances(asOfDate) + BY_PROVIDER_SQL.formatted(BUCKETS, after), params,
+            (rs, rowNum) -> {
+                String provider = rs.getString("provider");
+                return group(rs, provider, provider.isEmpty() ? SELF_PAY : provider);
+            });
+        return page(asOfDate, groups, size, AgingGroupDto::key);
+    }
+
+    @Override
+    public AgingPageDto<AgingDetailDto> getAgingInvoices(LocalDate asOfDate, UUID patientId, String insuranceProvider,
+                                                         String cursor, int size) {
+        log.debug("Getting aging invoices as of {} for patient {} and insurance provider {} after {}",
+            asOfDate, patientId, insuranceProvider, cursor);
+        validatePageSize(size);
+        StringBuilder where = new StringBuilder();
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        if (patientId != null) {
+            where.append(" AND o.patient_id = :patientId");
+            params.addValue("patientId", patientId);
+        }
+        if (insuranceProvider != null) {
+            where.append(" AND COALESCE(pt.insurance_provider, '') = :insuranceProvider");
+            params.addValue("insuranceProvider", insuranceProvider.strip());
+        }
+        if (cursor != null) {
+            InvoiceKey after = decodeCursor(cursor, InvoiceKey::parse);
+            where.append(" AND (o.aged_from > :afterDate OR (o.aged_from = :afterDate AND o.id > :afterId))");
+            params.addValue("afterDate", Date.valueOf(after.agedFrom)).addValue("afterId", after.id);
+        }
+
+        List<AgingDetailDto> invoices = invoices(asOfDate, where.toString(), params, size + 1).stream()
+            .map(row -> new AgingDetailDto(row.patientId, row.patientName, row.invoiceId, row.invoiceNumber,
+                row.issueDate, row.dueDate, row.amount, row.paid, row.balance, row.daysPastDue, row.bucket))
+            .toList();
+        return page(asOfDate, invoices, size, invoice -> new InvoiceKey(
+            invoice.dueDate() != null ? invoice.dueDate() : invoice.invoiceDate(), invoice.invoiceId()).toString());
+    }
+
+    private Summary summary(LocalDate asOfDate) {
+        MapSqlParameterSource params = parameters(asOfDate);
+        return jdbcTemplate.queryForObject(balances(asOfDate) + SUMMARY_SQL, params,
+            (rs, rowNum) -> new Summary(
+                amount(rs, "current_amount"),
+                amount(rs, "days30_amount"),
+                amount(rs, "days60_amount"),
+                amount(rs, "days90_amount"),
+                amount(rs, "over90_amount"),
+                rs.getInt("accounts"),
+                rs.getInt("overdue_accounts")));
+    }
+
+    private List<InvoiceRow> invoices(LocalDate asOfDate, String where, MapSqlParameterSource params, int limit) {
+        params.addValues(parameters(asOfDate).getValues()).addValue("limit", limit);
+        RowMapper<InvoiceRow> mapper = (rs, rowNum) -> {
+            LocalDate agedFrom = rs.getDate("aged_from").toLocalDate();
+            int daysPastDue = (int) Math.max(ChronoUnit.DAYS.between(agedFrom, asOfDate), 0);
+            Date dueDate = rs.getDate("due_date");
+            return new InvoiceRow(
+                rs.getObject("id", UUID.class),
+                rs.getObject("patient_id", UUID.class),
+                rs.getString("full_name"),
+                rs.getString("public_facing_id"),
+                rs.getString("invoice_number"),
+                rs.getDate("issue_date").toLocalDate(),
+                dueDate != null ? dueDate.toLocalDate() : null,
+                amount(rs, "amount"),
+                amount(rs, "paid"),
+                amount(rs, "balance"),
+                daysPastDue,
+                Bucket.of(daysPastDue).label);
+        };
+        return jdbcTemplate.query(balances(asOfDate) + INVOICES_SQL.formatted(where), params, mapper);
+    }
+
+    /**
+     * Balances now for dates from today on, which is what the partial index on open invoices serves;
+     * for earlier dates the balances then.
+     */
+    private static String balances(LocalDate asOfDate) {
+        return asOfDate.isBefore(LocalDate.now()) ? SNAPSHOT_BALANCES : CURRENT_BALANCES;
+    }
+
+    private static MapSqlParameterSource parameters(LocalDate asOfDate) {
+        if (asOfDate == null) {
+            throw new BusinessRuleException("An as-of date is required for the aging report");
+        }
+        return new MapSqlParameterSource()
+            .addValue("asOfDate", Date.valueOf(asOfDate))
+            .addValue("days30", Date.valueOf(asOfDate.minusDays(30)))
+            .addValue("days60", Date.valueOf(asOfDate.minusDays(60)))
+            .addValue("days90", Date.valueOf(asOfDate.minusDays(90)));
+    }
+
+    private AgingGroupDto group(ResultSet rs, String key, String name) throws SQLException {
+        BigDecimal current = amount(rs, "current_amount");
+        BigDecimal days30 = amount(rs, "days30_amount");
+        BigDecimal days60 = amount(rs, "days60_amount");
+        BigDecimal days90 = amount(rs, "days90_amount");
+        BigDecimal over90 = amount(rs, "over90_amount");
+        return new AgingGroupDto(key, name, rs.getLong("invoice_count"), current, days30, days60, days90, over90,
+            current.add(days30).add(days60).add(days90).add(over90));
+    }
+
+    /**
+     * Trims the extra row fetched to tell whether there is a next page, and derives its cursor
+     * from the key of the last row returned.
+     */
+    private static <T> AgingPageDto<T> page(LocalDate asOfDate, List<T> rows, int size, Function<T, String> key) {
+        if (rows.size() <= size) {
+            return new AgingPageDto<>(asOfDate, rows, null);
+        }
+        List<T> items = new ArrayList<>(rows.subList(0, size));
+        return new AgingPageDto<>(asOfDate, items, encodeCursor(key.apply(items.get(size - 1))));
+    }
+
+    private static String encodeCursor(String key) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static <T> T decodeCursor(String cursor, Function<String, T> parser) {
+        try {
+            return parser.apply(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new BusinessRuleException("Invalid aging cursor: " + cursor);
+        }
+    }
+
+    private static BigDecimal amount(ResultSet rs, String column) throws SQLException {
+        BigDecimal value = rs.getBigDecimal(column);
+        return value != null ? value : BigDecimal.ZERO;
+    }
+
+    private void validatePageSize(int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new BusinessRuleException("Page size must be between 1 and " + MAX_PAGE_SIZE + ": " + size);
+        }
+    }
+
+    private enum Bucket {
+        CURRENT("CURRENT"),
+        DAYS_30("1-30"),
+        DAYS_60("31-60"),
+        DAYS_90("61-90"),
+        OVER_90("90+");
+
+        private final String label;
+
+        Bucket(String label) {
+            this.label = label;
+        }
+
+        static Bucket of(int daysPastDue) {
+            if (daysPastDue <= 0) {
+                return CURRENT;
+            } else if (daysPastDue <= 30) {
+                return DAYS_30;
+            } else if (daysPastDue <= 60) {
+                return DAYS_60;
+            } else if (daysPastDue <= 90) {
+                return DAYS_90;
+            }
+            return OVER_90;
+        }
+    }
+
+    private record Summary(BigDecimal current, BigDecimal days30, BigDecimal days60, BigDecimal days90,
+                           BigDecimal over90, int accounts, int overdueAccounts) {
+
+        BigDecimal total() {
+            return current.add(days30).add(days60).add(days90).add(over90);
+        }
+    }
+
+    private record InvoiceRow(UUID invoiceId, UUID patientId, String patientName, String patientPublicId,
+                              String invoiceNumber, LocalDate issueDate, LocalDate dueDate, BigDecimal amount,
+                              BigDecimal paid, BigDecimal balance, int daysPastDue, String bucket) {
+    }
+
+    /** Position of an invoice in the drill-down order, which is the order of its cursor. */
+    private record InvoiceKey(LocalDate agedFrom, UUID id) {
+
+        static InvoiceKey parse(String key) {
+            int separator = key.indexOf('/');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Missing separator");
+            }
+            return new InvoiceKey(LocalDate.parse(key.substring(0, separator)),
+                UUID.fromString(key.substring(separator + 1)));
+        }
+
+        @Override
+        public String toString() {
+            return agedFrom + "/" + id;
+        }
+    }
+}
@@ -0,0 +1,307 @@
+package sy.sezar.clinicx.patient.service.impl;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import sy.sezar.clinicx.patient.service.InvoiceNumberAllocator;
+import sy.sezar.clinicx.tenant.TenantContext;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Implementation of InvoiceNumberAllocator.
+ * Each series (tenant and year) leases blocks of numbers from invoice_number_series in a short
+ * transaction of its own. Numbers are then taken from the current block with an atomic increment;
+ * only the thread that finds the block used up takes the series lock to lease the next one.
+ * Invoice numbers of other tenants than the default one carry the tenant's code, registered in
+ * invoice_number_tenant_codes on first use, where it is checked to be unique.
+ */
+@Slf4j
+@Service
+public class InvoiceNumberAllocatorImpl implements InvoiceNumberAllocator {
+
+    static final String GAP_ROLLED_BACK = "ROLLED_BACK";
+    static final String GAP_UNUSED_LEASE = "UNUSED_LEASE";
+
+    private static final int MAX_TENANT_CODE_LENGTH = 24;
+    private static final int DIGEST_CODE_LENGTH = 8;
+    private static final int MAX_CODE_ATTEMPTS = 100;
+
+    private static final String LEASE_SQL =
+        "UPDATE invoice_number_series SET next_value = next_value + ?, updated_at = ? WHERE series_key = ?";
+    private static final String READ_SQL =
+        "SELECT next_value FROM invoice_number_series WHERE series_key = ?";
+    private static final String CREATE_SQL =
+        "INSERT INTO invoice_number_series (series_key, next_value, updated_at) VALUES (?, ?, ?)";
+    private static final String FIND_CODE_SQL =
+        "SELECT code FROM invoice_number_tenant_codes WHERE tenant_id = ?";
+    private static final String CREATE_CODE_SQL =
+        "INSERT INTO invoice_number_tenant_codes (tenant_id, code, created_at) VALUES (?, ?, ?)";
+    private static final String GAP_SQL = """
+        INSERT INTO invoice_number_gaps (id, series_key, first_number, last_number, reason, recorded_at)
+        VALUES (?, ?, ?, ?, ?, ?)
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<String, Series> series = new ConcurrentHashMap<>();
+    private Clock clock = Clock.systemUTC();
+
+    @Value("${app.finance.invoice-numbers.block-size:50}")
+    private int blockSize = 50;
+
+    @Value("${app.tenant.default-tenant:master}")
+    private String defaultTenant = "master";
+
+    public InvoiceNumberAllocatorImpl(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Override
+    public String next() {
+        Series current = currentSeries();
+        long number = current.next();
+        recordGapOnRollback(current, number, number);
+        return current.format(number);
+    }
+
+    @Override
+    public List<String> nextBlock(int count) {
+        if (count <= 0) {
+            return List.of();
+        }
+        Series current = currentSeries();
+        List<String> numbers = new ArrayList<>(count);
+        if (count >= blockSize) {
+            // Bulk invoicing gets a dedicated, consecutive block
+            long first = lease(current.key, count);
+            for (long number = first; number < first + count; number++) {
+                numbers.add(current.format(number));
+            }
+            recordGapOnRollback(current, first, first + count - 1);
+        } else {
+            for (int i = 0; i < count; i++) {
+                long number = current.next();
+                numbers.add(current.format(number));
+                recordGapOnRollback(current, number, number);
+            }
+        }
+        return numbers;
+    }
+
+    /**
+     * Records the unused rest of every leased block, so the audit trail explains every number.
+     */
+    @PreDestroy
+    public void releaseLeases() {
+        series.values().forEach(Series::releaseLease);
+    }
+
+    private Series currentSeries() {
+        String tenantId = TenantContext.getCurrentTenant();
+        int year = Year.now(clock).getValue();
+        String key = (tenantId != null ? tenantId : defaultTenant) + ":" + year;
+        Series current = series.get(key);
+        if (current != null) {
+            return current;
+        }
+        // The tenant code may be read or registered, which is kept out of the map's lock
+        String prefix = prefix(tenantId, year);
+        return series.computeIfAbsent(key, k -> new Series(k, prefix));
+    }
+
+    private String prefix(String tenantId, int year) {
+        if (tenantId == null || tenantId.equals(defaultTenant)) {
+            return "INV-" + year + "-";
+        }
+        return "INV-" + tenantCode(tenantId) + "-" + year + "-";
+    }
+
+    /**
+     * Returns the code of a tenant, registering one on its first invoice. A code taken by another
+     * tenant, such as one differing only in case, is followed by numbered variants.
+     */
+    private String tenantCode(String tenantId) {
+        String code = baseCode(tenantId);
+        for (int attempt = 1; attempt <= MAX_CODE_ATTEMPTS; attempt++) {
+            List<String> registered = jdbcTemplate.queryForList(FIND_CODE_SQL, String.class, tenantId);
+            if (!registered.isEmpty()) {
+                return registered.get(0);
+            }
+            String candidate = attempt == 1 ? code : variant(code, attempt);
+            try {
+                transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update(CREATE_CODE_SQL,
+                    tenantId, candidate, Timestamp.from(Instant.now(clock))));
+                log.info("Registered invoice number code {} for tenant {}", candidate, tenantId);
+                return candidate;
+            } catch (DuplicateKeyException e) {
+                // Taken by another tenant, or registered for this one by another instance meanwhile
+                log.debug("Invoice number code {} is not available for tenant {}", candidate, tenantId);
+            }
+        }
+        throw new IllegalStateException("Unable to register an invoice number code for tenant " + tenantId);
+    }
+
+    /**
+     * The tenant ID in upper case; long IDs keep their start followed by a digest of the whole ID,
+     * so that they fit the invoice number column and IDs sharing a start still differ.
+     */
+    private static String baseCode(String tenantId) {
+        String code = tenantId.toUpperCase(Locale.ROOT);
+        if (code.length() <= MAX_TENANT_CODE_LENGTH) {
+            return code;
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(tenantId.getBytes(StandardCharsets.UTF_8));
+            String hash = HexFormat.of().withUpperCase().formatHex(digest).substring(0, DIGEST_CODE_LENGTH);
+            return code.substring(0, MAX_TENANT_CODE_LENGTH - DIGEST_CODE_LENGTH - 1) + "-" + hash;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static String variant(String code, int attempt) {
+        String suffix = "-" + attempt;
+        return code.substring(0, Math.min(code.length(), MAX_TENANT_CODE_LENGTH - suffix.length())) + suffix;
+    }
+
+    /**
+     * Leases {@code size} numbers of a series and returns the first one.
+     */
+    private long lease(String seriesKey, int size) {
+        Long end = transactionTemplate.execute(status -> advance(seriesKey, size));
+        if (end == null) {
+            try {
+                // First use of the series
+                transactionTemplate.executeWithoutResult(status ->
+                    jdbcTemplate.update(CREATE_SQL, seriesKey, 1L + size, Timestamp.from(Instant.now(clock))));
+                end = 1L + size;
+            } catch (DuplicateKeyException e) {
+                // Created concurrently by another instance
+                end = transactionTemplate.execute(status -> advance(seriesKey, size));
+            }
+        }
+        if (end == null) {
+            throw new IllegalStateException("Unable to lease invoice numbers for series " + seriesKey);
+        }
+        log.debug("Leased invoice numbers {}..{} of series {}", end - size, end - 1, seriesKey);
+        return end - size;
+    }
+
+    private Long advance(String seriesKey, int size) {
+        if (jdbcTemplate.update(LEASE_SQL, size, Timestamp.from(Instant.now(clock)), seriesKey) == 0) {
+            return null;
+        }
+        return jdbcTemplate.queryForObject(READ_SQL, Long.class, seriesKey);
+    }
+
+    private void recordGapOnRollback(Series current, long first, long last) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    recordGap(current.key, first, last, GAP_ROLLED_BACK);
+                }
+            }
+        });
+    }
+
+    private void recordGap(String seriesKey, long first, long last, String reason) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update(GAP_SQL,
+                UUID.randomUUID(), seriesKey, first, last, reason, Timestamp.from(Instant.now(clock))));
+            log.info("Recorded unused invoice numbers {}..{} of series {} ({})", first, last, seriesKey, reason);
+        } catch (Exception e) {
+            log.error("Failed to record unused invoice numbers {}..{} of series {}: {}",
+                first, last, seriesKey, e.getMessage());
+        }
+    }
+
+    /**
+     * Block of numbers [next, end) leased for a series.
+     */
+    private record Lease(AtomicLong next, long end) {
+
+        long take() {
+            return next.getAndIncrement();
+        }
+
+        long remainingFrom() {
+            return Math.min(next.get(), end);
+        }
+    }
+
+    private final class Series {
+
+        private final String key;
+        private final String prefix;
+        private volatile Lease lease;
+
+        private Series(String key, String prefix) {
+            this.key = key;
+            this.prefix = prefix;
+        }
+
+        long next() {
+            while (true) {
+                Lease current = lease;
+                if (current != null) {
+                    long number = current.take();
+                    if (number < current.end()) {
+                        return number;
+                    }
+                }
+                synchronized (this) {
+                    // Another thread may have replaced the block while this one waited
+                    if (lease == current) {
+                        long first = lease(key, blockSize);
+                        lease = new Lease(new AtomicLong(first), first + blockSize);
+                    }
+                }
+            }
+        }
+
+        synchronized void releaseLease() {
+            Lease current = lease;
+            if (current == null) {
+                return;
+            }
+            long first = current.remainingFrom();
+            if (first < current.end()) {
+                recordGap(key, first, current.end() - 1, GAP_UNUSED_LEASE);
+            }
+            lease = null;
+        }
+
+        String format(long number) {
+            return prefix + String.format("%06d", number);
+        }
+    }
+}
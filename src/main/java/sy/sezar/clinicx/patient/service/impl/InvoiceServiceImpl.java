@@ -17,10 +17,12 @@ import sy.sezar.clinicx.patient.model.Payment;
 import sy.sezar.clinicx.patient.repository.InvoiceRepository;
 import sy.sezar.clinicx.patient.repository.PatientRepository;
 import sy.sezar.clinicx.patient.repository.PaymentRepository;
+import sy.sezar.clinicx.patient.service.BalanceReconciliationService;
+import sy.sezar.clinicx.patient.service.InvoiceAgingService;
+import sy.sezar.clinicx.patient.service.InvoiceNumberAllocator;
 import sy.sezar.clinicx.patient.service.InvoiceService;
+import sy.sezar.clinicx.patient.service.OverdueSweepService;
 
-import jakarta.persistence.EntityManager;
-import jakarta.persistence.Query;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.ArrayList;
@@ -40,9 +42,12 @@ public class InvoiceServiceImpl implements InvoiceService {
     private final PatientRepository patientRepository;
     private final PaymentRepository paymentRepository;
     private final InvoiceMapper invoiceMapper;
-    private final EntityManager entityManager;
     private final sy.sezar.clinicx.patient.service.LedgerService ledgerService;
     private final sy.sezar.clinicx.patient.repository.VisitProcedureRepository visitProcedureRepository;
+    private final BalanceReconciliationService balanceReconciliationService;
+    private final InvoiceNumberAllocator invoiceNumberAllocator;
+    private final InvoiceAgingService invoiceAgingService;
+    private final OverdueSweepService overdueSweepService;
 
     @Override
     @Transactional
@@ -71,10 +76,6 @@ public class InvoiceServiceImpl implements InvoiceService {
                 amount, description);
         log.debug("Saved invoice with ID: {} and number: {}", savedInvoice.getId(), savedInvoice.getInvoiceNumber());
 
-        // Recalculate patient balance
-        BigDecimal newBalance = recalculatePatientBalance(patientId);
-        log.info("Patient balance updated to: {} after invoice creation", newBalance);
-
         log.info("Successfully created invoice with number: {} for patient: {} (amount: {}, description: {})",
                 savedInvoice.getInvoiceNumber(), patientId, amount, description);
         return mapToFinancialRecordDto(savedInvoice);
@@ -110,24 +111,13 @@ public class InvoiceServiceImpl implements InvoiceService {
 
         // Update invoice materialized paid/due
         invoice.setAmountPaid(newTotalPaid);
-        BigDecimal subTotal = invoice.getSubTotal() != null ? invoice.getSubTotal() : invoice.getTotalAmount();
-        BigDecimal due = subTotal
-                .subtract(invoice.getDiscountAmount())
-                .add(invoice.getTaxAmount())
-                .add(invoice.getAdjustmentAmount())
-                .subtract(invoice.getWriteOffAmount())
-                .subtract(invoice.getAmountPaid());
-        invoice.setAmountDue(due.max(BigDecimal.ZERO));
+        invoice.recalculateAmountDue();
         invoiceRepository.save(invoice);
 
-        // Recalculate patient balance
-        BigDecimal newBalance = recalculatePatientBalance(invoice.getPatient().getId());
-
-        // Ledger entry for payment receipt
+        // Ledger entry for payment receipt, which also updates the patient balance
         ledgerService.record(invoice.getPatient().getId(), invoice, payment,
                 sy.sezar.clinicx.patient.model.enums.LedgerEntryType.PAYMENT_RECEIPT,
                 amount, "Payment received (" + paymentMethod + ")");
-        log.info("Patient balance updated to: {} after payment", newBalance);
 
         log.info("Successfully added payment of {} to invoice: {} (paid: {}, due: {})",
                 amount, invoiceId, newTotalPaid, invoice.getAmountDue());
@@ -158,26 +148,8 @@ public class InvoiceServiceImpl implements InvoiceService {
     public BigDecimal recalculatePatientBalance(UUID patientId) {
         log.debug("Recalculating balance for patient ID: {}", patientId);
 
-        Patient patient = findPatientById(patientId);
-
-        // Calculate total invoiced amount
-        BigDecimal totalInvoiced = invoiceRepository.findByPatientId(patientId, Pageable.unpaged())
-                .getContent()
-                .stream()
-                .map(Invoice::getTotalAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        // Calculate total payments
-        BigDecimal totalPaid = invoiceRepository.findByPatientId(patientId, Pageable.unpaged())
-                .getContent()
-                .stream()
-                .flatMap(invoice -> invoice.getPayments().stream())
-                .map(Payment::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        BigDecimal balance = totalInvoiced.subtract(totalPaid);
-        patient.setBalance(balance);
-        patientRepository.save(patient);
+        // Balances are maintained incrementally by the ledger; this rebuilds one from its entries
+        BigDecimal balance = balanceReconciliationService.rebuildBalance(patientId);
 
         log.debug("Updated patient {} balance to: {}", patientId, balance);
         return balance;
@@ -186,13 +158,9 @@ public class InvoiceServiceImpl implements InvoiceService {
     @Override
     @Transactional
     public String getNextInvoiceNumber() {
-        log.debug("Generating next invoice number from sequence");
-
-        Query query = entityManager.createNativeQuery("SELECT nextval('invoice_number_seq')");
-        Long nextValue = ((Number) query.getSingleResult()).longValue();
-        String invoiceNumber = String.format("INV-%06d", nextValue);
+        String invoiceNumber = invoiceNumberAllocator.next();
 
-        log.debug("Generated invoice number: {} (sequence value: {})", invoiceNumber, nextValue);
+        log.debug("Generated invoice number: {}", invoiceNumber);
         return invoiceNumber;
     }
 
@@ -289,15 +257,14 @@ public class InvoiceServiceImpl implements InvoiceService {
         invoice.setTotalAmount(subTotal);
         // initialize materialized totals
         invoice.setAmountPaid(invoice.getAmountPaid() != null ? invoice.getAmountPaid() : BigDecimal.ZERO);
-        BigDecimal due = subTotal
-            .subtract(invoice.getDiscountAmount() != null ? invoice.getDiscountAmount() : BigDecimal.ZERO)
-            .add(invoice.getTaxAmount() != null ? invoice.getTaxAmount() : BigDecimal.ZERO)
-            .add(invoice.getAdjustmentAmount() != null ? invoice.getAdjustmentAmount() : BigDecimal.ZERO)
-            .subtract(invoice.getWriteOffAmount() != null ? invoice.getWriteOffAmount() : BigDecimal.ZERO)
-            .subtract(invoice.getAmountPaid());
-        invoice.setAmountDue(due.max(BigDecimal.ZERO));
+        invoice.recalculateAmountDue();
 
         Invoice savedInvoice = invoiceRepository.save(invoice);
+
+        // Record ledger entry for charge
+        ledgerService.record(patient.getId(), savedInvoice, null,
+                sy.sezar.clinicx.patient.model.enums.LedgerEntryType.CHARGE,
+                subTotal, "Invoice " + invoiceNumber);
         return mapToInvoiceDto(savedInvoice);
     }
     
@@ -307,9 +274,21 @@ public class InvoiceServiceImpl implements InvoiceService {
         log.info("Updating invoice {} status to: {} (reason: {})", invoiceId, status, reason);
         
         Invoice invoice = findInvoiceById(invoiceId);
+        InvoiceStatus previousStatus = invoice.getStatus();
         invoice.setStatus(status);
         
         Invoice savedInvoice = invoiceRepository.save(invoice);
+
+        // Cancelled invoices do not count towards the balance; reverse or restore their net charge
+        boolean wasCancelled = previousStatus == InvoiceStatus.CANCELLED;
+        boolean isCancelled = status == InvoiceStatus.CANCELLED;
+        if (wasCancelled != isCancelled) {
+            BigDecimal netCharge = savedInvoice.getNetCharge();
+            ledgerService.record(savedInvoice.getPatient().getId(), savedInvoice, null,
+                    sy.sezar.clinicx.patient.model.enums.LedgerEntryType.ADJUSTMENT,
+                    isCancelled ? netCharge.negate() : netCharge,
+                    isCancelled ? "Invoice cancelled: " + reason : "Invoice reinstated: " + reason);
+        }
         return mapToInvoiceDto(savedInvoice);
     }
     
@@ -336,8 +315,10 @@ public class InvoiceServiceImpl implements InvoiceService {
     public List<InvoiceDto> markOverdueInvoices() {
         log.info("Marking overdue invoices");
         
-        // TODO: Implement when repository method is available
-        List<InvoiceDto> result = new ArrayList<>();
+        List<UUID> overdueIds = overdueSweepService.markOverdueInvoices(LocalDate.now());
+        List<InvoiceDto> result = invoiceRepository.findAllById(overdueIds).stream()
+                .map(this::mapToInvoiceDto)
+                .toList();
         log.info("Marked {} invoices as overdue", result.size());
         return result;
     }
@@ -359,9 +340,7 @@ public class InvoiceServiceImpl implements InvoiceService {
     @Override
     public InvoiceAgingReportDto generateAgingReport(LocalDate asOfDate, boolean includeDetails) {
         log.info("Generating aging report as of: {}", asOfDate);
-        
-        // TODO: Implement when InvoiceAgingReportDto is properly defined
-        return null;
+        return invoiceAgingService.getAgingReport(asOfDate, includeDetails);
     }
     
     @Override
@@ -420,13 +399,7 @@ public class InvoiceServiceImpl implements InvoiceService {
         BigDecimal subTotal = (invoice.getSubTotal() != null ? invoice.getSubTotal() : invoice.getTotalAmount()).add(addTotal);
         invoice.setSubTotal(subTotal);
         invoice.setTotalAmount(subTotal);
-        BigDecimal due = subTotal
-            .subtract(invoice.getDiscountAmount() != null ? invoice.getDiscountAmount() : BigDecimal.ZERO)
-            .add(invoice.getTaxAmount() != null ? invoice.getTaxAmount() : BigDecimal.ZERO)
-            .add(invoice.getAdjustmentAmount() != null ? invoice.getAdjustmentAmount() : BigDecimal.ZERO)
-            .subtract(invoice.getWriteOffAmount() != null ? invoice.getWriteOffAmount() : BigDecimal.ZERO)
-            .subtract(invoice.getAmountPaid() != null ? invoice.getAmountPaid() : BigDecimal.ZERO);
-        invoice.setAmountDue(due.max(BigDecimal.ZERO));
+        invoice.recalculateAmountDue();
 
         Invoice savedInvoice = invoiceRepository.save(invoice);
         return mapToInvoiceDto(savedInvoice);
@@ -486,15 +459,7 @@ public class InvoiceServiceImpl implements InvoiceService {
     public InvoiceDto applyWriteOff(UUID invoiceId, BigDecimal amount, String reason) {
         Invoice invoice = findInvoiceById(invoiceId);
         invoice.setWriteOffAmount(invoice.getWriteOffAmount().add(amount));
-        // Recompute amount due
-        BigDecimal subTotal = invoice.getSubTotal() != null ? invoice.getSubTotal() : invoice.getTotalAmount();
-        BigDecimal due = subTotal
-                .subtract(invoice.getDiscountAmount())
-                .add(invoice.getTaxAmount())
-                .add(invoice.getAdjustmentAmount())
-                .subtract(invoice.getWriteOffAmount())
-                .subtract(invoice.getAmountPaid());
-        invoice.setAmountDue(due.max(BigDecimal.ZERO));
+        invoice.recalculateAmountDue();
 
         Invoice saved = invoiceRepository.save(invoice);
         // Ledger entry
@@ -509,14 +474,7 @@ public class InvoiceServiceImpl implements InvoiceService {
         Invoice invoice = findInvoiceById(invoiceId);
         // Treat as discount increment
         invoice.setDiscountAmount(invoice.getDiscountAmount().add(amount));
-        BigDecimal subTotal = invoice.getSubTotal() != null ? invoice.getSubTotal() : invoice.getTotalAmount();
-        BigDecimal due = subTotal
-                .subtract(invoice.getDiscountAmount())
-                .add(invoice.getTaxAmount())
-                .add(invoice.getAdjustmentAmount())
-                .subtract(invoice.getWriteOffAmount())
-                .subtract(invoice.getAmountPaid());
-        invoice.setAmountDue(due.max(BigDecimal.ZERO));
+        invoice.recalculateAmountDue();
 
         Invoice saved = invoiceRepository.save(invoice);
         // Ledger entry as negative charge (discount)
@@ -0,0 +1,84 @@
+package sy.sezar.clinicx.patient.service.impl;
+
+import sy.sezar.clinicx.core.exception.BusinessRuleException;
+import sy.sezar.clinicx.patient.dto.CursorPageDto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Position in a list read in cursor mode: the sort key and id of the last row returned, which the
+ * next page seeks past through a (patient_id, sort key, id) index instead of skipping an offset.
+ * It travels as an opaque token, encoded like the cursors of the aging drill-down. A null sort
+ * key is encoded as an empty one.
+ */
+record KeysetCursor(String sortKey, UUID id) {
+
+    static final int MAX_PAGE_SIZE = 100;
+
+    /**
+     * Decodes a cursor received from a client, or returns null for the first page.
+     */
+    static KeysetCursor decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            String key = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = key.lastIndexOf('/');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Missing separator");
+            }
+            return new KeysetCursor(key.substring(0, separator), UUID.fromString(key.substring(separator + 1)));
+        } catch (IllegalArgumentException e) {
+            throw new BusinessRuleException("Invalid page cursor: " + cursor);
+        }
+    }
+
+    /**
+     * Tells whether the cursor row had a sort key, for lists sorted by a nullable column.
+     */
+    boolean hasSortKey() {
+        return !sortKey.isEmpty();
+    }
+
+    <K> K sortKey(Function<String, K> parser) {
+        try {
+            return parser.apply(sortKey);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new BusinessRuleException("Invalid page cursor sort key: " + sortKey);
+        }
+    }
+
+    static void validatePageSize(int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new BusinessRuleException("Page size must be between 1 and " + MAX_PAGE_SIZE + ": " + size);
+        }
+    }
+
+    /**
+     * Maps the rows of a page and derives the cursor of the next one from the last row, when
+     * there is a next one.
+     */
+    static <T, D> CursorPageDto<D> page(List<T> rows, boolean hasNext, Function<T, ?> sortKey,
+                                        Function<T, UUID> id, Function<T, D> mapper) {
+        List<D> items = new ArrayList<>(rows.size());
+        rows.forEach(row -> items.add(mapper.apply(row)));
+        if (!hasNext || rows.isEmpty()) {
+            return new CursorPageDto<>(items, null);
+        }
+        T last = rows.get(rows.size() - 1);
+        Object key = sortKey.apply(last);
+        return new CursorPageDto<>(items, encode(key != null ? key.toString() : "", id.apply(last)));
+    }
+
+    private static String encode(String sortKey, UUID id) {
+        return Base64.getUrlEncoder().withoutPadding()
+            .encodeToString((sortKey + "/" + id).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,91 @@
+package sy.sezar.clinicx.patient.service.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import sy.sezar.clinicx.patient.service.LedgerCheckpointService;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.LocalDate;
+
+/**
+ * Implementation of LedgerCheckpointService.
+ * The checkpoints after the latest one of each patient are computed in one statement: the
+ * entries since that checkpoint are summed per month and the monthly sums are accumulated onto
+ * its balance. Only completed months are checkpointed, so entries are never recorded before a
+ * checkpoint that has already been written.
+ */
+@Slf4j
+@Service
+public class LedgerCheckpointServiceImpl implements LedgerCheckpointService {
+
+    private static final String CREATE_CHECKPOINTS_SQL = """
+        INSERT INTO ledger_checkpoints (patient_id, checkpoint_at, balance, entry_count)
+        WITH latest AS (
+            SELECT patient_id, MAX(checkpoint_at) AS checkpoint_at
+            FROM ledger_checkpoints
+            GROUP BY patient_id
+        )
+        SELECT m.patient_id, m.checkpoint_at,
+               COALESCE(c.balance, 0) + SUM(m.delta) OVER w,
+               COALESCE(c.entry_count, 0) + SUM(m.entries) OVER w
+        FROM (
+            SELECT e.patient_id, date_trunc('month', e.occurred_at) + INTERVAL '1 month' AS checkpoint_at,
+                   SUM(%s) AS delta, COUNT(*) AS entries, MAX(l.checkpoint_at) AS previous_at
+            FROM ledger_entries e
+            LEFT JOIN latest l ON l.patient_id = e.patient_id
+            WHERE e.occurred_at < :boundary AND (l.checkpoint_at IS NULL OR e.occurred_at >= l.checkpoint_at)
+            GROUP BY e.patient_id, date_trunc('month', e.occurred_at)
+        ) m
+        LEFT JOIN ledger_checkpoints c ON c.patient_id = m.patient_id AND c.checkpoint_at = m.previous_at
+        WINDOW w AS (PARTITION BY m.patient_id ORDER BY m.checkpoint_at)
+        ON CONFLICT (patient_id, checkpoint_at) DO NOTHING
+        """.formatted(BalanceReconciliationServiceImpl.ledgerDeltaSql());
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final Counter checkpointCounter;
+    private Clock clock = Clock.systemDefaultZone();
+
+    @Value("${app.finance.ledger-checkpoints.enabled:true}")
+    private boolean checkpointsEnabled = true;
+
+    public LedgerCheckpointServiceImpl(NamedParameterJdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.checkpointCounter = Counter.builder("finance.ledger.checkpoints")
+            .description("Patient balance checkpoints written")
+            .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${app.finance.ledger-checkpoints.cron:0 15 1 * * *}")
+    public void scheduledCheckpoints() {
+        if (!checkpointsEnabled) {
+            return;
+        }
+        int written = createCheckpoints(LocalDate.now(clock));
+        if (written > 0) {
+            log.info("Wrote {} ledger balance checkpoints", written);
+        }
+    }
+
+    @Override
+    @Transactional
+    public int createCheckpoints(LocalDate upTo) {
+        LocalDate currentMonth = LocalDate.now(clock).withDayOfMonth(1);
+        LocalDate boundary = upTo.withDayOfMonth(1);
+        if (boundary.isAfter(currentMonth)) {
+            boundary = currentMonth;
+        }
+        int written = jdbcTemplate.update(CREATE_CHECKPOINTS_SQL, new MapSqlParameterSource()
+            .addValue("boundary", Timestamp.from(boundary.atStartOfDay(clock.getZone()).toInstant())));
+        checkpointCounter.increment(written);
+        log.debug("Wrote {} ledger balance checkpoints up to {}", written, boundary);
+        return written;
+    }
+}
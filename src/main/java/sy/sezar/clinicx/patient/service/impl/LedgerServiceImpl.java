@@ -1,10 +1,18 @@
 package sy.sezar.clinicx.patient.service.impl;
 
 import lombok.RequiredArgsConstructor;
+import org.hibernate.Hibernate;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import sy.sezar.clinicx.patient.dto.CursorPageDto;
 import sy.sezar.clinicx.patient.dto.LedgerEntryDto;
 import sy.sezar.clinicx.patient.model.Invoice;
 import sy.sezar.clinicx.patient.model.LedgerEntry;
@@ -13,23 +21,94 @@ import sy.sezar.clinicx.patient.model.Payment;
 import sy.sezar.clinicx.patient.model.enums.LedgerEntryType;
 import sy.sezar.clinicx.patient.repository.LedgerEntryRepository;
 import sy.sezar.clinicx.patient.repository.PatientRepository;
+import sy.sezar.clinicx.patient.service.DailyFinancialRollupService;
 import sy.sezar.clinicx.patient.service.LedgerService;
+import sy.sezar.clinicx.tenant.TenantContext;
 
 import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.UUID;
+import java.util.function.Function;
 
+/**
+ * Implementation of LedgerService.
+ * Balances at a point of a patient's ledger start from the nearest earlier monthly checkpoint
+ * (see {@link LedgerCheckpointServiceImpl}) and add the entries after it, so their cost does not
+ * grow with the patient's history. Entries are ordered by (occurred_at, id).
+ */
 @Service
 @RequiredArgsConstructor
 public class LedgerServiceImpl implements LedgerService {
 
+    private static final String APPLY_BALANCE_DELTA_SQL =
+        "UPDATE patients SET balance = balance + :delta WHERE id = :patientId";
+
+    /** Balance of the entries before the anchor row, which has the columns occurred_at and id. */
+    private static final String BALANCE_BEFORE_SQL = """
+        WITH anchor AS (%s),
+        checkpoint AS (
+            SELECT c.checkpoint_at, c.balance
+            FROM ledger_checkpoints c, anchor a
+            WHERE c.patient_id = :patientId AND c.checkpoint_at <= a.occurred_at
+            ORDER BY c.checkpoint_at DESC
+            LIMIT 1
+        )
+        SELECT COALESCE((SELECT balance FROM checkpoint), 0) + COALESCE(SUM(%s), 0)
+        FROM ledger_entries e, anchor a
+        WHERE e.patient_id = :patientId
+          AND (e.occurred_at, e.id) < (a.occurred_at, a.id)
+          AND (NOT EXISTS (SELECT 1 FROM checkpoint) OR e.occurred_at >= (SELECT checkpoint_at FROM checkpoint))
+        """;
+
+    private static final String BALANCE_BEFORE_ENTRY_SQL = BALANCE_BEFORE_SQL.formatted(
+        "SELECT occurred_at, id FROM ledger_entries WHERE id = :entryId",
+        BalanceReconciliationServiceImpl.ledgerDeltaSql());
+
+    /** The nil UUID sorts before every id, so the anchor stands before all entries of its instant. */
+    private static final String BALANCE_BEFORE_TIME_SQL = BALANCE_BEFORE_SQL.formatted(
+        "SELECT CAST(:before AS TIMESTAMP) AS occurred_at, CAST(:nilId AS UUID) AS id",
+        BalanceReconciliationServiceImpl.ledgerDeltaSql());
+
+    private static final UUID NIL_ID = new UUID(0, 0);
+
+    /**
+     * Order in which patient rows are locked by batches: the order of the database uuid type, which
+     * compares the bytes unsigned, unlike {@link UUID#compareTo}.
+     */
+    static final Comparator<UUID> PATIENT_LOCK_ORDER = Comparator
+        .comparing(UUID::getMostSignificantBits, Long::compareUnsigned)
+        .thenComparing(UUID::getLeastSignificantBits, Long::compareUnsigned);
+
     private final LedgerEntryRepository ledgerEntryRepository;
     private final PatientRepository patientRepository;
+    private final DailyFinancialRollupService dailyFinancialRollupService;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private Clock clock = Clock.systemDefaultZone();
 
     @Override
     @Transactional
     public void record(UUID patientId, Invoice invoice, Payment payment, LedgerEntryType type, BigDecimal amount, String description) {
-        Patient patient = patientRepository.findById(patientId)
-                .orElseThrow(() -> new IllegalArgumentException("Patient not found: " + patientId));
+        // Apply the entry to the balance as a delta, so the cost does not grow with the patient's history
+        BigDecimal delta = type.balanceDelta(amount);
+        if (patientRepository.applyBalanceDelta(patientId, delta) == 0) {
+            throw new IllegalArgumentException("Patient not found: " + patientId);
+        }
+
+        // Only the foreign key is needed; callers have already loaded the patient
+        Patient patient = patientRepository.getReferenceById(patientId);
+        // The update bypasses the persistence context, so a loaded patient is given the new balance.
+        // Clearing the context instead would detach the invoices and payments the caller still works on
+        if (Hibernate.isInitialized(patient)) {
+            patient.setBalance(patientRepository.findBalanceById(patientId));
+        }
 
         LedgerEntry entry = new LedgerEntry();
         entry.setPatient(patient);
@@ -38,25 +117,106 @@ public class LedgerServiceImpl implements LedgerService {
         entry.setEntryType(type);
         entry.setAmount(amount);
         entry.setDescription(description);
+        entry.setTenantId(TenantContext.getCurrentTenant());
 
         ledgerEntryRepository.save(entry);
+        // Every service that moves money records it here, so the dashboard rollup follows the ledger
+        dailyFinancialRollupService.record(entry);
+    }
+
+    @Override
+    @Transactional
+    public void recordAll(List<LedgerEntry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        // In patient order, so concurrent batches lock the patient rows in the same order
+        Map<UUID, BigDecimal> deltas = new TreeMap<>(PATIENT_LOCK_ORDER);
+        for (LedgerEntry entry : entries) {
+            deltas.merge(entry.getPatient().getId(), entry.getEntryType().balanceDelta(entry.getAmount()), BigDecimal::add);
+        }
+        SqlParameterSource[] params = deltas.entrySet().stream()
+                .map(delta -> new MapSqlParameterSource()
+                        .addValue("patientId", delta.getKey())
+                        .addValue("delta", delta.getValue()))
+                .toArray(SqlParameterSource[]::new);
+        int[] updated = jdbcTemplate.batchUpdate(APPLY_BALANCE_DELTA_SQL, params);
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                throw new IllegalArgumentException("Patient not found: " + params[i].getValue("patientId"));
+            }
+        }
+
+        String tenantId = TenantContext.getCurrentTenant();
+        entries.forEach(entry -> entry.setTenantId(tenantId));
+        ledgerEntryRepository.saveAll(entries);
+        entries.forEach(dailyFinancialRollupService::record);
     }
 
     @Override
     @Transactional(readOnly = true)
     public Page<LedgerEntryDto> getPatientLedger(UUID patientId, Pageable pageable) {
-        return ledgerEntryRepository.findByPatientIdOrderByOccurredAtAsc(patientId, pageable)
-                .map(e -> new LedgerEntryDto(
-                        e.getId(),
-                        e.getPatient().getId(),
-                        e.getInvoice() != null ? e.getInvoice().getId() : null,
-                        e.getPayment() != null ? e.getPayment().getId() : null,
-                        e.getEntryType(),
-                        e.getAmount(),
-                        e.getOccurredAt(),
-                        e.getDescription()
-                ));
+        // The running balance needs chronological order, whatever the requested sort
+        Page<LedgerEntry> page = ledgerEntryRepository.findByPatientIdOrderByOccurredAtAscIdAsc(
+                patientId, PageRequest.of(pageable.getPageNumber(), pageable.getPageSize()));
+        if (page.isEmpty()) {
+            return page.map(e -> toDto(e, null));
+        }
+        return new PageImpl<>(withRunningBalance(patientId, page.getContent()), page.getPageable(), page.getTotalElements());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDto<LedgerEntryDto> getPatientLedgerAfter(UUID patientId, String cursor, int size) {
+        KeysetCursor.validatePageSize(size);
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        Slice<LedgerEntry> entries = after == null
+                ? ledgerEntryRepository.findSliceByPatientId(patientId, PageRequest.ofSize(size))
+                : ledgerEntryRepository.findSliceByPatientIdAfter(
+                        patientId, after.sortKey(Instant::parse), after.id(), PageRequest.ofSize(size));
+        if (!entries.hasContent()) {
+            return new CursorPageDto<>(List.of(), null);
+        }
+        return KeysetCursor.page(withRunningBalance(patientId, entries.getContent()), entries.hasNext(),
+                LedgerEntryDto::occurredAt, LedgerEntryDto::id, Function.identity());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public BigDecimal getBalanceAsOf(UUID patientId, LocalDate asOf) {
+        return jdbcTemplate.queryForObject(BALANCE_BEFORE_TIME_SQL, new MapSqlParameterSource()
+                .addValue("patientId", patientId)
+                .addValue("before", Timestamp.from(asOf.plusDays(1).atStartOfDay(clock.getZone()).toInstant()))
+                .addValue("nilId", NIL_ID), BigDecimal.class);
     }
-}
 
+    /**
+     * Maps consecutive entries of a patient, each with the balance after it, starting from the
+     * balance before the first one.
+     */
+    private List<LedgerEntryDto> withRunningBalance(UUID patientId, List<LedgerEntry> entries) {
+        BigDecimal balance = jdbcTemplate.queryForObject(BALANCE_BEFORE_ENTRY_SQL, new MapSqlParameterSource()
+                .addValue("patientId", patientId)
+                .addValue("entryId", entries.get(0).getId()), BigDecimal.class);
+        List<LedgerEntryDto> dtos = new ArrayList<>(entries.size());
+        for (LedgerEntry entry : entries) {
+            balance = balance.add(entry.getEntryType().balanceDelta(entry.getAmount()));
+            dtos.add(toDto(entry, balance));
+        }
+        return dtos;
+    }
 
+    private static LedgerEntryDto toDto(LedgerEntry e, BigDecimal runningBalance) {
+        return new LedgerEntryDto(
+                e.getId(),
+                e.getPatient().getId(),
+                e.getInvoice() != null ? e.getInvoice().getId() : null,
+                e.getPayment() != null ? e.getPayment().getId() : null,
+                e.getEntryType(),
+                e.getAmount(),
+                e.getOccurredAt(),
+                e.getDescription(),
+                runningBalance
+        );
+    }
+}
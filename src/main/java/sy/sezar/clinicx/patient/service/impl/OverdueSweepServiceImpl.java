@@ -0,0 +1,232 @@
+package sy.sezar.clinicx.patient.service.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import sy.sezar.clinicx.patient.dto.OverdueSweepResultDto;
+import sy.sezar.clinicx.patient.service.OverdueSweepService;
+import sy.sezar.clinicx.tenant.TenantContext;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Implementation of OverdueSweepService.
+ * Each chunk is one statement in a transaction of its own: it claims up to chunk-size rows due
+ * before today with FOR UPDATE SKIP LOCKED, flips their status and inserts their billing events
+ * from the RETURNING rows of the update. The candidates are read from partial indexes holding
+ * only unpaid and partially paid rows, which the flipped rows leave, so a sweep reads the rows it
+ * changes and nothing else. A scheduled sweep runs on one node only, the one that gets the
+ * PostgreSQL advisory lock; concurrent callers of the mark methods cannot claim the same row.
+ */
+@Slf4j
+@Service
+public class OverdueSweepServiceImpl implements OverdueSweepService {
+
+    /** Key of the session advisory lock held by the node running a sweep. */
+    static final long SWEEP_LOCK_KEY = 0x636c696e6963L;
+
+    private static final String INVOICES_SQL = """
+        WITH overdue AS (
+            UPDATE invoices i
+            SET status = 'OVERDUE', updated_at = CURRENT_TIMESTAMP
+            WHERE i.id IN (
+                SELECT c.id
+                FROM invoices c
+                WHERE c.status IN ('UNPAID', 'PARTIALLY_PAID') AND c.due_date < :today
+                ORDER BY c.due_date
+                LIMIT :chunkSize
+                FOR UPDATE SKIP LOCKED)
+              AND i.status IN ('UNPAID', 'PARTIALLY_PAID')
+            RETURNING i.id, i.patient_id, i.amount_due, i.due_date
+        )
+        INSERT INTO billing_events (id, tenant_id, event_type, patient_id, invoice_id, amount, due_date, occurred_at)
+        SELECT gen_random_uuid(), :tenantId, 'INVOICE_OVERDUE', o.patient_id, o.id, o.amount_due, o.due_date,
+               CURRENT_TIMESTAMP
+        FROM overdue o
+        RETURNING invoice_id
+        """;
+
+    private static final String INSTALLMENTS_SQL = """
+        WITH overdue AS (
+            UPDATE payment_plan_installments i
+            SET status = 'OVERDUE'
+            FROM payment_plans pp
+            WHERE pp.id = i.payment_plan_id
+              AND i.id IN (
+                SELECT c.id
+                FROM payment_plan_installments c
+                JOIN payment_plans p ON p.id = c.payment_plan_id
+                WHERE c.status IN ('PENDING', 'PARTIALLY_PAID') AND c.due_date < :today AND p.status = 'ACTIVE'
+                ORDER BY c.due_date
+                LIMIT :chunkSize
+                FOR UPDATE OF c SKIP LOCKED)
+              AND i.status IN ('PENDING', 'PARTIALLY_PAID')
+            RETURNING i.id, pp.patient_id, pp.invoice_id, i.amount - COALESCE(i.paid_amount, 0) AS amount_due,
+                      i.due_date
+        )
+        INSERT INTO billing_events (id, tenant_id, event_type, patient_id, invoice_id, installment_id, amount,
+                                    due_date, occurred_at)
+        SELECT gen_random_uuid(), :tenantId, 'INSTALLMENT_OVERDUE', o.patient_id, o.invoice_id, o.id, o.amount_due,
+               o.due_date, CURRENT_TIMESTAMP
+        FROM overdue o
+        RETURNING installment_id
+        """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate chunkTemplate;
+    private final Counter invoiceCounter;
+    private final Counter installmentCounter;
+    private final Counter skippedCounter;
+    private final Timer sweepTimer;
+    private Clock clock = Clock.systemDefaultZone();
+
+    @Value("${app.tenant.default-tenant:master}")
+    private String defaultTenant = "master";
+
+    @Value("${app.finance.overdue-sweep.enabled:true}")
+    private boolean sweepEnabled = true;
+
+    @Value("${app.finance.overdue-sweep.chunk-size:1000}")
+    private int chunkSize = 1000;
+
+    public OverdueSweepServiceImpl(NamedParameterJdbcTemplate jdbcTemplate,
+                                   PlatformTransactionManager transactionManager,
+                                   MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.chunkTemplate = new TransactionTemplate(transactionManager);
+        this.chunkTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.invoiceCounter = Counter.builder("finance.overdue.invoices")
+            .description("Invoices marked overdue")
+            .register(meterRegistry);
+        this.installmentCounter = Counter.builder("finance.overdue.installments")
+            .description("Payment plan installments marked overdue")
+            .register(meterRegistry);
+        this.skippedCounter = Counter.builder("finance.overdue.sweeps.skipped")
+            .description("Overdue sweeps skipped because another node held the sweep lock")
+            .register(meterRegistry);
+        this.sweepTimer = Timer.builder("finance.overdue.sweep")
+            .description("Duration of the overdue sweeps that ran")
+            .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${app.finance.overdue-sweep.cron:0 5 0 * * *}")
+    public void scheduledSweep() {
+        if (!sweepEnabled) {
+            return;
+        }
+        OverdueSweepResultDto result = sweep(LocalDate.now(clock));
+        if (result.skipped()) {
+            log.info("Overdue sweep skipped, another node holds the sweep lock");
+        }
+    }
+
+    @Override
+    public OverdueSweepResultDto sweep(LocalDate today) {
+        // The lock is held by a connection of its own, while the chunks commit on theirs
+        OverdueSweepResultDto result = jdbcTemplate.getJdbcTemplate().execute(
+            (ConnectionCallback<OverdueSweepResultDto>) connection -> {
+                if (!advisoryLock(connection, "SELECT pg_try_advisory_lock(?)")) {
+                    return null;
+                }
+                try {
+                    return sweepLocked(today);
+                } finally {
+                    advisoryLock(connection, "SELECT pg_advisory_unlock(?)");
+                }
+            });
+        if (result == null) {
+            skippedCounter.increment();
+            return new OverdueSweepResultDto(today, true, 0, 0, 0, 0, Instant.now(clock));
+        }
+        return result;
+    }
+
+    @Override
+    public List<UUID> markOverdueInvoices(LocalDate today) {
+        List<UUID> marked = new ArrayList<>();
+        markInChunks(INVOICES_SQL, today, marked);
+        invoiceCounter.increment(marked.size());
+        return marked;
+    }
+
+    @Override
+    public int markOverdueInstallments(LocalDate today) {
+        int marked = markInChunks(INSTALLMENTS_SQL, today, null).rows();
+        installmentCounter.increment(marked);
+        return marked;
+    }
+
+    private OverdueSweepResultDto sweepLocked(LocalDate today) {
+        long start = System.nanoTime();
+        Pass invoices = markInChunks(INVOICES_SQL, today, null);
+        invoiceCounter.increment(invoices.rows());
+        Pass installments = markInChunks(INSTALLMENTS_SQL, today, null);
+        installmentCounter.increment(installments.rows());
+        long nanos = System.nanoTime() - start;
+        sweepTimer.record(nanos, TimeUnit.NANOSECONDS);
+
+        long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+        int rows = invoices.rows() + installments.rows();
+        log.info("Overdue sweep for {} marked {} invoices and {} installments in {} chunks, {} ms ({} rows/s)",
+            today, invoices.rows(), installments.rows(), invoices.chunks() + installments.chunks(), millis,
+            millis > 0 ? rows * 1000L / millis : rows);
+        return new OverdueSweepResultDto(today, false, invoices.rows(), installments.rows(),
+            invoices.chunks() + installments.chunks(), millis, Instant.now(clock));
+    }
+
+    /**
+     * Runs the chunk statement until a chunk marks fewer rows than the chunk size. Rows locked by a
+     * concurrent sweep are skipped, and are marked by that sweep.
+     */
+    private Pass markInChunks(String sql, LocalDate today, List<UUID> marked) {
+        String tenantId = TenantContext.getCurrentTenant();
+        MapSqlParameterSource params = new MapSqlParameterSource()
+            .addValue("today", Date.valueOf(today))
+            .addValue("chunkSize", chunkSize)
+            .addValue("tenantId", tenantId != null ? tenantId : defaultTenant);
+        int rows = 0;
+        int chunks = 0;
+        List<UUID> chunk;
+        do {
+            chunk = chunkTemplate.execute(status -> jdbcTemplate.queryForList(sql, params, UUID.class));
+            chunks++;
+            rows += chunk.size();
+            if (marked != null) {
+                marked.addAll(chunk);
+            }
+        } while (chunk.size() >= chunkSize);
+        return new Pass(rows, chunks);
+    }
+
+    private static boolean advisoryLock(Connection connection, String sql) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setLong(1, SWEEP_LOCK_KEY);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+        }
+    }
+
+    private record Pass(int rows, int chunks) {}
+}
@@ -0,0 +1,153 @@
+package sy.sezar.clinicx.patient.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import sy.sezar.clinicx.patient.dto.PatientSearchResultDto;
+import sy.sezar.clinicx.patient.service.PatientSearchService;
+import sy.sezar.clinicx.patient.spec.PatientSearchText;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Implementation of PatientSearchService.
+ * A search runs at most two statements. The first reads the exact identifier matches and the names
+ * starting with the term, each from its own index and limited before they are merged, so their cost
+ * does not depend on how many patients share a common prefix. Only when they do not fill the result,
+ * and the term is long enough for trigrams, the second reads substring matches of the search text
+ * from its trigram index and ranks a bounded number of candidates.
+ * <p>
+ * On PostgreSQL the name prefixes are read in byte order from their index and the substring
+ * matches are ranked by trigram similarity. Other databases, H2 in tests, run the same statements
+ * in the default collation and rank substring matches by name instead of similarity.
+ */
+@Slf4j
+@Service
+public class PatientSearchServiceImpl implements PatientSearchService {
+
+    static final int MAX_LIMIT = 50;
+
+    /** Substring matches ranked per search; the exact and prefix matches ranked before them are not capped. */
+    static final int SUBSTRING_CANDIDATES = 500;
+
+    private static final String COLUMNS =
+        "p.id, p.public_facing_id, p.full_name, p.date_of_birth, p.phone_number, p.insurance_provider";
+
+    private static final String EXACT_OR_PREFIX_SQL = """
+        SELECT m.id, m.public_facing_id, m.full_name, m.date_of_birth, m.phone_number, m.insurance_provider
+        FROM (
+            (SELECT %1$s, 0 AS tier, %2$s AS name_key
+             FROM patients p
+             WHERE lower(p.public_facing_id) = :term
+                OR (p.email IS NOT NULL AND lower(p.email) = :term)
+                OR lower(p.insurance_number) = :term
+             LIMIT :limit)
+            UNION ALL
+            (SELECT %1$s, 1 AS tier, %2$s AS name_key
+             FROM patients p
+             WHERE %2$s LIKE :prefix
+             ORDER BY %2$s, p.id
+             LIMIT :limit)
+        ) m
+        ORDER BY m.tier, m.name_key, m.id
+        """;
+
+    private static final String SUBSTRING_SQL = """
+        SELECT c.id, c.public_facing_id, c.full_name, c.date_of_birth, c.phone_number, c.insurance_provider
+        FROM (
+            SELECT %1$s
+            FROM patients p
+            WHERE p.search_text LIKE :contains OR p.search_text LIKE :phoneContains
+            LIMIT :candidates
+        ) c
+        ORDER BY CASE WHEN %2$s = :phone THEN 0 ELSE 1 END,
+                 CASE WHEN lower(c.full_name) LIKE :wordPrefix THEN 0 ELSE 1 END,
+                 %3$s %4$s, c.id
+        LIMIT :limit
+        """;
+
+    private static final Dialect POSTGRESQL = new Dialect(
+        EXACT_OR_PREFIX_SQL.formatted(COLUMNS, "lower(p.full_name) COLLATE \"C\""),
+        SUBSTRING_SQL.formatted(COLUMNS, "regexp_replace(c.phone_number, '[^0-9]', '', 'g')",
+            "similarity(lower(c.full_name), :term) DESC,", "lower(c.full_name) COLLATE \"C\""));
+
+    private static final Dialect PORTABLE = new Dialect(
+        EXACT_OR_PREFIX_SQL.formatted(COLUMNS, "lower(p.full_name)"),
+        SUBSTRING_SQL.formatted(COLUMNS, "REGEXP_REPLACE(c.phone_number, '[^0-9]', '')", "", "lower(c.full_name)"));
+
+    private static final RowMapper<PatientSearchResultDto> ROW_MAPPER = (rs, rowNum) -> new PatientSearchResultDto(
+        rs.getObject("id", UUID.class),
+        rs.getString("public_facing_id"),
+        rs.getString("full_name"),
+        rs.getObject("date_of_birth", LocalDate.class),
+        rs.getString("phone_number"),
+        rs.getString("insurance_provider"));
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private volatile Dialect dialect;
+
+    public PatientSearchServiceImpl(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<PatientSearchResultDto> search(String term, int limit) {
+        if (term == null || term.isBlank()) {
+            return List.of();
+        }
+        String normalized = PatientSearchText.normalize(term);
+        String escaped = PatientSearchText.escapeLike(normalized);
+        int size = Math.max(1, Math.min(limit, MAX_LIMIT));
+        Dialect dialect = dialect();
+
+        MapSqlParameterSource params = new MapSqlParameterSource()
+            .addValue("term", normalized)
+            .addValue("prefix", escaped + "%")
+            .addValue("limit", size);
+        Map<UUID, PatientSearchResultDto> found = new LinkedHashMap<>();
+        jdbcTemplate.query(dialect.exactOrPrefixSql(), params, ROW_MAPPER)
+            .forEach(result -> found.putIfAbsent(result.id(), result));
+
+        if (found.size() < size && normalized.length() >= PatientSearchText.MIN_SUBSTRING_LENGTH) {
+            String digits = PatientSearchText.phoneDigits(normalized);
+            String phone = digits != null ? digits : normalized;
+            params.addValue("contains", "%" + escaped + "%")
+                .addValue("phoneContains", "%" + PatientSearchText.escapeLike(phone) + "%")
+                .addValue("phone", phone)
+                .addValue("wordPrefix", "% " + escaped + "%")
+                .addValue("candidates", SUBSTRING_CANDIDATES)
+                // The patients found already may be among the substring matches
+                .addValue("limit", size + found.size());
+            for (PatientSearchResultDto result : jdbcTemplate.query(dialect.substringSql(), params, ROW_MAPPER)) {
+                if (found.size() == size) {
+                    break;
+                }
+                found.putIfAbsent(result.id(), result);
+            }
+        }
+        log.debug("Patient search for '{}' found {} patients", normalized, found.size());
+        return List.copyOf(found.values());
+    }
+
+    private Dialect dialect() {
+        Dialect current = dialect;
+        if (current == null) {
+            String product = jdbcTemplate.getJdbcTemplate().execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+            current = "PostgreSQL".equalsIgnoreCase(product) ? POSTGRESQL : PORTABLE;
+            dialect = current;
+        }
+        return current;
+    }
+
+    private record Dialect(String exactOrPrefixSql, String substringSql) {}
+}
@@ -1,13 +1,19 @@
 package sy.sezar.clinicx.patient.service.impl;
 
+import jakarta.persistence.criteria.Selection;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import sy.sezar.clinicx.core.exception.NotFoundException;
+import sy.sezar.clinicx.core.pagination.CountMode;
+import sy.sezar.clinicx.core.pagination.ProjectionQueryExecutor;
+import sy.sezar.clinicx.core.pagination.TupleProjection;
 import sy.sezar.clinicx.patient.dto.*;
 import sy.sezar.clinicx.patient.mapper.*;
 import sy.sezar.clinicx.patient.model.*;
@@ -15,8 +21,13 @@ import sy.sezar.clinicx.patient.repository.*;
 import sy.sezar.clinicx.patient.service.PatientService;
 import sy.sezar.clinicx.patient.spec.PatientSpecifications;
 
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -47,6 +58,7 @@ public class PatientServiceImpl implements PatientService {
     private final AppointmentMapper appointmentMapper;
     private final NoteSummaryMapper noteSummaryMapper;
     private final LabRequestMapper labRequestMapper;
+    private final ProjectionQueryExecutor projectionQueryExecutor;
 
     @Override
     @Transactional
@@ -92,7 +104,34 @@ public class PatientServiceImpl implements PatientService {
     }
 
     @Override
-    public Page<PatientSummaryDto> findAllPatients(String searchTerm, Pageable pageable) {
+    public PatientDashboardDto getPatientDashboard(UUID patientId) {
+        log.info("Getting dashboard for patient ID: {}", patientId);
+
+        // Appointments, notes and invoices are loaded with one query each rather than per row
+        Patient patient = patientRepository.findDashboardById(patientId)
+                .orElseThrow(() -> new NotFoundException("Patient not found with ID: " + patientId));
+
+        List<UpcomingAppointmentDto> appointments = patient.getAppointments().stream()
+                .sorted(Comparator.comparing(Appointment::getAppointmentDatetime).reversed())
+                .map(appointmentMapper::toUpcomingAppointmentDto)
+                .toList();
+        List<NoteSummaryDto> notes = patient.getNotes().stream()
+                .sorted(Comparator.comparing(Note::getNoteDate).reversed())
+                .map(noteSummaryMapper::toNoteSummaryDto)
+                .toList();
+        List<FinancialRecordDto> financialRecords = patient.getInvoices().stream()
+                .sorted(Comparator.comparing(Invoice::getIssueDate).reversed())
+                .map(this::mapToFinancialRecordDto)
+                .toList();
+        log.debug("Dashboard of patient {} has {} appointments, {} notes and {} invoices",
+                patientId, appointments.size(), notes.size(), financialRecords.size());
+
+        return new PatientDashboardDto(patientMapper.toPatientSummaryDto(patient), appointments, notes,
+                financialRecords);
+    }
+
+    @Override
+    public Slice<PatientSummaryDto> findAllPatients(String searchTerm, Pageable pageable, CountMode countMode) {
         log.info("Finding all patients with search term: '{}' and pagination: {}", searchTerm, pageable);
 
         Specification<Patient> spec = null;
@@ -101,25 +140,27 @@ public class PatientServiceImpl implements PatientService {
             spec = PatientSpecifications.bySearchTerm(searchTerm.trim());
         }
 
-        Page<Patient> patients = patientRepository.findAll(spec, pageable);
-        log.info("Found {} patients (page {} of {})",
-                patients.getNumberOfElements(), patients.getNumber() + 1, patients.getTotalPages());
+        Slice<PatientSummaryDto> patients = projectionQueryExecutor.findAll(
+            Patient.class, spec, pageable, countMode, summaryProjection());
+        log.info("Found {} patients (page {})", patients.getNumberOfElements(), patients.getNumber() + 1);
 
-        return patients.map(patientMapper::toPatientSummaryDto);
+        return patients;
     }
 
     @Override
-    public Page<PatientSummaryDto> searchPatients(PatientSearchCriteria criteria, Pageable pageable) {
+    public Slice<PatientSummaryDto> searchPatients(PatientSearchCriteria criteria, Pageable pageable,
+                                                   CountMode countMode) {
         log.info("Searching patients with advanced criteria: {}", criteria);
         log.debug("Search pagination: {}", pageable);
 
         Specification<Patient> spec = PatientSpecifications.byAdvancedCriteria(criteria);
-        Page<Patient> patients = patientRepository.findAll(spec, pageable);
+        Slice<PatientSummaryDto> patients = projectionQueryExecutor.findAll(
+            Patient.class, spec, pageable, countMode, summaryProjection());
 
-        log.info("Advanced search found {} patients (page {} of {})",
-                patients.getNumberOfElements(), patients.getNumber() + 1, patients.getTotalPages());
+        log.info("Advanced search found {} patients (page {})",
+                patients.getNumberOfElements(), patients.getNumber() + 1);
 
-        return patients.map(patientMapper::toPatientSummaryDto);
+        return patients;
     }
 
     @Override
@@ -257,6 +298,99 @@ public class PatientServiceImpl implements PatientService {
         return invoices.map(this::mapToFinancialRecordDto);
     }
 
+    @Override
+    public CursorPageDto<DocumentSummaryDto> getPatientDocumentsAfter(UUID patientId, String cursor, int size) {
+        log.info("Getting documents for patient ID: {} after cursor: {}", patientId, cursor);
+        KeysetCursor.validatePageSize(size);
+
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        Slice<Document> documents = after == null
+                ? documentRepository.findSliceByPatientId(patientId, PageRequest.ofSize(size))
+                : documentRepository.findSliceByPatientIdAfter(
+                        patientId, after.sortKey(Instant::parse), after.id(), PageRequest.ofSize(size));
+        return KeysetCursor.page(documents.getContent(), documents.hasNext(),
+                Document::getCreatedAt, Document::getId, documentMapper::toDocumentSummaryDto);
+    }
+
+    @Override
+    public CursorPageDto<NoteSummaryDto> getPatientNotesAfter(UUID patientId, String cursor, int size) {
+        log.info("Getting notes for patient ID: {} after cursor: {}", patientId, cursor);
+        KeysetCursor.validatePageSize(size);
+
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        Slice<Note> notes = after == null
+                ? noteRepository.findSliceByPatientId(patientId, PageRequest.ofSize(size))
+                : noteRepository.findSliceByPatientIdAfter(
+                        patientId, after.sortKey(Instant::parse), after.id(), PageRequest.ofSize(size));
+        return KeysetCursor.page(notes.getContent(), notes.hasNext(),
+                Note::getNoteDate, Note::getId, noteSummaryMapper::toNoteSummaryDto);
+    }
+
+    @Override
+    public CursorPageDto<VisitLogDto> getPatientVisitHistoryAfter(UUID patientId, String cursor, int size) {
+        log.info("Getting visit history for patient ID: {} after cursor: {}", patientId, cursor);
+        KeysetCursor.validatePageSize(size);
+
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        Slice<Visit> visits = after == null
+                ? visitRepository.findSliceByPatientId(patientId, PageRequest.ofSize(size))
+                : visitRepository.findSliceByPatientIdAfter(
+                        patientId, after.sortKey(LocalDate::parse), after.id(), PageRequest.ofSize(size));
+        return KeysetCursor.page(visits.getContent(), visits.hasNext(),
+                Visit::getDate, Visit::getId, visitMapper::toVisitLogDto);
+    }
+
+    @Override
+    public CursorPageDto<LabRequestDto> getPatientLabRequestsAfter(UUID patientId, String cursor, int size) {
+        log.info("Getting lab requests for patient ID: {} after cursor: {}", patientId, cursor);
+        KeysetCursor.validatePageSize(size);
+
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        List<LabRequest> labRequests = new ArrayList<>(size);
+        boolean hasNext;
+        if (after == null || !after.hasSortKey()) {
+            Slice<LabRequest> unsent = after == null
+                    ? labRequestRepository.findUnsentSliceByPatientId(patientId, PageRequest.ofSize(size))
+                    : labRequestRepository.findUnsentSliceByPatientIdAfter(patientId, after.id(), PageRequest.ofSize(size));
+            labRequests.addAll(unsent.getContent());
+            hasNext = unsent.hasNext();
+            if (!hasNext) {
+                // The sent requests follow the unsent ones, on this page when it is not full yet
+                int remaining = size - labRequests.size();
+                Slice<LabRequest> sent = labRequestRepository.findSentSliceByPatientId(
+                        patientId, PageRequest.ofSize(Math.max(remaining, 1)));
+                if (remaining > 0) {
+                    labRequests.addAll(sent.getContent());
+                    hasNext = sent.hasNext();
+                } else {
+                    hasNext = sent.hasContent();
+                }
+            }
+        } else {
+            Slice<LabRequest> sent = labRequestRepository.findSentSliceByPatientIdAfter(
+                    patientId, after.sortKey(LocalDate::parse), after.id(), PageRequest.ofSize(size));
+            labRequests.addAll(sent.getContent());
+            hasNext = sent.hasNext();
+        }
+        return KeysetCursor.page(labRequests, hasNext,
+                LabRequest::getDateSent, LabRequest::getId, labRequestMapper::toLabRequestDto);
+    }
+
+    @Override
+    public CursorPageDto<FinancialRecordDto> getPatientFinancialRecordsAfter(UUID patientId, String cursor, int size) {
+        log.info("Getting financial records for patient ID: {} after cursor: {}", patientId, cursor);
+        KeysetCursor.validatePageSize(size);
+
+        // Without the payments and items fetched by the page mode, which the records do not map
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        Slice<Invoice> invoices = after == null
+                ? invoiceRepository.findSliceByPatientId(patientId, PageRequest.ofSize(size))
+                : invoiceRepository.findSliceByPatientIdAfter(
+                        patientId, after.sortKey(LocalDate::parse), after.id(), PageRequest.ofSize(size));
+        return KeysetCursor.page(invoices.getContent(), invoices.hasNext(),
+                Invoice::getIssueDate, Invoice::getId, this::mapToFinancialRecordDto);
+    }
+
     @Override
     @Transactional
     public void deactivatePatient(UUID patientId) {
@@ -268,6 +402,44 @@ public class PatientServiceImpl implements PatientService {
         log.info("Successfully deactivated patient with ID: {}", patientId);
     }
 
+    /**
+     * Selects the columns of {@link PatientSummaryDto} for the patient lists.
+     */
+    private TupleProjection<Patient, PatientSummaryDto> summaryProjection() {
+        return new TupleProjection<>(
+            (root, cb) -> List.<Selection<?>>of(
+                root.get("id").alias("id"),
+                root.get("publicFacingId").alias("publicFacingId"),
+                root.get("fullName").alias("fullName"),
+                root.get("dateOfBirth").alias("dateOfBirth"),
+                root.get("gender").alias("gender"),
+                root.get("phoneNumber").alias("phoneNumber"),
+                root.get("email").alias("email"),
+                root.get("address").alias("address"),
+                root.get("insuranceProvider").alias("insuranceProvider"),
+                root.get("insuranceNumber").alias("insuranceNumber"),
+                root.get("importantMedicalNotes").alias("importantMedicalNotes"),
+                root.get("balance").alias("balance")),
+            tuple -> {
+                LocalDate dateOfBirth = tuple.get("dateOfBirth", LocalDate.class);
+                return new PatientSummaryDto(
+                    tuple.get("id", UUID.class),
+                    tuple.get("publicFacingId", String.class),
+                    tuple.get("fullName", String.class),
+                    dateOfBirth,
+                    patientMapper.calculateAge(dateOfBirth),
+                    tuple.get("gender", String.class),
+                    tuple.get("phoneNumber", String.class),
+                    tuple.get("email", String.class),
+                    tuple.get("address", String.class),
+                    tuple.get("insuranceProvider", String.class),
+                    tuple.get("insuranceNumber", String.class),
+                    tuple.get("importantMedicalNotes", String.class),
+                    tuple.get("balance", BigDecimal.class),
+                    false);
+            });
+    }
+
     private Patient findPatientEntityById(UUID patientId) {
         return patientRepository.findById(patientId)
                 .orElseThrow(() -> {
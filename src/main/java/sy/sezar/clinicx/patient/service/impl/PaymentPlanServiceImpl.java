@@ -1,31 +1,48 @@
 package sy.sezar.clinicx.patient.service.impl;
 
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Selection;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import sy.sezar.clinicx.clinic.model.Staff;
+import sy.sezar.clinicx.core.pagination.CountMode;
+import sy.sezar.clinicx.core.pagination.ProjectionQueryExecutor;
+import sy.sezar.clinicx.core.pagination.TupleProjection;
 import sy.sezar.clinicx.patient.dto.PaymentPlanDto;
 import sy.sezar.clinicx.patient.dto.PaymentPlanCreateRequest;
 import sy.sezar.clinicx.patient.dto.PaymentPlanInstallmentDto;
 import sy.sezar.clinicx.patient.dto.PaymentPlanStatisticsDto;
 import sy.sezar.clinicx.patient.dto.PaymentPlanReportDto;
+import sy.sezar.clinicx.patient.model.Invoice;
+import sy.sezar.clinicx.patient.model.Patient;
 import sy.sezar.clinicx.patient.model.PaymentPlan;
 import sy.sezar.clinicx.patient.model.PaymentPlanInstallment;
 import sy.sezar.clinicx.patient.model.enums.InstallmentStatus;
 import sy.sezar.clinicx.patient.model.enums.PaymentPlanStatus;
+import sy.sezar.clinicx.patient.repository.PaymentPlanInstallmentRepository;
 import sy.sezar.clinicx.patient.repository.PaymentPlanRepository;
+import sy.sezar.clinicx.patient.service.OverdueSweepService;
 import sy.sezar.clinicx.patient.service.PaymentPlanService;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
 import java.util.Comparator;
 import java.util.stream.Collectors;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.function.Function;
 import java.math.RoundingMode;
 
 /**
@@ -37,7 +54,37 @@ import java.math.RoundingMode;
 @Transactional(readOnly = true)
 public class PaymentPlanServiceImpl implements PaymentPlanService {
 
+    /** Columns of {@link PaymentPlanDto} for the payment plan lists, with the names of related rows. */
+    private static final TupleProjection<PaymentPlan, Tuple> PLAN_PROJECTION = new TupleProjection<>(
+        (root, cb) -> {
+            Join<PaymentPlan, Patient> patient = root.join("patient");
+            Join<PaymentPlan, Invoice> invoice = root.join("invoice");
+            Join<PaymentPlan, Staff> createdBy = root.join("createdBy", JoinType.LEFT);
+            return List.<Selection<?>>of(
+                root.get("id").alias("id"),
+                patient.get("id").alias("patientId"),
+                patient.get("fullName").alias("patientName"),
+                invoice.get("id").alias("invoiceId"),
+                invoice.get("invoiceNumber").alias("invoiceNumber"),
+                root.get("planName").alias("planName"),
+                root.get("totalAmount").alias("totalAmount"),
+                root.get("installmentCount").alias("installmentCount"),
+                root.get("installmentAmount").alias("installmentAmount"),
+                root.get("startDate").alias("startDate"),
+                root.get("endDate").alias("endDate"),
+                root.get("frequencyDays").alias("frequencyDays"),
+                root.get("status").alias("status"),
+                root.get("notes").alias("notes"),
+                createdBy.get("fullName").alias("createdBy"),
+                root.get("createdAt").alias("createdAt"),
+                root.get("updatedAt").alias("updatedAt"));
+        },
+        Function.identity());
+
     private final PaymentPlanRepository paymentPlanRepository;
+    private final PaymentPlanInstallmentRepository installmentRepository;
+    private final ProjectionQueryExecutor projectionQueryExecutor;
+    private final OverdueSweepService overdueSweepService;
 
     @Override
     @Transactional
@@ -317,10 +364,51 @@ public class PaymentPlanServiceImpl implements PaymentPlanService {
     }
 
     @Override
-    public Page<PaymentPlanDto> getPaymentPlansByStatus(PaymentPlanStatus status, Pageable pageable) {
+    public Slice<PaymentPlanDto> getPaymentPlansByStatus(PaymentPlanStatus status, Pageable pageable,
+                                                         CountMode countMode) {
         log.info("Getting payment plans by status: {}", status);
-        Page<PaymentPlan> paymentPlans = paymentPlanRepository.findByStatus(status, pageable);
-        return paymentPlans.map(this::mapToDto);
+        Specification<PaymentPlan> spec = status == null ? null
+            : (root, query, cb) -> cb.equal(root.get("status"), status);
+        Slice<Tuple> plans = projectionQueryExecutor.findAll(
+            PaymentPlan.class, spec, pageable, countMode, PLAN_PROJECTION);
+
+        // The installments of the whole page in one query instead of one per plan
+        List<UUID> planIds = plans.stream().map(plan -> plan.get("id", UUID.class)).toList();
+        Map<UUID, List<PaymentPlanInstallmentDto>> installmentsByPlan = planIds.isEmpty() ? Map.of()
+            : installmentRepository.findByPaymentPlanIdInOrderByInstallmentNumber(planIds).stream()
+                .map(this::mapInstallmentToDto)
+                .collect(Collectors.groupingBy(PaymentPlanInstallmentDto::paymentPlanId));
+
+        return plans.map(plan -> {
+            List<PaymentPlanInstallmentDto> installments =
+                installmentsByPlan.getOrDefault(plan.get("id", UUID.class), List.of());
+            BigDecimal totalAmount = plan.get("totalAmount", BigDecimal.class);
+            BigDecimal totalPaid = paidAmount(installments);
+            return new PaymentPlanDto(
+                plan.get("id", UUID.class),
+                plan.get("patientId", UUID.class),
+                plan.get("patientName", String.class),
+                plan.get("invoiceId", UUID.class),
+                plan.get("invoiceNumber", String.class),
+                plan.get("planName", String.class),
+                totalAmount,
+                plan.get("installmentCount", Integer.class),
+                plan.get("installmentAmount", BigDecimal.class),
+                plan.get("startDate", LocalDate.class),
+                plan.get("endDate", LocalDate.class),
+                plan.get("frequencyDays", Integer.class),
+                plan.get("status", PaymentPlanStatus.class),
+                plan.get("notes", String.class),
+                plan.get("createdBy", String.class),
+                plan.get("createdAt", Instant.class),
+                plan.get("updatedAt", Instant.class),
+                installments,
+                totalPaid,
+                totalAmount.subtract(totalPaid),
+                countInstallments(installments, InstallmentStatus.PAID),
+                countInstallments(installments, InstallmentStatus.PENDING)
+            );
+        });
     }
 
     @Override
@@ -343,9 +431,9 @@ public class PaymentPlanServiceImpl implements PaymentPlanService {
     @Transactional
     public int markOverdueInstallments() {
         log.info("Marking overdue installments");
-        // Implementation would require PaymentPlanInstallmentRepository
-        // This would update installments where due_date < today and status = PENDING
-        return 0; // Return count of marked installments
+        int marked = overdueSweepService.markOverdueInstallments(LocalDate.now());
+        log.info("Marked {} installments as overdue", marked);
+        return marked;
     }
 
     @Override
@@ -459,7 +547,10 @@ public class PaymentPlanServiceImpl implements PaymentPlanService {
     }
 
     private PaymentPlanDto mapToDto(PaymentPlan paymentPlan) {
-        // Implementation of mapping logic
+        List<PaymentPlanInstallmentDto> installments = paymentPlan.getInstallments().stream()
+            .map(this::mapInstallmentToDto)
+            .collect(Collectors.toList());
+        BigDecimal totalPaid = paidAmount(installments);
         return new PaymentPlanDto(
             paymentPlan.getId(),
             paymentPlan.getPatient().getId(),
@@ -478,28 +569,27 @@ public class PaymentPlanServiceImpl implements PaymentPlanService {
             paymentPlan.getCreatedBy() != null ? paymentPlan.getCreatedBy().getFullName() : null,
             paymentPlan.getCreatedAt(),
             paymentPlan.getUpdatedAt(),
-            paymentPlan.getInstallments().stream()
-                .map(this::mapInstallmentToDto)
-                .collect(Collectors.toList()),
-            paymentPlan.getInstallments().stream()
-                .filter(i -> i.getStatus() == InstallmentStatus.PAID)
-                .map(PaymentPlanInstallment::getPaidAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add),
-            paymentPlan.getTotalAmount().subtract(
-                paymentPlan.getInstallments().stream()
-                    .filter(i -> i.getStatus() == InstallmentStatus.PAID)
-                    .map(PaymentPlanInstallment::getPaidAmount)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add)
-            ),
-            (int) paymentPlan.getInstallments().stream()
-                .filter(i -> i.getStatus() == InstallmentStatus.PAID)
-                .count(),
-            (int) paymentPlan.getInstallments().stream()
-                .filter(i -> i.getStatus() == InstallmentStatus.PENDING)
-                .count()
+            installments,
+            totalPaid,
+            paymentPlan.getTotalAmount().subtract(totalPaid),
+            countInstallments(installments, InstallmentStatus.PAID),
+            countInstallments(installments, InstallmentStatus.PENDING)
         );
     }
 
+    private static BigDecimal paidAmount(List<PaymentPlanInstallmentDto> installments) {
+        return installments.stream()
+            .filter(i -> i.status() == InstallmentStatus.PAID)
+            .map(PaymentPlanInstallmentDto::paidAmount)
+            .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    private static int countInstallments(List<PaymentPlanInstallmentDto> installments, InstallmentStatus status) {
+        return (int) installments.stream()
+            .filter(i -> i.status() == status)
+            .count();
+    }
+
     private PaymentPlanInstallmentDto mapInstallmentToDto(PaymentPlanInstallment installment) {
         LocalDate today = LocalDate.now();
         boolean isOverdue = installment.getStatus() == InstallmentStatus.PENDING && 
@@ -3,17 +3,25 @@ package sy.sezar.clinicx.patient.service.impl;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import sy.sezar.clinicx.core.exception.BusinessRuleException;
 import sy.sezar.clinicx.core.exception.ResourceNotFoundException;
 import sy.sezar.clinicx.patient.dto.*;
 import sy.sezar.clinicx.patient.mapper.PaymentMapper;
 import sy.sezar.clinicx.patient.service.PaymentService;
 import sy.sezar.clinicx.patient.model.Invoice;
+import sy.sezar.clinicx.patient.model.LedgerEntry;
 import sy.sezar.clinicx.patient.model.Patient;
 import sy.sezar.clinicx.patient.model.Payment;
 import sy.sezar.clinicx.patient.model.enums.InvoiceStatus;
+import sy.sezar.clinicx.patient.model.enums.PaymentMethod;
 import sy.sezar.clinicx.patient.model.enums.PaymentType;
 import sy.sezar.clinicx.patient.repository.InvoiceRepository;
 import sy.sezar.clinicx.patient.repository.PatientRepository;
@@ -25,6 +33,9 @@ import sy.sezar.clinicx.patient.service.LedgerService;
 import sy.sezar.clinicx.patient.model.enums.LedgerEntryType;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.time.LocalDate;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -38,6 +49,33 @@ import java.util.stream.Collectors;
 @Transactional
 public class PaymentServiceImpl implements PaymentService {
 
+    /** Payments that count as money moved; failed, cancelled and voided attempts are ignored. */
+    private static final String COUNTED_PAYMENT = "p.status NOT IN ('FAILED', 'CANCELLED', 'VOIDED')";
+
+    private static final String STATISTICS_SQL = """
+        SELECT period_start,
+               SUM(CASE WHEN type = 'PAYMENT' THEN amount ELSE 0 END) AS collected,
+               SUM(CASE WHEN type = 'REFUND' THEN ABS(amount) ELSE 0 END) AS refunded,
+               SUM(CASE WHEN type = 'CREDIT' THEN amount ELSE 0 END) AS credited,
+               COUNT(CASE WHEN type = 'PAYMENT' THEN 1 END) AS payment_count,
+               COUNT(CASE WHEN type = 'REFUND' THEN 1 END) AS refund_count,
+               COUNT(CASE WHEN type = 'CREDIT' THEN 1 END) AS credit_count,
+               MIN(CASE WHEN type = 'PAYMENT' THEN payment_date END) AS first_payment,
+               MAX(CASE WHEN type = 'PAYMENT' THEN payment_date END) AS last_payment,
+               %s
+        FROM (
+            SELECT p.type, p.payment_method, p.amount, p.payment_date,
+                   CAST(DATE_TRUNC('month', p.payment_date) AS DATE) AS period_start
+            FROM payments p
+            WHERE %%s
+        ) p
+        GROUP BY period_start
+        ORDER BY period_start
+        """.formatted(Arrays.stream(PaymentMethod.values())
+            .map(method -> "SUM(CASE WHEN type = 'PAYMENT' AND payment_method = '" + method.name()
+                + "' THEN amount ELSE 0 END)")
+            .collect(Collectors.joining(",\n               ")));
+
     private final PaymentRepository paymentRepository;
     private final PatientRepository patientRepository;
     private final InvoiceRepository invoiceRepository;
@@ -45,6 +83,7 @@ public class PaymentServiceImpl implements PaymentService {
     // private final StaffService staffService; // reserved for future use (current staff attribution)
     private final PaymentAllocationRepository paymentAllocationRepository;
     private final LedgerService ledgerService;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
 
     /**
      * Get all payments with optional filtering.
@@ -76,6 +115,24 @@ public class PaymentServiceImpl implements PaymentService {
         return payments.map(paymentMapper::toDto);
     }
 
+    /**
+     * Get the payments of a patient in cursor mode, newest first.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDto<PaymentDto> getPatientPaymentsAfter(UUID patientId, String cursor, int size) {
+        log.debug("Getting payments of patient {} after cursor {}", patientId, cursor);
+        KeysetCursor.validatePageSize(size);
+
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        Slice<Payment> payments = after == null
+            ? paymentRepository.findSliceByPatientId(patientId, PageRequest.ofSize(size))
+            : paymentRepository.findSliceByPatientIdAfter(
+                patientId, after.sortKey(LocalDate::parse), after.id(), PageRequest.ofSize(size));
+        return KeysetCursor.page(payments.getContent(), payments.hasNext(),
+            Payment::getPaymentDate, Payment::getId, paymentMapper::toDto);
+    }
+
     /**
      * Get payment by ID.
      */
@@ -141,6 +198,8 @@ public class PaymentServiceImpl implements PaymentService {
         // Validate payment can be updated
         validatePaymentForUpdate(payment);
         
+        BigDecimal previousAmount = payment.getAmount();
+        
         // Update fields if provided
         if (request.amount() != null) {
             payment.setAmount(request.amount());
@@ -160,6 +219,13 @@ public class PaymentServiceImpl implements PaymentService {
         
         Payment updatedPayment = paymentRepository.save(payment);
         
+        // A changed amount moves the patient balance by the difference
+        if (payment.getPatient() != null && previousAmount.compareTo(updatedPayment.getAmount()) != 0) {
+            ledgerService.record(payment.getPatient().getId(), payment.getInvoice(), updatedPayment,
+                    LedgerEntryType.ADJUSTMENT, previousAmount.subtract(updatedPayment.getAmount()),
+                    "Payment amount corrected");
+        }
+        
         // Update invoice status if linked
         if (payment.getInvoice() != null) {
             updateInvoiceStatus(payment.getInvoice());
@@ -195,106 +261,159 @@ public class PaymentServiceImpl implements PaymentService {
 
     /**
      * Get payment statistics.
+     * <p>
+     * All figures come from one statement that aggregates the payments of the window by month,
+     * with a conditional sum per payment type and method; the months are then added up here.
+     * Without a patient the statistics cover every payment of the tenant.
      */
     @Override
     @Transactional(readOnly = true)
     public PaymentStatisticsDto getPaymentStatistics(UUID patientId, LocalDate startDate, LocalDate endDate) {
-        log.debug("Calculating payment statistics for patient: {}", patientId);
-        
-        BigDecimal totalCollected = BigDecimal.ZERO;
-        BigDecimal totalRefunded = BigDecimal.ZERO;
-        BigDecimal totalCredits = BigDecimal.ZERO;
-        BigDecimal netAmount = BigDecimal.ZERO;
-        Integer paymentCount = 0;
-        LocalDate lastPaymentDate = null;
-        Map<String, BigDecimal> byMethod = new HashMap<>();
-        
+        log.debug("Calculating payment statistics for patient: {} from {} to {}", patientId, startDate, endDate);
+        if (startDate != null && endDate != null && startDate.isAfter(endDate)) {
+            throw new BusinessRuleException("Invalid date range: " + startDate + " to " + endDate);
+        }
+
+        StringBuilder where = new StringBuilder(COUNTED_PAYMENT);
+        MapSqlParameterSource params = new MapSqlParameterSource();
         if (patientId != null) {
-            totalCollected = paymentRepository.calculateTotalByType(patientId, PaymentType.PAYMENT);
-            totalRefunded = paymentRepository.calculateTotalByType(patientId, PaymentType.REFUND);
-            totalCredits = paymentRepository.calculateTotalByType(patientId, PaymentType.CREDIT);
-            
-            netAmount = totalCollected
-                .subtract(totalRefunded)
-                .add(totalCredits);
-            
-            paymentCount = paymentRepository.countPaymentsByPatientId(patientId);
-            lastPaymentDate = paymentRepository.findLastPaymentDate(patientId);
-            
-            // Payment method breakdown
-            List<Object[]> methodBreakdown = paymentRepository.calculatePaymentMethodBreakdown(patientId);
-            for (Object[] row : methodBreakdown) {
-                byMethod.put((String) row[0], (BigDecimal) row[1]);
-            }
+            where.append(" AND p.patient_id = :patientId");
+            params.addValue("patientId", patientId);
         }
-        
-        return new PaymentStatisticsDto(
-            totalCollected,
-            totalRefunded,
-            totalCredits,
-            netAmount,
-            paymentCount,
-            null, // refundCount
-            null, // creditCount
-            null, // averagePaymentAmount
-            null, // firstPaymentDate
-            lastPaymentDate,
-            byMethod,
-            new HashMap<>(), // byMonth
-            new HashMap<>()  // countByType
-        );
+        if (startDate != null) {
+            where.append(" AND p.payment_date >= :startDate");
+            params.addValue("startDate", startDate);
+        }
+        if (endDate != null) {
+            where.append(" AND p.payment_date <= :endDate");
+            params.addValue("endDate", endDate);
+        }
+
+        PaymentTotals totals = new PaymentTotals();
+        jdbcTemplate.query(STATISTICS_SQL.formatted(where), params, (RowCallbackHandler) totals::add);
+        return totals.toDto();
     }
 
     /**
      * Process bulk payments.
+     * <p>
+     * The referenced patients and invoices are loaded with one query each, and every item is
+     * checked against them in memory, in request order, so an item is rejected exactly when the
+     * single-payment path would have rejected it at that point. The accepted payments, their
+     * invoice allocations and ledger entries are then inserted in JDBC batches; each invoice and
+     * each patient balance is updated once, with the total of its payments.
      */
     @Override
     public BulkPaymentResponse processBulkPayments(BulkPaymentRequest request) {
-        log.info("Processing bulk payments - count: {}", request.payments().size());
-        
-        List<PaymentDto> successfulPayments = new ArrayList<>();
+        List<BulkPaymentItem> items = request.payments();
+        log.info("Processing bulk payments - count: {}", items.size());
+
+        Map<UUID, Patient> patients = patientRepository.findAllById(items.stream()
+                .map(BulkPaymentItem::patientId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet())).stream()
+            .collect(Collectors.toMap(Patient::getId, patient -> patient));
+        Map<UUID, Invoice> invoices = invoiceRepository.findAllById(items.stream()
+                .map(BulkPaymentItem::invoiceId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet())).stream()
+            .collect(Collectors.toMap(Invoice::getId, invoice -> invoice));
+
+        List<Payment> payments = new ArrayList<>();
+        List<PaymentAllocation> allocations = new ArrayList<>();
+        List<LedgerEntry> ledgerEntries = new ArrayList<>();
+        Set<UUID> paidInvoices = new HashSet<>();
         List<BulkPaymentResponse.BulkPaymentError> errors = new ArrayList<>();
-        
-        for (int i = 0; i < request.payments().size(); i++) {
-            BulkPaymentItem item = request.payments().get(i);
-            try {
-                PaymentCreateRequest paymentRequest = new PaymentCreateRequest(
-                    item.amount(),
-                    item.paymentDate(),
-                    item.paymentMethod(),
-                    item.description(),
-                    item.referenceNumber()
-                );
-                
-                PaymentDto payment = createPayment(paymentRequest, item.patientId(), item.invoiceId());
-                successfulPayments.add(payment);
-                
-            } catch (Exception e) {
-                log.error("Error processing payment at index {}: {}", i, e.getMessage());
-                
-                BulkPaymentResponse.BulkPaymentError error = new BulkPaymentResponse.BulkPaymentError(
+
+        for (int i = 0; i < items.size(); i++) {
+            BulkPaymentItem item = items.get(i);
+            Patient patient = patients.get(item.patientId());
+            Invoice invoice = item.invoiceId() != null ? invoices.get(item.invoiceId()) : null;
+            String error = null;
+            String errorCode = null;
+            if (patient == null) {
+                error = "Patient not found with ID: " + item.patientId();
+                errorCode = ResourceNotFoundException.class.getSimpleName();
+            } else if (item.invoiceId() != null && invoice == null) {
+                error = "Invoice not found with ID: " + item.invoiceId();
+                errorCode = ResourceNotFoundException.class.getSimpleName();
+            } else if (invoice != null && !invoice.getPatient().getId().equals(patient.getId())) {
+                error = "Invoice " + invoice.getInvoiceNumber() + " does not belong to patient: " + patient.getId();
+                errorCode = BusinessRuleException.class.getSimpleName();
+            } else if (invoice != null) {
+                try {
+                    validateInvoiceForPayment(invoice);
+                } catch (IllegalStateException e) {
+                    error = e.getMessage();
+                    errorCode = e.getClass().getSimpleName();
+                }
+            }
+
+            if (error != null) {
+                log.error("Error processing payment at index {}: {}", i, error);
+                errors.add(new BulkPaymentResponse.BulkPaymentError(
                     i,
-                    item.patientId().toString(),
-                    null,
-                    e.getMessage(),
-                    e.getClass().getSimpleName()
-                );
-                errors.add(error);
-                
+                    String.valueOf(item.patientId()),
+                    invoice != null ? invoice.getInvoiceNumber() : null,
+                    error,
+                    errorCode
+                ));
                 if (request.stopOnError()) {
                     break;
                 }
+                continue;
+            }
+
+            Payment payment = new Payment();
+            payment.setPatient(patient);
+            payment.setAmount(item.amount());
+            payment.setPaymentDate(item.paymentDate());
+            payment.setPaymentMethod(item.paymentMethod());
+            payment.setType(PaymentType.PAYMENT);
+            payment.setDescription(item.description());
+            payment.setReferenceNumber(item.referenceNumber());
+            payments.add(payment);
+
+            if (invoice != null) {
+                payment.setInvoice(invoice);
+                PaymentAllocation allocation = new PaymentAllocation();
+                allocation.setPayment(payment);
+                allocation.setInvoice(invoice);
+                allocation.setAllocatedAmount(item.amount());
+                allocations.add(allocation);
+
+                // Later items of the request see the invoice as this payment leaves it
+                paidInvoices.add(invoice.getId());
+                invoice.applyAmountPaid(invoice.getAmountPaid().add(item.amount()));
             }
+
+            LedgerEntry entry = new LedgerEntry();
+            entry.setPatient(patient);
+            entry.setInvoice(invoice);
+            entry.setPayment(payment);
+            entry.setEntryType(LedgerEntryType.PAYMENT_RECEIPT);
+            entry.setAmount(item.amount());
+            entry.setDescription(item.description());
+            ledgerEntries.add(entry);
         }
-        
+
+        paymentRepository.saveAll(payments);
+        paymentAllocationRepository.saveAll(allocations);
+        ledgerService.recordAll(ledgerEntries);
+        // Sends the batched inserts and the one update per invoice now, so failures surface here
+        paymentRepository.flush();
+        log.info("Bulk payments applied to {} invoices of {} patients",
+            paidInvoices.size(), ledgerEntries.stream().map(e -> e.getPatient().getId()).distinct().count());
+
+        List<PaymentDto> successfulPayments = payments.stream().map(paymentMapper::toDto).toList();
         return new BulkPaymentResponse(
-            request.payments().size(),
+            items.size(),
             successfulPayments.size(),
             errors.size(),
             successfulPayments,
             errors,
-            String.format("Processed %d of %d payments successfully", 
-                         successfulPayments.size(), request.payments().size())
+            String.format("Processed %d of %d payments successfully",
+                         successfulPayments.size(), items.size())
         );
     }
 
@@ -305,13 +424,7 @@ public class PaymentServiceImpl implements PaymentService {
     @Transactional(readOnly = true)
     public Map<String, BigDecimal> getPaymentMethodBreakdown(UUID patientId, LocalDate startDate, LocalDate endDate) {
         log.debug("Getting payment method breakdown");
-        
-        List<Object[]> breakdown = paymentRepository.calculatePaymentMethodBreakdown(patientId);
-        return breakdown.stream()
-            .collect(Collectors.toMap(
-                row -> (String) row[0],
-                row -> (BigDecimal) row[1]
-            ));
+        return getPaymentStatistics(patientId, startDate, endDate).byPaymentMethod();
     }
 
     /**
@@ -442,4 +555,78 @@ public class PaymentServiceImpl implements PaymentService {
         
         invoiceRepository.save(invoice);
     }
-}
\ No newline at end of file
+
+    /**
+     * Adds up the monthly rows of the statistics statement.
+     */
+    private static final class PaymentTotals {
+
+        private static final int FIRST_METHOD_COLUMN = 10;
+
+        private BigDecimal collected = BigDecimal.ZERO;
+        private BigDecimal refunded = BigDecimal.ZERO;
+        private BigDecimal credited = BigDecimal.ZERO;
+        private int paymentCount;
+        private int refundCount;
+        private int creditCount;
+        private LocalDate firstPaymentDate;
+        private LocalDate lastPaymentDate;
+        private final BigDecimal[] byMethod = new BigDecimal[PaymentMethod.values().length];
+        private final Map<String, BigDecimal> byMonth = new TreeMap<>();
+
+        void add(ResultSet rs) throws SQLException {
+            LocalDate month = rs.getObject("period_start", LocalDate.class);
+            BigDecimal monthCollected = rs.getBigDecimal("collected");
+            collected = collected.add(monthCollected);
+            refunded = refunded.add(rs.getBigDecimal("refunded"));
+            credited = credited.add(rs.getBigDecimal("credited"));
+            paymentCount += rs.getInt("payment_count");
+            refundCount += rs.getInt("refund_count");
+            creditCount += rs.getInt("credit_count");
+            LocalDate first = rs.getObject("first_payment", LocalDate.class);
+            if (first != null && (firstPaymentDate == null || first.isBefore(firstPaymentDate))) {
+                firstPaymentDate = first;
+            }
+            LocalDate last = rs.getObject("last_payment", LocalDate.class);
+            if (last != null && (lastPaymentDate == null || last.isAfter(lastPaymentDate))) {
+                lastPaymentDate = last;
+            }
+            for (int i = 0; i < byMethod.length; i++) {
+                BigDecimal amount = rs.getBigDecimal(FIRST_METHOD_COLUMN + i);
+                byMethod[i] = byMethod[i] == null ? amount : byMethod[i].add(amount);
+            }
+            byMonth.put(String.format("%d-%02d", month.getYear(), month.getMonthValue()), monthCollected);
+        }
+
+        PaymentStatisticsDto toDto() {
+            Map<String, BigDecimal> methods = new LinkedHashMap<>();
+            for (PaymentMethod method : PaymentMethod.values()) {
+                BigDecimal amount = byMethod[method.ordinal()];
+                if (amount != null && amount.signum() != 0) {
+                    methods.put(method.name(), amount);
+                }
+            }
+            Map<String, Integer> countByType = new LinkedHashMap<>();
+            countByType.put(PaymentType.PAYMENT.name(), paymentCount);
+            countByType.put(PaymentType.REFUND.name(), refundCount);
+            countByType.put(PaymentType.CREDIT.name(), creditCount);
+
+            return new PaymentStatisticsDto(
+                collected,
+                refunded,
+                credited,
+                collected.subtract(refunded).add(credited),
+                paymentCount,
+                refundCount,
+                creditCount,
+                paymentCount == 0 ? BigDecimal.ZERO
+                    : collected.divide(BigDecimal.valueOf(paymentCount), 2, RoundingMode.HALF_UP),
+                firstPaymentDate,
+                lastPaymentDate,
+                methods,
+                byMonth,
+                countByType
+            );
+        }
+    }
+}
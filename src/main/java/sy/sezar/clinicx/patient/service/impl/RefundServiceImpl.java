@@ -13,11 +13,13 @@ import sy.sezar.clinicx.patient.model.Invoice;
 import sy.sezar.clinicx.patient.model.Patient;
 import sy.sezar.clinicx.patient.model.Payment;
 import sy.sezar.clinicx.patient.model.enums.InvoiceStatus;
+import sy.sezar.clinicx.patient.model.enums.LedgerEntryType;
 import sy.sezar.clinicx.patient.model.enums.PaymentType;
 import sy.sezar.clinicx.patient.model.enums.PaymentMethod;
 import sy.sezar.clinicx.patient.repository.InvoiceRepository;
 import sy.sezar.clinicx.patient.repository.PatientRepository;
 import sy.sezar.clinicx.patient.repository.PaymentRepository;
+import sy.sezar.clinicx.patient.service.LedgerService;
 import sy.sezar.clinicx.patient.service.RefundService;
 
 import java.math.BigDecimal;
@@ -37,6 +39,7 @@ public class RefundServiceImpl implements RefundService {
     private final PaymentRepository paymentRepository;
     private final PatientRepository patientRepository;
     private final InvoiceRepository invoiceRepository;
+    private final LedgerService ledgerService;
 
     @Override
     @Transactional
@@ -64,6 +67,10 @@ public class RefundServiceImpl implements RefundService {
         
         Payment savedRefund = paymentRepository.save(refund);
         
+        // Ledger entry for the refund, which also updates the patient balance
+        ledgerService.record(patient.getId(), invoice, savedRefund,
+            LedgerEntryType.REFUND, request.amount(), refund.getDescription());
+        
         // Update invoice status if applicable
         if (invoice != null) {
             updateInvoiceStatusAfterRefund(invoice);
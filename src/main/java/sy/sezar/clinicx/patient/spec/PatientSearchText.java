@@ -0,0 +1,74 @@
+package sy.sezar.clinicx.patient.spec;
+
+import sy.sezar.clinicx.patient.model.Patient;
+
+import java.util.Locale;
+import java.util.Objects;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Normalized search text of a patient and of the terms matched against it.
+ * The text holds the searched fields in lower case, the phone number reduced to its digits and the
+ * date of birth as YYYY-MM-DD, separated by spaces. The backfill of the search_text column in the
+ * migrations follows the same rule.
+ */
+public final class PatientSearchText {
+
+    /** Shortest term for which a substring match can use the trigram index. */
+    public static final int MIN_SUBSTRING_LENGTH = 3;
+
+    private static final Pattern NON_DIGITS = Pattern.compile("[^0-9]");
+    private static final Pattern PHONE_LIKE = Pattern.compile("[0-9+()\\s.-]+");
+
+    private PatientSearchText() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * Builds the search text of a patient from its searched fields.
+     */
+    public static String of(Patient patient) {
+        String phoneDigits = patient.getPhoneNumber() != null
+            ? NON_DIGITS.matcher(patient.getPhoneNumber()).replaceAll("")
+            : null;
+        return Stream.of(
+                patient.getFullName(),
+                patient.getPublicFacingId(),
+                phoneDigits,
+                patient.getEmail(),
+                patient.getInsuranceNumber(),
+                patient.getDateOfBirth() != null ? patient.getDateOfBirth().toString() : null)
+            .filter(Objects::nonNull)
+            .filter(field -> !field.isEmpty())
+            .map(field -> field.toLowerCase(Locale.ROOT))
+            .collect(Collectors.joining(" "));
+    }
+
+    /**
+     * Normalizes a typed search term: trimmed and in lower case.
+     */
+    public static String normalize(String term) {
+        return term.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Returns the digits of a term that looks like a phone number written with separators, as phone
+     * numbers are stored as digits only; null when the term is matched as typed.
+     */
+    public static String phoneDigits(String normalizedTerm) {
+        if (!PHONE_LIKE.matcher(normalizedTerm).matches()) {
+            return null;
+        }
+        String digits = NON_DIGITS.matcher(normalizedTerm).replaceAll("");
+        return digits.length() >= MIN_SUBSTRING_LENGTH && !digits.equals(normalizedTerm) ? digits : null;
+    }
+
+    /**
+     * Escapes the LIKE wildcards of a term, with the backslash as escape character.
+     */
+    public static String escapeLike(String term) {
+        return term.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
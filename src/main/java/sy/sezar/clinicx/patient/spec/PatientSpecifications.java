@@ -1,8 +1,11 @@
 package sy.sezar.clinicx.patient.spec;
 
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
 import jakarta.persistence.criteria.Join;
 import jakarta.persistence.criteria.JoinType;
 import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.util.StringUtils;
 import sy.sezar.clinicx.patient.dto.PatientSearchCriteria;
@@ -26,7 +29,9 @@ public final class PatientSpecifications {
 
     /**
      * Creates a specification to find patients by a general search term.
-     * The term is matched against full name, public facing ID, and insurance number.
+     * The term is matched against the patient's search text, which holds the full name, public
+     * facing ID, phone number, email, insurance number and date of birth, so that the match can use
+     * the trigram index of the search text instead of scanning every column of every patient.
      *
      * @param searchTerm The term to search for. Can be null or empty.
      * @return A Specification for Patients, or null if the search term is blank.
@@ -36,16 +41,7 @@ public final class PatientSpecifications {
             if (!StringUtils.hasText(searchTerm)) {
                 return criteriaBuilder.conjunction(); // or null, depending on desired behavior for empty search
             }
-
-            String likePattern = "%" + searchTerm.toLowerCase() + "%";
-
-            List<Predicate> predicates = new ArrayList<>();
-            predicates.add(criteriaBuilder.like(criteriaBuilder.lower(root.get("fullName")), likePattern));
-            predicates.add(criteriaBuilder.like(criteriaBuilder.lower(root.get("publicFacingId")), likePattern));
-            predicates.add(criteriaBuilder.like(criteriaBuilder.lower(root.get("insuranceNumber")), likePattern));
-            predicates.add(criteriaBuilder.like(criteriaBuilder.function("TO_CHAR", String.class, root.get("dateOfBirth"), criteriaBuilder.literal("YYYY-MM-DD")), likePattern));
-
-            return criteriaBuilder.or(predicates.toArray(new Predicate[0]));
+            return matchesSearchText(root, criteriaBuilder, searchTerm);
         };
     }
 
@@ -61,14 +57,7 @@ public final class PatientSpecifications {
 
             // General search term
             if (StringUtils.hasText(criteria.searchTerm())) {
-                String likePattern = "%" + criteria.searchTerm().toLowerCase() + "%";
-                List<Predicate> searchPredicates = new ArrayList<>();
-                searchPredicates.add(criteriaBuilder.like(criteriaBuilder.lower(root.get("fullName")), likePattern));
-                searchPredicates.add(criteriaBuilder.like(criteriaBuilder.lower(root.get("publicFacingId")), likePattern));
-                searchPredicates.add(criteriaBuilder.like(criteriaBuilder.lower(root.get("phoneNumber")), likePattern));
-                searchPredicates.add(criteriaBuilder.like(criteriaBuilder.lower(root.get("email")), likePattern));
-                searchPredicates.add(criteriaBuilder.like(criteriaBuilder.lower(root.get("insuranceNumber")), likePattern));
-                predicates.add(criteriaBuilder.or(searchPredicates.toArray(new Predicate[0])));
+                predicates.add(matchesSearchText(root, criteriaBuilder, criteria.searchTerm()));
             }
 
             // Name filter
@@ -241,5 +230,19 @@ public final class PatientSpecifications {
             return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
         };
     }
-}
 
+    /**
+     * Matches the term as a substring of the search text. A phone number typed with separators is
+     * also matched by its digits, as phone numbers are stored as digits only.
+     */
+    private static Predicate matchesSearchText(Root<Patient> root, CriteriaBuilder criteriaBuilder, String searchTerm) {
+        String term = PatientSearchText.normalize(searchTerm);
+        Expression<String> searchText = root.get("searchText");
+        Predicate matches = criteriaBuilder.like(searchText, "%" + PatientSearchText.escapeLike(term) + "%", '\\');
+        String digits = PatientSearchText.phoneDigits(term);
+        if (digits == null) {
+            return matches;
+        }
+        return criteriaBuilder.or(matches, criteriaBuilder.like(searchText, "%" + digits + "%", '\\'));
+    }
+}
@@ -12,7 +12,7 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
 import sy.sezar.clinicx.tenant.model.Tenant;
-import sy.sezar.clinicx.tenant.repository.TenantRepository;
+import sy.sezar.clinicx.tenant.service.TenantRegistry;
 
 import java.util.Optional;
 
@@ -29,7 +29,7 @@ import java.util.Optional;
 public class KeycloakTenantResolver implements TenantResolver {
 
     @Autowired
-    private TenantRepository tenantRepository;
+    private TenantRegistry tenantRegistry;
 
     @Value("${app.tenant.mode:single}")
     private String tenantMode;
@@ -64,8 +64,8 @@ public class KeycloakTenantResolver implements TenantResolver {
             String subdomain = extractSubdomain(host);
 
             if (subdomain != null && !subdomain.isEmpty()) {
-                Optional<Tenant> tenant = tenantRepository.findBySubdomain(subdomain);
-                if (tenant.isPresent() && tenant.get().isActive()) {
+                Optional<Tenant> tenant = tenantRegistry.findActiveBySubdomain(subdomain);
+                if (tenant.isPresent()) {
                     return tenant.get().getTenantId();
                 }
             }
@@ -96,8 +96,8 @@ public class KeycloakTenantResolver implements TenantResolver {
                 String realmName = issuer.substring(issuer.lastIndexOf("/realms/") + 8);
                 if (realmName.startsWith("clinic-") && !realmName.equals("clinicx-dev")) {
                     String subdomain = realmName.substring(7); // Remove "clinic-" prefix
-                    Optional<Tenant> tenant = tenantRepository.findBySubdomain(subdomain);
-                    if (tenant.isPresent() && tenant.get().isActive()) {
+                    Optional<Tenant> tenant = tenantRegistry.findActiveBySubdomain(subdomain);
+                    if (tenant.isPresent()) {
                         log.debug("Resolved tenant from realm name: {}", tenant.get().getTenantId());
                         return tenant.get().getTenantId();
                     }
@@ -153,8 +153,7 @@ public class KeycloakTenantResolver implements TenantResolver {
     }
 
     private String validateAndReturnTenant(String tenantId) {
-        Optional<Tenant> tenant = tenantRepository.findByTenantId(tenantId);
-        if (tenant.isPresent() && tenant.get().isActive()) {
+        if (tenantRegistry.isActive(tenantId)) {
             return tenantId;
         }
         return defaultTenantId;
@@ -1,31 +1,46 @@
 package sy.sezar.clinicx.tenant;
 
+import java.util.concurrent.Callable;
+
 /**
- * Thread-local storage for the current tenant context.
+ * Storage for the current tenant context.
  * This will be used for multi-tenant data isolation.
+ * <p>
+ * The tenant is bound per thread, which also works on virtual threads since each request gets
+ * its own thread. Work handed to other threads does not see the tenant unless it is wrapped with
+ * {@link #wrap(Runnable)} or submitted to an executor decorated with
+ * {@link TenantContextTaskDecorator}. Prefer {@link #runWithTenant(String, Runnable)} over
+ * {@link #setCurrentTenant(String)}: it restores the previous tenant when the work finishes, so a
+ * pooled thread never carries a tenant into the next task.
  */
 public class TenantContext {
-    
+
     private static final ThreadLocal<String> currentTenant = new ThreadLocal<>();
-    
+
     /**
      * Set the current tenant ID for this thread.
-     * 
+     * The tenant stays bound until {@link #clear()} is called or the enclosing
+     * {@link #runWithTenant(String, Runnable)} scope ends.
+     *
      * @param tenantId the tenant identifier
      */
     public static void setCurrentTenant(String tenantId) {
-        currentTenant.set(tenantId);
+        if (tenantId == null) {
+            currentTenant.remove();
+        } else {
+            currentTenant.set(tenantId);
+        }
     }
-    
+
     /**
      * Get the current tenant ID for this thread.
-     * 
+     *
      * @return the tenant identifier, or null if not set
      */
     public static String getCurrentTenant() {
         return currentTenant.get();
     }
-    
+
     /**
      * Clear the tenant context for this thread.
      * Should be called after request processing is complete.
@@ -33,13 +48,69 @@ public class TenantContext {
     public static void clear() {
         currentTenant.remove();
     }
-    
+
     /**
      * Check if a tenant context is set for this thread.
-     * 
+     *
      * @return true if tenant is set, false otherwise
      */
     public static boolean hasTenant() {
         return currentTenant.get() != null;
     }
-}
\ No newline at end of file
+
+    /**
+     * Run a task with the given tenant bound, restoring the previous tenant afterwards.
+     * Tenant changes made by the task are discarded when it returns.
+     *
+     * @param tenantId the tenant identifier, or null to run without a tenant
+     * @param task the task to run
+     */
+    public static void runWithTenant(String tenantId, Runnable task) {
+        String previous = currentTenant.get();
+        setCurrentTenant(tenantId);
+        try {
+            task.run();
+        } finally {
+            setCurrentTenant(previous);
+        }
+    }
+
+    /**
+     * Call a task with the given tenant bound, restoring the previous tenant afterwards.
+     *
+     * @param tenantId the tenant identifier, or null to run without a tenant
+     * @param task the task to call
+     * @return the result of the task
+     */
+    public static <T> T callWithTenant(String tenantId, Callable<T> task) throws Exception {
+        String previous = currentTenant.get();
+        setCurrentTenant(tenantId);
+        try {
+            return task.call();
+        } finally {
+            setCurrentTenant(previous);
+        }
+    }
+
+    /**
+     * Capture the current tenant so that the task runs with it on whichever thread executes it.
+     *
+     * @param task the task to wrap
+     * @return a task that binds the captured tenant while it runs
+     */
+    public static Runnable wrap(Runnable task) {
+        String tenantId = currentTenant.get();
+        return () -> runWithTenant(tenantId, task);
+    }
+
+    /**
+     * Capture the current tenant so that the task runs with it on whichever thread executes it.
+     *
+     * @param task the task to wrap
+     * @return a task that binds the captured tenant while it runs
+     */
+    public static <T> Callable<T> wrap(Callable<T> task) {
+        String tenantId = currentTenant.get();
+        return () -> callWithTenant(tenantId, task);
+    }
+}
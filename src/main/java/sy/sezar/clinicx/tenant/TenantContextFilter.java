@@ -0,0 +1,37 @@
+package sy.sezar.clinicx.tenant;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Outermost filter that scopes the tenant context to the request.
+ * The JWT decoder sets the tenant inside the security filter chain, before any interceptor
+ * runs; when a request ends before reaching an interceptor (rejected, excluded or failed),
+ * nothing else would clear it. This filter starts every request without a tenant and
+ * restores the thread's previous state afterwards.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class TenantContextFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String previous = TenantContext.getCurrentTenant();
+        TenantContext.clear();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            TenantContext.setCurrentTenant(previous);
+        }
+    }
+}
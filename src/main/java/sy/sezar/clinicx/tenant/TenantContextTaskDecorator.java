@@ -0,0 +1,16 @@
+package sy.sezar.clinicx.tenant;
+
+import org.springframework.core.task.TaskDecorator;
+
+/**
+ * Task decorator that carries the tenant of the submitting thread into executor tasks.
+ * The worker thread's own tenant is restored when the task ends, so pooled threads never
+ * leak a tenant from one task to the next.
+ */
+public class TenantContextTaskDecorator implements TaskDecorator {
+
+    @Override
+    public Runnable decorate(Runnable runnable) {
+        return TenantContext.wrap(runnable);
+    }
+}
@@ -0,0 +1,30 @@
+package sy.sezar.clinicx.tenant.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration for the local cache of Keycloak user representations.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "app.keycloak.user-cache")
+public class KeycloakUserCacheConfig {
+
+    /**
+     * Whether user lookups are served from the local cache.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Time in seconds after which a cached user is reloaded from Keycloak.
+     * Bounds staleness for changes made outside this application.
+     */
+    private long ttlSeconds = 60;
+
+    /**
+     * Maximum number of cached users per index (by ID and by username).
+     */
+    private long maxSize = 10_000;
+}
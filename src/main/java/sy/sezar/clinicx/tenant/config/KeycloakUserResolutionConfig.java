@@ -0,0 +1,25 @@
+package sy.sezar.clinicx.tenant.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration for batched Keycloak user resolution.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "app.keycloak.user-resolution")
+public class KeycloakUserResolutionConfig {
+
+    /**
+     * Maximum number of concurrent Keycloak lookups across all requests.
+     */
+    private int parallelism = 8;
+
+    /**
+     * Upper bound in seconds for resolving one batch of users.
+     * Users not resolved within this time are left out of the result.
+     */
+    private long timeoutSeconds = 10;
+}
@@ -0,0 +1,77 @@
+package sy.sezar.clinicx.tenant.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration for the asynchronous tenant access audit pipeline.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "app.tenant.audit")
+public class TenantAuditConfig {
+
+    /**
+     * Whether access audit entries are persisted to the tenant_access_audit table.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Capacity of the in-memory buffer between request threads and the writer.
+     */
+    private int bufferSize = 10_000;
+
+    /**
+     * Maximum number of entries inserted in one batch.
+     */
+    private int batchSize = 500;
+
+    /**
+     * Maximum time in milliseconds an entry waits in the buffer before it is written.
+     */
+    private long flushIntervalMs = 1_000;
+
+    /**
+     * What request threads do when the buffer is full.
+     */
+    private OverflowPolicy overflowPolicy = OverflowPolicy.DROP;
+
+    /**
+     * How granted accesses are recorded. Denied accesses are always recorded individually.
+     */
+    private GrantedMode grantedMode = GrantedMode.AGGREGATE;
+
+    /**
+     * Length in seconds of an aggregation window for granted accesses.
+     */
+    private long aggregationIntervalSeconds = 60;
+
+    /**
+     * Number of leading path segments kept when grouping granted accesses by resource,
+     * e.g. 3 groups /api/v1/patients/42/visits under /api/v1/patients.
+     */
+    private int resourcePrefixSegments = 3;
+
+    public enum OverflowPolicy {
+        /**
+         * Discard the entry and count it in the tenant.audit.dropped metric.
+         */
+        DROP,
+        /**
+         * Wait until the writer makes room.
+         */
+        BLOCK
+    }
+
+    public enum GrantedMode {
+        /**
+         * One audit row per granted request.
+         */
+        INDIVIDUAL,
+        /**
+         * One audit row per user, tenant and resource prefix per aggregation window.
+         */
+        AGGREGATE
+    }
+}
@@ -0,0 +1,38 @@
+package sy.sezar.clinicx.tenant.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration for the in-memory tenant registry used on the request path.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "app.tenant.registry")
+public class TenantRegistryConfig {
+
+    /**
+     * Whether tenant lookups on the request path are served from memory.
+     * When false every lookup goes to the database.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Interval in milliseconds between full reloads from the database.
+     * Picks up tenants changed by other application instances.
+     */
+    private long reloadIntervalMs = 300_000;
+
+    /**
+     * Interval in milliseconds between checks whether any tenant changed on another instance.
+     * A change found reloads the snapshot, so a tenant deactivated elsewhere stops
+     * authenticating here within this interval instead of the full reload interval.
+     */
+    private long changeCheckIntervalMs = 10_000;
+
+    /**
+     * Time in milliseconds a lookup miss is remembered before the database is asked again.
+     */
+    private long missTtlMs = 30_000;
+}
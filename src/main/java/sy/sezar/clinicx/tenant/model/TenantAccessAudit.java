@@ -0,0 +1,60 @@
+package sy.sezar.clinicx.tenant.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.Immutable;
+import sy.sezar.clinicx.tenant.event.TenantAccessEvent;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A granted or denied access of a user to a tenant.
+ * Rows are written in batches by the audit writer and never updated. In aggregation mode a
+ * row stands for all granted accesses to a resource prefix within [windowStart, occurredAt).
+ */
+@Entity
+@Immutable
+@Table(name = "tenant_access_audit", indexes = {
+    @Index(name = "idx_tenant_access_audit_tenant_occurred", columnList = "tenant_id, occurred_at"),
+    @Index(name = "idx_tenant_access_audit_user_occurred", columnList = "user_id, occurred_at")
+})
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+public class TenantAccessAudit {
+
+    @Id
+    @Column(name = "id", updatable = false, nullable = false)
+    private UUID id;
+
+    @Column(name = "user_id", length = 255)
+    private String userId;
+
+    @Column(name = "username", length = 255)
+    private String username;
+
+    @Column(name = "tenant_id", nullable = false, length = 100)
+    private String tenantId;
+
+    @Column(name = "resource", length = 1000)
+    private String resource;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "access_type", nullable = false, length = 20)
+    private TenantAccessEvent.AccessType accessType;
+
+    @Column(name = "reason", length = 500)
+    private String reason;
+
+    @Column(name = "occurred_at", nullable = false)
+    private Instant occurredAt;
+
+    @Column(name = "window_start")
+    private Instant windowStart;
+
+    @Builder.Default
+    @Column(name = "access_count", nullable = false)
+    private long accessCount = 1;
+}
@@ -0,0 +1,13 @@
+package sy.sezar.clinicx.tenant.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.stereotype.Repository;
+import sy.sezar.clinicx.tenant.model.TenantAccessAudit;
+
+import java.util.UUID;
+
+@Repository
+public interface TenantAccessAuditRepository extends JpaRepository<TenantAccessAudit, UUID>,
+                                                     JpaSpecificationExecutor<TenantAccessAudit> {
+}
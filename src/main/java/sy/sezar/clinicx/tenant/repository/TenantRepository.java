@@ -8,6 +8,7 @@ import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import sy.sezar.clinicx.tenant.model.Tenant;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -40,6 +41,21 @@ public interface TenantRepository extends JpaRepository<Tenant, UUID>, JpaSpecif
      */
     Optional<Tenant> findByRealmName(String realmName);
     
+    /**
+     * Finds all active tenants.
+     *
+     * @return The list of active tenants.
+     */
+    List<Tenant> findByIsActiveTrue();
+    
+    /**
+     * Finds the active tenants hosted in a Keycloak realm.
+     *
+     * @param realmName The Keycloak realm name.
+     * @return The list of active tenants in the realm.
+     */
+    List<Tenant> findByRealmNameAndIsActiveTrue(String realmName);
+    
     /**
      * Checks if a tenant exists with the given tenant ID.
      *
@@ -89,4 +105,18 @@ public interface TenantRepository extends JpaRepository<Tenant, UUID>, JpaSpecif
      * @return The count of tenants using this realm.
      */
     long countByRealmName(String realmName);
+
+    /**
+     * Gets the number of tenants and when any of them last changed, which moves whenever a
+     * tenant is created, updated or deleted.
+     *
+     * @return The tenant count and the latest update timestamp.
+     */
+    @Query("SELECT COUNT(t) AS tenantCount, MAX(t.updatedAt) AS lastUpdatedAt FROM Tenant t")
+    TenantChangeMarker findChangeMarker();
+
+    interface TenantChangeMarker {
+        long getTenantCount();
+        java.time.Instant getLastUpdatedAt();
+    }
 }
\ No newline at end of file
@@ -43,6 +43,8 @@ public interface UserTenantAccessRepository extends JpaRepository<UserTenantAcce
 
     boolean existsByUserIdAndTenantIdAndIsActiveTrue(String userId, String tenantId);
 
+    boolean existsByUserIdAndTenantId(String userId, String tenantId);
+
     long countByUserIdAndIsActiveTrue(String userId);
 
     Optional<UserTenantAccess> findByUserIdAndIsPrimaryTrueAndIsActiveTrue(String userId);
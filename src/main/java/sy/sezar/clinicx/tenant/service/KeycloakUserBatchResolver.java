@@ -0,0 +1,24 @@
+package sy.sezar.clinicx.tenant.service;
+
+import org.keycloak.representations.idm.UserRepresentation;
+import sy.sezar.clinicx.clinic.model.Staff;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Resolves the Keycloak users behind a batch of Staff records.
+ * Lookups are grouped by source realm and executed concurrently under a bounded parallelism limit.
+ */
+public interface KeycloakUserBatchResolver {
+
+    /**
+     * Resolves the Keycloak users for the given staff members.
+     * Staff without a source realm are looked up in the default realm first, then in all realms.
+     *
+     * @param staff the staff members to resolve
+     * @param defaultRealm the realm used for staff without a source realm
+     * @return users keyed by Keycloak user ID; users that could not be resolved are absent
+     */
+    Map<String, UserRepresentation> resolveUsers(Collection<Staff> staff, String defaultRealm);
+}
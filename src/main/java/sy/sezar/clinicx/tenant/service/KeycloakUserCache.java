@@ -0,0 +1,41 @@
+package sy.sezar.clinicx.tenant.service;
+
+import org.keycloak.representations.idm.UserRepresentation;
+
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache of Keycloak user representations, indexed by realm and user ID
+ * and by realm and username.
+ * Callers always receive their own copy, so mutating a returned user never changes the cache.
+ * Every operation that modifies a user in Keycloak must invalidate it.
+ */
+public interface KeycloakUserCache {
+
+    /**
+     * Returns the user with the given ID, invoking the loader on a miss.
+     * A null result from the loader is not cached.
+     */
+    UserRepresentation getById(String realmName, String userId, Supplier<UserRepresentation> loader);
+
+    /**
+     * Returns the user found for the given username, invoking the loader on a miss.
+     * A null result from the loader is not cached.
+     */
+    UserRepresentation getByUsername(String realmName, String username, Supplier<UserRepresentation> loader);
+
+    /**
+     * Removes a user from both indexes.
+     */
+    void invalidate(String realmName, String userId);
+
+    /**
+     * Removes all cached users of a realm.
+     */
+    void invalidateRealm(String realmName);
+
+    /**
+     * Removes all cached users.
+     */
+    void invalidateAll();
+}
@@ -1,5 +1,7 @@
 package sy.sezar.clinicx.tenant.service;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import sy.sezar.clinicx.clinic.model.Staff;
 import sy.sezar.clinicx.clinic.model.enums.StaffRole;
 
@@ -18,6 +20,12 @@ public interface StaffManagementService {
      */
     List<Staff> findByTenantId(String tenantId);
     
+    /**
+     * Finds one page of staff members for a given tenant, paged in the database.
+     * When includeExternal is false only primary members of the tenant are returned.
+     */
+    Page<Staff> findByTenantId(String tenantId, boolean includeExternal, Pageable pageable);
+    
     /**
      * Finds a staff member by Keycloak user ID and tenant ID.
      */
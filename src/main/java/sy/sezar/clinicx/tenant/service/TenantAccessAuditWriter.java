@@ -0,0 +1,29 @@
+package sy.sezar.clinicx.tenant.service;
+
+import sy.sezar.clinicx.tenant.model.TenantAccessAudit;
+
+/**
+ * Buffers tenant access audit entries in memory and writes them to the database in batches
+ * on a background thread, keeping audit inserts off the request path.
+ */
+public interface TenantAccessAuditWriter {
+
+    /**
+     * Queue an entry for writing.
+     * Depending on the overflow policy a full buffer either drops the entry or blocks the caller.
+     *
+     * @param entry the audit entry
+     * @return true if the entry was queued, false if it was dropped
+     */
+    boolean submit(TenantAccessAudit entry);
+
+    /**
+     * Write all queued entries on the calling thread.
+     */
+    void flush();
+
+    /**
+     * Number of entries dropped because the buffer was full.
+     */
+    long getDroppedCount();
+}
@@ -45,4 +45,18 @@ public interface TenantAccessValidator {
      * @return the user's role, or null if no access
      */
     String getUserRoleInTenant(String tenantId);
-}
\ No newline at end of file
+
+    /**
+     * Evict cached access decisions and roles of a user in a tenant.
+     * Must be called whenever access is revoked or roles change.
+     *
+     * @param userId the user ID
+     * @param tenantId the tenant ID
+     */
+    void evictAccessCache(String userId, String tenantId);
+
+    /**
+     * Evict all cached access decisions and roles.
+     */
+    void evictAllAccessCaches();
+}
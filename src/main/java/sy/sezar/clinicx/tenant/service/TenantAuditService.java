@@ -1,5 +1,11 @@
 package sy.sezar.clinicx.tenant.service;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import sy.sezar.clinicx.tenant.model.TenantAccessAudit;
+
+import java.time.Instant;
+
 /**
  * Service for auditing tenant access attempts and operations.
  */
@@ -69,4 +75,18 @@ public interface TenantAuditService {
      * @param tenantId the tenant ID
      */
     void auditUserRemovedFromTenant(String adminUsername, String userId, String tenantId);
-}
\ No newline at end of file
+
+    /**
+     * Find persisted access audit entries.
+     * Entries become visible once the background writer has flushed them.
+     *
+     * @param userId the Keycloak user ID, or null for all users
+     * @param tenantId the tenant ID, or null for all tenants
+     * @param from inclusive start of the time range, or null
+     * @param to exclusive end of the time range, or null
+     * @param pageable paging information; newest entries first when unsorted
+     * @return page of audit entries
+     */
+    Page<TenantAccessAudit> findAccessAudits(String userId, String tenantId, Instant from, Instant to,
+                                             Pageable pageable);
+}
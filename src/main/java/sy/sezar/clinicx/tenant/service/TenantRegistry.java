@@ -0,0 +1,67 @@
+package sy.sezar.clinicx.tenant.service;
+
+import sy.sezar.clinicx.tenant.model.Tenant;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * In-memory registry of active tenants, indexed by tenant ID, subdomain and realm name.
+ * Serves the per-request authentication path without database round-trips.
+ * Returned tenants are shared, detached instances and must be treated as read-only.
+ */
+public interface TenantRegistry {
+
+    /**
+     * Finds an active tenant by its tenant ID.
+     *
+     * @param tenantId the tenant ID
+     * @return the tenant, or empty if it does not exist or is inactive
+     */
+    Optional<Tenant> findActiveByTenantId(String tenantId);
+
+    /**
+     * Finds an active tenant by its subdomain.
+     *
+     * @param subdomain the subdomain
+     * @return the tenant, or empty if it does not exist or is inactive
+     */
+    Optional<Tenant> findActiveBySubdomain(String subdomain);
+
+    /**
+     * Finds the active tenants hosted in a Keycloak realm.
+     * Several tenants share a realm in the realm-per-type architecture.
+     *
+     * @param realmName the realm name
+     * @return the active tenants of the realm
+     */
+    List<Tenant> findActiveByRealmName(String realmName);
+
+    /**
+     * Gets the realm names of all active tenants.
+     *
+     * @return distinct realm names
+     */
+    List<String> getActiveRealmNames();
+
+    /**
+     * Checks whether a tenant exists and is active.
+     *
+     * @param tenantId the tenant ID
+     * @return true if the tenant is active
+     */
+    boolean isActive(String tenantId);
+
+    /**
+     * Reloads a single tenant from the database.
+     * Inside a transaction the reload is deferred until after commit.
+     *
+     * @param tenantId the tenant ID
+     */
+    void refresh(String tenantId);
+
+    /**
+     * Reloads all tenants from the database.
+     */
+    void reload();
+}
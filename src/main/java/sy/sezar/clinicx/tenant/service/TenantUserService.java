@@ -15,6 +15,8 @@ public interface TenantUserService {
     
     /**
      * Get all users in a tenant.
+     * Staff whose Keycloak user cannot be resolved are still listed, as disabled users with the
+     * name and email of their staff record, so each page holds as many users as the total counts.
      * 
      * @param tenantId the tenant ID
      * @param includeExternal whether to include external users
@@ -21,6 +21,7 @@ import sy.sezar.clinicx.clinic.model.enums.StaffRole;
 import sy.sezar.clinicx.clinic.repository.StaffRepository;
 import sy.sezar.clinicx.tenant.service.DynamicRealmService;
 import sy.sezar.clinicx.tenant.service.KeycloakAdminService;
+import sy.sezar.clinicx.tenant.service.TenantRegistry;
 import sy.sezar.clinicx.tenant.service.TenantService;
 import sy.sezar.clinicx.tenant.service.UserTenantAccessService;
 
@@ -41,6 +42,7 @@ public class EnhancedTenantServiceImpl implements TenantService {
     private final TenantRepository tenantRepository;
     private final TenantMapper tenantMapper;
     private final KeycloakAdminService keycloakAdminService;
+    private final TenantRegistry tenantRegistry;
 
     @Autowired
     private DynamicRealmService dynamicRealmService;
@@ -152,6 +154,7 @@ public class EnhancedTenantServiceImpl implements TenantService {
             tenant.setSubscriptionEndDate(Instant.now().plusSeconds(365 * 24 * 60 * 60));
 
             tenant = tenantRepository.save(tenant);
+            tenantRegistry.refresh(tenant.getTenantId());
 
             // Create staff record for the admin user
             if (realmPerTypeEnabled) {
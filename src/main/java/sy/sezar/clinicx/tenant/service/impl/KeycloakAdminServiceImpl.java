@@ -8,6 +8,7 @@ import org.keycloak.admin.client.resource.RealmResource;
 import org.keycloak.admin.client.resource.RolesResource;
 import org.keycloak.admin.client.resource.UserResource;
 import org.keycloak.admin.client.resource.UsersResource;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.keycloak.representations.idm.*;
 import org.springframework.beans.factory.annotation.Value;
@@ -17,6 +18,7 @@ import org.springframework.web.client.RestTemplate;
 import sy.sezar.clinicx.core.exception.BusinessRuleException;
 import sy.sezar.clinicx.core.exception.NotFoundException;
 import sy.sezar.clinicx.tenant.service.KeycloakAdminService;
+import sy.sezar.clinicx.tenant.service.KeycloakUserCache;
 import sy.sezar.clinicx.clinic.model.enums.StaffRole;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.core.io.ClassPathResource;
@@ -27,8 +29,11 @@ import java.util.stream.Collectors;
 
 @Service
 @Slf4j
+@RequiredArgsConstructor
 public class KeycloakAdminServiceImpl implements KeycloakAdminService {
 
+    private final KeycloakUserCache userCache;
+
     @Value("${keycloak.auth-server-url}")
     private String keycloakServerUrl;
 
@@ -568,6 +573,7 @@ public class KeycloakAdminServiceImpl implements KeycloakAdminService {
     public void deleteRealm(String realmName) {
         try {
             getKeycloakInstance().realm(realmName).remove();
+            userCache.invalidateRealm(realmName);
         } catch (jakarta.ws.rs.NotFoundException e) {
             throw new BusinessRuleException("Realm not found: " + realmName);
         }
@@ -896,6 +902,7 @@ public class KeycloakAdminServiceImpl implements KeycloakAdminService {
                 user.setAttributes(existingAttributes);
 
                 realmResource.users().get(user.getId()).update(user);
+                userCache.invalidate(realmName, user.getId());
                 log.info("Updated attributes for user {} in realm {}", username, realmName);
             } else {
                 throw new BusinessRuleException("User not found: " + username);
@@ -908,6 +915,10 @@ public class KeycloakAdminServiceImpl implements KeycloakAdminService {
 
     @Override
     public UserRepresentation getUserByUsername(String realmName, String username) {
+        return userCache.getByUsername(realmName, username, () -> loadUserByUsername(realmName, username));
+    }
+
+    private UserRepresentation loadUserByUsername(String realmName, String username) {
         try {
             RealmResource realmResource = getKeycloakInstance().realm(realmName);
             List<UserRepresentation> users = realmResource.users().search(username);
@@ -925,6 +936,10 @@ public class KeycloakAdminServiceImpl implements KeycloakAdminService {
 
     @Override
     public UserRepresentation getUserByUserId(String realmName, String userId) {
+        return userCache.getById(realmName, userId, () -> loadUserByUserId(realmName, userId));
+    }
+
+    private UserRepresentation loadUserByUserId(String realmName, String userId) {
         try {
             RealmResource realmResource = getKeycloakInstance().realm(realmName);
             UserRepresentation user = realmResource.users().get(userId).toRepresentation();
@@ -1082,6 +1097,7 @@ public class KeycloakAdminServiceImpl implements KeycloakAdminService {
             // Update user
             user.setAttributes(attributes);
             getKeycloakInstance().realm(realmName).users().get(user.getId()).update(user);
+            userCache.invalidate(realmName, user.getId());
 
             log.info("Granted access to tenant {} for user {} in realm {}", newTenantId, user.getUsername(),
                 realmName);
@@ -1126,6 +1142,7 @@ public class KeycloakAdminServiceImpl implements KeycloakAdminService {
             // Update user
             user.setAttributes(attributes);
             getKeycloakInstance().realm(realmName).users().get(user.getId()).update(user);
+            userCache.invalidate(realmName, user.getId());
 
             log.info("Revoked access to tenant {} for userId {} in realm {}", tenantId, userId, realmName);
 
@@ -1159,6 +1176,7 @@ public class KeycloakAdminServiceImpl implements KeycloakAdminService {
             attributes.put("active_tenant_id", Arrays.asList(newActiveTenantId));
             user.setAttributes(attributes);
             getKeycloakInstance().realm(realmName).users().get(user.getId()).update(user);
+            userCache.invalidate(realmName, user.getId());
 
             log.info("Updated active tenant to {} for user {} in realm {}", newActiveTenantId, username, realmName);
 
@@ -1275,6 +1293,7 @@ public class KeycloakAdminServiceImpl implements KeycloakAdminService {
                 }
             }
 
+            userCache.invalidateRealm(realmName);
             log.info("Deleted {} users from realm '{}'", deletedCount, realmName);
         } catch (Exception e) {
             log.error("Failed to delete all users from realm '{}'", realmName, e);
@@ -1310,6 +1329,7 @@ public class KeycloakAdminServiceImpl implements KeycloakAdminService {
         try {
             RealmResource realmResource = getKeycloakInstance().realm(realmName);
             realmResource.users().delete(userId);
+            userCache.invalidate(realmName, userId);
             log.info("Successfully deleted user '{}' from realm '{}'", userId, realmName);
         } catch (Exception e) {
             log.error("Failed to delete user '{}' from realm '{}'", userId, realmName, e);
@@ -1327,6 +1347,7 @@ public class KeycloakAdminServiceImpl implements KeycloakAdminService {
             // Set enabled to false
             user.setEnabled(false);
             userResource.update(user);
+            userCache.invalidate(realmName, userId);
 
             log.info("Successfully disabled user '{}' in realm '{}'", user.getUsername(), realmName);
         } catch (Exception e) {
@@ -1345,6 +1366,7 @@ public class KeycloakAdminServiceImpl implements KeycloakAdminService {
             // Set enabled to true
             user.setEnabled(true);
             userResource.update(user);
+            userCache.invalidate(realmName, userId);
 
             log.info("Successfully enabled user '{}' in realm '{}'", user.getUsername(), realmName);
         } catch (Exception e) {
@@ -0,0 +1,128 @@
+package sy.sezar.clinicx.tenant.service.impl;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.keycloak.representations.idm.UserRepresentation;
+import org.springframework.stereotype.Service;
+import sy.sezar.clinicx.clinic.model.Staff;
+import sy.sezar.clinicx.tenant.config.KeycloakUserResolutionConfig;
+import sy.sezar.clinicx.tenant.constants.TenantConstants;
+import sy.sezar.clinicx.tenant.service.KeycloakUserBatchResolver;
+import sy.sezar.clinicx.tenant.service.KeycloakUserService;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Implementation of KeycloakUserBatchResolver.
+ * Uses a fixed-size pool so the number of in-flight Keycloak calls stays bounded
+ * no matter how many user-management requests run at the same time.
+ */
+@Slf4j
+@Service
+public class KeycloakUserBatchResolverImpl implements KeycloakUserBatchResolver {
+
+    private final KeycloakUserService keycloakUserService;
+    private final long timeoutSeconds;
+    private final ExecutorService executor;
+
+    public KeycloakUserBatchResolverImpl(KeycloakUserService keycloakUserService,
+                                         KeycloakUserResolutionConfig config) {
+        this.keycloakUserService = keycloakUserService;
+        this.timeoutSeconds = config.getTimeoutSeconds();
+        this.executor = Executors.newFixedThreadPool(
+            Math.max(1, config.getParallelism()),
+            Thread.ofPlatform().name("keycloak-user-resolver-", 0).daemon(true).factory());
+    }
+
+    @Override
+    public Map<String, UserRepresentation> resolveUsers(Collection<Staff> staff, String defaultRealm) {
+        Map<RealmGroup, List<String>> userIdsByRealm = groupByRealm(staff, defaultRealm);
+        if (userIdsByRealm.isEmpty()) {
+            return Map.of();
+        }
+
+        List<Callable<UserRepresentation>> lookups = new ArrayList<>();
+        userIdsByRealm.forEach((group, userIds) -> {
+            log.debug("Resolving {} users from realm {}", userIds.size(), group.realm());
+            for (String userId : userIds) {
+                lookups.add(() -> lookup(group.realm(), userId, group.searchAllRealmsOnMiss()));
+            }
+        });
+
+        Map<String, UserRepresentation> users = new HashMap<>();
+        try {
+            for (Future<UserRepresentation> future : executor.invokeAll(lookups, timeoutSeconds, TimeUnit.SECONDS)) {
+                UserRepresentation user = resultOf(future);
+                if (user != null) {
+                    users.put(user.getId(), user);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Interrupted while resolving {} Keycloak users", lookups.size());
+        }
+        return users;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private Map<RealmGroup, List<String>> groupByRealm(Collection<Staff> staff, String defaultRealm) {
+        Map<RealmGroup, List<String>> userIdsByRealm = new LinkedHashMap<>();
+        Set<String> seen = new HashSet<>();
+        for (Staff member : staff) {
+            String userId = member.getKeycloakUserId();
+            if (userId == null || !seen.add(userId)) {
+                continue;
+            }
+            // Staff with a known source realm live there; others may have been moved,
+            // so a miss in the default realm falls back to searching all realms
+            RealmGroup group = member.getSourceRealm() != null && !member.getSourceRealm().isEmpty()
+                ? new RealmGroup(member.getSourceRealm(), false)
+                : new RealmGroup(defaultRealm, true);
+            userIdsByRealm.computeIfAbsent(group, g -> new ArrayList<>()).add(userId);
+        }
+        return userIdsByRealm;
+    }
+
+    private UserRepresentation lookup(String realm, String userId, boolean searchAllRealmsOnMiss) {
+        try {
+            return keycloakUserService.getUser(realm, userId);
+        } catch (Exception e) {
+            if (!searchAllRealmsOnMiss) {
+                log.warn(TenantConstants.LOG_USER_NOT_FOUND_IN_KEYCLOAK + " - {}", userId, e.getMessage());
+                return null;
+            }
+        }
+
+        log.debug("User not in realm {}, searching all realms for user {}", realm, userId);
+        try {
+            return keycloakUserService.getUserFromAnyRealm(userId);
+        } catch (Exception e) {
+            log.warn(TenantConstants.LOG_USER_NOT_FOUND_IN_KEYCLOAK + " - {}", userId, e.getMessage());
+            return null;
+        }
+    }
+
+    private UserRepresentation resultOf(Future<UserRepresentation> future) {
+        if (future.isCancelled()) {
+            log.warn("Keycloak user lookup timed out after {}s", timeoutSeconds);
+            return null;
+        }
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            log.warn("Keycloak user lookup failed: {}", e.getCause().getMessage());
+            return null;
+        }
+    }
+
+    private record RealmGroup(String realm, boolean searchAllRealmsOnMiss) {
+    }
+}
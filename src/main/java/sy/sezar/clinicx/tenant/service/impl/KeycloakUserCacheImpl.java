@@ -0,0 +1,113 @@
+package sy.sezar.clinicx.tenant.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.keycloak.representations.idm.UserRepresentation;
+import org.springframework.stereotype.Service;
+import sy.sezar.clinicx.tenant.config.KeycloakUserCacheConfig;
+import sy.sezar.clinicx.tenant.service.KeycloakUserCache;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.function.Supplier;
+
+/**
+ * Caffeine-backed implementation of KeycloakUserCache.
+ * The username index only stores user IDs, so invalidating a user by ID is enough
+ * to force the next username lookup back to Keycloak.
+ */
+@Slf4j
+@Service
+public class KeycloakUserCacheImpl implements KeycloakUserCache {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final boolean enabled;
+    private final Cache<UserKey, UserRepresentation> usersById;
+    private final Cache<UserKey, String> userIdsByUsername;
+
+    public KeycloakUserCacheImpl(KeycloakUserCacheConfig config, MeterRegistry meterRegistry) {
+        this.enabled = config.isEnabled();
+        this.usersById = Caffeine.newBuilder()
+            .expireAfterWrite(Duration.ofSeconds(config.getTtlSeconds()))
+            .maximumSize(config.getMaxSize())
+            .recordStats()
+            .build();
+        this.userIdsByUsername = Caffeine.newBuilder()
+            .expireAfterWrite(Duration.ofSeconds(config.getTtlSeconds()))
+            .maximumSize(config.getMaxSize())
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, usersById, "keycloakUsersById");
+        CaffeineCacheMetrics.monitor(meterRegistry, userIdsByUsername, "keycloakUsersByUsername");
+    }
+
+    @Override
+    public UserRepresentation getById(String realmName, String userId, Supplier<UserRepresentation> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        UserRepresentation user = usersById.get(new UserKey(realmName, userId), key -> loader.get());
+        return copyOf(user);
+    }
+
+    @Override
+    public UserRepresentation getByUsername(String realmName, String username, Supplier<UserRepresentation> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        UserKey usernameKey = new UserKey(realmName, username.toLowerCase(Locale.ROOT));
+        String userId = userIdsByUsername.getIfPresent(usernameKey);
+        if (userId != null) {
+            UserRepresentation cached = usersById.getIfPresent(new UserKey(realmName, userId));
+            if (cached != null) {
+                return copyOf(cached);
+            }
+        }
+
+        UserRepresentation user = loader.get();
+        if (user != null && user.getId() != null) {
+            usersById.put(new UserKey(realmName, user.getId()), copyOf(user));
+            userIdsByUsername.put(usernameKey, user.getId());
+        }
+        return user;
+    }
+
+    @Override
+    public void invalidate(String realmName, String userId) {
+        if (userId == null) {
+            return;
+        }
+        usersById.invalidate(new UserKey(realmName, userId));
+        userIdsByUsername.asMap().values().removeIf(userId::equals);
+        log.debug("Invalidated cached Keycloak user {} in realm {}", userId, realmName);
+    }
+
+    @Override
+    public void invalidateRealm(String realmName) {
+        usersById.asMap().keySet().removeIf(key -> key.realmName().equals(realmName));
+        userIdsByUsername.asMap().keySet().removeIf(key -> key.realmName().equals(realmName));
+        log.debug("Invalidated cached Keycloak users of realm {}", realmName);
+    }
+
+    @Override
+    public void invalidateAll() {
+        usersById.invalidateAll();
+        userIdsByUsername.invalidateAll();
+    }
+
+    /**
+     * Deep copy so that callers, which routinely mutate attributes before
+     * sending the user back to Keycloak, cannot corrupt the cached entry.
+     */
+    private static UserRepresentation copyOf(UserRepresentation user) {
+        return user == null ? null : MAPPER.convertValue(user, UserRepresentation.class);
+    }
+
+    private record UserKey(String realmName, String value) {
+    }
+}
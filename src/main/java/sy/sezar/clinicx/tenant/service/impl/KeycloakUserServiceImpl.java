@@ -12,6 +12,7 @@ import sy.sezar.clinicx.core.exception.NotFoundException;
 import sy.sezar.clinicx.core.exception.ResourceNotFoundException;
 import sy.sezar.clinicx.tenant.constants.TenantConstants;
 import sy.sezar.clinicx.tenant.service.KeycloakAdminService;
+import sy.sezar.clinicx.tenant.service.KeycloakUserCache;
 import sy.sezar.clinicx.tenant.service.KeycloakUserService;
 
 import java.util.*;
@@ -27,9 +28,14 @@ import java.util.stream.Collectors;
 public class KeycloakUserServiceImpl implements KeycloakUserService {
 
     private final KeycloakAdminService keycloakAdminService;
+    private final KeycloakUserCache userCache;
 
     @Override
     public UserRepresentation getUser(String realmName, String userId) {
+        return userCache.getById(realmName, userId, () -> loadUser(realmName, userId));
+    }
+
+    private UserRepresentation loadUser(String realmName, String userId) {
         try {
              return getRealmResource(realmName)
                 .users()
@@ -48,6 +54,7 @@ public class KeycloakUserServiceImpl implements KeycloakUserService {
                 .users()
                 .get(userId)
                 .update(user);
+            userCache.invalidate(realmName, userId);
         } catch (Exception e) {
             log.error("Failed to update user {} in realm {}", userId, realmName, e);
             throw new BusinessRuleException(String.format(TenantConstants.ERROR_FAILED_TO_UPDATE_USER, e.getMessage()));
@@ -73,6 +80,7 @@ public class KeycloakUserServiceImpl implements KeycloakUserService {
             getRealmResource(realmName)
                 .users()
                 .delete(userId);
+            userCache.invalidate(realmName, userId);
             log.info("Deleted user {} from realm {}", userId, realmName);
         } catch (Exception e) {
             log.error("Failed to delete user {} from realm {}", userId, realmName, e);
@@ -180,6 +188,7 @@ public class KeycloakUserServiceImpl implements KeycloakUserService {
                 .collect(Collectors.toList());
 
             realmResource.users().get(userId).roles().realmLevel().add(rolesToAdd);
+            userCache.invalidate(realmName, userId);
             log.info("Updated realm roles for user {} in realm {}", userId, realmName);
         } catch (Exception e) {
             log.error("Failed to update realm roles for user {} in realm {}", userId, realmName, e);
@@ -2,6 +2,8 @@ package sy.sezar.clinicx.tenant.service.impl;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import sy.sezar.clinicx.clinic.model.Staff;
@@ -34,6 +36,15 @@ public class StaffManagementServiceImpl implements StaffManagementService {
         return staffRepository.findByTenantId(tenantId);
     }
     
+    @Override
+    @Transactional(readOnly = true)
+    public Page<Staff> findByTenantId(String tenantId, boolean includeExternal, Pageable pageable) {
+        if (includeExternal) {
+            return staffRepository.findByTenantId(tenantId, pageable);
+        }
+        return staffRepository.findPrimaryByTenantId(tenantId, pageable);
+    }
+    
     @Override
     @Transactional(readOnly = true)
     public Optional<Staff> findByKeycloakUserIdAndTenantId(String keycloakUserId, String tenantId) {
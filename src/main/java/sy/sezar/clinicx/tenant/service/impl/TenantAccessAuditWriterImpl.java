@@ -0,0 +1,225 @@
+package sy.sezar.clinicx.tenant.service.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import sy.sezar.clinicx.tenant.config.TenantAuditConfig;
+import sy.sezar.clinicx.tenant.model.TenantAccessAudit;
+import sy.sezar.clinicx.tenant.service.TenantAccessAuditWriter;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Implementation of TenantAccessAuditWriter.
+ * Request threads only enqueue into a bounded buffer; a single daemon thread drains it and
+ * inserts each batch with one JDBC batch statement in its own transaction. A batch waits at
+ * most the flush interval, so under load batches fill up and under light load entries are
+ * still written promptly. Text values are cut to their column length before they are queued,
+ * as one value too long for its column would fail the whole batch it is written in.
+ */
+@Slf4j
+@Service
+public class TenantAccessAuditWriterImpl implements TenantAccessAuditWriter {
+
+    private static final String INSERT_SQL = """
+        INSERT INTO tenant_access_audit
+            (id, user_id, username, tenant_id, resource, access_type, reason, occurred_at, window_start, access_count)
+        VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+        """;
+
+    private static final int USER_LENGTH = 255;
+    private static final int RESOURCE_LENGTH = 1000;
+    private static final int REASON_LENGTH = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TenantAuditConfig config;
+    private final BlockingQueue<TenantAccessAudit> buffer;
+    private final Counter writtenCounter;
+    private final Counter droppedCounter;
+    private final Counter failedCounter;
+
+    private volatile boolean running;
+    private Thread writerThread;
+
+    public TenantAccessAuditWriterImpl(JdbcTemplate jdbcTemplate,
+                                       PlatformTransactionManager transactionManager,
+                                       TenantAuditConfig config,
+                                       MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.config = config;
+        this.buffer = new ArrayBlockingQueue<>(Math.max(1, config.getBufferSize()));
+        this.writtenCounter = Counter.builder("tenant.audit.written")
+            .description("Access audit entries written to the database")
+            .register(meterRegistry);
+        this.droppedCounter = Counter.builder("tenant.audit.dropped")
+            .description("Access audit entries dropped because the buffer was full")
+            .register(meterRegistry);
+        this.failedCounter = Counter.builder("tenant.audit.failed")
+            .description("Access audit entries lost because their batch could not be written")
+            .register(meterRegistry);
+        Gauge.builder("tenant.audit.buffer.size", buffer, BlockingQueue::size)
+            .description("Access audit entries waiting to be written")
+            .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!config.isEnabled()) {
+            log.info("Tenant access audit persistence is disabled");
+            return;
+        }
+        running = true;
+        writerThread = Thread.ofPlatform().name("tenant-audit-writer").daemon(true).start(this::drainLoop);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        if (writerThread != null) {
+            writerThread.interrupt();
+            try {
+                writerThread.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flush();
+    }
+
+    @Override
+    public boolean submit(TenantAccessAudit entry) {
+        if (!config.isEnabled()) {
+            return false;
+        }
+        entry = fitToColumns(entry);
+        if (config.getOverflowPolicy() == TenantAuditConfig.OverflowPolicy.BLOCK) {
+            try {
+                buffer.put(entry);
+                return true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                droppedCounter.increment();
+                return false;
+            }
+        }
+        if (!buffer.offer(entry)) {
+            droppedCounter.increment();
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public void flush() {
+        List<TenantAccessAudit> batch = new ArrayList<>(config.getBatchSize());
+        while (buffer.drainTo(batch, config.getBatchSize()) > 0) {
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    @Override
+    public long getDroppedCount() {
+        return (long) droppedCounter.count();
+    }
+
+    private static TenantAccessAudit fitToColumns(TenantAccessAudit entry) {
+        if (fits(entry.getUserId(), USER_LENGTH) && fits(entry.getUsername(), USER_LENGTH)
+                && fits(entry.getResource(), RESOURCE_LENGTH) && fits(entry.getReason(), REASON_LENGTH)) {
+            return entry;
+        }
+        return entry.toBuilder()
+            .userId(truncate(entry.getUserId(), USER_LENGTH))
+            .username(truncate(entry.getUsername(), USER_LENGTH))
+            .resource(truncate(entry.getResource(), RESOURCE_LENGTH))
+            .reason(truncate(entry.getReason(), REASON_LENGTH))
+            .build();
+    }
+
+    private static boolean fits(String value, int length) {
+        return value == null || value.length() <= length;
+    }
+
+    private static String truncate(String value, int length) {
+        return fits(value, length) ? value : value.substring(0, length);
+    }
+
+    private void drainLoop() {
+        int batchSize = Math.max(1, config.getBatchSize());
+        long flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(config.getFlushIntervalMs());
+        List<TenantAccessAudit> batch = new ArrayList<>(batchSize);
+
+        while (running) {
+            try {
+                TenantAccessAudit first = buffer.poll(config.getFlushIntervalMs(), TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                // Linger until the batch is full or the oldest entry has waited the flush interval
+                long deadline = System.nanoTime() + flushIntervalNanos;
+                while (batch.size() < batchSize) {
+                    buffer.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    TenantAccessAudit next = buffer.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next != null) {
+                        batch.add(next);
+                    }
+                }
+                write(batch);
+            } catch (InterruptedException e) {
+                // Shutdown; entries still buffered are written by shutdown()
+                Thread.currentThread().interrupt();
+                write(batch);
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<TenantAccessAudit> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, entry) -> {
+                    ps.setObject(1, entry.getId());
+                    ps.setString(2, entry.getUserId());
+                    ps.setString(3, entry.getUsername());
+                    ps.setString(4, entry.getTenantId());
+                    ps.setString(5, entry.getResource());
+                    ps.setString(6, entry.getAccessType().name());
+                    ps.setString(7, entry.getReason());
+                    ps.setTimestamp(8, Timestamp.from(entry.getOccurredAt()));
+                    ps.setTimestamp(9, entry.getWindowStart() != null ? Timestamp.from(entry.getWindowStart()) : null);
+                    ps.setLong(10, entry.getAccessCount());
+                }));
+            writtenCounter.increment(batch.size());
+        } catch (Exception e) {
+            failedCounter.increment(batch.size());
+            log.error("Failed to write {} tenant access audit entries: {}", batch.size(), e.getMessage());
+        }
+    }
+}
@@ -1,44 +1,80 @@
 package sy.sezar.clinicx.tenant.service.impl;
 
-import lombok.RequiredArgsConstructor;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import sy.sezar.clinicx.core.config.CacheConfig;
 import sy.sezar.clinicx.tenant.TenantContext;
 import sy.sezar.clinicx.clinic.model.Staff;
 import sy.sezar.clinicx.clinic.repository.StaffRepository;
+import sy.sezar.clinicx.tenant.repository.UserTenantAccessRepository;
 import sy.sezar.clinicx.tenant.service.TenantAccessValidator;
 
-import java.util.Arrays;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Implementation of tenant access validation service.
+ * The tenant claims of a token are parsed once and kept for the lifetime of the token, so the
+ * repeated checks made by the filter chain and interceptors are plain set lookups. Database
+ * fallbacks are cached for a short TTL; only grants are cached, and revocations evict them.
  */
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class TenantAccessValidatorImpl implements TenantAccessValidator {
-    
+
+    private static final int MAX_CACHED_TOKENS = 10_000;
+    private static final Duration MAX_TOKEN_LIFETIME = Duration.ofHours(1);
+
     private final StaffRepository staffRepository;
-    
+    private final UserTenantAccessRepository userTenantAccessRepository;
+    private final Cache accessCache;
+    private final Cache roleCache;
+    private final com.github.benmanes.caffeine.cache.Cache<String, TokenAccess> tokenAccessCache;
+
+    @Value("${app.security.strict-tenant-validation:false}")
+    private boolean strictTenantValidation;
+
+    public TenantAccessValidatorImpl(StaffRepository staffRepository,
+                                     UserTenantAccessRepository userTenantAccessRepository,
+                                     CacheManager cacheManager) {
+        this.staffRepository = staffRepository;
+        this.userTenantAccessRepository = userTenantAccessRepository;
+        this.accessCache = cacheManager.getCache(CacheConfig.TENANT_ACCESS_CACHE);
+        this.roleCache = cacheManager.getCache(CacheConfig.USER_ROLES_CACHE);
+        this.tokenAccessCache = Caffeine.newBuilder()
+            .expireAfterWrite(MAX_TOKEN_LIFETIME)
+            .maximumSize(MAX_CACHED_TOKENS)
+            .build();
+    }
+
     @Override
     public boolean validateAccess(String tenantId) {
         if (tenantId == null) {
             return false;
         }
-        
+
         String userId = getCurrentUserId();
         if (userId == null) {
             return false;
         }
-        
+
         return validateUserAccess(userId, tenantId);
     }
-    
+
     @Override
     public boolean validateCurrentTenantAccess() {
         String currentTenant = TenantContext.getCurrentTenant();
@@ -46,95 +82,119 @@ public class TenantAccessValidatorImpl implements TenantAccessValidator {
             log.warn("No tenant context set");
             return false;
         }
-        
+
         return validateAccess(currentTenant);
     }
-    
+
     @Override
     public boolean validateUserAccess(String userId, String tenantId) {
-        // First check JWT claims for accessible tenants
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        if (auth != null && auth.getPrincipal() instanceof Jwt jwt) {
-            // Check if tenant_id matches (single tenant user)
-            String jwtTenantId = jwt.getClaimAsString("tenant_id");
-            if (tenantId.equals(jwtTenantId)) {
-                return true;
-            }
-            
-            // Check accessible_tenants claim (multi-tenant user)
-            List<String> accessibleTenants = jwt.getClaimAsStringList("accessible_tenants");
-            if (accessibleTenants != null) {
-                for (String tenantAccess : accessibleTenants) {
-                    // Format: tenantId|tenantName|role
-                    String[] parts = tenantAccess.split("\\|");
-                    if (parts.length >= 1 && parts[0].equals(tenantId)) {
-                        return true;
-                    }
-                }
-            }
+        // First check JWT claims: tenant_id (single tenant user) and accessible_tenants (multi-tenant user)
+        TokenAccess tokenAccess = getCurrentTokenAccess();
+        if (tokenAccess != null && tokenAccess.grants(tenantId)) {
+            return true;
         }
-        
+
         // Fall back to database check
-        return staffRepository.existsByKeycloakUserIdAndTenantId(userId, tenantId);
+        return checkDatabaseAccess(userId, tenantId);
     }
-    
+
+    /**
+     * Checks the database for access of a user to a tenant.
+     * Successful checks are cached for {@code app.security.access-cache-ttl} seconds;
+     * denials are never cached so that newly granted access is visible immediately.
+     * Outside strict validation a staff record grants access only to users without an access row;
+     * an inactive row means the access was revoked and overrides the staff record.
+     */
+    public boolean checkDatabaseAccess(String userId, String tenantId) {
+        String key = cacheKey(userId, tenantId);
+        if (Boolean.TRUE.equals(accessCache.get(key, Boolean.class))) {
+            return true;
+        }
+
+        boolean hasAccess = userTenantAccessRepository.existsByUserIdAndTenantIdAndIsActiveTrue(userId, tenantId)
+            || (!strictTenantValidation
+                && !userTenantAccessRepository.existsByUserIdAndTenantId(userId, tenantId)
+                && staffRepository.existsByKeycloakUserIdAndTenantId(userId, tenantId));
+        if (hasAccess) {
+            accessCache.put(key, Boolean.TRUE);
+        }
+        return hasAccess;
+    }
+
     @Override
     public boolean validateRole(String tenantId, String role) {
         String userId = getCurrentUserId();
         if (userId == null) {
             return false;
         }
-        
+
         String userRole = getUserRoleInTenant(tenantId);
         return role.equals(userRole);
     }
-    
+
     @Override
     public String getUserRoleInTenant(String tenantId) {
         String userId = getCurrentUserId();
         if (userId == null) {
             return null;
         }
-        
+
         // First check JWT claims
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        if (auth != null && auth.getPrincipal() instanceof Jwt jwt) {
-            // For single tenant users with matching tenant
-            String jwtTenantId = jwt.getClaimAsString("tenant_id");
-            if (tenantId.equals(jwtTenantId)) {
-                // Get role from realm_access
-                Object realmAccess = jwt.getClaim("realm_access");
-                if (realmAccess instanceof java.util.Map) {
-                    java.util.Map<String, Object> realmAccessMap = (java.util.Map<String, Object>) realmAccess;
-                    List<String> roles = (List<String>) realmAccessMap.get("roles");
-                    if (roles != null && !roles.isEmpty()) {
-                        // Return the highest priority role
-                        if (roles.contains("ADMIN")) return "ADMIN";
-                        if (roles.contains("DOCTOR")) return "DOCTOR";
-                        if (roles.contains("STAFF")) return "STAFF";
-                        return roles.get(0);
-                    }
-                }
-            }
-            
-            // Check accessible_tenants for multi-tenant users
-            List<String> accessibleTenants = jwt.getClaimAsStringList("accessible_tenants");
-            if (accessibleTenants != null) {
-                for (String tenantAccess : accessibleTenants) {
-                    // Format: tenantId|tenantName|role
-                    String[] parts = tenantAccess.split("\\|");
-                    if (parts.length >= 3 && parts[0].equals(tenantId)) {
-                        return parts[2];
-                    }
-                }
+        TokenAccess tokenAccess = getCurrentTokenAccess();
+        if (tokenAccess != null) {
+            String role = tokenAccess.roleIn(tenantId);
+            if (role != null) {
+                return role;
             }
         }
-        
+
         // Fall back to database
+        String key = cacheKey(userId, tenantId);
+        String cachedRole = roleCache.get(key, String.class);
+        if (cachedRole != null) {
+            return cachedRole;
+        }
         Optional<Staff> staff = staffRepository.findByKeycloakUserIdAndTenantId(userId, tenantId);
-        return staff.map(this::getPrimaryRoleName).orElse(null);
+        String role = staff.map(this::getPrimaryRoleName).orElse(null);
+        if (role != null) {
+            roleCache.put(key, role);
+        }
+        return role;
     }
-    
+
+    @Override
+    public void evictAccessCache(String userId, String tenantId) {
+        String key = cacheKey(userId, tenantId);
+        accessCache.evict(key);
+        roleCache.evict(key);
+        // A concurrent check may re-cache the old grant before the revoking transaction commits
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    accessCache.evict(key);
+                    roleCache.evict(key);
+                }
+            });
+        }
+        log.debug("Evicted cached access of user {} to tenant {}", userId, tenantId);
+    }
+
+    @Override
+    public void evictAllAccessCaches() {
+        accessCache.clear();
+        roleCache.clear();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    accessCache.clear();
+                    roleCache.clear();
+                }
+            });
+        }
+    }
+
     private String getCurrentUserId() {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         if (auth != null && auth.getPrincipal() instanceof Jwt jwt) {
@@ -150,7 +210,30 @@ public class TenantAccessValidatorImpl implements TenantAccessValidator {
         }
         return null;
     }
-    
+
+    private TokenAccess getCurrentTokenAccess() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth != null && auth.getPrincipal() instanceof Jwt jwt) {
+            return tokenAccessCache.get(tokenKey(jwt), key -> TokenAccess.of(jwt));
+        }
+        return null;
+    }
+
+    /**
+     * Identifies a token by its jti claim, or by its signature when the issuer does not set one.
+     */
+    private static String tokenKey(Jwt jwt) {
+        if (jwt.getId() != null) {
+            return jwt.getIssuer() + "#" + jwt.getId();
+        }
+        String tokenValue = jwt.getTokenValue();
+        return tokenValue.substring(tokenValue.lastIndexOf('.') + 1);
+    }
+
+    private static String cacheKey(String userId, String tenantId) {
+        return userId + ":" + tenantId;
+    }
+
     /**
      * Gets the primary role name from a staff member's roles collection
      * Priority: ADMIN > DOCTOR > STAFF
@@ -159,7 +242,7 @@ public class TenantAccessValidatorImpl implements TenantAccessValidator {
         if (staff.getRoles() == null || staff.getRoles().isEmpty()) {
             return null;
         }
-        
+
         // Priority order: ADMIN > DOCTOR > STAFF
         if (staff.getRoles().contains(sy.sezar.clinicx.clinic.model.enums.StaffRole.ADMIN)) {
             return sy.sezar.clinicx.clinic.model.enums.StaffRole.ADMIN.name();
@@ -170,8 +253,63 @@ public class TenantAccessValidatorImpl implements TenantAccessValidator {
         if (staff.getRoles().contains(sy.sezar.clinicx.clinic.model.enums.StaffRole.ASSISTANT)) {
             return sy.sezar.clinicx.clinic.model.enums.StaffRole.ASSISTANT.name();
         }
-        
+
         // Return the first role if none of the standard ones are found
         return staff.getRoles().iterator().next().name();
     }
-}
\ No newline at end of file
+
+    /**
+     * Tenant claims of a single token.
+     *
+     * @param tenantId          the tenant_id claim of a single tenant user
+     * @param tenantRole        the highest priority realm role, which applies to {@code tenantId}
+     * @param accessibleTenants tenants listed in the accessible_tenants claim
+     * @param tenantRoles       role per accessible tenant, for entries that carry one
+     */
+    record TokenAccess(String tenantId,
+                       String tenantRole,
+                       Set<String> accessibleTenants,
+                       Map<String, String> tenantRoles) {
+
+        boolean grants(String tenantId) {
+            return tenantId.equals(this.tenantId) || accessibleTenants.contains(tenantId);
+        }
+
+        String roleIn(String tenantId) {
+            if (tenantId.equals(this.tenantId) && tenantRole != null) {
+                return tenantRole;
+            }
+            return tenantRoles.get(tenantId);
+        }
+
+        static TokenAccess of(Jwt jwt) {
+            String tenantRole = null;
+            Object realmAccess = jwt.getClaim("realm_access");
+            if (realmAccess instanceof Map<?, ?> realmAccessMap
+                    && realmAccessMap.get("roles") instanceof List<?> roles && !roles.isEmpty()) {
+                // Keep the highest priority role
+                if (roles.contains("ADMIN")) tenantRole = "ADMIN";
+                else if (roles.contains("DOCTOR")) tenantRole = "DOCTOR";
+                else if (roles.contains("STAFF")) tenantRole = "STAFF";
+                else tenantRole = String.valueOf(roles.get(0));
+            }
+
+            Set<String> accessibleTenants = new HashSet<>();
+            Map<String, String> tenantRoles = new HashMap<>();
+            List<String> claim = jwt.getClaimAsStringList("accessible_tenants");
+            if (claim != null) {
+                for (String tenantAccess : claim) {
+                    // Format: tenantId|tenantName|role
+                    String[] parts = tenantAccess.split("\\|");
+                    accessibleTenants.add(parts[0]);
+                    if (parts.length >= 3) {
+                        tenantRoles.putIfAbsent(parts[0], parts[2]);
+                    }
+                }
+            }
+
+            return new TokenAccess(jwt.getClaimAsString("tenant_id"), tenantRole,
+                Set.copyOf(accessibleTenants), Map.copyOf(tenantRoles));
+        }
+    }
+}
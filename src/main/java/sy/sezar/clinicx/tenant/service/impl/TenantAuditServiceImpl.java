@@ -1,41 +1,96 @@
 package sy.sezar.clinicx.tenant.service.impl;
 
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import sy.sezar.clinicx.tenant.config.TenantAuditConfig;
 import sy.sezar.clinicx.tenant.event.*;
+import sy.sezar.clinicx.tenant.model.TenantAccessAudit;
+import sy.sezar.clinicx.tenant.repository.TenantAccessAuditRepository;
+import sy.sezar.clinicx.tenant.service.TenantAccessAuditWriter;
 import sy.sezar.clinicx.tenant.service.TenantAuditService;
+import sy.sezar.clinicx.tenant.spec.TenantAccessAuditSpecifications;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Implementation of tenant audit service.
  * Logs tenant-related security events and publishes them as Spring events.
+ * Access checks run on every request, so they are only handed to the audit writer,
+ * which persists them in batches on a background thread. In aggregation mode granted
+ * accesses are only counted per user, tenant and resource prefix, and one roll-up row per
+ * key is written at the end of each window.
  */
 @Slf4j
 @Service
-@Transactional
 @RequiredArgsConstructor
 public class TenantAuditServiceImpl implements TenantAuditService {
     
     private final ApplicationEventPublisher eventPublisher;
+    private final TenantAccessAuditWriter auditWriter;
+    private final TenantAccessAuditRepository auditRepository;
+    private final TenantAuditConfig auditConfig;
+    
+    private volatile AggregationWindow currentWindow = new AggregationWindow(Instant.now());
+    private AggregationWindow closedWindow;
     
     @Override
     public void auditAccessGranted(String username, String tenantId, String resource) {
-        log.info("ACCESS_GRANTED: User={}, Tenant={}, Resource={}, Time={}", 
-            username, tenantId, resource, LocalDateTime.now());
+        log.debug("ACCESS_GRANTED: User={}, Tenant={}, Resource={}", username, tenantId, resource);
         
-        TenantAccessEvent event = TenantAccessEvent.builder()
-            .username(username)
-            .tenantId(tenantId)
-            .resource(resource)
-            .accessType(TenantAccessEvent.AccessType.GRANTED)
-            .timestamp(LocalDateTime.now())
-            .build();
+        if (auditConfig.getGrantedMode() == TenantAuditConfig.GrantedMode.AGGREGATE) {
+            AccessKey key = new AccessKey(currentUserId(), username, tenantId, resourcePrefix(resource));
+            currentWindow.counters().computeIfAbsent(key, k -> new LongAdder()).increment();
+            return;
+        }
+        auditWriter.submit(accessAudit(username, tenantId, resource, TenantAccessEvent.AccessType.GRANTED, null));
+    }
+    
+    /**
+     * Closes the current aggregation window and writes the window closed one interval earlier.
+     * Writing one window late gives request threads that picked up a window just before it
+     * was closed a full interval to finish their increment, so no count is lost.
+     */
+    @Scheduled(fixedDelayString = "${app.tenant.audit.aggregation-interval-seconds:60}",
+               initialDelayString = "${app.tenant.audit.aggregation-interval-seconds:60}",
+               timeUnit = TimeUnit.SECONDS)
+    public synchronized void flushAggregatedAccess() {
+        Instant now = Instant.now();
+        AggregationWindow closing = currentWindow;
+        currentWindow = new AggregationWindow(now);
+        closing.close(now);
         
-        eventPublisher.publishEvent(event);
+        AggregationWindow ready = closedWindow;
+        closedWindow = closing;
+        writeRollups(ready);
+    }
+    
+    @PreDestroy
+    public synchronized void flushAllAggregatedAccess() {
+        AggregationWindow closing = currentWindow;
+        currentWindow = new AggregationWindow(Instant.now());
+        closing.close(Instant.now());
+        writeRollups(closedWindow);
+        closedWindow = null;
+        writeRollups(closing);
     }
     
     @Override
@@ -43,6 +98,8 @@ public class TenantAuditServiceImpl implements TenantAuditService {
         log.warn("ACCESS_DENIED: User={}, Tenant={}, Resource={}, Reason={}, Time={}", 
             username, tenantId, resource, reason, LocalDateTime.now());
         
+        auditWriter.submit(accessAudit(username, tenantId, resource, TenantAccessEvent.AccessType.DENIED, reason));
+        
         TenantAccessEvent event = TenantAccessEvent.builder()
             .username(username)
             .tenantId(tenantId)
@@ -134,4 +191,125 @@ public class TenantAuditServiceImpl implements TenantAuditService {
         
         eventPublisher.publishEvent(event);
     }
-}
\ No newline at end of file
+    
+    @Override
+    @Transactional(readOnly = true)
+    public Page<TenantAccessAudit> findAccessAudits(String userId, String tenantId, Instant from, Instant to,
+                                                    Pageable pageable) {
+        if (pageable.isPaged() && pageable.getSort().isUnsorted()) {
+            pageable = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(),
+                Sort.by(Sort.Direction.DESC, "occurredAt"));
+        }
+        Specification<TenantAccessAudit> spec =
+            TenantAccessAuditSpecifications.buildSearchSpecification(userId, tenantId, from, to);
+        return auditRepository.findAll(spec, pageable);
+    }
+    
+    private TenantAccessAudit accessAudit(String username, String tenantId, String resource,
+                                          TenantAccessEvent.AccessType accessType, String reason) {
+        return TenantAccessAudit.builder()
+            .id(UUID.randomUUID())
+            .userId(currentUserId())
+            .username(username)
+            .tenantId(tenantId)
+            .resource(resource)
+            .accessType(accessType)
+            .reason(reason)
+            .occurredAt(Instant.now())
+            .build();
+    }
+    
+    /**
+     * The Keycloak user ID of the authenticated user; the username passed in by callers
+     * is the preferred_username claim.
+     */
+    private String currentUserId() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth != null && auth.getPrincipal() instanceof Jwt jwt) {
+            return jwt.getSubject();
+        }
+        return null;
+    }
+    
+    private void writeRollups(AggregationWindow window) {
+        if (window == null || window.counters().isEmpty()) {
+            return;
+        }
+        long total = 0;
+        for (Map.Entry<AccessKey, LongAdder> entry : window.counters().entrySet()) {
+            AccessKey key = entry.getKey();
+            long count = entry.getValue().sum();
+            total += count;
+            auditWriter.submit(TenantAccessAudit.builder()
+                .id(UUID.randomUUID())
+                .userId(key.userId())
+                .username(key.username())
+                .tenantId(key.tenantId())
+                .resource(key.resourcePrefix())
+                .accessType(TenantAccessEvent.AccessType.GRANTED)
+                .windowStart(window.start())
+                .occurredAt(window.end())
+                .accessCount(count)
+                .build());
+        }
+        log.debug("Flushed {} granted accesses as {} audit roll-ups for window starting {}",
+            total, window.counters().size(), window.start());
+    }
+    
+    /**
+     * Reduces a request path to its first segments, stopping at the first identifier-like segment,
+     * so that e.g. /api/v1/patients/42 and /api/v1/patients/43 share a counter.
+     */
+    String resourcePrefix(String resource) {
+        if (resource == null) {
+            return null;
+        }
+        StringBuilder prefix = new StringBuilder();
+        int segments = 0;
+        for (String segment : resource.split("/")) {
+            if (segment.isEmpty()) {
+                continue;
+            }
+            if (segments == auditConfig.getResourcePrefixSegments() || isIdentifier(segment)) {
+                break;
+            }
+            prefix.append('/').append(segment);
+            segments++;
+        }
+        return prefix.isEmpty() ? "/" : prefix.toString();
+    }
+    
+    private static boolean isIdentifier(String segment) {
+        return Character.isDigit(segment.charAt(0)) || (segment.length() == 36 && segment.charAt(8) == '-');
+    }
+    
+    private record AccessKey(String userId, String username, String tenantId, String resourcePrefix) {
+    }
+    
+    private static final class AggregationWindow {
+        
+        private final Instant start;
+        private final Map<AccessKey, LongAdder> counters = new ConcurrentHashMap<>();
+        private Instant end;
+        
+        AggregationWindow(Instant start) {
+            this.start = start;
+        }
+        
+        Instant start() {
+            return start;
+        }
+        
+        Instant end() {
+            return end;
+        }
+        
+        Map<AccessKey, LongAdder> counters() {
+            return counters;
+        }
+        
+        void close(Instant end) {
+            this.end = end;
+        }
+    }
+}
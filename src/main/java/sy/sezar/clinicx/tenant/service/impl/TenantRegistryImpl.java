@@ -0,0 +1,257 @@
+package sy.sezar.clinicx.tenant.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import sy.sezar.clinicx.tenant.config.TenantRegistryConfig;
+import sy.sezar.clinicx.tenant.model.Tenant;
+import sy.sezar.clinicx.tenant.repository.TenantRepository;
+import sy.sezar.clinicx.tenant.repository.TenantRepository.TenantChangeMarker;
+import sy.sezar.clinicx.tenant.service.TenantRegistry;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * Implementation of tenant registry.
+ * Keeps an immutable snapshot of the active tenants that is swapped atomically on every change,
+ * so readers never lock. A lookup miss falls through to the database, which covers tenants
+ * created on another instance before the next scheduled reload; misses are remembered briefly
+ * so unknown subdomains and tenant IDs do not turn into a query per request.
+ * Tenants are always read in a transaction of their own, so the snapshot only holds instances
+ * detached from any caller's persistence context. Changes made on other instances are noticed
+ * by a frequent check of the tenant count and latest update, which triggers a reload.
+ */
+@Slf4j
+@Service
+public class TenantRegistryImpl implements TenantRegistry {
+
+    private final TenantRepository tenantRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final Cache<String, Boolean> recentMisses;
+
+    private volatile Snapshot snapshot;
+    private volatile ChangeMarker loadedMarker;
+
+    public TenantRegistryImpl(TenantRepository tenantRepository,
+                              PlatformTransactionManager transactionManager,
+                              TenantRegistryConfig config) {
+        this.tenantRepository = tenantRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.transactionTemplate.setReadOnly(true);
+        this.enabled = config.isEnabled();
+        this.recentMisses = Caffeine.newBuilder()
+            .expireAfterWrite(Duration.ofMillis(config.getMissTtlMs()))
+            .maximumSize(10_000)
+            .build();
+    }
+
+    @Override
+    public Optional<Tenant> findActiveByTenantId(String tenantId) {
+        if (tenantId == null) {
+            return Optional.empty();
+        }
+        if (!enabled) {
+            return tenantRepository.findByTenantId(tenantId).filter(Tenant::isActive);
+        }
+        Tenant tenant = snapshot().byTenantId().get(tenantId);
+        if (tenant != null) {
+            return Optional.of(tenant);
+        }
+        return loadMissing("id:" + tenantId, () -> tenantRepository.findByTenantId(tenantId));
+    }
+
+    @Override
+    public Optional<Tenant> findActiveBySubdomain(String subdomain) {
+        if (subdomain == null) {
+            return Optional.empty();
+        }
+        if (!enabled) {
+            return tenantRepository.findBySubdomain(subdomain).filter(Tenant::isActive);
+        }
+        Tenant tenant = snapshot().bySubdomain().get(subdomain);
+        if (tenant != null) {
+            return Optional.of(tenant);
+        }
+        return loadMissing("subdomain:" + subdomain, () -> tenantRepository.findBySubdomain(subdomain));
+    }
+
+    @Override
+    public List<Tenant> findActiveByRealmName(String realmName) {
+        if (!enabled) {
+            return tenantRepository.findByRealmNameAndIsActiveTrue(realmName);
+        }
+        return snapshot().byRealmName().getOrDefault(realmName, List.of());
+    }
+
+    @Override
+    public List<String> getActiveRealmNames() {
+        if (!enabled) {
+            return tenantRepository.findByIsActiveTrue().stream()
+                .map(Tenant::getRealmName)
+                .distinct()
+                .toList();
+        }
+        return List.copyOf(snapshot().byRealmName().keySet());
+    }
+
+    @Override
+    public boolean isActive(String tenantId) {
+        return findActiveByTenantId(tenantId).isPresent();
+    }
+
+    @Override
+    public void refresh(String tenantId) {
+        if (!enabled) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Only publish the change once it is visible to other transactions
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    reloadTenant(tenantId);
+                }
+            });
+        } else {
+            reloadTenant(tenantId);
+        }
+    }
+
+    @Override
+    public synchronized void reload() {
+        Loaded loaded = transactionTemplate.execute(status ->
+            new Loaded(changeMarker(), tenantRepository.findByIsActiveTrue()));
+        snapshot = Snapshot.of(loaded != null ? loaded.tenants() : List.of());
+        loadedMarker = loaded != null ? loaded.marker() : null;
+        recentMisses.invalidateAll();
+        log.info("Loaded {} active tenants into the tenant registry", snapshot.byTenantId().size());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (enabled) {
+            reload();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.tenant.registry.reload-interval-ms:300000}",
+               initialDelayString = "${app.tenant.registry.reload-interval-ms:300000}")
+    public void scheduledReload() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            reload();
+        } catch (Exception e) {
+            log.warn("Scheduled tenant registry reload failed, keeping previous snapshot: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.tenant.registry.change-check-interval-ms:10000}",
+               initialDelayString = "${app.tenant.registry.change-check-interval-ms:10000}")
+    public void checkForChanges() {
+        if (!enabled || snapshot == null) {
+            return;
+        }
+        try {
+            ChangeMarker current = transactionTemplate.execute(status -> changeMarker());
+            if (!Objects.equals(current, loadedMarker)) {
+                log.info("Tenants changed since the tenant registry was loaded, reloading");
+                reload();
+            }
+        } catch (Exception e) {
+            log.warn("Tenant registry change check failed, keeping previous snapshot: {}", e.getMessage());
+        }
+    }
+
+    private ChangeMarker changeMarker() {
+        TenantChangeMarker marker = tenantRepository.findChangeMarker();
+        return marker != null ? new ChangeMarker(marker.getTenantCount(), marker.getLastUpdatedAt()) : null;
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                if (snapshot == null) {
+                    reload();
+                }
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+
+    private Optional<Tenant> loadMissing(String missKey, Supplier<Optional<Tenant>> loader) {
+        if (recentMisses.getIfPresent(missKey) != null) {
+            return Optional.empty();
+        }
+        Optional<Tenant> loaded = transactionTemplate.execute(status -> loader.get());
+        Optional<Tenant> tenant = loaded != null ? loaded.filter(Tenant::isActive) : Optional.empty();
+        if (tenant.isPresent()) {
+            put(tenant.get());
+        } else {
+            recentMisses.put(missKey, Boolean.TRUE);
+        }
+        return tenant;
+    }
+
+    private void reloadTenant(String tenantId) {
+        Optional<Tenant> tenant = transactionTemplate.execute(status -> tenantRepository.findByTenantId(tenantId));
+        synchronized (this) {
+            List<Tenant> tenants = new ArrayList<>(snapshot().byTenantId().values());
+            tenants.removeIf(t -> t.getTenantId().equals(tenantId));
+            if (tenant != null) {
+                tenant.filter(Tenant::isActive).ifPresent(tenants::add);
+            }
+            snapshot = Snapshot.of(tenants);
+        }
+        recentMisses.invalidateAll();
+        log.debug("Refreshed tenant {} in the tenant registry", tenantId);
+    }
+
+    private synchronized void put(Tenant tenant) {
+        List<Tenant> tenants = new ArrayList<>(snapshot().byTenantId().values());
+        tenants.removeIf(t -> t.getTenantId().equals(tenant.getTenantId()));
+        tenants.add(tenant);
+        snapshot = Snapshot.of(tenants);
+    }
+
+    private record ChangeMarker(long tenantCount, Instant lastUpdatedAt) {
+    }
+
+    private record Loaded(ChangeMarker marker, List<Tenant> tenants) {
+    }
+
+    private record Snapshot(Map<String, Tenant> byTenantId,
+                            Map<String, Tenant> bySubdomain,
+                            Map<String, List<Tenant>> byRealmName) {
+
+        static Snapshot of(Collection<Tenant> tenants) {
+            Map<String, Tenant> byTenantId = new HashMap<>();
+            Map<String, Tenant> bySubdomain = new HashMap<>();
+            Map<String, List<Tenant>> byRealmName = new HashMap<>();
+            for (Tenant tenant : tenants) {
+                byTenantId.put(tenant.getTenantId(), tenant);
+                bySubdomain.put(tenant.getSubdomain(), tenant);
+                byRealmName.computeIfAbsent(tenant.getRealmName(), r -> new ArrayList<>()).add(tenant);
+            }
+            byRealmName.replaceAll((realm, realmTenants) -> List.copyOf(realmTenants));
+            return new Snapshot(Map.copyOf(byTenantId), Map.copyOf(bySubdomain), Map.copyOf(byRealmName));
+        }
+    }
+}
@@ -14,6 +14,7 @@ import sy.sezar.clinicx.tenant.mapper.TenantMapper;
 import sy.sezar.clinicx.tenant.model.Tenant;
 import sy.sezar.clinicx.tenant.repository.TenantRepository;
 import sy.sezar.clinicx.tenant.service.KeycloakAdminService;
+import sy.sezar.clinicx.tenant.service.TenantRegistry;
 import sy.sezar.clinicx.tenant.service.TenantService;
 import sy.sezar.clinicx.tenant.spec.TenantSpecifications;
 import sy.sezar.clinicx.clinic.repository.StaffRepository;
@@ -45,6 +46,7 @@ public class TenantServiceImpl implements TenantService {
     private final KeycloakAdminService keycloakAdminService;
     private final StaffRepository staffRepository;
     private final UserTenantAccessService userTenantAccessService;
+    private final TenantRegistry tenantRegistry;
     
     @Value("${keycloak.auth-server-url}")
     private String keycloakServerUrl;
@@ -105,6 +107,7 @@ public class TenantServiceImpl implements TenantService {
             tenant.setSubscriptionEndDate(Instant.now().plusSeconds(365 * 24 * 60 * 60));
 
             tenant = tenantRepository.save(tenant);
+            tenantRegistry.refresh(tenant.getTenantId());
             
             // Create staff and user_tenant_access records for admin user
             try {
@@ -251,6 +254,7 @@ public class TenantServiceImpl implements TenantService {
         }
 
         tenant = tenantRepository.save(tenant);
+        tenantRegistry.refresh(tenant.getTenantId());
 
         log.info("Successfully updated tenant with ID: {}", id);
         return enrichWithUsageStats(tenantMapper.toDetailDto(tenant));
@@ -320,6 +324,7 @@ public class TenantServiceImpl implements TenantService {
         
         // Save the activated tenant
         tenantRepository.save(tenant);
+        tenantRegistry.refresh(tenantId);
 
         log.info("Successfully activated tenant with ID: {} (tenantId: {})", id, tenantId);
     }
@@ -333,6 +338,7 @@ public class TenantServiceImpl implements TenantService {
 
         tenant.setActive(false);
         tenantRepository.save(tenant);
+        tenantRegistry.refresh(tenant.getTenantId());
 
         log.info("Successfully deactivated tenant with ID: {}", id);
     }
@@ -398,6 +404,7 @@ public class TenantServiceImpl implements TenantService {
 
         // Save the deactivated tenant
         tenantRepository.save(tenant);
+        tenantRegistry.refresh(tenantId);
 
         log.warn("Successfully soft deleted (deactivated) tenant with ID: {} (tenantId: {})", id, tenantId);
     }
@@ -18,6 +18,7 @@ import sy.sezar.clinicx.clinic.model.enums.StaffRole;
 import sy.sezar.clinicx.tenant.repository.TenantRepository;
 import sy.sezar.clinicx.clinic.repository.StaffRepository;
 import sy.sezar.clinicx.tenant.service.KeycloakAdminService;
+import sy.sezar.clinicx.tenant.service.TenantRegistry;
 import sy.sezar.clinicx.tenant.service.TenantSwitchingService;
 
 import java.util.*;
@@ -39,6 +40,7 @@ public class TenantSwitchingServiceImpl implements TenantSwitchingService {
     private final TenantRepository tenantRepository;
     private final TenantUserService tenantUserService;
     private final KeycloakAdminService keycloakAdminService;
+    private final TenantRegistry tenantRegistry;
 
     @Override
     public List<TenantAccessDto> getCurrentUserTenants() {
@@ -67,7 +69,7 @@ public class TenantSwitchingServiceImpl implements TenantSwitchingService {
 
         return staffList.stream()
             .map(staff -> {
-                Tenant tenant = tenantRepository.findByTenantId(staff.getTenantId())
+                Tenant tenant = findTenant(staff.getTenantId())
                     .orElseThrow(() -> new NotFoundException("Tenant not found: " + staff.getTenantId()));
 
                 return new TenantAccessDto(
@@ -93,7 +95,7 @@ public class TenantSwitchingServiceImpl implements TenantSwitchingService {
             .orElseThrow(() -> new BusinessRuleException("You don't have access to tenant: " + tenantId));
 
         // Get tenant information
-        Tenant tenant = tenantRepository.findByTenantId(tenantId)
+        Tenant tenant = findTenant(tenantId)
             .orElseThrow(() -> new NotFoundException("Tenant not found: " + tenantId));
 
         if (!tenant.isActive()) {
@@ -169,7 +171,7 @@ public class TenantSwitchingServiceImpl implements TenantSwitchingService {
         Staff staff = staffRepository.findByKeycloakUserIdAndTenantId(userId, tenantId)
             .orElseThrow(() -> new BusinessRuleException("No access to tenant: " + tenantId));
 
-        Tenant tenant = tenantRepository.findByTenantId(tenantId)
+        Tenant tenant = findTenant(tenantId)
             .orElseThrow(() -> new NotFoundException("Tenant not found: " + tenantId));
 
         return new TenantAccessDto(
@@ -188,7 +190,7 @@ public class TenantSwitchingServiceImpl implements TenantSwitchingService {
         log.info("Granting user {} access to tenant {} with role {}", userId, tenantId, role);
 
         // Verify tenant exists
-        Tenant tenant = tenantRepository.findByTenantId(tenantId)
+        Tenant tenant = findTenant(tenantId)
             .orElseThrow(() -> new NotFoundException("Tenant not found: " + tenantId));
 
         // Check if access already exists
@@ -300,6 +302,14 @@ public class TenantSwitchingServiceImpl implements TenantSwitchingService {
         }
     }
 
+    /**
+     * Looks up a tenant in the registry; only inactive tenants need a database round-trip.
+     */
+    private Optional<Tenant> findTenant(String tenantId) {
+        Optional<Tenant> tenant = tenantRegistry.findActiveByTenantId(tenantId);
+        return tenant.isPresent() ? tenant : tenantRepository.findByTenantId(tenantId);
+    }
+
     private String getCurrentUserId() {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         if (auth != null && auth.getPrincipal() instanceof Jwt jwt) {
@@ -344,7 +354,7 @@ public class TenantSwitchingServiceImpl implements TenantSwitchingService {
         // Convert to TenantAccessDto list
         return staffRecords.stream()
             .map(staff -> {
-                Tenant tenant = tenantRepository.findByTenantId(staff.getTenantId())
+                Tenant tenant = findTenant(staff.getTenantId())
                     .orElseThrow(() -> new NotFoundException("Tenant not found: " + staff.getTenantId()));
 
                 return new TenantAccessDto(
@@ -378,7 +388,7 @@ public class TenantSwitchingServiceImpl implements TenantSwitchingService {
             Map<String, List<String>> userTenantRoles = new HashMap<>();
 
             for (Staff staff : staffRecords) {
-                Tenant tenant = tenantRepository.findByTenantId(staff.getTenantId())
+                Tenant tenant = findTenant(staff.getTenantId())
                     .orElseThrow(() -> new NotFoundException("Tenant not found: " + staff.getTenantId()));
 
                 // Add to accessible tenants
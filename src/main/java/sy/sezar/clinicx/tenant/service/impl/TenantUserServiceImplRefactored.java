@@ -6,7 +6,9 @@ import org.keycloak.representations.idm.UserRepresentation;
 import org.springframework.context.annotation.Primary;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import sy.sezar.clinicx.clinic.model.Staff;
@@ -17,7 +19,9 @@ import sy.sezar.clinicx.tenant.constants.TenantConstants;
 import sy.sezar.clinicx.tenant.dto.*;
 import sy.sezar.clinicx.tenant.exception.TenantAccessException;
 import sy.sezar.clinicx.tenant.exception.UserManagementException;
+import sy.sezar.clinicx.tenant.event.TenantAccessEvent;
 import sy.sezar.clinicx.tenant.model.Tenant;
+import sy.sezar.clinicx.tenant.model.TenantAccessAudit;
 import sy.sezar.clinicx.tenant.model.UserTenantAccess;
 import sy.sezar.clinicx.tenant.repository.TenantRepository;
 import sy.sezar.clinicx.tenant.service.*;
@@ -35,6 +39,16 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class TenantUserServiceImplRefactored implements TenantUserService {
 
+    private static final Map<String, String> STAFF_SORT_PROPERTIES = Map.of(
+        "username", "email",
+        "email", "email",
+        "firstName", "fullName",
+        "lastName", "fullName",
+        "fullName", "fullName",
+        "phoneNumber", "phoneNumber",
+        "active", "isActive"
+    );
+
     private final KeycloakUserService keycloakUserService;
     private final StaffManagementService staffManagementService;
     private final UserAccessManagementService userAccessManagementService;
@@ -44,6 +58,7 @@ public class TenantUserServiceImplRefactored implements TenantUserService {
     private final TenantAuditService auditService;
     private final KeycloakAdminService keycloakAdminService;
     private final UserTenantAccessService userTenantAccessService;
+    private final KeycloakUserBatchResolver keycloakUserBatchResolver;
 
     @Override
     @Transactional(readOnly = true)
@@ -51,20 +66,35 @@ public class TenantUserServiceImplRefactored implements TenantUserService {
         log.info("Getting users for tenant {} (includeExternal: {})", tenantId, includeExternal);
 
         Tenant tenant = getTenant(tenantId);
-        List<Staff> staffList = staffManagementService.findByTenantId(tenantId);
-
-        // Filter based on includeExternal flag
-        if (!includeExternal) {
-            staffList = filterPrimaryUsers(staffList, tenantId);
-        }
 
-        // Map to DTOs
-        List<TenantUserDto> tenantUsers = staffList.stream()
-            .map(staff -> createUserDto(staff, tenant))
-            .filter(Objects::nonNull)
+        // Page in the database so only this page's users are resolved in Keycloak
+        Page<Staff> staffPage = staffManagementService.findByTenantId(
+            tenantId, includeExternal, toStaffPageable(pageable));
+        Map<String, UserRepresentation> users = keycloakUserBatchResolver.resolveUsers(
+            staffPage.getContent(), tenant.getRealmName());
+
+        // Map to DTOs; staff whose Keycloak user could not be resolved keep their row, so the page
+        // holds as many users as the total counts
+        List<TenantUserDto> tenantUsers = staffPage.getContent().stream()
+            .map(staff -> userMappingService.mapToDto(
+                Optional.ofNullable(users.get(staff.getKeycloakUserId())).orElseGet(() -> unresolvedUser(staff)),
+                tenantId, staff))
             .collect(Collectors.toList());
 
-        return createPage(tenantUsers, pageable);
+        return new PageImpl<>(tenantUsers, pageable, staffPage.getTotalElements());
+    }
+
+    /**
+     * Stands in for a Keycloak user that could not be resolved, from what the staff record holds.
+     * It is reported as disabled, since the account cannot be confirmed to exist.
+     */
+    private static UserRepresentation unresolvedUser(Staff staff) {
+        UserRepresentation user = new UserRepresentation();
+        user.setId(staff.getKeycloakUserId());
+        user.setEmail(staff.getEmail());
+        user.setFirstName(staff.getFullName());
+        user.setEnabled(false);
+        return user;
     }
 
     @Override
@@ -395,9 +425,8 @@ public class TenantUserServiceImplRefactored implements TenantUserService {
 
         validateUserAccess(userId, tenantId);
 
-        // This would typically query an audit log or activity tracking service
-        // For now, returning empty page
-        return Page.empty(pageable);
+        return auditService.findAccessAudits(userId, tenantId, null, null, pageable)
+            .map(this::toActivityDto);
     }
 
     @Override
@@ -416,59 +445,39 @@ public class TenantUserServiceImplRefactored implements TenantUserService {
 
     // Helper methods
 
+    private UserActivityDto toActivityDto(TenantAccessAudit audit) {
+        boolean granted = audit.getAccessType() == TenantAccessEvent.AccessType.GRANTED;
+        Map<String, Object> details = new HashMap<>();
+        details.put("resource", audit.getResource());
+        if (audit.getReason() != null) {
+            details.put("reason", audit.getReason());
+        }
+        if (audit.getWindowStart() != null) {
+            // Roll-up of all granted accesses to this resource prefix within the window
+            details.put("accessCount", audit.getAccessCount());
+            details.put("windowStart", audit.getWindowStart());
+        }
+        return new UserActivityDto(
+            audit.getId().toString(),
+            audit.getUserId(),
+            audit.getUsername(),
+            granted ? UserActivityDto.ActivityType.API_ACCESS : UserActivityDto.ActivityType.PERMISSION_DENIED,
+            granted ? "Accessed " + audit.getResource() : "Access denied to " + audit.getResource(),
+            null,
+            null,
+            audit.getOccurredAt(),
+            audit.getTenantId(),
+            details,
+            granted
+        );
+    }
+
     private Tenant getTenant(String tenantId) {
         return tenantRepository.findByTenantId(tenantId)
             .orElseThrow(() -> new ResourceNotFoundException(
                 String.format(TenantConstants.ERROR_TENANT_NOT_FOUND, tenantId)));
     }
 
-    private List<Staff> filterPrimaryUsers(List<Staff> staffList, String tenantId) {
-        return staffList.stream()
-            .filter(staff -> {
-                if (staff.getKeycloakUserId() != null) {
-                    try {
-                        Optional<UserTenantAccess> access = userAccessManagementService
-                            .findByUserIdAndTenantId(staff.getKeycloakUserId(), tenantId);
-                        return access.map(a -> a.isPrimary() && a.isActive())
-                            .orElse(staff.isActive());
-                    } catch (Exception e) {
-                        return staff.isActive();
-                    }
-                }
-                return staff.isActive();
-            })
-            .collect(Collectors.toList());
-    }
-
-    private TenantUserDto createUserDto(Staff staff, Tenant tenant) {
-        try {
-            UserRepresentation user;
-
-            // If staff has a source realm, fetch user from that realm
-            // This handles cross-realm access scenarios
-            if (staff.getSourceRealm() != null && !staff.getSourceRealm().isEmpty()) {
-                log.debug("Fetching user {} from source realm {}",
-                         staff.getKeycloakUserId(), staff.getSourceRealm());
-                user = keycloakUserService.getUser(staff.getSourceRealm(), staff.getKeycloakUserId());
-            } else {
-                // Fallback: try tenant's realm first, then search all realms
-                try {
-                    user = keycloakUserService.getUser(tenant.getRealmName(), staff.getKeycloakUserId());
-                } catch (Exception tenantRealmEx) {
-                    log.debug("User not in tenant realm, searching all realms for user {}",
-                             staff.getKeycloakUserId());
-                    user = keycloakUserService.getUserFromAnyRealm(staff.getKeycloakUserId());
-                }
-            }
-
-            return userMappingService.mapToDto(user, tenant.getTenantId(), staff);
-        } catch (Exception e) {
-            log.warn(TenantConstants.LOG_USER_NOT_FOUND_IN_KEYCLOAK + " - {}",
-                    staff.getKeycloakUserId(), e.getMessage());
-            return null;
-        }
-    }
-
     private TenantUserDto createUserDtoFromKeycloak(UserRepresentation user, String tenantId) {
         Optional<Staff> staff = staffManagementService
             .findByKeycloakUserIdAndTenantId(user.getId(), tenantId);
@@ -538,6 +547,22 @@ public class TenantUserServiceImplRefactored implements TenantUserService {
         return activeAccessCount == 0;
     }
 
+    /**
+     * Translates the user-facing sort properties into Staff columns.
+     * Keycloak-only properties have no Staff column and are dropped.
+     */
+    private Pageable toStaffPageable(Pageable pageable) {
+        List<Sort.Order> orders = new ArrayList<>();
+        for (Sort.Order order : pageable.getSort()) {
+            String property = STAFF_SORT_PROPERTIES.get(order.getProperty());
+            if (property != null) {
+                orders.add(order.withProperty(property));
+            }
+        }
+        Sort sort = orders.isEmpty() ? Sort.by("fullName") : Sort.by(orders);
+        return PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort);
+    }
+
     private Page<TenantUserDto> createPage(List<TenantUserDto> users, Pageable pageable) {
         int start = (int) pageable.getOffset();
         int end = Math.min(start + pageable.getPageSize(), users.size());
@@ -11,6 +11,7 @@ import sy.sezar.clinicx.core.exception.ResourceNotFoundException;
 import sy.sezar.clinicx.tenant.constants.TenantConstants;
 import sy.sezar.clinicx.tenant.model.UserTenantAccess;
 import sy.sezar.clinicx.tenant.repository.UserTenantAccessRepository;
+import sy.sezar.clinicx.tenant.service.TenantAccessValidator;
 import sy.sezar.clinicx.tenant.service.UserAccessManagementService;
 
 import java.util.HashSet;
@@ -28,6 +29,7 @@ import java.util.Set;
 public class UserAccessManagementServiceImpl implements UserAccessManagementService {
     
     private final UserTenantAccessRepository userTenantAccessRepository;
+    private final TenantAccessValidator tenantAccessValidator;
     
     @Override
     @Transactional(readOnly = true)
@@ -93,6 +95,7 @@ public class UserAccessManagementServiceImpl implements UserAccessManagementServ
         UserTenantAccess access = getAccess(userId, tenantId);
         access.setRoles(roles != null ? new HashSet<>(roles) : new HashSet<>());
         UserTenantAccess updatedAccess = userTenantAccessRepository.save(access);
+        tenantAccessValidator.evictAccessCache(userId, tenantId);
         log.info("Updated roles for user {} in tenant {}", userId, tenantId);
         return updatedAccess;
     }
@@ -105,6 +108,7 @@ public class UserAccessManagementServiceImpl implements UserAccessManagementServ
         
         access.setActive(false);
         UserTenantAccess deactivatedAccess = userTenantAccessRepository.save(access);
+        tenantAccessValidator.evictAccessCache(userId, tenantId);
         log.info(TenantConstants.LOG_DEACTIVATED_ACCESS, userId, tenantId);
         return deactivatedAccess;
     }
@@ -127,6 +131,7 @@ public class UserAccessManagementServiceImpl implements UserAccessManagementServ
             access.setActive(false);
         }
         userTenantAccessRepository.saveAll(accessList);
+        accessList.forEach(access -> tenantAccessValidator.evictAccessCache(userId, access.getTenantId()));
         log.info("Deactivated all access for user {}", userId);
     }
     
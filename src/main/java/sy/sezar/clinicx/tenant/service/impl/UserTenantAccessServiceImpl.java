@@ -14,6 +14,7 @@ import sy.sezar.clinicx.tenant.mapper.UserTenantAccessMapper;
 import sy.sezar.clinicx.tenant.model.UserTenantAccess;
 import sy.sezar.clinicx.tenant.repository.UserTenantAccessRepository;
 import sy.sezar.clinicx.tenant.repository.TenantRepository;
+import sy.sezar.clinicx.tenant.service.TenantAccessValidator;
 import sy.sezar.clinicx.tenant.service.UserTenantAccessService;
 import sy.sezar.clinicx.tenant.service.KeycloakAdminService;
 
@@ -32,6 +33,7 @@ public class UserTenantAccessServiceImpl implements UserTenantAccessService {
     private final TenantRepository tenantRepository;
     private final KeycloakAdminService keycloakAdminService;
     private final UserTenantAccessMapper mapper;
+    private final TenantAccessValidator tenantAccessValidator;
 
     @Override
     @Transactional
@@ -100,6 +102,7 @@ public class UserTenantAccessServiceImpl implements UserTenantAccessService {
         }
 
         access = userTenantAccessRepository.save(access);
+        tenantAccessValidator.evictAccessCache(access.getUserId(), access.getTenantId());
         log.info("Access updated successfully");
 
         return mapper.toDto(access);
@@ -115,6 +118,7 @@ public class UserTenantAccessServiceImpl implements UserTenantAccessService {
 
         access.setActive(false);
         userTenantAccessRepository.save(access);
+        tenantAccessValidator.evictAccessCache(access.getUserId(), access.getTenantId());
 
         log.info("Access revoked successfully");
     }
@@ -129,6 +133,7 @@ public class UserTenantAccessServiceImpl implements UserTenantAccessService {
 
         access.setActive(false);
         userTenantAccessRepository.save(access);
+        tenantAccessValidator.evictAccessCache(access.getUserId(), access.getTenantId());
 
         log.info("Access revoked successfully");
     }
@@ -281,6 +286,7 @@ public class UserTenantAccessServiceImpl implements UserTenantAccessService {
     public void removeAllTenantAccesses(String tenantId) {
         log.info("Removing all accesses for tenant {}", tenantId);
         userTenantAccessRepository.deleteByTenantId(tenantId);
+        tenantAccessValidator.evictAllAccessCaches();
         log.info("All accesses removed for tenant {}", tenantId);
     }
 
@@ -315,6 +321,7 @@ public class UserTenantAccessServiceImpl implements UserTenantAccessService {
         // Use a mutable HashSet instead of immutable Set.copyOf()
         access.setRoles(roles != null ? new HashSet<>(roles) : new HashSet<>());
         userTenantAccessRepository.save(access);
+        tenantAccessValidator.evictAccessCache(userId, tenantId);
         log.info("Updated roles for user {} in tenant {} to {}", userId, tenantId, roles);
     }
 
@@ -334,6 +341,7 @@ public class UserTenantAccessServiceImpl implements UserTenantAccessService {
         accesses.forEach(access -> {
             access.setActive(false);
             userTenantAccessRepository.save(access);
+            tenantAccessValidator.evictAccessCache(userId, access.getTenantId());
         });
 
         log.info("Revoked {} accesses for user {}", accesses.size(), userId);
@@ -0,0 +1,80 @@
+package sy.sezar.clinicx.tenant.spec;
+
+import org.springframework.data.jpa.domain.Specification;
+import sy.sezar.clinicx.tenant.model.TenantAccessAudit;
+
+import java.time.Instant;
+
+/**
+ * Specifications for querying TenantAccessAudit entities.
+ */
+public class TenantAccessAuditSpecifications {
+
+    private TenantAccessAuditSpecifications() {
+        // Utility class
+    }
+
+    /**
+     * Creates a specification for filtering audit entries by user.
+     *
+     * @param userId The Keycloak user ID, or null for all users.
+     * @return A Specification for the filter.
+     */
+    public static Specification<TenantAccessAudit> hasUser(String userId) {
+        return (root, query, criteriaBuilder) -> userId == null
+            ? criteriaBuilder.conjunction()
+            : criteriaBuilder.equal(root.get("userId"), userId);
+    }
+
+    /**
+     * Creates a specification for filtering audit entries by tenant.
+     *
+     * @param tenantId The tenant ID, or null for all tenants.
+     * @return A Specification for the filter.
+     */
+    public static Specification<TenantAccessAudit> hasTenant(String tenantId) {
+        return (root, query, criteriaBuilder) -> tenantId == null
+            ? criteriaBuilder.conjunction()
+            : criteriaBuilder.equal(root.get("tenantId"), tenantId);
+    }
+
+    /**
+     * Creates a specification for filtering audit entries by time range.
+     *
+     * @param from Inclusive lower bound, or null for no lower bound.
+     * @param to Exclusive upper bound, or null for no upper bound.
+     * @return A Specification for the filter.
+     */
+    public static Specification<TenantAccessAudit> occurredBetween(Instant from, Instant to) {
+        return (root, query, criteriaBuilder) -> {
+            if (from != null && to != null) {
+                return criteriaBuilder.and(
+                    criteriaBuilder.greaterThanOrEqualTo(root.get("occurredAt"), from),
+                    criteriaBuilder.lessThan(root.get("occurredAt"), to));
+            }
+            if (from != null) {
+                return criteriaBuilder.greaterThanOrEqualTo(root.get("occurredAt"), from);
+            }
+            if (to != null) {
+                return criteriaBuilder.lessThan(root.get("occurredAt"), to);
+            }
+            return criteriaBuilder.conjunction();
+        };
+    }
+
+    /**
+     * Combines the user, tenant and time range filters.
+     *
+     * @param userId The Keycloak user ID, or null.
+     * @param tenantId The tenant ID, or null.
+     * @param from Inclusive lower bound, or null.
+     * @param to Exclusive upper bound, or null.
+     * @return A combined Specification.
+     */
+    public static Specification<TenantAccessAudit> buildSearchSpecification(String userId, String tenantId,
+                                                                            Instant from, Instant to) {
+        return hasUser(userId)
+            .and(hasTenant(tenantId))
+            .and(occurredBetween(from, to));
+    }
+}
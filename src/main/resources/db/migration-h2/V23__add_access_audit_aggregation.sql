@@ -0,0 +1,6 @@
+-- Granted accesses can be recorded as one row per user, tenant and resource prefix per window (H2 Version)
+ALTER TABLE tenant_access_audit
+ADD COLUMN IF NOT EXISTS window_start TIMESTAMP;
+
+ALTER TABLE tenant_access_audit
+ADD COLUMN IF NOT EXISTS access_count BIGINT NOT NULL DEFAULT 1;
@@ -0,0 +1,7 @@
+-- Normalized search text of patients, kept in line with the searched columns by the application
+ALTER TABLE patients ADD COLUMN IF NOT EXISTS search_text VARCHAR(1000);
+
+UPDATE patients
+SET search_text = LOWER(CONCAT_WS(' ', full_name, public_facing_id,
+    NULLIF(REGEXP_REPLACE(phone_number, '[^0-9]', ''), ''), email, insurance_number,
+    FORMATDATETIME(date_of_birth, 'yyyy-MM-dd')));
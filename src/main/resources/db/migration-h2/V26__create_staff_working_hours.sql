@@ -0,0 +1,15 @@
+-- Weekly working hours of staff members, in the clinic's local time (H2 Version)
+CREATE TABLE IF NOT EXISTS staff_working_hours (
+    id          UUID PRIMARY KEY     DEFAULT RANDOM_UUID(),
+    staff_id    UUID        NOT NULL REFERENCES staff (id) ON DELETE CASCADE,
+    day_of_week VARCHAR(10) NOT NULL,
+    start_time  TIME        NOT NULL,
+    end_time    TIME        NOT NULL,
+    created_at  TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at  TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT chk_staff_working_hours_day CHECK (day_of_week IN
+        ('MONDAY', 'TUESDAY', 'WEDNESDAY', 'THURSDAY', 'FRIDAY', 'SATURDAY', 'SUNDAY')),
+    CONSTRAINT chk_staff_working_hours_period CHECK (start_time < end_time)
+);
+
+CREATE INDEX IF NOT EXISTS idx_staff_working_hours_staff ON staff_working_hours (staff_id, day_of_week, start_time);
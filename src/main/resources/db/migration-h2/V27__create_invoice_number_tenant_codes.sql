@@ -0,0 +1,9 @@
+-- Code of each tenant in its invoice numbers, registered by the application on the tenant's first
+-- invoice. Codes are derived from the tenant ID, so the unique constraint is what keeps two tenants
+-- from numbering their invoices alike; a tenant whose code is taken registers a numbered variant.
+CREATE TABLE IF NOT EXISTS invoice_number_tenant_codes (
+    tenant_id VARCHAR(100) PRIMARY KEY,
+    code VARCHAR(24) NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT uk_invoice_number_tenant_codes_code UNIQUE (code)
+);
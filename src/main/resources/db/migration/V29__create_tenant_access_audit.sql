@@ -0,0 +1,17 @@
+-- Tenant access audit trail written in batches by the background audit writer
+CREATE TABLE IF NOT EXISTS tenant_access_audit (
+    id          UUID PRIMARY KEY,
+    user_id     VARCHAR(255),
+    username    VARCHAR(255),
+    tenant_id   VARCHAR(100) NOT NULL,
+    resource    VARCHAR(1000),
+    access_type VARCHAR(20)  NOT NULL,
+    reason      VARCHAR(500),
+    occurred_at TIMESTAMPTZ  NOT NULL
+);
+
+-- Queries filter by tenant or user and a time range, newest first
+CREATE INDEX IF NOT EXISTS idx_tenant_access_audit_tenant_occurred ON tenant_access_audit(tenant_id, occurred_at DESC);
+CREATE INDEX IF NOT EXISTS idx_tenant_access_audit_user_occurred ON tenant_access_audit(user_id, occurred_at DESC);
+
+COMMENT ON TABLE tenant_access_audit IS 'Granted and denied tenant access checks. Append-only.';
@@ -0,0 +1,9 @@
+-- Granted accesses can be recorded as one row per user, tenant and resource prefix per window
+ALTER TABLE tenant_access_audit
+ADD COLUMN IF NOT EXISTS window_start TIMESTAMPTZ;
+
+ALTER TABLE tenant_access_audit
+ADD COLUMN IF NOT EXISTS access_count BIGINT NOT NULL DEFAULT 1;
+
+COMMENT ON COLUMN tenant_access_audit.window_start IS 'Start of the aggregation window; NULL for individually recorded accesses.';
+COMMENT ON COLUMN tenant_access_audit.access_count IS 'Number of accesses represented by the row.';
@@ -0,0 +1,8 @@
+-- Patient balances are maintained incrementally by the application from ledger entries.
+-- The triggers re-summed all invoices and payments of a patient on every row change.
+DROP TRIGGER IF EXISTS trg_invoices_balance_update ON invoices;
+DROP TRIGGER IF EXISTS trg_payments_balance_update ON payments;
+DROP FUNCTION IF EXISTS update_patient_balance();
+
+-- Supports the per-patient grouping of the balance reconciliation
+CREATE INDEX IF NOT EXISTS idx_ledger_patient_type ON ledger_entries(patient_id, entry_type, amount);
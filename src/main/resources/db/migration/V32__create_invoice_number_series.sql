@@ -0,0 +1,19 @@
+-- Invoice numbers are allocated per tenant and year from blocks leased by the application.
+-- next_value is the first number not yet leased from the series.
+CREATE TABLE IF NOT EXISTS invoice_number_series (
+    series_key VARCHAR(120) PRIMARY KEY,
+    next_value BIGINT NOT NULL,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Audit of allocated numbers that were never used on an invoice
+CREATE TABLE IF NOT EXISTS invoice_number_gaps (
+    id UUID PRIMARY KEY,
+    series_key VARCHAR(120) NOT NULL,
+    first_number BIGINT NOT NULL,
+    last_number BIGINT NOT NULL,
+    reason VARCHAR(30) NOT NULL,
+    recorded_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_invoice_number_gaps_series ON invoice_number_gaps(series_key, first_number);
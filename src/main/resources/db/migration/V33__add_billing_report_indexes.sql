@@ -0,0 +1,8 @@
+-- Indexes for the set-based billing reports, which aggregate invoices, payments and
+-- procedures by date range. The included columns let the aggregations run from the index.
+CREATE INDEX IF NOT EXISTS idx_invoices_issue_date ON invoices(issue_date)
+    INCLUDE (total_amount, amount_paid, status);
+CREATE INDEX IF NOT EXISTS idx_payments_date_type ON payments(payment_date, type)
+    INCLUDE (amount, payment_method, status);
+CREATE INDEX IF NOT EXISTS idx_invoice_items_invoice ON invoice_items(invoice_id);
+CREATE INDEX IF NOT EXISTS idx_visits_visit_date ON visits(date);
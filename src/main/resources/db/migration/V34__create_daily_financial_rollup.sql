@@ -0,0 +1,21 @@
+-- Ledger entries remember the tenant they were recorded for, so the rollup can be rebuilt from them
+ALTER TABLE ledger_entries ADD COLUMN IF NOT EXISTS tenant_id VARCHAR(100);
+
+-- Daily totals of ledger entries per tenant, doctor, payment method and procedure code, maintained
+-- by the application after each commit and verified nightly against ledger_entries.
+-- Unattributed dimensions use the nil UUID and empty strings, so they can be part of the key.
+CREATE TABLE IF NOT EXISTS daily_financial_rollup (
+    tenant_id VARCHAR(100) NOT NULL,
+    rollup_date DATE NOT NULL,
+    doctor_id UUID NOT NULL,
+    payment_method VARCHAR(50) NOT NULL,
+    procedure_code VARCHAR(20) NOT NULL,
+    entry_type VARCHAR(50) NOT NULL,
+    amount DECIMAL(14, 2) NOT NULL DEFAULT 0,
+    entry_count BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (tenant_id, rollup_date, doctor_id, payment_method, procedure_code, entry_type)
+);
+
+-- Date range scans of the nightly verification and rebuild
+CREATE INDEX IF NOT EXISTS idx_ledger_occurred_at ON ledger_entries(occurred_at);
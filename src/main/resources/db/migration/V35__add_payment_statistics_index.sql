@@ -0,0 +1,4 @@
+-- Per-patient payment statistics aggregate a patient's payments by date window in one pass.
+-- The included columns let that aggregation run from the index.
+CREATE INDEX IF NOT EXISTS idx_payments_patient_date ON payments(patient_id, payment_date)
+    INCLUDE (type, payment_method, amount, status);
@@ -0,0 +1,20 @@
+-- Invoice aging buckets the materialized amount due of open invoices by due date.
+-- Invoices opened before the amounts were materialized carry their defaults, so the amounts of
+-- open invoices are recomputed from their payments first.
+UPDATE invoices i
+SET amount_paid = COALESCE(paid.amount, 0),
+    amount_due = GREATEST(COALESCE(i.sub_total, i.total_amount) - COALESCE(i.discount_amount, 0)
+        + COALESCE(i.tax_amount, 0) + COALESCE(i.adjustment_amount, 0) - COALESCE(i.write_off_amount, 0)
+        - COALESCE(paid.amount, 0), 0)
+FROM invoices o
+LEFT JOIN (SELECT p.invoice_id, SUM(p.amount) AS amount FROM payments p GROUP BY p.invoice_id) paid
+    ON paid.invoice_id = o.id
+WHERE o.id = i.id
+  AND i.status IN ('UNPAID', 'PARTIALLY_PAID', 'OVERDUE')
+  AND i.amount_due = 0;
+
+-- Open invoices are a small part of all invoices; the partial index holds only them, in patient
+-- order for the per-patient drill-down, and covers the aging aggregation.
+CREATE INDEX IF NOT EXISTS idx_invoices_open_aging ON invoices(patient_id, due_date)
+    INCLUDE (issue_date, total_amount, amount_paid, amount_due)
+    WHERE status IN ('UNPAID', 'PARTIALLY_PAID', 'OVERDUE');
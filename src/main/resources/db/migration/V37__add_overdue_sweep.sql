@@ -0,0 +1,24 @@
+-- Billing events written by the overdue sweep for each invoice and installment it marks overdue,
+-- pending until a reminder has been sent for them.
+CREATE TABLE IF NOT EXISTS billing_events (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    tenant_id VARCHAR(100) NOT NULL,
+    event_type VARCHAR(50) NOT NULL,
+    patient_id UUID NOT NULL,
+    invoice_id UUID,
+    installment_id UUID,
+    amount DECIMAL(10, 2),
+    due_date DATE,
+    occurred_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    notified_at TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_billing_events_pending ON billing_events(occurred_at) WHERE notified_at IS NULL;
+CREATE INDEX IF NOT EXISTS idx_billing_events_invoice_id ON billing_events(invoice_id);
+
+-- Candidates of the overdue sweep. Rows marked overdue, paid or cancelled leave these indexes, so
+-- a sweep reads only the rows it is about to mark.
+CREATE INDEX IF NOT EXISTS idx_invoices_overdue_candidates ON invoices(due_date)
+    WHERE status IN ('UNPAID', 'PARTIALLY_PAID');
+CREATE INDEX IF NOT EXISTS idx_installments_overdue_candidates ON payment_plan_installments(due_date)
+    WHERE status IN ('PENDING', 'PARTIALLY_PAID');
@@ -0,0 +1,17 @@
+-- Balance of each patient at month boundaries: the sum of the balance changes of the patient's
+-- ledger entries that occurred before checkpoint_at. A balance as of any point is then the
+-- nearest earlier checkpoint plus the few entries after it.
+CREATE TABLE IF NOT EXISTS ledger_checkpoints (
+    patient_id UUID NOT NULL,
+    checkpoint_at TIMESTAMP NOT NULL,
+    balance DECIMAL(14, 2) NOT NULL,
+    entry_count BIGINT NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (patient_id, checkpoint_at),
+    CONSTRAINT fk_ledger_checkpoint_patient FOREIGN KEY (patient_id) REFERENCES patients (id) ON DELETE CASCADE
+);
+
+-- Ledger pages and the tails after a checkpoint are read in (occurred_at, id) order, which also
+-- breaks ties between entries recorded at the same instant.
+CREATE INDEX IF NOT EXISTS idx_ledger_patient_occurred_id ON ledger_entries(patient_id, occurred_at, id);
+DROP INDEX IF EXISTS idx_ledger_patient_date;
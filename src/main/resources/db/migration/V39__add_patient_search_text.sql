@@ -0,0 +1,22 @@
+-- Patient search matches a normalized search text instead of LIKE '%term%' on each column, which
+-- no btree index can serve. The application keeps the text in line with the searched columns on
+-- every write, and this backfill follows the same rule (PatientSearchText): lower case, phone reduced
+-- to its digits, date of birth as YYYY-MM-DD, separated by spaces.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+ALTER TABLE patients ADD COLUMN IF NOT EXISTS search_text TEXT;
+
+UPDATE patients
+SET search_text = lower(concat_ws(' ', full_name, public_facing_id,
+    NULLIF(regexp_replace(phone_number, '[^0-9]', '', 'g'), ''), email, insurance_number,
+    to_char(date_of_birth, 'YYYY-MM-DD')));
+
+-- Substring matches of three characters or more
+CREATE INDEX IF NOT EXISTS idx_patients_search_text_trgm ON patients USING gin (search_text gin_trgm_ops);
+
+-- Name prefixes, in byte order so that LIKE 'prefix%' and the ordering of the matches use the index
+CREATE INDEX IF NOT EXISTS idx_patients_full_name_prefix ON patients ((lower(full_name) COLLATE "C"));
+
+-- Exact matches on the identifiers typed at the reception desk
+CREATE INDEX IF NOT EXISTS idx_patients_public_facing_id_lower ON patients (lower(public_facing_id));
+CREATE INDEX IF NOT EXISTS idx_patients_insurance_number_lower ON patients (lower(insurance_number));
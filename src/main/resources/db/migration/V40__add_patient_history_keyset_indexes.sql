@@ -0,0 +1,19 @@
+-- Patient history lists can be read in cursor mode: newest first by their date and id, each page
+-- seeking past the (date, id) of the previous one. Each index serves both directions, so the
+-- descending pages are read by scanning it backwards.
+CREATE INDEX IF NOT EXISTS idx_notes_patient_date_id ON notes(patient_id, note_date, id);
+CREATE INDEX IF NOT EXISTS idx_documents_patient_created_id ON documents(patient_id, created_at, id);
+CREATE INDEX IF NOT EXISTS idx_lab_requests_patient_sent_id ON lab_requests(patient_id, date_sent, id);
+
+-- These replace the indexes on patient_id alone, which they lead with.
+CREATE INDEX IF NOT EXISTS idx_visits_patient_date_id ON visits(patient_id, date, id);
+DROP INDEX IF EXISTS idx_visits_patient_id;
+
+CREATE INDEX IF NOT EXISTS idx_invoices_patient_issue_id ON invoices(patient_id, issue_date, id);
+DROP INDEX IF EXISTS idx_invoices_patient;
+
+-- Keeps the columns included for the payment statistics.
+CREATE INDEX IF NOT EXISTS idx_payments_patient_date_id ON payments(patient_id, payment_date, id)
+    INCLUDE (type, payment_method, amount, status);
+DROP INDEX IF EXISTS idx_payments_patient_date;
+DROP INDEX IF EXISTS idx_payments_patient;
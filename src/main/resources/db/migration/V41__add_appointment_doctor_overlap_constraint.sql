@@ -0,0 +1,44 @@
+-- A doctor cannot hold two appointments whose [start, start + duration) ranges overlap. Cancelled
+-- and no-show appointments free their slot, and appointments without a doctor are not checked.
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+-- timestamptz + interval is only STABLE, as adding days or months depends on the time zone.
+-- Adding minutes does not, so the range of an appointment can be indexed through this function.
+CREATE OR REPLACE FUNCTION appointment_range(start_at TIMESTAMPTZ, duration_minutes INT)
+    RETURNS TSTZRANGE
+    LANGUAGE sql
+    IMMUTABLE
+    PARALLEL SAFE
+AS $$
+    SELECT tstzrange(start_at, start_at + duration_minutes * INTERVAL '1 minute', '[)')
+$$;
+
+-- Existing double bookings would fail the constraint. Which of two overlapping bookings to keep is
+-- a decision for the clinic, not the migration, so it stops and lists them for an operator to move,
+-- shorten or cancel; completed appointments are history and can only be moved or shortened.
+DO $$
+DECLARE
+    overlapping TEXT;
+BEGIN
+    SELECT STRING_AGG(a.id || ' (' || a.status || ') overlaps ' || o.id || ' (' || o.status || ')', ', '
+                      ORDER BY a.appointment_datetime, a.id, o.id)
+    INTO overlapping
+    FROM appointments a
+    JOIN appointments o ON o.doctor_id = a.doctor_id AND o.id > a.id
+    WHERE a.status NOT IN ('CANCELLED', 'NO_SHOW') AND o.status NOT IN ('CANCELLED', 'NO_SHOW')
+      AND appointment_range(o.appointment_datetime, o.duration_minutes)
+          && appointment_range(a.appointment_datetime, a.duration_minutes);
+    IF overlapping IS NOT NULL THEN
+        RAISE EXCEPTION 'Appointments of the same doctor overlap: %', overlapping
+            USING HINT = 'Move, shorten or cancel these appointments, then run the migration again';
+    END IF;
+END
+$$;
+
+ALTER TABLE appointments
+    ADD CONSTRAINT excl_appointments_doctor_overlap
+    EXCLUDE USING gist (
+        doctor_id WITH =,
+        appointment_range(appointment_datetime, duration_minutes) WITH &&
+    )
+    WHERE (doctor_id IS NOT NULL AND status NOT IN ('CANCELLED', 'NO_SHOW'));
@@ -0,0 +1,17 @@
+-- Weekly working hours of staff members, in the clinic's local time. A day may have several
+-- periods, such as a morning and an afternoon shift. Staff without any row work the default
+-- clinic hours configured for the application.
+CREATE TABLE staff_working_hours (
+    id          UUID PRIMARY KEY     DEFAULT gen_random_uuid(),
+    staff_id    UUID        NOT NULL REFERENCES staff (id) ON DELETE CASCADE,
+    day_of_week VARCHAR(10) NOT NULL,
+    start_time  TIME        NOT NULL,
+    end_time    TIME        NOT NULL,
+    created_at  TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+    updated_at  TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+    CONSTRAINT chk_staff_working_hours_day CHECK (day_of_week IN
+        ('MONDAY', 'TUESDAY', 'WEDNESDAY', 'THURSDAY', 'FRIDAY', 'SATURDAY', 'SUNDAY')),
+    CONSTRAINT chk_staff_working_hours_period CHECK (start_time < end_time)
+);
+
+CREATE INDEX idx_staff_working_hours_staff ON staff_working_hours (staff_id, day_of_week, start_time);
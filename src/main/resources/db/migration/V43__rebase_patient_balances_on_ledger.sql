@@ -0,0 +1,47 @@
+-- Balances maintained by the triggers dropped in V31 were sums over invoices and payments, not over
+-- ledger_entries, so they do not match the ledger of patients with history from before the ledger.
+-- Each such patient gets one OPENING_BALANCE entry for the difference, which makes the ledger the source
+-- of the balance the patient already has: reconciliation no longer reports these patients, and its
+-- repair no longer overwrites their balances with the partial ledger sum.
+-- The entry is dated just before the patient's first ledger entry, so statements open with it, and its
+-- own type keeps it out of revenue and cash; analytics read no rollup rows for it, so none are added.
+-- The balance change per entry type follows LedgerEntryType; CREDIT_APPLIED does not change it.
+INSERT INTO ledger_entries (patient_id, tenant_id, entry_type, amount, occurred_at, description)
+SELECT p.id,
+       (SELECT t.tenant_id
+        FROM ledger_entries t
+        WHERE t.patient_id = p.id AND t.tenant_id IS NOT NULL
+        ORDER BY t.occurred_at DESC
+        LIMIT 1),
+       'OPENING_BALANCE',
+       p.balance - COALESCE(l.ledger_balance, 0),
+       COALESCE(l.first_occurred_at - INTERVAL '1 second', CURRENT_TIMESTAMP),
+       'Opening balance carried over from the balance before the ledger'
+FROM patients p
+LEFT JOIN (
+    SELECT patient_id,
+           SUM(CASE entry_type
+                   WHEN 'CHARGE' THEN ABS(amount)
+                   WHEN 'TAX' THEN ABS(amount)
+                   WHEN 'REFUND' THEN ABS(amount)
+                   WHEN 'DISCOUNT' THEN -ABS(amount)
+                   WHEN 'WRITE_OFF' THEN -ABS(amount)
+                   WHEN 'PAYMENT_RECEIPT' THEN -ABS(amount)
+                   WHEN 'ADJUSTMENT' THEN amount
+                   ELSE 0
+               END) AS ledger_balance,
+           MIN(occurred_at) AS first_occurred_at
+    FROM ledger_entries
+    GROUP BY patient_id
+) l ON l.patient_id = p.id
+WHERE p.balance IS NOT NULL
+  AND p.balance <> COALESCE(l.ledger_balance, 0);
+
+-- Checkpoints already written are balances before their instant, which now include the opening balance.
+UPDATE ledger_checkpoints c
+SET balance = c.balance + o.amount,
+    entry_count = c.entry_count + 1
+FROM ledger_entries o
+WHERE o.patient_id = c.patient_id
+  AND o.entry_type = 'OPENING_BALANCE'
+  AND o.occurred_at < c.checkpoint_at;
@@ -0,0 +1,185 @@
+package sy.sezar.clinicx.core.export;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import sy.sezar.clinicx.core.exception.BusinessRuleException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.Inflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("TableWriter Tests")
+class TableWriterTest {
+
+    private static final List<String> HEADER = List.of("Date", "Patient", "Amount");
+
+    @Test
+    @DisplayName("Should quote CSV fields that contain separators, quotes or line breaks")
+    void csv_QuotesFields() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (TableWriter writer = new CsvTableWriter(out)) {
+            writer.writeHeader(HEADER);
+            writer.writeRow(LocalDate.of(2026, 3, 1), "Smith, \"Jo\"", new BigDecimal("1E+2"));
+            writer.writeRow(null, "Line\nbreak", null);
+        }
+
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo(
+            "\uFEFFDate,Patient,Amount\r\n"
+                + "2026-03-01,\"Smith, \"\"Jo\"\"\",100\r\n"
+                + ",\"Line\nbreak\",\r\n");
+    }
+
+    @Test
+    @DisplayName("Should write an XLSX package with numeric and inline string cells")
+    void xlsx_WritesWorkbook() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (TableWriter writer = new XlsxTableWriter(out, "Payments")) {
+            writer.writeHeader(HEADER);
+            writer.writeRow(LocalDate.of(2026, 3, 1), "A & B <C>", new BigDecimal("12.50"));
+        }
+
+        Map<String, String> entries = unzip(out.toByteArray());
+        assertThat(entries).containsOnlyKeys("[Content_Types].xml", "_rels/.rels", "xl/workbook.xml",
+            "xl/_rels/workbook.xml.rels", "xl/worksheets/sheet1.xml");
+        assertThat(entries.get("xl/worksheets/sheet1.xml")).contains(
+            "<row><c t=\"inlineStr\"><is><t xml:space=\"preserve\">2026-03-01</t></is></c>"
+                + "<c t=\"inlineStr\"><is><t xml:space=\"preserve\">A &amp; B &lt;C&gt;</t></is></c>"
+                + "<c><v>12.50</v></c></row></sheetData>");
+        assertThat(entries.get("xl/workbook.xml")).contains("<sheet name=\"Payments\" sheetId=\"1\" r:id=\"rId1\"/>");
+    }
+
+    @Test
+    @DisplayName("Should continue full sheets on new sheets that repeat the header")
+    void xlsx_RollsOverSheets() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (TableWriter writer = new XlsxTableWriter(out, "Payments", 3)) {
+            writer.writeHeader(HEADER);
+            for (int i = 1; i <= 5; i++) {
+                writer.writeRow(null, "Patient " + i, i);
+            }
+        }
+
+        Map<String, String> entries = unzip(out.toByteArray());
+        assertThat(entries).containsKeys("xl/worksheets/sheet1.xml", "xl/worksheets/sheet2.xml",
+            "xl/worksheets/sheet3.xml");
+        assertThat(entries.get("xl/worksheets/sheet3.xml").split("<row>")).hasSize(3)
+            .anySatisfy(row -> assertThat(row).contains("Amount"))
+            .anySatisfy(row -> assertThat(row).contains("Patient 5"));
+        assertThat(entries.get("xl/workbook.xml")).contains("name=\"Payments 3\"");
+        assertThat(entries.get("[Content_Types].xml")).contains("/xl/worksheets/sheet3.xml");
+    }
+
+    @Test
+    @DisplayName("Should write a paginated PDF with a valid cross-reference table")
+    void pdf_WritesPages() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (TableWriter writer = new PdfTableWriter(out, "Payments (March)")) {
+            writer.writeHeader(HEADER);
+            for (int i = 1; i <= 120; i++) {
+                writer.writeRow(LocalDate.of(2026, 3, 1), "Patient " + i, new BigDecimal("10.00"));
+            }
+        }
+
+        byte[] pdf = out.toByteArray();
+        String text = new String(pdf, StandardCharsets.ISO_8859_1);
+        assertThat(text).startsWith("%PDF-1.4").endsWith("%%EOF\n");
+        assertThat(text).contains("/Type /Pages /Count 3 ");
+
+        Matcher startXref = Pattern.compile("startxref\n(\\d+)\n").matcher(text);
+        assertThat(startXref.find()).isTrue();
+        int xref = Integer.parseInt(startXref.group(1));
+        assertThat(text.substring(xref)).startsWith("xref\n0 13\n");
+        Matcher entries = Pattern.compile("(\\d{10}) 00000 n ").matcher(text.substring(xref));
+        for (int object = 1; object < 13; object++) {
+            assertThat(entries.find()).isTrue();
+            assertThat(text.substring(Integer.parseInt(entries.group(1)))).startsWith(object + " 0 obj\n");
+        }
+
+        String firstPage = inflate(pdf, text.indexOf("stream\n", text.indexOf("\n7 0 obj\n")) + 7);
+        assertThat(firstPage)
+            .contains(shown("Payments (March)"))
+            .contains(shown("Patient 1"))
+            .contains(shown("Page 1"))
+            .doesNotContain(shown("Patient 120"));
+    }
+
+    @Test
+    @DisplayName("Should embed the font and print Arabic names with joined letters from right to left")
+    void pdf_PrintsArabicNames() throws Exception {
+        // Muhammad: meem, hah, meem, dal
+        String name = "\u0645\u062d\u0645\u062f";
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (TableWriter writer = new PdfTableWriter(out, "Payments")) {
+            writer.writeHeader(HEADER);
+            writer.writeRow(LocalDate.of(2026, 3, 1), name, new BigDecimal("10.00"));
+        }
+
+        byte[] pdf = out.toByteArray();
+        String text = new String(pdf, StandardCharsets.ISO_8859_1);
+        assertThat(text).contains("/Subtype /CIDFontType2", "/Encoding /Identity-H", "/FontFile2 6 0 R");
+
+        PdfFont.Glyphs glyphs = PdfFont.regular().layout(name);
+        // The final dal is leftmost, followed by the medial meem and hah and the initial meem
+        assertThat(glyphs.ids()).containsExactly(glyph("\uFEAA"), glyph("\uFEE4"), glyph("\uFEA4"), glyph("\uFEE3"));
+        assertThat(inflate(pdf, text.indexOf("stream\n", text.indexOf("\n7 0 obj\n")) + 7)).contains(shown(glyphs));
+    }
+
+    @Test
+    @DisplayName("Should parse format names and reject unknown formats")
+    void exportFormat_Parses() {
+        assertThat(ExportFormat.from("excel")).isEqualTo(ExportFormat.XLSX);
+        assertThat(ExportFormat.from(" pdf ")).isEqualTo(ExportFormat.PDF);
+        assertThatThrownBy(() -> ExportFormat.from("DOCX")).isInstanceOf(BusinessRuleException.class);
+    }
+
+    /** Text operator showing a line as laid out by the writer's font. */
+    private static String shown(String line) {
+        return shown(PdfFont.regular().layout(line));
+    }
+
+    private static String shown(PdfFont.Glyphs glyphs) {
+        StringBuilder shown = new StringBuilder(" Tm [<");
+        for (int id : glyphs.ids()) {
+            shown.append(String.format("%04x", id));
+        }
+        return shown.append(">] TJ").toString();
+    }
+
+    /** Glyph of a single Arabic presentation form. */
+    private static int glyph(String presentationForm) {
+        return PdfFont.regular().layout(presentationForm).ids()[0];
+    }
+
+    private static Map<String, String> unzip(byte[] bytes) throws IOException {
+        Map<String, String> entries = new LinkedHashMap<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(bytes))) {
+            for (ZipEntry entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+                entries.put(entry.getName(), new String(zip.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+        return entries;
+    }
+
+    private static String inflate(byte[] pdf, int offset) throws Exception {
+        Inflater inflater = new Inflater();
+        inflater.setInput(pdf, offset, pdf.length - offset);
+        byte[] buffer = new byte[256 * 1024];
+        int length = inflater.inflate(buffer);
+        inflater.end();
+        return new String(buffer, 0, length, StandardCharsets.ISO_8859_1);
+    }
+}
@@ -0,0 +1,206 @@
+package sy.sezar.clinicx.core.pagination;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.lang.management.ManagementFactory;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Cost of one page of the patient list on PostgreSQL with 1M patients, as the entity query and
+ * its count read it before, and as the projection reads it with each count mode. For each page it
+ * reports the bytes PostgreSQL read from its buffers, from EXPLAIN (ANALYZE, BUFFERS), and the
+ * bytes the test thread allocated to read the rows over JDBC; the allocation of hydrating and
+ * tracking the entities comes on top of the latter for the entity query. The data volume can be
+ * lowered with -Dbenchmark.patients.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@DisplayName("ProjectionQueryExecutor Benchmark Tests")
+class ProjectionQueryExecutorBenchmarkTest {
+
+    private static final int PATIENTS = Integer.getInteger("benchmark.patients", 1_000_000);
+    private static final int WARMUP = 3;
+    private static final int ITERATIONS = Integer.getInteger("benchmark.iterations", 20);
+    private static final int PAGE_SIZE = 20;
+    private static final long BLOCK_SIZE = 8192;
+
+    /** The columns of a patient entity, as the list loaded them before. */
+    private static final String ENTITY_PAGE_SQL = """
+        SELECT id, public_facing_id, full_name, date_of_birth, gender, phone_number, email, address,
+               insurance_provider, insurance_number, important_medical_notes, balance, is_active,
+               created_at, updated_at, created_by, search_text
+        FROM patients ORDER BY full_name OFFSET %d LIMIT %d
+        """;
+
+    /** The columns of the patient summary, as the projection selects them. */
+    private static final String PROJECTED_PAGE_SQL = """
+        SELECT id, public_facing_id, full_name, date_of_birth, gender, phone_number, email, address,
+               insurance_provider, insurance_number, important_medical_notes, balance
+        FROM patients ORDER BY full_name OFFSET %d LIMIT %d
+        """;
+
+    private static final String COUNT_SQL = "SELECT count(*) FROM patients";
+
+    private static final String ESTIMATE_SQL =
+        "SELECT reltuples::bigint FROM pg_class WHERE oid = to_regclass('patients')";
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private static JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    static void generateData() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+            POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        long start = System.nanoTime();
+        jdbcTemplate.execute("""
+            CREATE TABLE patients (
+                id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+                public_facing_id VARCHAR(20) UNIQUE NOT NULL,
+                full_name VARCHAR(150) NOT NULL,
+                date_of_birth DATE NOT NULL,
+                gender VARCHAR(10),
+                phone_number VARCHAR(30),
+                email VARCHAR(100),
+                address TEXT,
+                insurance_provider VARCHAR(100),
+                insurance_number VARCHAR(50),
+                important_medical_notes TEXT,
+                balance DECIMAL(10, 2) NOT NULL DEFAULT 0.00,
+                is_active BOOLEAN NOT NULL DEFAULT TRUE,
+                created_at TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+                updated_at TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+                created_by UUID,
+                search_text TEXT
+            )
+            """);
+        jdbcTemplate.execute("CREATE INDEX idx_patients_name ON patients(full_name)");
+        jdbcTemplate.execute("""
+            INSERT INTO patients (public_facing_id, full_name, date_of_birth, gender, phone_number, email, address,
+                                  insurance_provider, insurance_number, important_medical_notes, balance, search_text)
+            SELECT 'P-' || lpad(g::text, 7, '0'),
+                   'Patient ' || md5(g::text),
+                   DATE '1940-01-01' + (g * 7919) %% 30000,
+                   CASE WHEN g %% 2 = 0 THEN 'FEMALE' ELSE 'MALE' END,
+                   '09' || lpad(((g::bigint * 48271) %% 100000000)::text, 8, '0'),
+                   CASE WHEN g %% 3 = 0 THEN 'patient' || g || '@example.com' END,
+                   g || ' Baghdad Street, Damascus',
+                   'Provider ' || g %% 20,
+                   CASE WHEN g %% 4 = 0 THEN 'INS-' || g END,
+                   CASE WHEN g %% 10 = 0 THEN repeat('Allergic to penicillin. ', 4) END,
+                   (g %% 1000) - 500,
+                   'patient ' || md5(g::text) || ' p-' || lpad(g::text, 7, '0')
+            FROM generate_series(1, %d) g
+            """.formatted(PATIENTS));
+        jdbcTemplate.execute("VACUUM ANALYZE patients");
+        System.out.printf("Generated %d patients in %.1f s%n", PATIENTS, (System.nanoTime() - start) / 1_000_000_000.0);
+    }
+
+    @Test
+    @DisplayName("Benchmark: bytes read and allocated per page, entity page and count vs projection")
+    void benchmark_BytesPerPage() {
+        long estimate = jdbcTemplate.queryForObject(ESTIMATE_SQL, Long.class);
+        assertThat(estimate).isGreaterThan(ProjectionQueryExecutor.ESTIMATE_THRESHOLD);
+
+        Map<String, List<String>> modes = new LinkedHashMap<>();
+        for (int page : new int[] {0, 50}) {
+            int offset = page * PAGE_SIZE;
+            modes.put("entity + count, page " + page, List.of(
+                ENTITY_PAGE_SQL.formatted(offset, PAGE_SIZE), COUNT_SQL));
+            modes.put("projection EXACT, page " + page, List.of(
+                PROJECTED_PAGE_SQL.formatted(offset, PAGE_SIZE), COUNT_SQL));
+            modes.put("projection ESTIMATED, page " + page, List.of(
+                PROJECTED_PAGE_SQL.formatted(offset, PAGE_SIZE + 1), ESTIMATE_SQL));
+            modes.put("projection NONE, page " + page, List.of(
+                PROJECTED_PAGE_SQL.formatted(offset, PAGE_SIZE + 1)));
+        }
+
+        System.out.printf("%-32s %14s %16s %10s %10s%n",
+            "Page", "Read (bytes)", "Allocated (B)", "p50 (ms)", "p99 (ms)");
+        Map<String, Long> bytesRead = new LinkedHashMap<>();
+        modes.forEach((name, statements) -> {
+            long read = statements.stream().mapToLong(ProjectionQueryExecutorBenchmarkTest::bytesRead).sum();
+            bytesRead.put(name, read);
+
+            for (int i = 0; i < WARMUP; i++) {
+                statements.forEach(ProjectionQueryExecutorBenchmarkTest::readRows);
+            }
+            double[] millis = new double[ITERATIONS];
+            long[] allocated = new long[ITERATIONS];
+            for (int i = 0; i < ITERATIONS; i++) {
+                long allocatedBefore = allocatedBytes();
+                long start = System.nanoTime();
+                statements.forEach(ProjectionQueryExecutorBenchmarkTest::readRows);
+                millis[i] = (System.nanoTime() - start) / 1_000_000.0;
+                allocated[i] = allocatedBytes() - allocatedBefore;
+            }
+            Arrays.sort(millis);
+            Arrays.sort(allocated);
+            System.out.printf("%-32s %14d %16d %10.1f %10.1f%n", name, read, allocated[ITERATIONS / 2],
+                percentile(millis, 0.50), percentile(millis, 0.99));
+        });
+
+        // Leaving the count out leaves only the page to read
+        assertThat(bytesRead.get("projection NONE, page 0")).isLessThan(bytesRead.get("entity + count, page 0"));
+        assertThat(bytesRead.get("projection ESTIMATED, page 0")).isLessThan(bytesRead.get("entity + count, page 0"));
+    }
+
+    /**
+     * Returns the bytes of the shared buffers a statement hit or read, run once under EXPLAIN ANALYZE.
+     */
+    private static long bytesRead(String sql) {
+        String plan = jdbcTemplate.queryForObject("EXPLAIN (ANALYZE, BUFFERS, FORMAT JSON) " + sql, String.class);
+        try {
+            JsonNode root = OBJECT_MAPPER.readTree(plan).get(0).get("Plan");
+            return (root.get("Shared Hit Blocks").asLong() + root.get("Shared Read Blocks").asLong()) * BLOCK_SIZE;
+        } catch (Exception e) {
+            throw new IllegalStateException("Unreadable plan: " + plan, e);
+        }
+    }
+
+    private static void readRows(String sql) {
+        List<Object[]> rows = new ArrayList<>();
+        jdbcTemplate.query(sql, (ResultSet rs) -> {
+            rows.add(row(rs));
+        });
+        assertThat(rows).isNotEmpty();
+    }
+
+    private static Object[] row(ResultSet rs) throws SQLException {
+        Object[] row = new Object[rs.getMetaData().getColumnCount()];
+        for (int i = 0; i < row.length; i++) {
+            row[i] = rs.getObject(i + 1);
+        }
+        return row;
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getCurrentThreadAllocatedBytes();
+    }
+
+    private static double percentile(double[] sorted, double percentile) {
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+}
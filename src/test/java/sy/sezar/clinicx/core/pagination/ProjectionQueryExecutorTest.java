@@ -0,0 +1,203 @@
+package sy.sezar.clinicx.core.pagination;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.Selection;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mapstruct.factory.Mappers;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import sy.sezar.clinicx.clinic.dto.StaffSearchCriteria;
+import sy.sezar.clinicx.clinic.model.Specialty;
+import sy.sezar.clinicx.clinic.model.Staff;
+import sy.sezar.clinicx.clinic.model.enums.StaffRole;
+import sy.sezar.clinicx.clinic.spec.StaffSpecifications;
+import sy.sezar.clinicx.patient.dto.PatientSummaryDto;
+import sy.sezar.clinicx.patient.mapper.*;
+import sy.sezar.clinicx.patient.model.Patient;
+import sy.sezar.clinicx.patient.repository.*;
+import sy.sezar.clinicx.patient.service.impl.PatientServiceImpl;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+@DisplayName("ProjectionQueryExecutor Tests")
+class ProjectionQueryExecutorTest {
+
+    private static final int PATIENTS = 25;
+
+    private static final TupleProjection<Patient, String> NAMES = new TupleProjection<>(
+        (root, cb) -> List.<Selection<?>>of(root.get("fullName").alias("fullName")),
+        tuple -> tuple.get("fullName", String.class));
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private ProjectionQueryExecutor executor;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        executor = new ProjectionQueryExecutor(entityManager, jdbcTemplate);
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        for (int i = 0; i < PATIENTS; i++) {
+            entityManager.persist(patient(i));
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    @DisplayName("Should count the total, except when the page shows it")
+    void findAll_Exact() {
+        statistics.clear();
+        Slice<String> first = executor.findAll(Patient.class, null, PageRequest.of(0, 10, Sort.by("fullName")),
+            CountMode.EXACT, NAMES);
+
+        assertThat(first).isInstanceOf(Page.class);
+        assertThat(((Page<String>) first).getTotalElements()).isEqualTo(PATIENTS);
+        assertThat(first.getContent()).containsExactly(
+            "Patient 00", "Patient 01", "Patient 02", "Patient 03", "Patient 04",
+            "Patient 05", "Patient 06", "Patient 07", "Patient 08", "Patient 09");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+
+        statistics.clear();
+        Slice<String> last = executor.findAll(Patient.class, null, PageRequest.of(2, 10, Sort.by("fullName")),
+            CountMode.EXACT, NAMES);
+
+        assertThat(((Page<String>) last).getTotalElements()).isEqualTo(PATIENTS);
+        assertThat(last.getContent()).hasSize(5);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should return a slice without counting when no count is asked for")
+    void findAll_NoCount() {
+        statistics.clear();
+        Slice<String> first = executor.findAll(Patient.class, null, PageRequest.of(0, 10, Sort.by("fullName")),
+            CountMode.NONE, NAMES);
+
+        assertThat(first).isNotInstanceOf(Page.class);
+        assertThat(first.getContent()).hasSize(10);
+        assertThat(first.hasNext()).isTrue();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+        Slice<String> last = executor.findAll(Patient.class, null, PageRequest.of(2, 10, Sort.by("fullName")),
+            CountMode.NONE, NAMES);
+
+        assertThat(last.getContent()).containsExactly(
+            "Patient 20", "Patient 21", "Patient 22", "Patient 23", "Patient 24");
+        assertThat(last.hasNext()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should count exactly when the total cannot be estimated")
+    void findAll_EstimatedFallsBackToExact() {
+        Slice<String> page = executor.findAll(Patient.class, null, PageRequest.of(1, 10, Sort.by("fullName")),
+            CountMode.ESTIMATED, NAMES);
+
+        assertThat(page).isInstanceOf(Page.class);
+        assertThat(((Page<String>) page).getTotalElements()).isEqualTo(PATIENTS);
+        assertThat(page.getContent()).hasSize(10).first().isEqualTo("Patient 10");
+    }
+
+    @Test
+    @DisplayName("Should sort a distinct projection and count distinct rows")
+    void findAll_DistinctSpecification() {
+        Specialty orthodontics = specialty("Orthodontics");
+        Specialty surgery = specialty("Surgery");
+        staff("Zaid", Set.of(orthodontics, surgery), StaffRole.DOCTOR);
+        staff("Amal", Set.of(orthodontics), StaffRole.DOCTOR);
+        staff("Basel", Set.of(surgery), StaffRole.NURSE);
+        staff("Dima", Set.of(), StaffRole.DOCTOR);
+        entityManager.flush();
+        entityManager.clear();
+
+        StaffSearchCriteria criteria = new StaffSearchCriteria(
+            null, StaffRole.DOCTOR, Set.of(orthodontics.getId(), surgery.getId()), null);
+        TupleProjection<Staff, String> names = new TupleProjection<>(
+            (root, cb) -> List.<Selection<?>>of(root.get("fullName").alias("fullName")),
+            tuple -> tuple.get("fullName", String.class));
+
+        Slice<String> staff = executor.findAll(Staff.class, StaffSpecifications.withCriteria(criteria),
+            PageRequest.of(0, 1, Sort.by(Sort.Direction.DESC, "fullName")), CountMode.EXACT, names);
+
+        assertThat(staff.getContent()).containsExactly("Zaid");
+        assertThat(((Page<String>) staff).getTotalElements()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should project patient summaries equal to the mapped patients")
+    void findAllPatients_MatchesMappedEntities() {
+        PatientCentralMapper patientMapper = Mappers.getMapper(PatientCentralMapper.class);
+        PatientServiceImpl patientService = new PatientServiceImpl(
+            mock(PatientRepository.class), mock(DocumentRepository.class), mock(VisitRepository.class),
+            mock(AppointmentRepository.class), mock(NoteRepository.class), mock(LabRequestRepository.class),
+            mock(InvoiceRepository.class), mock(DentalChartRepository.class),
+            mock(UpcomingAppointmentsViewRepository.class), mock(PatientFinancialSummaryViewRepository.class),
+            patientMapper, mock(DocumentMapper.class), mock(VisitMapper.class), mock(AppointmentMapper.class),
+            mock(NoteSummaryMapper.class), mock(LabRequestMapper.class), executor);
+
+        Slice<PatientSummaryDto> patients = patientService.findAllPatients(
+            "patient 1", PageRequest.of(0, 20, Sort.by("fullName")), CountMode.NONE);
+
+        List<PatientSummaryDto> expected = entityManager.createQuery(
+                "SELECT p FROM Patient p WHERE p.fullName LIKE 'Patient 1%' ORDER BY p.fullName", Patient.class)
+            .getResultStream()
+            .map(patientMapper::toPatientSummaryDto)
+            .toList();
+        assertThat(expected).hasSize(10);
+        assertThat(patients.getContent()).containsExactlyElementsOf(expected);
+        assertThat(patients.hasNext()).isFalse();
+    }
+
+    private Patient patient(int i) {
+        Patient patient = new Patient();
+        patient.setPublicFacingId("P-" + i);
+        patient.setFullName("Patient %02d".formatted(i));
+        patient.setDateOfBirth(LocalDate.of(1950 + i, 1 + i % 12, 1 + i));
+        patient.setGender(i % 2 == 0 ? "FEMALE" : "MALE");
+        patient.setPhoneNumber("0944" + i);
+        patient.setEmail(i % 3 == 0 ? null : "patient" + i + "@example.com");
+        patient.setInsuranceProvider("Provider " + i % 4);
+        patient.setImportantMedicalNotes(i % 5 == 0 ? "Allergic to penicillin" : null);
+        patient.setBalance(BigDecimal.valueOf(i * 10L, 2));
+        return patient;
+    }
+
+    private Specialty specialty(String name) {
+        Specialty specialty = new Specialty();
+        specialty.setName(name);
+        entityManager.persist(specialty);
+        return specialty;
+    }
+
+    private void staff(String name, Set<Specialty> specialties, StaffRole role) {
+        Staff staff = new Staff();
+        staff.setFullName(name);
+        staff.setEmail(name.toLowerCase() + "@clinic.example");
+        staff.setRoles(new HashSet<>(Set.of(role)));
+        staff.setSpecialties(new HashSet<>(specialties));
+        entityManager.persist(staff);
+    }
+}
@@ -0,0 +1,226 @@
+package sy.sezar.clinicx.core.security;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.JWTParser;
+import com.nimbusds.jwt.SignedJWT;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import sy.sezar.clinicx.core.config.JwtDecoderProperties;
+import sy.sezar.clinicx.tenant.TenantContext;
+import sy.sezar.clinicx.tenant.model.Tenant;
+import sy.sezar.clinicx.tenant.service.TenantRegistry;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DisplayName("MultiTenantJwtDecoder Tests")
+class MultiTenantJwtDecoderTest {
+
+    private static final String REALM = "clinic-realm";
+    private static final String TENANT_ID = "tenant-1";
+
+    private HttpServer jwksServer;
+    private final AtomicInteger jwksFetches = new AtomicInteger();
+    private volatile JWKSet publishedKeys;
+    private String baseUrl;
+
+    private RSAKey signingKey;
+    private SimpleMeterRegistry meterRegistry;
+    private MultiTenantJwtDecoder decoder;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        signingKey = new RSAKeyGenerator(2048).keyID("key-1").generate();
+        publishedKeys = new JWKSet(signingKey.toPublicJWK());
+
+        jwksServer = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        jwksServer.createContext("/realms/" + REALM + "/protocol/openid-connect/certs", exchange -> {
+            jwksFetches.incrementAndGet();
+            byte[] body = publishedKeys.toString().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        jwksServer.start();
+        baseUrl = "http://localhost:" + jwksServer.getAddress().getPort();
+
+        TenantRegistry tenantRegistry = mock(TenantRegistry.class);
+        Tenant tenant = new Tenant();
+        tenant.setTenantId(TENANT_ID);
+        tenant.setRealmName(REALM);
+        when(tenantRegistry.findActiveByTenantId(TENANT_ID)).thenReturn(Optional.of(tenant));
+        when(tenantRegistry.getActiveRealmNames()).thenReturn(List.of(REALM));
+
+        JwtDecoderProperties properties = new JwtDecoderProperties();
+        properties.setMinRefreshIntervalSeconds(1);
+
+        meterRegistry = new SimpleMeterRegistry();
+        decoder = new MultiTenantJwtDecoder();
+        decoder.setTenantRegistry(tenantRegistry);
+        decoder.setKeycloakBaseUrl(baseUrl);
+        decoder.setMultiTenantEnabled(true);
+        decoder.setDefaultRealm("master-realm");
+        decoder.setProperties(properties);
+        decoder.setMeterRegistry(meterRegistry);
+        decoder.afterPropertiesSet();
+    }
+
+    @AfterEach
+    void tearDown() {
+        decoder.destroy();
+        jwksServer.stop(0);
+        TenantContext.clear();
+    }
+
+    @Test
+    @DisplayName("Should fetch the JWK set of a realm once and serve later tokens from memory")
+    void decode_FetchesJwkSetOnce() throws Exception {
+        decoder.onApplicationEvent(null);
+
+        for (int i = 0; i < 200; i++) {
+            Jwt jwt = decoder.decode(token(signingKey, TENANT_ID));
+            assertThat(jwt.getClaimAsString("tenant_id")).isEqualTo(TENANT_ID);
+        }
+
+        assertThat(jwksFetches.get()).isEqualTo(1);
+        assertThat(TenantContext.getCurrentTenant()).isEqualTo(TENANT_ID);
+        assertThat(meterRegistry.counter("jwt.jwks.fetch", "result", "success").count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should pick up rotated keys with one fetch and rate limit unknown key IDs")
+    void decode_KeyRotation() throws Exception {
+        decoder.decode(token(signingKey, TENANT_ID));
+        assertThat(jwksFetches.get()).isEqualTo(1);
+
+        // Wait past the minimum refresh interval, then rotate the realm key
+        Thread.sleep(1_100);
+        RSAKey rotatedKey = new RSAKeyGenerator(2048).keyID("key-2").generate();
+        publishedKeys = new JWKSet(List.of(signingKey.toPublicJWK(), rotatedKey.toPublicJWK()));
+
+        for (int i = 0; i < 50; i++) {
+            decoder.decode(token(rotatedKey, TENANT_ID));
+        }
+        assertThat(jwksFetches.get()).isEqualTo(2);
+
+        RSAKey unknownKey = new RSAKeyGenerator(2048).keyID("forged").generate();
+        for (int i = 0; i < 50; i++) {
+            assertThatThrownBy(() -> decoder.decode(token(unknownKey, TENANT_ID)))
+                .isInstanceOf(JwtException.class);
+        }
+        assertThat(jwksFetches.get()).isEqualTo(2);
+        assertThat(meterRegistry.counter("jwt.jwks.key.miss").count()).isGreaterThanOrEqualTo(51);
+    }
+
+    @Test
+    @DisplayName("Should reject tokens of inactive tenants")
+    void decode_InactiveTenant() throws Exception {
+        String token = token(signingKey, "tenant-2");
+
+        assertThatThrownBy(() -> decoder.decode(token)).isInstanceOf(JwtException.class);
+    }
+
+    @Test
+    @DisplayName("Should reject tokens issued by realms of no tenant without fetching their keys")
+    void decode_UnknownIssuerRealm() throws Exception {
+        for (int i = 0; i < 50; i++) {
+            String token = token(signingKey, baseUrl + "/realms/forged-" + i, TENANT_ID);
+
+            assertThatThrownBy(() -> decoder.decode(token)).isInstanceOf(JwtException.class);
+        }
+
+        assertThat(jwksFetches.get()).isZero();
+        assertThat(meterRegistry.counter("jwt.jwks.fetch", "result", "failure").count()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should reject tokens with an invalid signature")
+    void decode_InvalidSignature() throws Exception {
+        RSAKey otherKey = new RSAKeyGenerator(2048).keyID("key-1").generate();
+        String token = token(otherKey, TENANT_ID);
+
+        assertThatThrownBy(() -> decoder.decode(token)).isInstanceOf(JwtException.class);
+    }
+
+    @Test
+    @DisplayName("Benchmark: single parse decoder vs parse plus NimbusJwtDecoder")
+    void benchmark_DecodeThroughput() throws Exception {
+        String token = token(signingKey, TENANT_ID);
+        JwtDecoder nimbusDecoder = NimbusJwtDecoder
+            .withJwkSetUri(baseUrl + "/realms/" + REALM + "/protocol/openid-connect/certs")
+            .build();
+        JwtDecoder previousPath = value -> {
+            try {
+                // The previous decoder parsed the token to find the realm, then decoded it again
+                JWTParser.parse(value).getJWTClaimsSet();
+            } catch (Exception e) {
+                throw new JwtException("Failed to decode JWT", e);
+            }
+            return nimbusDecoder.decode(value);
+        };
+
+        int iterations = 5_000;
+        measure(previousPath, token, iterations);
+        measure(decoder, token, iterations);
+
+        double previousOpsPerSecond = measure(previousPath, token, iterations);
+        double currentOpsPerSecond = measure(decoder, token, iterations);
+
+        System.out.printf("Parse + NimbusJwtDecoder: %.0f ops/s%n", previousOpsPerSecond);
+        System.out.printf("MultiTenantJwtDecoder:    %.0f ops/s%n", currentOpsPerSecond);
+        assertThat(currentOpsPerSecond).isPositive();
+    }
+
+    private static double measure(JwtDecoder jwtDecoder, String token, int iterations) {
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            jwtDecoder.decode(token);
+        }
+        return iterations / ((System.nanoTime() - start) / 1_000_000_000.0);
+    }
+
+    private String token(RSAKey key, String tenantId) throws JOSEException {
+        return token(key, baseUrl + "/realms/" + REALM, tenantId);
+    }
+
+    private static String token(RSAKey key, String issuer, String tenantId) throws JOSEException {
+        JWTClaimsSet claims = new JWTClaimsSet.Builder()
+            .issuer(issuer)
+            .subject("user-1")
+            .claim("tenant_id", tenantId)
+            .issueTime(Date.from(Instant.now()))
+            .expirationTime(Date.from(Instant.now().plusSeconds(300)))
+            .build();
+        SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(key.getKeyID()).build(), claims);
+        jwt.sign(new RSASSASigner(key));
+        return jwt.serialize();
+    }
+}
@@ -0,0 +1,151 @@
+package sy.sezar.clinicx.patient.repository;
+
+import jakarta.persistence.EntityGraph;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import sy.sezar.clinicx.clinic.model.Specialty;
+import sy.sezar.clinicx.patient.model.Appointment;
+import sy.sezar.clinicx.patient.model.Invoice;
+import sy.sezar.clinicx.patient.model.Note;
+import sy.sezar.clinicx.patient.model.Patient;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+@DisplayName("PatientRepository Tests")
+class PatientRepositoryTest {
+
+    private static final int APPOINTMENTS = 500;
+    private static final int NOTES = 300;
+    private static final int INVOICES = 200;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    @DisplayName("Should load a patient with a single primary key query")
+    void findById_LoadsPatientOnly() {
+        UUID patientId = createPatientWithHistory("P-1", APPOINTMENTS, NOTES, INVOICES);
+
+        statistics.clear();
+        Patient patient = patientRepository.findById(patientId).orElseThrow();
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(Hibernate.isInitialized(patient.getAppointments())).isFalse();
+        assertThat(Hibernate.isInitialized(patient.getNotes())).isFalse();
+        assertThat(Hibernate.isInitialized(patient.getInvoices())).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should load dashboard collections with one query each")
+    void findDashboardById_LoadsCollectionsSeparately() {
+        UUID patientId = createPatientWithHistory("P-2", APPOINTMENTS, NOTES, INVOICES);
+
+        statistics.clear();
+        Patient patient = patientRepository.findDashboardById(patientId).orElseThrow();
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(4);
+        assertThat(patient.getAppointments()).hasSize(APPOINTMENTS);
+        assertThat(patient.getNotes()).hasSize(NOTES);
+        assertThat(patient.getInvoices()).hasSize(INVOICES);
+    }
+
+    @Test
+    @DisplayName("Benchmark: combined entity graph vs primary key load and dashboard fetch")
+    void benchmark_PatientLookup() {
+        UUID patientId = createPatientWithHistory("P-3", APPOINTMENTS, NOTES, INVOICES);
+        // A join over all three collections returns appointments x notes x invoices rows, which
+        // is 30 million rows at full size; the previous graph is measured on a smaller history
+        UUID smallPatientId = createPatientWithHistory("P-4", APPOINTMENTS / 10, NOTES / 10, INVOICES / 10);
+
+        long graphNanos = time(() -> {
+            EntityGraph<Patient> graph = entityManager.createEntityGraph(Patient.class);
+            graph.addAttributeNodes("appointments", "notes", "invoices");
+            entityManager.find(Patient.class, smallPatientId, Map.of("jakarta.persistence.fetchgraph", graph));
+        });
+        long findByIdNanos = time(() -> patientRepository.findById(patientId).orElseThrow());
+        long dashboardNanos = time(() -> patientRepository.findDashboardById(patientId).orElseThrow());
+
+        System.out.printf("Entity graph (%d x %d x %d = %d rows): %.2f ms%n",
+            APPOINTMENTS / 10, NOTES / 10, INVOICES / 10,
+            (long) (APPOINTMENTS / 10) * (NOTES / 10) * (INVOICES / 10), graphNanos / 1_000_000.0);
+        System.out.printf("findById (%d x %d x %d history): %.2f ms%n",
+            APPOINTMENTS, NOTES, INVOICES, findByIdNanos / 1_000_000.0);
+        System.out.printf("findDashboardById (%d rows): %.2f ms%n",
+            1 + APPOINTMENTS + NOTES + INVOICES, dashboardNanos / 1_000_000.0);
+        assertThat(findByIdNanos).isPositive();
+    }
+
+    private long time(Runnable lookup) {
+        entityManager.clear();
+        long start = System.nanoTime();
+        lookup.run();
+        long elapsed = System.nanoTime() - start;
+        entityManager.clear();
+        return elapsed;
+    }
+
+    private UUID createPatientWithHistory(String publicId, int appointments, int notes, int invoices) {
+        Specialty specialty = new Specialty();
+        specialty.setName("Specialty " + publicId);
+        entityManager.persist(specialty);
+
+        Patient patient = new Patient();
+        patient.setPublicFacingId(publicId);
+        patient.setFullName("Patient " + publicId);
+        patient.setDateOfBirth(LocalDate.of(1980, 1, 1));
+        entityManager.persist(patient);
+
+        Instant start = Instant.now().truncatedTo(ChronoUnit.HOURS);
+        for (int i = 0; i < appointments; i++) {
+            Appointment appointment = new Appointment();
+            appointment.setPatient(patient);
+            appointment.setSpecialty(specialty);
+            appointment.setAppointmentDatetime(start.minus(i, ChronoUnit.DAYS));
+            entityManager.persist(appointment);
+        }
+        for (int i = 0; i < notes; i++) {
+            Note note = new Note();
+            note.setPatient(patient);
+            note.setContent("Note " + i);
+            entityManager.persist(note);
+        }
+        for (int i = 0; i < invoices; i++) {
+            Invoice invoice = new Invoice();
+            invoice.setPatient(patient);
+            invoice.setInvoiceNumber(publicId + "-INV-" + i);
+            invoice.setIssueDate(LocalDate.now().minusDays(i));
+            invoice.setTotalAmount(BigDecimal.TEN);
+            entityManager.persist(invoice);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return patient.getId();
+    }
+}
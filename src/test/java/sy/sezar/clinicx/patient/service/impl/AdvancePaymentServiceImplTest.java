@@ -0,0 +1,264 @@
+package sy.sezar.clinicx.patient.service.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.mockito.ArgumentCaptor;
+import sy.sezar.clinicx.patient.dto.CreditApplicationResultDto;
+import sy.sezar.clinicx.patient.dto.PatientCreditBalanceDto;
+import sy.sezar.clinicx.patient.mapper.InvoiceMapper;
+import sy.sezar.clinicx.patient.model.Invoice;
+import sy.sezar.clinicx.patient.model.LedgerEntry;
+import sy.sezar.clinicx.patient.model.Patient;
+import sy.sezar.clinicx.patient.model.Payment;
+import sy.sezar.clinicx.patient.model.PaymentAllocation;
+import sy.sezar.clinicx.patient.model.enums.CreditAllocationPolicy;
+import sy.sezar.clinicx.patient.model.enums.InvoiceStatus;
+import sy.sezar.clinicx.patient.model.enums.LedgerEntryType;
+import sy.sezar.clinicx.patient.model.enums.PaymentMethod;
+import sy.sezar.clinicx.patient.model.enums.PaymentType;
+import sy.sezar.clinicx.patient.repository.InvoiceRepository;
+import sy.sezar.clinicx.patient.repository.PatientRepository;
+import sy.sezar.clinicx.patient.repository.PaymentAllocationRepository;
+import sy.sezar.clinicx.patient.repository.PaymentRepository;
+import sy.sezar.clinicx.patient.service.LedgerService;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DisplayName("AdvancePaymentServiceImpl Tests")
+class AdvancePaymentServiceImplTest {
+
+    private static final int SCENARIOS = 500;
+    private static final LocalDate START = LocalDate.of(2026, 1, 1);
+
+    private final PaymentRepository paymentRepository = mock(PaymentRepository.class);
+    private final PatientRepository patientRepository = mock(PatientRepository.class);
+    private final InvoiceRepository invoiceRepository = mock(InvoiceRepository.class);
+    private final PaymentAllocationRepository paymentAllocationRepository = mock(PaymentAllocationRepository.class);
+    private final LedgerService ledgerService = mock(LedgerService.class);
+    private AdvancePaymentServiceImpl service;
+
+    private final Patient patient = new Patient();
+
+    @BeforeEach
+    void setUp() {
+        service = new AdvancePaymentServiceImpl(paymentRepository, patientRepository, invoiceRepository, ledgerService,
+            mock(InvoiceMapper.class), paymentAllocationRepository);
+        patient.setId(UUID.randomUUID());
+        patient.setFullName("Test Patient");
+        when(patientRepository.existsById(patient.getId())).thenReturn(true);
+        when(patientRepository.findById(patient.getId())).thenReturn(Optional.of(patient));
+        // Persisting assigns the identifier, as the generated UUIDs of the entities would
+        when(paymentRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Payment> payments = invocation.getArgument(0);
+            payments.forEach(p -> p.setId(UUID.randomUUID()));
+            return payments;
+        });
+    }
+
+    @ParameterizedTest
+    @EnumSource(CreditAllocationPolicy.class)
+    @DisplayName("Property: money is conserved for random credits and invoices")
+    void autoApplyCredits_ConservesMoney(CreditAllocationPolicy policy) {
+        Random random = new Random(20261018L + policy.ordinal());
+        for (int scenario = 0; scenario < SCENARIOS; scenario++) {
+            List<Payment> credits = new ArrayList<>();
+            for (int i = random.nextInt(6); i > 0; i--) {
+                credits.add(credit(cents(random, 1, 50_000), START.plusDays(random.nextInt(90))));
+            }
+            List<Invoice> invoices = new ArrayList<>();
+            for (int i = random.nextInt(6); i > 0; i--) {
+                LocalDate issued = START.plusDays(random.nextInt(90));
+                invoices.add(invoice(cents(random, 1, 50_000), issued,
+                    random.nextInt(5) == 0 ? null : issued.plusDays(random.nextInt(60))));
+            }
+            BigDecimal creditBefore = sum(credits.stream().map(Payment::getAmount).toList());
+            BigDecimal dueBefore = sum(invoices.stream().map(Invoice::getAmountDue).toList());
+            Map<Invoice, BigDecimal> dueBeforeByInvoice = new HashMap<>();
+            invoices.forEach(i -> dueBeforeByInvoice.put(i, i.getAmountDue()));
+
+            stub(credits, invoices);
+            CreditApplicationResultDto result = service.autoApplyCredits(patient.getId(), policy);
+            List<Payment> created = capturedPayments();
+            List<PaymentAllocation> allocations = capturedAllocations();
+
+            // Credit is neither created nor lost: the credits after the run add up to the credits before
+            List<Payment> creditsAfter = new ArrayList<>(credits);
+            creditsAfter.addAll(created);
+            assertThat(sum(creditsAfter.stream().map(Payment::getAmount).toList())).isEqualByComparingTo(creditBefore);
+            assertThat(creditsAfter).allSatisfy(p -> assertThat(p.getAmount().signum()).isPositive());
+            BigDecimal unapplied = sum(creditsAfter.stream().filter(p -> p.getInvoice() == null)
+                .map(Payment::getAmount).toList());
+            assertThat(unapplied).isEqualByComparingTo(result.remainingCredit());
+
+            // What left the credits arrived on the invoices, and no invoice received more than it was due
+            BigDecimal applied = result.appliedAmount();
+            assertThat(applied).isEqualByComparingTo(creditBefore.min(dueBefore));
+            assertThat(applied.add(result.remainingCredit())).isEqualByComparingTo(creditBefore);
+            assertThat(sum(allocations.stream().map(PaymentAllocation::getAllocatedAmount).toList()))
+                .isEqualByComparingTo(applied);
+            assertThat(sum(invoices.stream().map(Invoice::getAmountPaid).toList())).isEqualByComparingTo(applied);
+            assertThat(sum(invoices.stream().map(Invoice::getAmountDue).toList()))
+                .isEqualByComparingTo(dueBefore.subtract(applied));
+            for (Invoice invoice : invoices) {
+                BigDecimal received = sum(allocations.stream().filter(a -> a.getInvoice() == invoice)
+                    .map(PaymentAllocation::getAllocatedAmount).toList());
+                assertThat(received).isEqualByComparingTo(invoice.getAmountPaid());
+                assertThat(received).isLessThanOrEqualTo(dueBeforeByInvoice.get(invoice));
+            }
+            // Every applied payment is allocated exactly to its invoice
+            for (Payment payment : creditsAfter) {
+                BigDecimal allocated = sum(allocations.stream().filter(a -> a.getPayment() == payment)
+                    .map(PaymentAllocation::getAllocatedAmount).toList());
+                assertThat(allocated).isEqualByComparingTo(payment.getInvoice() == null ? BigDecimal.ZERO : payment.getAmount());
+            }
+            clearInvocations(paymentRepository, paymentAllocationRepository, ledgerService);
+        }
+    }
+
+    @Test
+    @DisplayName("Should settle invoices by due date first with the oldest credits")
+    @SuppressWarnings("unchecked")
+    void autoApplyCredits_OldestDueFirst() {
+        Payment older = credit(new BigDecimal("30.00"), START);
+        Payment newer = credit(new BigDecimal("100.00"), START.plusDays(5));
+        Invoice issuedFirst = invoice(new BigDecimal("50.00"), START, START.plusDays(60));
+        Invoice dueFirst = invoice(new BigDecimal("60.00"), START.plusDays(10), START.plusDays(20));
+        stub(List.of(newer, older), List.of(issuedFirst, dueFirst));
+
+        CreditApplicationResultDto result = service.autoApplyCredits(patient.getId(), CreditAllocationPolicy.OLDEST_DUE_FIRST);
+
+        assertThat(result.allocations()).extracting(CreditApplicationResultDto.Allocation::invoiceId,
+                CreditApplicationResultDto.Allocation::amount)
+            .containsExactly(
+                tuple(dueFirst.getId(), new BigDecimal("30.00")),
+                tuple(dueFirst.getId(), new BigDecimal("30.00")),
+                tuple(issuedFirst.getId(), new BigDecimal("50.00")));
+        assertThat(dueFirst.getStatus()).isEqualTo(InvoiceStatus.PAID);
+        assertThat(issuedFirst.getStatus()).isEqualTo(InvoiceStatus.PAID);
+        assertThat(result.remainingCredit()).isEqualByComparingTo("20.00");
+        assertThat(older.getInvoice()).isSameAs(dueFirst);
+        assertThat(newer.getInvoice()).isSameAs(dueFirst);
+        assertThat(newer.getAmount()).isEqualByComparingTo("30.00");
+
+        // One batch of each kind, with ledger entries that move credit without touching the balance
+        verify(paymentAllocationRepository).saveAll(anyList());
+        ArgumentCaptor<List<LedgerEntry>> entries = ArgumentCaptor.forClass(List.class);
+        verify(ledgerService).recordAll(entries.capture());
+        assertThat(entries.getValue()).hasSize(3)
+            .allSatisfy(e -> assertThat(e.getEntryType()).isEqualTo(LedgerEntryType.CREDIT_APPLIED));
+        verify(ledgerService, never()).record(any(), any(), any(), any(), any(), any());
+        verify(paymentRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Should settle invoices in issue order with the FIFO policy")
+    void autoApplyCredits_Fifo() {
+        Invoice issuedFirst = invoice(new BigDecimal("50.00"), START, START.plusDays(60));
+        Invoice dueFirst = invoice(new BigDecimal("60.00"), START.plusDays(10), START.plusDays(20));
+        stub(List.of(credit(new BigDecimal("70.00"), START)), List.of(dueFirst, issuedFirst));
+
+        CreditApplicationResultDto result = service.autoApplyCredits(patient.getId(), CreditAllocationPolicy.FIFO);
+
+        assertThat(result.allocations()).extracting(CreditApplicationResultDto.Allocation::invoiceId)
+            .containsExactly(issuedFirst.getId(), dueFirst.getId());
+        assertThat(issuedFirst.getStatus()).isEqualTo(InvoiceStatus.PAID);
+        assertThat(dueFirst.getStatus()).isEqualTo(InvoiceStatus.PARTIALLY_PAID);
+        assertThat(dueFirst.getAmountDue()).isEqualByComparingTo("40.00");
+        assertThat(result.remainingCredit()).isEqualByComparingTo("0");
+    }
+
+    @Test
+    @DisplayName("Should compute the credit balance from one aggregate")
+    void getPatientCreditBalance_OneAggregate() {
+        PaymentRepository.CreditTotals totals = mock(PaymentRepository.CreditTotals.class);
+        when(totals.getTotalAmount()).thenReturn(new BigDecimal("150.00"));
+        when(totals.getAvailableAmount()).thenReturn(new BigDecimal("40.00"));
+        when(totals.getTotalCount()).thenReturn(4L);
+        when(totals.getAvailableCount()).thenReturn(1L);
+        when(paymentRepository.calculateCreditTotals(patient.getId())).thenReturn(totals);
+
+        PatientCreditBalanceDto balance = service.getPatientCreditBalance(patient.getId());
+
+        assertThat(balance.totalCredits()).isEqualByComparingTo("150.00");
+        assertThat(balance.appliedCredits()).isEqualByComparingTo("110.00");
+        assertThat(balance.availableCredits()).isEqualByComparingTo("40.00");
+        assertThat(balance.totalAdvancePayments()).isEqualTo(4);
+        assertThat(balance.unappliedAdvancePayments()).isEqualTo(1);
+        verify(paymentRepository, never()).findUnappliedAdvancePayments(any(), any());
+        verify(paymentRepository, never()).findByPatientIdAndTypeOrderByPaymentDateDesc(any(), any(), any());
+    }
+
+    private void stub(List<Payment> credits, List<Invoice> invoices) {
+        when(paymentRepository.findUnappliedAdvancePaymentsForUpdate(patient.getId())).thenReturn(credits);
+        when(invoiceRepository.findOpenInvoicesForUpdate(eq(patient.getId()), anyList())).thenReturn(invoices);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Payment> capturedPayments() {
+        ArgumentCaptor<List<Payment>> payments = ArgumentCaptor.forClass(List.class);
+        verify(paymentRepository).saveAll(payments.capture());
+        return payments.getValue();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<PaymentAllocation> capturedAllocations() {
+        ArgumentCaptor<List<PaymentAllocation>> allocations = ArgumentCaptor.forClass(List.class);
+        verify(paymentAllocationRepository).saveAll(allocations.capture());
+        return allocations.getValue();
+    }
+
+    private Payment credit(BigDecimal amount, LocalDate date) {
+        Payment credit = new Payment();
+        credit.setId(UUID.randomUUID());
+        credit.setPatient(patient);
+        credit.setAmount(amount);
+        credit.setPaymentDate(date);
+        credit.setPaymentMethod(PaymentMethod.CASH);
+        credit.setType(PaymentType.CREDIT);
+        return credit;
+    }
+
+    private Invoice invoice(BigDecimal total, LocalDate issueDate, LocalDate dueDate) {
+        Invoice invoice = new Invoice();
+        invoice.setId(UUID.randomUUID());
+        invoice.setPatient(patient);
+        invoice.setInvoiceNumber("INV-" + invoice.getId());
+        invoice.setIssueDate(issueDate);
+        invoice.setDueDate(dueDate);
+        invoice.setTotalAmount(total);
+        invoice.setSubTotal(total);
+        invoice.setAmountDue(total);
+        invoice.setStatus(InvoiceStatus.UNPAID);
+        return invoice;
+    }
+
+    private static BigDecimal cents(Random random, int min, int max) {
+        return BigDecimal.valueOf(min + random.nextInt(max - min), 2);
+    }
+
+    private static BigDecimal sum(List<BigDecimal> amounts) {
+        return amounts.stream().reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+}
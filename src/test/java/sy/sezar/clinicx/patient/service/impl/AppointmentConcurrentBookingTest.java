@@ -0,0 +1,188 @@
+package sy.sezar.clinicx.patient.service.impl;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Books the same doctor slot from many threads at once against PostgreSQL with the exclusion
+ * constraint of V41. Every booking first checks for an overlap, as the service does against its
+ * schedule index, and all of them pass that check before any inserts, so only the constraint
+ * keeps the doctor from being double-booked.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@DisplayName("Appointment Concurrent Booking Tests")
+class AppointmentConcurrentBookingTest {
+
+    private static final int REQUESTS = Integer.getInteger("booking.requests", 64);
+    private static final Instant SLOT = Instant.parse("2026-03-02T09:00:00Z");
+
+    private static final String OVERLAP_SQL = """
+        SELECT count(*) FROM appointments
+        WHERE doctor_id = ? AND status NOT IN ('CANCELLED', 'NO_SHOW')
+          AND appointment_range(appointment_datetime, duration_minutes) && appointment_range(?, ?)
+        """;
+
+    private static final String INSERT_SQL = """
+        INSERT INTO appointments (doctor_id, appointment_datetime, duration_minutes, status)
+        VALUES (?, ?, ?, ?)
+        """;
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static JdbcTemplate jdbcTemplate;
+    private static TransactionTemplate transactionTemplate;
+
+    @BeforeAll
+    static void createSchema() throws IOException {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+            POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+
+        jdbcTemplate.execute("""
+            CREATE TABLE appointments (
+                id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+                doctor_id UUID,
+                appointment_datetime TIMESTAMPTZ NOT NULL,
+                duration_minutes INT NOT NULL DEFAULT 30,
+                status VARCHAR(50) NOT NULL DEFAULT 'SCHEDULED'
+            )
+            """);
+        jdbcTemplate.execute(new ClassPathResource("db/migration/V41__add_appointment_doctor_overlap_constraint.sql")
+            .getContentAsString(StandardCharsets.UTF_8));
+    }
+
+    @BeforeEach
+    void clearAppointments() {
+        jdbcTemplate.update("DELETE FROM appointments");
+    }
+
+    @Test
+    @DisplayName("Load test: only one of many simultaneous bookings of the same slot succeeds")
+    void book_SameSlotConcurrently_OneSucceeds() throws Exception {
+        UUID doctorId = UUID.randomUUID();
+        CountDownLatch checked = new CountDownLatch(REQUESTS);
+
+        ExecutorService executor = Executors.newFixedThreadPool(REQUESTS);
+        List<Future<Boolean>> bookings = new ArrayList<>();
+        try {
+            for (int i = 0; i < REQUESTS; i++) {
+                // Each request asks for a slot that overlaps the others by at least five minutes
+                Instant start = SLOT.plusSeconds(60L * (i % 5));
+                bookings.add(executor.submit(() -> book(doctorId, start, 30, checked)));
+            }
+
+            int booked = 0;
+            for (Future<Boolean> booking : bookings) {
+                booked += booking.get(60, TimeUnit.SECONDS) ? 1 : 0;
+            }
+
+            assertThat(booked).isEqualTo(1);
+            assertThat(jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM appointments WHERE doctor_id = ?", Integer.class, doctorId)).isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Should allow back-to-back bookings, other doctors and bookings over freed slots")
+    void book_NonOverlapping_Succeeds() {
+        UUID doctorId = UUID.randomUUID();
+        insert(doctorId, SLOT, 30, "SCHEDULED");
+
+        insert(doctorId, SLOT.plusSeconds(30 * 60), 30, "SCHEDULED");
+        insert(UUID.randomUUID(), SLOT, 30, "SCHEDULED");
+        insert(null, SLOT, 30, "SCHEDULED");
+        insert(null, SLOT, 30, "SCHEDULED");
+
+        UUID freed = UUID.randomUUID();
+        insert(freed, SLOT, 30, "CANCELLED");
+        insert(freed, SLOT, 30, "NO_SHOW");
+        insert(freed, SLOT, 30, "CONFIRMED");
+
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM appointments", Integer.class)).isEqualTo(8);
+    }
+
+    @Test
+    @DisplayName("Should reject moving an appointment onto another and reactivating a cancelled one over a booking")
+    void update_IntoOverlap_Rejected() {
+        UUID doctorId = UUID.randomUUID();
+        insert(doctorId, SLOT, 30, "SCHEDULED");
+        insert(doctorId, SLOT.plusSeconds(3600), 30, "SCHEDULED");
+        insert(doctorId, SLOT, 30, "CANCELLED");
+
+        assertThatThrownBy(() -> jdbcTemplate.update(
+                "UPDATE appointments SET appointment_datetime = ? WHERE appointment_datetime = ?",
+                Timestamp.from(SLOT.plusSeconds(600)), Timestamp.from(SLOT.plusSeconds(3600))))
+            .isInstanceOf(DataIntegrityViolationException.class)
+            .hasMessageContaining(AppointmentServiceImpl.DOCTOR_OVERLAP_CONSTRAINT);
+        assertThatThrownBy(() -> jdbcTemplate.update(
+                "UPDATE appointments SET status = 'SCHEDULED' WHERE status = 'CANCELLED'"))
+            .isInstanceOf(DataIntegrityViolationException.class)
+            .hasMessageContaining(AppointmentServiceImpl.DOCTOR_OVERLAP_CONSTRAINT);
+    }
+
+    /**
+     * Books a slot the way the service does: checks for an overlap, then inserts. All requests
+     * wait for each other after their check, so each one finds the slot free.
+     */
+    private static boolean book(UUID doctorId, Instant start, int durationMinutes, CountDownLatch checked) {
+        try {
+            return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+                Integer overlapping = jdbcTemplate.queryForObject(OVERLAP_SQL, Integer.class,
+                    doctorId, Timestamp.from(start), durationMinutes);
+                checked.countDown();
+                awaitQuietly(checked);
+                if (overlapping != null && overlapping > 0) {
+                    return false;
+                }
+                insert(doctorId, start, durationMinutes, "SCHEDULED");
+                return true;
+            }));
+        } catch (DataIntegrityViolationException e) {
+            assertThat(e).hasMessageContaining(AppointmentServiceImpl.DOCTOR_OVERLAP_CONSTRAINT);
+            return false;
+        }
+    }
+
+    private static void insert(UUID doctorId, Instant start, int durationMinutes, String status) {
+        jdbcTemplate.update(INSERT_SQL, doctorId, Timestamp.from(start), durationMinutes, status);
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
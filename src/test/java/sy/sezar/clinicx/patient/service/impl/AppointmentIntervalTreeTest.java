@@ -0,0 +1,78 @@
+package sy.sezar.clinicx.patient.service.impl;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import sy.sezar.clinicx.patient.dto.BookedSlotDto;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("AppointmentIntervalTree Tests")
+class AppointmentIntervalTreeTest {
+
+    private static final Instant NINE = Instant.parse("2026-03-02T09:00:00Z");
+
+    @Test
+    @DisplayName("Should find the slots overlapping a range but not those only touching it")
+    void overlapping_HalfOpenRanges() {
+        BookedSlotDto first = slot(0, 30);
+        BookedSlotDto second = slot(30, 60);
+        BookedSlotDto longSlot = slot(45, 180);
+        AppointmentIntervalTree tree = AppointmentIntervalTree.of(List.of(longSlot, second, first));
+
+        assertThat(tree.overlapping(at(30), at(45))).containsExactly(second);
+        assertThat(tree.overlapping(at(20), at(50))).containsExactly(first, second, longSlot);
+        assertThat(tree.overlapping(at(170), at(200))).containsExactly(longSlot);
+        assertThat(tree.overlapping(at(180), at(210))).isEmpty();
+        assertThat(tree.overlapping(at(-30), at(0))).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should find nothing in an empty day")
+    void overlapping_Empty() {
+        AppointmentIntervalTree tree = AppointmentIntervalTree.of(List.of());
+
+        assertThat(tree.size()).isZero();
+        assertThat(tree.overlapping(at(0), at(600))).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should find the same slots as comparing the range with every slot")
+    void overlapping_MatchesLinearScan() {
+        Random random = new Random(42);
+        for (int day = 0; day < 200; day++) {
+            List<BookedSlotDto> slots = new ArrayList<>();
+            int count = random.nextInt(40);
+            for (int i = 0; i < count; i++) {
+                int start = random.nextInt(600);
+                slots.add(slot(start, start + 5 + random.nextInt(120)));
+            }
+            AppointmentIntervalTree tree = AppointmentIntervalTree.of(slots);
+
+            for (int query = 0; query < 50; query++) {
+                int start = random.nextInt(700) - 50;
+                Instant from = at(start);
+                Instant to = at(start + 1 + random.nextInt(90));
+                List<BookedSlotDto> expected = slots.stream()
+                    .filter(slot -> slot.startDateTime().isBefore(to) && slot.endDateTime().isAfter(from))
+                    .toList();
+
+                assertThat(tree.overlapping(from, to)).containsExactlyInAnyOrderElementsOf(expected);
+            }
+        }
+    }
+
+    private static BookedSlotDto slot(int startMinute, int endMinute) {
+        return new BookedSlotDto(UUID.randomUUID(), at(startMinute), at(endMinute));
+    }
+
+    private static Instant at(int minute) {
+        return NINE.plus(Duration.ofMinutes(minute));
+    }
+}
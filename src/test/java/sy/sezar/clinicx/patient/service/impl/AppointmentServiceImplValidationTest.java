@@ -7,17 +7,23 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 import sy.sezar.clinicx.core.exception.BusinessRuleException;
+import sy.sezar.clinicx.core.exception.ConflictException;
 import sy.sezar.clinicx.core.exception.NotFoundException;
 import sy.sezar.clinicx.core.exception.NotValidValueException;
 import sy.sezar.clinicx.patient.dto.AppointmentCardDto;
 import sy.sezar.clinicx.patient.dto.AppointmentCreateRequest;
+import sy.sezar.clinicx.patient.dto.AppointmentRescheduleRequest;
+import sy.sezar.clinicx.patient.dto.BookedSlotDto;
 import sy.sezar.clinicx.patient.mapper.AppointmentMapper;
 import sy.sezar.clinicx.patient.model.Appointment;
 import sy.sezar.clinicx.patient.model.Patient;
 import sy.sezar.clinicx.patient.model.enums.AppointmentStatus;
 import sy.sezar.clinicx.patient.repository.AppointmentRepository;
 import sy.sezar.clinicx.patient.repository.PatientRepository;
+import sy.sezar.clinicx.patient.service.DoctorAvailabilityService;
+import sy.sezar.clinicx.patient.service.DoctorScheduleIndex;
 import sy.sezar.clinicx.clinic.model.Specialty;
 import sy.sezar.clinicx.clinic.repository.SpecialtyRepository;
 import sy.sezar.clinicx.clinic.model.Staff;
@@ -36,6 +42,9 @@ import java.util.UUID;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -57,6 +66,12 @@ class AppointmentServiceImplValidationTest {
     @Mock
     private StaffRepository staffRepository;
 
+    @Mock
+    private DoctorScheduleIndex doctorScheduleIndex;
+
+    @Mock
+    private DoctorAvailabilityService doctorAvailabilityService;
+
     @InjectMocks
     private AppointmentServiceImpl appointmentService;
 
@@ -199,7 +214,7 @@ class AppointmentServiceImplValidationTest {
         when(patientRepository.findById(patientId)).thenReturn(Optional.of(patient));
         when(specialtyRepository.findById(specialtyId)).thenReturn(Optional.of(specialty));
         when(staffRepository.findById(doctorId)).thenReturn(Optional.of(doctor));
-        when(appointmentRepository.save(any(Appointment.class))).thenReturn(appointment);
+        when(appointmentRepository.saveAndFlush(any(Appointment.class))).thenReturn(appointment);
         when(appointmentMapper.toAppointmentCardDto(appointment)).thenReturn(null);
 
         // Should not throw any exception
@@ -338,4 +353,114 @@ class AppointmentServiceImplValidationTest {
             .isInstanceOf(NotFoundException.class)
             .hasMessage("Doctor not found with id: " + doctorId);
     }
+
+    @Test
+    @DisplayName("Should throw ConflictException when the doctor is already booked at that time")
+    void createAppointment_DoctorBooked_ThrowsConflictException() {
+        Instant start = nextWeekdayAt(10);
+        AppointmentCreateRequest request = new AppointmentCreateRequest(
+            specialtyId, patientId, doctorId, start, 30,
+            AppointmentStatus.SCHEDULED, "Test notes", null
+        );
+        BookedSlotDto booked = new BookedSlotDto(UUID.randomUUID(), start.minus(Duration.ofMinutes(15)),
+            start.plus(Duration.ofMinutes(15)));
+        when(doctorScheduleIndex.findOverlapping(doctorId, start, start.plus(Duration.ofMinutes(30))))
+            .thenReturn(List.of(booked));
+
+        assertThatThrownBy(() -> appointmentService.createAppointment(request))
+            .isInstanceOf(ConflictException.class)
+            .hasMessageContaining("The doctor already has an appointment");
+        verify(appointmentRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    @DisplayName("Should report an overlap rejected by the database as a conflict")
+    void createAppointment_OverlapRejectedByDatabase_ThrowsConflictException() {
+        Instant start = nextWeekdayAt(10);
+        AppointmentCreateRequest request = new AppointmentCreateRequest(
+            specialtyId, patientId, doctorId, start, 30,
+            AppointmentStatus.SCHEDULED, "Test notes", null
+        );
+        Appointment appointment = new Appointment();
+        appointment.setAppointmentDatetime(start);
+        when(appointmentMapper.toEntity(request)).thenReturn(appointment);
+        when(patientRepository.findById(patientId)).thenReturn(Optional.of(patient));
+        when(specialtyRepository.findById(specialtyId)).thenReturn(Optional.of(specialty));
+        when(staffRepository.findById(doctorId)).thenReturn(Optional.of(doctor));
+        when(appointmentRepository.saveAndFlush(appointment)).thenThrow(new DataIntegrityViolationException(
+            "conflicting key value violates exclusion constraint \""
+                + AppointmentServiceImpl.DOCTOR_OVERLAP_CONSTRAINT + "\""));
+
+        assertThatThrownBy(() -> appointmentService.createAppointment(request))
+            .isInstanceOf(ConflictException.class)
+            .hasMessage("The doctor already has an appointment at this time");
+        verify(doctorScheduleIndex).invalidate(doctorId, start, start.plus(Duration.ofMinutes(30)));
+    }
+
+    @Test
+    @DisplayName("Should not count the rescheduled appointment as a conflict with itself")
+    void rescheduleAppointment_OverlapsItsOldTime_Success() {
+        Instant oldStart = nextWeekdayAt(10);
+        Instant newStart = oldStart.plus(Duration.ofMinutes(15));
+        Appointment appointment = new Appointment();
+        appointment.setId(UUID.randomUUID());
+        appointment.setDoctor(doctor);
+        appointment.setAppointmentDatetime(oldStart);
+        appointment.setDurationMinutes(30);
+        when(appointmentRepository.findById(appointment.getId())).thenReturn(Optional.of(appointment));
+        when(doctorScheduleIndex.findOverlapping(doctorId, newStart, newStart.plus(Duration.ofMinutes(30))))
+            .thenReturn(List.of(new BookedSlotDto(appointment.getId(), oldStart, oldStart.plus(Duration.ofMinutes(30)))));
+        when(appointmentRepository.saveAndFlush(appointment)).thenReturn(appointment);
+
+        appointmentService.rescheduleAppointment(appointment.getId(),
+            new AppointmentRescheduleRequest(newStart, null, null));
+
+        assertThat(appointment.getAppointmentDatetime()).isEqualTo(newStart);
+        verify(doctorScheduleIndex).invalidate(doctorId, oldStart, oldStart.plus(Duration.ofMinutes(30)));
+        verify(doctorScheduleIndex).invalidate(doctorId, newStart, newStart.plus(Duration.ofMinutes(30)));
+        verify(doctorAvailabilityService).appointmentReleased(appointment.getId(), doctorId,
+            oldStart, oldStart.plus(Duration.ofMinutes(30)));
+        verify(doctorAvailabilityService).appointmentBooked(appointment.getId(), doctorId,
+            newStart, newStart.plus(Duration.ofMinutes(30)));
+    }
+
+    @Test
+    @DisplayName("Should free the doctor's time when an appointment is cancelled")
+    void cancelAppointment_Scheduled_InvalidatesSchedule() {
+        Instant start = nextWeekdayAt(10);
+        Appointment appointment = new Appointment();
+        appointment.setId(UUID.randomUUID());
+        appointment.setDoctor(doctor);
+        appointment.setAppointmentDatetime(start);
+        appointment.setDurationMinutes(45);
+        when(appointmentRepository.findById(appointment.getId())).thenReturn(Optional.of(appointment));
+
+        appointmentService.cancelAppointment(appointment.getId());
+
+        assertThat(appointment.getStatus()).isEqualTo(AppointmentStatus.CANCELLED);
+        verify(doctorScheduleIndex).invalidate(eq(doctorId), eq(start), eq(start.plus(Duration.ofMinutes(45))));
+        verify(doctorAvailabilityService).appointmentReleased(appointment.getId(), doctorId,
+            start, start.plus(Duration.ofMinutes(45)));
+    }
+
+    @Test
+    @DisplayName("Should throw BusinessRuleException when cancelling a completed appointment")
+    void cancelAppointment_Completed_ThrowsBusinessRuleException() {
+        Appointment appointment = new Appointment();
+        appointment.setId(UUID.randomUUID());
+        appointment.setStatus(AppointmentStatus.COMPLETED);
+        when(appointmentRepository.findById(appointment.getId())).thenReturn(Optional.of(appointment));
+
+        assertThatThrownBy(() -> appointmentService.cancelAppointment(appointment.getId()))
+            .isInstanceOf(BusinessRuleException.class)
+            .hasMessage("Cannot cancel a completed appointment");
+    }
+
+    private static Instant nextWeekdayAt(int hour) {
+        ZonedDateTime day = ZonedDateTime.now(ZoneId.systemDefault()).plusDays(1);
+        while (day.getDayOfWeek() == DayOfWeek.SATURDAY || day.getDayOfWeek() == DayOfWeek.SUNDAY) {
+            day = day.plusDays(1);
+        }
+        return day.withHour(hour).withMinute(0).withSecond(0).withNano(0).toInstant();
+    }
 }
@@ -0,0 +1,120 @@
+package sy.sezar.clinicx.patient.service.impl;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import sy.sezar.clinicx.core.exception.NotFoundException;
+import sy.sezar.clinicx.patient.dto.BalanceReconciliationResultDto;
+import sy.sezar.clinicx.patient.model.enums.LedgerEntryType;
+import sy.sezar.clinicx.patient.repository.PatientRepository;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+@DisplayName("BalanceReconciliationServiceImpl Tests")
+class BalanceReconciliationServiceImplTest {
+
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+    private BalanceReconciliationServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+            .setType(EmbeddedDatabaseType.H2)
+            .generateUniqueName(true)
+            .build();
+        jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("CREATE TABLE patients (id UUID PRIMARY KEY, balance DECIMAL(10,2) NOT NULL)");
+        jdbcTemplate.execute("""
+            CREATE TABLE ledger_entries (
+                id UUID PRIMARY KEY,
+                patient_id UUID NOT NULL,
+                entry_type VARCHAR(50) NOT NULL,
+                amount DECIMAL(10,2) NOT NULL
+            )
+            """);
+        service = new BalanceReconciliationServiceImpl(jdbcTemplate, mock(PatientRepository.class),
+            new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should report only patients whose balance differs from the ledger")
+    void reconcileAll_ReportsMismatches() {
+        UUID consistent = patient("60.00");
+        ledger(consistent, LedgerEntryType.CHARGE, "100.00");
+        ledger(consistent, LedgerEntryType.PAYMENT_RECEIPT, "50.00");
+        ledger(consistent, LedgerEntryType.DISCOUNT, "-10.00");
+        ledger(consistent, LedgerEntryType.REFUND, "20.00");
+        ledger(consistent, LedgerEntryType.CREDIT_APPLIED, "50.00");
+
+        UUID drifted = patient("100.00");
+        ledger(drifted, LedgerEntryType.CHARGE, "100.00");
+        ledger(drifted, LedgerEntryType.WRITE_OFF, "25.00");
+
+        UUID withoutEntries = patient("0.00");
+
+        BalanceReconciliationResultDto result = service.reconcileAll(false);
+
+        assertThat(result.mismatchCount()).isEqualTo(1);
+        assertThat(result.repairedCount()).isZero();
+        assertThat(result.mismatches()).singleElement().satisfies(mismatch -> {
+            assertThat(mismatch.patientId()).isEqualTo(drifted);
+            assertThat(mismatch.ledgerBalance()).isEqualByComparingTo("75.00");
+        });
+        assertThat(balance(drifted)).isEqualByComparingTo("100.00");
+        assertThat(balance(withoutEntries)).isEqualByComparingTo("0.00");
+    }
+
+    @Test
+    @DisplayName("Should repair mismatching balances from the ledger")
+    void reconcileAll_Repairs() {
+        UUID drifted = patient("10.00");
+        ledger(drifted, LedgerEntryType.CHARGE, "100.00");
+        ledger(drifted, LedgerEntryType.ADJUSTMENT, "-30.00");
+        ledger(drifted, LedgerEntryType.OPENING_BALANCE, "-5.00");
+
+        BalanceReconciliationResultDto result = service.reconcileAll(true);
+
+        assertThat(result.repairedCount()).isEqualTo(1);
+        assertThat(balance(drifted)).isEqualByComparingTo("65.00");
+        assertThat(service.reconcileAll(false).mismatchCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should reject rebuilding the balance of an unknown patient")
+    void rebuildBalance_UnknownPatient() {
+        assertThatThrownBy(() -> service.rebuildBalance(UUID.randomUUID()))
+            .isInstanceOf(NotFoundException.class);
+    }
+
+    private UUID patient(String balance) {
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO patients (id, balance) VALUES (?, ?)", id, new BigDecimal(balance));
+        return id;
+    }
+
+    private void ledger(UUID patientId, LedgerEntryType type, String amount) {
+        jdbcTemplate.update("INSERT INTO ledger_entries (id, patient_id, entry_type, amount) VALUES (?, ?, ?, ?)",
+            UUID.randomUUID(), patientId, type.name(), new BigDecimal(amount));
+    }
+
+    private BigDecimal balance(UUID patientId) {
+        return jdbcTemplate.queryForObject("SELECT balance FROM patients WHERE id = ?", BigDecimal.class, patientId);
+    }
+}
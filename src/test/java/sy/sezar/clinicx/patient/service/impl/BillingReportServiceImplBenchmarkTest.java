@@ -0,0 +1,201 @@
+package sy.sezar.clinicx.patient.service.impl;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Latency of the billing reports on PostgreSQL with 1M invoices and 2M payments.
+ * The data volume can be lowered with -Dbenchmark.invoices; payments are always twice the invoices.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@DisplayName("BillingReportServiceImpl Benchmark Tests")
+class BillingReportServiceImplBenchmarkTest {
+
+    private static final int INVOICES = Integer.getInteger("benchmark.invoices", 1_000_000);
+    private static final int PAYMENTS = INVOICES * 2;
+    private static final int PATIENTS = Math.max(INVOICES / 20, 100);
+    private static final int VISITS = Math.max(INVOICES / 4, 100);
+    private static final int DOCTORS = 20;
+    private static final int WARMUP = 3;
+    private static final int ITERATIONS = Integer.getInteger("benchmark.iterations", 20);
+
+    private static final LocalDate START = LocalDate.of(2025, 1, 1);
+    private static final LocalDate END = LocalDate.of(2025, 12, 31);
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static JdbcTemplate jdbcTemplate;
+    private static BillingReportServiceImpl service;
+
+    @BeforeAll
+    static void generateData() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+            POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+        new ResourceDatabasePopulator(new ClassPathResource("db/billing-report-schema.sql")).execute(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        service = new BillingReportServiceImpl(new NamedParameterJdbcTemplate(dataSource));
+
+        long start = System.nanoTime();
+        // Ids are derived from a table number and a row number, so rows can reference each other
+        jdbcTemplate.execute("""
+            CREATE FUNCTION bench_id(t INT, n BIGINT) RETURNS UUID IMMUTABLE LANGUAGE SQL AS
+            $$ SELECT CAST(lpad(to_hex(t), 8, '0') || lpad(to_hex(n), 24, '0') AS UUID) $$
+            """);
+        generate("""
+            INSERT INTO staff (id, full_name)
+            SELECT bench_id(1, g), 'Staff ' || g FROM generate_series(1, %d) g
+            """, DOCTORS + 5);
+        generate("""
+            INSERT INTO specialties (id, name)
+            SELECT bench_id(2, g), 'Specialty ' || g FROM generate_series(1, 3) g
+            """);
+        generate("""
+            INSERT INTO patients (id, public_facing_id, full_name, phone_number, balance)
+            SELECT bench_id(3, g), 'P-' || g, 'Patient ' || g, '555-' || g, (g %% 400) - 50
+            FROM generate_series(1, %d) g
+            """, PATIENTS);
+        generate("""
+            INSERT INTO appointments (id, specialty_id, patient_id, doctor_id, appointment_datetime, status)
+            SELECT bench_id(4, g), bench_id(2, g %% 3 + 1), bench_id(3, g %% %d + 1), bench_id(1, g %% %d + 1),
+                   TIMESTAMP '2024-01-01 08:00' + (g %% 730) * INTERVAL '1 day' + (g %% 9) * INTERVAL '1 hour',
+                   (ARRAY['COMPLETED', 'COMPLETED', 'COMPLETED', 'CANCELLED', 'NO_SHOW'])[g %% 5 + 1]
+            FROM generate_series(1, %d) g
+            """, PATIENTS, DOCTORS, VISITS);
+        generate("""
+            INSERT INTO visits (id, patient_id, appointment_id, provider_id, date)
+            SELECT bench_id(5, g), bench_id(3, g %% %d + 1), bench_id(4, g), bench_id(1, g %% %d + 1),
+                   DATE '2024-01-01' + (g %% 730)
+            FROM generate_series(1, %d) g
+            """, PATIENTS, DOCTORS, VISITS);
+        generate("""
+            INSERT INTO procedure_templates (id, procedure_code, name)
+            SELECT bench_id(6, g), 'P' || g, 'Procedure ' || g FROM generate_series(0, 9) g
+            """);
+        generate("""
+            INSERT INTO procedures (id, visit_id, code, name, quantity, unit_fee, performed_by_id, status)
+            SELECT bench_id(7, g), bench_id(5, (g - 1) / 2 + 1), 'P' || g %% 10, 'Procedure ' || g %% 10,
+                   g %% 3 + 1, 40 + (g %% 10) * 15, CASE WHEN g %% 4 = 0 THEN NULL ELSE bench_id(1, g %% %d + 1) END,
+                   CASE WHEN g %% 10 = 0 THEN 'PLANNED' ELSE 'COMPLETED' END
+            FROM generate_series(1, %d) g
+            """, DOCTORS, VISITS * 2);
+        generate("""
+            INSERT INTO procedure_materials (id, procedure_id, total_cost)
+            SELECT bench_id(8, g), bench_id(7, g * 3), 5 + g %% 20 FROM generate_series(1, %d) g
+            """, VISITS * 2 / 3);
+        generate("""
+            INSERT INTO invoices (id, patient_id, issue_date, total_amount, sub_total, discount_amount, tax_amount,
+                                  amount_paid, status)
+            SELECT bench_id(9, g), bench_id(3, g %% %d + 1), DATE '2024-01-01' + (g %% 730),
+                   100 + g %% 400 + CASE WHEN g %% 3 = 0 THEN (100 + g %% 400) * 0.15 ELSE 0 END,
+                   100 + g %% 400, 0, CASE WHEN g %% 3 = 0 THEN (100 + g %% 400) * 0.15 ELSE 0 END,
+                   CASE WHEN g %% 4 = 0 THEN 0 ELSE 100 + g %% 400 END,
+                   (ARRAY['PAID', 'PAID', 'PAID', 'UNPAID', 'PARTIALLY_PAID', 'OVERDUE', 'CANCELLED'])[g %% 7 + 1]
+            FROM generate_series(1, %d) g
+            """, PATIENTS, INVOICES);
+        generate("""
+            INSERT INTO invoice_items (id, invoice_id, procedure_id, amount)
+            SELECT bench_id(10, g), bench_id(9, g), bench_id(7, g), 100 + g %% 400
+            FROM generate_series(1, %d) g
+            """, Math.min(INVOICES, VISITS * 2));
+        generate("""
+            INSERT INTO payments (id, invoice_id, patient_id, payment_date, amount, payment_method, type, status,
+                                  created_by, created_at)
+            SELECT bench_id(11, g), bench_id(9, (g - 1) / 2 + 1), bench_id(3, ((g - 1) / 2 + 1) %% %d + 1),
+                   DATE '2024-01-01' + (((g - 1) / 2 + 1) %% 730) + g %% 30, 50 + g %% 200,
+                   (ARRAY['CASH', 'CREDIT_CARD', 'DEBIT_CARD', 'BANK_TRANSFER', 'INSURANCE'])[g %% 5 + 1],
+                   CASE WHEN g %% 50 = 0 THEN 'REFUND' ELSE 'PAYMENT' END,
+                   CASE WHEN g %% 100 = 1 THEN 'FAILED' ELSE 'COMPLETED' END,
+                   bench_id(1, %d + g %% 5 + 1),
+                   TIMESTAMP '2024-01-01 08:00' + (((g - 1) / 2 + 1) %% 730 + g %% 30) * INTERVAL '1 day'
+                       + (g %% 600) * INTERVAL '1 minute'
+            FROM generate_series(1, %d) g
+            """, PATIENTS, DOCTORS, PAYMENTS);
+        generate("""
+            INSERT INTO ledger_entries (id, patient_id, entry_type, amount)
+            SELECT bench_id(12, g), bench_id(3, g %% %d + 1),
+                   (ARRAY['CHARGE', 'PAYMENT_RECEIPT', 'CREDIT_APPLIED'])[g %% 3 + 1], 10 + g %% 90
+            FROM generate_series(1, %d) g
+            """, PATIENTS, INVOICES / 5);
+
+        // Indexes of the production schema that the reports rely on
+        for (String index : new String[]{
+            "CREATE INDEX ON invoices(issue_date) INCLUDE (total_amount, amount_paid, status)",
+            "CREATE INDEX ON invoices(patient_id)",
+            "CREATE INDEX ON payments(payment_date, type) INCLUDE (amount, payment_method, status)",
+            "CREATE INDEX ON payments(patient_id)",
+            "CREATE INDEX ON invoice_items(invoice_id)",
+            "CREATE UNIQUE INDEX ON invoice_items(procedure_id)",
+            "CREATE INDEX ON procedures(visit_id)",
+            "CREATE INDEX ON visits(date)",
+            "CREATE INDEX ON appointments(appointment_datetime)",
+            "CREATE INDEX ON ledger_entries(patient_id, entry_type, amount)"}) {
+            jdbcTemplate.execute(index);
+        }
+        jdbcTemplate.execute("VACUUM ANALYZE");
+        System.out.printf("Generated %d invoices and %d payments in %.1f s%n",
+            INVOICES, PAYMENTS, (System.nanoTime() - start) / 1_000_000_000.0);
+    }
+
+    @Test
+    @DisplayName("Benchmark: p50/p99 latency per report over one year of data")
+    void benchmark_ReportLatency() {
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM payments", Long.class)).isEqualTo(PAYMENTS);
+
+        Map<String, Runnable> reports = new LinkedHashMap<>();
+        reports.put("revenue (month, procedures, doctors)",
+            () -> service.generateRevenueReport(START, END, "MONTH", true, true));
+        reports.put("revenue (week)", () -> service.generateRevenueReport(START, END, "WEEK", false, false));
+        reports.put("collections (daily, methods)", () -> service.generateCollectionReport(START, END, true, true));
+        reports.put("daily cash", () -> service.generateDailyCashReport(LocalDate.of(2025, 6, 2), true, true));
+        reports.put("procedure analysis", () -> service.generateProcedureAnalysis(START, END, null, 1));
+        reports.put("doctor performance", () -> service.generateDoctorPerformance(START, END, null, true));
+        reports.put("payment trends (monthly)", () -> service.analyzePaymentTrends(START, END, "MONTHLY"));
+        reports.put("tax report", () -> service.generateTaxReport(START, END, true));
+        reports.put("outstanding balances", () -> service.getOutstandingBalances(BigDecimal.ZERO, false, "BALANCE",
+            PageRequest.of(0, 50)));
+
+        System.out.printf("%-40s %10s %10s%n", "Report", "p50 (ms)", "p99 (ms)");
+        reports.forEach((name, report) -> {
+            for (int i = 0; i < WARMUP; i++) {
+                report.run();
+            }
+            double[] millis = new double[ITERATIONS];
+            for (int i = 0; i < ITERATIONS; i++) {
+                long start = System.nanoTime();
+                report.run();
+                millis[i] = (System.nanoTime() - start) / 1_000_000.0;
+            }
+            Arrays.sort(millis);
+            System.out.printf("%-40s %10.1f %10.1f%n", name, percentile(millis, 0.50), percentile(millis, 0.99));
+            assertThat(millis[0]).isPositive();
+        });
+    }
+
+    private static void generate(String sql, Object... args) {
+        jdbcTemplate.execute(sql.formatted(args));
+    }
+
+    private static double percentile(double[] sorted, double percentile) {
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+}
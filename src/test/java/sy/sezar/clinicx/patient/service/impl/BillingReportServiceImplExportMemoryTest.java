@@ -0,0 +1,154 @@
+package sy.sezar.clinicx.patient.service.impl;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import sy.sezar.clinicx.core.export.ExportFormat;
+import sy.sezar.clinicx.patient.dto.ExportReportRequest;
+import sy.sezar.clinicx.patient.model.enums.BillingReportType;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Exports two million payments in a separate JVM whose heap is capped well below the size of the
+ * export, sampling the live heap as the rows are written. Run with {@code -Dexport.rows} and
+ * {@code -Dexport.heap} to change the volume and the cap.
+ */
+@DisplayName("BillingReportServiceImpl Export Memory Tests")
+class BillingReportServiceImplExportMemoryTest {
+
+    private static final int ROWS = Integer.getInteger("export.rows", 2_000_000);
+    private static final String HEAP = System.getProperty("export.heap", "64m");
+    private static final int INSERT_BATCH = 100_000;
+    private static final long SAMPLE_EVERY_BYTES = 16L * 1024 * 1024;
+    private static final long MAX_HEAP_GROWTH = 16L * 1024 * 1024;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Should export two million payments within a capped heap with flat memory use")
+    void exportReport_ConstantMemory() throws Exception {
+        String url = "jdbc:h2:file:" + directory.resolve("export").toAbsolutePath() + ";LAZY_QUERY_EXECUTION=TRUE";
+        createPayments(url);
+
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        Process process = new ProcessBuilder(java, "-Xmx" + HEAP, "-XX:+UseSerialGC",
+            "-cp", System.getProperty("java.class.path"), Export.class.getName(), url)
+            .redirectErrorStream(true)
+            .start();
+        List<String> output = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(
+            new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            reader.lines().forEach(output::add);
+        }
+        assertThat(process.waitFor(10, TimeUnit.MINUTES)).isTrue();
+        assertThat(process.exitValue()).as(String.join("\n", output)).isZero();
+
+        long rows = Long.parseLong(value(output, "rows="));
+        long[] heap = Arrays.stream(value(output, "heap=").split(",")).mapToLong(Long::parseLong).toArray();
+        System.out.printf("Exported %d rows with -Xmx%s, live heap samples (bytes): %s%n",
+            rows, HEAP, Arrays.toString(heap));
+
+        assertThat(rows).isEqualTo(ROWS + 1L);
+        assertThat(heap).hasSizeGreaterThan(2);
+        long baseline = heap[0];
+        assertThat(Arrays.stream(heap).max().orElseThrow() - baseline).isLessThan(MAX_HEAP_GROWTH);
+    }
+
+    private void createPayments(String url) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(url, "sa", "");
+        new ResourceDatabasePopulator(new ClassPathResource("db/billing-report-schema.sql")).execute(dataSource);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE INDEX idx_payments_date_created ON payments(payment_date, created_at)");
+        jdbcTemplate.update("""
+            INSERT INTO patients (id, public_facing_id, full_name)
+            SELECT CAST(LPAD(CAST(X AS VARCHAR), 32, '0') AS UUID), 'P-' || X, 'Patient ' || X
+            FROM SYSTEM_RANGE(1, 1000)
+            """);
+        for (int from = 1; from <= ROWS; from += INSERT_BATCH) {
+            jdbcTemplate.update("""
+                INSERT INTO payments (id, patient_id, payment_date, amount, payment_method, type, status,
+                                      reference_number, created_at)
+                SELECT RANDOM_UUID(), CAST(LPAD(CAST(MOD(X, 1000) + 1 AS VARCHAR), 32, '0') AS UUID),
+                       DATEADD('DAY', MOD(X, 365), DATE '2025-01-01'), 10 + MOD(X, 500), 'CASH', 'PAYMENT',
+                       'COMPLETED', 'REF-' || X, DATEADD('SECOND', X, TIMESTAMP '2025-01-01 00:00:00')
+                FROM SYSTEM_RANGE(?, ?)
+                """, from, Math.min(from + INSERT_BATCH - 1, ROWS));
+        }
+        jdbcTemplate.execute("SHUTDOWN");
+    }
+
+    private static String value(List<String> output, String prefix) {
+        return output.stream()
+            .filter(line -> line.startsWith(prefix))
+            .map(line -> line.substring(prefix.length()))
+            .findFirst()
+            .orElseThrow(() -> new AssertionError("No " + prefix + " in output:\n" + String.join("\n", output)));
+    }
+
+    /**
+     * Runs the export in the capped JVM, discarding the CSV and printing the row count and the
+     * live heap sampled after a full collection every {@link #SAMPLE_EVERY_BYTES} bytes.
+     */
+    static final class Export {
+
+        public static void main(String[] args) throws Exception {
+            BillingReportServiceImpl service = new BillingReportServiceImpl(
+                new NamedParameterJdbcTemplate(new DriverManagerDataSource(args[0], "sa", "")));
+            HeapSamplingOutputStream out = new HeapSamplingOutputStream();
+
+            service.exportReport(BillingReportType.PAYMENTS, ExportFormat.CSV,
+                new ExportReportRequest(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 12, 31), null, null, false, null),
+                out);
+
+            System.out.println("rows=" + out.lines);
+            System.out.println("heap=" + out.samples.stream().map(String::valueOf).collect(Collectors.joining(",")));
+        }
+    }
+
+    private static final class HeapSamplingOutputStream extends OutputStream {
+
+        private final List<Long> samples = new ArrayList<>();
+        private long bytes;
+        private long lines;
+
+        @Override
+        public void write(int b) {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            for (int i = off; i < off + len; i++) {
+                if (b[i] == '\n') {
+                    lines++;
+                }
+            }
+            long before = bytes / SAMPLE_EVERY_BYTES;
+            bytes += len;
+            if (bytes / SAMPLE_EVERY_BYTES != before) {
+                System.gc();
+                samples.add(ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed());
+            }
+        }
+    }
+}
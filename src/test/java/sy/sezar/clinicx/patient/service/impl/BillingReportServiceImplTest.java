@@ -0,0 +1,437 @@
+package sy.sezar.clinicx.patient.service.impl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import sy.sezar.clinicx.core.exception.BusinessRuleException;
+import sy.sezar.clinicx.core.export.ExportFormat;
+import sy.sezar.clinicx.patient.dto.*;
+import sy.sezar.clinicx.patient.model.enums.BillingReportType;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("BillingReportServiceImpl Tests")
+class BillingReportServiceImplTest {
+
+    private static final LocalDate JAN_1 = LocalDate.of(2026, 1, 1);
+    private static final LocalDate FEB_1 = LocalDate.of(2026, 2, 1);
+    private static final LocalDate FEB_28 = LocalDate.of(2026, 2, 28);
+
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+    private final AtomicInteger statements = new AtomicInteger();
+    private BillingReportServiceImpl service;
+
+    private final UUID drAdams = UUID.randomUUID();
+    private final UUID drBaker = UUID.randomUUID();
+    private final UUID frontDesk = UUID.randomUUID();
+    private final UUID patient1 = UUID.randomUUID();
+    private final UUID patient2 = UUID.randomUUID();
+    private final UUID patient3 = UUID.randomUUID();
+    private final UUID cleaningTemplate = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+            .setType(EmbeddedDatabaseType.H2)
+            .generateUniqueName(true)
+            .addScript("db/billing-report-schema.sql")
+            .build();
+        jdbcTemplate = new JdbcTemplate(database);
+        service = new BillingReportServiceImpl(new NamedParameterJdbcTemplate(new StatementCountingDataSource()));
+        createClinicHistory();
+        statements.set(0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should aggregate revenue by month, procedure, doctor and specialty in one statement")
+    void generateRevenueReport_GroupsByMonth() {
+        RevenueReportDto report = service.generateRevenueReport(JAN_1, FEB_28, "MONTH", true, true);
+
+        assertThat(statements.get()).isEqualTo(1);
+        assertThat(report.totalRevenue()).isEqualByComparingTo("405.00");
+        assertThat(report.totalCollected()).isEqualByComparingTo("215.00");
+        assertThat(report.totalOutstanding()).isEqualByComparingTo("190.00");
+        assertThat(report.totalRefunded()).isEqualByComparingTo("20.00");
+        assertThat(report.netRevenue()).isEqualByComparingTo("195.00");
+        assertThat(report.periods()).extracting(RevenueReportDto.RevenueByPeriod::period)
+            .containsExactly("2026-01", "2026-02");
+        RevenueReportDto.RevenueByPeriod february = report.periods().get(1);
+        assertThat(february.periodStart()).isEqualTo(FEB_1);
+        assertThat(february.periodEnd()).isEqualTo(FEB_28);
+        assertThat(february.revenue()).isEqualByComparingTo("155.00");
+        assertThat(february.outstanding()).isEqualByComparingTo("40.00");
+        assertThat(february.invoiceCount()).isEqualTo(2);
+        assertThat(february.paymentCount()).isEqualTo(1);
+        assertThat(report.byProcedure()).containsOnlyKeys("Cleaning", "Filling");
+        assertThat(report.byProcedure().get("Cleaning")).isEqualByComparingTo("200.00");
+        assertThat(report.byDoctor().get("Dr. Adams")).isEqualByComparingTo("250.00");
+        assertThat(report.byDoctor().get("Dr. Baker")).isEqualByComparingTo("100.00");
+        assertThat(report.bySpecialty().get("General")).isEqualByComparingTo("350.00");
+    }
+
+    @Test
+    @DisplayName("Should report collections per day and payment method")
+    void generateCollectionReport_DailyAndByMethod() {
+        CollectionReportDto report = service.generateCollectionReport(FEB_1, FEB_28, true, true);
+
+        assertThat(statements.get()).isEqualTo(1);
+        assertThat(report.totalBilled()).isEqualByComparingTo("155.00");
+        assertThat(report.totalCollected()).isEqualByComparingTo("115.00");
+        assertThat(report.totalOutstanding()).isEqualByComparingTo("40.00");
+        assertThat(report.collectionRate()).isEqualByComparingTo("74.19");
+        assertThat(report.byPaymentMethod()).containsOnlyKeys("CREDIT_CARD");
+        assertThat(report.dailyBreakdown()).extracting(CollectionReportDto.DailyCollection::date)
+            .containsExactly(LocalDate.of(2026, 2, 5), LocalDate.of(2026, 2, 15), LocalDate.of(2026, 2, 20));
+    }
+
+    @Test
+    @DisplayName("Should summarise the cash drawer of a day by staff member")
+    void generateDailyCashReport_GroupsByStaff() {
+        DailyCashReportDto report = service.generateDailyCashReport(LocalDate.of(2026, 2, 15), false, true);
+
+        assertThat(statements.get()).isEqualTo(1);
+        assertThat(report.totalCashReceived()).isEqualByComparingTo("0.00");
+        assertThat(report.totalCashRefunded()).isEqualByComparingTo("20.00");
+        assertThat(report.totalNonCashReceived()).isEqualByComparingTo("115.00");
+        assertThat(report.closingBalance()).isEqualByComparingTo("-20.00");
+        assertThat(report.cashTransactionCount()).isEqualTo(1);
+        assertThat(report.nonCashTransactionCount()).isEqualTo(1);
+        assertThat(report.transactions()).singleElement().satisfies(transaction -> {
+            assertThat(transaction.type()).isEqualTo("REFUND");
+            assertThat(transaction.patientName()).isEqualTo("Patient Two");
+            assertThat(transaction.time()).isEqualTo("11:00");
+            assertThat(transaction.collectedBy()).isEqualTo("Unassigned");
+        });
+        assertThat(report.byStaff()).containsOnlyKeys("Front Desk", "Unassigned");
+        assertThat(report.byStaff().get("Front Desk").nonCashCollected()).isEqualByComparingTo("115.00");
+    }
+
+    @Test
+    @DisplayName("Should analyse completed procedures with margins and top doctors")
+    void generateProcedureAnalysis_ComputesMetrics() {
+        ProcedureAnalysisDto report = service.generateProcedureAnalysis(JAN_1, FEB_28, null, 1);
+
+        assertThat(statements.get()).isEqualTo(1);
+        assertThat(report.totalProcedures()).isEqualTo(3);
+        assertThat(report.totalRevenue()).isEqualByComparingTo("350.00");
+        assertThat(report.procedures()).extracting(ProcedureAnalysisDto.ProcedureMetrics::procedureName)
+            .containsExactly("Cleaning", "Filling");
+        ProcedureAnalysisDto.ProcedureMetrics cleaning = report.procedures().get(0);
+        assertThat(cleaning.procedureId()).isEqualTo(cleaningTemplate);
+        assertThat(cleaning.performedCount()).isEqualTo(2);
+        assertThat(cleaning.topDoctors()).containsExactly("Dr. Adams", "Dr. Baker");
+        ProcedureAnalysisDto.ProcedureMetrics filling = report.procedures().get(1);
+        assertThat(filling.averagePrice()).isEqualByComparingTo("75.00");
+        assertThat(filling.profitMargin()).isEqualByComparingTo("80.00");
+
+        assertThat(service.generateProcedureAnalysis(JAN_1, FEB_28, null, 2).procedures())
+            .extracting(ProcedureAnalysisDto.ProcedureMetrics::procedureName)
+            .containsExactly("Cleaning");
+    }
+
+    @Test
+    @DisplayName("Should report revenue, appointments and collection rate per doctor")
+    void generateDoctorPerformance_PerDoctor() {
+        DoctorPerformanceDto report = service.generateDoctorPerformance(JAN_1, FEB_28, null, true);
+
+        assertThat(statements.get()).isEqualTo(1);
+        assertThat(report.doctors()).extracting(DoctorPerformanceDto.DoctorMetrics::doctorName)
+            .containsExactly("Dr. Adams", "Dr. Baker");
+        DoctorPerformanceDto.DoctorMetrics adams = report.doctors().get(0);
+        assertThat(adams.doctorId()).isEqualTo(drAdams);
+        assertThat(adams.treatmentCount()).isEqualTo(2);
+        assertThat(adams.totalRevenue()).isEqualByComparingTo("250.00");
+        assertThat(adams.averageRevenuePerTreatment()).isEqualByComparingTo("125.00");
+        assertThat(adams.appointmentCount()).isEqualTo(2);
+        assertThat(adams.cancelledAppointments()).isEqualTo(1);
+        assertThat(adams.appointmentCompletionRate()).isEqualTo(50.0);
+        assertThat(adams.collectionRate()).isEqualByComparingTo("40.00");
+        assertThat(adams.procedureBreakdown()).containsEntry("Cleaning", 1).containsEntry("Filling", 1);
+        assertThat(report.doctors().get(1).collectionRate()).isEqualByComparingTo("100.00");
+    }
+
+    @Test
+    @DisplayName("Should report payment trends with days to payment and growth")
+    void analyzePaymentTrends_Monthly() {
+        PaymentTrendsDto report = service.analyzePaymentTrends(JAN_1, FEB_28, "MONTHLY");
+
+        assertThat(statements.get()).isEqualTo(1);
+        assertThat(report.totalAmount()).isEqualByComparingTo("215.00");
+        assertThat(report.totalPayments()).isEqualTo(2);
+        assertThat(report.averagePaymentAmount()).isEqualByComparingTo("107.50");
+        assertThat(report.averageDaysToPayment()).isEqualTo(10.0);
+        assertThat(report.trends()).extracting(PaymentTrendsDto.TrendData::period)
+            .containsExactly("2026-01", "2026-02");
+        assertThat(report.growthRate()).isEqualTo(15.0);
+        assertThat(report.trendDirection()).isEqualTo("INCREASING");
+    }
+
+    @Test
+    @DisplayName("Should split revenue into taxable and non-taxable by tax rate")
+    void generateTaxReport_ByRate() {
+        TaxReportDto report = service.generateTaxReport(JAN_1, FEB_28, true);
+
+        assertThat(statements.get()).isEqualTo(1);
+        assertThat(report.grossRevenue()).isEqualByComparingTo("405.00");
+        assertThat(report.taxableRevenue()).isEqualByComparingTo("100.00");
+        assertThat(report.nonTaxableRevenue()).isEqualByComparingTo("290.00");
+        assertThat(report.totalTax()).isEqualByComparingTo("15.00");
+        assertThat(report.netRevenue()).isEqualByComparingTo("390.00");
+        assertThat(report.breakdown()).extracting(TaxReportDto.TaxBreakdown::category)
+            .containsExactly("NON_TAXABLE", "TAXABLE");
+        assertThat(report.breakdown().get(1).taxRate()).isEqualByComparingTo("15.00");
+    }
+
+    @Test
+    @DisplayName("Should page outstanding balances with invoice, payment and credit totals")
+    void getOutstandingBalances_Pages() {
+        Page<PatientBalanceDto> page = service.getOutstandingBalances(BigDecimal.ZERO, false, "BALANCE",
+            PageRequest.of(0, 1));
+
+        assertThat(statements.get()).isEqualTo(1);
+        assertThat(page.getTotalElements()).isEqualTo(2);
+        assertThat(page.getContent()).singleElement().satisfies(balance -> {
+            assertThat(balance.patientId()).isEqualTo(patient1);
+            assertThat(balance.totalInvoiced()).isEqualByComparingTo("250.00");
+            assertThat(balance.totalPaid()).isEqualByComparingTo("100.00");
+            assertThat(balance.lastPaymentDate()).isEqualTo(LocalDate.of(2026, 1, 20));
+            assertThat(balance.oldestUnpaidInvoiceDate()).isEqualTo(LocalDate.of(2026, 1, 10));
+            assertThat(balance.unpaidInvoiceCount()).isEqualTo(1);
+        });
+
+        Page<PatientBalanceDto> all = service.getOutstandingBalances(BigDecimal.ZERO, true, "NAME",
+            PageRequest.of(0, 10));
+        assertThat(all.getContent()).extracting(PatientBalanceDto::patientName)
+            .containsExactly("Patient One", "Patient Three", "Patient Two");
+        assertThat(all.getContent().get(2).totalCredits()).isEqualByComparingTo("10.00");
+    }
+
+    @Test
+    @DisplayName("Should reject unsupported groupings and inverted date ranges")
+    void reports_RejectInvalidParameters() {
+        assertThatThrownBy(() -> service.generateRevenueReport(JAN_1, FEB_28, "FORTNIGHT", false, false))
+            .isInstanceOf(BusinessRuleException.class);
+        assertThatThrownBy(() -> service.generateTaxReport(FEB_28, JAN_1, false))
+            .isInstanceOf(BusinessRuleException.class);
+        assertThat(statements.get()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should stream payments in date order from one cursor")
+    void exportReport_PaymentsCsv() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        service.exportReport(BillingReportType.PAYMENTS, ExportFormat.CSV,
+            new ExportReportRequest(JAN_1, FEB_28, null, null, false, null), out);
+
+        assertThat(statements.get()).isEqualTo(1);
+        assertThat(out.toString(StandardCharsets.UTF_8).substring(1).split("\r\n")).containsExactly(
+            "Date,Patient ID,Patient,Invoice,Type,Method,Status,Reference,Amount",
+            "2026-01-20,P-1,Patient One,,PAYMENT,CASH,COMPLETED,,100.00",
+            "2026-02-15,P-2,Patient Two,,PAYMENT,CREDIT_CARD,COMPLETED,,115.00",
+            "2026-02-15,P-2,Patient Two,,REFUND,CASH,COMPLETED,,-20.00",
+            "2026-02-15,P-3,Patient Three,,PAYMENT,CASH,FAILED,,500.00");
+    }
+
+    @Test
+    @DisplayName("Should continue the patient statement from the balance before the period")
+    void exportReport_PatientStatement() throws IOException {
+        ledger(patient1, "CHARGE", "250.00", "2026-01-10T09:30");
+        ledger(patient1, "PAYMENT_RECEIPT", "100.00", "2026-01-20T09:15");
+        ledger(patient1, "ADJUSTMENT", "-20.00", "2026-01-21T10:00");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        service.exportReport(BillingReportType.PATIENT_STATEMENT, ExportFormat.CSV,
+            new ExportReportRequest(LocalDate.of(2026, 1, 15), FEB_28, patient1, null, false, null), out);
+
+        assertThat(out.toString(StandardCharsets.UTF_8).substring(1).split("\r\n")).containsExactly(
+            "Date,Entry,Description,Invoice,Method,Reference,Amount,Balance",
+            "2026-01-15,OPENING_BALANCE,,,,,,250.00",
+            "2026-01-20 09:15:00,PAYMENT_RECEIPT,,,,,100.00,150.00",
+            "2026-01-21 10:00:00,ADJUSTMENT,,,,,-20.00,130.00");
+    }
+
+    @Test
+    @DisplayName("Should reject exports without a date range or a statement without a patient")
+    void validateExport_RejectsInvalidRequests() {
+        assertThatThrownBy(() -> service.validateExport(BillingReportType.PAYMENTS,
+            new ExportReportRequest(null, FEB_28, null, null, false, null)))
+            .isInstanceOf(BusinessRuleException.class);
+        assertThatThrownBy(() -> service.validateExport(BillingReportType.PATIENT_STATEMENT,
+            new ExportReportRequest(JAN_1, FEB_28, null, null, false, null)))
+            .isInstanceOf(BusinessRuleException.class);
+        assertThatThrownBy(() -> BillingReportType.from("ledger"))
+            .isInstanceOf(BusinessRuleException.class);
+        assertThat(BillingReportType.from("patient-statement")).isEqualTo(BillingReportType.PATIENT_STATEMENT);
+    }
+
+    private void createClinicHistory() {
+        staff(drAdams, "Dr. Adams");
+        staff(drBaker, "Dr. Baker");
+        staff(frontDesk, "Front Desk");
+        UUID general = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO specialties (id, name) VALUES (?, ?)", general, "General");
+
+        patient(patient1, "P-1", "Patient One", "150.00");
+        patient(patient2, "P-2", "Patient Two", "0.00");
+        patient(patient3, "P-3", "Patient Three", "40.00");
+
+        UUID appointment1 = appointment(general, patient1, drAdams, "2026-01-10T09:00", "COMPLETED");
+        UUID appointment2 = appointment(general, patient2, drBaker, "2026-02-05T10:00", "COMPLETED");
+        appointment(general, patient3, drAdams, "2026-02-06T11:00", "CANCELLED");
+
+        UUID visit1 = visit(patient1, appointment1, drAdams, "2026-01-10");
+        UUID visit2 = visit(patient2, appointment2, drBaker, "2026-02-05");
+
+        jdbcTemplate.update("INSERT INTO procedure_templates (id, procedure_code, name) VALUES (?, ?, ?)",
+            cleaningTemplate, "CLEAN", "Cleaning");
+        UUID cleaning1 = procedure(visit1, "CLEAN", "Cleaning", 1, "100.00", null, "COMPLETED");
+        UUID filling1 = procedure(visit1, "FILL", "Filling", 2, "75.00", drAdams, "COMPLETED");
+        UUID cleaning2 = procedure(visit2, "CLEAN", "Cleaning", 1, "100.00", drBaker, "COMPLETED");
+        procedure(visit2, "FILL", "Filling", 1, "75.00", drBaker, "PLANNED");
+        jdbcTemplate.update("INSERT INTO procedure_materials (id, procedure_id, total_cost) VALUES (?, ?, ?)",
+            UUID.randomUUID(), filling1, new BigDecimal("30.00"));
+
+        UUID invoice1 = invoice(patient1, "2026-01-10", "250.00", "250.00", "0.00", "100.00", "UNPAID");
+        item(invoice1, cleaning1, "100.00");
+        item(invoice1, filling1, "150.00");
+        UUID invoice2 = invoice(patient2, "2026-02-05", "115.00", "100.00", "15.00", "115.00", "PAID");
+        item(invoice2, cleaning2, "100.00");
+        UUID invoice3 = invoice(patient3, "2026-02-20", "40.00", null, "0.00", "0.00", "UNPAID");
+        invoice(patient3, "2026-02-21", "999.00", "999.00", "0.00", "0.00", "CANCELLED");
+
+        payment(invoice1, patient1, "2026-01-20T09:15", "100.00", "CASH", "PAYMENT", "COMPLETED", frontDesk);
+        payment(invoice2, patient2, "2026-02-15T10:30", "115.00", "CREDIT_CARD", "PAYMENT", "COMPLETED", frontDesk);
+        payment(null, patient2, "2026-02-15T11:00", "-20.00", "CASH", "REFUND", "COMPLETED", null);
+        payment(invoice3, patient3, "2026-02-15T12:00", "500.00", "CASH", "PAYMENT", "FAILED", frontDesk);
+
+        jdbcTemplate.update("INSERT INTO ledger_entries (id, patient_id, entry_type, amount) VALUES (?, ?, ?, ?)",
+            UUID.randomUUID(), patient2, "CREDIT_APPLIED", new BigDecimal("10.00"));
+    }
+
+    private void ledger(UUID patient, String type, String amount, String occurredAt) {
+        jdbcTemplate.update("""
+            INSERT INTO ledger_entries (id, patient_id, entry_type, amount, occurred_at) VALUES (?, ?, ?, ?, ?)
+            """, UUID.randomUUID(), patient, type, new BigDecimal(amount),
+            Timestamp.valueOf(LocalDateTime.parse(occurredAt)));
+    }
+
+    private void staff(UUID id, String name) {
+        jdbcTemplate.update("INSERT INTO staff (id, full_name) VALUES (?, ?)", id, name);
+    }
+
+    private void patient(UUID id, String publicId, String name, String balance) {
+        jdbcTemplate.update("INSERT INTO patients (id, public_facing_id, full_name, balance) VALUES (?, ?, ?, ?)",
+            id, publicId, name, new BigDecimal(balance));
+    }
+
+    private UUID appointment(UUID specialty, UUID patient, UUID doctor, String dateTime, String status) {
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("""
+            INSERT INTO appointments (id, specialty_id, patient_id, doctor_id, appointment_datetime, status)
+            VALUES (?, ?, ?, ?, ?, ?)
+            """, id, specialty, patient, doctor, Timestamp.valueOf(LocalDateTime.parse(dateTime)), status);
+        return id;
+    }
+
+    private UUID visit(UUID patient, UUID appointment, UUID provider, String date) {
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO visits (id, patient_id, appointment_id, provider_id, date) VALUES (?, ?, ?, ?, ?)",
+            id, patient, appointment, provider, LocalDate.parse(date));
+        return id;
+    }
+
+    private UUID procedure(UUID visit, String code, String name, int quantity, String fee, UUID performedBy,
+                           String status) {
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("""
+            INSERT INTO procedures (id, visit_id, code, name, quantity, unit_fee, performed_by_id, status)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+            """, id, visit, code, name, quantity, new BigDecimal(fee), performedBy, status);
+        return id;
+    }
+
+    private UUID invoice(UUID patient, String issueDate, String total, String subTotal, String tax, String paid,
+                         String status) {
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("""
+            INSERT INTO invoices (id, patient_id, issue_date, total_amount, sub_total, tax_amount, amount_paid, status)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+            """, id, patient, LocalDate.parse(issueDate), new BigDecimal(total),
+            subTotal != null ? new BigDecimal(subTotal) : null, new BigDecimal(tax), new BigDecimal(paid), status);
+        return id;
+    }
+
+    private void item(UUID invoice, UUID procedure, String amount) {
+        jdbcTemplate.update("INSERT INTO invoice_items (id, invoice_id, procedure_id, amount) VALUES (?, ?, ?, ?)",
+            UUID.randomUUID(), invoice, procedure, new BigDecimal(amount));
+    }
+
+    private void payment(UUID invoice, UUID patient, String dateTime, String amount, String method, String type,
+                         String status, UUID createdBy) {
+        LocalDateTime createdAt = LocalDateTime.parse(dateTime);
+        jdbcTemplate.update("""
+            INSERT INTO payments (id, invoice_id, patient_id, payment_date, amount, payment_method, type, status,
+                                  created_by, created_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """, UUID.randomUUID(), invoice, patient, createdAt.toLocalDate(), new BigDecimal(amount), method, type,
+            status, createdBy, Timestamp.valueOf(createdAt));
+    }
+
+    /**
+     * Counts the statements the service prepares, to check that each report is one round-trip.
+     */
+    private class StatementCountingDataSource extends DelegatingDataSource {
+
+        StatementCountingDataSource() {
+            super(database);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            Connection connection = super.getConnection();
+            return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("prepareStatement") || method.getName().equals("createStatement")) {
+                        statements.incrementAndGet();
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+        }
+    }
+}
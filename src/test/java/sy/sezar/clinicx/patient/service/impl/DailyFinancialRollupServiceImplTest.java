@@ -0,0 +1,315 @@
+package sy.sezar.clinicx.patient.service.impl;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+import sy.sezar.clinicx.clinic.model.Staff;
+import sy.sezar.clinicx.patient.dto.DailyFinancialRollupDto;
+import sy.sezar.clinicx.patient.dto.RollupVerificationResultDto;
+import sy.sezar.clinicx.patient.model.Invoice;
+import sy.sezar.clinicx.patient.model.InvoiceItem;
+import sy.sezar.clinicx.patient.model.LedgerEntry;
+import sy.sezar.clinicx.patient.model.Payment;
+import sy.sezar.clinicx.patient.model.Visit;
+import sy.sezar.clinicx.patient.model.VisitProcedure;
+import sy.sezar.clinicx.patient.model.enums.LedgerEntryType;
+import sy.sezar.clinicx.patient.model.enums.PaymentMethod;
+import sy.sezar.clinicx.tenant.TenantContext;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@DisplayName("DailyFinancialRollupServiceImpl Tests")
+class DailyFinancialRollupServiceImplTest {
+
+    private static final int THREADS = 16;
+    private static final int PAYMENTS_PER_THREAD = 200;
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+    private static final LocalDate DAY = LocalDate.of(2026, 3, 2);
+    private static final Instant NOON = DAY.atTime(12, 0).atZone(ZONE).toInstant();
+
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transaction;
+    private DailyFinancialRollupServiceImpl service;
+
+    private final Staff drAdams = staff("Dr. Adams");
+    private final Staff drBaker = staff("Dr. Baker");
+    private final UUID patientId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+            .setType(EmbeddedDatabaseType.H2)
+            .generateUniqueName(true)
+            .addScript("db/billing-report-schema.sql")
+            .build();
+        jdbcTemplate = new JdbcTemplate(database);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(database);
+        transaction = new TransactionTemplate(transactionManager);
+        service = new DailyFinancialRollupServiceImpl(new NamedParameterJdbcTemplate(database), transactionManager,
+            new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "clock", Clock.fixed(NOON, ZONE));
+
+        for (Staff staff : List.of(drAdams, drBaker)) {
+            jdbcTemplate.update("INSERT INTO staff (id, full_name) VALUES (?, ?)", staff.getId(), staff.getFullName());
+        }
+        jdbcTemplate.update("INSERT INTO patients (id, public_facing_id, full_name) VALUES (?, 'P-1', 'Patient One')",
+            patientId);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TenantContext.clear();
+        database.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should write committed entries after the commit and drop rolled back ones")
+    void record_WritesBehindCommit() {
+        Invoice invoice = invoiceWithProcedures();
+        transaction.executeWithoutResult(status -> {
+            record(LedgerEntryType.CHARGE, "150.00", invoice, null, null);
+            // Nothing reaches the rollup before the business transaction commits
+            assertThat(rollupRows()).isZero();
+        });
+        transaction.executeWithoutResult(status ->
+            record(LedgerEntryType.PAYMENT_RECEIPT, "80.00", invoice, payment(PaymentMethod.CASH), null));
+        transaction.executeWithoutResult(status -> {
+            record(LedgerEntryType.REFUND, "-10.00", invoice, payment(PaymentMethod.CASH), null);
+            status.setRollbackOnly();
+        });
+        transaction.executeWithoutResult(status ->
+            record(LedgerEntryType.PAYMENT_RECEIPT, "999.00", null, payment(PaymentMethod.CASH), "tenant-b"));
+
+        List<DailyFinancialRollupDto> rows = service.getRollup(DAY, DAY);
+
+        assertThat(rows)
+            .extracting(DailyFinancialRollupDto::entryType, DailyFinancialRollupDto::doctorName,
+                DailyFinancialRollupDto::procedureCode, DailyFinancialRollupDto::paymentMethod,
+                DailyFinancialRollupDto::amount, DailyFinancialRollupDto::entryCount)
+            .containsExactlyInAnyOrder(
+                tuple(LedgerEntryType.CHARGE, "Dr. Adams", "D1110", null, new BigDecimal("100.00"), 0L),
+                tuple(LedgerEntryType.CHARGE, "Dr. Baker", "D0210", null, new BigDecimal("30.00"), 0L),
+                tuple(LedgerEntryType.CHARGE, null, null, null, new BigDecimal("20.00"), 1L),
+                tuple(LedgerEntryType.PAYMENT_RECEIPT, null, null, PaymentMethod.CASH, new BigDecimal("80.00"), 1L));
+        assertThat(service.verify(DAY, DAY, false).mismatchCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should rebuild days whose totals differ from the ledger with the same attribution")
+    void verify_RebuildsMismatchedDays() {
+        Invoice invoice = invoiceWithProcedures();
+        transaction.executeWithoutResult(status -> {
+            record(LedgerEntryType.CHARGE, "150.00", invoice, null, null);
+            record(LedgerEntryType.PAYMENT_RECEIPT, "80.00", invoice, payment(PaymentMethod.CREDIT_CARD), null);
+            record(LedgerEntryType.ADJUSTMENT, "-5.00", invoice, null, null);
+        });
+        List<DailyFinancialRollupDto> recorded = sorted(service.getRollup(DAY, DAY));
+
+        // A delta that never reached the rollup, as after a failed write
+        insertLedger(LedgerEntryType.PAYMENT_RECEIPT, "25.00", invoice.getId(), null, null);
+
+        RollupVerificationResultDto result = service.verify(DAY, DAY, true);
+
+        assertThat(result.mismatchCount()).isEqualTo(1);
+        assertThat(result.rebuiltDays()).isEqualTo(1);
+        assertThat(result.mismatches()).singleElement().satisfies(mismatch -> {
+            assertThat(mismatch.entryType()).isEqualTo(LedgerEntryType.PAYMENT_RECEIPT);
+            assertThat(mismatch.ledgerAmount()).isEqualByComparingTo("105.00");
+            assertThat(mismatch.rollupAmount()).isEqualByComparingTo("80.00");
+        });
+        assertThat(service.verify(DAY, DAY, false).mismatchCount()).isZero();
+
+        List<DailyFinancialRollupDto> rebuilt = sorted(service.getRollup(DAY, DAY));
+        List<DailyFinancialRollupDto> expected = new ArrayList<>(recorded);
+        expected.add(new DailyFinancialRollupDto(DAY, null, null, null, null, LedgerEntryType.PAYMENT_RECEIPT,
+            new BigDecimal("25.00"), 1));
+        assertThat(rebuilt).containsExactlyInAnyOrderElementsOf(expected);
+    }
+
+    @Test
+    @DisplayName("Should verify and rebuild days in the clock zone, not the database session zone")
+    void verify_UsesClockZone() {
+        // A zone whose late evening falls on another day in the system zone
+        ZoneId zone = ZoneId.of(ZONE.getRules().getOffset(NOON).getTotalSeconds() < -5 * 3600 ? "Pacific/Kiritimati"
+            : "Pacific/Honolulu");
+        Instant lateEvening = DAY.atTime(23, 30).atZone(zone).toInstant();
+        ReflectionTestUtils.setField(service, "clock", Clock.fixed(lateEvening, zone));
+        LedgerEntry entry = new LedgerEntry();
+        entry.setEntryType(LedgerEntryType.PAYMENT_RECEIPT);
+        entry.setAmount(new BigDecimal("40.00"));
+        entry.setOccurredAt(lateEvening);
+        jdbcTemplate.update("""
+            INSERT INTO ledger_entries (id, patient_id, entry_type, amount, occurred_at) VALUES (?, ?, ?, ?, ?)
+            """, UUID.randomUUID(), patientId, entry.getEntryType().name(), entry.getAmount(),
+            Timestamp.from(lateEvening));
+        service.record(entry);
+
+        assertThat(service.verify(DAY, DAY, false).mismatchCount()).isZero();
+        service.rebuild(DAY, DAY);
+        assertThat(service.getRollup(DAY, DAY))
+            .extracting(DailyFinancialRollupDto::entryType, DailyFinancialRollupDto::amount)
+            .containsExactly(tuple(LedgerEntryType.PAYMENT_RECEIPT, new BigDecimal("40.00")));
+    }
+
+    @Test
+    @DisplayName("Load test: concurrent commits on the same rollup row keep exact totals")
+    void record_ConcurrentCommits() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                PaymentMethod method = t % 2 == 0 ? PaymentMethod.CASH : PaymentMethod.DEBIT_CARD;
+                results.add(executor.submit(() -> {
+                    for (int i = 0; i < PAYMENTS_PER_THREAD; i++) {
+                        transaction.executeWithoutResult(status ->
+                            record(LedgerEntryType.PAYMENT_RECEIPT, "1.50", null, payment(method), null));
+                    }
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get(2, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        List<DailyFinancialRollupDto> rows = service.getRollup(DAY, DAY);
+        long payments = (long) THREADS * PAYMENTS_PER_THREAD;
+        assertThat(rows).hasSize(2);
+        assertThat(rows.stream().mapToLong(DailyFinancialRollupDto::entryCount).sum()).isEqualTo(payments);
+        assertThat(rows.stream().map(DailyFinancialRollupDto::amount).reduce(BigDecimal.ZERO, BigDecimal::add))
+            .isEqualByComparingTo(new BigDecimal("1.50").multiply(BigDecimal.valueOf(payments)));
+        assertThat(service.verify(DAY, DAY, false).mismatchCount()).isZero();
+    }
+
+    /**
+     * Stores a ledger entry and hands it to the rollup, as LedgerServiceImpl does.
+     */
+    private void record(LedgerEntryType type, String amount, Invoice invoice, Payment payment, String tenantId) {
+        LedgerEntry entry = new LedgerEntry();
+        entry.setInvoice(invoice);
+        entry.setPayment(payment);
+        entry.setEntryType(type);
+        entry.setAmount(new BigDecimal(amount));
+        entry.setOccurredAt(NOON);
+        entry.setTenantId(tenantId);
+        insertLedger(type, amount, invoice != null ? invoice.getId() : null, payment, tenantId);
+        service.record(entry);
+    }
+
+    private void insertLedger(LedgerEntryType type, String amount, UUID invoiceId, Payment payment, String tenantId) {
+        UUID paymentId = null;
+        if (payment != null) {
+            paymentId = payment.getId();
+            jdbcTemplate.update("""
+                INSERT INTO payments (id, invoice_id, patient_id, payment_date, amount, payment_method, type, status,
+                                      created_at)
+                VALUES (?, ?, ?, ?, ?, ?, 'PAYMENT', 'COMPLETED', ?)
+                """, paymentId, invoiceId, patientId, DAY, new BigDecimal(amount).abs(),
+                payment.getPaymentMethod().name(), Timestamp.from(NOON));
+        }
+        jdbcTemplate.update("""
+            INSERT INTO ledger_entries (id, patient_id, invoice_id, payment_id, entry_type, amount, occurred_at, tenant_id)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+            """, UUID.randomUUID(), patientId, invoiceId, paymentId, type.name(), new BigDecimal(amount),
+            Timestamp.from(NOON), tenantId);
+    }
+
+    /**
+     * An invoice for a cleaning performed by Dr. Adams and an X-ray taken during Dr. Baker's visit.
+     */
+    private Invoice invoiceWithProcedures() {
+        Visit visit = new Visit();
+        visit.setId(UUID.randomUUID());
+        visit.setProvider(drBaker);
+        jdbcTemplate.update("INSERT INTO visits (id, patient_id, provider_id, date) VALUES (?, ?, ?, ?)",
+            visit.getId(), patientId, drBaker.getId(), DAY);
+
+        Invoice invoice = new Invoice();
+        invoice.setId(UUID.randomUUID());
+        jdbcTemplate.update("""
+            INSERT INTO invoices (id, patient_id, issue_date, total_amount, sub_total, status)
+            VALUES (?, ?, ?, 150.00, 150.00, 'UNPAID')
+            """, invoice.getId(), patientId, DAY);
+
+        invoice.getItems().add(item(invoice, procedure(visit, "D1110", drAdams), "100.00"));
+        invoice.getItems().add(item(invoice, procedure(visit, "D0210", null), "30.00"));
+        // A fee without a procedure stays unattributed
+        invoice.getItems().add(item(invoice, null, "20.00"));
+        return invoice;
+    }
+
+    private VisitProcedure procedure(Visit visit, String code, Staff performedBy) {
+        VisitProcedure procedure = new VisitProcedure();
+        procedure.setId(UUID.randomUUID());
+        procedure.setVisit(visit);
+        procedure.setCode(code);
+        procedure.setPerformedBy(performedBy);
+        jdbcTemplate.update("""
+            INSERT INTO procedures (id, visit_id, code, name, unit_fee, performed_by_id, status)
+            VALUES (?, ?, ?, ?, 0, ?, 'COMPLETED')
+            """, procedure.getId(), visit.getId(), code, code, performedBy != null ? performedBy.getId() : null);
+        return procedure;
+    }
+
+    private InvoiceItem item(Invoice invoice, VisitProcedure procedure, String amount) {
+        InvoiceItem item = new InvoiceItem();
+        item.setId(UUID.randomUUID());
+        item.setInvoice(invoice);
+        item.setProcedure(procedure);
+        item.setAmount(new BigDecimal(amount));
+        jdbcTemplate.update("INSERT INTO invoice_items (id, invoice_id, procedure_id, amount) VALUES (?, ?, ?, ?)",
+            item.getId(), invoice.getId(), procedure != null ? procedure.getId() : null, item.getAmount());
+        return item;
+    }
+
+    private static Payment payment(PaymentMethod method) {
+        Payment payment = new Payment();
+        payment.setId(UUID.randomUUID());
+        payment.setPaymentMethod(method);
+        return payment;
+    }
+
+    private static Staff staff(String name) {
+        Staff staff = new Staff();
+        staff.setId(UUID.randomUUID());
+        staff.setFullName(name);
+        return staff;
+    }
+
+    private int rollupRows() {
+        Integer rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM daily_financial_rollup", Integer.class);
+        return rows != null ? rows : 0;
+    }
+
+    private static List<DailyFinancialRollupDto> sorted(List<DailyFinancialRollupDto> rows) {
+        return rows.stream().sorted(Comparator.comparing(DailyFinancialRollupDto::toString)).toList();
+    }
+}
@@ -0,0 +1,87 @@
+package sy.sezar.clinicx.patient.service.impl;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("DaySlots Tests")
+class DaySlotsTest {
+
+    @Test
+    @DisplayName("Should hold the slots of a range across word boundaries, clamped to the day")
+    void range_AcrossWords() {
+        DaySlots slots = DaySlots.range(60, 130);
+
+        assertThat(slots.cardinality()).isEqualTo(70);
+        assertThat(slots.contains(59)).isFalse();
+        assertThat(slots.contains(60)).isTrue();
+        assertThat(slots.contains(64)).isTrue();
+        assertThat(slots.contains(129)).isTrue();
+        assertThat(slots.contains(130)).isFalse();
+        assertThat(DaySlots.range(-10, 3)).isEqualTo(DaySlots.range(0, 3));
+        assertThat(DaySlots.range(280, 400).cardinality()).isEqualTo(8);
+        assertThat(DaySlots.range(10, 10).isEmpty()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should combine slots with or, and and andNot")
+    void bitwiseOperations() {
+        DaySlots morning = DaySlots.range(96, 144);
+        DaySlots booked = DaySlots.range(100, 106).or(DaySlots.range(140, 150));
+
+        assertThat(morning.andNot(booked).cardinality()).isEqualTo(48 - 6 - 4);
+        assertThat(morning.and(booked)).isEqualTo(DaySlots.range(100, 106).or(DaySlots.range(140, 144)));
+        assertThat(morning.intersects(DaySlots.range(144, 150))).isFalse();
+        assertThat(DaySlots.every(6).cardinality()).isEqualTo(DaySlots.SLOTS_PER_DAY / 6);
+    }
+
+    @Test
+    @DisplayName("Should find the starts of free runs spanning several words")
+    void runStarts_AcrossWords() {
+        DaySlots free = DaySlots.range(50, 140);
+
+        assertThat(free.runStarts(90)).isEqualTo(DaySlots.range(50, 51));
+        assertThat(free.runStarts(91).isEmpty()).isTrue();
+        assertThat(free.runStarts(1)).isEqualTo(free);
+        assertThat(DaySlots.range(270, 288).runStarts(6)).isEqualTo(DaySlots.range(270, 283));
+    }
+
+    @Test
+    @DisplayName("Should find the same run starts as checking every slot of every run")
+    void runStarts_MatchesBruteForce() {
+        Random random = new Random(42);
+        for (int day = 0; day < 200; day++) {
+            boolean[] free = new boolean[DaySlots.SLOTS_PER_DAY];
+            DaySlots slots = DaySlots.EMPTY;
+            for (int run = random.nextInt(12); run > 0; run--) {
+                int from = random.nextInt(DaySlots.SLOTS_PER_DAY);
+                int to = from + 1 + random.nextInt(80);
+                slots = slots.or(DaySlots.range(from, to));
+                for (int slot = from; slot < Math.min(to, DaySlots.SLOTS_PER_DAY); slot++) {
+                    free[slot] = true;
+                }
+            }
+
+            int length = 1 + random.nextInt(100);
+            List<Integer> expected = new ArrayList<>();
+            for (int start = 0; start + length <= DaySlots.SLOTS_PER_DAY; start++) {
+                boolean run = true;
+                for (int slot = start; slot < start + length && run; slot++) {
+                    run = free[slot];
+                }
+                if (run) {
+                    expected.add(start);
+                }
+            }
+            List<Integer> actual = new ArrayList<>();
+            slots.runStarts(length).forEach(actual::add);
+
+            assertThat(actual).as("run of %d slots in %s", length, slots).isEqualTo(expected);
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package sy.sezar.clinicx.patient.service.impl;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import sy.sezar.clinicx.clinic.model.Staff;
+import sy.sezar.clinicx.clinic.model.StaffWorkingHours;
+import sy.sezar.clinicx.clinic.model.enums.StaffRole;
+import sy.sezar.clinicx.clinic.repository.StaffRepository;
+import sy.sezar.clinicx.clinic.repository.StaffRepository.StaffNameRow;
+import sy.sezar.clinicx.clinic.repository.StaffWorkingHoursRepository;
+import sy.sezar.clinicx.core.exception.BusinessRuleException;
+import sy.sezar.clinicx.core.exception.NotValidValueException;
+import sy.sezar.clinicx.patient.dto.FreeSlotDto;
+import sy.sezar.clinicx.patient.dto.FreeSlotSearchCriteria;
+import sy.sezar.clinicx.patient.dto.WorkingHoursDto;
+import sy.sezar.clinicx.patient.repository.AppointmentRepository;
+import sy.sezar.clinicx.patient.repository.AppointmentRepository.DoctorBookedSlotRow;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DisplayName("DoctorAvailabilityServiceImpl Tests")
+class DoctorAvailabilityServiceImplTest {
+
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+    private static final LocalDate MONDAY = LocalDate.now().plusWeeks(1).with(TemporalAdjusters.next(DayOfWeek.MONDAY));
+
+    private final AppointmentRepository appointmentRepository = mock(AppointmentRepository.class);
+    private final StaffRepository staffRepository = mock(StaffRepository.class);
+    private final StaffWorkingHoursRepository staffWorkingHoursRepository = mock(StaffWorkingHoursRepository.class);
+    private DoctorScheduleIndexImpl doctorScheduleIndex;
+    private DoctorAvailabilityServiceImpl availabilityService;
+
+    private final UUID amal = UUID.randomUUID();
+    private final UUID basel = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        doctorScheduleIndex = new DoctorScheduleIndexImpl(appointmentRepository, new SimpleMeterRegistry());
+        availabilityService = new DoctorAvailabilityServiceImpl(doctorScheduleIndex, staffRepository,
+            staffWorkingHoursRepository, new SimpleMeterRegistry(), "09:00", "17:00");
+        when(staffRepository.findActiveNamesByRoleAndIds(eq(StaffRole.DOCTOR), anyCollection()))
+            .thenReturn(List.of(new Doctor(amal, "Amal")));
+    }
+
+    @Test
+    @DisplayName("Should find the slots within the default working hours that are not booked")
+    void findFreeSlots_DefaultHoursWithoutBookings() {
+        when(appointmentRepository.findBookedSlotsOfDoctors(anyCollection(), any(), any(), anyCollection()))
+            .thenReturn(List.of(new Booking(UUID.randomUUID(), amal, at(MONDAY, "09:30"), 30)));
+
+        List<FreeSlotDto> slots = availabilityService.findFreeSlots(search(Set.of(amal), 30, 4));
+
+        assertThat(slots).extracting(FreeSlotDto::startDateTime)
+            .containsExactly(at(MONDAY, "09:00"), at(MONDAY, "10:00"), at(MONDAY, "10:30"), at(MONDAY, "11:00"));
+        assertThat(slots.get(0).endDateTime()).isEqualTo(at(MONDAY, "09:30"));
+        assertThat(slots).allMatch(slot -> slot.doctorId().equals(amal) && slot.doctorName().equals("Amal"));
+    }
+
+    @Test
+    @DisplayName("Should order the slots of several doctors by start and then by doctor name")
+    void findFreeSlots_OrderedByStartAndName() {
+        when(staffRepository.findActiveNamesByRoleAndIds(eq(StaffRole.DOCTOR), anyCollection()))
+            .thenReturn(List.of(new Doctor(amal, "Amal"), new Doctor(basel, "Basel")));
+        when(appointmentRepository.findBookedSlotsOfDoctors(anyCollection(), any(), any(), anyCollection()))
+            .thenReturn(List.of(new Booking(UUID.randomUUID(), basel, at(MONDAY, "09:00"), 60)));
+
+        List<FreeSlotDto> slots = availabilityService.findFreeSlots(search(Set.of(amal, basel), 60, 4));
+
+        assertThat(slots).extracting(FreeSlotDto::doctorName, FreeSlotDto::startDateTime).containsExactly(
+            tuple("Amal", at(MONDAY, "09:00")),
+            tuple("Amal", at(MONDAY, "10:00")),
+            tuple("Basel", at(MONDAY, "10:00")),
+            tuple("Amal", at(MONDAY, "11:00")));
+    }
+
+    @Test
+    @DisplayName("Should only offer slots fully within a doctor's own working hours, not on days off")
+    void findFreeSlots_OwnWorkingHours() {
+        Staff doctor = new Staff();
+        doctor.setId(amal);
+        when(staffWorkingHoursRepository.findByStaffIds(anyCollection()))
+            .thenReturn(List.of(hours(doctor, DayOfWeek.TUESDAY, "13:10", "14:50")));
+
+        List<FreeSlotDto> slots = availabilityService.findFreeSlots(
+            new FreeSlotSearchCriteria(null, Set.of(amal), MONDAY, MONDAY.plusDays(6), 30, 10, 10));
+
+        LocalDate tuesday = MONDAY.plusDays(1);
+        assertThat(slots).extracting(FreeSlotDto::startDateTime)
+            .containsExactly(at(tuesday, "13:10"), at(tuesday, "13:20"), at(tuesday, "13:30"), at(tuesday, "13:40"),
+                at(tuesday, "13:50"), at(tuesday, "14:00"), at(tuesday, "14:10"), at(tuesday, "14:20"));
+    }
+
+    @Test
+    @DisplayName("Should read the booked days once and update them in place as appointments come and go")
+    void findFreeSlots_CachedDaysUpdatedInPlace() {
+        UUID appointment = UUID.randomUUID();
+        FreeSlotSearchCriteria criteria = search(Set.of(amal), 30, 1);
+
+        assertThat(availabilityService.findFreeSlots(criteria)).extracting(FreeSlotDto::startDateTime)
+            .containsExactly(at(MONDAY, "09:00"));
+
+        availabilityService.appointmentBooked(appointment, amal, at(MONDAY, "09:00"), at(MONDAY, "09:20"));
+        assertThat(availabilityService.findFreeSlots(criteria)).extracting(FreeSlotDto::startDateTime)
+            .containsExactly(at(MONDAY, "09:30"));
+
+        availabilityService.appointmentReleased(appointment, amal, at(MONDAY, "09:00"), at(MONDAY, "09:20"));
+        assertThat(availabilityService.findFreeSlots(criteria)).extracting(FreeSlotDto::startDateTime)
+            .containsExactly(at(MONDAY, "09:00"));
+
+        verify(appointmentRepository, times(1))
+            .findBookedSlotsOfDoctors(anyCollection(), any(), any(), anyCollection());
+    }
+
+    @Test
+    @DisplayName("Should not keep a day that a booking was reported for while it was being built")
+    void findFreeSlots_DayUpdatedWhileBuiltNotKept() {
+        FreeSlotSearchCriteria criteria = search(Set.of(amal), 30, 1);
+        when(appointmentRepository.findBookedSlotsOfDoctors(anyCollection(), any(), any(), anyCollection()))
+            .thenAnswer(invocation -> {
+                doctorScheduleIndex.invalidate(amal, at(MONDAY, "09:00"), at(MONDAY, "09:30"));
+                availabilityService.appointmentBooked(UUID.randomUUID(), amal, at(MONDAY, "09:00"),
+                    at(MONDAY, "09:30"));
+                return List.of();
+            })
+            .thenReturn(List.of(new Booking(UUID.randomUUID(), amal, at(MONDAY, "09:00"), 30)));
+
+        assertThat(availabilityService.findFreeSlots(criteria)).extracting(FreeSlotDto::startDateTime)
+            .containsExactly(at(MONDAY, "09:00"));
+        assertThat(availabilityService.findFreeSlots(criteria)).extracting(FreeSlotDto::startDateTime)
+            .containsExactly(at(MONDAY, "09:30"));
+    }
+
+    @Test
+    @DisplayName("Should keep a slot shared by two appointments booked when only one is released")
+    void appointmentReleased_SharedSlotStaysBooked() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        FreeSlotSearchCriteria criteria = new FreeSlotSearchCriteria(null, Set.of(amal), MONDAY, MONDAY, 5, 5, 1);
+        availabilityService.findFreeSlots(criteria);
+
+        availabilityService.appointmentBooked(first, amal, at(MONDAY, "09:00"), at(MONDAY, "09:07"));
+        availabilityService.appointmentBooked(second, amal, at(MONDAY, "09:07"), at(MONDAY, "09:15"));
+        availabilityService.appointmentReleased(first, amal, at(MONDAY, "09:00"), at(MONDAY, "09:07"));
+
+        assertThat(availabilityService.findFreeSlots(criteria)).extracting(FreeSlotDto::startDateTime)
+            .containsExactly(at(MONDAY, "09:00"));
+        availabilityService.appointmentReleased(second, amal, at(MONDAY, "09:07"), at(MONDAY, "09:15"));
+        availabilityService.appointmentBooked(first, amal, at(MONDAY, "09:00"), at(MONDAY, "09:05"));
+        assertThat(availabilityService.findFreeSlots(criteria)).extracting(FreeSlotDto::startDateTime)
+            .containsExactly(at(MONDAY, "09:05"));
+    }
+
+    @Test
+    @DisplayName("Should not offer a slot that an appointment only partly takes")
+    void findFreeSlots_PartlyTakenSlotBooked() {
+        when(appointmentRepository.findBookedSlotsOfDoctors(anyCollection(), any(), any(), anyCollection()))
+            .thenReturn(List.of(new Booking(UUID.randomUUID(), amal, at(MONDAY, "09:00"), 7),
+                new Booking(UUID.randomUUID(), amal, at(MONDAY, "09:07"), 8)));
+
+        List<FreeSlotDto> slots = availabilityService.findFreeSlots(
+            new FreeSlotSearchCriteria(null, Set.of(amal), MONDAY, MONDAY, 5, 5, 1));
+
+        assertThat(slots).extracting(FreeSlotDto::startDateTime).containsExactly(at(MONDAY, "09:15"));
+    }
+
+    @Test
+    @DisplayName("Should reject searches without doctors, over too many days or with a duration off the slot grid")
+    void findFreeSlots_InvalidCriteria() {
+        assertThatThrownBy(() -> availabilityService.findFreeSlots(
+            new FreeSlotSearchCriteria(null, Set.of(), MONDAY, MONDAY, 30, null, 10)))
+            .isInstanceOf(NotValidValueException.class);
+        assertThatThrownBy(() -> availabilityService.findFreeSlots(
+            new FreeSlotSearchCriteria(null, Set.of(amal), MONDAY, MONDAY.plusDays(31), 30, null, 10)))
+            .isInstanceOf(BusinessRuleException.class);
+        assertThatThrownBy(() -> availabilityService.findFreeSlots(search(Set.of(amal), 7, 10)))
+            .isInstanceOf(NotValidValueException.class);
+        assertThatThrownBy(() -> availabilityService.findFreeSlots(
+            search(Set.of(amal), 30, DoctorAvailabilityServiceImpl.MAX_LIMIT + 1)))
+            .isInstanceOf(NotValidValueException.class);
+    }
+
+    @Test
+    @DisplayName("Should reject overlapping working periods")
+    void replaceWorkingHours_Overlapping() {
+        when(staffRepository.findById(amal)).thenReturn(Optional.of(new Staff()));
+
+        assertThatThrownBy(() -> availabilityService.replaceWorkingHours(amal, List.of(
+            new WorkingHoursDto(DayOfWeek.MONDAY, LocalTime.of(9, 0), LocalTime.of(13, 0)),
+            new WorkingHoursDto(DayOfWeek.MONDAY, LocalTime.of(12, 0), LocalTime.of(16, 0)))))
+            .isInstanceOf(BusinessRuleException.class)
+            .hasMessageContaining("overlap");
+    }
+
+    private static FreeSlotSearchCriteria search(Set<UUID> doctorIds, int durationMinutes, int limit) {
+        return new FreeSlotSearchCriteria(null, doctorIds, MONDAY, MONDAY, durationMinutes, null, limit);
+    }
+
+    private static Instant at(LocalDate day, String time) {
+        return day.atTime(LocalTime.parse(time)).atZone(ZONE).toInstant();
+    }
+
+    private static StaffWorkingHours hours(Staff staff, DayOfWeek day, String start, String end) {
+        StaffWorkingHours hours = new StaffWorkingHours();
+        hours.setStaff(staff);
+        hours.setDayOfWeek(day);
+        hours.setStartTime(LocalTime.parse(start));
+        hours.setEndTime(LocalTime.parse(end));
+        return hours;
+    }
+
+    private record Doctor(UUID getId, String getFullName) implements StaffNameRow {
+    }
+
+    private record Booking(UUID getId, UUID getDoctorId, Instant getAppointmentDatetime, Integer getDurationMinutes)
+        implements DoctorBookedSlotRow {
+    }
+}
@@ -0,0 +1,135 @@
+package sy.sezar.clinicx.patient.service.impl;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import sy.sezar.clinicx.core.exception.BusinessRuleException;
+import sy.sezar.clinicx.patient.dto.AccountsReceivableAgingDto;
+import sy.sezar.clinicx.patient.dto.CashFlowAnalysisDto;
+import sy.sezar.clinicx.patient.dto.DailyFinancialRollupDto;
+import sy.sezar.clinicx.patient.dto.RevenueAnalyticsDto;
+import sy.sezar.clinicx.patient.model.enums.LedgerEntryType;
+import sy.sezar.clinicx.patient.model.enums.PaymentMethod;
+import sy.sezar.clinicx.patient.service.DailyFinancialRollupService;
+import sy.sezar.clinicx.patient.service.InvoiceAgingService;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("FinancialAnalyticsServiceImpl Tests")
+class FinancialAnalyticsServiceImplTest {
+
+    private static final LocalDate MAR_1 = LocalDate.of(2026, 3, 1);
+    private static final LocalDate MAR_31 = LocalDate.of(2026, 3, 31);
+    private static final UUID DR_ADAMS = UUID.randomUUID();
+
+    @Mock
+    private DailyFinancialRollupService dailyFinancialRollupService;
+
+    @Mock
+    private InvoiceAgingService invoiceAgingService;
+
+    @Mock
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private FinancialAnalyticsServiceImpl service;
+
+    @Test
+    @DisplayName("Should compute revenue analytics from rollup rows with one rollup read")
+    void getRevenueAnalytics_UsesRollup() {
+        when(dailyFinancialRollupService.getRollup(LocalDate.of(2026, 1, 29), MAR_31)).thenReturn(List.of(
+            // Previous period
+            row(LocalDate.of(2026, 2, 10), null, null, LedgerEntryType.CHARGE, "200.00", 1),
+            // Current period
+            row(LocalDate.of(2026, 3, 2), DR_ADAMS, "D1110", LedgerEntryType.CHARGE, "250.00", 0),
+            row(LocalDate.of(2026, 3, 2), null, null, LedgerEntryType.CHARGE, "50.00", 2),
+            row(LocalDate.of(2026, 3, 2), null, null, LedgerEntryType.DISCOUNT, "20.00", 1),
+            cash(LocalDate.of(2026, 3, 5), PaymentMethod.CASH, LedgerEntryType.PAYMENT_RECEIPT, "150.00"),
+            cash(LocalDate.of(2026, 3, 6), PaymentMethod.CASH, LedgerEntryType.REFUND, "10.00"),
+            // Payment corrected from 40 to 30 raises the balance by 10
+            cash(LocalDate.of(2026, 3, 7), PaymentMethod.CREDIT_CARD, LedgerEntryType.ADJUSTMENT, "10.00"),
+            // Balance carried over from before the ledger is neither revenue nor cash
+            row(LocalDate.of(2026, 3, 2), null, null, LedgerEntryType.OPENING_BALANCE, "500.00", 1)));
+
+        RevenueAnalyticsDto analytics = service.getRevenueAnalytics(MAR_1, MAR_31);
+
+        assertThat(analytics.totalInvoiced()).isEqualByComparingTo("300.00");
+        assertThat(analytics.totalRevenue()).isEqualByComparingTo("280.00");
+        assertThat(analytics.totalCollected()).isEqualByComparingTo("130.00");
+        assertThat(analytics.outstandingAmount()).isEqualByComparingTo("150.00");
+        assertThat(analytics.averageInvoiceAmount()).isEqualByComparingTo("150.00");
+        assertThat(analytics.growthRate()).isEqualByComparingTo("40.00");
+        assertThat(analytics.collectionRate()).isEqualByComparingTo("46.43");
+        assertThat(analytics.revenueByTreatment()).containsOnly(Map.entry("D1110", new BigDecimal("250.00")));
+        assertThat(analytics.revenueByDoctor()).containsOnly(Map.entry("Dr. Adams", new BigDecimal("250.00")));
+        assertThat(analytics.revenueByMonth()).containsOnly(Map.entry("2026-03", new BigDecimal("280.00")));
+        assertThat(analytics.revenueTrends()).hasSize(4);
+        verify(dailyFinancialRollupService, times(1)).getRollup(any(), any());
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("Should delegate accounts receivable aging to the aging engine")
+    void getAccountsReceivableAging_Delegates() {
+        AccountsReceivableAgingDto aging = new AccountsReceivableAgingDto(MAR_31, BigDecimal.TEN, Map.of(),
+            List.of(), BigDecimal.TEN, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO, 1, 1, 0);
+        when(invoiceAgingService.getAccountsReceivableAging(MAR_31)).thenReturn(aging);
+
+        assertThat(service.getAccountsReceivableAging(MAR_31)).isSameAs(aging);
+        verifyNoInteractions(jdbcTemplate, dailyFinancialRollupService);
+    }
+
+    @Test
+    @DisplayName("Should build daily cash flow with running balance from rollup rows")
+    void getCashFlowAnalysis_UsesRollup() {
+        LocalDate start = LocalDate.of(2026, 3, 1);
+        LocalDate end = LocalDate.of(2026, 3, 4);
+        when(dailyFinancialRollupService.getRollup(start, end)).thenReturn(List.of(
+            cash(start, PaymentMethod.CASH, LedgerEntryType.PAYMENT_RECEIPT, "100.00"),
+            cash(LocalDate.of(2026, 3, 3), PaymentMethod.CASH, LedgerEntryType.PAYMENT_RECEIPT, "60.00"),
+            cash(LocalDate.of(2026, 3, 3), PaymentMethod.CASH, LedgerEntryType.REFUND, "20.00"),
+            row(LocalDate.of(2026, 3, 3), null, null, LedgerEntryType.CHARGE, "500.00", 1)));
+
+        CashFlowAnalysisDto cashFlow = service.getCashFlowAnalysis(start, end);
+
+        assertThat(cashFlow.cashInflows()).isEqualByComparingTo("160.00");
+        assertThat(cashFlow.cashOutflows()).isEqualByComparingTo("20.00");
+        assertThat(cashFlow.closingBalance()).isEqualByComparingTo("140.00");
+        assertThat(cashFlow.averageDailyCashFlow()).isEqualByComparingTo("35.00");
+        assertThat(cashFlow.cashFlowDetails())
+            .extracting(detail -> detail.runningBalance().toPlainString())
+            .containsExactly("100.00", "160.00", "140.00");
+    }
+
+    @Test
+    @DisplayName("Should reject invalid date ranges")
+    void analytics_InvalidRange() {
+        assertThatThrownBy(() -> service.getRevenueAnalytics(MAR_31, MAR_1))
+            .isInstanceOf(BusinessRuleException.class);
+        verifyNoInteractions(dailyFinancialRollupService);
+    }
+
+    private static DailyFinancialRollupDto row(LocalDate date, UUID doctorId, String procedureCode,
+                                               LedgerEntryType type, String amount, long count) {
+        return new DailyFinancialRollupDto(date, doctorId, doctorId != null ? "Dr. Adams" : null, null,
+            procedureCode, type, new BigDecimal(amount), count);
+    }
+
+    private static DailyFinancialRollupDto cash(LocalDate date, PaymentMethod method, LedgerEntryType type,
+                                                String amount) {
+        return new DailyFinancialRollupDto(date, null, null, method, null, type, new BigDecimal(amount), 1);
+    }
+}
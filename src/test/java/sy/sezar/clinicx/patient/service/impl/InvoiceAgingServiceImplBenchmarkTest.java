@@ -0,0 +1,176 @@
+package sy.sezar.clinicx.patient.service.impl;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import sy.sezar.clinicx.patient.dto.AgingGroupDto;
+import sy.sezar.clinicx.patient.dto.AgingPageDto;
+import sy.sezar.clinicx.patient.dto.InvoiceAgingReportDto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Latency of the invoice aging on PostgreSQL with 500k open invoices among 1.5M, against the
+ * former aging query that summed the payments of every open invoice in correlated subqueries.
+ * The data volume can be lowered with -Dbenchmark.openInvoices.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@DisplayName("InvoiceAgingServiceImpl Benchmark Tests")
+class InvoiceAgingServiceImplBenchmarkTest {
+
+    private static final int OPEN_INVOICES = Integer.getInteger("benchmark.openInvoices", 500_000);
+    private static final int INVOICES = OPEN_INVOICES * 3;
+    private static final int PATIENTS = Math.max(OPEN_INVOICES / 10, 100);
+    private static final int WARMUP = 3;
+    private static final int ITERATIONS = Integer.getInteger("benchmark.iterations", 20);
+    private static final int LEGACY_ITERATIONS = 3;
+
+    /** The former aging query, as generated from its JPQL. */
+    private static final String LEGACY_AGING_SQL = """
+        SELECT SUM(CASE WHEN CURRENT_DATE - i.due_date <= 30 THEN
+                   i.total_amount - COALESCE((SELECT SUM(p.amount) FROM payments p WHERE p.invoice_id = i.id), 0)
+                   ELSE 0 END) AS current_amount,
+               SUM(CASE WHEN CURRENT_DATE - i.due_date BETWEEN 31 AND 60 THEN
+                   i.total_amount - COALESCE((SELECT SUM(p.amount) FROM payments p WHERE p.invoice_id = i.id), 0)
+                   ELSE 0 END) AS days30_amount,
+               SUM(CASE WHEN CURRENT_DATE - i.due_date BETWEEN 61 AND 90 THEN
+                   i.total_amount - COALESCE((SELECT SUM(p.amount) FROM payments p WHERE p.invoice_id = i.id), 0)
+                   ELSE 0 END) AS days60_amount,
+               SUM(CASE WHEN CURRENT_DATE - i.due_date > 90 THEN
+                   i.total_amount - COALESCE((SELECT SUM(p.amount) FROM payments p WHERE p.invoice_id = i.id), 0)
+                   ELSE 0 END) AS days90_amount
+        FROM invoices i WHERE i.status IN ('UNPAID', 'PARTIALLY_PAID', 'OVERDUE')
+        """;
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static JdbcTemplate jdbcTemplate;
+    private static InvoiceAgingServiceImpl service;
+
+    @BeforeAll
+    static void generateData() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+            POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+        new ResourceDatabasePopulator(new ClassPathResource("db/billing-report-schema.sql")).execute(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        service = new InvoiceAgingServiceImpl(new NamedParameterJdbcTemplate(dataSource));
+
+        long start = System.nanoTime();
+        jdbcTemplate.execute("""
+            CREATE FUNCTION bench_id(t INT, n BIGINT) RETURNS UUID IMMUTABLE LANGUAGE SQL AS
+            $$ SELECT CAST(lpad(to_hex(t), 8, '0') || lpad(to_hex(n), 24, '0') AS UUID) $$
+            """);
+        jdbcTemplate.execute("""
+            INSERT INTO patients (id, public_facing_id, full_name, insurance_provider)
+            SELECT bench_id(3, g), 'P-' || g, 'Patient ' || g,
+                   CASE WHEN g %% 5 = 0 THEN NULL ELSE 'Provider ' || g %% 20 END
+            FROM generate_series(1, %d) g
+            """.formatted(PATIENTS));
+        // One in three invoices is open; open invoices are issued over the last year and due 30 days later
+        jdbcTemplate.execute("""
+            INSERT INTO invoices (id, invoice_number, patient_id, issue_date, due_date, total_amount, sub_total,
+                                  amount_paid, amount_due, status)
+            SELECT bench_id(9, g), 'INV-' || g, bench_id(3, g %% %d + 1), CURRENT_DATE - g %% 365,
+                   CURRENT_DATE - g %% 365 + 30, total, total,
+                   CASE status WHEN 'PAID' THEN total WHEN 'PARTIALLY_PAID' THEN 50 ELSE 0 END,
+                   CASE status WHEN 'PAID' THEN 0 WHEN 'PARTIALLY_PAID' THEN total - 50 ELSE total END, status
+            FROM (SELECT g, 100 + g %% 400 AS total,
+                         (ARRAY['PAID', 'PAID', 'UNPAID', 'PAID', 'PARTIALLY_PAID', 'PAID', 'OVERDUE', 'PAID',
+                                'CANCELLED'])[g %% 9 + 1] AS status
+                  FROM generate_series(1, %d) g) s
+            """.formatted(PATIENTS, INVOICES));
+        jdbcTemplate.execute("""
+            INSERT INTO payments (id, invoice_id, patient_id, payment_date, amount, payment_method, type, status,
+                                  created_at)
+            SELECT gen_random_uuid(), i.id, i.patient_id, LEAST(i.issue_date + 10, CURRENT_DATE), i.amount_paid,
+                   'CASH', 'PAYMENT', 'COMPLETED', CURRENT_TIMESTAMP
+            FROM invoices i
+            WHERE i.amount_paid > 0
+            """);
+        // Indexes of the production schema, and the payment lookup the former query would have needed
+        for (String index : new String[]{
+            "CREATE INDEX ON invoices(patient_id)",
+            "CREATE INDEX ON invoices(status)",
+            "CREATE INDEX ON invoices(patient_id, due_date) INCLUDE (issue_date, total_amount, amount_paid, amount_due)"
+                + " WHERE status IN ('UNPAID', 'PARTIALLY_PAID', 'OVERDUE')",
+            "CREATE INDEX ON payments(payment_date, type) INCLUDE (amount, payment_method, status)",
+            "CREATE INDEX ON payments(invoice_id)"}) {
+            jdbcTemplate.execute(index);
+        }
+        jdbcTemplate.execute("VACUUM ANALYZE");
+        System.out.printf("Generated %d invoices, %d of them open, in %.1f s%n",
+            INVOICES, OPEN_INVOICES, (System.nanoTime() - start) / 1_000_000_000.0);
+    }
+
+    @Test
+    @DisplayName("Benchmark: p50/p99 latency of the aging summary and drill-downs")
+    void benchmark_AgingLatency() {
+        LocalDate today = LocalDate.now();
+        Map<String, Object> legacy = jdbcTemplate.queryForMap(LEGACY_AGING_SQL);
+        InvoiceAgingReportDto report = service.getAgingReport(today, false);
+        assertThat(report.total()).isEqualByComparingTo(legacy.values().stream()
+            .map(BigDecimal.class::cast).reduce(BigDecimal.ZERO, BigDecimal::add));
+        assertThat(report.current()).isEqualByComparingTo((BigDecimal) legacy.get("current_amount"));
+
+        // A cursor deep into the patients, so that later pages are measured too
+        String deepCursor = null;
+        for (int i = 0; i < 20; i++) {
+            deepCursor = service.getAgingByPatient(today, deepCursor, 500).nextCursor();
+        }
+        String patientCursor = deepCursor;
+        UUID patient = UUID.fromString(service.getAgingByPatient(today, patientCursor, 1).items().get(0).key());
+
+        Map<String, Runnable> variants = new LinkedHashMap<>();
+        variants.put("legacy correlated subqueries", () -> jdbcTemplate.queryForMap(LEGACY_AGING_SQL));
+        variants.put("summary as of today", () -> service.getAccountsReceivableAging(today));
+        variants.put("summary as of 60 days ago", () -> service.getAccountsReceivableAging(today.minusDays(60)));
+        variants.put("by patient, first page", () -> service.getAgingByPatient(today, null, 50));
+        variants.put("by patient, page after 10k patients", () -> service.getAgingByPatient(today, patientCursor, 50));
+        variants.put("by insurance provider", () -> service.getAgingByInsuranceProvider(today, null, 50));
+        variants.put("invoices of a patient", () -> service.getAgingInvoices(today, patient, null, null, 50));
+        variants.put("invoices of a provider", () -> service.getAgingInvoices(today, null, "Provider 7", null, 50));
+
+        System.out.printf("%-40s %10s %10s%n", "Aging", "p50 (ms)", "p99 (ms)");
+        variants.forEach((name, variant) -> {
+            int iterations = name.startsWith("legacy") ? LEGACY_ITERATIONS : ITERATIONS;
+            for (int i = 0; i < Math.min(WARMUP, iterations); i++) {
+                variant.run();
+            }
+            double[] millis = new double[iterations];
+            for (int i = 0; i < iterations; i++) {
+                long start = System.nanoTime();
+                variant.run();
+                millis[i] = (System.nanoTime() - start) / 1_000_000.0;
+            }
+            Arrays.sort(millis);
+            System.out.printf("%-40s %10.1f %10.1f%n", name, percentile(millis, 0.50), percentile(millis, 0.99));
+            assertThat(millis[0]).isPositive();
+        });
+
+        AgingPageDto<AgingGroupDto> providers = service.getAgingByInsuranceProvider(today, null, 50);
+        // Sixteen providers and the patients without one
+        assertThat(providers.items()).hasSize(17);
+        assertThat(providers.nextCursor()).isNull();
+    }
+
+    private static double percentile(double[] sorted, double percentile) {
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+}
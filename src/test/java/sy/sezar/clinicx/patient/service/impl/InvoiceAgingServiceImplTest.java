@@ -0,0 +1,234 @@
+package sy.sezar.clinicx.patient.service.impl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import sy.sezar.clinicx.core.exception.BusinessRuleException;
+import sy.sezar.clinicx.patient.dto.AccountsReceivableAgingDto;
+import sy.sezar.clinicx.patient.dto.AgingDetailDto;
+import sy.sezar.clinicx.patient.dto.AgingGroupDto;
+import sy.sezar.clinicx.patient.dto.AgingPageDto;
+import sy.sezar.clinicx.patient.dto.InvoiceAgingReportDto;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("InvoiceAgingServiceImpl Tests")
+class InvoiceAgingServiceImplTest {
+
+    private static final LocalDate TODAY = LocalDate.now();
+
+    private static final UUID ALICE = UUID.fromString("00000000-0000-0000-0000-000000000001");
+    private static final UUID BOB = UUID.fromString("00000000-0000-0000-0000-000000000002");
+    private static final UUID CAROL = UUID.fromString("00000000-0000-0000-0000-000000000003");
+
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+    private final AtomicInteger connections = new AtomicInteger();
+    private InvoiceAgingServiceImpl service;
+
+    private UUID aliceOldest;
+    private UUID aliceRecent;
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+            .setType(EmbeddedDatabaseType.H2)
+            .generateUniqueName(true)
+            .addScript("db/billing-report-schema.sql")
+            .build();
+        jdbcTemplate = new JdbcTemplate(database);
+        service = new InvoiceAgingServiceImpl(new NamedParameterJdbcTemplate(new DelegatingDataSource(database) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                connections.incrementAndGet();
+                return super.getConnection();
+            }
+        }));
+
+        patient(ALICE, "Alice", "Acme Health");
+        patient(BOB, "Bob", null);
+        patient(CAROL, "Carol", "Beta Insurance");
+
+        aliceOldest = invoice(ALICE, "UNPAID", 130, 120, "100.00", "0.00", "100.00");
+        aliceRecent = invoice(ALICE, "PARTIALLY_PAID", 20, 10, "200.00", "50.00", "150.00");
+        payment(aliceRecent, ALICE, 3, "50.00");
+        invoice(BOB, "OVERDUE", 55, 45, "80.00", "0.00", "80.00");
+        invoice(BOB, "UNPAID", 1, -5, "60.00", "0.00", "60.00");
+        invoice(BOB, "CANCELLED", 100, 90, "500.00", "0.00", "500.00");
+        invoice(CAROL, "UNPAID", 85, 75, "40.00", "0.00", "40.00");
+        // Paid in full five days ago
+        UUID carolPaid = invoice(CAROL, "PAID", 40, 30, "70.00", "70.00", "0.00");
+        payment(carolPaid, CAROL, 5, "70.00");
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should bucket open balances as of today in one statement")
+    void getAccountsReceivableAging_Today() {
+        AccountsReceivableAgingDto aging = service.getAccountsReceivableAging(TODAY);
+
+        assertThat(connections.get()).isEqualTo(1);
+        assertThat(aging.currentAmount()).isEqualByComparingTo("60.00");
+        assertThat(aging.days30Amount()).isEqualByComparingTo("150.00");
+        assertThat(aging.days60Amount()).isEqualByComparingTo("80.00");
+        assertThat(aging.days90Amount()).isEqualByComparingTo("40.00");
+        assertThat(aging.over90Amount()).isEqualByComparingTo("100.00");
+        assertThat(aging.totalReceivables()).isEqualByComparingTo("430.00");
+        assertThat(aging.agingBuckets()).containsOnlyKeys("CURRENT", "1-30", "31-60", "61-90", "90+");
+        assertThat(aging.totalAccounts()).isEqualTo(3);
+        assertThat(aging.overdueAccounts()).isEqualTo(3);
+        assertThat(aging.currentAccounts()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should add back later payments for a snapshot in the past")
+    void getAccountsReceivableAging_Snapshot() {
+        AccountsReceivableAgingDto aging = service.getAccountsReceivableAging(TODAY.minusDays(20));
+
+        // Alice's partial payment and Carol's settled invoice were still open; Bob's newest was not issued yet
+        assertThat(aging.currentAmount()).isEqualByComparingTo("200.00");
+        assertThat(aging.days30Amount()).isEqualByComparingTo("150.00");
+        assertThat(aging.days60Amount()).isEqualByComparingTo("40.00");
+        assertThat(aging.days90Amount()).isEqualByComparingTo("0.00");
+        assertThat(aging.over90Amount()).isEqualByComparingTo("100.00");
+        assertThat(aging.totalReceivables()).isEqualByComparingTo("490.00");
+    }
+
+    @Test
+    @DisplayName("Should report invoices up to 30 days past due as current with the oldest details first")
+    void getAgingReport_WithDetails() {
+        InvoiceAgingReportDto report = service.getAgingReport(TODAY, true);
+
+        assertThat(report.current()).isEqualByComparingTo("210.00");
+        assertThat(report.days30()).isEqualByComparingTo("80.00");
+        assertThat(report.days60()).isEqualByComparingTo("40.00");
+        assertThat(report.days90Plus()).isEqualByComparingTo("100.00");
+        assertThat(report.total()).isEqualByComparingTo("430.00");
+        assertThat(report.details()).hasSize(5);
+        InvoiceAgingReportDto.AgingDetail oldest = report.details().get(0);
+        assertThat(oldest.patientName()).isEqualTo("Alice");
+        assertThat(oldest.daysPastDue()).isEqualTo(120);
+        assertThat(oldest.agingBucket()).isEqualTo("90+");
+        assertThat(report.details().get(4).agingBucket()).isEqualTo("CURRENT");
+    }
+
+    @Test
+    @DisplayName("Should page through patients with a keyset cursor")
+    void getAgingByPatient_Pages() {
+        AgingPageDto<AgingGroupDto> first = service.getAgingByPatient(TODAY, null, 2);
+
+        assertThat(first.items()).extracting(AgingGroupDto::name).containsExactly("Alice", "Bob");
+        assertThat(first.items().get(0).invoiceCount()).isEqualTo(2);
+        assertThat(first.items().get(0).totalAmount()).isEqualByComparingTo("250.00");
+        assertThat(first.nextCursor()).isNotNull();
+
+        AgingPageDto<AgingGroupDto> second = service.getAgingByPatient(TODAY, first.nextCursor(), 2);
+        assertThat(second.items()).extracting(AgingGroupDto::key).containsExactly(CAROL.toString());
+        assertThat(second.items().get(0).days90Amount()).isEqualByComparingTo("40.00");
+        assertThat(second.nextCursor()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should group patients without insurance as self-pay")
+    void getAgingByInsuranceProvider_Pages() {
+        AgingPageDto<AgingGroupDto> first = service.getAgingByInsuranceProvider(TODAY, null, 2);
+
+        assertThat(first.items()).extracting(AgingGroupDto::name).containsExactly("Self-pay", "Acme Health");
+        assertThat(first.items()).extracting(AgingGroupDto::totalAmount)
+            .usingElementComparator(BigDecimal::compareTo)
+            .containsExactly(new BigDecimal("140.00"), new BigDecimal("250.00"));
+
+        AgingPageDto<AgingGroupDto> second = service.getAgingByInsuranceProvider(TODAY, first.nextCursor(), 2);
+        assertThat(second.items()).extracting(AgingGroupDto::key).containsExactly("Beta Insurance");
+        assertThat(second.nextCursor()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should page through the open invoices of a patient oldest first")
+    void getAgingInvoices_PatientPages() {
+        AgingPageDto<AgingDetailDto> first = service.getAgingInvoices(TODAY, ALICE, null, null, 1);
+        AgingPageDto<AgingDetailDto> second = service.getAgingInvoices(TODAY, ALICE, null, first.nextCursor(), 1);
+
+        assertThat(first.items()).extracting(AgingDetailDto::invoiceId).containsExactly(aliceOldest);
+        assertThat(second.items()).extracting(AgingDetailDto::invoiceId).containsExactly(aliceRecent);
+        AgingDetailDto recent = second.items().get(0);
+        assertThat(recent.paidAmount()).isEqualByComparingTo("50.00");
+        assertThat(recent.outstandingAmount()).isEqualByComparingTo("150.00");
+        assertThat(recent.daysOverdue()).isEqualTo(10);
+        assertThat(recent.agingBucket()).isEqualTo("1-30");
+        assertThat(second.nextCursor()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should list the open invoices of an insurance provider")
+    void getAgingInvoices_Provider() {
+        AgingPageDto<AgingDetailDto> selfPay = service.getAgingInvoices(TODAY, null, "", null, 10);
+
+        assertThat(selfPay.items()).extracting(AgingDetailDto::patientId).containsOnly(BOB);
+        assertThat(selfPay.items()).extracting(AgingDetailDto::outstandingAmount)
+            .usingElementComparator(BigDecimal::compareTo)
+            .containsExactly(new BigDecimal("80.00"), new BigDecimal("60.00"));
+        assertThat(selfPay.nextCursor()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should reject malformed cursors, page sizes and missing dates")
+    void validation() {
+        assertThatThrownBy(() -> service.getAgingInvoices(TODAY, ALICE, null, "not-a-cursor", 10))
+            .isInstanceOf(BusinessRuleException.class);
+        assertThatThrownBy(() -> service.getAgingByPatient(TODAY, null, 0))
+            .isInstanceOf(BusinessRuleException.class);
+        assertThatThrownBy(() -> service.getAgingByPatient(TODAY, null, 501))
+            .isInstanceOf(BusinessRuleException.class);
+        assertThatThrownBy(() -> service.getAccountsReceivableAging(null))
+            .isInstanceOf(BusinessRuleException.class);
+        assertThat(connections.get()).isZero();
+    }
+
+    private void patient(UUID id, String name, String insuranceProvider) {
+        jdbcTemplate.update(
+            "INSERT INTO patients (id, public_facing_id, full_name, insurance_provider) VALUES (?, ?, ?, ?)", id, "P-" + name, name, insuranceProvider);
+    }
+
+    private UUID invoice(UUID patient, String status, int issuedDaysAgo, int dueDaysAgo,
+                         String total, String paid, String due) {
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("""
+            INSERT INTO invoices (id, invoice_number, patient_id, issue_date, due_date, total_amount, amount_paid,
+                                  amount_due, status)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """, id, "INV-" + id.toString().substring(0, 8), patient, TODAY.minusDays(issuedDaysAgo),
+            TODAY.minusDays(dueDaysAgo), new BigDecimal(total), new BigDecimal(paid), new BigDecimal(due), status);
+        return id;
+    }
+
+    private void payment(UUID invoice, UUID patient, int daysAgo, String amount) {
+        LocalDate paymentDate = TODAY.minusDays(daysAgo);
+        jdbcTemplate.update("""
+            INSERT INTO payments (id, invoice_id, patient_id, payment_date, amount, payment_method, type, status,
+                                  created_at)
+            VALUES (?, ?, ?, ?, ?, 'CASH', 'PAYMENT', 'COMPLETED', ?)
+            """, UUID.randomUUID(), invoice, patient, paymentDate, new BigDecimal(amount),
+            Timestamp.valueOf(paymentDate.atTime(9, 0)));
+    }
+}
@@ -0,0 +1,198 @@
+package sy.sezar.clinicx.patient.service.impl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+import sy.sezar.clinicx.tenant.TenantContext;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("InvoiceNumberAllocatorImpl Tests")
+class InvoiceNumberAllocatorImplTest {
+
+    private static final int THREADS = 32;
+    private static final int INVOICES_PER_THREAD = 250;
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2026-03-01T10:00:00Z"), ZoneOffset.UTC);
+
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+    private DataSourceTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+            .setType(EmbeddedDatabaseType.H2)
+            .generateUniqueName(true)
+            .addScript("db/migration-h2/V24__create_invoice_number_series.sql")
+            .addScript("db/migration-h2/V27__create_invoice_number_tenant_codes.sql")
+            .build();
+        jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("CREATE TABLE invoices (id UUID PRIMARY KEY, invoice_number VARCHAR(50) NOT NULL UNIQUE)");
+        transactionManager = new DataSourceTransactionManager(database);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TenantContext.clear();
+        database.shutdown();
+    }
+
+    @Test
+    @DisplayName("Load test: invoices created from many threads on two instances get unique numbers")
+    void next_ConcurrentInvoicesHaveUniqueNumbers() throws Exception {
+        // Two allocators share the database like two application instances
+        InvoiceNumberAllocatorImpl first = allocator(20);
+        InvoiceNumberAllocatorImpl second = allocator(20);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                InvoiceNumberAllocatorImpl allocator = t % 2 == 0 ? first : second;
+                results.add(executor.submit(() -> {
+                    for (int i = 0; i < INVOICES_PER_THREAD; i++) {
+                        transaction.executeWithoutResult(status -> jdbcTemplate.update(
+                            "INSERT INTO invoices (id, invoice_number) VALUES (?, ?)",
+                            UUID.randomUUID(), allocator.next()));
+                    }
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        int total = THREADS * INVOICES_PER_THREAD;
+        assertThat(count("SELECT COUNT(*) FROM invoices")).isEqualTo(total);
+        assertThat(count("SELECT COUNT(DISTINCT invoice_number) FROM invoices")).isEqualTo(total);
+        assertThat(jdbcTemplate.queryForList("SELECT invoice_number FROM invoices", String.class))
+            .allMatch(number -> number.matches("INV-2026-\\d{6}"));
+
+        // Every leased number is either used or still held by one of the two leases
+        first.releaseLeases();
+        second.releaseLeases();
+        long leased = jdbcTemplate.queryForObject(
+            "SELECT next_value - 1 FROM invoice_number_series WHERE series_key = 'master:2026'", Long.class);
+        assertThat(leased).isEqualTo(total + unused());
+    }
+
+    @Test
+    @DisplayName("Should record the number of a rolled back invoice as a gap")
+    void next_RecordsGapOnRollback() {
+        InvoiceNumberAllocatorImpl allocator = allocator(10);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        assertThatThrownBy(() -> transaction.executeWithoutResult(status -> {
+            allocator.next();
+            throw new IllegalStateException("invoice rejected");
+        })).isInstanceOf(IllegalStateException.class);
+        String next = transaction.execute(status -> allocator.next());
+
+        assertThat(next).isEqualTo("INV-2026-000002");
+        assertThat(jdbcTemplate.queryForMap("SELECT first_number, last_number, reason FROM invoice_number_gaps"))
+            .containsEntry("FIRST_NUMBER", 1L)
+            .containsEntry("LAST_NUMBER", 1L)
+            .containsEntry("REASON", InvoiceNumberAllocatorImpl.GAP_ROLLED_BACK);
+    }
+
+    @Test
+    @DisplayName("Should keep a separate series per tenant and record unused leases on shutdown")
+    void next_SeparatesTenantSeries() {
+        InvoiceNumberAllocatorImpl allocator = allocator(10);
+
+        assertThat(allocator.next()).isEqualTo("INV-2026-000001");
+        TenantContext.runWithTenant("clinic-a", () -> {
+            assertThat(allocator.next()).isEqualTo("INV-CLINIC-A-2026-000001");
+            assertThat(allocator.next()).isEqualTo("INV-CLINIC-A-2026-000002");
+        });
+        assertThat(allocator.next()).isEqualTo("INV-2026-000002");
+
+        allocator.releaseLeases();
+
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT series_key || ':' || first_number || '-' || last_number FROM invoice_number_gaps "
+                    + "WHERE reason = ? ORDER BY series_key", String.class, InvoiceNumberAllocatorImpl.GAP_UNUSED_LEASE))
+            .containsExactly("clinic-a:2026:3-10", "master:2026:3-10");
+    }
+
+    @Test
+    @DisplayName("Should give tenants whose IDs differ only in case distinct invoice numbers")
+    void next_RegistersUniqueTenantCodes() {
+        InvoiceNumberAllocatorImpl allocator = allocator(10);
+
+        TenantContext.runWithTenant("clinic-a", () ->
+            assertThat(allocator.next()).isEqualTo("INV-CLINIC-A-2026-000001"));
+        TenantContext.runWithTenant("CLINIC-A", () ->
+            assertThat(allocator.next()).isEqualTo("INV-CLINIC-A-2-2026-000001"));
+
+        // A restarted instance reads the registered codes back
+        InvoiceNumberAllocatorImpl restarted = allocator(10);
+        TenantContext.runWithTenant("CLINIC-A", () ->
+            assertThat(restarted.next()).isEqualTo("INV-CLINIC-A-2-2026-000011"));
+    }
+
+    @Test
+    @DisplayName("Should shorten long tenant IDs with a digest that tells apart IDs sharing a start")
+    void next_ShortensLongTenantIds() {
+        InvoiceNumberAllocatorImpl allocator = allocator(10);
+        List<String> numbers = new ArrayList<>();
+        TenantContext.runWithTenant("regional-dental-clinic-north", () -> numbers.add(allocator.next()));
+        TenantContext.runWithTenant("regional-dental-clinic-south", () -> numbers.add(allocator.next()));
+
+        assertThat(numbers).allMatch(number -> number.matches("INV-REGIONAL-DENTAL-[0-9A-F]{8}-2026-000001"))
+            .doesNotHaveDuplicates();
+    }
+
+    @Test
+    @DisplayName("Should lease a dedicated consecutive block for bulk invoicing")
+    void nextBlock_LeasesConsecutiveNumbers() {
+        InvoiceNumberAllocatorImpl allocator = allocator(10);
+
+        assertThat(allocator.next()).isEqualTo("INV-2026-000001");
+        List<String> bulk = allocator.nextBlock(25);
+
+        assertThat(bulk).hasSize(25)
+            .startsWith("INV-2026-000011")
+            .endsWith("INV-2026-000035");
+        assertThat(allocator.nextBlock(3)).containsExactly("INV-2026-000002", "INV-2026-000003", "INV-2026-000004");
+    }
+
+    private InvoiceNumberAllocatorImpl allocator(int blockSize) {
+        InvoiceNumberAllocatorImpl allocator = new InvoiceNumberAllocatorImpl(jdbcTemplate, transactionManager);
+        ReflectionTestUtils.setField(allocator, "blockSize", blockSize);
+        ReflectionTestUtils.setField(allocator, "clock", CLOCK);
+        return allocator;
+    }
+
+    private long unused() {
+        return jdbcTemplate.queryForObject(
+            "SELECT COALESCE(SUM(last_number - first_number + 1), 0) FROM invoice_number_gaps", Long.class);
+    }
+
+    private int count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Integer.class);
+    }
+}
@@ -0,0 +1,209 @@
+package sy.sezar.clinicx.patient.service.impl;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import sy.sezar.clinicx.patient.dto.LedgerEntryDto;
+import sy.sezar.clinicx.patient.model.LedgerEntry;
+import sy.sezar.clinicx.patient.model.Patient;
+import sy.sezar.clinicx.patient.model.enums.LedgerEntryType;
+import sy.sezar.clinicx.patient.repository.LedgerEntryRepository;
+import sy.sezar.clinicx.patient.repository.PatientRepository;
+import sy.sezar.clinicx.patient.service.DailyFinancialRollupService;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * The checkpoints are written with PostgreSQL date arithmetic and ON CONFLICT, so they are
+ * tested against PostgreSQL, together with the balances read from them.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@DisplayName("LedgerCheckpointServiceImpl Tests")
+class LedgerCheckpointServiceImplTest {
+
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+    private static final LocalDate TODAY = LocalDate.of(2026, 3, 15);
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static DriverManagerDataSource dataSource;
+    private static JdbcTemplate jdbcTemplate;
+
+    private final LedgerEntryRepository ledgerEntryRepository = mock(LedgerEntryRepository.class);
+    private LedgerCheckpointServiceImpl checkpointService;
+    private LedgerServiceImpl ledgerService;
+    private UUID patient;
+
+    @BeforeAll
+    static void createSchema() {
+        dataSource = new DriverManagerDataSource(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+        new ResourceDatabasePopulator(new ClassPathResource("db/billing-report-schema.sql")).execute(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("TRUNCATE patients, ledger_entries, ledger_checkpoints");
+        NamedParameterJdbcTemplate namedJdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+        checkpointService = new LedgerCheckpointServiceImpl(namedJdbcTemplate, new SimpleMeterRegistry());
+        ledgerService = new LedgerServiceImpl(ledgerEntryRepository, mock(PatientRepository.class),
+            mock(DailyFinancialRollupService.class), namedJdbcTemplate);
+        setToday(TODAY);
+        patient = patient();
+    }
+
+    @Test
+    @DisplayName("Should checkpoint each completed month once, onto the previous checkpoint")
+    void createCheckpoints_CompletedMonthsOnly() {
+        entry(patient, "2026-01-05T10:00", LedgerEntryType.CHARGE, "100.00");
+        entry(patient, "2026-01-20T10:00", LedgerEntryType.PAYMENT_RECEIPT, "40.00");
+        entry(patient, "2026-02-03T10:00", LedgerEntryType.CHARGE, "50.00");
+        entry(patient, "2026-03-10T10:00", LedgerEntryType.REFUND, "10.00");
+
+        assertThat(checkpointService.createCheckpoints(TODAY.plusYears(1))).isEqualTo(2);
+        assertThat(checkpointService.createCheckpoints(TODAY)).isZero();
+
+        List<Map<String, Object>> checkpoints = checkpoints();
+        assertThat(checkpoints).extracting(c -> c.get("checkpoint_at")).containsExactly(
+            Timestamp.valueOf("2026-02-01 00:00:00"), Timestamp.valueOf("2026-03-01 00:00:00"));
+        assertThat((BigDecimal) checkpoints.get(0).get("balance")).isEqualByComparingTo("60.00");
+        assertThat((BigDecimal) checkpoints.get(1).get("balance")).isEqualByComparingTo("110.00");
+        assertThat(checkpoints).extracting(c -> c.get("entry_count")).containsExactly(2L, 3L);
+
+        setToday(LocalDate.of(2026, 4, 2));
+        assertThat(checkpointService.createCheckpoints(LocalDate.of(2026, 4, 2))).isEqualTo(1);
+        Map<String, Object> april = checkpoints().get(2);
+        assertThat(april.get("checkpoint_at")).isEqualTo(Timestamp.valueOf("2026-04-01 00:00:00"));
+        assertThat((BigDecimal) april.get("balance")).isEqualByComparingTo("120.00");
+        assertThat(april.get("entry_count")).isEqualTo(4L);
+    }
+
+    @Test
+    @DisplayName("Should compute balances as of every day equal to the sum of the ledger up to that day")
+    void getBalanceAsOf_MatchesLedgerSum() {
+        Random random = new Random(20);
+        LedgerEntryType[] types = LedgerEntryType.values();
+        List<LedgerEntry> entries = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            LocalDateTime at = LocalDateTime.of(2025, 9, 1, 0, 0).plusMinutes(random.nextInt(60 * 24 * 190));
+            BigDecimal amount = BigDecimal.valueOf(random.nextInt(40_000) - 10_000, 2);
+            entries.add(entry(patient, at.toString(), types[random.nextInt(types.length)], amount.toPlainString()));
+        }
+        entry(patient(), "2025-12-10T10:00", LedgerEntryType.CHARGE, "999.00");
+        checkpointService.createCheckpoints(TODAY);
+
+        for (LocalDate day = LocalDate.of(2025, 8, 31); !day.isAfter(TODAY); day = day.plusDays(1)) {
+            LocalDateTime end = day.plusDays(1).atStartOfDay();
+            BigDecimal expected = entries.stream()
+                .filter(e -> e.getOccurredAt().isBefore(end.atZone(ZONE).toInstant()))
+                .map(e -> e.getEntryType().balanceDelta(e.getAmount()))
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+            assertThat(ledgerService.getBalanceAsOf(patient, day)).as("balance as of %s", day)
+                .isEqualByComparingTo(expected);
+        }
+    }
+
+    @Test
+    @DisplayName("Should give each entry of a ledger page the running balance after it")
+    void getPatientLedger_RunningBalance() {
+        List<LedgerEntry> entries = new ArrayList<>();
+        entries.add(entry(patient, "2026-01-05T10:00", LedgerEntryType.CHARGE, "100.00"));
+        entries.add(entry(patient, "2026-02-01T09:00", LedgerEntryType.PAYMENT_RECEIPT, "30.00"));
+        // Same instant: the id decides the order
+        entries.add(entry(patient, "2026-02-10T12:00", LedgerEntryType.DISCOUNT, "10.00"));
+        entries.add(entry(patient, "2026-02-10T12:00", LedgerEntryType.TAX, "5.00"));
+        entries.add(entry(patient, "2026-03-02T08:00", LedgerEntryType.ADJUSTMENT, "-15.00"));
+        entries.sort((a, b) -> {
+            int byTime = a.getOccurredAt().compareTo(b.getOccurredAt());
+            return byTime != 0 ? byTime : jdbcTemplate.queryForObject(
+                "SELECT CASE WHEN CAST(? AS UUID) < CAST(? AS UUID) THEN -1 ELSE 1 END", Integer.class,
+                a.getId(), b.getId());
+        });
+        checkpointService.createCheckpoints(TODAY);
+
+        PageRequest second = PageRequest.of(1, 2);
+        when(ledgerEntryRepository.findByPatientIdOrderByOccurredAtAscIdAsc(eq(patient), any()))
+            .thenReturn(new PageImpl<>(entries.subList(2, 4), second, entries.size()));
+
+        Page<LedgerEntryDto> page = ledgerService.getPatientLedger(patient, second);
+
+        BigDecimal opening = new BigDecimal("70.00");
+        List<BigDecimal> expected = List.of(
+            opening.add(entries.get(2).getEntryType().balanceDelta(entries.get(2).getAmount())),
+            new BigDecimal("65.00"));
+        assertThat(page.getTotalElements()).isEqualTo(5);
+        assertThat(page.getContent()).extracting(LedgerEntryDto::id)
+            .containsExactly(entries.get(2).getId(), entries.get(3).getId());
+        assertThat(page.getContent().get(0).runningBalance()).isEqualByComparingTo(expected.get(0));
+        assertThat(page.getContent().get(1).runningBalance()).isEqualByComparingTo(expected.get(1));
+    }
+
+    private void setToday(LocalDate today) {
+        Clock clock = Clock.fixed(today.atTime(12, 0).atZone(ZONE).toInstant(), ZONE);
+        ReflectionTestUtils.setField(checkpointService, "clock", clock);
+        ReflectionTestUtils.setField(ledgerService, "clock", clock);
+    }
+
+    private UUID patient() {
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO patients (id, public_facing_id, full_name) VALUES (?, ?, ?)",
+            id, id.toString().substring(0, 8), "Patient " + id);
+        return id;
+    }
+
+    private LedgerEntry entry(UUID patientId, String occurredAt, LedgerEntryType type, String amount) {
+        LocalDateTime at = LocalDateTime.parse(occurredAt);
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("""
+            INSERT INTO ledger_entries (id, patient_id, entry_type, amount, occurred_at)
+            VALUES (?, ?, ?, ?, ?)
+            """, id, patientId, type.name(), new BigDecimal(amount), Timestamp.valueOf(at));
+
+        Patient patient = new Patient();
+        patient.setId(patientId);
+        LedgerEntry entry = new LedgerEntry();
+        entry.setId(id);
+        entry.setPatient(patient);
+        entry.setEntryType(type);
+        entry.setAmount(new BigDecimal(amount));
+        entry.setOccurredAt(at.atZone(ZONE).toInstant());
+        return entry;
+    }
+
+    private List<Map<String, Object>> checkpoints() {
+        return jdbcTemplate.queryForList(
+            "SELECT checkpoint_at, balance, entry_count FROM ledger_checkpoints WHERE patient_id = ? ORDER BY checkpoint_at",
+            patient);
+    }
+}
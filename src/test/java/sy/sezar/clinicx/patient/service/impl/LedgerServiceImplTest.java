@@ -0,0 +1,149 @@
+package sy.sezar.clinicx.patient.service.impl;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import sy.sezar.clinicx.patient.model.LedgerEntry;
+import sy.sezar.clinicx.patient.model.Patient;
+import sy.sezar.clinicx.patient.model.enums.LedgerEntryType;
+import sy.sezar.clinicx.patient.repository.LedgerEntryRepository;
+import sy.sezar.clinicx.patient.repository.PatientRepository;
+import sy.sezar.clinicx.patient.service.DailyFinancialRollupService;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("LedgerServiceImpl Tests")
+class LedgerServiceImplTest {
+
+    private static final UUID PATIENT_ID = UUID.randomUUID();
+
+    @Mock
+    private LedgerEntryRepository ledgerEntryRepository;
+
+    @Mock
+    private PatientRepository patientRepository;
+
+    @Mock
+    private DailyFinancialRollupService dailyFinancialRollupService;
+
+    @Mock
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private LedgerServiceImpl ledgerService;
+
+    @Test
+    @DisplayName("Should apply each entry to the balance as a single delta")
+    void record_AppliesBalanceDelta() {
+        when(patientRepository.applyBalanceDelta(eq(PATIENT_ID), any())).thenReturn(1);
+        when(patientRepository.getReferenceById(PATIENT_ID)).thenReturn(new Patient());
+
+        record(LedgerEntryType.CHARGE, "100.00");
+        record(LedgerEntryType.PAYMENT_RECEIPT, "40.00");
+        record(LedgerEntryType.DISCOUNT, "-10.00");
+        record(LedgerEntryType.WRITE_OFF, "5.00");
+        record(LedgerEntryType.REFUND, "15.00");
+        record(LedgerEntryType.ADJUSTMENT, "-20.00");
+        record(LedgerEntryType.CREDIT_APPLIED, "30.00");
+
+        verify(patientRepository).applyBalanceDelta(PATIENT_ID, new BigDecimal("100.00"));
+        verify(patientRepository).applyBalanceDelta(PATIENT_ID, new BigDecimal("-40.00"));
+        verify(patientRepository).applyBalanceDelta(PATIENT_ID, new BigDecimal("-10.00"));
+        verify(patientRepository).applyBalanceDelta(PATIENT_ID, new BigDecimal("-5.00"));
+        verify(patientRepository).applyBalanceDelta(PATIENT_ID, new BigDecimal("15.00"));
+        verify(patientRepository).applyBalanceDelta(PATIENT_ID, new BigDecimal("-20.00"));
+        verify(patientRepository).applyBalanceDelta(PATIENT_ID, BigDecimal.ZERO);
+        verify(ledgerEntryRepository, times(7)).save(any(LedgerEntry.class));
+        verify(dailyFinancialRollupService, times(7)).record(any(LedgerEntry.class));
+        // Constant cost: no patient, invoice or payment history is loaded
+        verify(patientRepository, never()).findById(any());
+    }
+
+    @Test
+    @DisplayName("Should give a loaded patient the balance written by the delta")
+    void record_UpdatesLoadedPatient() {
+        Patient patient = new Patient();
+        when(patientRepository.applyBalanceDelta(PATIENT_ID, new BigDecimal("100.00"))).thenReturn(1);
+        when(patientRepository.getReferenceById(PATIENT_ID)).thenReturn(patient);
+        when(patientRepository.findBalanceById(PATIENT_ID)).thenReturn(new BigDecimal("140.00"));
+
+        record(LedgerEntryType.CHARGE, "100.00");
+
+        assertThat(patient.getBalance()).isEqualByComparingTo("140.00");
+    }
+
+    @Test
+    @DisplayName("Should reject entries for unknown patients")
+    void record_UnknownPatient() {
+        when(patientRepository.applyBalanceDelta(eq(PATIENT_ID), any())).thenReturn(0);
+
+        assertThatThrownBy(() -> record(LedgerEntryType.CHARGE, "100.00"))
+            .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(ledgerEntryRepository, dailyFinancialRollupService);
+    }
+
+    @Test
+    @DisplayName("Should apply the entries of a batch as one delta per patient")
+    void recordAll_OneDeltaPerPatient() {
+        UUID otherPatient = UUID.randomUUID();
+        when(jdbcTemplate.batchUpdate(anyString(), any(SqlParameterSource[].class))).thenReturn(new int[]{1, 1});
+
+        List<LedgerEntry> entries = List.of(
+            entry(PATIENT_ID, LedgerEntryType.PAYMENT_RECEIPT, "40.00"),
+            entry(otherPatient, LedgerEntryType.PAYMENT_RECEIPT, "25.00"),
+            entry(PATIENT_ID, LedgerEntryType.PAYMENT_RECEIPT, "10.00"));
+        ledgerService.recordAll(entries);
+
+        ArgumentCaptor<SqlParameterSource[]> params = ArgumentCaptor.forClass(SqlParameterSource[].class);
+        verify(jdbcTemplate).batchUpdate(anyString(), params.capture());
+        assertThat(params.getValue()).hasSize(2);
+        assertThat(Arrays.stream(params.getValue()).filter(p -> PATIENT_ID.equals(p.getValue("patientId"))))
+            .singleElement()
+            .satisfies(p -> assertThat((BigDecimal) p.getValue("delta")).isEqualByComparingTo("-50.00"));
+        verify(ledgerEntryRepository).saveAll(entries);
+        verify(dailyFinancialRollupService, times(3)).record(any(LedgerEntry.class));
+        verify(patientRepository, never()).applyBalanceDelta(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should reject batches with entries for unknown patients")
+    void recordAll_UnknownPatient() {
+        when(jdbcTemplate.batchUpdate(anyString(), any(SqlParameterSource[].class))).thenReturn(new int[]{0});
+
+        assertThatThrownBy(() -> ledgerService.recordAll(List.of(
+            entry(PATIENT_ID, LedgerEntryType.PAYMENT_RECEIPT, "40.00"))))
+            .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(ledgerEntryRepository, dailyFinancialRollupService);
+    }
+
+    private static LedgerEntry entry(UUID patientId, LedgerEntryType type, String amount) {
+        Patient patient = new Patient();
+        patient.setId(patientId);
+        LedgerEntry entry = new LedgerEntry();
+        entry.setPatient(patient);
+        entry.setEntryType(type);
+        entry.setAmount(new BigDecimal(amount));
+        return entry;
+    }
+
+    private void record(LedgerEntryType type, String amount) {
+        ledgerService.record(PATIENT_ID, null, null, type, new BigDecimal(amount), type.name());
+    }
+}
@@ -0,0 +1,213 @@
+package sy.sezar.clinicx.patient.service.impl;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import sy.sezar.clinicx.patient.dto.OverdueSweepResultDto;
+import sy.sezar.clinicx.tenant.TenantContext;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The sweep relies on data-modifying CTEs, SKIP LOCKED and advisory locks, so it runs against
+ * PostgreSQL.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@DisplayName("OverdueSweepServiceImpl Tests")
+class OverdueSweepServiceImplTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 3, 10);
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static DriverManagerDataSource dataSource;
+    private static JdbcTemplate jdbcTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private OverdueSweepServiceImpl service;
+
+    private final UUID patient = UUID.randomUUID();
+
+    @BeforeAll
+    static void createSchema() {
+        dataSource = new DriverManagerDataSource(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+        new ResourceDatabasePopulator(new ClassPathResource("db/billing-report-schema.sql")).execute(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("TRUNCATE invoices, payment_plans, payment_plan_installments, billing_events");
+        meterRegistry = new SimpleMeterRegistry();
+        service = new OverdueSweepServiceImpl(new NamedParameterJdbcTemplate(dataSource),
+            new DataSourceTransactionManager(dataSource), meterRegistry);
+        ReflectionTestUtils.setField(service, "chunkSize", 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TenantContext.clear();
+    }
+
+    @Test
+    @DisplayName("Should mark open invoices and installments due before today in chunks, with their events")
+    void sweep_MarksOverdueRowsInChunks() {
+        UUID unpaid1 = invoice("2026-03-01", "UNPAID", "100.00");
+        UUID unpaid2 = invoice("2026-02-01", "UNPAID", "80.00");
+        UUID partial = invoice("2026-03-09", "PARTIALLY_PAID", "40.00");
+        UUID dueToday = invoice("2026-03-10", "UNPAID", "60.00");
+        UUID paid = invoice("2026-01-01", "PAID", "0.00");
+        UUID cancelled = invoice("2026-01-01", "CANCELLED", "50.00");
+        UUID plan = plan(dueToday, "ACTIVE");
+        UUID late = installment(plan, 1, "2026-03-01", "PENDING", "30.00", "10.00");
+        UUID upcoming = installment(plan, 2, "2026-04-01", "PENDING", "30.00", "0.00");
+        UUID suspendedLate = installment(plan(cancelled, "SUSPENDED"), 1, "2026-03-01", "PENDING", "30.00", "0.00");
+
+        OverdueSweepResultDto result = service.sweep(TODAY);
+
+        assertThat(result.skipped()).isFalse();
+        assertThat(result.invoicesMarked()).isEqualTo(3);
+        assertThat(result.installmentsMarked()).isEqualTo(1);
+        // Invoices in two chunks, the second one short; installments in one short chunk
+        assertThat(result.chunks()).isEqualTo(3);
+        assertThat(status("invoices", unpaid1)).isEqualTo("OVERDUE");
+        assertThat(status("invoices", unpaid2)).isEqualTo("OVERDUE");
+        assertThat(status("invoices", partial)).isEqualTo("OVERDUE");
+        assertThat(status("invoices", dueToday)).isEqualTo("UNPAID");
+        assertThat(status("invoices", paid)).isEqualTo("PAID");
+        assertThat(status("invoices", cancelled)).isEqualTo("CANCELLED");
+        assertThat(status("payment_plan_installments", late)).isEqualTo("OVERDUE");
+        assertThat(status("payment_plan_installments", upcoming)).isEqualTo("PENDING");
+        assertThat(status("payment_plan_installments", suspendedLate)).isEqualTo("PENDING");
+
+        List<Map<String, Object>> events = jdbcTemplate.queryForList(
+            "SELECT * FROM billing_events ORDER BY event_type, due_date");
+        assertThat(events).extracting(e -> e.get("event_type")).containsExactly(
+            "INSTALLMENT_OVERDUE", "INVOICE_OVERDUE", "INVOICE_OVERDUE", "INVOICE_OVERDUE");
+        assertThat(events).extracting(e -> e.get("tenant_id")).containsOnly("master");
+        assertThat(events).allSatisfy(e -> assertThat(e.get("patient_id")).isEqualTo(patient));
+        Map<String, Object> installmentEvent = events.get(0);
+        assertThat(installmentEvent.get("installment_id")).isEqualTo(late);
+        assertThat(installmentEvent.get("invoice_id")).isEqualTo(dueToday);
+        assertThat((BigDecimal) installmentEvent.get("amount")).isEqualByComparingTo("20.00");
+        assertThat(events.get(1).get("invoice_id")).isEqualTo(unpaid2);
+        assertThat((BigDecimal) events.get(1).get("amount")).isEqualByComparingTo("80.00");
+
+        assertThat(meterRegistry.counter("finance.overdue.invoices").count()).isEqualTo(3);
+        assertThat(meterRegistry.counter("finance.overdue.installments").count()).isEqualTo(1);
+        assertThat(meterRegistry.timer("finance.overdue.sweep").count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should mark nothing and write no events when swept again")
+    void sweep_IsIdempotent() {
+        invoice("2026-03-01", "UNPAID", "100.00");
+        service.sweep(TODAY);
+
+        OverdueSweepResultDto again = service.sweep(TODAY);
+
+        assertThat(again.invoicesMarked()).isZero();
+        assertThat(again.installmentsMarked()).isZero();
+        assertThat(again.chunks()).isEqualTo(2);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM billing_events", Integer.class)).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should skip the sweep while another node holds the sweep lock")
+    void sweep_SkippedWhileLocked() throws Exception {
+        UUID unpaid = invoice("2026-03-01", "UNPAID", "100.00");
+
+        try (Connection otherNode = dataSource.getConnection()) {
+            advisoryLock(otherNode, "SELECT pg_advisory_lock(?)");
+            OverdueSweepResultDto result = service.sweep(TODAY);
+
+            assertThat(result.skipped()).isTrue();
+            assertThat(status("invoices", unpaid)).isEqualTo("UNPAID");
+            assertThat(meterRegistry.counter("finance.overdue.sweeps.skipped").count()).isEqualTo(1);
+            advisoryLock(otherNode, "SELECT pg_advisory_unlock(?)");
+        }
+
+        assertThat(service.sweep(TODAY).invoicesMarked()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should return the marked invoices and stamp their events with the current tenant")
+    void markOverdueInvoices_ReturnsMarkedIds() {
+        UUID first = invoice("2026-03-01", "UNPAID", "100.00");
+        UUID second = invoice("2026-03-02", "UNPAID", "100.00");
+        UUID third = invoice("2026-03-03", "PARTIALLY_PAID", "50.00");
+        TenantContext.setCurrentTenant("clinic-a");
+
+        List<UUID> marked = service.markOverdueInvoices(TODAY);
+
+        assertThat(marked).containsExactlyInAnyOrder(first, second, third);
+        assertThat(jdbcTemplate.queryForList("SELECT DISTINCT tenant_id FROM billing_events", String.class))
+            .containsExactly("clinic-a");
+    }
+
+    private UUID invoice(String dueDate, String status, String amountDue) {
+        UUID id = UUID.randomUUID();
+        LocalDate due = LocalDate.parse(dueDate);
+        jdbcTemplate.update("""
+            INSERT INTO invoices (id, invoice_number, patient_id, issue_date, due_date, total_amount, amount_due, status)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+            """, id, "INV-" + id, patient, Date.valueOf(due.minusDays(30)), Date.valueOf(due),
+            new BigDecimal("100.00"), new BigDecimal(amountDue), status);
+        return id;
+    }
+
+    private UUID plan(UUID invoiceId, String status) {
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO payment_plans (id, patient_id, invoice_id, total_amount, status) VALUES (?, ?, ?, ?, ?)",
+            id, patient, invoiceId, new BigDecimal("60.00"), status);
+        return id;
+    }
+
+    private UUID installment(UUID planId, int number, String dueDate, String status, String amount, String paid) {
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("""
+            INSERT INTO payment_plan_installments (id, payment_plan_id, installment_number, due_date, amount,
+                                                   paid_amount, status)
+            VALUES (?, ?, ?, ?, ?, ?, ?)
+            """, id, planId, number, Date.valueOf(LocalDate.parse(dueDate)), new BigDecimal(amount),
+            new BigDecimal(paid), status);
+        return id;
+    }
+
+    private String status(String table, UUID id) {
+        return jdbcTemplate.queryForObject("SELECT status FROM " + table + " WHERE id = ?", String.class, id);
+    }
+
+    private static void advisoryLock(Connection connection, String sql) throws Exception {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setLong(1, OverdueSweepServiceImpl.SWEEP_LOCK_KEY);
+            try (ResultSet rs = statement.executeQuery()) {
+                rs.next();
+            }
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package sy.sezar.clinicx.patient.service.impl;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import sy.sezar.clinicx.patient.dto.PatientSearchResultDto;
+import sy.sezar.clinicx.patient.model.Patient;
+import sy.sezar.clinicx.patient.spec.PatientSearchText;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Latency of the patient search on PostgreSQL with 1M patients, for each prefix of the terms as
+ * they are typed at the reception desk, against the former search that matched LIKE '%term%' on
+ * each column. The patients are created before the search text migration, which then backfills
+ * and indexes them. The data volume can be lowered with -Dbenchmark.patients.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@DisplayName("PatientSearchServiceImpl Benchmark Tests")
+class PatientSearchServiceImplBenchmarkTest {
+
+    private static final int PATIENTS = Integer.getInteger("benchmark.patients", 1_000_000);
+    private static final int WARMUP = 3;
+    private static final int ITERATIONS = Integer.getInteger("benchmark.iterations", 50);
+    private static final int LEGACY_ITERATIONS = 3;
+    private static final int LIMIT = 20;
+
+    /** The former search of the patient list, as generated from its specification, first page. */
+    private static final String LEGACY_SEARCH_SQL = """
+        SELECT id, public_facing_id, full_name FROM patients
+        WHERE lower(full_name) LIKE ? OR lower(public_facing_id) LIKE ? OR lower(phone_number) LIKE ?
+           OR lower(email) LIKE ? OR lower(insurance_number) LIKE ?
+        ORDER BY full_name
+        LIMIT 20
+        """;
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static JdbcTemplate jdbcTemplate;
+    private static PatientSearchServiceImpl service;
+
+    @BeforeAll
+    static void generateData() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+            POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        service = new PatientSearchServiceImpl(new NamedParameterJdbcTemplate(dataSource));
+
+        long start = System.nanoTime();
+        jdbcTemplate.execute("""
+            CREATE TABLE patients (
+                id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+                public_facing_id VARCHAR(20) UNIQUE NOT NULL,
+                full_name VARCHAR(150) NOT NULL,
+                date_of_birth DATE NOT NULL,
+                phone_number VARCHAR(30),
+                email VARCHAR(100),
+                insurance_provider VARCHAR(100),
+                insurance_number VARCHAR(50)
+            )
+            """);
+        // Indexes of the production schema before the search text
+        jdbcTemplate.execute("CREATE INDEX idx_patients_name ON patients(full_name)");
+        jdbcTemplate.execute("CREATE INDEX idx_patients_phone ON patients(phone_number)");
+        jdbcTemplate.execute("CREATE INDEX idx_patients_full_name_lower ON patients(lower(full_name))");
+        jdbcTemplate.execute("CREATE INDEX idx_patients_email_lower ON patients(lower(email)) WHERE email IS NOT NULL");
+        jdbcTemplate.execute("""
+            INSERT INTO patients (public_facing_id, full_name, date_of_birth, phone_number, email,
+                                  insurance_provider, insurance_number)
+            SELECT 'P-' || lpad(g::text, 7, '0'),
+                   (ARRAY['Mohammad', 'Ahmad', 'Ali', 'Omar', 'Khaled', 'Hassan', 'Sara', 'Lina', 'Rania', 'Yara',
+                          'Nour', 'Hana', 'Sami', 'Rami', 'Fadi', 'Maya'])[g %% 16 + 1] || ' ' ||
+                   (ARRAY['Adel', 'Bassam', 'Fouad', 'Ghassan', 'Jamil', 'Kamal', 'Majed', 'Nabil', 'Riad', 'Samir',
+                          'Tarek', 'Walid', 'Ziad'])[(g / 16) %% 13 + 1] || ' ' ||
+                   (ARRAY['Haddad', 'Khoury', 'Nasser', 'Saleh', 'Youssef', 'Karam', 'Hamdan', 'Aziz', 'Mansour',
+                          'Darwish', 'Sabbagh', 'Kassab', 'Tannous', 'Jaber', 'Shami', 'Halabi', 'Rifai', 'Attar',
+                          'Zein', 'Masri'])[(g / 208) %% 20 + 1],
+                   DATE '1940-01-01' + (g * 7919) %% 30000,
+                   '09' || lpad(((g::bigint * 48271) %% 100000000)::text, 8, '0'),
+                   CASE WHEN g %% 3 = 0 THEN 'patient' || g || '@example.com' END,
+                   CASE WHEN g %% 5 = 0 THEN NULL ELSE 'Provider ' || g %% 20 END,
+                   CASE WHEN g %% 4 = 0 THEN 'INS-' || g END
+            FROM generate_series(1, %d) g
+            """.formatted(PATIENTS));
+        new ResourceDatabasePopulator(new ClassPathResource("db/migration/V39__add_patient_search_text.sql"))
+            .execute(dataSource);
+        jdbcTemplate.execute("VACUUM ANALYZE patients");
+        System.out.printf("Generated and indexed %d patients in %.1f s%n",
+            PATIENTS, (System.nanoTime() - start) / 1_000_000_000.0);
+    }
+
+    @Test
+    @DisplayName("Should backfill the search text the way the application writes it")
+    void migration_BackfillMatchesApplication() {
+        jdbcTemplate.query("""
+            SELECT public_facing_id, full_name, date_of_birth, phone_number, email, insurance_number, search_text
+            FROM patients
+            ORDER BY public_facing_id
+            LIMIT 1000
+            """, rs -> {
+            Patient patient = new Patient();
+            patient.setPublicFacingId(rs.getString("public_facing_id"));
+            patient.setFullName(rs.getString("full_name"));
+            patient.setDateOfBirth(rs.getObject("date_of_birth", LocalDate.class));
+            patient.setPhoneNumber(rs.getString("phone_number"));
+            patient.setEmail(rs.getString("email"));
+            patient.setInsuranceNumber(rs.getString("insurance_number"));
+            assertThat(rs.getString("search_text")).isEqualTo(PatientSearchText.of(patient));
+        });
+    }
+
+    @Test
+    @DisplayName("Benchmark: p50/p99 latency per typed prefix")
+    void benchmark_SearchAsYouType() {
+        String publicId = "P-" + String.format("%07d", PATIENTS / 2);
+        assertThat(service.search(publicId, LIMIT)).first()
+            .extracting(PatientSearchResultDto::publicFacingId).isEqualTo(publicId);
+        assertThat(service.search("mohammad", LIMIT)).hasSize(LIMIT)
+            .allSatisfy(result -> assertThat(result.fullName()).startsWith("Mohammad "));
+        assertThat(service.search("khour", LIMIT)).hasSize(LIMIT)
+            .allSatisfy(result -> assertThat(result.fullName()).contains("Khoury"));
+
+        Map<String, List<String>> typed = new LinkedHashMap<>();
+        typed.put("common first name", prefixes("mohammad"));
+        typed.put("family name, not a prefix", prefixes("khoury"));
+        typed.put("phone with separators", List.of("09", "091", "0912", "0912 3", "0912 34", "0912 345"));
+        typed.put("public ID", prefixes(publicId.toLowerCase()));
+        typed.put("no match", prefixes("zqxw"));
+
+        System.out.printf("%-30s %-12s %10s %10s %8s%n", "Search", "Typed", "p50 (ms)", "p99 (ms)", "Results");
+        typed.forEach((name, terms) -> terms.forEach(term -> {
+            for (int i = 0; i < WARMUP; i++) {
+                service.search(term, LIMIT);
+            }
+            double[] millis = new double[ITERATIONS];
+            int results = 0;
+            for (int i = 0; i < ITERATIONS; i++) {
+                long start = System.nanoTime();
+                results = service.search(term, LIMIT).size();
+                millis[i] = (System.nanoTime() - start) / 1_000_000.0;
+            }
+            Arrays.sort(millis);
+            System.out.printf("%-30s %-12s %10.1f %10.1f %8d%n",
+                name, term, percentile(millis, 0.50), percentile(millis, 0.99), results);
+            assertThat(millis[0]).isPositive();
+        }));
+
+        for (String term : List.of("moh", "khour", "0912 34")) {
+            double[] millis = new double[LEGACY_ITERATIONS];
+            String pattern = "%" + term + "%";
+            for (int i = 0; i < LEGACY_ITERATIONS; i++) {
+                long start = System.nanoTime();
+                jdbcTemplate.queryForList(LEGACY_SEARCH_SQL, pattern, pattern, pattern, pattern, pattern);
+                millis[i] = (System.nanoTime() - start) / 1_000_000.0;
+            }
+            Arrays.sort(millis);
+            System.out.printf("%-30s %-12s %10.1f %10.1f%n", "legacy LIKE on each column", term,
+                percentile(millis, 0.50), percentile(millis, 0.99));
+        }
+    }
+
+    private static List<String> prefixes(String term) {
+        return IntStream.rangeClosed(1, term.length()).mapToObj(i -> term.substring(0, i)).toList();
+    }
+
+    private static double percentile(double[] sorted, double percentile) {
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+}
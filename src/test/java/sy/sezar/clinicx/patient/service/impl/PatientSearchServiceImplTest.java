@@ -0,0 +1,140 @@
+package sy.sezar.clinicx.patient.service.impl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import sy.sezar.clinicx.patient.dto.PatientSearchResultDto;
+import sy.sezar.clinicx.patient.model.Patient;
+import sy.sezar.clinicx.patient.spec.PatientSearchText;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the portable statements of the patient search on H2; the PostgreSQL statements are
+ * exercised by the benchmark.
+ */
+@DisplayName("PatientSearchServiceImpl Tests")
+class PatientSearchServiceImplTest {
+
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+    private PatientSearchServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+            .setType(EmbeddedDatabaseType.H2)
+            .generateUniqueName(true)
+            .build();
+        jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("""
+            CREATE TABLE patients (
+                id UUID PRIMARY KEY,
+                public_facing_id VARCHAR(20) NOT NULL,
+                full_name VARCHAR(150) NOT NULL,
+                date_of_birth DATE NOT NULL,
+                phone_number VARCHAR(30),
+                email VARCHAR(100),
+                insurance_provider VARCHAR(100),
+                insurance_number VARCHAR(50),
+                search_text VARCHAR(1000)
+            )
+            """);
+        service = new PatientSearchServiceImpl(new NamedParameterJdbcTemplate(database));
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should rank exact identifier matches, then name prefixes, then substring matches")
+    void search_RanksBestMatchesFirst() {
+        UUID contains = patient("P-0003", "Sami Alkhalaf", "0933 111 222", null, null);
+        UUID wordPrefix = patient("P-0004", "Omar Khaled", "0933 111 333", null, null);
+        UUID prefix = patient("P-0002", "Khalil Haddad", null, null, null);
+        UUID exactInsurance = patient("P-0001", "Rami Nasser", null, null, "KHAL");
+        patient("P-0005", "Lina Haddad", null, null, null);
+
+        List<PatientSearchResultDto> results = service.search("  Khal ", 10);
+
+        assertThat(results).extracting(PatientSearchResultDto::id)
+            .containsExactly(exactInsurance, prefix, wordPrefix, contains);
+    }
+
+    @Test
+    @DisplayName("Should find phone numbers typed with separators and rank the exact number first")
+    void search_PhoneNumbers() {
+        UUID other = patient("P-0001", "Adam Saleh", "+963 933 123 4567", null, null);
+        UUID exact = patient("P-0002", "Basma Saleh", "0933-123-456", null, null);
+
+        assertThat(service.search("0933 123 456", 10)).extracting(PatientSearchResultDto::id)
+            .containsExactly(exact);
+        assertThat(service.search("933123", 10)).extracting(PatientSearchResultDto::id)
+            .containsExactly(other, exact);
+    }
+
+    @Test
+    @DisplayName("Should match public IDs and dates of birth as typed")
+    void search_IdentifiersAndDates() {
+        UUID byId = patient("P-1234", "Hana Youssef", null, "hana@example.com", null);
+        UUID byEmail = patient("P-0002", "Nour Youssef", null, "nour@example.com", null);
+
+        assertThat(service.search("p-1234", 10)).extracting(PatientSearchResultDto::id).containsExactly(byId);
+        assertThat(service.search("NOUR@example.com", 10)).extracting(PatientSearchResultDto::id)
+            .containsExactly(byEmail);
+        assertThat(service.search("1990-05", 10)).extracting(PatientSearchResultDto::id)
+            .containsExactlyInAnyOrder(byId, byEmail);
+    }
+
+    @Test
+    @DisplayName("Should match short terms as name prefixes only and respect the limit")
+    void search_ShortTermsAndLimit() {
+        UUID first = patient("P-0001", "Ali Hassan", null, null, null);
+        UUID second = patient("P-0002", "Alia Hassan", null, null, null);
+        patient("P-0003", "Khalid Ali", null, null, null);
+
+        assertThat(service.search("al", 10)).extracting(PatientSearchResultDto::id).containsExactly(first, second);
+        assertThat(service.search("has", 1)).hasSize(1);
+        assertThat(service.search("   ", 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should match LIKE wildcards in the term literally")
+    void search_EscapesWildcards() {
+        patient("P-0001", "Maya Karam", null, null, null);
+        UUID underscore = patient("P-0002", "Maya_Karam", null, null, null);
+
+        assertThat(service.search("%", 10)).isEmpty();
+        assertThat(service.search("a_k", 10)).extracting(PatientSearchResultDto::id).containsExactly(underscore);
+    }
+
+    private UUID patient(String publicId, String name, String phone, String email, String insuranceNumber) {
+        Patient patient = new Patient();
+        patient.setId(UUID.randomUUID());
+        patient.setPublicFacingId(publicId);
+        patient.setFullName(name);
+        patient.setDateOfBirth(LocalDate.of(1990, 5, 17));
+        patient.setPhoneNumber(phone);
+        patient.setEmail(email);
+        patient.setInsuranceNumber(insuranceNumber);
+        jdbcTemplate.update("""
+            INSERT INTO patients (id, public_facing_id, full_name, date_of_birth, phone_number, email,
+                                  insurance_number, search_text)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+            """, patient.getId(), publicId, name, patient.getDateOfBirth(), phone, email, insuranceNumber,
+            PatientSearchText.of(patient));
+        return patient.getId();
+    }
+}
@@ -0,0 +1,176 @@
+package sy.sezar.clinicx.patient.service.impl;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mapstruct.factory.Mappers;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import sy.sezar.clinicx.core.exception.BusinessRuleException;
+import sy.sezar.clinicx.core.pagination.ProjectionQueryExecutor;
+import sy.sezar.clinicx.patient.dto.CursorPageDto;
+import sy.sezar.clinicx.patient.dto.LabRequestDto;
+import sy.sezar.clinicx.patient.dto.NoteSummaryDto;
+import sy.sezar.clinicx.patient.mapper.*;
+import sy.sezar.clinicx.patient.model.LabRequest;
+import sy.sezar.clinicx.patient.model.Note;
+import sy.sezar.clinicx.patient.model.Patient;
+import sy.sezar.clinicx.patient.repository.*;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Reads patient history lists in cursor mode through the seek queries, on H2.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@DisplayName("PatientServiceImpl Cursor Tests")
+class PatientServiceImplCursorTest {
+
+    @Autowired
+    private NoteRepository noteRepository;
+
+    @Autowired
+    private LabRequestRepository labRequestRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private PatientServiceImpl patientService;
+    private Patient patient;
+
+    @BeforeEach
+    void setUp() {
+        patientService = new PatientServiceImpl(
+            mock(PatientRepository.class), mock(DocumentRepository.class), mock(VisitRepository.class),
+            mock(AppointmentRepository.class), noteRepository, labRequestRepository, mock(InvoiceRepository.class),
+            mock(DentalChartRepository.class), mock(UpcomingAppointmentsViewRepository.class),
+            mock(PatientFinancialSummaryViewRepository.class), mock(PatientCentralMapper.class),
+            mock(DocumentMapper.class), mock(VisitMapper.class), mock(AppointmentMapper.class),
+            Mappers.getMapper(NoteSummaryMapper.class), Mappers.getMapper(LabRequestMapper.class),
+            mock(ProjectionQueryExecutor.class));
+
+        patient = new Patient();
+        patient.setPublicFacingId("P-1");
+        patient.setFullName("Patient P-1");
+        patient.setDateOfBirth(LocalDate.of(1980, 1, 1));
+        entityManager.persist(patient);
+    }
+
+    @Test
+    @DisplayName("Should walk all notes once, newest first, including notes of the same instant")
+    void getPatientNotesAfter_WalksAllNotes() {
+        Instant start = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        for (int i = 0; i < 25; i++) {
+            Note note = new Note();
+            note.setPatient(patient);
+            note.setContent("Note " + i);
+            // Groups of three notes share their instant, so the id decides their order
+            note.setNoteDate(start.minus(i / 3, ChronoUnit.HOURS));
+            entityManager.persist(note);
+        }
+        entityManager.flush();
+        List<UUID> expected = entityManager.createQuery(
+                "SELECT n.id FROM Note n WHERE n.patient = :patient ORDER BY n.noteDate DESC, n.id DESC", UUID.class)
+            .setParameter("patient", patient)
+            .getResultList();
+
+        List<UUID> walked = new ArrayList<>();
+        List<Integer> sizes = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPageDto<NoteSummaryDto> page = patientService.getPatientNotesAfter(patient.getId(), cursor, 7);
+            page.items().forEach(note -> walked.add(note.noteId()));
+            sizes.add(page.items().size());
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        assertThat(sizes).containsExactly(7, 7, 7, 4);
+        assertThat(walked).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    @DisplayName("Should list unsent lab requests first, then the sent ones newest first")
+    void getPatientLabRequestsAfter_UnsentThenSent() {
+        List<UUID> unsent = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            unsent.add(labRequest(null));
+        }
+        List<UUID> sent = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            sent.add(labRequest(LocalDate.of(2026, 3, 10).minusDays(i / 2)));
+        }
+        entityManager.flush();
+        List<UUID> expected = new ArrayList<>(entityManager.createQuery(
+                "SELECT l.id FROM LabRequest l WHERE l.dateSent IS NULL ORDER BY l.id DESC", UUID.class)
+            .getResultList());
+        expected.addAll(entityManager.createQuery(
+                "SELECT l.id FROM LabRequest l WHERE l.dateSent IS NOT NULL ORDER BY l.dateSent DESC, l.id DESC",
+                UUID.class)
+            .getResultList());
+        assertThat(expected).hasSize(8);
+
+        // A page ending exactly on the last unsent request still has a next page
+        CursorPageDto<LabRequestDto> first = patientService.getPatientLabRequestsAfter(patient.getId(), null, 3);
+        assertThat(first.items()).extracting(LabRequestDto::labRequestId)
+            .containsExactlyElementsOf(expected.subList(0, 3));
+        assertThat(first.nextCursor()).isNotNull();
+        CursorPageDto<LabRequestDto> second = patientService.getPatientLabRequestsAfter(
+            patient.getId(), first.nextCursor(), 3);
+        assertThat(second.items()).extracting(LabRequestDto::labRequestId)
+            .containsExactlyElementsOf(expected.subList(3, 6));
+        CursorPageDto<LabRequestDto> third = patientService.getPatientLabRequestsAfter(
+            patient.getId(), second.nextCursor(), 3);
+        assertThat(third.items()).extracting(LabRequestDto::labRequestId)
+            .containsExactlyElementsOf(expected.subList(6, 8));
+        assertThat(third.nextCursor()).isNull();
+
+        // A page going past the unsent requests continues with the sent ones
+        CursorPageDto<LabRequestDto> mixed = patientService.getPatientLabRequestsAfter(patient.getId(), null, 5);
+        assertThat(mixed.items()).extracting(LabRequestDto::labRequestId)
+            .containsExactlyElementsOf(expected.subList(0, 5));
+        CursorPageDto<LabRequestDto> rest = patientService.getPatientLabRequestsAfter(
+            patient.getId(), mixed.nextCursor(), 5);
+        assertThat(rest.items()).extracting(LabRequestDto::labRequestId)
+            .containsExactlyElementsOf(expected.subList(5, 8));
+        assertThat(rest.nextCursor()).isNull();
+        assertThat(unsent).containsExactlyInAnyOrderElementsOf(expected.subList(0, 3));
+        assertThat(sent).containsExactlyInAnyOrderElementsOf(expected.subList(3, 8));
+    }
+
+    @Test
+    @DisplayName("Should reject malformed cursors and page sizes")
+    void getPatientNotesAfter_RejectsInvalidRequests() {
+        UUID patientId = patient.getId();
+
+        assertThatThrownBy(() -> patientService.getPatientNotesAfter(patientId, "not a cursor", 20))
+            .isInstanceOf(BusinessRuleException.class);
+        assertThatThrownBy(() -> patientService.getPatientNotesAfter(patientId, "bm90LWEtZGF0ZS8x", 20))
+            .isInstanceOf(BusinessRuleException.class);
+        assertThatThrownBy(() -> patientService.getPatientNotesAfter(patientId, null, 0))
+            .isInstanceOf(BusinessRuleException.class);
+        assertThatThrownBy(() -> patientService.getPatientNotesAfter(patientId, null, KeysetCursor.MAX_PAGE_SIZE + 1))
+            .isInstanceOf(BusinessRuleException.class);
+        assertThat(patientService.getPatientNotesAfter(patientId, null, 20).items()).isEmpty();
+    }
+
+    private UUID labRequest(LocalDate dateSent) {
+        LabRequest labRequest = new LabRequest();
+        labRequest.setPatient(patient);
+        labRequest.setItemDescription("Crown");
+        labRequest.setDateSent(dateSent);
+        entityManager.persist(labRequest);
+        return labRequest.getId();
+    }
+}
@@ -0,0 +1,137 @@
+package sy.sezar.clinicx.patient.service.impl;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mapstruct.factory.Mappers;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import sy.sezar.clinicx.clinic.model.Specialty;
+import sy.sezar.clinicx.core.exception.NotFoundException;
+import sy.sezar.clinicx.core.pagination.ProjectionQueryExecutor;
+import sy.sezar.clinicx.patient.dto.FinancialRecordDto;
+import sy.sezar.clinicx.patient.dto.NoteSummaryDto;
+import sy.sezar.clinicx.patient.dto.PatientDashboardDto;
+import sy.sezar.clinicx.patient.dto.UpcomingAppointmentDto;
+import sy.sezar.clinicx.patient.mapper.*;
+import sy.sezar.clinicx.patient.model.Appointment;
+import sy.sezar.clinicx.patient.model.Invoice;
+import sy.sezar.clinicx.patient.model.Note;
+import sy.sezar.clinicx.patient.model.Patient;
+import sy.sezar.clinicx.patient.repository.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Comparator;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Builds the patient dashboard through the repository, on H2, counting the statements it takes.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+@DisplayName("PatientServiceImpl Dashboard Tests")
+class PatientServiceImplDashboardTest {
+
+    private static final int APPOINTMENTS = 60;
+    private static final int NOTES = 40;
+    private static final int INVOICES = 30;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private PatientServiceImpl patientService;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        patientService = new PatientServiceImpl(
+            patientRepository, mock(DocumentRepository.class), mock(VisitRepository.class),
+            mock(AppointmentRepository.class), mock(NoteRepository.class), mock(LabRequestRepository.class),
+            mock(InvoiceRepository.class), mock(DentalChartRepository.class),
+            mock(UpcomingAppointmentsViewRepository.class), mock(PatientFinancialSummaryViewRepository.class),
+            Mappers.getMapper(PatientCentralMapper.class), mock(DocumentMapper.class), mock(VisitMapper.class),
+            Mappers.getMapper(AppointmentMapper.class), Mappers.getMapper(NoteSummaryMapper.class),
+            mock(LabRequestMapper.class), mock(ProjectionQueryExecutor.class));
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    @DisplayName("Should build the dashboard with one query per collection, not one per row")
+    void getPatientDashboard_QueriesPerCollection() {
+        UUID patientId = createPatientWithHistory();
+
+        statistics.clear();
+        PatientDashboardDto dashboard = patientService.getPatientDashboard(patientId);
+
+        // Patient, appointments, notes, invoices and the specialty the appointments share
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(5);
+        assertThat(dashboard.patient().id()).isEqualTo(patientId);
+        assertThat(dashboard.appointments()).hasSize(APPOINTMENTS)
+            .isSortedAccordingTo(Comparator.comparing(UpcomingAppointmentDto::appointmentDateTime).reversed());
+        assertThat(dashboard.appointments()).allMatch(appointment -> "Orthodontics".equals(appointment.specialty()));
+        assertThat(dashboard.notes()).hasSize(NOTES)
+            .isSortedAccordingTo(Comparator.comparing(NoteSummaryDto::noteDate).reversed());
+        assertThat(dashboard.financialRecords()).hasSize(INVOICES)
+            .isSortedAccordingTo(Comparator.comparing(FinancialRecordDto::issueDate).reversed());
+    }
+
+    @Test
+    @DisplayName("Should report a missing patient as not found")
+    void getPatientDashboard_NotFound() {
+        assertThatThrownBy(() -> patientService.getPatientDashboard(UUID.randomUUID()))
+            .isInstanceOf(NotFoundException.class);
+    }
+
+    private UUID createPatientWithHistory() {
+        Specialty specialty = new Specialty();
+        specialty.setName("Orthodontics");
+        entityManager.persist(specialty);
+
+        Patient patient = new Patient();
+        patient.setPublicFacingId("P-D1");
+        patient.setFullName("Patient P-D1");
+        patient.setDateOfBirth(LocalDate.of(1980, 1, 1));
+        entityManager.persist(patient);
+
+        Instant start = Instant.now().truncatedTo(ChronoUnit.HOURS);
+        for (int i = 0; i < APPOINTMENTS; i++) {
+            Appointment appointment = new Appointment();
+            appointment.setPatient(patient);
+            appointment.setSpecialty(specialty);
+            appointment.setAppointmentDatetime(start.minus(i * 7L % APPOINTMENTS, ChronoUnit.DAYS));
+            entityManager.persist(appointment);
+        }
+        for (int i = 0; i < NOTES; i++) {
+            Note note = new Note();
+            note.setPatient(patient);
+            note.setContent("Note " + i);
+            note.setNoteDate(start.minus(i * 7L % NOTES, ChronoUnit.HOURS));
+            entityManager.persist(note);
+        }
+        for (int i = 0; i < INVOICES; i++) {
+            Invoice invoice = new Invoice();
+            invoice.setPatient(patient);
+            invoice.setInvoiceNumber("P-D1-INV-" + i);
+            invoice.setIssueDate(LocalDate.now().minusDays(i * 7L % INVOICES));
+            invoice.setTotalAmount(BigDecimal.TEN);
+            entityManager.persist(invoice);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return patient.getId();
+    }
+}
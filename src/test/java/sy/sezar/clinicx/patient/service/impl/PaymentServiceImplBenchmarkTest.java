@@ -0,0 +1,178 @@
+package sy.sezar.clinicx.patient.service.impl;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import sy.sezar.clinicx.patient.mapper.PaymentMapper;
+import sy.sezar.clinicx.patient.repository.InvoiceRepository;
+import sy.sezar.clinicx.patient.repository.PatientRepository;
+import sy.sezar.clinicx.patient.repository.PaymentAllocationRepository;
+import sy.sezar.clinicx.patient.repository.PaymentRepository;
+import sy.sezar.clinicx.patient.service.LedgerService;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Round-trips and latency of the payment statistics on PostgreSQL with 2M payments, against the
+ * six statements the statistics used to run one after another. The data volume can be lowered
+ * with -Dbenchmark.payments.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@DisplayName("PaymentServiceImpl Benchmark Tests")
+class PaymentServiceImplBenchmarkTest {
+
+    private static final int PAYMENTS = Integer.getInteger("benchmark.payments", 2_000_000);
+    private static final int PATIENTS = Math.max(PAYMENTS / 40, 100);
+    private static final int WARMUP = 3;
+    private static final int ITERATIONS = Integer.getInteger("benchmark.iterations", 20);
+
+    private static final LocalDate START = LocalDate.of(2025, 1, 1);
+    private static final LocalDate END = LocalDate.of(2025, 12, 31);
+
+    /** The statements of the former implementation, as generated from its repository queries. */
+    private static final String[] SEQUENTIAL_STATEMENTS = {
+        "SELECT COALESCE(SUM(amount), 0) FROM payments WHERE %s AND type = 'PAYMENT'",
+        "SELECT COALESCE(SUM(amount), 0) FROM payments WHERE %s AND type = 'REFUND'",
+        "SELECT COALESCE(SUM(amount), 0) FROM payments WHERE %s AND type = 'CREDIT'",
+        "SELECT COUNT(*) FROM payments WHERE %s",
+        "SELECT MAX(payment_date) FROM payments WHERE %s",
+        "SELECT payment_method, COALESCE(SUM(amount), 0) FROM payments WHERE %s AND type = 'PAYMENT'"
+            + " GROUP BY payment_method"};
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static final AtomicInteger statements = new AtomicInteger();
+    private static JdbcTemplate jdbcTemplate;
+    private static PaymentServiceImpl service;
+
+    @BeforeAll
+    static void generateData() {
+        // One connection throughout, so that only statements are compared and not connection setup
+        SingleConnectionDataSource dataSource = new SingleConnectionDataSource(
+            POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword(), true);
+        new ResourceDatabasePopulator(new ClassPathResource("db/billing-report-schema.sql")).execute(dataSource);
+        StatementCountingDataSource counting = new StatementCountingDataSource(dataSource);
+        jdbcTemplate = new JdbcTemplate(counting);
+        service = new PaymentServiceImpl(mock(PaymentRepository.class), mock(PatientRepository.class),
+            mock(InvoiceRepository.class), mock(PaymentMapper.class), mock(PaymentAllocationRepository.class),
+            mock(LedgerService.class), new NamedParameterJdbcTemplate(counting));
+
+        long start = System.nanoTime();
+        jdbcTemplate.execute("""
+            CREATE FUNCTION bench_id(t INT, n BIGINT) RETURNS UUID IMMUTABLE LANGUAGE SQL AS
+            $$ SELECT CAST(lpad(to_hex(t), 8, '0') || lpad(to_hex(n), 24, '0') AS UUID) $$
+            """);
+        jdbcTemplate.execute("""
+            INSERT INTO payments (id, patient_id, payment_date, amount, payment_method, type, status, created_at)
+            SELECT bench_id(11, g), bench_id(3, g %% %d + 1), DATE '2024-01-01' + (g %% 730), 50 + g %% 200,
+                   (ARRAY['CASH', 'CREDIT_CARD', 'DEBIT_CARD', 'BANK_TRANSFER', 'INSURANCE'])[g %% 5 + 1],
+                   (ARRAY['PAYMENT', 'PAYMENT', 'PAYMENT', 'PAYMENT', 'PAYMENT', 'PAYMENT', 'PAYMENT', 'PAYMENT',
+                          'REFUND', 'CREDIT'])[g %% 10 + 1],
+                   CASE WHEN g %% 100 = 1 THEN 'FAILED' ELSE 'COMPLETED' END,
+                   TIMESTAMP '2024-01-01 08:00' + (g %% 730) * INTERVAL '1 day'
+            FROM generate_series(1, %d) g
+            """.formatted(PATIENTS, PAYMENTS));
+        // Indexes of the production schema that the statistics rely on
+        jdbcTemplate.execute("CREATE INDEX ON payments(payment_date, type) INCLUDE (amount, payment_method, status)");
+        jdbcTemplate.execute("CREATE INDEX ON payments(patient_id, payment_date) "
+            + "INCLUDE (type, payment_method, amount, status)");
+        jdbcTemplate.execute("VACUUM ANALYZE");
+        System.out.printf("Generated %d payments for %d patients in %.1f s%n",
+            PAYMENTS, PATIENTS, (System.nanoTime() - start) / 1_000_000_000.0);
+    }
+
+    @Test
+    @DisplayName("Benchmark: round-trips and p50/p99 latency of the single-pass statistics")
+    void benchmark_StatisticsLatency() {
+        UUID patient = jdbcTemplate.queryForObject("SELECT patient_id FROM payments LIMIT 1", UUID.class);
+        String patientFilter = "patient_id = '" + patient + "'";
+
+        Map<String, Runnable> variants = new LinkedHashMap<>();
+        variants.put("patient, sequential statements", () -> sequential(patientFilter));
+        variants.put("patient, single pass", () -> service.getPaymentStatistics(patient, null, null));
+        variants.put("patient one year, single pass", () -> service.getPaymentStatistics(patient, START, END));
+        variants.put("tenant, sequential statements", () -> sequential("TRUE"));
+        variants.put("tenant, single pass", () -> service.getPaymentStatistics(null, null, null));
+        variants.put("tenant one year, single pass", () -> service.getPaymentStatistics(null, START, END));
+
+        System.out.printf("%-40s %12s %10s %10s%n", "Statistics", "round-trips", "p50 (ms)", "p99 (ms)");
+        variants.forEach((name, variant) -> {
+            for (int i = 0; i < WARMUP; i++) {
+                variant.run();
+            }
+            statements.set(0);
+            variant.run();
+            int roundTrips = statements.get();
+
+            double[] millis = new double[ITERATIONS];
+            for (int i = 0; i < ITERATIONS; i++) {
+                long start = System.nanoTime();
+                variant.run();
+                millis[i] = (System.nanoTime() - start) / 1_000_000.0;
+            }
+            Arrays.sort(millis);
+            System.out.printf("%-40s %12d %10.1f %10.1f%n",
+                name, roundTrips, percentile(millis, 0.50), percentile(millis, 0.99));
+            assertThat(roundTrips).isEqualTo(name.endsWith("single pass") ? 1 : SEQUENTIAL_STATEMENTS.length);
+        });
+    }
+
+    private static void sequential(String filter) {
+        for (String statement : SEQUENTIAL_STATEMENTS) {
+            jdbcTemplate.queryForList(statement.formatted(filter));
+        }
+    }
+
+    private static double percentile(double[] sorted, double percentile) {
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    /**
+     * Counts the statements prepared or created on its connections.
+     */
+    private static final class StatementCountingDataSource extends DelegatingDataSource {
+
+        StatementCountingDataSource(SingleConnectionDataSource dataSource) {
+            super(dataSource);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            Connection connection = super.getConnection();
+            return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("prepareStatement") || method.getName().equals("createStatement")) {
+                        statements.incrementAndGet();
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package sy.sezar.clinicx.patient.service.impl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import sy.sezar.clinicx.core.exception.BusinessRuleException;
+import sy.sezar.clinicx.patient.dto.BulkPaymentItem;
+import sy.sezar.clinicx.patient.dto.BulkPaymentRequest;
+import sy.sezar.clinicx.patient.dto.BulkPaymentResponse;
+import sy.sezar.clinicx.patient.dto.PaymentStatisticsDto;
+import sy.sezar.clinicx.patient.mapper.PaymentMapper;
+import sy.sezar.clinicx.patient.model.Invoice;
+import sy.sezar.clinicx.patient.model.LedgerEntry;
+import sy.sezar.clinicx.patient.model.Patient;
+import sy.sezar.clinicx.patient.model.Payment;
+import sy.sezar.clinicx.patient.model.PaymentAllocation;
+import sy.sezar.clinicx.patient.model.enums.InvoiceStatus;
+import sy.sezar.clinicx.patient.model.enums.LedgerEntryType;
+import sy.sezar.clinicx.patient.model.enums.PaymentMethod;
+import sy.sezar.clinicx.patient.model.enums.PaymentType;
+import sy.sezar.clinicx.patient.repository.InvoiceRepository;
+import sy.sezar.clinicx.patient.repository.PatientRepository;
+import sy.sezar.clinicx.patient.repository.PaymentAllocationRepository;
+import sy.sezar.clinicx.patient.repository.PaymentRepository;
+import sy.sezar.clinicx.patient.service.LedgerService;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@DisplayName("PaymentServiceImpl Tests")
+class PaymentServiceImplTest {
+
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+    private final AtomicInteger connections = new AtomicInteger();
+    private final PaymentRepository paymentRepository = mock(PaymentRepository.class);
+    private final PatientRepository patientRepository = mock(PatientRepository.class);
+    private final InvoiceRepository invoiceRepository = mock(InvoiceRepository.class);
+    private final PaymentAllocationRepository paymentAllocationRepository = mock(PaymentAllocationRepository.class);
+    private final LedgerService ledgerService = mock(LedgerService.class);
+    private PaymentServiceImpl service;
+
+    private final UUID patient1 = UUID.randomUUID();
+    private final UUID patient2 = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+            .setType(EmbeddedDatabaseType.H2)
+            .generateUniqueName(true)
+            .addScript("db/billing-report-schema.sql")
+            .build();
+        jdbcTemplate = new JdbcTemplate(database);
+        service = new PaymentServiceImpl(paymentRepository, patientRepository, invoiceRepository,
+            mock(PaymentMapper.class), paymentAllocationRepository, ledgerService, new NamedParameterJdbcTemplate(new DelegatingDataSource(database) {
+                @Override
+                public Connection getConnection() throws SQLException {
+                    connections.incrementAndGet();
+                    return super.getConnection();
+                }
+            }));
+
+        payment(patient1, "2026-01-05", "100.00", "CASH", "PAYMENT", "COMPLETED");
+        payment(patient1, "2026-01-20", "50.00", "CREDIT_CARD", "PAYMENT", "COMPLETED");
+        payment(patient1, "2026-02-03", "30.00", "CASH", "PAYMENT", "COMPLETED");
+        // Refunds are stored with a negative amount
+        payment(patient1, "2026-02-10", "-20.00", "CASH", "REFUND", "COMPLETED");
+        payment(patient1, "2026-02-11", "15.00", "OTHER", "CREDIT", "COMPLETED");
+        payment(patient1, "2026-02-12", "500.00", "CASH", "PAYMENT", "FAILED");
+        payment(patient1, "2026-03-01", "70.00", "BANK_TRANSFER", "PAYMENT", "COMPLETED");
+        payment(patient2, "2026-01-15", "40.00", "CASH", "PAYMENT", "COMPLETED");
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should compute patient statistics within the date window in one statement")
+    void getPaymentStatistics_PatientWindow() {
+        PaymentStatisticsDto statistics = service.getPaymentStatistics(patient1,
+            LocalDate.of(2026, 1, 1), LocalDate.of(2026, 2, 28));
+
+        assertThat(connections.get()).isEqualTo(1);
+        verifyNoInteractions(paymentRepository);
+        assertThat(statistics.totalCollected()).isEqualByComparingTo("180.00");
+        assertThat(statistics.totalRefunded()).isEqualByComparingTo("20.00");
+        assertThat(statistics.totalCredits()).isEqualByComparingTo("15.00");
+        assertThat(statistics.netAmount()).isEqualByComparingTo("175.00");
+        assertThat(statistics.paymentCount()).isEqualTo(3);
+        assertThat(statistics.refundCount()).isEqualTo(1);
+        assertThat(statistics.creditCount()).isEqualTo(1);
+        assertThat(statistics.averagePaymentAmount()).isEqualByComparingTo("60.00");
+        assertThat(statistics.firstPaymentDate()).isEqualTo(LocalDate.of(2026, 1, 5));
+        assertThat(statistics.lastPaymentDate()).isEqualTo(LocalDate.of(2026, 2, 3));
+        assertThat(statistics.byPaymentMethod()).containsOnly(
+            Map.entry("CASH", new BigDecimal("130.00")),
+            Map.entry("CREDIT_CARD", new BigDecimal("50.00")));
+        assertThat(statistics.byMonth()).containsExactly(
+            Map.entry("2026-01", new BigDecimal("150.00")),
+            Map.entry("2026-02", new BigDecimal("30.00")));
+        assertThat(statistics.countByType()).containsOnly(
+            Map.entry("PAYMENT", 3), Map.entry("REFUND", 1), Map.entry("CREDIT", 1));
+    }
+
+    @Test
+    @DisplayName("Should compute tenant-wide statistics when no patient is given")
+    void getPaymentStatistics_TenantWide() {
+        PaymentStatisticsDto statistics = service.getPaymentStatistics(null, null, null);
+
+        assertThat(statistics.totalCollected()).isEqualByComparingTo("290.00");
+        assertThat(statistics.paymentCount()).isEqualTo(5);
+        assertThat(statistics.lastPaymentDate()).isEqualTo(LocalDate.of(2026, 3, 1));
+        assertThat(statistics.byPaymentMethod()).containsEntry("CASH", new BigDecimal("170.00"));
+        assertThat(statistics.byMonth()).containsOnlyKeys("2026-01", "2026-02", "2026-03");
+    }
+
+    @Test
+    @DisplayName("Should return zero statistics for a window without payments")
+    void getPaymentStatistics_Empty() {
+        PaymentStatisticsDto statistics = service.getPaymentStatistics(patient2,
+            LocalDate.of(2026, 2, 1), LocalDate.of(2026, 2, 28));
+
+        assertThat(statistics.totalCollected()).isEqualByComparingTo("0");
+        assertThat(statistics.netAmount()).isEqualByComparingTo("0");
+        assertThat(statistics.paymentCount()).isZero();
+        assertThat(statistics.averagePaymentAmount()).isEqualByComparingTo("0");
+        assertThat(statistics.lastPaymentDate()).isNull();
+        assertThat(statistics.byPaymentMethod()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should reject inverted date ranges")
+    void getPaymentStatistics_InvalidRange() {
+        assertThatThrownBy(() -> service.getPaymentStatistics(patient1,
+            LocalDate.of(2026, 2, 1), LocalDate.of(2026, 1, 1)))
+            .isInstanceOf(BusinessRuleException.class);
+        assertThat(connections.get()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should load bulk payment references once and write everything in batches")
+    @SuppressWarnings("unchecked")
+    void processBulkPayments_Batched() {
+        Patient first = patient(patient1);
+        Patient second = patient(patient2);
+        Invoice invoice = invoice(first, "INV-1", "100.00", InvoiceStatus.UNPAID);
+        Invoice paid = invoice(first, "INV-2", "50.00", InvoiceStatus.PAID);
+        when(patientRepository.findAllById(any())).thenReturn(List.of(first, second));
+        when(invoiceRepository.findAllById(any())).thenReturn(List.of(invoice, paid));
+        UUID unknown = UUID.randomUUID();
+
+        BulkPaymentResponse response = service.processBulkPayments(new BulkPaymentRequest(List.of(
+            item(patient1, invoice.getId(), "60.00"),
+            item(unknown, null, "10.00"),
+            item(patient1, paid.getId(), "10.00"),
+            item(patient2, null, "25.00"),
+            item(patient1, invoice.getId(), "40.00"),
+            item(patient1, invoice.getId(), "5.00"))));
+
+        assertThat(response.successCount()).isEqualTo(3);
+        assertThat(response.errors()).extracting(BulkPaymentResponse.BulkPaymentError::index).containsExactly(1, 2, 5);
+        assertThat(response.errors().get(0).errorCode()).isEqualTo("ResourceNotFoundException");
+        assertThat(response.errors().get(2).errorMessage()).isEqualTo("Invoice is already fully paid");
+        // One query per referenced entity type, whatever the number of items
+        verify(patientRepository).findAllById(any());
+        verify(invoiceRepository).findAllById(any());
+        verify(patientRepository, never()).findById(any());
+        verify(invoiceRepository, never()).findById(any());
+        verify(invoiceRepository, never()).save(any());
+        assertThat(invoice.getAmountPaid()).isEqualByComparingTo("100.00");
+        assertThat(invoice.getAmountDue()).isEqualByComparingTo("0");
+        assertThat(invoice.getStatus()).isEqualTo(InvoiceStatus.PAID);
+
+        ArgumentCaptor<List<Payment>> payments = ArgumentCaptor.forClass(List.class);
+        verify(paymentRepository).saveAll(payments.capture());
+        assertThat(payments.getValue()).extracting(Payment::getAmount)
+            .containsExactly(new BigDecimal("60.00"), new BigDecimal("25.00"), new BigDecimal("40.00"));
+        ArgumentCaptor<List<PaymentAllocation>> allocations = ArgumentCaptor.forClass(List.class);
+        verify(paymentAllocationRepository).saveAll(allocations.capture());
+        assertThat(allocations.getValue()).hasSize(2).allSatisfy(a -> assertThat(a.getInvoice()).isSameAs(invoice));
+        ArgumentCaptor<List<LedgerEntry>> entries = ArgumentCaptor.forClass(List.class);
+        verify(ledgerService).recordAll(entries.capture());
+        assertThat(entries.getValue()).hasSize(3)
+            .allSatisfy(e -> assertThat(e.getEntryType()).isEqualTo(LedgerEntryType.PAYMENT_RECEIPT));
+        verify(ledgerService, never()).record(any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should stop at the first rejected bulk payment when asked to")
+    void processBulkPayments_StopOnError() {
+        when(patientRepository.findAllById(any())).thenReturn(List.of(patient(patient1)));
+        when(invoiceRepository.findAllById(any())).thenReturn(List.of());
+
+        BulkPaymentResponse response = service.processBulkPayments(new BulkPaymentRequest(List.of(
+            item(patient1, null, "10.00"),
+            item(patient2, null, "20.00"),
+            item(patient1, null, "30.00")), true, true, null));
+
+        assertThat(response.successCount()).isEqualTo(1);
+        assertThat(response.failureCount()).isEqualTo(1);
+        assertThat(response.errors().get(0).patientId()).isEqualTo(patient2.toString());
+    }
+
+    private static Patient patient(UUID id) {
+        Patient patient = new Patient();
+        patient.setId(id);
+        return patient;
+    }
+
+    private static Invoice invoice(Patient patient, String number, String total, InvoiceStatus status) {
+        Invoice invoice = new Invoice();
+        invoice.setId(UUID.randomUUID());
+        invoice.setPatient(patient);
+        invoice.setInvoiceNumber(number);
+        invoice.setTotalAmount(new BigDecimal(total));
+        invoice.setSubTotal(new BigDecimal(total));
+        invoice.setAmountDue(new BigDecimal(total));
+        invoice.setStatus(status);
+        return invoice;
+    }
+
+    private static BulkPaymentItem item(UUID patientId, UUID invoiceId, String amount) {
+        return new BulkPaymentItem(patientId, invoiceId, new BigDecimal(amount), LocalDate.of(2026, 3, 1),
+            PaymentMethod.CREDIT_CARD, PaymentType.PAYMENT, "Card settlement", null);
+    }
+
+    private void payment(UUID patient, String date, String amount, String method, String type, String status) {
+        LocalDate paymentDate = LocalDate.parse(date);
+        jdbcTemplate.update("""
+            INSERT INTO payments (id, patient_id, payment_date, amount, payment_method, type, status, created_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+            """, UUID.randomUUID(), patient, paymentDate, new BigDecimal(amount), method, type, status,
+            Timestamp.valueOf(paymentDate.atTime(9, 0)));
+    }
+}
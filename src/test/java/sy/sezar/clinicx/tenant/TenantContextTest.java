@@ -0,0 +1,174 @@
+package sy.sezar.clinicx.tenant;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("TenantContext Tests")
+class TenantContextTest {
+
+    private static final int REQUESTS = 20_000;
+    private static final int TENANTS = 50;
+
+    @AfterEach
+    void tearDown() {
+        TenantContext.clear();
+    }
+
+    @Test
+    @DisplayName("Should restore the previous tenant when a scope ends")
+    void runWithTenant_RestoresPreviousTenant() throws Exception {
+        TenantContext.setCurrentTenant("outer");
+
+        TenantContext.runWithTenant("inner", () -> {
+            assertThat(TenantContext.getCurrentTenant()).isEqualTo("inner");
+            TenantContext.setCurrentTenant("changed");
+        });
+        assertThat(TenantContext.getCurrentTenant()).isEqualTo("outer");
+
+        assertThatThrownBy(() -> TenantContext.callWithTenant("inner", () -> {
+            throw new IllegalStateException("failed");
+        })).isInstanceOf(IllegalStateException.class);
+        assertThat(TenantContext.getCurrentTenant()).isEqualTo("outer");
+    }
+
+    @Test
+    @DisplayName("Should propagate the tenant to wrapped tasks on other threads")
+    void wrap_PropagatesTenant() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            TenantContext.setCurrentTenant("tenant-a");
+            Future<String> wrapped = executor.submit(TenantContext.wrap(TenantContext::getCurrentTenant));
+            assertThat(wrapped.get()).isEqualTo("tenant-a");
+
+            // The worker thread itself keeps no tenant
+            assertThat(executor.submit(TenantContext::getCurrentTenant).get()).isNull();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Should clear the tenant set during a request even when the request fails")
+    void filter_ClearsTenantAfterFailedRequest() throws Exception {
+        TenantContextFilter filter = new TenantContextFilter();
+        ExecutorService requestThread = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> failed = requestThread.submit(() -> {
+                FilterChain chain = (request, response) -> {
+                    TenantContext.setCurrentTenant("tenant-a");
+                    throw new ServletException("rejected");
+                };
+                assertThatThrownBy(() -> filter.doFilter(new MockHttpServletRequest(), new MockHttpServletResponse(), chain))
+                    .isInstanceOf(ServletException.class);
+            });
+            failed.get();
+
+            assertThat(requestThread.submit(TenantContext::getCurrentTenant).get()).isNull();
+        } finally {
+            requestThread.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Load test: concurrent mixed-tenant requests on virtual threads never see another tenant")
+    void virtualThreads_NoCrossTenantLeakage() throws Exception {
+        TenantContextFilter filter = new TenantContextFilter();
+        ThreadPoolTaskExecutor asyncExecutor = new ThreadPoolTaskExecutor();
+        asyncExecutor.setCorePoolSize(4);
+        asyncExecutor.setMaxPoolSize(4);
+        asyncExecutor.setQueueCapacity(REQUESTS * 2);
+        asyncExecutor.setTaskDecorator(new TenantContextTaskDecorator());
+        asyncExecutor.initialize();
+
+        AtomicInteger leaks = new AtomicInteger();
+        AtomicInteger checks = new AtomicInteger();
+
+        try (ExecutorService requests = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> results = new ArrayList<>(REQUESTS);
+            for (int i = 0; i < REQUESTS; i++) {
+                String tenantId = "tenant-" + (i % TENANTS);
+                results.add(requests.submit(() -> {
+                    // Every request must start without a tenant
+                    expect(null, leaks, checks);
+
+                    FilterChain chain = (request, response) -> {
+                        // Set by the JWT decoder in the real chain
+                        TenantContext.setCurrentTenant(tenantId);
+                        Thread.yield();
+                        expect(tenantId, leaks, checks);
+
+                        // @Async style work on the shared pool and CompletableFuture work on the common pool
+                        CompletableFuture<String> async = CompletableFuture.supplyAsync(
+                            TenantContext::getCurrentTenant, asyncExecutor);
+                        CompletableFuture<String> wrapped = CompletableFuture.runAsync(
+                                TenantContext.wrap(() -> expect(tenantId, leaks, checks)))
+                            .thenApply(ignored -> tenantId);
+                        if (ThreadLocalRandom.current().nextInt(10) == 0) {
+                            sleep();
+                        }
+                        String seenAsync = async.join();
+                        wrapped.join();
+                        checks.incrementAndGet();
+                        if (!tenantId.equals(seenAsync)) {
+                            leaks.incrementAndGet();
+                        }
+                        expect(tenantId, leaks, checks);
+                    };
+                    filter.doFilter(new MockHttpServletRequest(), new MockHttpServletResponse(), chain);
+
+                    expect(null, leaks, checks);
+                    return null;
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get(1, TimeUnit.MINUTES);
+            }
+
+            // Pool threads must not keep the tenant of the last task they ran
+            for (int i = 0; i < 16; i++) {
+                assertThat(asyncExecutor.getThreadPoolExecutor().submit(TenantContext::getCurrentTenant).get()).isNull();
+            }
+        } finally {
+            asyncExecutor.shutdown();
+        }
+
+        System.out.printf("Tenant context checks: %d, cross-tenant leaks: %d%n", checks.get(), leaks.get());
+        assertThat(checks.get()).isGreaterThanOrEqualTo(REQUESTS * 5);
+        assertThat(leaks.get()).isZero();
+    }
+
+    private static void expect(String tenantId, AtomicInteger leaks, AtomicInteger checks) {
+        checks.incrementAndGet();
+        String current = TenantContext.getCurrentTenant();
+        if (tenantId == null ? current != null : !tenantId.equals(current)) {
+            leaks.incrementAndGet();
+        }
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
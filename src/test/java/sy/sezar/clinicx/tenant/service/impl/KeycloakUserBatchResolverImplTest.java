@@ -0,0 +1,162 @@
+package sy.sezar.clinicx.tenant.service.impl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.keycloak.representations.idm.UserRepresentation;
+import sy.sezar.clinicx.clinic.model.Staff;
+import sy.sezar.clinicx.core.exception.NotFoundException;
+import sy.sezar.clinicx.tenant.config.KeycloakUserResolutionConfig;
+import sy.sezar.clinicx.tenant.service.KeycloakUserService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@DisplayName("KeycloakUserBatchResolverImpl Tests")
+class KeycloakUserBatchResolverImplTest {
+
+    private static final String TENANT_REALM = "clinic-realm";
+    private static final String EXTERNAL_REALM = "external-realm";
+    private static final long REMOTE_LATENCY_MS = 20;
+    private static final int PARALLELISM = 8;
+
+    private KeycloakUserService keycloakUserService;
+    private KeycloakUserBatchResolverImpl resolver;
+
+    private final AtomicInteger remoteCalls = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        keycloakUserService = mock(KeycloakUserService.class);
+        when(keycloakUserService.getUser(anyString(), anyString())).thenAnswer(invocation -> {
+            String realm = invocation.getArgument(0);
+            String userId = invocation.getArgument(1);
+            simulateRemoteCall();
+            if (userId.startsWith("missing")) {
+                throw new NotFoundException("User not found: " + userId);
+            }
+            if (userId.startsWith("moved") && realm.equals(TENANT_REALM)) {
+                throw new NotFoundException("User not found: " + userId);
+            }
+            return user(userId);
+        });
+        when(keycloakUserService.getUserFromAnyRealm(anyString())).thenAnswer(invocation -> {
+            simulateRemoteCall();
+            return user(invocation.getArgument(0));
+        });
+
+        KeycloakUserResolutionConfig config = new KeycloakUserResolutionConfig();
+        config.setParallelism(PARALLELISM);
+        config.setTimeoutSeconds(30);
+        resolver = new KeycloakUserBatchResolverImpl(keycloakUserService, config);
+    }
+
+    @AfterEach
+    void tearDown() {
+        resolver.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should resolve users from their source realm and the tenant realm")
+    void resolveUsers_GroupsBySourceRealm() {
+        List<Staff> staff = List.of(
+            staff("local-1", null),
+            staff("external-1", EXTERNAL_REALM),
+            staff("local-2", ""));
+
+        Map<String, UserRepresentation> users = resolver.resolveUsers(staff, TENANT_REALM);
+
+        assertThat(users).containsOnlyKeys("local-1", "external-1", "local-2");
+        verify(keycloakUserService).getUser(TENANT_REALM, "local-1");
+        verify(keycloakUserService).getUser(TENANT_REALM, "local-2");
+        verify(keycloakUserService).getUser(EXTERNAL_REALM, "external-1");
+        verify(keycloakUserService, never()).getUserFromAnyRealm(anyString());
+    }
+
+    @Test
+    @DisplayName("Should search all realms only for staff without a source realm")
+    void resolveUsers_FallsBackToAllRealmsOnlyWithoutSourceRealm() {
+        List<Staff> staff = List.of(
+            staff("moved-1", null),
+            staff("missing-1", EXTERNAL_REALM));
+
+        Map<String, UserRepresentation> users = resolver.resolveUsers(staff, TENANT_REALM);
+
+        assertThat(users).containsOnlyKeys("moved-1");
+        verify(keycloakUserService).getUserFromAnyRealm("moved-1");
+        verify(keycloakUserService, never()).getUserFromAnyRealm("missing-1");
+    }
+
+    @Test
+    @DisplayName("Should skip staff without a Keycloak user and duplicate user IDs")
+    void resolveUsers_SkipsUnlinkedAndDuplicateStaff() {
+        List<Staff> staff = List.of(
+            staff(null, null),
+            staff("local-1", null),
+            staff("local-1", null));
+
+        Map<String, UserRepresentation> users = resolver.resolveUsers(staff, TENANT_REALM);
+
+        assertThat(users).containsOnlyKeys("local-1");
+        verify(keycloakUserService, times(1)).getUser(eq(TENANT_REALM), eq("local-1"));
+    }
+
+    @Test
+    @DisplayName("Stress: one remote call per user on the page with bounded parallelism")
+    void resolveUsers_StressPagesOfLargeTenant() {
+        int tenantSize = 600;
+        int pageSize = 50;
+        List<Staff> tenantStaff = new ArrayList<>();
+        for (int i = 0; i < tenantSize; i++) {
+            tenantStaff.add(staff("user-" + i, i % 3 == 0 ? EXTERNAL_REALM : null));
+        }
+
+        for (int page = 0; page * pageSize < tenantSize; page++) {
+            List<Staff> pageContent = tenantStaff.subList(page * pageSize, (page + 1) * pageSize);
+            remoteCalls.set(0);
+
+            Map<String, UserRepresentation> users = resolver.resolveUsers(pageContent, TENANT_REALM);
+
+            assertThat(users).hasSize(pageSize);
+            assertThat(remoteCalls.get()).isEqualTo(pageSize);
+        }
+
+        // Calls overlapped, so the page was not resolved one user at a time, but never beyond the bound
+        assertThat(maxInFlight.get()).isGreaterThan(1).isLessThanOrEqualTo(PARALLELISM);
+    }
+
+    private void simulateRemoteCall() throws InterruptedException {
+        remoteCalls.incrementAndGet();
+        maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        try {
+            Thread.sleep(REMOTE_LATENCY_MS);
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    private static Staff staff(String keycloakUserId, String sourceRealm) {
+        Staff staff = new Staff();
+        staff.setKeycloakUserId(keycloakUserId);
+        staff.setSourceRealm(sourceRealm);
+        staff.setTenantId("tenant-1");
+        return staff;
+    }
+
+    private static UserRepresentation user(String userId) {
+        UserRepresentation user = new UserRepresentation();
+        user.setId(userId);
+        user.setUsername(userId);
+        return user;
+    }
+}
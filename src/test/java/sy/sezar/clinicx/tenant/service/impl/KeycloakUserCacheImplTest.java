@@ -0,0 +1,141 @@
+package sy.sezar.clinicx.tenant.service.impl;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.keycloak.representations.idm.UserRepresentation;
+import sy.sezar.clinicx.core.exception.BusinessRuleException;
+import sy.sezar.clinicx.tenant.config.KeycloakUserCacheConfig;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("KeycloakUserCacheImpl Tests")
+class KeycloakUserCacheImplTest {
+
+    private static final String REALM = "clinic-realm";
+
+    private SimpleMeterRegistry meterRegistry;
+    private KeycloakUserCacheImpl cache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new KeycloakUserCacheImpl(new KeycloakUserCacheConfig(), meterRegistry);
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    @DisplayName("Should load a user once and serve repeated lookups from the cache")
+    void getById_LoadsOnce() {
+        cache.getById(REALM, "user-1", () -> load("user-1", "john"));
+        cache.getById(REALM, "user-1", () -> load("user-1", "john"));
+        UserRepresentation user = cache.getById(REALM, "user-1", () -> load("user-1", "john"));
+
+        assertThat(user.getUsername()).isEqualTo("john");
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "keycloakUsersById").tag("result", "hit")
+            .functionCounter().count()).isEqualTo(2.0);
+    }
+
+    @Test
+    @DisplayName("Should keep realms apart")
+    void getById_KeyedByRealm() {
+        cache.getById(REALM, "user-1", () -> load("user-1", "john"));
+        cache.getById("other-realm", "user-1", () -> load("user-1", "john"));
+
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should hand out copies so callers cannot modify the cached user")
+    void getById_ReturnsCopies() {
+        UserRepresentation first = cache.getById(REALM, "user-1", () -> load("user-1", "john"));
+        first.getAttributes().put("accessible_tenants", List.of("tampered"));
+        first.setEnabled(false);
+
+        UserRepresentation second = cache.getById(REALM, "user-1", () -> load("user-1", "john"));
+
+        assertThat(second.getAttributes()).doesNotContainKey("accessible_tenants");
+        assertThat(second.isEnabled()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should not cache failed lookups")
+    void getById_DoesNotCacheFailures() {
+        assertThatThrownBy(() -> cache.getById(REALM, "user-1", () -> {
+            throw new BusinessRuleException("User not found with ID: user-1");
+        })).isInstanceOf(BusinessRuleException.class);
+
+        UserRepresentation user = cache.getById(REALM, "user-1", () -> load("user-1", "john"));
+
+        assertThat(user).isNotNull();
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should share entries between username and ID lookups")
+    void getByUsername_PopulatesIdIndex() {
+        cache.getByUsername(REALM, "John", () -> load("user-1", "john"));
+        cache.getByUsername(REALM, "john", () -> load("user-1", "john"));
+        UserRepresentation byId = cache.getById(REALM, "user-1", () -> load("user-1", "john"));
+
+        assertThat(byId.getUsername()).isEqualTo("john");
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should reload a user from both indexes after invalidation")
+    void invalidate_EvictsBothIndexes() {
+        cache.getByUsername(REALM, "john", () -> load("user-1", "john"));
+
+        cache.invalidate(REALM, "user-1");
+        cache.getById(REALM, "user-1", () -> load("user-1", "john"));
+        cache.invalidate(REALM, "user-1");
+        cache.getByUsername(REALM, "john", () -> load("user-1", "john"));
+
+        assertThat(loads.get()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should evict only the users of the given realm")
+    void invalidateRealm_EvictsRealmOnly() {
+        cache.getById(REALM, "user-1", () -> load("user-1", "john"));
+        cache.getById("other-realm", "user-2", () -> load("user-2", "jane"));
+
+        cache.invalidateRealm(REALM);
+        cache.getById(REALM, "user-1", () -> load("user-1", "john"));
+        cache.getById("other-realm", "user-2", () -> load("user-2", "jane"));
+
+        assertThat(loads.get()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should bypass the cache when disabled")
+    void disabled_AlwaysLoads() {
+        KeycloakUserCacheConfig config = new KeycloakUserCacheConfig();
+        config.setEnabled(false);
+        KeycloakUserCacheImpl disabledCache = new KeycloakUserCacheImpl(config, meterRegistry);
+
+        disabledCache.getById(REALM, "user-1", () -> load("user-1", "john"));
+        disabledCache.getById(REALM, "user-1", () -> load("user-1", "john"));
+
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    private UserRepresentation load(String userId, String username) {
+        loads.incrementAndGet();
+        UserRepresentation user = new UserRepresentation();
+        user.setId(userId);
+        user.setUsername(username);
+        user.setEnabled(true);
+        user.setAttributes(new HashMap<>());
+        return user;
+    }
+}
@@ -0,0 +1,162 @@
+package sy.sezar.clinicx.tenant.service.impl;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import sy.sezar.clinicx.tenant.config.TenantAuditConfig;
+import sy.sezar.clinicx.tenant.event.TenantAccessEvent;
+import sy.sezar.clinicx.tenant.model.TenantAccessAudit;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("TenantAccessAuditWriterImpl Tests")
+class TenantAccessAuditWriterImplTest {
+
+    private final AtomicInteger written = new AtomicInteger();
+    private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+    private final List<TenantAccessAudit> writtenEntries = new CopyOnWriteArrayList<>();
+    private TenantAccessAuditWriterImpl writer;
+
+    @AfterEach
+    void tearDown() {
+        writer.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should write submitted entries in batches on the background thread")
+    void submit_WritesInBatches() throws InterruptedException {
+        writer = writer(config(10_000, 100, TenantAuditConfig.OverflowPolicy.DROP));
+        writer.start();
+
+        for (int i = 0; i < 1_000; i++) {
+            assertThat(writer.submit(entry(i))).isTrue();
+        }
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (written.get() < 1_000 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertThat(written.get()).isEqualTo(1_000);
+        assertThat(batchSizes).allMatch(size -> size <= 100);
+        assertThat(batchSizes.size()).isLessThan(1_000);
+    }
+
+    @Test
+    @DisplayName("Should drop and count entries when the buffer is full")
+    void submit_DropsWhenFull() {
+        writer = writer(config(10, 100, TenantAuditConfig.OverflowPolicy.DROP));
+
+        int accepted = 0;
+        for (int i = 0; i < 15; i++) {
+            if (writer.submit(entry(i))) {
+                accepted++;
+            }
+        }
+        writer.flush();
+
+        assertThat(accepted).isEqualTo(10);
+        assertThat(writer.getDroppedCount()).isEqualTo(5);
+        assertThat(written.get()).isEqualTo(10);
+    }
+
+    @Test
+    @DisplayName("Should block the caller until the writer makes room")
+    void submit_BlocksWhenFull() throws InterruptedException {
+        writer = writer(config(10, 5, TenantAuditConfig.OverflowPolicy.BLOCK));
+        writer.start();
+
+        for (int i = 0; i < 200; i++) {
+            assertThat(writer.submit(entry(i))).isTrue();
+        }
+        writer.shutdown();
+
+        assertThat(writer.getDroppedCount()).isZero();
+        assertThat(written.get()).isEqualTo(200);
+    }
+
+    @Test
+    @DisplayName("Should keep running when a batch fails to write")
+    void write_SurvivesFailures() {
+        writer = writer(config(100, 10, TenantAuditConfig.OverflowPolicy.DROP));
+        written.set(-1_000);
+
+        writer.submit(entry(1));
+        writer.flush();
+        written.set(0);
+        writer.submit(entry(2));
+        writer.flush();
+
+        assertThat(written.get()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should cut values longer than their column so the batch still writes")
+    void submit_TruncatesLongValues() {
+        writer = writer(config(100, 10, TenantAuditConfig.OverflowPolicy.DROP));
+        TenantAccessAudit longUri = entry(1).toBuilder()
+            .resource("/api/v1/patients?q=" + "x".repeat(5_000))
+            .reason("r".repeat(800))
+            .build();
+
+        writer.submit(longUri);
+        writer.submit(entry(2));
+        writer.flush();
+
+        assertThat(written.get()).isEqualTo(2);
+        assertThat(writtenEntries.get(0).getResource()).hasSize(1000).startsWith("/api/v1/patients?q=");
+        assertThat(writtenEntries.get(0).getReason()).hasSize(500);
+        assertThat(writtenEntries.get(1).getResource()).isEqualTo("/api/v1/patients");
+    }
+
+    @SuppressWarnings("unchecked")
+    private TenantAccessAuditWriterImpl writer(TenantAuditConfig config) {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.batchUpdate(anyString(), any(Collection.class), anyInt(), any())).thenAnswer(invocation -> {
+            if (written.get() < 0) {
+                throw new IllegalStateException("Database unavailable");
+            }
+            Collection<TenantAccessAudit> batch = invocation.getArgument(1);
+            batchSizes.add(batch.size());
+            writtenEntries.addAll(batch);
+            written.addAndGet(batch.size());
+            return new int[][]{};
+        });
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+        return new TenantAccessAuditWriterImpl(jdbcTemplate, transactionManager, config, new SimpleMeterRegistry());
+    }
+
+    private static TenantAuditConfig config(int bufferSize, int batchSize, TenantAuditConfig.OverflowPolicy policy) {
+        TenantAuditConfig config = new TenantAuditConfig();
+        config.setBufferSize(bufferSize);
+        config.setBatchSize(batchSize);
+        config.setFlushIntervalMs(50);
+        config.setOverflowPolicy(policy);
+        return config;
+    }
+
+    private static TenantAccessAudit entry(int i) {
+        return TenantAccessAudit.builder()
+            .id(UUID.randomUUID())
+            .userId("user-" + i)
+            .username("user" + i)
+            .tenantId("tenant-1")
+            .resource("/api/v1/patients")
+            .accessType(TenantAccessEvent.AccessType.GRANTED)
+            .occurredAt(Instant.now())
+            .build();
+    }
+}
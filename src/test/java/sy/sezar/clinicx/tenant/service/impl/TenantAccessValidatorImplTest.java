@@ -0,0 +1,175 @@
+package sy.sezar.clinicx.tenant.service.impl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.CacheManager;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.test.util.ReflectionTestUtils;
+import sy.sezar.clinicx.clinic.model.Staff;
+import sy.sezar.clinicx.clinic.model.enums.StaffRole;
+import sy.sezar.clinicx.clinic.repository.StaffRepository;
+import sy.sezar.clinicx.core.config.CacheConfig;
+import sy.sezar.clinicx.tenant.repository.UserTenantAccessRepository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@DisplayName("TenantAccessValidatorImpl Tests")
+class TenantAccessValidatorImplTest {
+
+    private static final String USER_ID = "john";
+
+    private StaffRepository staffRepository;
+    private UserTenantAccessRepository userTenantAccessRepository;
+    private TenantAccessValidatorImpl validator;
+
+    @BeforeEach
+    void setUp() {
+        staffRepository = mock(StaffRepository.class);
+        userTenantAccessRepository = mock(UserTenantAccessRepository.class);
+
+        CacheConfig cacheConfig = new CacheConfig();
+        ReflectionTestUtils.setField(cacheConfig, "accessCacheTtlSeconds", 60L);
+        ReflectionTestUtils.setField(cacheConfig, "accessCacheMaxSize", 1_000L);
+        CacheManager cacheManager = cacheConfig.cacheManager();
+
+        validator = new TenantAccessValidatorImpl(staffRepository, userTenantAccessRepository, cacheManager);
+        ReflectionTestUtils.setField(validator, "strictTenantValidation", true);
+
+        authenticate(jwt("token-1", "tenant-a", List.of("tenant-b|Clinic B|DOCTOR", "tenant-c|Clinic C")));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Should grant tenants from the token claims without touching the database")
+    void validateAccess_FromClaims() {
+        for (int i = 0; i < 100; i++) {
+            assertThat(validator.validateAccess("tenant-a")).isTrue();
+            assertThat(validator.validateAccess("tenant-b")).isTrue();
+            assertThat(validator.validateAccess("tenant-c")).isTrue();
+        }
+
+        verifyNoInteractions(staffRepository, userTenantAccessRepository);
+    }
+
+    @Test
+    @DisplayName("Should resolve roles from the token claims")
+    void getUserRoleInTenant_FromClaims() {
+        assertThat(validator.getUserRoleInTenant("tenant-a")).isEqualTo("ADMIN");
+        assertThat(validator.getUserRoleInTenant("tenant-b")).isEqualTo("DOCTOR");
+
+        verifyNoInteractions(staffRepository);
+    }
+
+    @Test
+    @DisplayName("Should re-read claims when the token changes")
+    void validateAccess_PerToken() {
+        assertThat(validator.validateAccess("tenant-b")).isTrue();
+
+        authenticate(jwt("token-2", "tenant-a", List.of()));
+        when(userTenantAccessRepository.existsByUserIdAndTenantIdAndIsActiveTrue(USER_ID, "tenant-b"))
+            .thenReturn(false);
+
+        assertThat(validator.validateAccess("tenant-b")).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should cache database grants until evicted")
+    void checkDatabaseAccess_CachesGrants() {
+        when(userTenantAccessRepository.existsByUserIdAndTenantIdAndIsActiveTrue(USER_ID, "tenant-d"))
+            .thenReturn(true);
+
+        assertThat(validator.validateAccess("tenant-d")).isTrue();
+        assertThat(validator.validateAccess("tenant-d")).isTrue();
+        verify(userTenantAccessRepository, times(1)).existsByUserIdAndTenantIdAndIsActiveTrue(USER_ID, "tenant-d");
+
+        when(userTenantAccessRepository.existsByUserIdAndTenantIdAndIsActiveTrue(USER_ID, "tenant-d"))
+            .thenReturn(false);
+        validator.evictAccessCache(USER_ID, "tenant-d");
+
+        assertThat(validator.validateAccess("tenant-d")).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should not cache denials")
+    void checkDatabaseAccess_DoesNotCacheDenials() {
+        assertThat(validator.checkDatabaseAccess(USER_ID, "tenant-d")).isFalse();
+        assertThat(validator.checkDatabaseAccess(USER_ID, "tenant-d")).isFalse();
+
+        verify(userTenantAccessRepository, times(2)).existsByUserIdAndTenantIdAndIsActiveTrue(USER_ID, "tenant-d");
+    }
+
+    @Test
+    @DisplayName("Should only accept staff records without an access row when validation is not strict")
+    void checkDatabaseAccess_StrictMode() {
+        when(staffRepository.existsByKeycloakUserIdAndTenantId(anyString(), anyString())).thenReturn(true);
+
+        assertThat(validator.checkDatabaseAccess(USER_ID, "tenant-d")).isFalse();
+
+        ReflectionTestUtils.setField(validator, "strictTenantValidation", false);
+        assertThat(validator.checkDatabaseAccess(USER_ID, "tenant-d")).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should deny a staff member whose access row was revoked when validation is not strict")
+    void checkDatabaseAccess_RevokedAccessOverridesStaff() {
+        ReflectionTestUtils.setField(validator, "strictTenantValidation", false);
+        when(staffRepository.existsByKeycloakUserIdAndTenantId(USER_ID, "tenant-d")).thenReturn(true);
+        when(userTenantAccessRepository.existsByUserIdAndTenantIdAndIsActiveTrue(USER_ID, "tenant-d"))
+            .thenReturn(true);
+        assertThat(validator.checkDatabaseAccess(USER_ID, "tenant-d")).isTrue();
+
+        // Revocation deactivates the row and evicts the cached grant
+        when(userTenantAccessRepository.existsByUserIdAndTenantIdAndIsActiveTrue(USER_ID, "tenant-d"))
+            .thenReturn(false);
+        when(userTenantAccessRepository.existsByUserIdAndTenantId(USER_ID, "tenant-d")).thenReturn(true);
+        validator.evictAccessCache(USER_ID, "tenant-d");
+
+        assertThat(validator.checkDatabaseAccess(USER_ID, "tenant-d")).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should memoize database role lookups until evicted")
+    void getUserRoleInTenant_MemoizesDatabaseRole() {
+        Staff staff = new Staff();
+        staff.setRoles(Set.of(StaffRole.DOCTOR));
+        when(staffRepository.findByKeycloakUserIdAndTenantId(USER_ID, "tenant-d")).thenReturn(Optional.of(staff));
+
+        assertThat(validator.getUserRoleInTenant("tenant-d")).isEqualTo("DOCTOR");
+        assertThat(validator.getUserRoleInTenant("tenant-d")).isEqualTo("DOCTOR");
+        verify(staffRepository, times(1)).findByKeycloakUserIdAndTenantId(USER_ID, "tenant-d");
+
+        validator.evictAccessCache(USER_ID, "tenant-d");
+        validator.getUserRoleInTenant("tenant-d");
+        verify(staffRepository, times(2)).findByKeycloakUserIdAndTenantId(USER_ID, "tenant-d");
+    }
+
+    private static void authenticate(Jwt jwt) {
+        SecurityContextHolder.getContext().setAuthentication(new JwtAuthenticationToken(jwt));
+    }
+
+    private static Jwt jwt(String jti, String tenantId, List<String> accessibleTenants) {
+        return Jwt.withTokenValue("header.payload." + jti)
+            .header("alg", "RS256")
+            .jti(jti)
+            .claim("preferred_username", USER_ID)
+            .claim("tenant_id", tenantId)
+            .claim("realm_access", Map.of("roles", List.of("STAFF", "ADMIN")))
+            .claim("accessible_tenants", accessibleTenants)
+            .build();
+    }
+}
@@ -0,0 +1,142 @@
+package sy.sezar.clinicx.tenant.service.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import sy.sezar.clinicx.tenant.config.TenantAuditConfig;
+import sy.sezar.clinicx.tenant.event.TenantAccessEvent;
+import sy.sezar.clinicx.tenant.model.TenantAccessAudit;
+import sy.sezar.clinicx.tenant.repository.TenantAccessAuditRepository;
+import sy.sezar.clinicx.tenant.service.TenantAccessAuditWriter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+@DisplayName("TenantAuditServiceImpl Tests")
+class TenantAuditServiceImplTest {
+
+    private final List<TenantAccessAudit> written = new CopyOnWriteArrayList<>();
+    private TenantAuditConfig config;
+    private TenantAuditServiceImpl auditService;
+
+    @BeforeEach
+    void setUp() {
+        config = new TenantAuditConfig();
+        TenantAccessAuditWriter writer = new TenantAccessAuditWriter() {
+            @Override
+            public boolean submit(TenantAccessAudit entry) {
+                return written.add(entry);
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public long getDroppedCount() {
+                return 0;
+            }
+        };
+        auditService = new TenantAuditServiceImpl(mock(ApplicationEventPublisher.class), writer,
+            mock(TenantAccessAuditRepository.class), config);
+    }
+
+    @Test
+    @DisplayName("Should write one roll-up per user, tenant and resource prefix without losing counts")
+    void aggregate_CountsConcurrentAccesses() throws InterruptedException {
+        int threads = 8;
+        int requestsPerThread = 10_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor();
+        flusher.scheduleWithFixedDelay(auditService::flushAggregatedAccess, 20, 20, TimeUnit.MILLISECONDS);
+        for (int t = 0; t < threads; t++) {
+            String user = "user" + (t % 2);
+            executor.submit(() -> {
+                for (int i = 0; i < requestsPerThread; i++) {
+                    auditService.auditAccessGranted(user, "tenant-1", "/api/v1/patients/" + i);
+                }
+            });
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+        flusher.shutdown();
+        assertThat(flusher.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+        auditService.flushAllAggregatedAccess();
+
+        Map<String, Long> countsByUser = written.stream()
+            .collect(Collectors.groupingBy(TenantAccessAudit::getUsername,
+                Collectors.summingLong(TenantAccessAudit::getAccessCount)));
+        assertThat(countsByUser).containsEntry("user0", (long) threads / 2 * requestsPerThread)
+            .containsEntry("user1", (long) threads / 2 * requestsPerThread);
+        assertThat(written).allSatisfy(audit -> {
+            assertThat(audit.getResource()).isEqualTo("/api/v1/patients");
+            assertThat(audit.getWindowStart()).isBeforeOrEqualTo(audit.getOccurredAt());
+        });
+        System.out.printf("%d granted accesses recorded as %d audit rows%n",
+            threads * requestsPerThread, written.size());
+        assertThat(written.size()).isLessThan(threads * requestsPerThread / 10);
+    }
+
+    @Test
+    @DisplayName("Should write a closed window only after the next window closes")
+    void aggregate_WritesOneWindowLate() {
+        auditService.auditAccessGranted("john", "tenant-1", "/api/v1/appointments");
+        auditService.flushAggregatedAccess();
+        assertThat(written).isEmpty();
+
+        auditService.flushAggregatedAccess();
+        assertThat(written).singleElement().satisfies(audit -> {
+            assertThat(audit.getAccessCount()).isEqualTo(1);
+            assertThat(audit.getResource()).isEqualTo("/api/v1/appointments");
+        });
+    }
+
+    @Test
+    @DisplayName("Should record denied accesses individually in aggregation mode")
+    void aggregate_RecordsDeniedIndividually() {
+        auditService.auditAccessDenied("john", "tenant-1", "/api/v1/patients/7", "Unauthorized tenant access");
+        auditService.auditAccessDenied("john", "tenant-1", "/api/v1/patients/7", "Unauthorized tenant access");
+
+        assertThat(written).hasSize(2).allSatisfy(audit -> {
+            assertThat(audit.getAccessType()).isEqualTo(TenantAccessEvent.AccessType.DENIED);
+            assertThat(audit.getResource()).isEqualTo("/api/v1/patients/7");
+            assertThat(audit.getWindowStart()).isNull();
+        });
+    }
+
+    @Test
+    @DisplayName("Should record every granted access in individual mode")
+    void individual_RecordsEachAccess() {
+        config.setGrantedMode(TenantAuditConfig.GrantedMode.INDIVIDUAL);
+
+        for (int i = 0; i < 3; i++) {
+            auditService.auditAccessGranted("john", "tenant-1", "/api/v1/patients/" + i);
+        }
+
+        assertThat(written).extracting(TenantAccessAudit::getResource)
+            .containsExactly("/api/v1/patients/0", "/api/v1/patients/1", "/api/v1/patients/2");
+    }
+
+    @Test
+    @DisplayName("Should group resources by their leading non-identifier segments")
+    void resourcePrefix_StopsAtIdentifiers() {
+        List<String> prefixes = new ArrayList<>();
+        prefixes.add(auditService.resourcePrefix("/api/v1/patients/42/visits"));
+        prefixes.add(auditService.resourcePrefix("/api/patients/550e8400-e29b-41d4-a716-446655440000"));
+        prefixes.add(auditService.resourcePrefix("/api/v1/finance/invoices/summary"));
+        prefixes.add(auditService.resourcePrefix("/"));
+
+        assertThat(prefixes).containsExactly("/api/v1/patients", "/api/patients", "/api/v1/finance", "/");
+    }
+}
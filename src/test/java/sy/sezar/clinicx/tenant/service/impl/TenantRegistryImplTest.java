@@ -0,0 +1,229 @@
+package sy.sezar.clinicx.tenant.service.impl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import sy.sezar.clinicx.tenant.KeycloakTenantResolver;
+import sy.sezar.clinicx.tenant.config.TenantRegistryConfig;
+import sy.sezar.clinicx.tenant.model.Tenant;
+import sy.sezar.clinicx.tenant.repository.TenantRepository;
+import sy.sezar.clinicx.tenant.repository.TenantRepository.TenantChangeMarker;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@DisplayName("TenantRegistryImpl Tests")
+class TenantRegistryImplTest {
+
+    private static final int TENANT_COUNT = 50;
+    private static final int REQUESTS = 1_000;
+
+    private TenantRepository tenantRepository;
+    private PlatformTransactionManager transactionManager;
+    private final List<Tenant> tenants = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < TENANT_COUNT; i++) {
+            tenants.add(tenant("tenant-" + i, "clinic" + i, i % 2 == 0 ? "dental-realm" : "clinic-realm"));
+        }
+        tenantRepository = mock(TenantRepository.class);
+        when(tenantRepository.findByIsActiveTrue()).thenAnswer(invocation -> List.copyOf(tenants));
+        when(tenantRepository.findByTenantId(anyString())).thenAnswer(invocation -> find(invocation.getArgument(0)));
+        when(tenantRepository.findBySubdomain(anyString())).thenAnswer(invocation -> tenants.stream()
+            .filter(t -> t.getSubdomain().equals(invocation.getArgument(0)))
+            .findFirst());
+
+        transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    @DisplayName("Should serve lookups from the snapshot after loading once")
+    void lookups_ServedFromSnapshot() {
+        TenantRegistryImpl registry = registry(true);
+        registry.reload();
+        clearInvocations(tenantRepository);
+
+        assertThat(registry.isActive("tenant-3")).isTrue();
+        assertThat(registry.findActiveBySubdomain("clinic4")).map(Tenant::getTenantId).contains("tenant-4");
+        assertThat(registry.findActiveByRealmName("dental-realm")).hasSize(TENANT_COUNT / 2);
+        assertThat(registry.getActiveRealmNames()).containsExactlyInAnyOrder("dental-realm", "clinic-realm");
+        verifyNoInteractions(tenantRepository);
+    }
+
+    @Test
+    @DisplayName("Should remember unknown tenants instead of querying on every request")
+    void unknownTenant_QueriedOnce() {
+        TenantRegistryImpl registry = registry(true);
+        registry.reload();
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(registry.isActive("unknown")).isFalse();
+        }
+
+        verify(tenantRepository, times(1)).findByTenantId("unknown");
+    }
+
+    @Test
+    @DisplayName("Should pick up tenants created after the snapshot was loaded")
+    void newTenant_LoadedOnMiss() {
+        TenantRegistryImpl registry = registry(true);
+        registry.reload();
+        tenants.add(tenant("tenant-new", "newclinic", "clinic-realm"));
+
+        assertThat(registry.isActive("tenant-new")).isTrue();
+        assertThat(registry.isActive("tenant-new")).isTrue();
+
+        verify(tenantRepository, times(1)).findByTenantId("tenant-new");
+    }
+
+    @Test
+    @DisplayName("Should drop a tenant from the snapshot when it is deactivated")
+    void refresh_DropsDeactivatedTenant() {
+        TenantRegistryImpl registry = registry(true);
+        registry.reload();
+
+        find("tenant-1").orElseThrow().setActive(false);
+        registry.refresh("tenant-1");
+
+        assertThat(registry.isActive("tenant-1")).isFalse();
+        assertThat(registry.findActiveBySubdomain("clinic1")).isEmpty();
+        assertThat(registry.isActive("tenant-2")).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should reload when a tenant was deactivated on another instance")
+    void checkForChanges_ReloadsChangedTenants() {
+        AtomicReference<Instant> lastUpdatedAt = new AtomicReference<>(Instant.parse("2026-03-01T00:00:00Z"));
+        when(tenantRepository.findChangeMarker()).thenAnswer(invocation -> marker(lastUpdatedAt.get()));
+        TenantRegistryImpl registry = registry(true);
+        registry.reload();
+
+        registry.checkForChanges();
+        verify(tenantRepository, times(1)).findByIsActiveTrue();
+
+        tenants.removeIf(t -> t.getTenantId().equals("tenant-1"));
+        lastUpdatedAt.set(Instant.parse("2026-03-01T00:05:00Z"));
+        registry.checkForChanges();
+
+        verify(tenantRepository, times(2)).findByIsActiveTrue();
+        assertThat(registry.isActive("tenant-1")).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should read tenants missing from the snapshot in a transaction of their own")
+    void newTenant_LoadedInOwnTransaction() {
+        TenantRegistryImpl registry = registry(true);
+        registry.reload();
+        clearInvocations(transactionManager);
+        tenants.add(tenant("tenant-new", "newclinic", "clinic-realm"));
+
+        assertThat(registry.findActiveBySubdomain("newclinic")).isPresent();
+
+        verify(transactionManager).getTransaction(argThat(definition ->
+            definition.getPropagationBehavior() == TransactionDefinition.PROPAGATION_REQUIRES_NEW));
+    }
+
+    @Test
+    @DisplayName("Benchmark: tenant queries per authenticated request with and without the registry")
+    void benchmark_QueriesPerAuthRequest() {
+        long before = queriesForAuthRequests(registry(false));
+        long after = queriesForAuthRequests(registry(true));
+
+        System.out.printf("Tenant queries for %d auth requests: %d without registry (%.2f/request), "
+                + "%d with registry (%.2f/request)%n",
+            REQUESTS, before, (double) before / REQUESTS, after, (double) after / REQUESTS);
+
+        // Decoder and resolver each hit the database once per request without the registry
+        assertThat(before).isGreaterThanOrEqualTo(2L * REQUESTS);
+        // With the registry only the initial snapshot load and its change marker touch the database
+        assertThat(after).isEqualTo(2);
+    }
+
+    /**
+     * Replays the tenant lookups of an authenticated request: the JWT decoder checks the tenant
+     * claim, then the tenant resolver validates the X-Tenant-ID header.
+     */
+    private long queriesForAuthRequests(TenantRegistryImpl registry) {
+        clearInvocations(tenantRepository);
+        KeycloakTenantResolver resolver = resolver(registry);
+
+        for (int i = 0; i < REQUESTS; i++) {
+            String tenantId = "tenant-" + (i % TENANT_COUNT);
+            MockHttpServletRequest request = new MockHttpServletRequest();
+            request.addHeader("X-Tenant-ID", tenantId);
+            RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+            assertThat(registry.isActive(tenantId)).isTrue();
+            assertThat(resolver.resolveTenant()).isEqualTo(tenantId);
+        }
+
+        return mockingDetails(tenantRepository).getInvocations().size();
+    }
+
+    private TenantRegistryImpl registry(boolean enabled) {
+        TenantRegistryConfig config = new TenantRegistryConfig();
+        config.setEnabled(enabled);
+        return new TenantRegistryImpl(tenantRepository, transactionManager, config);
+    }
+
+    private static KeycloakTenantResolver resolver(TenantRegistryImpl registry) {
+        KeycloakTenantResolver resolver = new KeycloakTenantResolver();
+        ReflectionTestUtils.setField(resolver, "tenantRegistry", registry);
+        ReflectionTestUtils.setField(resolver, "tenantMode", "multi");
+        ReflectionTestUtils.setField(resolver, "multiTenantEnabled", true);
+        ReflectionTestUtils.setField(resolver, "defaultTenantId", "default-tenant");
+        ReflectionTestUtils.setField(resolver, "appDomain", "clinicx.com");
+        return resolver;
+    }
+
+    private Optional<Tenant> find(String tenantId) {
+        return tenants.stream().filter(t -> t.getTenantId().equals(tenantId)).findFirst();
+    }
+
+    private static TenantChangeMarker marker(Instant lastUpdatedAt) {
+        return new TenantChangeMarker() {
+            @Override
+            public long getTenantCount() {
+                return TENANT_COUNT;
+            }
+
+            @Override
+            public Instant getLastUpdatedAt() {
+                return lastUpdatedAt;
+            }
+        };
+    }
+
+    private static Tenant tenant(String tenantId, String subdomain, String realmName) {
+        Tenant tenant = new Tenant();
+        tenant.setTenantId(tenantId);
+        tenant.setSubdomain(subdomain);
+        tenant.setRealmName(realmName);
+        tenant.setActive(true);
+        return tenant;
+    }
+}
@@ -0,0 +1,164 @@
+-- Subset of the finance schema read by the billing reports, the invoice aging, the daily
+-- financial rollup and the overdue sweep, portable between H2 and PostgreSQL
+CREATE TABLE staff (
+    id UUID PRIMARY KEY,
+    full_name VARCHAR(100) NOT NULL
+);
+
+CREATE TABLE specialties (
+    id UUID PRIMARY KEY,
+    name VARCHAR(100) NOT NULL
+);
+
+CREATE TABLE patients (
+    id UUID PRIMARY KEY,
+    public_facing_id VARCHAR(20) NOT NULL,
+    full_name VARCHAR(150) NOT NULL,
+    phone_number VARCHAR(30),
+    email VARCHAR(100),
+    balance DECIMAL(10, 2) NOT NULL DEFAULT 0,
+    insurance_provider VARCHAR(100),
+    is_active BOOLEAN NOT NULL DEFAULT TRUE
+);
+
+CREATE TABLE appointments (
+    id UUID PRIMARY KEY,
+    specialty_id UUID NOT NULL,
+    patient_id UUID NOT NULL,
+    doctor_id UUID,
+    appointment_datetime TIMESTAMP NOT NULL,
+    status VARCHAR(50) NOT NULL
+);
+
+CREATE TABLE visits (
+    id UUID PRIMARY KEY,
+    patient_id UUID NOT NULL,
+    appointment_id UUID,
+    provider_id UUID NOT NULL,
+    date DATE NOT NULL
+);
+
+CREATE TABLE procedure_templates (
+    id UUID PRIMARY KEY,
+    procedure_code VARCHAR(20) UNIQUE,
+    name VARCHAR(255) NOT NULL
+);
+
+CREATE TABLE procedures (
+    id UUID PRIMARY KEY,
+    visit_id UUID NOT NULL,
+    code VARCHAR(20) NOT NULL,
+    name VARCHAR(255) NOT NULL,
+    quantity INTEGER NOT NULL DEFAULT 1,
+    unit_fee DECIMAL(8, 2) NOT NULL,
+    performed_by_id UUID,
+    status VARCHAR(50) NOT NULL
+);
+
+CREATE TABLE procedure_materials (
+    id UUID PRIMARY KEY,
+    procedure_id UUID NOT NULL,
+    total_cost DECIMAL(10, 2) NOT NULL
+);
+
+CREATE TABLE invoices (
+    id UUID PRIMARY KEY,
+    invoice_number VARCHAR(50),
+    patient_id UUID NOT NULL,
+    issue_date DATE NOT NULL,
+    due_date DATE,
+    total_amount DECIMAL(10, 2) NOT NULL,
+    sub_total DECIMAL(10, 2),
+    discount_amount DECIMAL(10, 2) DEFAULT 0,
+    tax_amount DECIMAL(10, 2) DEFAULT 0,
+    amount_paid DECIMAL(10, 2) DEFAULT 0,
+    amount_due DECIMAL(10, 2) DEFAULT 0,
+    status VARCHAR(50) NOT NULL,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE invoice_items (
+    id UUID PRIMARY KEY,
+    invoice_id UUID NOT NULL,
+    procedure_id UUID,
+    amount DECIMAL(10, 2) NOT NULL
+);
+
+CREATE TABLE payments (
+    id UUID PRIMARY KEY,
+    invoice_id UUID,
+    patient_id UUID NOT NULL,
+    payment_date DATE NOT NULL,
+    amount DECIMAL(10, 2) NOT NULL,
+    payment_method VARCHAR(50) NOT NULL,
+    type VARCHAR(50) NOT NULL,
+    status VARCHAR(50) NOT NULL,
+    reference_number VARCHAR(100),
+    created_by UUID,
+    created_at TIMESTAMP NOT NULL
+);
+
+CREATE TABLE ledger_entries (
+    id UUID PRIMARY KEY,
+    patient_id UUID NOT NULL,
+    invoice_id UUID,
+    payment_id UUID,
+    entry_type VARCHAR(50) NOT NULL,
+    amount DECIMAL(10, 2) NOT NULL,
+    occurred_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    description VARCHAR(255),
+    tenant_id VARCHAR(100)
+);
+
+CREATE TABLE ledger_checkpoints (
+    patient_id UUID NOT NULL,
+    checkpoint_at TIMESTAMP NOT NULL,
+    balance DECIMAL(14, 2) NOT NULL,
+    entry_count BIGINT NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (patient_id, checkpoint_at)
+);
+
+CREATE TABLE daily_financial_rollup (
+    tenant_id VARCHAR(100) NOT NULL,
+    rollup_date DATE NOT NULL,
+    doctor_id UUID NOT NULL,
+    payment_method VARCHAR(50) NOT NULL,
+    procedure_code VARCHAR(20) NOT NULL,
+    entry_type VARCHAR(50) NOT NULL,
+    amount DECIMAL(14, 2) NOT NULL DEFAULT 0,
+    entry_count BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (tenant_id, rollup_date, doctor_id, payment_method, procedure_code, entry_type)
+);
+
+CREATE TABLE payment_plans (
+    id UUID PRIMARY KEY,
+    patient_id UUID NOT NULL,
+    invoice_id UUID NOT NULL,
+    total_amount DECIMAL(10, 2) NOT NULL,
+    status VARCHAR(50) NOT NULL
+);
+
+CREATE TABLE payment_plan_installments (
+    id UUID PRIMARY KEY,
+    payment_plan_id UUID NOT NULL,
+    installment_number INTEGER NOT NULL,
+    due_date DATE NOT NULL,
+    amount DECIMAL(10, 2) NOT NULL,
+    paid_amount DECIMAL(10, 2) DEFAULT 0,
+    status VARCHAR(50) NOT NULL
+);
+
+CREATE TABLE billing_events (
+    id UUID PRIMARY KEY,
+    tenant_id VARCHAR(100) NOT NULL,
+    event_type VARCHAR(50) NOT NULL,
+    patient_id UUID NOT NULL,
+    invoice_id UUID,
+    installment_id UUID,
+    amount DECIMAL(10, 2),
+    due_date DATE,
+    occurred_at TIMESTAMP NOT NULL,
+    notified_at TIMESTAMP
+);